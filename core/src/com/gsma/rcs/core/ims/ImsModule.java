@@ -29,7 +29,6 @@ import com.gsma.rcs.core.ims.network.ImsConnectionManager;
 import com.gsma.rcs.core.ims.network.ImsNetworkInterface;
 import com.gsma.rcs.core.ims.network.gsm.CallManager;
 import com.gsma.rcs.core.ims.network.sip.SipManager;
-import com.gsma.rcs.core.ims.protocol.msrp.MsrpConnection;
 import com.gsma.rcs.core.ims.protocol.rtp.core.RtpSource;
 import com.gsma.rcs.core.ims.protocol.sip.SipEventListener;
 import com.gsma.rcs.core.ims.protocol.sip.SipNetworkException;
@@ -139,7 +138,6 @@ public class ImsModule implements SipEventListener {
         // Set general parameters
         SipManager.TIMEOUT = rcsSettings.getSipTransactionTimeout();
         RtpSource.CNAME = ImsModule.IMS_USER_PROFILE.getPublicUri();
-        MsrpConnection.MSRP_TRACE_ENABLED = rcsSettings.isMediaTraceActivated();
         HttpTransferManager.HTTP_TRACE_ENABLED = rcsSettings.isMediaTraceActivated();
 
         // Load keystore for certificates
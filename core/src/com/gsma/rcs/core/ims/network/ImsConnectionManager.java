@@ -376,6 +376,8 @@ public class ImsConnectionManager implements Runnable {
 
                 loadUserProfile();
 
+                /* The answers of the previous network may not be valid on the new one */
+                mCurrentNetworkInterface.flushDnsCache();
                 try {
                     mDnsResolvedFields = mCurrentNetworkInterface.getDnsResolvedFields();
                 } catch (UnknownHostException e) {
@@ -416,6 +418,9 @@ public class ImsConnectionManager implements Runnable {
                             sLogger.debug("Disconnect from IMS: IP address has changed");
                         }
                         disconnectFromIms();
+                        /* Another network of the same type, resolve the proxy again on it */
+                        mCurrentNetworkInterface.flushDnsCache();
+                        mDnsResolvedFields = null;
                     } else {
                         if (sLogger.isActivated()) {
                             sLogger.debug("IP address available (again)");
@@ -649,8 +654,20 @@ public class ImsConnectionManager implements Runnable {
                 mCurrentNetworkInterface.getSipManager().closeStack();
                 /* Increment number of failures */
                 nbFailures++;
-                /* Force to perform a new DNS lookup */
-                mDnsResolvedFields = null;
+                /*
+                 * Fail over at once to the next proxy candidate of the last DNS lookup, or force a
+                 * new DNS lookup once they have all been tried
+                 */
+                mDnsResolvedFields = mCurrentNetworkInterface.getNextDnsResolvedFields();
+                if (mDnsResolvedFields != null
+                        && mImsPollingThreadId == Thread.currentThread().getId()) {
+                    if (sLogger.isActivated()) {
+                        sLogger.debug(new StringBuilder("Fail over to proxy ")
+                                .append(mDnsResolvedFields.mIpAddress).append(':')
+                                .append(mDnsResolvedFields.mPort).toString());
+                    }
+                    continue;
+                }
             }
 
             // InterruptedException thrown by stopImsConnection() may be caught by one
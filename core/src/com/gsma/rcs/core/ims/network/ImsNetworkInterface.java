@@ -25,6 +25,8 @@ package com.gsma.rcs.core.ims.network;
 import com.gsma.rcs.core.CoreException;
 import com.gsma.rcs.core.access.NetworkAccess;
 import com.gsma.rcs.core.ims.ImsModule;
+import com.gsma.rcs.core.ims.network.dns.DnsResolver;
+import com.gsma.rcs.core.ims.network.dns.DnsResolver.PendingLookup;
 import com.gsma.rcs.core.ims.network.registration.GibaRegistrationProcedure;
 import com.gsma.rcs.core.ims.network.registration.HttpDigestRegistrationProcedure;
 import com.gsma.rcs.core.ims.network.registration.RegistrationManager;
@@ -41,18 +43,22 @@ import com.gsma.rcs.provider.settings.RcsSettingsData.AuthenticationProcedure;
 import com.gsma.rcs.utils.logger.Logger;
 import com.gsma.services.rcs.RcsServiceRegistration;
 
-import org.xbill.DNS.Cache;
-import org.xbill.DNS.ExtendedResolver;
-import org.xbill.DNS.Lookup;
+import org.xbill.DNS.ARecord;
 import org.xbill.DNS.NAPTRRecord;
 import org.xbill.DNS.Record;
-import org.xbill.DNS.ResolverConfig;
 import org.xbill.DNS.SRVRecord;
 import org.xbill.DNS.TextParseException;
 import org.xbill.DNS.Type;
 
+import java.io.IOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax2.sip.ListeningPoint;
 
@@ -63,11 +69,6 @@ import javax2.sip.ListeningPoint;
  */
 public abstract class ImsNetworkInterface {
 
-    /**
-     * The maximum time in seconds that a negative response will be stored in this DNS Cache.
-     */
-    private static int DNS_NEGATIVE_CACHING_TIME = 5;
-
     /**
      * IPv4 address format
      */
@@ -213,6 +214,16 @@ public abstract class ImsNetworkInterface {
      */
     private long mRetryDuration = 0;
 
+    /**
+     * Proxy candidates of the last DNS resolution in order of preference
+     */
+    private volatile List<DnsResolvedFields> mDnsCandidates = Collections.emptyList();
+
+    /**
+     * Proxy candidate of the last registration attempt
+     */
+    private volatile DnsResolvedFields mRegisteredDnsResolvedFields;
+
     /**
      * The logger
      */
@@ -457,51 +468,7 @@ public abstract class ImsNetworkInterface {
     }
 
     /**
-     * Get DNS records
-     * 
-     * @param domain Domain
-     * @param resolver Resolver
-     * @param type (Type.SRV or Type.NAPTR)
-     * @return SRV records or null if no record
-     */
-    private Record[] getDnsRequest(String domain, ExtendedResolver resolver, int type) {
-        try {
-            if (sLogger.isActivated()) {
-                if (type == Type.SRV) {
-                    sLogger.debug("DNS SRV lookup for " + domain);
-                } else if (type == Type.NAPTR) {
-                    sLogger.debug("DNS NAPTR lookup for " + domain);
-                }
-            }
-            Lookup lookup = new Lookup(domain, type);
-            lookup.setResolver(resolver);
-            // Default negative cache TTL value is "cache forever". We do not want that.
-            Cache cache = Lookup.getDefaultCache(type);
-            cache.setMaxNCache(DNS_NEGATIVE_CACHING_TIME);
-            lookup.setCache(cache);
-            Record[] result = lookup.run();
-            int code = lookup.getResult();
-            if (code != Lookup.SUCCESSFUL) {
-                if (sLogger.isActivated()) {
-                    sLogger.warn("Lookup error: " + code + "/" + lookup.getErrorString());
-                }
-            }
-            return result;
-        } catch (TextParseException e) {
-            if (sLogger.isActivated()) {
-                sLogger.debug("Not a valid DNS name");
-            }
-            return null;
-        } catch (IllegalArgumentException e) {
-            if (sLogger.isActivated()) {
-                sLogger.debug("Not a valid DNS type");
-            }
-            return null;
-        }
-    }
-
-    /**
-     * Get DNS A record
+     * Get DNS A record from the system resolver
      * 
      * @param domain Domain
      * @return IP address or null if no record
@@ -520,38 +487,6 @@ public abstract class ImsNetworkInterface {
         }
     }
 
-    /**
-     * Get best DNS SRV record
-     * 
-     * @param records SRV records
-     * @return IP address
-     */
-    private SRVRecord getBestDnsSRV(Record[] records) {
-        SRVRecord result = null;
-        for (int i = 0; i < records.length; i++) {
-            SRVRecord srv = (SRVRecord) records[i];
-            if (sLogger.isActivated()) {
-                sLogger.debug("SRV record: " + srv.toString());
-            }
-            if (result == null) {
-                // First record
-                result = srv;
-            } else {
-                // Next record
-                if (srv.getPriority() < result.getPriority()) {
-                    // Lowest priority
-                    result = srv;
-                } else if (srv.getPriority() == result.getPriority()) {
-                    // Highest weight
-                    if (srv.getWeight() > result.getWeight()) {
-                        result = srv;
-                    }
-                }
-            }
-        }
-        return result;
-    }
-
     /**
      * Get the SRV Query
      * 
@@ -567,115 +502,237 @@ public abstract class ImsNetworkInterface {
         }
     }
 
-    // Changed by Deutsche Telekom
     /**
-     * Get the DNS resolved fields.
+     * Get the NAPTR service of the IMS proxy protocol
      * 
-     * @return The {@link DnsResolvedFields} object containing the DNS resolved fields.
+     * @return NAPTR service
      * @throws SipPayloadException
-     * @throws UnknownHostException
      */
-    protected DnsResolvedFields getDnsResolvedFields() throws SipPayloadException,
-            UnknownHostException {
-        // Changed by Deutsche Telekom
-        DnsResolvedFields dnsResolvedFields;
-        boolean useDns = true;
-        if (mImsProxyAddr.matches(REGEX_IPV4)) {
-            useDns = false;
-            dnsResolvedFields = new DnsResolvedFields(mImsProxyAddr, mImsProxyPort);
+    private String getSipService() throws SipPayloadException {
+        if (mImsProxyProtocol.equalsIgnoreCase(ListeningPoint.UDP)) {
+            return DNS_SIP_UDP_SERVICE;
+        } else if (mImsProxyProtocol.equalsIgnoreCase(ListeningPoint.TCP)) {
+            return DNS_SIP_TCP_SERVICE;
+        } else if (mImsProxyProtocol.equalsIgnoreCase(ListeningPoint.TLS)) {
+            return DNS_SIP_TLS_SERVICE;
+        }
+        throw new SipPayloadException("Unkown SIP protocol : ".concat(mImsProxyProtocol));
+    }
 
+    /**
+     * Adds the SRV records of an answer to a list, by increasing priority then decreasing weight
+     * 
+     * @param records Records of the answer, or null
+     * @param srvRecords List to complete
+     */
+    private void addSortedSrvRecords(Record[] records, List<SRVRecord> srvRecords) {
+        if (records == null) {
+            return;
+        }
+        List<SRVRecord> sorted = new ArrayList<SRVRecord>();
+        for (Record record : records) {
             if (sLogger.isActivated()) {
-                sLogger.warn("IP address found instead of FQDN!");
+                sLogger.debug("SRV record: ".concat(record.toString()));
             }
-        } else {
-            dnsResolvedFields = new DnsResolvedFields(null, mImsProxyPort);
+            sorted.add((SRVRecord) record);
         }
+        Collections.sort(sorted, new Comparator<SRVRecord>() {
+            @Override
+            public int compare(SRVRecord lhs, SRVRecord rhs) {
+                if (lhs.getPriority() != rhs.getPriority()) {
+                    return lhs.getPriority() < rhs.getPriority() ? -1 : 1;
+                }
+                if (lhs.getWeight() != rhs.getWeight()) {
+                    return lhs.getWeight() > rhs.getWeight() ? -1 : 1;
+                }
+                return 0;
+            }
+        });
+        srvRecords.addAll(sorted);
+    }
 
-        if (useDns) {
-            ResolverConfig.refresh();
-            ExtendedResolver resolver = new ExtendedResolver();
-
-            /*
-             * Resolve the IMS proxy configuration: first try to resolve via a NAPTR query, then a
-             * SRV query and finally via A query
-             */
-            if (sLogger.isActivated()) {
-                sLogger.debug("Resolve IMS proxy address ".concat(mImsProxyAddr));
+    /**
+     * Adds a proxy candidate to a list unless it is already in it
+     * 
+     * @param candidates List to complete
+     * @param ipAddress IP address
+     * @param port Port
+     */
+    private void addCandidate(List<DnsResolvedFields> candidates, String ipAddress, int port) {
+        for (DnsResolvedFields candidate : candidates) {
+            if (candidate.mIpAddress.equals(ipAddress) && candidate.mPort == port) {
+                return;
             }
+        }
+        candidates.add(new DnsResolvedFields(ipAddress, port));
+    }
 
-            /* DNS NAPTR lookup */
-            String service;
-            if (mImsProxyProtocol.equalsIgnoreCase(ListeningPoint.UDP)) {
-                service = DNS_SIP_UDP_SERVICE;
-            } else if (mImsProxyProtocol.equalsIgnoreCase(ListeningPoint.TCP)) {
-                service = DNS_SIP_TCP_SERVICE;
-            } else if (mImsProxyProtocol.equalsIgnoreCase(ListeningPoint.TLS)) {
-                service = DNS_SIP_TLS_SERVICE;
+    /**
+     * Resolves the targets of SRV records into proxy candidates. The targets are looked up in
+     * parallel.
+     * 
+     * @param resolver DNS resolver
+     * @param srvRecords SRV records in order of preference
+     * @param candidates List to complete
+     * @throws TextParseException
+     * @throws InterruptedException
+     */
+    private void resolveSrvTargets(DnsResolver resolver, List<SRVRecord> srvRecords,
+            List<DnsResolvedFields> candidates) throws TextParseException, InterruptedException {
+        Map<String, PendingLookup> targetLookups = new HashMap<String, PendingLookup>();
+        for (SRVRecord srvRecord : srvRecords) {
+            String target = srvRecord.getTarget().toString();
+            if (!targetLookups.containsKey(target)) {
+                targetLookups.put(target, resolver.lookup(target, Type.A));
+            }
+        }
+        for (SRVRecord srvRecord : srvRecords) {
+            String target = srvRecord.getTarget().toString();
+            Record[] aRecords = targetLookups.get(target).get();
+            if (aRecords != null && aRecords.length > 0) {
+                for (Record aRecord : aRecords) {
+                    addCandidate(candidates, ((ARecord) aRecord).getAddress().getHostAddress(),
+                            srvRecord.getPort());
+                }
             } else {
-                throw new SipPayloadException("Unkown SIP protocol : ".concat(mImsProxyProtocol));
+                /* The target may only be known by the system resolver, e.g. with an IPv6 address */
+                String ipAddress = getDnsA(target);
+                if (ipAddress != null) {
+                    addCandidate(candidates, ipAddress, srvRecord.getPort());
+                }
             }
+        }
+    }
 
-            boolean resolved = false;
-            Record[] naptrRecords = getDnsRequest(mImsProxyAddr, resolver, Type.NAPTR);
-            if ((naptrRecords != null) && (naptrRecords.length > 0)) {
-                /* First try with NAPTR */
-                if (sLogger.isActivated()) {
-                    sLogger.debug(new StringBuilder("NAPTR records found: ").append(
-                            naptrRecords.length).toString());
-                }
-                for (int i = 0; i < naptrRecords.length; i++) {
-                    NAPTRRecord naptr = (NAPTRRecord) naptrRecords[i];
+    /**
+     * Resolves the IMS proxy configuration: first try to resolve via a NAPTR query, then a SRV
+     * query and finally via A query. The NAPTR query and the SRV query used when there is no NAPTR
+     * record are sent in parallel.
+     * 
+     * @param service NAPTR service of the IMS proxy protocol
+     * @return Proxy candidates in order of preference, empty if none was resolved
+     */
+    private List<DnsResolvedFields> resolveProxyCandidates(String service) {
+        List<DnsResolvedFields> candidates = new ArrayList<DnsResolvedFields>();
+        DnsResolver resolver;
+        try {
+            resolver = DnsResolver.getInstance();
+        } catch (IOException e) {
+            sLogger.error("Failed to start DNS resolver!", e);
+            return candidates;
+        }
+        if (sLogger.isActivated()) {
+            sLogger.debug("Resolve IMS proxy address ".concat(mImsProxyAddr));
+        }
+        resolver.refreshServers();
+        String srvQuery;
+        if (mImsProxyAddr.startsWith(DNS_SIP_PREFIX) || mImsProxyAddr.startsWith(DNS_SIPS_PREFIX)) {
+            srvQuery = mImsProxyAddr;
+        } else {
+            srvQuery = getSrvQuery(service);
+        }
+        try {
+            PendingLookup naptrLookup = resolver.lookup(mImsProxyAddr, Type.NAPTR);
+            PendingLookup srvLookup = resolver.lookup(srvQuery, Type.SRV);
+
+            /* DNS NAPTR lookup */
+            List<NAPTRRecord> naptrRecords = new ArrayList<NAPTRRecord>();
+            Record[] records = naptrLookup.get();
+            if (records != null) {
+                for (Record record : records) {
+                    NAPTRRecord naptr = (NAPTRRecord) record;
                     if (sLogger.isActivated()) {
                         sLogger.debug("NAPTR record: ".concat(naptr.toString()));
                     }
-                    if ((naptr != null) && naptr.getService().equalsIgnoreCase(service)) {
-                        /* DNS SRV lookup */
-                        Record[] srvRecords = getDnsRequest(naptr.getReplacement().toString(),
-                                resolver, Type.SRV);
-                        if ((srvRecords != null) && (srvRecords.length > 0)) {
-                            SRVRecord srvRecord = getBestDnsSRV(srvRecords);
-                            dnsResolvedFields.mIpAddress = getDnsA(srvRecord.getTarget().toString());
-                            dnsResolvedFields.mPort = srvRecord.getPort();
-                        } else {
-                            /* Direct DNS A lookup */
-                            dnsResolvedFields.mIpAddress = getDnsA(mImsProxyAddr);
-                        }
-                        resolved = true;
+                    if (naptr.getService().equalsIgnoreCase(service)) {
+                        naptrRecords.add(naptr);
                     }
                 }
             }
-
-            if (!resolved) {
+            Collections.sort(naptrRecords, new Comparator<NAPTRRecord>() {
+                @Override
+                public int compare(NAPTRRecord lhs, NAPTRRecord rhs) {
+                    if (lhs.getOrder() != rhs.getOrder()) {
+                        return lhs.getOrder() < rhs.getOrder() ? -1 : 1;
+                    }
+                    if (lhs.getPreference() != rhs.getPreference()) {
+                        return lhs.getPreference() < rhs.getPreference() ? -1 : 1;
+                    }
+                    return 0;
+                }
+            });
+
+            /* DNS SRV lookup of every NAPTR replacement, in parallel */
+            List<SRVRecord> srvRecords = new ArrayList<SRVRecord>();
+            if (!naptrRecords.isEmpty()) {
+                List<PendingLookup> srvLookups = new ArrayList<PendingLookup>();
+                for (NAPTRRecord naptr : naptrRecords) {
+                    srvLookups.add(resolver.lookup(naptr.getReplacement().toString(), Type.SRV));
+                }
+                for (PendingLookup lookup : srvLookups) {
+                    addSortedSrvRecords(lookup.get(), srvRecords);
+                }
+            } else {
                 /* If no NAPTR: direct DNS SRV lookup */
                 if (sLogger.isActivated()) {
                     sLogger.debug("No NAPTR record found: use DNS SRV instead");
                 }
-                String srvQuery;
-                if (mImsProxyAddr.startsWith(DNS_SIP_PREFIX)
-                        || mImsProxyAddr.startsWith(DNS_SIPS_PREFIX)) {
-                    srvQuery = mImsProxyAddr;
-                } else {
-                    srvQuery = getSrvQuery(service);
-                }
-                Record[] srvRecords = getDnsRequest(srvQuery, resolver, Type.SRV);
-                if ((srvRecords != null) && (srvRecords.length > 0)) {
-                    SRVRecord srvRecord = getBestDnsSRV(srvRecords);
-                    dnsResolvedFields.mIpAddress = getDnsA(srvRecord.getTarget().toString());
-                    dnsResolvedFields.mPort = srvRecord.getPort();
-                    resolved = true;
-                }
+                addSortedSrvRecords(srvLookup.get(), srvRecords);
+            }
+            resolveSrvTargets(resolver, srvRecords, candidates);
 
-                if (!resolved) {
-                    /* If not resolved: direct DNS A lookup */
-                    if (sLogger.isActivated()) {
-                        sLogger.debug("No SRV record found: use DNS A instead");
+            if (candidates.isEmpty()) {
+                /* If not resolved: direct DNS A lookup */
+                if (sLogger.isActivated()) {
+                    sLogger.debug("No SRV record found: use DNS A instead");
+                }
+                Record[] aRecords = resolver.lookup(mImsProxyAddr, Type.A).get();
+                if (aRecords != null) {
+                    for (Record aRecord : aRecords) {
+                        addCandidate(candidates,
+                                ((ARecord) aRecord).getAddress().getHostAddress(), mImsProxyPort);
                     }
-                    dnsResolvedFields.mIpAddress = getDnsA(mImsProxyAddr);
                 }
             }
+        } catch (TextParseException e) {
+            if (sLogger.isActivated()) {
+                sLogger.debug("Not a valid DNS name");
+            }
+        } catch (InterruptedException e) {
+            /* Registration is being stopped */
+            Thread.currentThread().interrupt();
+        } finally {
+            resolver.save();
         }
+        return candidates;
+    }
+
+    // Changed by Deutsche Telekom
+    /**
+     * Get the DNS resolved fields. All the proxy candidates found are kept so that registration
+     * can fail over to the next one without a new lookup, see
+     * {@link #getNextDnsResolvedFields()}.
+     * 
+     * @return The {@link DnsResolvedFields} object containing the DNS resolved fields.
+     * @throws SipPayloadException
+     * @throws UnknownHostException
+     */
+    protected DnsResolvedFields getDnsResolvedFields() throws SipPayloadException,
+            UnknownHostException {
+        // Changed by Deutsche Telekom
+        List<DnsResolvedFields> candidates;
+        if (mImsProxyAddr.matches(REGEX_IPV4)) {
+            candidates = new ArrayList<DnsResolvedFields>();
+            candidates.add(new DnsResolvedFields(mImsProxyAddr, mImsProxyPort));
 
-        if (dnsResolvedFields.mIpAddress == null) {
+            if (sLogger.isActivated()) {
+                sLogger.warn("IP address found instead of FQDN!");
+            }
+        } else {
+            candidates = resolveProxyCandidates(getSipService());
+        }
+
+        if (candidates.isEmpty()) {
             // Changed by Deutsche Telekom
             /* Try to use IMS proxy address as a fallback */
             String imsProxyAddrResolved = getDnsA(mImsProxyAddr);
@@ -683,18 +740,51 @@ public abstract class ImsNetworkInterface {
                 throw new SipPayloadException(new StringBuilder("Proxy IP address : ")
                         .append(mImsProxyAddr).append(" not found!").toString());
             }
-            dnsResolvedFields = new DnsResolvedFields(imsProxyAddrResolved, mImsProxyPort);
+            candidates.add(new DnsResolvedFields(imsProxyAddrResolved, mImsProxyPort));
         }
+        mDnsCandidates = candidates;
 
+        DnsResolvedFields dnsResolvedFields = candidates.get(0);
         if (sLogger.isActivated()) {
             sLogger.debug(new StringBuilder("SIP outbound proxy configuration: ")
                     .append(dnsResolvedFields.mIpAddress).append(":")
                     .append(dnsResolvedFields.mPort).append(";").append(mImsProxyProtocol)
-                    .toString());
+                    .append(" (").append(candidates.size()).append(" candidates)").toString());
         }
         return dnsResolvedFields;
     }
 
+    /**
+     * Get the proxy candidate following the one of the last registration attempt in the last DNS
+     * resolution.
+     * 
+     * resolution. Once all the candidates have been tried the cached DNS answers are flushed, as
+     * they may be stale, so that the next lookup queries the name servers.
+     * 
+     * @return The {@link DnsResolvedFields} object of the next candidate, or <code>null</code> if
+     *         all the candidates have been tried and a new DNS lookup is needed.
+     */
+    public DnsResolvedFields getNextDnsResolvedFields() {
+        List<DnsResolvedFields> candidates = mDnsCandidates;
+        int index = candidates.indexOf(mRegisteredDnsResolvedFields);
+        if (index < 0 || index + 1 >= candidates.size()) {
+            flushDnsCache();
+            return null;
+        }
+        return candidates.get(index + 1);
+    }
+
+    /**
+     * Drops the cached DNS answers, to be called when the network has changed
+     */
+    public void flushDnsCache() {
+        try {
+            DnsResolver.getInstance().flush();
+        } catch (IOException e) {
+            sLogger.error("Failed to start DNS resolver!", e);
+        }
+    }
+
     /**
      * Register to the IMS
      * 
@@ -716,6 +806,7 @@ public abstract class ImsNetworkInterface {
             if (dnsResolvedFields == null) {
                 dnsResolvedFields = getDnsResolvedFields();
             }
+            mRegisteredDnsResolvedFields = dnsResolvedFields;
 
             // Changed by Deutsche Telekom
             mSip.initStack(mAccess.getIpAddress(), dnsResolvedFields.mIpAddress,
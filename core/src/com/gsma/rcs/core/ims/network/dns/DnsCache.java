@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.gsma.rcs.core.ims.network.dns;
+
+import com.gsma.rcs.utils.CloseableUtils;
+import com.gsma.rcs.utils.logger.Logger;
+
+import org.xbill.DNS.Name;
+import org.xbill.DNS.Record;
+import org.xbill.DNS.Section;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Cache of DNS answers that respects the time to live of the records and survives process
+ * restarts by being saved to a file. Empty answers are cached too, with a short time to live. An
+ * entry reports when it is close to expiry so that it can be refreshed before it is needed again.
+ */
+public class DnsCache {
+
+    private static final int MAX_ENTRIES = 64;
+
+    /**
+     * An entry is due for prefetch when less than this fraction of its time to live remains
+     */
+    private static final int PREFETCH_RATIO = 10;
+
+    private static final int FILE_FORMAT_VERSION = 1;
+
+    private static final Logger sLogger = Logger.getLogger(DnsCache.class.getSimpleName());
+
+    /**
+     * Cached answer
+     */
+    public static final class Entry {
+
+        private final Record[] mRecords;
+
+        private final long mExpiration;
+
+        private final long mTtl;
+
+        private Entry(Record[] records, long expiration, long ttl) {
+            mRecords = records;
+            mExpiration = expiration;
+            mTtl = ttl;
+        }
+
+        /**
+         * @return Records of the answer, empty for a negative answer
+         */
+        public Record[] getRecords() {
+            return mRecords;
+        }
+
+        /**
+         * @param now Current time in milliseconds
+         * @return True if the entry expires soon and should be refreshed
+         */
+        public boolean isPrefetchDue(long now) {
+            return mExpiration - now < mTtl / PREFETCH_RATIO;
+        }
+    }
+
+    private final File mFile;
+
+    private final Map<String, Entry> mEntries = new LinkedHashMap<String, Entry>(MAX_ENTRIES,
+            0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private boolean mDirty;
+
+    /**
+     * Constructor
+     *
+     * @param file File the cache is saved to, or null to keep it in memory only
+     */
+    public DnsCache(File file) {
+        mFile = file;
+    }
+
+    private static String getKey(Name name, int type) {
+        return new StringBuilder(name.toString().toLowerCase(Locale.US)).append('/').append(type)
+                .toString();
+    }
+
+    /**
+     * Returns the cached answer of a question
+     *
+     * @param name Name
+     * @param type Record type
+     * @return Entry or null if there is no answer or it has expired
+     */
+    public synchronized Entry get(Name name, int type) {
+        String key = getKey(name, type);
+        Entry entry = mEntries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.mExpiration <= System.currentTimeMillis()) {
+            mEntries.remove(key);
+            mDirty = true;
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Caches the answer of a question
+     *
+     * @param name Name
+     * @param type Record type
+     * @param records Records of the answer, empty for a negative answer
+     * @param ttl Time to live in milliseconds
+     */
+    public synchronized void put(Name name, int type, Record[] records, long ttl) {
+        mEntries.put(getKey(name, type), new Entry(records, System.currentTimeMillis() + ttl,
+                ttl));
+        mDirty = true;
+    }
+
+    /**
+     * Removes all the cached answers
+     */
+    public synchronized void clear() {
+        mEntries.clear();
+        mDirty = true;
+    }
+
+    /**
+     * Loads the answers saved by a previous process, ignoring the expired ones
+     */
+    public void load() {
+        if (mFile == null || !mFile.exists()) {
+            return;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(mFile)));
+            if (in.readInt() != FILE_FORMAT_VERSION) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            int count = in.readInt();
+            synchronized (this) {
+                for (int i = 0; i < count; i++) {
+                    String key = in.readUTF();
+                    long expiration = in.readLong();
+                    long ttl = in.readLong();
+                    Record[] records = new Record[in.readInt()];
+                    for (int j = 0; j < records.length; j++) {
+                        byte[] wire = new byte[in.readUnsignedShort()];
+                        in.readFully(wire);
+                        records[j] = Record.fromWire(wire, Section.ANSWER);
+                    }
+                    if (expiration > now && !mEntries.containsKey(key)) {
+                        mEntries.put(key, new Entry(records, expiration, ttl));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            /* A corrupted file only costs new lookups */
+            if (sLogger.isActivated()) {
+                sLogger.debug("Failed to load DNS cache: ".concat(e.getMessage()));
+            }
+        } finally {
+            CloseableUtils.close(in);
+        }
+    }
+
+    /**
+     * Saves the answers if they have changed since the last save
+     */
+    public void save() {
+        if (mFile == null) {
+            return;
+        }
+        List<Map.Entry<String, Entry>> entries;
+        synchronized (this) {
+            if (!mDirty) {
+                return;
+            }
+            mDirty = false;
+            entries = new ArrayList<Map.Entry<String, Entry>>(mEntries.entrySet());
+        }
+        File tmpFile = new File(mFile.getPath().concat(".tmp"));
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+            out.writeInt(FILE_FORMAT_VERSION);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Entry> entry : entries) {
+                Entry value = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeLong(value.mExpiration);
+                out.writeLong(value.mTtl);
+                out.writeInt(value.mRecords.length);
+                for (Record record : value.mRecords) {
+                    byte[] wire = record.toWire(Section.ANSWER);
+                    out.writeShort(wire.length);
+                    out.write(wire);
+                }
+            }
+            out.close();
+            out = null;
+            if (!tmpFile.renameTo(mFile)) {
+                throw new IOException("Failed to rename ".concat(tmpFile.getPath()));
+            }
+        } catch (IOException e) {
+            if (sLogger.isActivated()) {
+                sLogger.debug("Failed to save DNS cache: ".concat(e.getMessage()));
+            }
+        } finally {
+            CloseableUtils.close(out);
+        }
+    }
+}
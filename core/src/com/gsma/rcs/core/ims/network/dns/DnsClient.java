@@ -0,0 +1,477 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.gsma.rcs.core.ims.network.dns;
+
+import com.gsma.rcs.utils.logger.Logger;
+
+import org.xbill.DNS.Flags;
+import org.xbill.DNS.Message;
+import org.xbill.DNS.OPTRecord;
+import org.xbill.DNS.Record;
+import org.xbill.DNS.ResolverConfig;
+import org.xbill.DNS.Section;
+import org.xbill.DNS.SimpleResolver;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DNS client multiplexing all the UDP queries of the process on one selector thread. Queries are
+ * answered through a callback, so that independent lookups are in flight at the same time without
+ * a thread per query. Each attempt is sent from a new socket bound to a random ephemeral port with
+ * a new random message id, and an answer is only accepted from the queried name server for the
+ * same id and question, so that an off-path answer cannot be injected. A query that is not
+ * answered in time is retried on the next name server, a truncated answer is queried again over
+ * TCP on a separate thread.
+ */
+public class DnsClient {
+
+    /**
+     * Time in milliseconds to wait for the answer of a name server before trying the next one
+     */
+    private static final long ATTEMPT_TIMEOUT = 2000;
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final int DNS_PORT = 53;
+
+    /**
+     * UDP payload size advertised to the name servers, which avoids most TCP fallbacks for NAPTR
+     * and SRV answers
+     */
+    private static final int EDNS_PAYLOAD_SIZE = 1232;
+
+    private static final int RECEIVE_BUFFER_SIZE = 4096;
+
+    /**
+     * Time in seconds the TCP thread is kept once idle, truncated answers being rare
+     */
+    private static final long TCP_KEEP_ALIVE = 10;
+
+    private static final Logger sLogger = Logger.getLogger(DnsClient.class.getSimpleName());
+
+    private static volatile DnsClient sInstance;
+
+    /**
+     * Callback of a query, called on the selector thread and must not block
+     */
+    public interface Callback {
+
+        /**
+         * Called when the answer is received
+         *
+         * @param response Response message, whatever its rcode
+         */
+        public void onResponse(Message response);
+
+        /**
+         * Called when no name server answered
+         *
+         * @param e Cause of the failure
+         */
+        public void onFailure(IOException e);
+    }
+
+    private static final class Query {
+
+        private final Record mQuestion;
+
+        private final Callback mCallback;
+
+        private int mId;
+
+        private int mAttempts;
+
+        private long mDeadline;
+
+        private InetSocketAddress mServer;
+
+        private DatagramChannel mChannel;
+
+        private Query(Record question, Callback callback) {
+            mQuestion = question;
+            mCallback = callback;
+        }
+    }
+
+    private final Selector mSelector;
+
+    private final ByteBuffer mReceiveBuffer = ByteBuffer.allocate(RECEIVE_BUFFER_SIZE);
+
+    /**
+     * Queries submitted by other threads, sent by the selector thread which owns the channels
+     */
+    private final ConcurrentLinkedQueue<Query> mSubmittedQueries = new ConcurrentLinkedQueue<Query>();
+
+    /**
+     * Queries waiting for an answer, only accessed by the selector thread
+     */
+    private final List<Query> mPendingQueries = new ArrayList<Query>();
+
+    private final SecureRandom mRandom = new SecureRandom();
+
+    private final ThreadPoolExecutor mTcpExecutor;
+
+    private volatile InetSocketAddress[] mServers;
+
+    private volatile boolean mShutdown;
+
+    private DnsClient() throws IOException {
+        this(new InetSocketAddress[0]);
+        refreshServers();
+    }
+
+    /**
+     * Constructor of a client of given name servers, the shared client being returned by
+     * {@link #getInstance()}
+     *
+     * @param servers Name servers
+     * @throws IOException
+     */
+    public DnsClient(InetSocketAddress... servers) throws IOException {
+        mServers = servers;
+        mSelector = Selector.open();
+        /* The thread of the TCP queries is only kept while they are sent */
+        mTcpExecutor = new ThreadPoolExecutor(0, 1, TCP_KEEP_ALIVE, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>());
+        Thread selectorThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                loop();
+            }
+        }, "DnsClient");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+    }
+
+    /**
+     * Returns the client, started on first use
+     *
+     * @return DNS client
+     * @throws IOException
+     */
+    public static DnsClient getInstance() throws IOException {
+        if (sInstance == null) {
+            synchronized (DnsClient.class) {
+                if (sInstance == null) {
+                    sInstance = new DnsClient();
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * Reloads the name servers of the current network
+     */
+    public void refreshServers() {
+        ResolverConfig.refresh();
+        String[] servers = ResolverConfig.getCurrentConfig().servers();
+        List<InetSocketAddress> addresses = new ArrayList<InetSocketAddress>();
+        if (servers != null) {
+            for (String server : servers) {
+                try {
+                    addresses.add(new InetSocketAddress(InetAddress.getByName(server), DNS_PORT));
+                } catch (UnknownHostException e) {
+                    if (sLogger.isActivated()) {
+                        sLogger.debug("Ignore invalid name server ".concat(server));
+                    }
+                }
+            }
+        }
+        mServers = addresses.toArray(new InetSocketAddress[addresses.size()]);
+    }
+
+    /**
+     * Sends a query
+     *
+     * @param question Question record
+     * @param callback Callback of the query
+     */
+    public void query(Record question, Callback callback) {
+        mSubmittedQueries.add(new Query(question, callback));
+        mSelector.wakeup();
+    }
+
+    /**
+     * Stops the client, the pending queries are failed
+     */
+    public void shutdown() {
+        mShutdown = true;
+        mSelector.wakeup();
+        mTcpExecutor.shutdown();
+    }
+
+    private void fail(Query query, IOException e) {
+        try {
+            query.mCallback.onFailure(e);
+        } catch (RuntimeException re) {
+            /*
+             * Intentionally catch runtime exceptions as else it will abruptly end the selector
+             * thread and stop the resolution of every query.
+             */
+            sLogger.error("DNS query callback failed!", re);
+        }
+    }
+
+    private void complete(Query query, Message response) {
+        try {
+            query.mCallback.onResponse(response);
+        } catch (RuntimeException e) {
+            /*
+             * Intentionally catch runtime exceptions as else it will abruptly end the selector
+             * thread and stop the resolution of every query.
+             */
+            sLogger.error("DNS query callback failed!", e);
+        }
+    }
+
+    private void close(Query query) {
+        if (query.mChannel == null) {
+            return;
+        }
+        try {
+            /* Closing the channel also cancels its selection key */
+            query.mChannel.close();
+        } catch (IOException e) {
+            if (sLogger.isActivated()) {
+                sLogger.debug("Failed to close DNS channel: ".concat(e.getMessage()));
+            }
+        }
+        query.mChannel = null;
+    }
+
+    private void send(Query query) {
+        InetSocketAddress[] servers = mServers;
+        if (servers.length == 0) {
+            fail(query, new IOException("No name server available"));
+            return;
+        }
+        query.mServer = servers[query.mAttempts % servers.length];
+        query.mAttempts++;
+        query.mDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ATTEMPT_TIMEOUT);
+        query.mId = mRandom.nextInt(0x10000);
+        mPendingQueries.add(query);
+        Message message = Message.newQuery(query.mQuestion);
+        message.getHeader().setID(query.mId);
+        message.addRecord(new OPTRecord(EDNS_PAYLOAD_SIZE, 0, 0), Section.ADDITIONAL);
+        try {
+            /*
+             * A new socket per attempt, bound by the system to a random ephemeral port and
+             * connected to the name server so that datagrams from any other host are discarded.
+             */
+            query.mChannel = DatagramChannel.open();
+            query.mChannel.configureBlocking(false);
+            query.mChannel.socket().bind(null);
+            query.mChannel.connect(query.mServer);
+            query.mChannel.register(mSelector, SelectionKey.OP_READ, query);
+            query.mChannel.write(ByteBuffer.wrap(message.toWire()));
+        } catch (IOException e) {
+            /* Handled as a timeout of this attempt so that the next name server is tried */
+            if (sLogger.isActivated()) {
+                sLogger.debug(new StringBuilder("Failed to send DNS query to ")
+                        .append(query.mServer).append(": ").append(e.getMessage()).toString());
+            }
+            close(query);
+            query.mDeadline = System.nanoTime();
+        }
+    }
+
+    private void sendSubmittedQueries() {
+        Query query;
+        while ((query = mSubmittedQueries.poll()) != null) {
+            send(query);
+        }
+    }
+
+    /**
+     * Retries or fails the timed out queries and returns the time to wait for the next deadline
+     *
+     * @return Time in milliseconds to the next deadline or 0 if no query is pending
+     */
+    private long checkDeadlines() {
+        long now = System.nanoTime();
+        List<Query> expired = null;
+        Iterator<Query> queries = mPendingQueries.iterator();
+        while (queries.hasNext()) {
+            Query query = queries.next();
+            if (query.mDeadline - now <= 0) {
+                queries.remove();
+                close(query);
+                if (expired == null) {
+                    expired = new ArrayList<Query>();
+                }
+                expired.add(query);
+            }
+        }
+        if (expired != null) {
+            for (Query query : expired) {
+                if (query.mAttempts < MAX_ATTEMPTS) {
+                    send(query);
+                } else {
+                    fail(query, new SocketTimeoutException(new StringBuilder(
+                            "No answer to DNS query ").append(query.mQuestion.getName())
+                            .toString()));
+                }
+            }
+        }
+        long timeout = 0;
+        for (Query query : mPendingQueries) {
+            /* At least one millisecond, a zero timeout would wait forever */
+            long delay = Math.max(1, TimeUnit.NANOSECONDS.toMillis(query.mDeadline - now) + 1);
+            if (timeout == 0 || delay < timeout) {
+                timeout = delay;
+            }
+        }
+        return timeout;
+    }
+
+    private void queryOverTcp(final Query query) {
+        mTcpExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    SimpleResolver resolver = new SimpleResolver(query.mServer.getAddress()
+                            .getHostAddress());
+                    resolver.setTCP(true);
+                    resolver.setTimeout((int) (ATTEMPT_TIMEOUT / 1000));
+                    complete(query, resolver.send(Message.newQuery(query.mQuestion)));
+                } catch (IOException e) {
+                    fail(query, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns whether a response answers the query
+     *
+     * @param query Query
+     * @param response Response message
+     * @return True if the response has the id and the question of the query
+     */
+    private static boolean isAnswer(Query query, Message response) {
+        if (response.getHeader().getID() != query.mId || !response.getHeader().getFlag(Flags.QR)) {
+            return false;
+        }
+        Record question = response.getQuestion();
+        return question != null && question.getName().equals(query.mQuestion.getName())
+                && question.getType() == query.mQuestion.getType()
+                && question.getDClass() == query.mQuestion.getDClass();
+    }
+
+    private void receive(Query query) {
+        while (query.mChannel != null) {
+            mReceiveBuffer.clear();
+            try {
+                if (query.mChannel.read(mReceiveBuffer) <= 0) {
+                    return;
+                }
+            } catch (IOException e) {
+                /* The name server is unreachable, the next one is tried at once */
+                if (sLogger.isActivated()) {
+                    sLogger.debug(new StringBuilder("Failed to receive DNS answer from ")
+                            .append(query.mServer).append(": ").append(e.getMessage())
+                            .toString());
+                }
+                close(query);
+                query.mDeadline = System.nanoTime();
+                return;
+            }
+            mReceiveBuffer.flip();
+            byte[] data = new byte[mReceiveBuffer.remaining()];
+            mReceiveBuffer.get(data);
+            Message response;
+            try {
+                response = new Message(data);
+            } catch (IOException e) {
+                if (sLogger.isActivated()) {
+                    sLogger.debug("Ignore malformed DNS answer from ".concat(query.mServer
+                            .toString()));
+                }
+                continue;
+            }
+            if (!isAnswer(query, response)) {
+                if (sLogger.isActivated()) {
+                    sLogger.debug("Ignore unexpected DNS answer from ".concat(query.mServer
+                            .toString()));
+                }
+                continue;
+            }
+            mPendingQueries.remove(query);
+            close(query);
+            if (response.getHeader().getFlag(Flags.TC)) {
+                queryOverTcp(query);
+            } else {
+                complete(query, response);
+            }
+        }
+    }
+
+    private void close() {
+        for (Query query : mPendingQueries) {
+            close(query);
+            fail(query, new IOException("DNS client stopped"));
+        }
+        mPendingQueries.clear();
+        Query query;
+        while ((query = mSubmittedQueries.poll()) != null) {
+            fail(query, new IOException("DNS client stopped"));
+        }
+        try {
+            mSelector.close();
+        } catch (IOException e) {
+            sLogger.error("Failed to close DNS selector!", e);
+        }
+    }
+
+    private void loop() {
+        while (!mShutdown) {
+            try {
+                sendSubmittedQueries();
+                long timeout = checkDeadlines();
+                mSelector.select(timeout);
+                Iterator<SelectionKey> keys = mSelector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid() && key.isReadable()) {
+                        receive((Query) key.attachment());
+                    }
+                }
+            } catch (IOException e) {
+                sLogger.error("DNS client select failed!", e);
+            }
+        }
+        close();
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.gsma.rcs.core.ims.network.dns;
+
+import com.gsma.rcs.platform.AndroidFactory;
+import com.gsma.rcs.utils.logger.Logger;
+
+import org.xbill.DNS.DClass;
+import org.xbill.DNS.Message;
+import org.xbill.DNS.Name;
+import org.xbill.DNS.Rcode;
+import org.xbill.DNS.Record;
+import org.xbill.DNS.Section;
+import org.xbill.DNS.TextParseException;
+
+import android.content.Context;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous DNS resolver. Lookups are sent through the shared {@link DnsClient} and return at
+ * once, so that independent questions are resolved in parallel and the caller only waits for the
+ * answers it needs. Answers are kept in a {@link DnsCache} saved across process restarts, and an
+ * answer close to expiry is refreshed in the background when it is read so that the next lookup
+ * is still answered from the cache.
+ */
+public class DnsResolver {
+
+    /**
+     * Time to live in milliseconds of the negative answers. The default of dnsjava is to cache
+     * them forever, we do not want that.
+     */
+    private static final long NEGATIVE_TTL = 5000;
+
+    /**
+     * Maximum time to live in milliseconds of the cached answers
+     */
+    private static final long MAX_TTL = 86400000;
+
+    /**
+     * Maximum time in milliseconds to wait for an answer, longer than the attempts of the client
+     * on every name server and over TCP so that it is only reached if the client is stuck
+     */
+    private static final long LOOKUP_TIMEOUT = 10000;
+
+    private static final String CACHE_FILENAME = "dns.cache";
+
+    private static final Logger sLogger = Logger.getLogger(DnsResolver.class.getSimpleName());
+
+    private static volatile DnsResolver sInstance;
+
+    /**
+     * Lookup in progress
+     */
+    public static final class PendingLookup {
+
+        private final CountDownLatch mDone = new CountDownLatch(1);
+
+        private volatile Record[] mRecords;
+
+        private void complete(Record[] records) {
+            mRecords = records;
+            mDone.countDown();
+        }
+
+        /**
+         * Waits for the answer
+         *
+         * @return Records of the answer, empty if the name has no such record or null if no name
+         *         server answered in time
+         * @throws InterruptedException
+         */
+        public Record[] get() throws InterruptedException {
+            if (!mDone.await(LOOKUP_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                if (sLogger.isActivated()) {
+                    sLogger.warn("DNS lookup timed out");
+                }
+                return null;
+            }
+            return mRecords;
+        }
+    }
+
+    private final DnsClient mClient;
+
+    private final DnsCache mCache;
+
+    /**
+     * Queries sent to the network keyed by question, so that concurrent lookups of the same
+     * question share one query
+     */
+    private final Map<String, PendingLookup> mPendingQueries = new HashMap<String, PendingLookup>();
+
+    /**
+     * Incremented when the cache is flushed, so that the answers of the queries sent before are
+     * not cached
+     */
+    private volatile int mGeneration;
+
+    /**
+     * Constructor
+     *
+     * @param client DNS client
+     * @param cache DNS cache
+     */
+    public DnsResolver(DnsClient client, DnsCache cache) {
+        mClient = client;
+        mCache = cache;
+    }
+
+    /**
+     * Returns the resolver, created on first use with the answers saved by the previous process
+     *
+     * @return DNS resolver
+     * @throws IOException
+     */
+    public static DnsResolver getInstance() throws IOException {
+        if (sInstance == null) {
+            synchronized (DnsResolver.class) {
+                if (sInstance == null) {
+                    Context ctx = AndroidFactory.getApplicationContext();
+                    DnsCache cache = new DnsCache(ctx == null ? null : new File(ctx.getFilesDir(),
+                            CACHE_FILENAME));
+                    cache.load();
+                    sInstance = new DnsResolver(DnsClient.getInstance(), cache);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * Reloads the name servers, to be called when the network may have changed
+     */
+    public void refreshServers() {
+        mClient.refreshServers();
+    }
+
+    /**
+     * Looks up the records of a name
+     *
+     * @param name Name
+     * @param type Record type
+     * @return Lookup in progress, already completed if the answer is cached
+     * @throws TextParseException
+     */
+    public PendingLookup lookup(String name, int type) throws TextParseException {
+        Name qname = Name.fromString(name, Name.root);
+        DnsCache.Entry entry = mCache.get(qname, type);
+        if (entry == null) {
+            return query(qname, type);
+        }
+        if (entry.isPrefetchDue(System.currentTimeMillis())) {
+            if (sLogger.isActivated()) {
+                sLogger.debug("Prefetch DNS answer for ".concat(name));
+            }
+            query(qname, type);
+        }
+        PendingLookup lookup = new PendingLookup();
+        lookup.complete(entry.getRecords());
+        return lookup;
+    }
+
+    /**
+     * Drops the cached answers, to be called when the network has changed or when none of the
+     * resolved servers could be reached
+     */
+    public synchronized void flush() {
+        if (sLogger.isActivated()) {
+            sLogger.debug("Flush DNS cache");
+        }
+        mGeneration++;
+        mCache.clear();
+        mCache.save();
+    }
+
+    /**
+     * Saves the cached answers if they have changed, to be called once a resolution is done
+     */
+    public void save() {
+        mCache.save();
+    }
+
+    private PendingLookup query(final Name name, final int type) {
+        final String key = new StringBuilder(name.toString()).append('/').append(type).toString();
+        final PendingLookup lookup;
+        synchronized (mPendingQueries) {
+            PendingLookup pending = mPendingQueries.get(key);
+            if (pending != null) {
+                return pending;
+            }
+            lookup = new PendingLookup();
+            mPendingQueries.put(key, lookup);
+        }
+        if (sLogger.isActivated()) {
+            sLogger.debug(new StringBuilder("DNS query ").append(key).toString());
+        }
+        final int generation = mGeneration;
+        mClient.query(Record.newRecord(name, type, DClass.IN), new DnsClient.Callback() {
+            @Override
+            public void onResponse(Message response) {
+                Record[] records = getAnswer(response, type);
+                if (records != null) {
+                    if (generation == mGeneration) {
+                        mCache.put(name, type, records, getTtl(records));
+                    }
+                } else if (sLogger.isActivated()) {
+                    sLogger.warn(new StringBuilder("DNS query ").append(key).append(" failed: ")
+                            .append(Rcode.string(response.getRcode())).toString());
+                }
+                complete(key, lookup, records);
+            }
+
+            @Override
+            public void onFailure(IOException e) {
+                if (sLogger.isActivated()) {
+                    sLogger.warn(new StringBuilder("DNS query ").append(key).append(" failed: ")
+                            .append(e.getMessage()).toString());
+                }
+                complete(key, lookup, null);
+            }
+        });
+        return lookup;
+    }
+
+    private void complete(String key, PendingLookup lookup, Record[] records) {
+        synchronized (mPendingQueries) {
+            mPendingQueries.remove(key);
+        }
+        lookup.complete(records);
+    }
+
+    /**
+     * Returns the records of the answer
+     *
+     * @param response Response message
+     * @param type Record type
+     * @return Records, empty if the name has no such record or null if the query failed
+     */
+    private static Record[] getAnswer(Message response, int type) {
+        int rcode = response.getRcode();
+        if (rcode == Rcode.NXDOMAIN) {
+            return new Record[0];
+        }
+        if (rcode != Rcode.NOERROR) {
+            return null;
+        }
+        List<Record> records = new ArrayList<Record>();
+        /* Aliases are followed by the name server, only keep the records of the queried type */
+        for (Record record : response.getSectionArray(Section.ANSWER)) {
+            if (record.getType() == type) {
+                records.add(record);
+            }
+        }
+        return records.toArray(new Record[records.size()]);
+    }
+
+    private static long getTtl(Record[] records) {
+        if (records.length == 0) {
+            return NEGATIVE_TTL;
+        }
+        long ttl = MAX_TTL;
+        for (Record record : records) {
+            ttl = Math.min(ttl, record.getTTL() * 1000);
+        }
+        return ttl;
+    }
+}
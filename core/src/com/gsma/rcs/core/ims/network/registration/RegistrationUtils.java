@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.gsma.rcs.core.ims.network.sip.FeatureTags;
+import com.gsma.rcs.core.ims.service.extension.ServiceExtensionManager;
 import com.gsma.rcs.provider.settings.RcsSettings;
 
 /**
@@ -86,7 +87,8 @@ public class RegistrationUtils {
 
         // Extensions
         if (rcsSettings.isExtensionsAllowed()) {
-            for (String extension : rcsSettings.getSupportedRcsExtensions()) {
+            for (String extension : ServiceExtensionManager.getInstance(rcsSettings)
+                    .getSupportedExtensions()) {
                 StringBuilder sb = new StringBuilder(FeatureTags.FEATURE_RCSE_EXTENSION)
                         .append('.').append(extension);
                 iariTags.add(sb.toString());
@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.gsma.rcs.core.ims.network.sip;
+
+import com.gsma.rcs.core.ims.ImsModule;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+
+import javax2.sip.header.AcceptHeader;
+import javax2.sip.header.Header;
+import javax2.sip.header.RouteHeader;
+import javax2.sip.header.UserAgentHeader;
+import javax2.sip.message.Message;
+import javax2.sip.message.Request;
+
+/**
+ * Cache of pre-parsed headers added to most outgoing SIP messages. Building these headers from
+ * their string value goes through the header parser each time while their value only changes
+ * when the terminal re-registers, so each value is parsed once and the messages get a clone of
+ * the parsed template, which is a plain copy of the header objects. Templates are looked up by
+ * their value so a stale template can never be used, the cache is only cleared at registration to
+ * drop the route sets and feature tag sets of the previous registration.
+ */
+public final class SipHeaderTemplates {
+
+    /**
+     * Maximum number of cached route sets, one per registration plus the dialog route sets
+     */
+    private static final int MAX_ROUTE_SETS = 16;
+
+    /**
+     * Maximum number of cached Accept-Contact feature tag sets
+     */
+    private static final int MAX_FEATURE_TAG_SETS = 32;
+
+    private static final String[] ALLOWED_METHODS = new String[] {
+            Request.INVITE, Request.UPDATE, Request.ACK, Request.CANCEL, Request.BYE,
+            Request.NOTIFY, Request.OPTIONS, Request.MESSAGE, Request.REFER
+    };
+
+    private static final String ACCEPT_SDP = "application/sdp";
+
+    private static final Map<List<String>, Header[]> sRouteSets = createCache(MAX_ROUTE_SETS);
+
+    private static final Map<List<String>, Header[]> sAcceptContacts = createCache(
+            MAX_FEATURE_TAG_SETS);
+
+    private static Header[] sAllowHeaders;
+
+    private static Header sUserAgentHeader;
+
+    private static Header sAcceptSdpHeader;
+
+    private static String sPreferredUri;
+
+    private static Header sPreferredIdentityHeader;
+
+    private SipHeaderTemplates() {
+    }
+
+    private static <V> Map<List<String>, V> createCache(final int maxSize) {
+        return new LinkedHashMap<List<String>, V>(maxSize, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<String>, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    private static void addClones(Message msg, Header[] templates) {
+        for (Header template : templates) {
+            msg.addHeader((Header) template.clone());
+        }
+    }
+
+    /**
+     * Drops the templates depending on the previous registration, to be called when the terminal
+     * registers
+     */
+    public static synchronized void clear() {
+        sRouteSets.clear();
+        sAcceptContacts.clear();
+        sPreferredUri = null;
+        sPreferredIdentityHeader = null;
+    }
+
+    /**
+     * Adds the Route headers of a route set
+     * 
+     * @param msg SIP message
+     * @param route Route set
+     * @throws ParseException
+     */
+    public static void addRouteHeaders(Message msg, Vector<String> route) throws ParseException {
+        if (route.isEmpty()) {
+            return;
+        }
+        List<String> key = new ArrayList<String>(route);
+        Header[] templates;
+        synchronized (SipHeaderTemplates.class) {
+            templates = sRouteSets.get(key);
+        }
+        if (templates == null) {
+            templates = new Header[key.size()];
+            for (int i = 0; i < templates.length; i++) {
+                templates[i] = SipUtils.HEADER_FACTORY.createHeader(RouteHeader.NAME, key.get(i));
+            }
+            synchronized (SipHeaderTemplates.class) {
+                sRouteSets.put(key, templates);
+            }
+        }
+        addClones(msg, templates);
+    }
+
+    /**
+     * Adds the P-Preferred-Identity header if the user profile has a preferred URI
+     * 
+     * @param msg SIP message
+     * @throws ParseException
+     */
+    public static void addPreferredIdentityHeader(Message msg) throws ParseException {
+        String preferredUri = ImsModule.IMS_USER_PROFILE.getPreferredUri();
+        if (preferredUri == null) {
+            return;
+        }
+        Header template;
+        synchronized (SipHeaderTemplates.class) {
+            template = preferredUri.equals(sPreferredUri) ? sPreferredIdentityHeader : null;
+        }
+        if (template == null) {
+            template = SipUtils.HEADER_FACTORY.createHeader(SipUtils.HEADER_P_PREFERRED_IDENTITY,
+                    preferredUri);
+            synchronized (SipHeaderTemplates.class) {
+                sPreferredUri = preferredUri;
+                sPreferredIdentityHeader = template;
+            }
+        }
+        msg.addHeader((Header) template.clone());
+    }
+
+    /**
+     * Adds the Accept-Contact headers of a set of feature tags
+     * 
+     * @param msg SIP message
+     * @param tags Feature tags
+     * @throws ParseException
+     */
+    public static void addAcceptContactHeaders(Message msg, String[] tags) throws ParseException {
+        List<String> key = Arrays.asList(tags);
+        Header[] templates;
+        synchronized (SipHeaderTemplates.class) {
+            templates = sAcceptContacts.get(key);
+        }
+        if (templates == null) {
+            /* The key must not be backed by an array the caller may modify */
+            key = new ArrayList<String>(key);
+            templates = buildAcceptContactHeaders(tags);
+            synchronized (SipHeaderTemplates.class) {
+                sAcceptContacts.put(key, templates);
+            }
+        }
+        addClones(msg, templates);
+    }
+
+    private static Header[] buildAcceptContactHeaders(String[] tags) throws ParseException {
+        if (tags.length > 1 && SipUtils.EXPLICIT_REQUIRE.equals(tags[tags.length - 1])) {
+            /*
+             * According to RFC 3841, there MUST NOT be more than one req-param or explicit-param in
+             * an ac-params. Furthermore, there can only be one instance of any feature tag in
+             * feature-param.
+             */
+            Header[] headers = new Header[tags.length - 1];
+            for (int i = 0; i < tags.length - 1; i++) {
+                StringBuilder acceptTags = new StringBuilder("*;");
+                acceptTags.append(tags[i]);
+                acceptTags.append(';');
+                acceptTags.append(SipUtils.EXPLICIT_REQUIRE);
+                headers[i] = SipUtils.HEADER_FACTORY.createHeader(SipUtils.HEADER_ACCEPT_CONTACT,
+                        acceptTags.toString());
+            }
+            return headers;
+        }
+        StringBuilder acceptTags = new StringBuilder("*");
+        for (String tag : tags) {
+            acceptTags.append(';');
+            acceptTags.append(tag);
+        }
+        return new Header[] {
+            SipUtils.HEADER_FACTORY.createHeader(SipUtils.HEADER_ACCEPT_CONTACT,
+                    acceptTags.toString())
+        };
+    }
+
+    /**
+     * Adds the Allow headers
+     * 
+     * @param msg SIP message
+     * @throws ParseException
+     */
+    public static void addAllowHeaders(Message msg) throws ParseException {
+        Header[] templates;
+        synchronized (SipHeaderTemplates.class) {
+            templates = sAllowHeaders;
+        }
+        if (templates == null) {
+            templates = new Header[ALLOWED_METHODS.length];
+            for (int i = 0; i < templates.length; i++) {
+                templates[i] = SipUtils.HEADER_FACTORY.createAllowHeader(ALLOWED_METHODS[i]);
+            }
+            synchronized (SipHeaderTemplates.class) {
+                sAllowHeaders = templates;
+            }
+        }
+        addClones(msg, templates);
+    }
+
+    /**
+     * Returns a User-Agent header
+     * 
+     * @return Header
+     * @throws ParseException
+     */
+    public static Header getUserAgentHeader() throws ParseException {
+        Header template;
+        synchronized (SipHeaderTemplates.class) {
+            template = sUserAgentHeader;
+        }
+        if (template == null) {
+            template = SipUtils.HEADER_FACTORY.createHeader(UserAgentHeader.NAME,
+                    SipUtils.userAgentString());
+            synchronized (SipHeaderTemplates.class) {
+                sUserAgentHeader = template;
+            }
+        }
+        return (Header) template.clone();
+    }
+
+    /**
+     * Returns an Accept header for SDP
+     * 
+     * @return Header
+     * @throws ParseException
+     */
+    public static Header getAcceptSdpHeader() throws ParseException {
+        Header template;
+        synchronized (SipHeaderTemplates.class) {
+            template = sAcceptSdpHeader;
+        }
+        if (template == null) {
+            template = SipUtils.HEADER_FACTORY.createHeader(AcceptHeader.NAME, ACCEPT_SDP);
+            synchronized (SipHeaderTemplates.class) {
+                sAcceptSdpHeader = template;
+            }
+        }
+        return (Header) template.clone();
+    }
+}
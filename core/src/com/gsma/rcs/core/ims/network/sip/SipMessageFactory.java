@@ -41,14 +41,12 @@ import gov2.nist.javax2.sip.header.Subject;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Set;
-import java.util.Vector;
 
 import javax2.sip.ClientTransaction;
 import javax2.sip.InvalidArgumentException;
 import javax2.sip.SipException;
 import javax2.sip.address.Address;
 import javax2.sip.address.URI;
-import javax2.sip.header.AcceptHeader;
 import javax2.sip.header.CSeqHeader;
 import javax2.sip.header.CallIdHeader;
 import javax2.sip.header.ContactHeader;
@@ -216,12 +214,7 @@ public class SipMessageFactory {
                             .getViaHeaders(), SipUtils.buildMaxForwardsHeader());
 
             // Set the Route header
-            Vector<String> route = dialog.getRoute();
-            for (int i = 0; i < route.size(); i++) {
-                Header routeHeader = SipUtils.HEADER_FACTORY.createHeader(RouteHeader.NAME,
-                        route.elementAt(i));
-                subscribe.addHeader(routeHeader);
-            }
+            SipHeaderTemplates.addRouteHeaders(subscribe, dialog.getRoute());
 
             // Set the Expires header
             ExpiresHeader expHeader = SipUtils.HEADER_FACTORY
@@ -305,20 +298,10 @@ public class SipMessageFactory {
                             .getViaHeaders(), SipUtils.buildMaxForwardsHeader());
 
             // Set the Route header
-            Vector<String> route = dialog.getRoute();
-            for (int i = 0; i < route.size(); i++) {
-                Header routeHeader = SipUtils.HEADER_FACTORY.createHeader(RouteHeader.NAME,
-                        route.elementAt(i));
-                message.addHeader(routeHeader);
-            }
+            SipHeaderTemplates.addRouteHeaders(message, dialog.getRoute());
 
             // Set the P-Preferred-Identity header
-            if (ImsModule.IMS_USER_PROFILE.getPreferredUri() != null) {
-                Header prefHeader = SipUtils.HEADER_FACTORY.createHeader(
-                        SipUtils.HEADER_P_PREFERRED_IDENTITY,
-                        ImsModule.IMS_USER_PROFILE.getPreferredUri());
-                message.addHeader(prefHeader);
-            }
+            SipHeaderTemplates.addPreferredIdentityHeader(message);
 
             // Set Contact header
             message.addHeader(dialog.getSipStack().getContact());
@@ -408,12 +391,7 @@ public class SipMessageFactory {
                             .getViaHeaders(), SipUtils.buildMaxForwardsHeader());
 
             // Set the Route header
-            Vector<String> route = dialog.getRoute();
-            for (int i = 0; i < route.size(); i++) {
-                Header routeHeader = SipUtils.HEADER_FACTORY.createHeader(RouteHeader.NAME,
-                        route.elementAt(i));
-                publish.addHeader(routeHeader);
-            }
+            SipHeaderTemplates.addRouteHeaders(publish, dialog.getRoute());
 
             // Set the Expires header
             ExpiresHeader expHeader = SipUtils.HEADER_FACTORY
@@ -599,20 +577,10 @@ public class SipMessageFactory {
             SipUtils.buildAllowHeader(invite);
 
             // Set the Route header
-            Vector<String> route = dialog.getRoute();
-            for (int i = 0; i < route.size(); i++) {
-                Header routeHeader = SipUtils.HEADER_FACTORY.createHeader(RouteHeader.NAME,
-                        route.elementAt(i));
-                invite.addHeader(routeHeader);
-            }
+            SipHeaderTemplates.addRouteHeaders(invite, dialog.getRoute());
 
             // Set the P-Preferred-Identity header
-            if (ImsModule.IMS_USER_PROFILE.getPreferredUri() != null) {
-                Header prefHeader = SipUtils.HEADER_FACTORY.createHeader(
-                        SipUtils.HEADER_P_PREFERRED_IDENTITY,
-                        ImsModule.IMS_USER_PROFILE.getPreferredUri());
-                invite.addHeader(prefHeader);
-            }
+            SipHeaderTemplates.addPreferredIdentityHeader(invite);
 
             // Set User-Agent header
             invite.addHeader(SipUtils.buildUserAgentHeader());
@@ -780,12 +748,7 @@ public class SipMessageFactory {
                     cseqHeader, fromHeader, toHeader, vias, SipUtils.buildMaxForwardsHeader());
 
             // Set the Route header
-            Vector<String> route = dialog.getRoute();
-            for (int i = 0; i < route.size(); i++) {
-                Header routeHeader = SipUtils.HEADER_FACTORY.createHeader(RouteHeader.NAME,
-                        route.elementAt(i));
-                ack.addHeader(routeHeader);
-            }
+            SipHeaderTemplates.addRouteHeaders(ack, dialog.getRoute());
 
             // Set Contact header
             ack.addHeader(dialog.getSipStack().getContact());
@@ -1001,9 +964,7 @@ public class SipMessageFactory {
             options.addHeader(dialog.getSipStack().getContact());
 
             // Set Accept header
-            Header acceptHeader = SipUtils.HEADER_FACTORY.createHeader(AcceptHeader.NAME,
-                    "application/sdp");
-            options.addHeader(acceptHeader);
+            options.addHeader(SipHeaderTemplates.getAcceptSdpHeader());
 
             // Set feature tags
             SipUtils.setFeatureTags(options, featureTags);
@@ -1012,20 +973,10 @@ public class SipMessageFactory {
             SipUtils.buildAllowHeader(options);
 
             // Set the Route header
-            Vector<String> route = dialog.getRoute();
-            for (int i = 0; i < route.size(); i++) {
-                Header routeHeader = SipUtils.HEADER_FACTORY.createHeader(RouteHeader.NAME,
-                        route.elementAt(i));
-                options.addHeader(routeHeader);
-            }
+            SipHeaderTemplates.addRouteHeaders(options, dialog.getRoute());
 
             // Set the P-Preferred-Identity header
-            if (ImsModule.IMS_USER_PROFILE.getPreferredUri() != null) {
-                Header prefHeader = SipUtils.HEADER_FACTORY.createHeader(
-                        SipUtils.HEADER_P_PREFERRED_IDENTITY,
-                        ImsModule.IMS_USER_PROFILE.getPreferredUri());
-                options.addHeader(prefHeader);
-            }
+            SipHeaderTemplates.addPreferredIdentityHeader(options);
 
             // Set User-Agent header
             options.addHeader(SipUtils.buildUserAgentHeader());
@@ -1102,6 +1053,44 @@ public class SipMessageFactory {
         }
     }
 
+    /**
+     * Create a 200 OK response for OPTIONS request from the headers of a previous response, which
+     * do not depend on the request
+     * 
+     * @param options SIP options
+     * @param headers Headers added to the response, they are cloned
+     * @param contentType Content type header of the SDP part, it is cloned
+     * @param sdp SDP part or null
+     * @return SIP response
+     * @throws SipPayloadException
+     */
+    public static SipResponse create200OkOptionsResponse(SipRequest options, Header[] headers,
+            ContentTypeHeader contentType, byte[] sdp) throws SipPayloadException {
+        try {
+            Response response = SipUtils.MSG_FACTORY.createResponse(200,
+                    (Request) options.getStackMessage());
+            ToHeader to = (ToHeader) response.getHeader(ToHeader.NAME);
+            to.setTag(IdGenerator.getIdentifier());
+            for (Header header : headers) {
+                response.addHeader((Header) header.clone());
+            }
+            if (sdp != null) {
+                response.setContent(sdp, (ContentTypeHeader) contentType.clone());
+                response.setContentLength(SipUtils.HEADER_FACTORY
+                        .createContentLengthHeader(sdp.length));
+            }
+            SipResponse resp = new SipResponse(response);
+            resp.setStackTransaction(options.getStackTransaction());
+            return resp;
+
+        } catch (ParseException e) {
+            throw new SipPayloadException("Can't create SIP response for OPTIONS!", e);
+
+        } catch (InvalidArgumentException e) {
+            throw new SipPayloadException("Can't create SIP response for OPTIONS!", e);
+        }
+    }
+
     /**
      * Create a SIP REFER request
      * 
@@ -1134,12 +1123,7 @@ public class SipMessageFactory {
             refer.addHeader(referSub);
 
             // Set the P-Preferred-Identity header
-            if (ImsModule.IMS_USER_PROFILE.getPreferredUri() != null) {
-                Header prefHeader = SipUtils.HEADER_FACTORY.createHeader(
-                        SipUtils.HEADER_P_PREFERRED_IDENTITY,
-                        ImsModule.IMS_USER_PROFILE.getPreferredUri());
-                refer.addHeader(prefHeader);
-            }
+            SipHeaderTemplates.addPreferredIdentityHeader(refer);
 
             // Set Subject header
             if (subject != null) {
@@ -1222,12 +1206,7 @@ public class SipMessageFactory {
             refer.addHeader(referSub);
 
             // Set the P-Preferred-Identity header
-            if (ImsModule.IMS_USER_PROFILE.getPreferredUri() != null) {
-                Header prefHeader = SipUtils.HEADER_FACTORY.createHeader(
-                        SipUtils.HEADER_P_PREFERRED_IDENTITY,
-                        ImsModule.IMS_USER_PROFILE.getPreferredUri());
-                refer.addHeader(prefHeader);
-            }
+            SipHeaderTemplates.addPreferredIdentityHeader(refer);
 
             // Set Subject header
             Header s = SipUtils.HEADER_FACTORY.createHeader(Subject.NAME, subject);
@@ -1399,11 +1378,8 @@ public class SipMessageFactory {
             // Set the P-Preferred-Identity header
             if (firstInvite.getHeader(SipUtils.HEADER_P_PREFERRED_IDENTITY) != null) {
                 reInvite.addHeader(firstInvite.getHeader(SipUtils.HEADER_P_PREFERRED_IDENTITY));
-            } else if (ImsModule.IMS_USER_PROFILE.getPreferredUri() != null) {
-                Header prefHeader = SipUtils.HEADER_FACTORY.createHeader(
-                        SipUtils.HEADER_P_PREFERRED_IDENTITY,
-                        ImsModule.IMS_USER_PROFILE.getPreferredUri());
-                reInvite.addHeader(prefHeader);
+            } else {
+                SipHeaderTemplates.addPreferredIdentityHeader(reInvite);
             }
 
             // Set User-Agent header
@@ -47,10 +47,8 @@ import javax2.sip.header.MinExpiresHeader;
 import javax2.sip.header.RecordRouteHeader;
 import javax2.sip.header.RouteHeader;
 import javax2.sip.header.ServerHeader;
-import javax2.sip.header.UserAgentHeader;
 import javax2.sip.message.Message;
 import javax2.sip.message.MessageFactory;
-import javax2.sip.message.Request;
 
 /**
  * SIP utility functions
@@ -239,9 +237,7 @@ public class SipUtils {
      * @throws ParseException
      */
     public static Header buildUserAgentHeader() throws ParseException {
-        Header userAgentHeader = HEADER_FACTORY.createHeader(UserAgentHeader.NAME,
-                userAgentString());
-        return userAgentHeader;
+        return SipHeaderTemplates.getUserAgentHeader();
     }
 
     /**
@@ -266,15 +262,7 @@ public class SipUtils {
      * @throws ParseException
      */
     public static void buildAllowHeader(Message msg) throws ParseException {
-        msg.addHeader(HEADER_FACTORY.createAllowHeader(Request.INVITE));
-        msg.addHeader(HEADER_FACTORY.createAllowHeader(Request.UPDATE));
-        msg.addHeader(HEADER_FACTORY.createAllowHeader(Request.ACK));
-        msg.addHeader(HEADER_FACTORY.createAllowHeader(Request.CANCEL));
-        msg.addHeader(HEADER_FACTORY.createAllowHeader(Request.BYE));
-        msg.addHeader(HEADER_FACTORY.createAllowHeader(Request.NOTIFY));
-        msg.addHeader(HEADER_FACTORY.createAllowHeader(Request.OPTIONS));
-        msg.addHeader(HEADER_FACTORY.createAllowHeader(Request.MESSAGE));
-        msg.addHeader(HEADER_FACTORY.createAllowHeader(Request.REFER));
+        SipHeaderTemplates.addAllowHeaders(msg);
     }
 
     /**
@@ -489,31 +477,7 @@ public class SipUtils {
      */
     private static void setAcceptContactFeatureTags(Message message, String[] tags)
             throws ParseException {
-        if (tags.length > 1 && SipUtils.EXPLICIT_REQUIRE.equals(tags[tags.length - 1])) {
-            /*
-             * According to RFC 3841, there MUST NOT be more than one req-param or explicit-param in
-             * an ac-params. Furthermore, there can only be one instance of any feature tag in
-             * feature-param.
-             */
-            for (int i = 0; i < tags.length - 1; i++) {
-                StringBuilder acceptTags = new StringBuilder("*;");
-                acceptTags.append(tags[i]);
-                acceptTags.append(';');
-                acceptTags.append(SipUtils.EXPLICIT_REQUIRE);
-                Header header = SipUtils.HEADER_FACTORY.createHeader(
-                        SipUtils.HEADER_ACCEPT_CONTACT, acceptTags.toString());
-                message.addHeader(header);
-            }
-        } else {
-            StringBuilder acceptTags = new StringBuilder("*");
-            for (String tag : tags) {
-                acceptTags.append(';');
-                acceptTags.append(tag);
-            }
-            Header header = SipUtils.HEADER_FACTORY.createHeader(SipUtils.HEADER_ACCEPT_CONTACT,
-                    acceptTags.toString());
-            message.addHeader(header);
-        }
+        SipHeaderTemplates.addAcceptContactHeaders(message, tags);
     }
 
     /**
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.gsma.rcs.core.ims.protocol.capture;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream keeping a copy of the bytes read for the {@link MessageCapture}. The reader calls
+ * {@link #commit()} once it has read a whole message, so that the message is captured as one
+ * record. Only the first {@link MessageCapture#SNAP_LENGTH} bytes of a message are kept, in a
+ * buffer allocated once.
+ */
+public class CapturingInputStream extends FilterInputStream {
+
+    private final MessageCapture mCapture;
+
+    private final int mConnectionId;
+
+    private final byte[] mMessage = new byte[MessageCapture.SNAP_LENGTH];
+
+    /**
+     * Number of bytes read since the last commit, which may exceed the size of the buffer
+     */
+    private int mLength;
+
+    /**
+     * Constructor
+     *
+     * @param in Input stream
+     * @param capture Message capture
+     * @param connectionId Connection id of the stream in the capture
+     */
+    public CapturingInputStream(InputStream in, MessageCapture capture, int connectionId) {
+        super(in);
+        mCapture = capture;
+        mConnectionId = connectionId;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b != -1) {
+            if (mLength < mMessage.length) {
+                mMessage[mLength] = (byte) b;
+            }
+            mLength++;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) throws IOException {
+        int read = in.read(buffer, offset, count);
+        if (read > 0) {
+            if (mLength < mMessage.length) {
+                System.arraycopy(buffer, offset, mMessage, mLength,
+                        Math.min(read, mMessage.length - mLength));
+            }
+            mLength += read;
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        /* Skipped bytes are read so that they are captured */
+        long skipped = 0;
+        while (skipped < count && read() != -1) {
+            skipped++;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * Captures the bytes read since the last commit as one received message
+     */
+    public void commit() {
+        if (mLength > 0) {
+            mCapture.capture(mConnectionId, false, mMessage, 0, mLength);
+            mLength = 0;
+        }
+    }
+}
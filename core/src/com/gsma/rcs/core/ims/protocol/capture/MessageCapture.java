@@ -0,0 +1,394 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.gsma.rcs.core.ims.protocol.capture;
+
+import com.gsma.rcs.utils.CloseableUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Always-on capture of the SIP and MSRP messages. The raw bytes of each message are copied with a
+ * timestamp, a direction and a connection id into a circular buffer allocated once, the oldest
+ * messages being overwritten. Capturing a message does not allocate nor convert it to a string, so
+ * that the capture can stay enabled under load and the last messages are available when a problem
+ * is reported. The buffer is dumped on demand to a pcap file of exported PDUs, which Wireshark
+ * and tshark decode with their SIP and MSRP dissectors.
+ */
+public class MessageCapture {
+
+    /**
+     * SIP protocol
+     */
+    public static final int PROTOCOL_SIP = 0;
+
+    /**
+     * MSRP protocol
+     */
+    public static final int PROTOCOL_MSRP = 1;
+
+    /**
+     * UDP transport
+     */
+    public static final int TRANSPORT_UDP = 0;
+
+    /**
+     * TCP transport, also used for TLS as the messages are captured in clear
+     */
+    public static final int TRANSPORT_TCP = 1;
+
+    /**
+     * Default size in bytes of the circular buffer
+     */
+    private static final int DEFAULT_CAPACITY = 1024 * 1024;
+
+    /**
+     * Maximum number of bytes captured per message, the rest is only counted
+     */
+    public static final int SNAP_LENGTH = 8192;
+
+    /**
+     * Record header: captured length, original length, timestamp, connection id and direction
+     */
+    private static final int RECORD_HEADER_SIZE = 24;
+
+    /**
+     * Number of connections whose end points are remembered to dump their messages
+     */
+    private static final int MAX_CONNECTIONS = 256;
+
+    private static final int PCAP_MAGIC = 0xa1b2c3d4;
+
+    private static final int PCAP_VERSION_MAJOR = 2;
+
+    private static final int PCAP_VERSION_MINOR = 4;
+
+    /**
+     * LINKTYPE_WIRESHARK_UPPER_PDU, a PDU preceded by tags naming its dissector and addresses
+     */
+    private static final int PCAP_LINKTYPE_UPPER_PDU = 252;
+
+    private static final int TAG_END_OF_OPT = 0;
+
+    private static final int TAG_PROTO_NAME = 12;
+
+    private static final int TAG_IPV4_SRC = 20;
+
+    private static final int TAG_IPV4_DST = 21;
+
+    private static final int TAG_IPV6_SRC = 22;
+
+    private static final int TAG_IPV6_DST = 23;
+
+    private static final int TAG_PORT_TYPE = 24;
+
+    private static final int TAG_SRC_PORT = 25;
+
+    private static final int TAG_DST_PORT = 26;
+
+    private static final int PORT_TYPE_TCP = 2;
+
+    private static final int PORT_TYPE_UDP = 3;
+
+    private static final String[] PROTOCOL_NAMES = {
+            "sip", "msrp"
+    };
+
+    /**
+     * Dissector of the messages whose connection is no longer known
+     */
+    private static final String UNKNOWN_PROTOCOL_NAME = "data";
+
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+
+    private static final MessageCapture sInstance = new MessageCapture(DEFAULT_CAPACITY);
+
+    private static final class Connection {
+
+        private final int mProtocol;
+
+        private final int mTransport;
+
+        private final InetAddress mLocalAddress;
+
+        private final int mLocalPort;
+
+        private final InetAddress mRemoteAddress;
+
+        private final int mRemotePort;
+
+        private Connection(int protocol, int transport, InetAddress localAddress, int localPort,
+                InetAddress remoteAddress, int remotePort) {
+            mProtocol = protocol;
+            mTransport = transport;
+            mLocalAddress = localAddress;
+            mLocalPort = localPort;
+            mRemoteAddress = remoteAddress;
+            mRemotePort = remotePort;
+        }
+    }
+
+    private final byte[] mBuffer;
+
+    private final int mMask;
+
+    /**
+     * Position of the oldest record
+     */
+    private long mHead;
+
+    /**
+     * Position of the next record
+     */
+    private long mTail;
+
+    private int mNextConnectionId = 1;
+
+    private final Map<Integer, Connection> mConnections = new LinkedHashMap<Integer, Connection>() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Connection> eldest) {
+            return size() > MAX_CONNECTIONS;
+        }
+    };
+
+    /**
+     * Constructor
+     *
+     * @param capacity Size in bytes of the circular buffer, must be a power of two
+     */
+    public MessageCapture(int capacity) {
+        if (Integer.bitCount(capacity) != 1 || capacity < RECORD_HEADER_SIZE + SNAP_LENGTH) {
+            throw new IllegalArgumentException("Invalid capture capacity " + capacity);
+        }
+        mBuffer = new byte[capacity];
+        mMask = capacity - 1;
+    }
+
+    /**
+     * Returns the capture of the process
+     *
+     * @return Message capture
+     */
+    public static MessageCapture getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * Registers the end points of a connection
+     *
+     * @param protocol Protocol, PROTOCOL_SIP or PROTOCOL_MSRP
+     * @param transport Transport, TRANSPORT_UDP or TRANSPORT_TCP
+     * @param localAddress Local IP address
+     * @param localPort Local port
+     * @param remoteAddress Remote IP address
+     * @param remotePort Remote port
+     * @return Connection id to capture the messages of the connection
+     */
+    public int openConnection(int protocol, int transport, String localAddress, int localPort,
+            String remoteAddress, int remotePort) {
+        Connection connection = new Connection(protocol, transport, getAddress(localAddress),
+                localPort, getAddress(remoteAddress), remotePort);
+        synchronized (mConnections) {
+            int id = mNextConnectionId++;
+            mConnections.put(id, connection);
+            return id;
+        }
+    }
+
+    private static InetAddress getAddress(String address) {
+        if (address == null) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(address);
+        } catch (IOException e) {
+            /* The messages are dumped without this address */
+            return null;
+        }
+    }
+
+    /**
+     * Captures a message
+     *
+     * @param connectionId Connection id returned by {@link #openConnection}
+     * @param outgoing True if the message is sent, false if it is received
+     * @param data Buffer holding the message
+     * @param offset Offset of the message in the buffer
+     * @param length Length of the message
+     */
+    public void capture(int connectionId, boolean outgoing, byte[] data, int offset, int length) {
+        int capturedLength = Math.min(length, SNAP_LENGTH);
+        int recordSize = RECORD_HEADER_SIZE + capturedLength;
+        long timestamp = System.currentTimeMillis();
+        synchronized (this) {
+            while (mBuffer.length - (mTail - mHead) < recordSize) {
+                mHead += RECORD_HEADER_SIZE + getInt(mHead);
+            }
+            long position = mTail;
+            putInt(position, capturedLength);
+            putInt(position + 4, length);
+            putInt(position + 8, (int) (timestamp >>> 32));
+            putInt(position + 12, (int) timestamp);
+            putInt(position + 16, connectionId);
+            putInt(position + 20, outgoing ? 1 : 0);
+            position += RECORD_HEADER_SIZE;
+            int index = (int) (position & mMask);
+            int firstPart = Math.min(capturedLength, mBuffer.length - index);
+            System.arraycopy(data, offset, mBuffer, index, firstPart);
+            System.arraycopy(data, offset + firstPart, mBuffer, 0, capturedLength - firstPart);
+            mTail += recordSize;
+        }
+    }
+
+    private void putInt(long position, int value) {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            mBuffer[(int) (position++ & mMask)] = (byte) (value >>> shift);
+        }
+    }
+
+    private int getInt(long position) {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 8) | (mBuffer[(int) (position++ & mMask)] & 0xff);
+        }
+        return value;
+    }
+
+    private static int getInt(byte[] records, int position) {
+        return ((records[position] & 0xff) << 24) | ((records[position + 1] & 0xff) << 16)
+                | ((records[position + 2] & 0xff) << 8) | (records[position + 3] & 0xff);
+    }
+
+    /**
+     * Writes the captured messages, oldest first, to a pcap file
+     *
+     * @param file File
+     * @return Number of messages written
+     * @throws IOException
+     */
+    public int dump(File file) throws IOException {
+        byte[] records;
+        synchronized (this) {
+            records = new byte[(int) (mTail - mHead)];
+            int index = (int) (mHead & mMask);
+            int firstPart = Math.min(records.length, mBuffer.length - index);
+            System.arraycopy(mBuffer, index, records, 0, firstPart);
+            System.arraycopy(mBuffer, 0, records, firstPart, records.length - firstPart);
+        }
+        Map<Integer, Connection> connections;
+        synchronized (mConnections) {
+            connections = new HashMap<Integer, Connection>(mConnections);
+        }
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            out.writeInt(PCAP_MAGIC);
+            out.writeShort(PCAP_VERSION_MAJOR);
+            out.writeShort(PCAP_VERSION_MINOR);
+            /* Time zone and timestamp accuracy */
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeInt(SNAP_LENGTH + 128);
+            out.writeInt(PCAP_LINKTYPE_UPPER_PDU);
+            int count = 0;
+            int position = 0;
+            while (position < records.length) {
+                int capturedLength = getInt(records, position);
+                int length = getInt(records, position + 4);
+                long timestamp = ((long) getInt(records, position + 8) << 32)
+                        | (getInt(records, position + 12) & 0xffffffffL);
+                Connection connection = connections.get(getInt(records, position + 16));
+                boolean outgoing = getInt(records, position + 20) != 0;
+                byte[] tags = getTags(connection, outgoing);
+                out.writeInt((int) (timestamp / 1000));
+                out.writeInt((int) (timestamp % 1000) * 1000);
+                out.writeInt(tags.length + capturedLength);
+                out.writeInt(tags.length + length);
+                out.write(tags);
+                out.write(records, position + RECORD_HEADER_SIZE, capturedLength);
+                position += RECORD_HEADER_SIZE + capturedLength;
+                count++;
+            }
+            out.flush();
+            return count;
+        } finally {
+            CloseableUtils.close(out);
+        }
+    }
+
+    /**
+     * Returns the exported PDU tags of a message, which name its dissector and its addresses
+     *
+     * @param connection Connection of the message or null if it is no longer known
+     * @param outgoing True if the message was sent
+     * @return Tags
+     * @throws IOException
+     */
+    private static byte[] getTags(Connection connection, boolean outgoing) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream tags = new DataOutputStream(bytes);
+        byte[] name = (connection == null ? UNKNOWN_PROTOCOL_NAME
+                : PROTOCOL_NAMES[connection.mProtocol]).getBytes(ASCII);
+        int paddedLength = (name.length + 3) & ~3;
+        tags.writeShort(TAG_PROTO_NAME);
+        tags.writeShort(paddedLength);
+        tags.write(name);
+        tags.write(new byte[paddedLength - name.length]);
+        if (connection != null) {
+            InetAddress source = outgoing ? connection.mLocalAddress : connection.mRemoteAddress;
+            InetAddress destination = outgoing ? connection.mRemoteAddress
+                    : connection.mLocalAddress;
+            writeAddress(tags, source, TAG_IPV4_SRC, TAG_IPV6_SRC);
+            writeAddress(tags, destination, TAG_IPV4_DST, TAG_IPV6_DST);
+            tags.writeShort(TAG_PORT_TYPE);
+            tags.writeShort(4);
+            tags.writeInt(connection.mTransport == TRANSPORT_UDP ? PORT_TYPE_UDP : PORT_TYPE_TCP);
+            tags.writeShort(TAG_SRC_PORT);
+            tags.writeShort(4);
+            tags.writeInt(outgoing ? connection.mLocalPort : connection.mRemotePort);
+            tags.writeShort(TAG_DST_PORT);
+            tags.writeShort(4);
+            tags.writeInt(outgoing ? connection.mRemotePort : connection.mLocalPort);
+        }
+        tags.writeShort(TAG_END_OF_OPT);
+        tags.writeShort(0);
+        return bytes.toByteArray();
+    }
+
+    private static void writeAddress(DataOutputStream tags, InetAddress address, int ipv4Tag,
+            int ipv6Tag) throws IOException {
+        if (address == null) {
+            return;
+        }
+        byte[] bytes = address.getAddress();
+        tags.writeShort(bytes.length == 4 ? ipv4Tag : ipv6Tag);
+        tags.writeShort(bytes.length);
+        tags.write(bytes);
+    }
+}
@@ -28,6 +28,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Hashtable;
 
+import com.gsma.rcs.core.ims.protocol.capture.CapturingInputStream;
+import com.gsma.rcs.core.ims.protocol.capture.MessageCapture;
 import com.gsma.rcs.core.ims.protocol.msrp.MsrpSession.TypeMsrpChunk;
 import com.gsma.rcs.core.ims.protocol.sip.SipPayloadException;
 import com.gsma.rcs.utils.logger.Logger;
@@ -44,9 +46,9 @@ public class ChunkReceiver extends Thread {
     private MsrpConnection mConnection;
 
     /**
-     * MSRP input stream
+     * MSRP input stream, capturing the received messages
      */
-    private InputStream mStream;
+    private CapturingInputStream mStream;
 
     /**
      * Termination flag
@@ -71,7 +73,8 @@ public class ChunkReceiver extends Thread {
      */
     public ChunkReceiver(MsrpConnection connection, InputStream stream) {
         mConnection = connection;
-        mStream = stream;
+        mStream = new CapturingInputStream(stream, MessageCapture.getInstance(),
+                connection.getCaptureId());
     }
 
     /**
@@ -98,28 +101,23 @@ public class ChunkReceiver extends Thread {
         try {
             // Background processing
             while (!mTerminated) {
-                StringBuilder trace = new StringBuilder();
-
                 // Read first line of a new data chunk
                 StringBuilder line = readLine();
 
                 if (line.length() == 0) {
-                    if (MsrpConnection.MSRP_TRACE_ENABLED) {
-                        System.out.println("<<< End of stream");
+                    if (sLogger.isDebugActivated()) {
+                        sLogger.debug("End of stream");
                     }
                     return;
                 }
 
-                if (MsrpConnection.MSRP_TRACE_ENABLED) {
-                    trace.append(line);
-                    trace.append(MsrpConstants.NEW_LINE);
-                }
                 // Check the MSRP tag
                 String[] firstLineTags = line.toString().split(" ");
                 if ((firstLineTags.length < 3)
                         || !firstLineTags[0].equals(MsrpConstants.MSRP_HEADER)) {
-                    if (MsrpConnection.MSRP_TRACE_ENABLED) {
-                        System.out.println("<<< Not a MSRP message");
+                    mStream.commit();
+                    if (sLogger.isDebugActivated()) {
+                        sLogger.debug("Not a MSRP message");
                     }
                     return;
                 }
@@ -146,10 +144,6 @@ public class ChunkReceiver extends Thread {
                 int totalSize = 0;
                 while (continuationFlag == '\0' && !mTerminated) {
                     line = readLine();
-                    if (MsrpConnection.MSRP_TRACE_ENABLED) {
-                        trace.append(line);
-                        trace.append(MsrpConstants.NEW_LINE);
-                    }
 
                     // Test if there is a new line separating headers from the data
                     if (line.length() == 0) {
@@ -180,11 +174,6 @@ public class ChunkReceiver extends Thread {
                                 System.arraycopy(buffer, 0, data, 0, buffer.length - 1);
                                 continuationFlag = (char) buffer[buffer.length - 1];
                             }
-
-                            if (MsrpConnection.MSRP_TRACE_ENABLED) {
-                                trace.append(new String(data, UTF8));
-                                trace.append(MsrpConstants.NEW_LINE);
-                            }
                         } else {
                             // Read until terminating header is found
                             StringBuilder buffer = new StringBuilder();
@@ -205,13 +194,6 @@ public class ChunkReceiver extends Thread {
                             }
                             data = buffer.toString().getBytes(UTF8);
                             totalSize = data.length;
-
-                            if (MsrpConnection.MSRP_TRACE_ENABLED) {
-                                trace.append(new String(data, UTF8));
-                                trace.append(MsrpConstants.NEW_LINE);
-                                trace.append(end);
-                                trace.append(continuationFlag);
-                            }
                         }
                     } else if (line.toString().startsWith(end)) {
                         continuationFlag = line.charAt(line.length() - 1);
@@ -226,33 +208,23 @@ public class ChunkReceiver extends Thread {
                     }
                 }
 
+                mStream.commit();
+
                 final MsrpSession session = mConnection.getSession();
                 // Process the received MSRP message
                 if (responseCode != -1) {
                     // Process MSRP response
-                    if (MsrpConnection.MSRP_TRACE_ENABLED) {
-                        System.out.println("<<< Receive MSRP response:\n" + trace);
-                    }
                     session.receiveMsrpResponse(responseCode, txId, headers);
                 } else {
                     // Process MSRP request
                     if (method.toString().equals(MsrpConstants.METHOD_SEND)) {
                         // Process a SEND request
-                        if (MsrpConnection.MSRP_TRACE_ENABLED) {
-                            System.out.println("<<< Receive MSRP SEND request:\n" + trace);
-                        }
                         session.receiveMsrpSend(txId, headers, continuationFlag, data, totalSize);
                     } else if (method.toString().equals(MsrpConstants.METHOD_REPORT)) {
                         // Process a REPORT request
-                        if (MsrpConnection.MSRP_TRACE_ENABLED) {
-                            System.out.println("<<< Receive MSRP REPORT request:\n" + trace);
-                        }
                         session.receiveMsrpReport(txId, headers);
                     } else {
                         // Unknown request
-                        if (MsrpConnection.MSRP_TRACE_ENABLED) {
-                            System.out.println("<<< Unknown request received:\n" + trace);
-                        }
                         // Remove transaction info from list
                         // Changed by Deutsche Telekom
                         session.removeMsrpTransactionInfo(txId);
@@ -265,7 +237,7 @@ public class ChunkReceiver extends Thread {
             }
         } catch (IOException e) {
             if (!mTerminated) {
-                if (sLogger.isActivated()) {
+                if (sLogger.isDebugActivated()) {
                     sLogger.debug(e.getMessage());
                 }
                 /* Notify the session listener that an error has occured */
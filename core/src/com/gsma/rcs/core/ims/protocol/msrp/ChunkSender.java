@@ -22,8 +22,7 @@
 
 package com.gsma.rcs.core.ims.protocol.msrp;
 
-import static com.gsma.rcs.utils.StringUtils.UTF8;
-
+import com.gsma.rcs.core.ims.protocol.capture.MessageCapture;
 import com.gsma.rcs.core.ims.protocol.msrp.MsrpSession.TypeMsrpChunk;
 import com.gsma.rcs.utils.logger.Logger;
 
@@ -99,14 +98,11 @@ public class ChunkSender extends Thread {
             byte chunk[] = null;
             while ((chunk = (byte[]) mBuffer.getMessage()) != null) {
                 // Write chunk to the output stream
-                if (MsrpConnection.MSRP_TRACE_ENABLED) {
-                    System.out.println(">>> Send MSRP message:\n" + new String(chunk, UTF8));
-                }
                 writeData(chunk);
             }
         } catch (IOException e) {
             if (!mTerminated) {
-                if (sLogger.isActivated()) {
+                if (sLogger.isDebugActivated()) {
                     sLogger.debug(e.getMessage());
                 }
                 /* Notify the msrp session listener that an error has occured */
@@ -150,9 +146,6 @@ public class ChunkSender extends Thread {
      * @throws IOException
      */
     public void sendChunkImmediately(byte chunk[]) throws IOException {
-        if (MsrpConnection.MSRP_TRACE_ENABLED) {
-            System.out.println(">>> Send MSRP message:\n" + new String(chunk, UTF8));
-        }
         writeData(chunk);
     }
 
@@ -163,6 +156,8 @@ public class ChunkSender extends Thread {
      * @throws IOException
      */
     private synchronized void writeData(byte chunk[]) throws IOException {
+        MessageCapture.getInstance().capture(mConnection.getCaptureId(), true, chunk, 0,
+                chunk.length);
         try {
             mStream.write(chunk);
             mStream.flush();
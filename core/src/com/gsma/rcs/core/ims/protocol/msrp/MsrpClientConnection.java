@@ -119,7 +119,7 @@ public class MsrpClientConnection extends MsrpConnection {
      * @throws IOException
      */
     public SocketConnection getSocketConnection() throws IOException {
-        if (logger.isActivated()) {
+        if (logger.isDebugActivated()) {
             logger.debug("Open client socket to " + remoteAddress + ":" + remotePort);
         }
         SocketConnection socket;
@@ -137,7 +137,7 @@ public class MsrpClientConnection extends MsrpConnection {
             socket = NetworkFactory.getFactory().createSocketClientConnection();
         }
         socket.open(remoteAddress, remotePort);
-        if (logger.isActivated()) {
+        if (logger.isDebugActivated()) {
             logger.debug("Socket connected to " + socket.getRemoteAddress() + ":"
                     + socket.getRemotePort());
         }
@@ -22,6 +22,7 @@
 
 package com.gsma.rcs.core.ims.protocol.msrp;
 
+import com.gsma.rcs.core.ims.protocol.capture.MessageCapture;
 import com.gsma.rcs.platform.network.SocketConnection;
 import com.gsma.rcs.utils.logger.Logger;
 
@@ -35,11 +36,6 @@ import java.io.OutputStream;
  * @author jexa7410
  */
 public abstract class MsrpConnection {
-    /**
-     * MSRP traces enabled
-     */
-    public static boolean MSRP_TRACE_ENABLED = false;
-
     /**
      * MSRP session
      */
@@ -60,6 +56,11 @@ public abstract class MsrpConnection {
      */
     private InputStream inputStream = null;
 
+    /**
+     * Connection id in the message capture
+     */
+    private int captureId;
+
     /**
      * Chunk receiver
      */
@@ -93,6 +94,15 @@ public abstract class MsrpConnection {
         return session;
     }
 
+    /**
+     * Returns the connection id of the MSRP messages in the message capture
+     * 
+     * @return Connection id
+     */
+    public int getCaptureId() {
+        return captureId;
+    }
+
     /**
      * Open the connection
      * 
@@ -106,6 +116,10 @@ public abstract class MsrpConnection {
         inputStream = socket.getInputStream();
         outputStream = socket.getOutputStream();
 
+        captureId = MessageCapture.getInstance().openConnection(MessageCapture.PROTOCOL_MSRP,
+                MessageCapture.TRANSPORT_TCP, socket.getLocalAddress(), socket.getLocalPort(),
+                socket.getRemoteAddress(), socket.getRemotePort());
+
         // Create the chunk receiver
         receiver = new ChunkReceiver(this, inputStream);
         receiver.start();
@@ -114,7 +128,7 @@ public abstract class MsrpConnection {
         sender = new ChunkSender(this, outputStream);
         sender.start();
 
-        if (logger.isActivated()) {
+        if (logger.isDebugActivated()) {
             logger.debug("Connection has been opened");
         }
     }
@@ -136,6 +150,10 @@ public abstract class MsrpConnection {
         inputStream = socket.getInputStream();
         outputStream = socket.getOutputStream();
 
+        captureId = MessageCapture.getInstance().openConnection(MessageCapture.PROTOCOL_MSRP,
+                MessageCapture.TRANSPORT_TCP, socket.getLocalAddress(), socket.getLocalPort(),
+                socket.getRemoteAddress(), socket.getRemotePort());
+
         // Create the chunk receiver
         receiver = new ChunkReceiver(this, inputStream);
         receiver.start();
@@ -144,7 +162,7 @@ public abstract class MsrpConnection {
         sender = new ChunkSender(this, outputStream);
         sender.start();
 
-        if (logger.isActivated()) {
+        if (logger.isDebugActivated()) {
             logger.debug("Connection has been opened");
         }
     }
@@ -161,7 +179,7 @@ public abstract class MsrpConnection {
             receiver.terminate();
         }
 
-        if (logger.isActivated()) {
+        if (logger.isDebugActivated()) {
             logger.debug("Close the socket connection");
         }
         if (inputStream != null) {
@@ -186,7 +204,7 @@ public abstract class MsrpConnection {
             }
         }
 
-        if (logger.isActivated()) {
+        if (logger.isDebugActivated()) {
             logger.debug("Connection has been closed");
         }
     }
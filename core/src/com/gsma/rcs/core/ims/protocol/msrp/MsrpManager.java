@@ -28,6 +28,7 @@ import com.gsma.rcs.core.ims.protocol.sdp.MediaDescription;
 import com.gsma.rcs.core.ims.protocol.sdp.SdpParser;
 import com.gsma.rcs.core.ims.protocol.sdp.SdpUtils;
 import com.gsma.rcs.core.ims.service.ImsService;
+import com.gsma.rcs.core.ims.service.SessionExecutor;
 import com.gsma.rcs.provider.settings.RcsSettings;
 import com.gsma.rcs.utils.IpAddressUtils;
 import com.gsma.rcs.utils.logger.Logger;
@@ -271,7 +272,7 @@ public class MsrpManager {
     public MsrpSession createMsrpClientSession(String remoteHost, int remotePort,
             String remoteMsrpPath, MsrpEventListener listener, String fingerprint)
             throws MsrpException {
-        if (logger.isActivated()) {
+        if (logger.isInfoActivated()) {
             logger.info(new StringBuilder("Create MSRP client end point at ").append(remoteHost)
                     .append(":").append(remotePort).toString());
         }
@@ -301,7 +302,7 @@ public class MsrpManager {
      */
     public MsrpSession createMsrpServerSession(String remoteMsrpPath, MsrpEventListener listener)
             throws MsrpException {
-        if (logger.isActivated()) {
+        if (logger.isInfoActivated()) {
             logger.info("Create MSRP server end point at " + mLocalMsrpPort);
         }
 
@@ -340,7 +341,34 @@ public class MsrpManager {
             throw new MsrpException("MSRP session is null");
         }
 
-        mMsrpSession.sendChunks(inputStream, msgId, contentType, contentSize, typeMsrpChunk);
+        /* Sending a file may take long, let another session run meanwhile */
+        SessionExecutor executor = SessionExecutor.getInstance();
+        executor.beginBlocking();
+        try {
+            mMsrpSession.sendChunks(inputStream, msgId, contentType, contentSize, typeMsrpChunk);
+        } finally {
+            executor.endBlocking();
+        }
+    }
+
+    /**
+     * Send small messages back to back
+     * 
+     * @param contents Contents of the messages, each no larger than
+     *            {@link MsrpConstants#CHUNK_MAX_SIZE}
+     * @param msgIds Message IDs
+     * @param count Number of messages to send
+     * @param contentType Content type
+     * @param typeMsrpChunk Type of MSRP chunk
+     * @throws MsrpException
+     */
+    public void sendMessages(byte[][] contents, String[] msgIds, int count, String contentType,
+            TypeMsrpChunk typeMsrpChunk) throws MsrpException {
+        if (mMsrpSession == null) {
+            throw new MsrpException("MSRP session is null");
+        }
+
+        mMsrpSession.sendMessages(contents, msgIds, count, contentType, typeMsrpChunk);
     }
 
     /**
@@ -361,7 +389,7 @@ public class MsrpManager {
      */
     public synchronized void closeSession() {
         if (mMsrpSession != null) {
-            if (logger.isActivated()) {
+            if (logger.isInfoActivated()) {
                 logger.info("Close the MSRP session");
             }
             mMsrpSession.close();
@@ -29,7 +29,10 @@ import com.gsma.rcs.provider.settings.RcsSettings;
 import com.gsma.rcs.utils.CloseableUtils;
 import com.gsma.rcs.utils.IdGenerator;
 import com.gsma.rcs.utils.logger.Logger;
+import com.gsma.rcs.utils.metrics.Counter;
+import com.gsma.rcs.utils.metrics.MetricsRegistry;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -181,6 +184,18 @@ public class MsrpSession {
      */
     private Logger logger = Logger.getLogger(this.getClass().getName());
 
+    private static final Counter sSentChunks = MetricsRegistry.getInstance().getCounter(
+            "msrp.chunks.sent");
+
+    private static final Counter sSentBytes = MetricsRegistry.getInstance().getCounter(
+            "msrp.bytes.sent");
+
+    private static final Counter sReceivedChunks = MetricsRegistry.getInstance().getCounter(
+            "msrp.chunks.received");
+
+    private static final Counter sReceivedBytes = MetricsRegistry.getInstance().getCounter(
+            "msrp.bytes.received");
+
     // Changed by Deutsche Telekom
     /**
      * Transaction info table
@@ -355,7 +370,7 @@ public class MsrpSession {
      * Close the session
      */
     public void close() {
-        if (logger.isActivated()) {
+        if (logger.isDebugActivated()) {
             logger.debug("Close session");
         }
 
@@ -396,7 +411,7 @@ public class MsrpSession {
      */
     public void sendChunks(InputStream inputStream, String msgId, String contentType,
             final long totalSize, TypeMsrpChunk typeMsrpChunk) throws MsrpException {
-        if (logger.isActivated()) {
+        if (logger.isInfoActivated()) {
             logger.info("Send content (" + contentType + " - MSRP chunk type: " + typeMsrpChunk
                     + ")");
         }
@@ -556,13 +571,91 @@ public class MsrpSession {
         }
     }
 
+    /**
+     * Sends small messages back to back, each in a single chunk, and waits once for all the
+     * responses instead of once per message as {@link #sendChunks} does.
+     * 
+     * @param contents Contents of the messages, each no larger than
+     *            {@link MsrpConstants#CHUNK_MAX_SIZE}
+     * @param msgIds Message IDs
+     * @param count Number of messages to send
+     * @param contentType Content type of the messages
+     * @param typeMsrpChunk Type of MSRP chunk
+     * @throws MsrpException
+     */
+    public void sendMessages(byte[][] contents, String[] msgIds, int count, String contentType,
+            TypeMsrpChunk typeMsrpChunk) throws MsrpException {
+        if (successReportOption) {
+            /* Success reports are awaited message by message */
+            for (int i = 0; i < count; i++) {
+                sendChunks(new ByteArrayInputStream(contents[i]), msgIds[i], contentType,
+                        contents[i].length, typeMsrpChunk);
+            }
+            return;
+        }
+        if (logger.isInfoActivated()) {
+            logger.info(new StringBuilder("Send ").append(count).append(" messages (")
+                    .append(contentType).append(")").toString());
+        }
+
+        if (from == null) {
+            throw new MsrpException("From not set");
+        }
+
+        if (to == null) {
+            throw new MsrpException("To not set");
+        }
+
+        if (connection == null) {
+            throw new MsrpException("No connection set");
+        }
+
+        cancelTransfer = false;
+        reportTransaction = null;
+        if (failureReportOption) {
+            msrpTransaction = new MsrpTransaction();
+        } else {
+            msrpTransaction = null;
+        }
+        try {
+            for (int i = 0; i < count && !cancelTransfer; i++) {
+                byte[] content = contents[i];
+                String newTransactionId = generateTransactionId();
+                String msrpMsgId = IdGenerator.generateMessageID();
+                addMsrpTransactionInfo(newTransactionId, msrpMsgId, msgIds[i], typeMsrpChunk);
+                sendMsrpSendRequest(newTransactionId, to, from, msrpMsgId, contentType,
+                        content.length, content, 1, content.length, content.length);
+            }
+        } catch (IOException e) {
+            throw new MsrpException("Send messages failed for msgId : ".concat(msgIds[0]), e);
+        }
+
+        if (cancelTransfer) {
+            return;
+        }
+
+        if (msrpTransaction != null) {
+            msrpTransaction.waitAllResponses();
+            if (!msrpTransaction.isAllResponsesReceived()) {
+                if (!msrpTransaction.isTerminated()) {
+                    msrpEventListener.msrpTransferError(msgIds[0], "response timeout 408",
+                            typeMsrpChunk);
+                }
+                return;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            msrpEventListener.msrpDataTransfered(msgIds[i]);
+        }
+    }
+
     /**
      * Send empty chunk
      * 
      * @throws MsrpException
      */
     public void sendEmptyChunk() throws MsrpException {
-        if (logger.isActivated()) {
+        if (logger.isInfoActivated()) {
             logger.info("Send an empty chunk");
         }
 
@@ -674,6 +767,10 @@ public class MsrpSession {
         buffer.write(NEW_LINE);
 
         // Send chunk
+        sSentChunks.increment();
+        if (data != null) {
+            sSentBytes.add(dataSize);
+        }
         if (failureReportOption) {
             if (msrpTransaction != null) {
                 msrpTransaction.handleRequest();
@@ -867,9 +964,13 @@ public class MsrpSession {
             byte[] data, long totalSize) throws IOException, MsrpException, SipPayloadException {
         // Consider media is established when we received something
         isEstablished = true;
+        sReceivedChunks.increment();
+        if (data != null) {
+            sReceivedBytes.add(data.length);
+        }
 
         // Receive a SEND request
-        if (logger.isActivated()) {
+        if (logger.isDebugActivated()) {
             logger.debug("SEND request received (flag=" + flag + ", transaction=" + txId
                     + ", totalSize=" + totalSize + ")");
         }
@@ -892,7 +993,7 @@ public class MsrpSession {
 
         // Test if it's an empty chunk
         if (data == null) {
-            if (logger.isActivated()) {
+            if (logger.isDebugActivated()) {
                 logger.debug("Empty chunk");
             }
             return;
@@ -904,7 +1005,7 @@ public class MsrpSession {
         // Check the continuation flag
         if (flag == MsrpConstants.FLAG_LAST_CHUNK) {
             // Transfer terminated
-            if (logger.isActivated()) {
+            if (logger.isInfoActivated()) {
                 logger.info("Transfer terminated");
             }
 
@@ -941,7 +1042,7 @@ public class MsrpSession {
             }
         } else if (flag == MsrpConstants.FLAG_ABORT_CHUNK) {
             // Transfer aborted
-            if (logger.isActivated()) {
+            if (logger.isInfoActivated()) {
                 logger.info("Transfer aborted");
             }
 
@@ -949,7 +1050,7 @@ public class MsrpSession {
             msrpEventListener.msrpTransferAborted();
         } else if (flag == MsrpConstants.FLAG_MORE_CHUNK) {
             // Transfer in progress
-            if (logger.isActivated()) {
+            if (logger.isDebugActivated()) {
                 logger.debug("Transfer in progress...");
             }
             byte[] dataContent = receivedChunks.getReceivedData();
@@ -977,7 +1078,7 @@ public class MsrpSession {
         // Consider media is established when we received something
         isEstablished = true;
 
-        if (logger.isActivated()) {
+        if (logger.isInfoActivated()) {
             logger.info("Response received (code=" + code + ", transaction=" + txId + ")");
         }
 
@@ -1064,9 +1165,7 @@ public class MsrpSession {
         // Byte-Range: 1-305/305
         // -------n02s00i2t0+1937$
 
-        if (logger.isActivated()) {
-            logger.info("REPORT request received (transaction=" + txId + ")");
-        }
+        logger.info("REPORT request received (transaction={})", txId);
 
         // Changed by Deutsche Telekom
         String msrpMsgId = headers.get(MsrpConstants.HEADER_MESSAGE_ID);
@@ -1079,11 +1178,8 @@ public class MsrpSession {
             typeMsrpChunk = msrpTransactionInfo.typeMsrpChunk;
             originalTransactionId = msrpTransactionInfo.transactionId;
             cpimMsgId = msrpTransactionInfo.cpimMsgId;
-            if (logger.isActivated()) {
-                logger.debug("REPORT request details; originalTransactionId="
-                        + originalTransactionId + "; cpimMsgId=" + cpimMsgId + "; typeMsrpChunk="
-                        + typeMsrpChunk);
-            }
+            logger.debug("REPORT request details; originalTransactionId={}; cpimMsgId={}; "
+                    + "typeMsrpChunk={}", originalTransactionId, cpimMsgId, typeMsrpChunk);
         }
 
         // Changed by Deutsche Telekom
@@ -1240,11 +1336,10 @@ public class MsrpSession {
                     for (MsrpTransactionInfo msrpTransactionInfo : msrpTransactionInfos) {
                         long delta = System.currentTimeMillis() - msrpTransactionInfo.timestamp;
                         if ((delta >= TRANSACTION_INFO_EXPIRY_PERIOD) || (delta < 0)) {
-                            if (logger.isActivated()) {
-                                logger.debug("Transaction info have expired (transactionId: "
-                                        + msrpTransactionInfo.transactionId + ", msgId: "
-                                        + msrpTransactionInfo.msrpMsgId + ")");
-                            }
+                            logger.debug(
+                                    "Transaction info have expired (transactionId: {}, msgId: {})",
+                                    msrpTransactionInfo.transactionId,
+                                    msrpTransactionInfo.msrpMsgId);
                             mTransactionInfoMap.remove(msrpTransactionInfo.transactionId);
                             if (mMessageTransactionMap != null) {
                                 mMessageTransactionMap.remove(msrpTransactionInfo.msrpMsgId);
@@ -67,7 +67,7 @@ public class CodecChain {
 
         // Prepare codecs
         for (int i = 0; i < codecs.length; i++) {
-            if (logger.isActivated()) {
+            if (logger.isDebugActivated()) {
                 logger.debug("Open codec " + codecs[i].getClass().getName());
             }
             codecs[i].open();
@@ -112,7 +112,7 @@ public class CodecChain {
                 return Codec.BUFFER_PROCESSED_OK;
 
             } catch (MediaException e) {
-                if (logger.isActivated()) {
+                if (logger.isDebugActivated()) {
                     logger.debug(e.getMessage());
                 }
                 return Codec.BUFFER_PROCESSED_FAILED;
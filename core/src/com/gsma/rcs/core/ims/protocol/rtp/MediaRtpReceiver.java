@@ -83,14 +83,14 @@ public class MediaRtpReceiver {
             inputStream = new RtpInputStream(remoteAddress, remotePort, localPort, format);
             inputStream.addRtpStreamListener(rtpStreamListener);
             inputStream.open();
-            if (logger.isActivated()) {
+            if (logger.isDebugActivated()) {
                 logger.debug("Input stream: " + inputStream.getClass().getName());
             }
 
             // Create the output stream
             MediaRendererStream outputStream = new MediaRendererStream(renderer);
             outputStream.open();
-            if (logger.isActivated()) {
+            if (logger.isDebugActivated()) {
                 logger.debug("Output stream: " + outputStream.getClass().getName());
             }
 
@@ -100,7 +100,7 @@ public class MediaRtpReceiver {
             // Create the media processor
             processor = new Processor(inputStream, outputStream, codecChain);
 
-            if (logger.isActivated()) {
+            if (logger.isDebugActivated()) {
                 logger.debug("Session has been prepared with success");
             }
         } catch (IOException e) {
@@ -112,7 +112,7 @@ public class MediaRtpReceiver {
      * Start the RTP session
      */
     public void startSession() {
-        if (logger.isActivated()) {
+        if (logger.isInfoActivated()) {
             logger.info("Start the session");
         }
 
@@ -126,7 +126,7 @@ public class MediaRtpReceiver {
      * Stop the RTP session
      */
     public void stopSession() {
-        if (logger.isActivated()) {
+        if (logger.isInfoActivated()) {
             logger.info("Stop the session");
         }
 
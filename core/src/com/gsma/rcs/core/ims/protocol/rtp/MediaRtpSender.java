@@ -89,14 +89,14 @@ public class MediaRtpSender {
     public void prepareSession(MediaInput player, String remoteAddress, int remotePort,
             RtpStreamListener rtpStreamListener) throws RtpException {
         try {
-            if (logger.isActivated()) {
+            if (logger.isDebugActivated()) {
                 logger.debug("Prepare session");
             }
 
             // Create the input stream
             inputStream = new MediaCaptureStream(format, player);
             inputStream.open();
-            if (logger.isActivated()) {
+            if (logger.isDebugActivated()) {
                 logger.debug("Input stream: " + inputStream.getClass().getName());
             }
 
@@ -105,7 +105,7 @@ public class MediaRtpSender {
                     RtpOutputStream.RTCP_SOCKET_TIMEOUT);
             outputStream.addRtpStreamListener(rtpStreamListener);
             outputStream.open();
-            if (logger.isActivated()) {
+            if (logger.isDebugActivated()) {
                 logger.debug("Output stream: " + outputStream.getClass().getName());
             }
 
@@ -113,12 +113,12 @@ public class MediaRtpSender {
             Codec[] codecChain = MediaRegistry.generateEncodingCodecChain(format.getCodec());
 
             // Create the media processor
-            if (logger.isActivated()) {
+            if (logger.isDebugActivated()) {
                 logger.debug("New processor");
             }
             processor = new Processor(inputStream, outputStream, codecChain);
 
-            if (logger.isActivated()) {
+            if (logger.isDebugActivated()) {
                 logger.debug("Session has been prepared with success");
             }
         } catch (IOException e) {
@@ -139,14 +139,14 @@ public class MediaRtpSender {
     public void prepareSession(MediaInput player, String remoteAddress, int remotePort,
             RtpInputStream rtpStream, RtpStreamListener rtpStreamListener) throws MediaException {
         try {
-            if (logger.isActivated()) {
+            if (logger.isDebugActivated()) {
                 logger.debug("Prepare session");
             }
 
             // Create the input stream
             inputStream = new MediaCaptureStream(format, player);
             inputStream.open();
-            if (logger.isActivated()) {
+            if (logger.isDebugActivated()) {
                 logger.debug("Input stream: " + inputStream.getClass().getName());
             }
 
@@ -156,7 +156,7 @@ public class MediaRtpSender {
             outputStream = new RtpOutputStream(remoteAddress, remotePort, rtpStream);
             outputStream.addRtpStreamListener(rtpStreamListener);
             outputStream.open();
-            if (logger.isActivated()) {
+            if (logger.isDebugActivated()) {
                 logger.debug("Output stream: " + outputStream.getClass().getName());
             }
 
@@ -164,12 +164,12 @@ public class MediaRtpSender {
             Codec[] codecChain = MediaRegistry.generateEncodingCodecChain(format.getCodec());
 
             // Create the media processor
-            if (logger.isActivated()) {
+            if (logger.isDebugActivated()) {
                 logger.debug("New processor");
             }
             processor = new Processor(inputStream, outputStream, codecChain);
 
-            if (logger.isActivated()) {
+            if (logger.isDebugActivated()) {
                 logger.debug("Session has been prepared with success");
             }
         } catch (IOException e) {
@@ -181,7 +181,7 @@ public class MediaRtpSender {
      * Start the RTP session
      */
     public void startSession() {
-        if (logger.isActivated()) {
+        if (logger.isDebugActivated()) {
             logger.debug("Start the session");
         }
 
@@ -195,7 +195,7 @@ public class MediaRtpSender {
      * Stop the RTP session
      */
     public void stopSession() {
-        if (logger.isActivated()) {
+        if (logger.isDebugActivated()) {
             logger.debug("Stop the session");
         }
 
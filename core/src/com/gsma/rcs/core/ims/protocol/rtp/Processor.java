@@ -19,6 +19,7 @@
 package com.gsma.rcs.core.ims.protocol.rtp;
 
 import com.gsma.rcs.core.ims.protocol.rtp.codec.Codec;
+import com.gsma.rcs.core.ims.protocol.rtp.core.MediaReactor;
 import com.gsma.rcs.core.ims.protocol.rtp.stream.ProcessorInputStream;
 import com.gsma.rcs.core.ims.protocol.rtp.stream.ProcessorOutputStream;
 import com.gsma.rcs.core.ims.protocol.rtp.util.Buffer;
@@ -28,11 +29,12 @@ import java.io.IOException;
 
 /**
  * Media processor. A processor receives an input stream, use a codec chain to filter the data
- * before to send it to the output stream.
+ * before to send it to the output stream. The processing runs on a worker thread of the media
+ * reactor.
  * 
  * @author jexa7410
  */
-public class Processor extends Thread {
+public class Processor implements Runnable {
     /**
      * Processor input stream
      */
@@ -51,7 +53,7 @@ public class Processor extends Thread {
     /**
      * Processor status flag
      */
-    private boolean interrupted = false;
+    private volatile boolean interrupted = false;
 
     /**
      * The logger
@@ -67,15 +69,13 @@ public class Processor extends Thread {
      */
     public Processor(ProcessorInputStream inputStream, ProcessorOutputStream outputStream,
             Codec[] codecs) {
-        super();
-
         this.inputStream = inputStream;
         this.outputStream = outputStream;
 
         // Create the codec chain
         codecChain = new CodecChain(codecs, outputStream);
 
-        if (sLogger.isActivated()) {
+        if (sLogger.isDebugActivated()) {
             sLogger.debug("Media processor created");
         }
     }
@@ -84,18 +84,22 @@ public class Processor extends Thread {
      * Start processing
      */
     public void startProcessing() {
-        if (sLogger.isActivated()) {
+        if (sLogger.isDebugActivated()) {
             sLogger.debug("Start media processor");
         }
         interrupted = false;
-        start();
+        try {
+            MediaReactor.getInstance().execute(this);
+        } catch (IOException e) {
+            sLogger.error("Unable to start media processor!", e);
+        }
     }
 
     /**
      * Stop processing
      */
     public void stopProcessing() {
-        if (sLogger.isActivated()) {
+        if (sLogger.isDebugActivated()) {
             sLogger.debug("Stop media processor");
         }
         interrupted = true;
@@ -110,7 +114,7 @@ public class Processor extends Thread {
      */
     public void run() {
         try {
-            if (sLogger.isActivated()) {
+            if (sLogger.isDebugActivated()) {
                 sLogger.debug("Processor processing is started");
             }
 
@@ -120,7 +124,7 @@ public class Processor extends Thread {
                 Buffer inBuffer = inputStream.read();
                 if (inBuffer == null) {
                     interrupted = true;
-                    if (sLogger.isActivated()) {
+                    if (sLogger.isDebugActivated()) {
                         sLogger.debug("Processing terminated: null data received");
                     }
                     break;
@@ -139,14 +143,14 @@ public class Processor extends Thread {
             }
         } catch (IOException e) {
             if (!interrupted) {
-                if (sLogger.isActivated()) {
+                if (sLogger.isDebugActivated()) {
                     sLogger.debug(e.getMessage());
                 }
             }
         } catch (RuntimeException e) {
             /*
-             * Intentionally catch runtime exceptions as else it will abruptly end the thread and
-             * eventually bring the whole system down, which is not intended.
+             * Intentionally catch runtime exceptions as else it will abruptly end the worker thread
+             * and eventually bring the whole system down, which is not intended.
              */
             sLogger.error("Unable to process codec chain!", e);
         }
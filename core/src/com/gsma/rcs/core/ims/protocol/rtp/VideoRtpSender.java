@@ -26,6 +26,7 @@ import com.gsma.rcs.core.ims.protocol.rtp.codec.Codec;
 import com.gsma.rcs.core.ims.protocol.rtp.format.Format;
 import com.gsma.rcs.core.ims.protocol.rtp.media.MediaException;
 import com.gsma.rcs.core.ims.protocol.rtp.media.MediaInput;
+import com.gsma.rcs.core.ims.protocol.rtp.media.VideoEncoderControl;
 import com.gsma.rcs.core.ims.protocol.rtp.stream.RtpInputStream;
 import com.gsma.rcs.core.ims.protocol.rtp.stream.RtpOutputStream;
 import com.gsma.rcs.core.ims.protocol.rtp.stream.RtpStreamListener;
@@ -63,7 +64,7 @@ public class VideoRtpSender extends MediaRtpSender {
             // Create the input stream
             inputStream = new VideoCaptureStream(format, player);
             inputStream.open();
-            if (logger.isActivated()) {
+            if (logger.isDebugActivated()) {
                 logger.debug("Input stream: " + inputStream.getClass().getName());
             }
 
@@ -71,8 +72,11 @@ public class VideoRtpSender extends MediaRtpSender {
             outputStream = new RtpOutputStream(remoteAddress, remotePort, localPort,
                     RtpOutputStream.RTCP_SOCKET_TIMEOUT);
             outputStream.addRtpStreamListener(rtpStreamListener);
+            if (player instanceof VideoEncoderControl) {
+                outputStream.setVideoEncoderControl((VideoEncoderControl) player);
+            }
             outputStream.open();
-            if (logger.isActivated()) {
+            if (logger.isDebugActivated()) {
                 logger.debug("Output stream: " + outputStream.getClass().getName());
             }
 
@@ -82,7 +86,7 @@ public class VideoRtpSender extends MediaRtpSender {
             // Create the media processor
             processor = new Processor(inputStream, outputStream, codecChain);
 
-            if (logger.isActivated()) {
+            if (logger.isDebugActivated()) {
                 logger.debug("Session has been prepared with success");
             }
         } catch (IOException e) {
@@ -109,7 +113,7 @@ public class VideoRtpSender extends MediaRtpSender {
             // Create the input stream
             inputStream = new VideoCaptureStream(format, player);
             inputStream.open();
-            if (logger.isActivated()) {
+            if (logger.isDebugActivated()) {
                 logger.debug("Input stream: " + inputStream.getClass().getName());
             }
 
@@ -118,8 +122,11 @@ public class VideoRtpSender extends MediaRtpSender {
             // RtpOutputStream.RTCP_SOCKET_TIMEOUT);
             outputStream = new RtpOutputStream(remoteAddress, remotePort, rtpStream);
             outputStream.addRtpStreamListener(rtpStreamListener);
+            if (player instanceof VideoEncoderControl) {
+                outputStream.setVideoEncoderControl((VideoEncoderControl) player);
+            }
             outputStream.open();
-            if (logger.isActivated()) {
+            if (logger.isDebugActivated()) {
                 logger.debug("Output stream: " + outputStream.getClass().getName());
             }
 
@@ -129,7 +136,7 @@ public class VideoRtpSender extends MediaRtpSender {
             // Create the media processor
             processor = new Processor(inputStream, outputStream, codecChain);
 
-            if (logger.isActivated()) {
+            if (logger.isDebugActivated()) {
                 logger.debug("Session has been prepared with success");
             }
         } catch (IOException e) {
@@ -0,0 +1,332 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gsma.rcs.core.ims.protocol.rtp.core;
+
+import com.gsma.rcs.utils.logger.Logger;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Media I/O event loop shared by all the RTP sessions. A single thread multiplexes the RTP and
+ * RTCP datagram channels of every session through one selector and runs the timer events (RTCP
+ * reports, reception timeouts) in between, while the codec processing is handed to a pool of
+ * worker threads that is reused from one session to the next. Handlers and timer events run on the
+ * reactor thread and must never block, whatever may block is handed to a worker. Timer deadlines are taken from System.nanoTime so that
+ * wall clock changes do not delay or hasten them.
+ */
+public class MediaReactor {
+
+    /**
+     * Number of worker threads kept alive when no media session is active
+     */
+    private static final int WORKER_CORE_POOL_SIZE = 2;
+
+    /**
+     * Time in seconds an idle worker thread above the core pool size is kept alive
+     */
+    private static final long WORKER_KEEP_ALIVE = 30;
+
+    /**
+     * Delay in milliseconds before retrying a failed select, doubled after each further failure
+     */
+    private static final long SELECT_RETRY_BASE_DELAY = 10;
+
+    /**
+     * Maximum delay in milliseconds between two retries of a failing select
+     */
+    private static final long SELECT_RETRY_MAX_DELAY = 1000;
+
+    private static final Logger sLogger = Logger.getLogger(MediaReactor.class.getSimpleName());
+
+    private static volatile MediaReactor sInstance;
+
+    /**
+     * Handler of a channel registered to the reactor
+     */
+    public interface ChannelHandler {
+
+        /**
+         * Called on the reactor thread when datagrams are pending on the channel
+         */
+        public void onReadable();
+    }
+
+    /**
+     * Timer event scheduled on the reactor thread
+     */
+    public static final class TimerEvent implements Comparable<TimerEvent> {
+
+        private final Runnable mTask;
+
+        private final long mDeadline;
+
+        private final long mSequence;
+
+        private volatile boolean mCancelled;
+
+        private TimerEvent(Runnable task, long deadline, long sequence) {
+            mTask = task;
+            mDeadline = deadline;
+            mSequence = sequence;
+        }
+
+        /**
+         * Cancels the event if it has not run yet
+         */
+        public void cancel() {
+            mCancelled = true;
+        }
+
+        @Override
+        public int compareTo(TimerEvent other) {
+            /* Deadlines are nanoTime values, only their difference is meaningful */
+            long difference = mDeadline - other.mDeadline;
+            if (difference != 0) {
+                return difference < 0 ? -1 : 1;
+            }
+            if (mSequence != other.mSequence) {
+                return mSequence < other.mSequence ? -1 : 1;
+            }
+            return 0;
+        }
+    }
+
+    private static final class Registration {
+
+        private final DatagramChannel mChannel;
+
+        private final ChannelHandler mHandler;
+
+        private Registration(DatagramChannel channel, ChannelHandler handler) {
+            mChannel = channel;
+            mHandler = handler;
+        }
+    }
+
+    private final Selector mSelector;
+
+    /**
+     * Registrations requested by other threads, applied by the reactor thread which owns the
+     * selector
+     */
+    private final List<Registration> mPendingRegistrations = new ArrayList<Registration>();
+
+    private final PriorityQueue<TimerEvent> mTimers = new PriorityQueue<TimerEvent>();
+
+    private long mTimerSequence;
+
+    private final ThreadPoolExecutor mWorkers;
+
+    private MediaReactor() throws IOException {
+        mSelector = Selector.open();
+        /*
+         * Each media stream being processed keeps a worker for its whole duration, so the pool
+         * grows with the number of streams rather than making a stream wait or fail
+         */
+        mWorkers = new ThreadPoolExecutor(WORKER_CORE_POOL_SIZE, Integer.MAX_VALUE,
+                WORKER_KEEP_ALIVE, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+                new ThreadFactory() {
+                    private final AtomicInteger mCount = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "MediaWorker-"
+                                + mCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        Thread reactorThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                loop();
+            }
+        }, "MediaReactor");
+        reactorThread.setDaemon(true);
+        reactorThread.start();
+    }
+
+    /**
+     * Returns the reactor, started on first use
+     * 
+     * @return Media reactor
+     * @throws IOException
+     */
+    public static MediaReactor getInstance() throws IOException {
+        if (sInstance == null) {
+            synchronized (MediaReactor.class) {
+                if (sInstance == null) {
+                    sInstance = new MediaReactor();
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * Registers a non-blocking channel. The registration is dropped when the channel is closed.
+     * 
+     * @param channel Channel
+     * @param handler Handler called when datagrams are pending on the channel
+     */
+    public void register(DatagramChannel channel, ChannelHandler handler) {
+        synchronized (mPendingRegistrations) {
+            mPendingRegistrations.add(new Registration(channel, handler));
+        }
+        mSelector.wakeup();
+    }
+
+    /**
+     * Schedules a timer event on the reactor thread
+     * 
+     * @param task Task to run, must not block
+     * @param delay Delay in milliseconds
+     * @return Timer event
+     */
+    public TimerEvent schedule(Runnable task, long delay) {
+        TimerEvent event;
+        boolean first;
+        synchronized (mTimers) {
+            event = new TimerEvent(task, System.nanoTime()
+                    + TimeUnit.MILLISECONDS.toNanos(delay), mTimerSequence++);
+            mTimers.add(event);
+            first = mTimers.peek() == event;
+        }
+        if (first) {
+            mSelector.wakeup();
+        }
+        return event;
+    }
+
+    /**
+     * Executes a task which may block, such as the codec processing of a stream or a notification
+     * raised by a timer event, on a worker thread, an idle worker being reused if any
+     * 
+     * @param task Task to run
+     */
+    public void execute(Runnable task) {
+        mWorkers.execute(task);
+    }
+
+    private void applyPendingRegistrations() {
+        synchronized (mPendingRegistrations) {
+            for (Registration registration : mPendingRegistrations) {
+                try {
+                    registration.mChannel.register(mSelector, SelectionKey.OP_READ,
+                            registration.mHandler);
+                } catch (ClosedChannelException e) {
+                    /* Closed before being registered, nothing to listen to */
+                }
+            }
+            mPendingRegistrations.clear();
+        }
+    }
+
+    /**
+     * Runs the due timer events and returns the time to wait for the next one
+     * 
+     * @return Time in milliseconds to the next timer event or 0 if there is none
+     */
+    private long runDueTimers() {
+        while (true) {
+            TimerEvent event;
+            synchronized (mTimers) {
+                event = mTimers.peek();
+                if (event == null) {
+                    return 0;
+                }
+                long delay = event.mDeadline - System.nanoTime();
+                if (delay > 0) {
+                    /* At least 1 as a select timeout of 0 waits forever */
+                    return Math.max(1, TimeUnit.NANOSECONDS.toMillis(delay));
+                }
+                mTimers.poll();
+            }
+            if (!event.mCancelled) {
+                try {
+                    event.mTask.run();
+                } catch (RuntimeException e) {
+                    /*
+                     * Intentionally catch runtime exceptions as else it will abruptly end the
+                     * reactor thread and stop the media of every session.
+                     */
+                    sLogger.error("Media timer event failed!", e);
+                }
+            }
+        }
+    }
+
+    private void loop() {
+        int selectFailures = 0;
+        while (true) {
+            try {
+                applyPendingRegistrations();
+                long timeout = runDueTimers();
+                mSelector.select(timeout);
+                selectFailures = 0;
+                Iterator<SelectionKey> keys = mSelector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    try {
+                        ((ChannelHandler) key.attachment()).onReadable();
+                    } catch (RuntimeException e) {
+                        /*
+                         * Intentionally catch runtime exceptions as else it will abruptly end the
+                         * reactor thread and stop the media of every session.
+                         */
+                        sLogger.error("Media channel handler failed!", e);
+                    }
+                }
+            } catch (IOException e) {
+                sLogger.error("Media reactor select failed!", e);
+                backOff(++selectFailures);
+            }
+        }
+    }
+
+    /**
+     * Waits before retrying a failing select so that a persistent failure does not spin the
+     * reactor thread
+     * 
+     * @param failures Number of consecutive failures
+     */
+    private void backOff(int failures) {
+        long delay = Math.min(SELECT_RETRY_BASE_DELAY << Math.min(failures - 1, 10),
+                SELECT_RETRY_MAX_DELAY);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            /* Nothing to do, the select is retried */
+        }
+    }
+}
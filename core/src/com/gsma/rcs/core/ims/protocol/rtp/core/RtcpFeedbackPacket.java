@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gsma.rcs.core.ims.protocol.rtp.core;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * RTCP feedback packet: transport layer and payload specific feedback messages of RFC 4585 and
+ * the codec control messages of RFC 5104. The feedback control information is held in data.
+ */
+public class RtcpFeedbackPacket extends RtcpPacket {
+
+    /**
+     * Generic NACK (transport layer feedback)
+     */
+    public static final int FMT_NACK = 1;
+
+    /**
+     * Temporary maximum media stream bitrate request (transport layer feedback)
+     */
+    public static final int FMT_TMMBR = 3;
+
+    /**
+     * Picture loss indication (payload specific feedback)
+     */
+    public static final int FMT_PLI = 1;
+
+    /**
+     * Full intra request (payload specific feedback)
+     */
+    public static final int FMT_FIR = 4;
+
+    /**
+     * Application layer feedback (payload specific feedback), used by REMB
+     */
+    public static final int FMT_AFB = 15;
+
+    /**
+     * Unique identifier of the receiver estimated maximum bitrate message, "REMB" in ASCII
+     */
+    private static final int REMB_IDENTIFIER = 0x52454d42;
+
+    /**
+     * Number of lost packets following the packet ID which fit in the bitmask of a NACK entry
+     */
+    private static final int NACK_BITMASK_SIZE = 16;
+
+    public int fmt;
+
+    public int senderSsrc;
+
+    public int mediaSsrc;
+
+    public RtcpFeedbackPacket(RtcpPacket parent, int type) {
+        super(parent);
+
+        super.type = type;
+    }
+
+    public RtcpFeedbackPacket(int type, int fmt, int senderSsrc, int mediaSsrc, byte fci[]) {
+        if ((fci.length & 3) != 0) {
+            throw new IllegalArgumentException("Bad FCI length");
+        }
+        if (fmt < 0 || fmt > 31) {
+            throw new IllegalArgumentException("Bad feedback message type");
+        }
+        super.type = type;
+        this.fmt = fmt;
+        this.senderSsrc = senderSsrc;
+        this.mediaSsrc = mediaSsrc;
+        this.data = fci;
+    }
+
+    /**
+     * Creates a generic NACK for lost packets
+     * 
+     * @param senderSsrc SSRC of the sender of the feedback
+     * @param mediaSsrc SSRC of the media source
+     * @param seqnums Sequence numbers of the lost packets in increasing order
+     * @return Packet
+     */
+    public static RtcpFeedbackPacket createNack(int senderSsrc, int mediaSsrc, int seqnums[]) {
+        byte fci[] = new byte[seqnums.length * 4];
+        int length = 0;
+        int i = 0;
+        while (i < seqnums.length) {
+            int pid = seqnums[i++] & 0xffff;
+            int blp = 0;
+            while (i < seqnums.length) {
+                int distance = ((seqnums[i] & 0xffff) - pid) & 0xffff;
+                if (distance == 0 || distance > NACK_BITMASK_SIZE) {
+                    break;
+                }
+                blp |= 1 << (distance - 1);
+                i++;
+            }
+            fci[length++] = (byte) (pid >> 8);
+            fci[length++] = (byte) pid;
+            fci[length++] = (byte) (blp >> 8);
+            fci[length++] = (byte) blp;
+        }
+        byte entries[] = new byte[length];
+        System.arraycopy(fci, 0, entries, 0, length);
+        return new RtcpFeedbackPacket(RTCP_RTPFB, FMT_NACK, senderSsrc, mediaSsrc, entries);
+    }
+
+    /**
+     * Creates a picture loss indication
+     * 
+     * @param senderSsrc SSRC of the sender of the feedback
+     * @param mediaSsrc SSRC of the media source
+     * @return Packet
+     */
+    public static RtcpFeedbackPacket createPli(int senderSsrc, int mediaSsrc) {
+        return new RtcpFeedbackPacket(RTCP_PSFB, FMT_PLI, senderSsrc, mediaSsrc, new byte[0]);
+    }
+
+    private int readInt(int index) {
+        return ((data[index] & 0xff) << 24) | ((data[index + 1] & 0xff) << 16)
+                | ((data[index + 2] & 0xff) << 8) | (data[index + 3] & 0xff);
+    }
+
+    /**
+     * Returns the sequence numbers of the lost packets reported by a generic NACK
+     * 
+     * @return Sequence numbers, empty if the packet is not a generic NACK
+     */
+    public int[] getLostSequenceNumbers() {
+        if (type != RTCP_RTPFB || fmt != FMT_NACK) {
+            return new int[0];
+        }
+        int seqnums[] = new int[(data.length / 4) * (NACK_BITMASK_SIZE + 1)];
+        int count = 0;
+        for (int index = 0; index + 4 <= data.length; index += 4) {
+            int entry = readInt(index);
+            int pid = entry >>> 16;
+            seqnums[count++] = pid;
+            for (int bit = 0; bit < NACK_BITMASK_SIZE; bit++) {
+                if ((entry & (1 << bit)) != 0) {
+                    seqnums[count++] = (pid + bit + 1) & 0xffff;
+                }
+            }
+        }
+        int lost[] = new int[count];
+        System.arraycopy(seqnums, 0, lost, 0, count);
+        return lost;
+    }
+
+    /**
+     * Checks if the packet requests a key frame, i.e. is a picture loss indication or a full
+     * intra request
+     * 
+     * @return True if a key frame is requested
+     */
+    public boolean isKeyFrameRequest() {
+        return type == RTCP_PSFB && (fmt == FMT_PLI || fmt == FMT_FIR);
+    }
+
+    /**
+     * Returns the maximum bitrate requested by a TMMBR or estimated by a REMB
+     * 
+     * @return Bitrate in bits per second or -1 if the packet carries no maximum bitrate
+     */
+    public long getMaxBitrate() {
+        if (type == RTCP_RTPFB && fmt == FMT_TMMBR && data.length >= 8) {
+            /* SSRC (32), MxTBR exponent (6), mantissa (17), measured overhead (9) */
+            int value = readInt(4);
+            int exponent = value >>> 26;
+            long mantissa = (value >>> 9) & 0x1ffff;
+            return mantissa << exponent;
+        }
+        if (type == RTCP_PSFB && fmt == FMT_AFB && data.length >= 8
+                && readInt(0) == REMB_IDENTIFIER) {
+            /* Number of SSRCs (8), BR exponent (6), mantissa (18) */
+            int value = readInt(4);
+            int exponent = (value >>> 18) & 0x3f;
+            long mantissa = value & 0x3ffff;
+            return mantissa << exponent;
+        }
+        return -1;
+    }
+
+    public int calcLength() {
+        return 12 + data.length;
+    }
+
+    public void assemble(DataOutputStream out) throws IOException {
+        out.writeByte(128 + fmt);
+        out.writeByte(type);
+        out.writeShort(2 + (data.length >> 2));
+        out.writeInt(senderSsrc);
+        out.writeInt(mediaSsrc);
+        out.write(data);
+    }
+}
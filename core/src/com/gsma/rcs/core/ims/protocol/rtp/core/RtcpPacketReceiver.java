@@ -22,10 +22,12 @@ import com.gsma.rcs.core.ims.protocol.rtp.event.RtcpApplicationEvent;
 import com.gsma.rcs.core.ims.protocol.rtp.event.RtcpByeEvent;
 import com.gsma.rcs.core.ims.protocol.rtp.event.RtcpEvent;
 import com.gsma.rcs.core.ims.protocol.rtp.event.RtcpEventListener;
+import com.gsma.rcs.core.ims.protocol.rtp.event.RtcpFeedbackEvent;
 import com.gsma.rcs.core.ims.protocol.rtp.event.RtcpReceiverReportEvent;
 import com.gsma.rcs.core.ims.protocol.rtp.event.RtcpSdesEvent;
 import com.gsma.rcs.core.ims.protocol.rtp.event.RtcpSenderReportEvent;
 import com.gsma.rcs.core.ims.protocol.rtp.util.Packet;
+import com.gsma.rcs.platform.network.DatagramChannelConnection;
 import com.gsma.rcs.platform.network.DatagramConnection;
 import com.gsma.rcs.platform.network.NetworkFactory;
 import com.gsma.rcs.utils.logger.Logger;
@@ -33,19 +35,18 @@ import com.gsma.rcs.utils.logger.Logger;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
-import java.net.SocketTimeoutException;
 import java.util.Vector;
 
 /**
- * RTCP packet receiver
+ * RTCP packet receiver. The datagrams are read and parsed by the shared media reactor.
  * 
  * @author jexa7410
  */
-public class RtcpPacketReceiver extends Thread {
+public class RtcpPacketReceiver implements MediaReactor.ChannelHandler {
     /**
      * Datagram connection
      */
-    public DatagramConnection datagramConnection = null;
+    public DatagramChannelConnection datagramConnection = null;
 
     /**
      * Statistics
@@ -63,9 +64,20 @@ public class RtcpPacketReceiver extends Thread {
     private RtcpSession rtcpSession = null;
 
     /**
-     * Signals that thread is interrupted
+     * Time in milliseconds without any received packet after which the listeners are notified of
+     * a timeout, 0 for no timeout
      */
-    private boolean isInterrupted = false;
+    private int socketTimeout;
+
+    /**
+     * Time of the last received packet
+     */
+    private long lastReceivedAt;
+
+    /**
+     * Reception timeout event
+     */
+    private MediaReactor.TimerEvent timeoutEvent;
 
     /**
      * The logger
@@ -77,20 +89,20 @@ public class RtcpPacketReceiver extends Thread {
      * 
      * @param port Listening port
      * @param rtcpSession the RTCP session
-     * @param socketTimeout
+     * @param socketTimeout Time in milliseconds without any received packet after which the
+     *            listeners are notified of a timeout, 0 for no timeout
      * @throws IOException
      */
     public RtcpPacketReceiver(int port, RtcpSession rtcpSession, int socketTimeout)
             throws IOException {
-        super();
-
         this.rtcpSession = rtcpSession;
+        this.socketTimeout = socketTimeout;
 
         // Create the UDP server
-        datagramConnection = NetworkFactory.getFactory().createDatagramConnection(socketTimeout);
+        datagramConnection = NetworkFactory.getFactory().createDatagramChannelConnection();
         datagramConnection.open(port);
 
-        if (sLogger.isActivated()) {
+        if (sLogger.isDebugActivated()) {
             sLogger.debug("RTCP receiver created at port " + port);
         }
     }
@@ -106,63 +118,98 @@ public class RtcpPacketReceiver extends Thread {
         this(port, rtcpSession, 0);
     }
 
+    /**
+     * Start receiving packets
+     * 
+     * @throws IOException
+     */
+    public void start() throws IOException {
+        MediaReactor reactor = MediaReactor.getInstance();
+        lastReceivedAt = System.currentTimeMillis();
+        reactor.register(datagramConnection.getChannel(), this);
+        if (socketTimeout > 0) {
+            scheduleTimeout(reactor, socketTimeout);
+        }
+    }
+
     /**
      * Close the receiver
      * 
      * @throws IOException
      */
     public void close() throws IOException {
-        isInterrupted = true;
-        interrupt();
-
+        if (timeoutEvent != null) {
+            timeoutEvent.cancel();
+        }
         if (datagramConnection != null) {
             datagramConnection.close();
             datagramConnection = null;
         }
     }
 
-    /**
-     * Background processing
-     */
-    public void run() {
-        try {
-            while (datagramConnection != null) {
-                // Wait a packet
-                byte[] data = datagramConnection.receive();
+    private void scheduleTimeout(final MediaReactor reactor, long delay) {
+        timeoutEvent = reactor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (datagramConnection == null) {
+                    return;
+                }
+                long elapsed = System.currentTimeMillis() - lastReceivedAt;
+                if (elapsed < socketTimeout) {
+                    scheduleTimeout(reactor, socketTimeout - elapsed);
+                    return;
+                }
+                if (sLogger.isDebugActivated()) {
+                    sLogger.debug("RTCP reception timeout");
+                }
+                stats.numBadRtcpPkts++;
+                /* The listeners close the session, which must not be done on the reactor thread */
+                reactor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        notifyRtcpListenersOfTimeout();
+                    }
+                });
+            }
+        }, delay);
+    }
 
+    @Override
+    public void onReadable() {
+        DatagramChannelConnection connection = datagramConnection;
+        if (connection == null) {
+            return;
+        }
+        try {
+            byte[] data;
+            while ((data = connection.receive()) != null) {
                 // Create a packet object
                 Packet packet = new Packet();
                 packet.data = data;
                 packet.length = data.length;
                 packet.offset = 0;
                 packet.receivedAt = System.currentTimeMillis();
+                lastReceivedAt = packet.receivedAt;
 
                 // Process the received packet
                 /* Update statistics */
                 stats.numRtcpPkts++;
                 stats.numRtcpBytes += packet.length;
-                parseRtcpPacket(packet);
-            }
-        } catch (SocketTimeoutException e) {
-            if (sLogger.isActivated()) {
-                sLogger.debug(e.getMessage());
+                try {
+                    parseRtcpPacket(packet);
+                } catch (IOException e) {
+                    /* A malformed packet does not stop the reception of the next ones */
+                    if (sLogger.isDebugActivated()) {
+                        sLogger.debug(e.getMessage());
+                    }
+                    stats.numBadRtcpPkts++;
+                }
             }
-            stats.numBadRtcpPkts++;
-            notifyRtcpListenersOfTimeout();
         } catch (IOException e) {
-            if (!isInterrupted) {
-                if (sLogger.isActivated()) {
-                    sLogger.debug(e.getMessage());
-                }
+            if (datagramConnection != null && sLogger.isActivated()) {
+                sLogger.debug(e.getMessage());
             }
             stats.numBadRtcpPkts++;
-        } catch (RuntimeException e) {
-            /*
-             * Intentionally catch runtime exceptions as else it will abruptly end the thread and
-             * eventually bring the whole system down, which is not intended.
-             */
-            sLogger.error("Failed to establish datagramConnection!", e);
-            stats.numBadRtcpPkts++;
         }
     }
 
@@ -383,6 +430,23 @@ public class RtcpPacketReceiver extends Thread {
                     notifyRtcpListeners(new RtcpApplicationEvent(appp));
                     break;
 
+                case RtcpPacket.RTCP_RTPFB:
+                case RtcpPacket.RTCP_PSFB:
+                    if (inlength < 12) {
+                        stats.numMalformedRtcpPkts++;
+                        throw new IOException("Bad RTCP feedback packet format");
+                    }
+                    RtcpFeedbackPacket fbp = new RtcpFeedbackPacket(compoundPacket, type);
+                    subpacket = fbp;
+                    fbp.fmt = firstbyte;
+                    fbp.senderSsrc = in.readInt();
+                    fbp.mediaSsrc = in.readInt();
+                    fbp.data = new byte[inlength - 12];
+                    in.readFully(fbp.data);
+
+                    notifyRtcpListeners(new RtcpFeedbackEvent(fbp));
+                    break;
+
                 default:
                     stats.numUnknownTypes++;
                     throw new IOException("Bad RTCP packet format");
@@ -405,7 +469,7 @@ public class RtcpPacketReceiver extends Thread {
      * @param listener Listener
      */
     public void addRtcpListener(RtcpEventListener listener) {
-        if (sLogger.isActivated()) {
+        if (sLogger.isDebugActivated()) {
             sLogger.debug("Add a RTCP event listener");
         }
         listeners.addElement(listener);
@@ -417,7 +481,7 @@ public class RtcpPacketReceiver extends Thread {
      * @param listener Listener
      */
     public void removeRtcpListener(RtcpEventListener listener) {
-        if (sLogger.isActivated()) {
+        if (sLogger.isDebugActivated()) {
             sLogger.debug("Remove a RTCP event listener");
         }
         listeners.removeElement(listener);
@@ -440,7 +504,7 @@ public class RtcpPacketReceiver extends Thread {
      */
     private void notifyRtcpListenersOfTimeout() {
         for (RtcpEventListener listener : listeners) {
-            if (sLogger.isActivated()) {
+            if (sLogger.isDebugActivated()) {
                 sLogger.debug("RTCP connection timeout");
             }
             listener.connectionTimeout();
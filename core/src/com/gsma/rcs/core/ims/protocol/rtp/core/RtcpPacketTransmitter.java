@@ -19,19 +19,19 @@
 package com.gsma.rcs.core.ims.protocol.rtp.core;
 
 import com.gsma.rcs.platform.network.DatagramConnection;
-import com.gsma.rcs.platform.network.NetworkFactory;
 import com.gsma.rcs.utils.logger.Logger;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Random;
 import java.util.Vector;
 
 /**
- * RTCP packet transmitter
+ * RTCP packet transmitter. The reports are sent from timer events of the shared media reactor.
  * 
  * @author jexa7410
  */
-public class RtcpPacketTransmitter extends Thread {
+public class RtcpPacketTransmitter {
     /**
      * Remote address
      */
@@ -42,6 +42,26 @@ public class RtcpPacketTransmitter extends Thread {
      */
     private int remotePort;
 
+    /**
+     * Size of a SR packet with one reception report block
+     */
+    private static final int SR_PACKET_SIZE = 52;
+
+    /**
+     * Size of a RR packet with one reception report block
+     */
+    private static final int RR_PACKET_SIZE = 32;
+
+    /**
+     * Size of a BYE packet without reason
+     */
+    private static final int BYE_PACKET_SIZE = 8;
+
+    /**
+     * Number of reception report blocks in SR and RR packets, as there is one remote source
+     */
+    private static final int RECEPTION_REPORT_COUNT = 1;
+
     /**
      * Statistics
      */
@@ -58,14 +78,24 @@ public class RtcpPacketTransmitter extends Thread {
     private RtcpSession rtcpSession = null;
 
     /**
-     * Flag used to determine when to terminate after sending a BYE
+     * Flag used to properly close
+     */
+    private boolean closed = false;
+
+    /**
+     * Next report event
      */
-    private boolean waitingForByeBackoff = false;
+    private MediaReactor.TimerEvent reportEvent;
 
     /**
-     * Flag used to properly close
+     * Reusable buffer in which the compound packets are built
      */
-    private boolean closed = false;
+    private ByteBuffer compoundBuffer;
+
+    /**
+     * CNAME sent in the SDES packets
+     */
+    private final byte[] cname = new RtcpSdesItem(1, RtpSource.CNAME).data;
 
     /**
      * Random value
@@ -87,17 +117,14 @@ public class RtcpPacketTransmitter extends Thread {
      */
     public RtcpPacketTransmitter(String address, int port, RtcpSession rtcpSession)
             throws IOException {
-        super();
-
         this.remoteAddress = address;
         this.remotePort = port;
         this.rtcpSession = rtcpSession;
 
         // Open the connection
-        datagramConnection = NetworkFactory.getFactory().createDatagramConnection();
-        datagramConnection.open();
+        datagramConnection = RtpPacketTransmitter.openConnectedChannel(address, port);
 
-        if (sLogger.isActivated()) {
+        if (sLogger.isDebugActivated()) {
             sLogger.debug("RTCP transmitter connected to " + remoteAddress + ":" + remotePort);
         }
     }
@@ -113,8 +140,6 @@ public class RtcpPacketTransmitter extends Thread {
      */
     public RtcpPacketTransmitter(String address, int port, RtcpSession rtcpSession,
             DatagramConnection connection) throws IOException {
-        super();
-
         this.remoteAddress = address;
         this.remotePort = port;
         this.rtcpSession = rtcpSession;
@@ -123,15 +148,33 @@ public class RtcpPacketTransmitter extends Thread {
         if (connection != null) {
             this.datagramConnection = connection;
         } else {
-            this.datagramConnection = NetworkFactory.getFactory().createDatagramConnection();
-            this.datagramConnection.open();
+            this.datagramConnection = RtpPacketTransmitter.openConnectedChannel(address, port);
         }
 
-        if (sLogger.isActivated()) {
+        if (sLogger.isDebugActivated()) {
             sLogger.debug("RTCP transmitter connected to " + remoteAddress + ":" + remotePort);
         }
     }
 
+    /**
+     * Start sending the reports
+     * 
+     * @throws IOException
+     */
+    public void start() throws IOException {
+        final MediaReactor reactor = MediaReactor.getInstance();
+        reactor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (closed) {
+                    return;
+                }
+                sendSdesPacket();
+                scheduleReport(reactor);
+            }
+        }, 0);
+    }
+
     /**
      * Close the transmitter
      * 
@@ -144,251 +187,236 @@ public class RtcpPacketTransmitter extends Thread {
 
         rtcpSession.isByeRequested = true;
         closed = true;
+        if (reportEvent != null) {
+            reportEvent.cancel();
+        }
 
         // Close the datagram connection
         if (datagramConnection != null) {
             datagramConnection.close();
         }
-        if (sLogger.isActivated()) {
+        if (sLogger.isDebugActivated()) {
             sLogger.debug("RTCP transmitter closed");
         }
-        // If the method start() was never invoked this Thread will be on NEW
-        // state and the resources won't be freed. We need to force the start()
-        // to allow it to die gracefully
-        if (this.getState() == State.NEW) {
-            this.start();
-        }
+    }
 
+    /**
+     * Schedules the next report after the RTCP report interval
+     * 
+     * @param reactor Media reactor
+     */
+    private void scheduleReport(final MediaReactor reactor) {
+        reportEvent = reactor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (closed) {
+                    return;
+                }
+                // Right time to send a RTCP packet or reschedule ?
+                if ((rtcpSession.timeOfLastRTCPSent + rtcpSession.T) <= rtcpSession
+                        .currentTime()) {
+                    transmit(assembleRtcpPacket());
+                    if (rtcpSession.isByeRequested) {
+                        // We have sent a BYE packet, so terminate
+                        return;
+                    }
+                    rtcpSession.timeOfLastRTCPSent = rtcpSession.currentTime();
+                }
+                scheduleReport(reactor);
+            }
+        }, (long) rtcpSession.getReportInterval());
     }
 
     /**
-     * Background processing
+     * Sends a feedback packet without waiting for the next report interval, as allowed by the
+     * immediate feedback mode of RFC 4585 for point-to-point sessions
+     * 
+     * @param packet Feedback packet
      */
-    public void run() {
+    public void sendFeedbackPacket(final RtcpFeedbackPacket packet) {
         if (closed) {
             return;
         }
-
         try {
-            // Send a SDES packet
-            sendSdesPacket();
-
-            boolean terminate = false;
-            while (!terminate) {
-                try {
-                    // Wait the RTCP report interval.
-                    Thread.sleep((long) rtcpSession.getReportInterval());
-
-                    // Right time to send a RTCP packet or reschedule ?
-                    if ((rtcpSession.timeOfLastRTCPSent + rtcpSession.T) <= rtcpSession
-                            .currentTime()) {
-                        // We know that it is time to send a RTCP packet, is it
-                        // a BYE packet
-                        if ((rtcpSession.isByeRequested && waitingForByeBackoff)) {
-                            // If it is bye then did we ever sent anything
-                            if (rtcpSession.timeOfLastRTCPSent > 0
-                                    && rtcpSession.timeOfLastRTPSent > 0) {
-                                rtcpSession.getMySource().activeSender = false;
-                                rtcpSession.timeOfLastRTCPSent = rtcpSession.currentTime();
-                            } else {
-                                // We never sent anything and we have to quit :(
-                                // do not send BYE
-                                terminate = true;
-                            }
-                        } else {
-                            if (!closed) {
-                                transmit(assembleRtcpPacket());
-                                if (rtcpSession.isByeRequested && !waitingForByeBackoff) {
-                                    // We have sent a BYE packet, so terminate
-                                    terminate = true;
-                                } else {
-                                    rtcpSession.timeOfLastRTCPSent = rtcpSession.currentTime();
-                                }
-                            } else {
-                                terminate = true;
-                            }
-
-                        }
+            /* Transmit from the reactor thread which also sends the reports */
+            MediaReactor.getInstance().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (!closed) {
+                        transmit(assembleFeedbackPacket(packet));
                     }
-                    waitingForByeBackoff = false;
-
-                } catch (InterruptedException e) {
-                    waitingForByeBackoff = true;
-                    rtcpSession.isByeRequested = true;
                 }
+            }, 0);
+        } catch (IOException e) {
+            if (sLogger.isActivated()) {
+                sLogger.error("Can't send the RTCP feedback packet", e);
             }
-        } catch (RuntimeException e) {
-            /*
-             * Intentionally catch runtime exceptions as else it will abruptly end the thread and
-             * eventually bring the whole system down, which is not intended.
-             */
-            sLogger.error("Can't send the RTCP packet", e);
-
         }
     }
 
     /**
-     * assemble RTCP packet
+     * assemble RTCP feedback packet, preceded by a report and a SDES as required for a compound
+     * packet
+     * 
+     * @param packet Feedback packet
+     * @return Buffer holding the compound packet
      */
-    private byte[] assembleRtcpPacket() {
-        byte data[] = new byte[0];
+    private ByteBuffer assembleFeedbackPacket(RtcpFeedbackPacket packet) {
+        ByteBuffer buffer = startCompoundPacket(packet.calcLength());
+        buffer.put((byte) ((RtcpPacket.VERSION << 6) | (RtcpPacket.PADDING << 5) | packet.fmt));
+        buffer.put((byte) packet.type);
+        buffer.putShort((short) (packet.calcLength() / 4 - 1));
+        buffer.putInt(packet.senderSsrc);
+        buffer.putInt(packet.mediaSsrc);
+        buffer.put(packet.data);
+        return buffer;
+    }
 
-        // Sender or receiver packet
-        RtpSource s = rtcpSession.getMySource();
-        if ((s.activeSender) && (rtcpSession.timeOfLastRTCPSent < rtcpSession.timeOfLastRTPSent)) {
-            data = RtcpPacketUtils.append(data, assembleSenderReportPacket());
-        } else {
-            data = RtcpPacketUtils.append(data, assembleReceiverReportPacket());
+    /**
+     * assemble RTCP packet
+     * 
+     * @return Buffer holding the compound packet
+     */
+    private ByteBuffer assembleRtcpPacket() {
+        if (!rtcpSession.isByeRequested) {
+            return startCompoundPacket(0);
         }
+        ByteBuffer buffer = startCompoundPacket(BYE_PACKET_SIZE);
+        putByePacket(buffer);
+        return buffer;
+    }
 
-        // SDES packets
-        Vector<RtcpSdesPacket> repvec = makereports();
-        for (int i = 0; i < repvec.size(); i++) {
-            if (repvec.elementAt(i).data != null)
-                data = RtcpPacketUtils.append(data, repvec.elementAt(i).data);
+    /**
+     * Starts a compound packet in the reusable buffer with a SR or RR packet followed by the SDES
+     * packet, the whole compound packet being built in place without intermediate arrays
+     * 
+     * @param extraSize Size of the packets to be appended by the caller
+     * @return Buffer positioned after the SDES packet
+     */
+    private ByteBuffer startCompoundPacket(int extraSize) {
+        RtpSource s = rtcpSession.getMySource();
+        boolean senderReport = s.activeSender
+                && rtcpSession.timeOfLastRTCPSent < rtcpSession.timeOfLastRTPSent;
+        int size = (senderReport ? SR_PACKET_SIZE : RR_PACKET_SIZE) + getSdesPacketSize()
+                + extraSize;
+        if (compoundBuffer == null || compoundBuffer.capacity() < size) {
+            compoundBuffer = ByteBuffer.allocate(size);
         }
-
-        // BYE packet
-        RtcpByePacket byepacket = null;
-        if (rtcpSession.isByeRequested) {
-            int ssrc[] = {
-                rtcpSession.SSRC
-            };
-            byepacket = new RtcpByePacket(ssrc, null);
-            data = RtcpPacketUtils.append(data, byepacket.data);
+        compoundBuffer.clear();
+        if (senderReport) {
+            putSenderReportPacket(compoundBuffer);
+        } else {
+            putReceiverReportPacket(compoundBuffer);
         }
-
-        return data;
+        putSdesPacket(compoundBuffer);
+        return compoundBuffer;
     }
 
     /**
-     * assemble RTCP SR packet
+     * Write RTCP SR packet
      * 
-     * @return packet data
-     */
-    private byte[] assembleSenderReportPacket() {
-        final int FIXED_HEADER_SIZE = 4;
-        byte V_P_RC = (byte) ((RtcpPacket.VERSION << 6) | (RtcpPacket.PADDING << 5) | (0x00));
-        byte ss[] = RtcpPacketUtils.longToBytes(rtcpSession.SSRC, 4);
-        byte PT[] = RtcpPacketUtils.longToBytes((long) RtcpPacket.RTCP_SR, 1);
-        byte NTP_Timestamp[] = RtcpPacketUtils.longToBytes(rtcpSession.currentTime(), 8);
-        short randomOffset = (short) Math.abs(rand.nextInt() & 0x000000FF);
-        byte RTP_Timestamp[] = RtcpPacketUtils.longToBytes((long) rtcpSession.tc + randomOffset, 4);
-        byte SenderPacketCount[] = RtcpPacketUtils.longToBytes(rtcpSession.packetCount, 4);
-        byte SenderOctetCount[] = RtcpPacketUtils.longToBytes(rtcpSession.octetCount, 4);
-
-        // report block
-        byte receptionReportBlocks[] = new byte[0];
-        receptionReportBlocks = RtcpPacketUtils.append(receptionReportBlocks,
-                assembleRTCPReceptionReport());
-        byte receptionReports = (byte) (receptionReportBlocks.length / 24);
-        V_P_RC = (byte) (V_P_RC | (byte) (receptionReports & 0x1F));
-
+     * @param buffer Buffer
+     */
+    private void putSenderReportPacket(ByteBuffer buffer) {
+        buffer.put((byte) ((RtcpPacket.VERSION << 6) | (RtcpPacket.PADDING << 5)
+                | RECEPTION_REPORT_COUNT));
+        buffer.put((byte) RtcpPacket.RTCP_SR);
         // Length is 32 bit words contained in the packet -1
-        byte length[] = RtcpPacketUtils.longToBytes((FIXED_HEADER_SIZE + ss.length
-                + NTP_Timestamp.length + RTP_Timestamp.length + SenderPacketCount.length
-                + SenderOctetCount.length + receptionReportBlocks.length) / 4 - 1, 2);
-
-        // Build RTCP SR Packet
-        byte rtcpSRPacket[] = new byte[1];
-        rtcpSRPacket[0] = V_P_RC;
-        rtcpSRPacket = RtcpPacketUtils.append(rtcpSRPacket, PT);
-        rtcpSRPacket = RtcpPacketUtils.append(rtcpSRPacket, length);
-        rtcpSRPacket = RtcpPacketUtils.append(rtcpSRPacket, ss);
-        rtcpSRPacket = RtcpPacketUtils.append(rtcpSRPacket, NTP_Timestamp);
-        rtcpSRPacket = RtcpPacketUtils.append(rtcpSRPacket, RTP_Timestamp);
-        rtcpSRPacket = RtcpPacketUtils.append(rtcpSRPacket, SenderPacketCount);
-        rtcpSRPacket = RtcpPacketUtils.append(rtcpSRPacket, SenderOctetCount);
-        rtcpSRPacket = RtcpPacketUtils.append(rtcpSRPacket, receptionReportBlocks);
-
-        return rtcpSRPacket;
+        buffer.putShort((short) (SR_PACKET_SIZE / 4 - 1));
+        buffer.putInt(rtcpSession.SSRC);
+        buffer.putLong(rtcpSession.currentTime());
+        short randomOffset = (short) Math.abs(rand.nextInt() & 0x000000FF);
+        buffer.putInt((int) ((long) rtcpSession.tc + randomOffset));
+        buffer.putInt((int) rtcpSession.packetCount);
+        buffer.putInt((int) rtcpSession.octetCount);
+        putReceptionReport(buffer);
     }
 
     /**
-     * assemble RTCP RR packet
+     * Write RTCP RR packet
      * 
-     * @return packet data
-     */
-    private byte[] assembleReceiverReportPacket() {
-        final int FIXED_HEADER_SIZE = 4;
-        byte V_P_RC = (byte) ((RtcpPacket.VERSION << 6) | (RtcpPacket.PADDING << 5) | (0x00));
-        byte ss[] = RtcpPacketUtils.longToBytes(rtcpSession.SSRC, 4);
-        byte PT[] = RtcpPacketUtils.longToBytes((long) RtcpPacket.RTCP_RR, 1);
-
-        // report block
-        byte receptionReportBlocks[] = new byte[0];
-        receptionReportBlocks = RtcpPacketUtils.append(receptionReportBlocks,
-                assembleRTCPReceptionReport());
-        byte receptionReports = (byte) (receptionReportBlocks.length / 24);
-        V_P_RC = (byte) (V_P_RC | (byte) (receptionReports & 0x1F));
-
-        byte length[] = RtcpPacketUtils.longToBytes(
-                (FIXED_HEADER_SIZE + ss.length + receptionReportBlocks.length) / 4 - 1, 2);
-
-        // Build RTCP RR Packet
-        byte RRPacket[] = new byte[1];
-        RRPacket[0] = V_P_RC;
-        RRPacket = RtcpPacketUtils.append(RRPacket, PT);
-        RRPacket = RtcpPacketUtils.append(RRPacket, length);
-        RRPacket = RtcpPacketUtils.append(RRPacket, ss);
-        RRPacket = RtcpPacketUtils.append(RRPacket, receptionReportBlocks);
-        return RRPacket;
+     * @param buffer Buffer
+     */
+    private void putReceiverReportPacket(ByteBuffer buffer) {
+        buffer.put((byte) ((RtcpPacket.VERSION << 6) | (RtcpPacket.PADDING << 5)
+                | RECEPTION_REPORT_COUNT));
+        buffer.put((byte) RtcpPacket.RTCP_RR);
+        buffer.putShort((short) (RR_PACKET_SIZE / 4 - 1));
+        buffer.putInt(rtcpSession.SSRC);
+        putReceptionReport(buffer);
     }
 
     /**
-     * assemble RTCP Reception report block
+     * Write RTCP Reception report block
      * 
-     * @return report data
+     * @param buffer Buffer
      */
-    private byte[] assembleRTCPReceptionReport() {
-        byte reportBlock[] = new byte[0];
+    private void putReceptionReport(ByteBuffer buffer) {
         RtpSource source = rtcpSession.getMySource();
 
         ReceptionReport rr = source.generateReceptionReport();
-        byte SSRC[] = RtcpPacketUtils.longToBytes((long) rr.getSsrc(), 4);
-        byte fraction_lost[] = RtcpPacketUtils.longToBytes((long) rr.getFractionLost(), 1);
-        byte pkts_lost[] = RtcpPacketUtils.longToBytes(
-                (long) rr.getCumulativeNumberOfPacketsLost(), 3);
-        byte last_seq[] = RtcpPacketUtils.longToBytes(
-                (long) rr.getExtendedHighestSequenceNumberReceived(), 4);
-        byte jitter[] = RtcpPacketUtils.longToBytes((long) rr.getInterarrivalJitter(), 4);
-        byte lst[] = RtcpPacketUtils.longToBytes((long) rr.getLastSenderReport(), 4);
-        byte dlsr[] = RtcpPacketUtils.longToBytes((long) rr.getDelaySinceLastSenderReport(), 4);
-
-        reportBlock = RtcpPacketUtils.append(reportBlock, SSRC);
-        reportBlock = RtcpPacketUtils.append(reportBlock, fraction_lost);
-        reportBlock = RtcpPacketUtils.append(reportBlock, pkts_lost);
-        reportBlock = RtcpPacketUtils.append(reportBlock, last_seq);
-        reportBlock = RtcpPacketUtils.append(reportBlock, jitter);
-        reportBlock = RtcpPacketUtils.append(reportBlock, lst);
-        reportBlock = RtcpPacketUtils.append(reportBlock, dlsr);
-
-        return reportBlock;
+        buffer.putInt((int) rr.getSsrc());
+        /* Fraction lost (8 bits) followed by the cumulative number of packets lost (24 bits) */
+        buffer.putInt(((int) rr.getFractionLost() << 24)
+                | ((int) rr.getCumulativeNumberOfPacketsLost() & 0xffffff));
+        buffer.putInt((int) rr.getExtendedHighestSequenceNumberReceived());
+        buffer.putInt((int) rr.getInterarrivalJitter());
+        buffer.putInt((int) rr.getLastSenderReport());
+        buffer.putInt((int) rr.getDelaySinceLastSenderReport());
     }
 
     /**
-     * Send a BYE packet
+     * Returns the size of the SDES packet with the CNAME item
+     * 
+     * @return Size in bytes
      */
-    public void sendByePacket() {
-        // Create a report
-        Vector<RtcpSdesPacket> repvec = makereports();
-        RtcpPacket[] packets = new RtcpPacket[repvec.size() + 1];
-        repvec.copyInto(packets);
+    private int getSdesPacketSize() {
+        /* Header, SSRC, CNAME item and null item, padded to 32 bits */
+        return 4 + (5 + 2 + cname.length + 3 & -4);
+    }
 
-        // Create a RTCP bye packet
-        int ssrc[] = {
-            rtcpSession.SSRC
-        };
-        RtcpByePacket rtcpbyepacket = new RtcpByePacket(ssrc, null);
-        packets[packets.length - 1] = rtcpbyepacket;
+    /**
+     * Write RTCP SDES packet
+     * 
+     * @param buffer Buffer
+     */
+    private void putSdesPacket(ByteBuffer buffer) {
+        int size = getSdesPacketSize();
+        buffer.put((byte) ((RtcpPacket.VERSION << 6) | (RtcpPacket.PADDING << 5) | 1));
+        buffer.put((byte) RtcpPacket.RTCP_SDES);
+        buffer.putShort((short) (size / 4 - 1));
+        buffer.putInt(rtcpSession.SSRC);
+        buffer.put((byte) 1);
+        buffer.put((byte) cname.length);
+        buffer.put(cname);
+        for (int i = 4 + 4 + 2 + cname.length; i < size; i++) {
+            buffer.put((byte) 0);
+        }
+    }
 
-        // Create a RTCP compound packet
-        RtcpCompoundPacket cp = new RtcpCompoundPacket(packets);
+    /**
+     * Write RTCP BYE packet
+     * 
+     * @param buffer Buffer
+     */
+    private void putByePacket(ByteBuffer buffer) {
+        buffer.put((byte) ((RtcpPacket.VERSION << 6) | (RtcpPacket.PADDING << 5) | 1));
+        buffer.put((byte) RtcpPacket.RTCP_BYE);
+        buffer.putShort((short) (BYE_PACKET_SIZE / 4 - 1));
+        buffer.putInt(rtcpSession.SSRC);
+    }
+
+    /**
+     * Send a BYE packet
+     */
+    public void sendByePacket() {
+        ByteBuffer buffer = startCompoundPacket(BYE_PACKET_SIZE);
+        putByePacket(buffer);
 
         rtcpSession.getMySource().activeSender = false;
 
         // Send the RTCP packet
-        transmit(cp);
+        transmit(buffer);
     }
 
     /**
@@ -415,44 +443,18 @@ public class RtcpPacketTransmitter extends Thread {
     /**
      * Transmit a RTCP compound packet to the remote destination
      * 
-     * @param packet Compound packet to be sent
+     * @param buffer Buffer holding the compound packet
      */
-    private void transmit(RtcpCompoundPacket packet) {
-        // Prepare data to be sent
-        byte[] data = packet.data;
-        if (packet.offset > 0) {
-            System.arraycopy(data, packet.offset, data = new byte[packet.length], 0, packet.length);
-        }
-
+    private void transmit(ByteBuffer buffer) {
+        int length = buffer.position();
         // Update statistics
-        stats.numBytes += packet.length;
+        stats.numBytes += length;
         stats.numPackets++;
-        rtcpSession.updateavgrtcpsize(packet.length);
+        rtcpSession.updateavgrtcpsize(length);
         rtcpSession.timeOfLastRTCPSent = rtcpSession.currentTime();
         // Send data over UDP
         try {
-            datagramConnection.send(remoteAddress, remotePort, data);
-        } catch (IOException e) {
-            if (sLogger.isActivated()) {
-                sLogger.error("Can't send the RTCP packet", e);
-            }
-        }
-    }
-
-    /**
-     * Transmit a RTCP compound packet to the remote destination
-     * 
-     * @param packet Compound packet to be sent
-     */
-    private void transmit(byte packet[]) {
-        // Update statistics
-        stats.numBytes += packet.length;
-        stats.numPackets++;
-        rtcpSession.updateavgrtcpsize(packet.length);
-        rtcpSession.timeOfLastRTCPSent = rtcpSession.currentTime();
-        // Send data over UDP
-        try {
-            datagramConnection.send(remoteAddress, remotePort, packet);
+            datagramConnection.send(remoteAddress, remotePort, buffer.array(), 0, length);
         } catch (IOException e) {
             if (sLogger.isActivated()) {
                 sLogger.error("Can't send the RTCP packet", e);
@@ -470,22 +472,9 @@ public class RtcpPacketTransmitter extends Thread {
     }
 
     /**
-     * Send a SDES packet
+     * Send the first compound packet, which introduces the SDES of the session
      */
     private void sendSdesPacket() {
-        // Create a report
-        Vector<RtcpSdesPacket> repvec = makereports();
-        RtcpPacket packets[] = new RtcpPacket[repvec.size()];
-        repvec.copyInto(packets);
-
-        // Create a RTCP compound packet
-        RtcpCompoundPacket cp = new RtcpCompoundPacket(packets);
-
-        // Assemble the RTCP packet
-        int i = cp.calcLength();
-        cp.assemble(i, false);
-
-        // Send the RTCP packet
-        transmit(cp);
+        transmit(startCompoundPacket(0));
     }
 }
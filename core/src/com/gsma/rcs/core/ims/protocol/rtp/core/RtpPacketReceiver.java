@@ -19,20 +19,24 @@
 package com.gsma.rcs.core.ims.protocol.rtp.core;
 
 import java.io.IOException;
-import java.net.SocketTimeoutException;
 import java.util.concurrent.TimeoutException;
 
+import com.gsma.rcs.platform.network.DatagramChannelConnection;
 import com.gsma.rcs.platform.network.DatagramConnection;
 import com.gsma.rcs.platform.network.NetworkFactory;
 import com.gsma.rcs.utils.FifoBuffer;
 import com.gsma.rcs.utils.logger.Logger;
+import com.gsma.rcs.utils.metrics.Counter;
+import com.gsma.rcs.utils.metrics.MetricsRegistry;
 
 /**
- * RTP packet receiver
+ * RTP packet receiver. The datagrams are read by the shared media reactor and queued in a bounded
+ * FIFO from which the codec processing reads, the oldest packets being dropped when the codec
+ * processing does not keep up.
  * 
  * @author jexa7410
  */
-public class RtpPacketReceiver extends Thread {
+public class RtpPacketReceiver implements MediaReactor.ChannelHandler {
     /**
      * Statistics
      */
@@ -41,18 +45,13 @@ public class RtpPacketReceiver extends Thread {
     /**
      * Datagram connection
      */
-    public DatagramConnection mDatagramConnection;
+    public DatagramChannelConnection mDatagramConnection;
 
     /**
      * RTCP Session
      */
     private RtcpSession mRtcpSession;
 
-    /**
-     * Signals that connection is closed
-     */
-    private boolean mClosed;
-
     /**
      * Fifo buffer for received packet
      */
@@ -68,11 +67,6 @@ public class RtpPacketReceiver extends Thread {
      */
     private static final int FIFO_CLEAN_NUMBER = 20;
 
-    /**
-     * Signals that thread is interrupted
-     */
-    private boolean mInterrupted;
-
     /**
      * Last sequence number
      */
@@ -88,24 +82,34 @@ public class RtpPacketReceiver extends Thread {
      */
     private static final Logger sLogger = Logger.getLogger(RtpPacketReceiver.class.getName());
 
+    private static final Counter sReceivedPackets = MetricsRegistry.getInstance().getCounter(
+            "rtp.packets.received");
+
+    private static final Counter sReceivedBytes = MetricsRegistry.getInstance().getCounter(
+            "rtp.bytes.received");
+
+    /**
+     * Packets dropped because they are late or because the codec processing does not keep up
+     */
+    private static final Counter sDroppedPackets = MetricsRegistry.getInstance().getCounter(
+            "rtp.packets.dropped");
+
     /**
      * Constructor
      * 
      * @param port Listening port
      * @param rtcpSession
-     * @param socketTimeout
+     * @param socketTimeout Timeout to wait for a packet when reading
      * @throws IOException
      */
     public RtpPacketReceiver(int port, RtcpSession rtcpSession, int socketTimeout)
             throws IOException {
-        super();
-
         mRtcpSession = rtcpSession;
         mTimeout = socketTimeout;
         // Create the UDP server
-        mDatagramConnection = NetworkFactory.getFactory().createDatagramConnection(socketTimeout);
+        mDatagramConnection = NetworkFactory.getFactory().createDatagramChannelConnection();
         mDatagramConnection.open(port);
-        if (sLogger.isActivated()) {
+        if (sLogger.isDebugActivated()) {
             sLogger.debug("RTP receiver created on port " + port);
         }
     }
@@ -121,38 +125,45 @@ public class RtpPacketReceiver extends Thread {
         this(port, rtcpSession, 0);
     }
 
+    /**
+     * Start receiving packets
+     * 
+     * @throws IOException
+     */
+    public void start() throws IOException {
+        MediaReactor.getInstance().register(mDatagramConnection.getChannel(), this);
+        if (sLogger.isDebugActivated()) {
+            sLogger.debug("RTP Receiver processing is started");
+        }
+    }
+
     /**
      * Close the receiver
      */
     public void close() {
-        mInterrupted = true;
-        interrupt();
-
         if (mDatagramConnection != null) {
             try {
-                mClosed = true;
                 mDatagramConnection.close();
             } catch (IOException e) {
-                if (sLogger.isActivated()) {
+                if (sLogger.isDebugActivated()) {
                     sLogger.debug(e.getMessage());
                 }
             }
             mDatagramConnection = null;
         }
+        /* Wake up the codec processing waiting for a packet */
+        mBuffer.close();
     }
 
-    /**
-     * Background processing
-     */
-    public void run() {
-        if (sLogger.isActivated()) {
-            sLogger.debug("RTP Receiver processing is started");
+    @Override
+    public void onReadable() {
+        DatagramChannelConnection connection = mDatagramConnection;
+        if (connection == null) {
+            return;
         }
         try {
-            while (mDatagramConnection != null) {
-                // Wait a new packet
-                byte[] data = mDatagramConnection.receive();
-
+            byte[] data;
+            while ((data = connection.receive()) != null) {
                 if (data.length >= 12) {
                     // Drop empty packet (payload 20)
                     int payloadType = (byte) ((data[1] & 0xff) & 0x7f);
@@ -163,29 +174,21 @@ public class RtpPacketReceiver extends Thread {
                             // Clean the FIFO if full
                             if (mBuffer.size() >= FIFO_MAX_NUMBER) {
                                 mBuffer.clean(FIFO_CLEAN_NUMBER);
+                                sDroppedPackets.add(FIFO_CLEAN_NUMBER);
                             }
                             mBuffer.addObject(data);
                             mLastSeqnum = seqnum;
                         } else {
                             mStats.numBadRtpPkts++;
+                            sDroppedPackets.increment();
                         }
                     }
                 }
             }
-        } catch (SocketTimeoutException e) {
-            if (!mInterrupted) {
-                sLogger.error("Datagram socket server failed", e);
-            }
         } catch (IOException e) {
-            if (!mInterrupted) {
+            if (mDatagramConnection != null && sLogger.isActivated()) {
                 sLogger.debug(e.getMessage());
             }
-        } catch (RuntimeException e) {
-            /*
-             * Intentionally catch runtime exceptions as else it will abruptly end the thread and
-             * eventually bring the whole system down, which is not intended.
-             */
-            sLogger.error("Datagram socket server failed", e);
         }
     }
 
@@ -209,6 +212,8 @@ public class RtpPacketReceiver extends Thread {
             // Update statistics
             mStats.numPackets++;
             mStats.numBytes += data.length;
+            sReceivedPackets.increment();
+            sReceivedBytes.add(data.length);
 
             RtpSource s = mRtcpSession.getMySource();
             s.setSsrc(pkt.ssrc);
@@ -18,13 +18,14 @@
 
 package com.gsma.rcs.core.ims.protocol.rtp.core;
 
+import com.gsma.rcs.core.ims.protocol.rtp.format.video.VideoOrientation;
 import com.gsma.rcs.core.ims.protocol.rtp.util.Buffer;
-import com.gsma.rcs.core.ims.protocol.rtp.util.Packet;
 import com.gsma.rcs.platform.network.DatagramConnection;
 import com.gsma.rcs.platform.network.NetworkFactory;
 import com.gsma.rcs.utils.logger.Logger;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * RTP packet transmitter
@@ -33,6 +34,26 @@ import java.io.IOException;
  */
 public class RtpPacketTransmitter {
 
+    /**
+     * Number of sent packets kept for retransmission, a power of two
+     */
+    private static final int RETRANSMISSION_HISTORY_SIZE = 256;
+
+    /**
+     * Size of the RTP fixed header
+     */
+    private static final int RTP_HEADER_SIZE = 12;
+
+    /**
+     * Size of the header extension with the video orientation element
+     */
+    private static final int ORIENTATION_EXTENSION_SIZE = 8;
+
+    /**
+     * Initial size of the send buffer, enough for a MTU sized packet
+     */
+    private static final int INITIAL_SEND_BUFFER_SIZE = 1500;
+
     /**
      * Sequence number
      */
@@ -63,6 +84,27 @@ public class RtpPacketTransmitter {
      */
     private RtcpSession rtcpSession = null;
 
+    /**
+     * Reusable buffer in which the packets are serialized
+     */
+    private ByteBuffer sendBuffer = ByteBuffer.allocate(INITIAL_SEND_BUFFER_SIZE);
+
+    /**
+     * Last sent packets indexed by the low bits of their sequence number, the arrays being reused
+     * from one packet to the next
+     */
+    private final byte[][] history = new byte[RETRANSMISSION_HISTORY_SIZE][];
+
+    /**
+     * Lengths of the packets in the history
+     */
+    private final int[] historyLengths = new int[RETRANSMISSION_HISTORY_SIZE];
+
+    /**
+     * Sequence numbers of the packets in the history
+     */
+    private final int[] historySeqnums = new int[RETRANSMISSION_HISTORY_SIZE];
+
     /**
      * The logger
      */
@@ -82,10 +124,9 @@ public class RtpPacketTransmitter {
         this.remotePort = port;
         this.rtcpSession = rtcpSession;
 
-        datagramConnection = NetworkFactory.getFactory().createDatagramConnection();
-        datagramConnection.open();
+        datagramConnection = openConnectedChannel(address, port);
 
-        if (logger.isActivated()) {
+        if (logger.isDebugActivated()) {
             logger.debug("RTP transmitter connected to " + remoteAddress + ":" + remotePort);
         }
     }
@@ -108,11 +149,10 @@ public class RtpPacketTransmitter {
         if (connection != null) {
             this.datagramConnection = connection;
         } else {
-            this.datagramConnection = NetworkFactory.getFactory().createDatagramConnection();
-            this.datagramConnection.open();
+            this.datagramConnection = openConnectedChannel(address, port);
         }
 
-        if (logger.isActivated()) {
+        if (logger.isDebugActivated()) {
             logger.debug("RTP transmitter connected to " + remoteAddress + ":" + remotePort);
         }
     }
@@ -127,98 +167,138 @@ public class RtpPacketTransmitter {
         if (datagramConnection != null) {
             datagramConnection.close();
         }
-        if (logger.isActivated()) {
+        if (logger.isDebugActivated()) {
             logger.debug("RTP transmitter closed");
         }
     }
 
     /**
-     * Send a RTP packet
+     * Opens a connection used only to send, connected to the remote address so that the address
+     * is resolved once for the whole session
      * 
-     * @param buffer Input buffer
+     * @param address Remote address
+     * @param port Remote port
+     * @return Connection
      * @throws IOException
      */
-    public void sendRtpPacket(Buffer buffer) throws IOException {
-        // Build a RTP packet
-        RtpPacket packet = buildRtpPacket(buffer);
-        if (packet == null) {
-            return;
+    /* package private */static DatagramConnection openConnectedChannel(String address, int port)
+            throws IOException {
+        DatagramConnection connection = NetworkFactory.getFactory()
+                .createDatagramChannelConnection();
+        connection.open();
+        try {
+            connection.connect(address, port);
+        } catch (IOException e) {
+            connection.close();
+            throw e;
         }
-
-        // Assemble RTP packet
-        int size = packet.calcLength();
-        packet.assemble(size);
-
-        // Send the RTP packet to the remote destination
-        transmit(packet);
+        return connection;
     }
 
     /**
-     * Build a RTP packet
+     * Send a RTP packet
      * 
      * @param buffer Input buffer
-     * @return RTP packet
+     * @throws IOException
      */
-    private RtpPacket buildRtpPacket(Buffer buffer) {
+    public void sendRtpPacket(Buffer buffer) throws IOException {
         byte data[] = (byte[]) buffer.getData();
         if (data == null) {
-            return null;
+            return;
         }
-        Packet packet = new Packet();
-        packet.data = data;
-        packet.offset = 0;
-        packet.length = buffer.getLength();
-
-        RtpPacket rtppacket = new RtpPacket(packet);
-        if (buffer.isRTPMarkerSet()) {
-            rtppacket.marker = 1;
-        } else {
-            rtppacket.marker = 0;
+        int payloadLength = buffer.getLength();
+        VideoOrientation orientation = buffer.getVideoOrientation();
+        int size = RTP_HEADER_SIZE + (orientation != null ? ORIENTATION_EXTENSION_SIZE : 0)
+                + payloadLength;
+        if (sendBuffer.capacity() < size) {
+            sendBuffer = ByteBuffer.allocate(size);
+        }
+        int seqnum = seqNumber++ & 0xffff;
+
+        // Serialize the RTP packet in place
+        ByteBuffer packet = sendBuffer;
+        packet.clear();
+        packet.put((byte) (orientation != null ? 0x90 : 0x80));
+        int payloadType = buffer.getFormat().getPayload();
+        packet.put((byte) (buffer.isRTPMarkerSet() ? payloadType | 0x80 : payloadType));
+        packet.putShort((short) seqnum);
+        packet.putInt((int) buffer.getTimestamp());
+        packet.putInt(rtcpSession.SSRC);
+        if (orientation != null) {
+            packet.putShort((short) RtpExtensionHeader.RTP_EXTENSION_HEADER_ID);
+            // One extension element of one byte: the orientation
+            packet.putShort((short) 1);
+            packet.put((byte) ((orientation.getHeaderId() & 0xff) << 4));
+            packet.put(orientation.getVideoOrientation());
+            packet.putShort((short) 0);
         }
+        packet.put(data, 0, payloadLength);
+
+        // Send the RTP packet to the remote destination
+        transmit(packet.array(), packet.position());
 
-        rtppacket.payloadType = buffer.getFormat().getPayload();
-        rtppacket.seqnum = seqNumber++;
-        rtppacket.timestamp = buffer.getTimestamp();
-        rtppacket.ssrc = rtcpSession.SSRC;
-        rtppacket.payloadoffset = buffer.getOffset();
-        rtppacket.payloadlength = buffer.getLength();
-        if (buffer.getVideoOrientation() != null) {
-            rtppacket.extension = true;
-            rtppacket.extensionHeader = new RtpExtensionHeader();
-            rtppacket.extensionHeader.addElement(buffer.getVideoOrientation().getHeaderId(),
-                    new byte[] {
-                        buffer.getVideoOrientation().getVideoOrientation()
-                    });
+        // Keep the packet for retransmission
+        int index = seqnum & (RETRANSMISSION_HISTORY_SIZE - 1);
+        synchronized (history) {
+            byte[] slot = history[index];
+            if (slot == null || slot.length < size) {
+                slot = new byte[Math.max(size, INITIAL_SEND_BUFFER_SIZE)];
+                history[index] = slot;
+            }
+            System.arraycopy(packet.array(), 0, slot, 0, size);
+            historyLengths[index] = size;
+            historySeqnums[index] = seqnum;
         }
-        return rtppacket;
     }
 
     /**
-     * Transmit a RTCP compound packet to the remote destination
+     * Retransmits a packet reported lost by the remote receiver, if it is still in the history
      * 
-     * @param packet RTP packet
-     * @throws IOException
+     * @param seqnum Sequence number of the lost packet
+     * @return True if the packet has been retransmitted
      */
-    private void transmit(Packet packet) {
-        // Prepare data to be sent
-        byte[] data = packet.data;
-        if (packet.offset > 0) {
-            System.arraycopy(data, packet.offset, data = new byte[packet.length], 0, packet.length);
+    public boolean retransmitRtpPacket(int seqnum) {
+        synchronized (history) {
+            int index = seqnum & (RETRANSMISSION_HISTORY_SIZE - 1);
+            byte[] data = history[index];
+            if (data == null || historySeqnums[index] != (seqnum & 0xffff)) {
+                return false;
+            }
+            try {
+                datagramConnection.send(remoteAddress, remotePort, data, 0,
+                        historyLengths[index]);
+                stats.numRetransmittedPackets++;
+                return true;
+
+            } catch (IOException e) {
+                if (logger.isDebugActivated()) {
+                    logger.debug("Can't retransmit RTP packet ".concat(Integer.toString(seqnum)));
+                }
+                return false;
+            }
         }
+    }
 
+    /**
+     * Transmit a RTP packet to the remote destination
+     * 
+     * @param data Packet data
+     * @param length Packet length
+     */
+    private void transmit(byte[] data, int length) {
         // Update statistics
-        stats.numBytes += packet.length;
+        stats.numBytes += length;
         stats.numPackets++;
 
         // Send data over UDP
         try {
-            datagramConnection.send(remoteAddress, remotePort, data);
+            datagramConnection.send(remoteAddress, remotePort, data, 0, length);
 
             RtpSource s = rtcpSession.getMySource();
             s.activeSender = true;
             rtcpSession.timeOfLastRTPSent = rtcpSession.currentTime();
             rtcpSession.packetCount++;
-            rtcpSession.octetCount += data.length;
+            rtcpSession.octetCount += length;
         } catch (IOException e) {
             // if (logger.isActivated()) {
             // logger.error("Can't send the RTP packet", e);
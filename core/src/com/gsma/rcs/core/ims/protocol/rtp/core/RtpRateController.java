@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gsma.rcs.core.ims.protocol.rtp.core;
+
+import com.gsma.rcs.core.ims.protocol.rtp.codec.video.h264.encoder.NativeH264EncoderParams;
+import com.gsma.rcs.core.ims.protocol.rtp.media.VideoEncoderControl;
+import com.gsma.rcs.utils.logger.Logger;
+
+/**
+ * Sender bit rate controller driven by the RTCP feedback of the remote receiver. The target bit
+ * rate is decreased on high loss or on a growing interarrival jitter, which reveals queuing delay
+ * before the losses occur, and is increased slowly while the path is clean. It never exceeds the
+ * initial encoder bit rate nor the maximum bit rate requested by the receiver (TMMBR or REMB). The
+ * frame rate is lowered along with the bit rate to keep the quality of each frame acceptable.
+ */
+public class RtpRateController {
+
+    /**
+     * Fraction lost above which the bit rate is decreased
+     */
+    private static final double LOSS_DECREASE_THRESHOLD = 0.10;
+
+    /**
+     * Fraction lost below which the bit rate may be increased
+     */
+    private static final double LOSS_INCREASE_THRESHOLD = 0.02;
+
+    private static final double INCREASE_FACTOR = 1.08;
+
+    private static final double DELAY_DECREASE_FACTOR = 0.85;
+
+    /**
+     * Jitter growth between two reports considered as a queuing delay increase
+     */
+    private static final double JITTER_GROWTH_THRESHOLD = 1.5;
+
+    /**
+     * Jitter in RTP timestamp units (90 kHz video clock) below which the delay is not considered,
+     * i.e. 20 ms
+     */
+    private static final int MIN_SIGNIFICANT_JITTER = 1800;
+
+    /**
+     * Lowest bit rate as a ratio of the initial one
+     */
+    private static final double MIN_BITRATE_RATIO = 0.1;
+
+    /**
+     * Lowest frame rate as a ratio of the initial one
+     */
+    private static final float MIN_FRAME_RATE_RATIO = 0.5f;
+
+    /**
+     * Relative change of the target bit rate below which the encoder is not reconfigured
+     */
+    private static final double UPDATE_THRESHOLD = 0.05;
+
+    private static final Logger sLogger = Logger.getLogger(RtpRateController.class
+            .getSimpleName());
+
+    private final VideoEncoderControl mEncoder;
+
+    private final NativeH264EncoderParams mParams;
+
+    private final int mMaxBitrate;
+
+    private final float mMaxFrameRate;
+
+    private long mRemoteMaxBitrate = Long.MAX_VALUE;
+
+    private double mBitrate;
+
+    private int mAppliedBitrate;
+
+    private int mLastJitter = -1;
+
+    /**
+     * Constructor
+     * 
+     * @param encoder Video encoder to control
+     */
+    public RtpRateController(VideoEncoderControl encoder) {
+        mEncoder = encoder;
+        mParams = encoder.getEncoderParams();
+        mMaxBitrate = mParams.getBitRate();
+        mMaxFrameRate = mParams.getFrameRate();
+        mBitrate = mMaxBitrate;
+        mAppliedBitrate = mMaxBitrate;
+    }
+
+    /**
+     * Updates the target from a reception report of the remote receiver on the sent stream
+     * 
+     * @param report Reception report
+     */
+    public synchronized void onReceptionReport(RtcpReport report) {
+        double fractionLost = report.getFractionLost() / 256.0;
+        int jitter = report.jitter;
+        boolean delayGrowing = mLastJitter >= 0 && jitter > MIN_SIGNIFICANT_JITTER
+                && jitter > mLastJitter * JITTER_GROWTH_THRESHOLD;
+        mLastJitter = jitter;
+        if (fractionLost > LOSS_DECREASE_THRESHOLD) {
+            mBitrate *= 1 - fractionLost / 2;
+        } else if (delayGrowing) {
+            mBitrate *= DELAY_DECREASE_FACTOR;
+        } else if (fractionLost < LOSS_INCREASE_THRESHOLD) {
+            mBitrate *= INCREASE_FACTOR;
+        }
+        applyTarget();
+    }
+
+    /**
+     * Caps the target to the maximum bit rate requested by the remote receiver
+     * 
+     * @param bitrate Maximum bit rate in bits per second
+     */
+    public synchronized void onMaxBitrate(long bitrate) {
+        mRemoteMaxBitrate = bitrate;
+        applyTarget();
+    }
+
+    private void applyTarget() {
+        if (mMaxBitrate <= 0) {
+            /* Encoder without a bit rate target, nothing to adapt */
+            return;
+        }
+        double maxBitrate = Math.min(mMaxBitrate, mRemoteMaxBitrate);
+        mBitrate = Math.max(mMaxBitrate * MIN_BITRATE_RATIO, Math.min(mBitrate, maxBitrate));
+        int bitrate = (int) mBitrate;
+        if (Math.abs(bitrate - mAppliedBitrate) < mAppliedBitrate * UPDATE_THRESHOLD
+                && bitrate != (int) maxBitrate) {
+            return;
+        }
+        if (bitrate == mAppliedBitrate) {
+            return;
+        }
+        /* Frame rate follows the bit rate once it falls below half of the initial one */
+        float frameRate = Math.min(mMaxFrameRate, Math.max(mMaxFrameRate * MIN_FRAME_RATE_RATIO,
+                mMaxFrameRate * 2 * bitrate / mMaxBitrate));
+        mParams.setBitRate(bitrate);
+        mParams.setFrameRate(frameRate);
+        mAppliedBitrate = bitrate;
+        if (sLogger.isDebugActivated()) {
+            sLogger.debug(new StringBuilder("Encoder target set to ").append(bitrate)
+                    .append(" bps at ").append(frameRate).append(" fps").toString());
+        }
+        mEncoder.setEncoderParams(mParams);
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gsma.rcs.core.ims.protocol.rtp.media;
+
+import com.gsma.rcs.core.ims.protocol.rtp.codec.video.h264.encoder.NativeH264EncoderParams;
+
+/**
+ * Control of the video encoder of a media input by the RTP stack, to be implemented by the video
+ * inputs which adapt their encoding to the RTCP feedback of the remote receiver
+ */
+public interface VideoEncoderControl {
+
+    /**
+     * Returns the parameters the encoder was initialized with
+     * 
+     * @return Encoder parameters
+     */
+    public NativeH264EncoderParams getEncoderParams();
+
+    /**
+     * Applies new encoder parameters, of which only the bit rate and the frame rate differ from
+     * the current ones
+     * 
+     * @param params Encoder parameters
+     */
+    public void setEncoderParams(NativeH264EncoderParams params);
+
+    /**
+     * Requests the next encoded frame to be a key frame
+     */
+    public void requestKeyFrame();
+}
@@ -18,6 +18,7 @@
 
 package com.gsma.rcs.core.ims.protocol.rtp.stream;
 
+import com.gsma.rcs.core.ims.protocol.rtp.core.MediaReactor;
 import com.gsma.rcs.core.ims.protocol.rtp.format.DummyFormat;
 import com.gsma.rcs.core.ims.protocol.rtp.format.Format;
 import com.gsma.rcs.core.ims.protocol.rtp.util.Buffer;
@@ -25,12 +26,15 @@ import com.gsma.rcs.core.ims.protocol.rtp.util.SystemTimeBase;
 import com.gsma.rcs.utils.FifoBuffer;
 import com.gsma.rcs.utils.logger.Logger;
 
+import java.io.IOException;
+
 /**
- * Dummy packet source stream (used to pass NAT)
+ * Dummy packet source stream (used to pass NAT). The packets are generated from timer events of
+ * the media reactor.
  * 
  * @author jexa7410
  */
-public class DummyPacketSourceStream extends Thread implements ProcessorInputStream {
+public class DummyPacketSourceStream implements ProcessorInputStream {
 
     /**
      * Source period for the opening phase (in milliseconds)
@@ -70,12 +74,17 @@ public class DummyPacketSourceStream extends Thread implements ProcessorInputStr
     /**
      * Interruption flag
      */
-    private boolean mInterrupted;
+    private volatile boolean mInterrupted;
 
     /**
      * Incoming stream is started ?
      */
-    private boolean mIncomingStarted;
+    private volatile boolean mIncomingStarted;
+
+    /**
+     * Next packet generation event
+     */
+    private MediaReactor.TimerEvent mNextPacketEvent;
 
     /**
      * Constructor
@@ -85,10 +94,12 @@ public class DummyPacketSourceStream extends Thread implements ProcessorInputStr
 
     /**
      * Open the input stream
+     * 
+     * @throws IOException
      */
-    public void open() {
-        start();
-        if (sLogger.isActivated()) {
+    public void open() throws IOException {
+        generatePacket(MediaReactor.getInstance());
+        if (sLogger.isDebugActivated()) {
             sLogger.debug("Dummy source stream opened");
         }
     }
@@ -98,8 +109,11 @@ public class DummyPacketSourceStream extends Thread implements ProcessorInputStr
      */
     public void close() {
         mInterrupted = true;
+        if (mNextPacketEvent != null) {
+            mNextPacketEvent.cancel();
+        }
         mBuffer.close();
-        if (sLogger.isActivated()) {
+        if (sLogger.isDebugActivated()) {
             sLogger.debug("Dummy source stream closed");
         }
     }
@@ -114,42 +128,32 @@ public class DummyPacketSourceStream extends Thread implements ProcessorInputStr
     }
 
     /**
-     * Background processing
-     */
-    public void run() {
-        try {
-            while (!mInterrupted) {
-                try {
-                    // Build a new dummy packet
-                    Buffer packet = new Buffer();
-                    packet.setData(new byte[0]);
-                    packet.setLength(0);
-                    packet.setFormat(mFormat);
-                    packet.setSequenceNumber(mSeqNo++);
-                    packet.setTimestamp(mSystemTimeBase.getTimestamp());
-
-                    // Post the packet in the FIFO
-                    mBuffer.addObject(packet);
-
-                    // Make a pause
-                    if (!mIncomingStarted) {
-                        Thread.sleep(DUMMY_SOURCE_OPENING_PERIOD);
-                    } else {
-                        Thread.sleep(DUMMY_SOURCE_PERIOD);
-                    }
-                } catch (InterruptedException e) {
-                    if (sLogger.isActivated()) {
-                        sLogger.debug(e.getMessage());
-                    }
-                }
-            }
-        } catch (RuntimeException e) {
-            /*
-             * Intentionally catch runtime exceptions as else it will abruptly end the thread and
-             * eventually bring the whole system down, which is not intended.
-             */
-            sLogger.error("Dummy packet source has failed!", e);
+     * Posts a dummy packet in the FIFO and schedules the next one
+     * 
+     * @param reactor Media reactor
+     */
+    private void generatePacket(final MediaReactor reactor) {
+        if (mInterrupted) {
+            return;
         }
+        // Build a new dummy packet
+        Buffer packet = new Buffer();
+        packet.setData(new byte[0]);
+        packet.setLength(0);
+        packet.setFormat(mFormat);
+        packet.setSequenceNumber(mSeqNo++);
+        packet.setTimestamp(mSystemTimeBase.getTimestamp());
+
+        // Post the packet in the FIFO
+        mBuffer.addObject(packet);
+
+        // Make a pause
+        mNextPacketEvent = reactor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                generatePacket(reactor);
+            }
+        }, mIncomingStarted ? DUMMY_SOURCE_PERIOD : DUMMY_SOURCE_OPENING_PERIOD);
     }
 
     /**
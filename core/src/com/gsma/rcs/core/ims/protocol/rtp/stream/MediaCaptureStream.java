@@ -78,7 +78,7 @@ public class MediaCaptureStream implements ProcessorInputStream {
      */
     public void open() throws MediaException {
         player.open();
-        if (mLogger.isActivated()) {
+        if (mLogger.isDebugActivated()) {
             mLogger.debug("Media capture stream opened");
         }
     }
@@ -88,7 +88,7 @@ public class MediaCaptureStream implements ProcessorInputStream {
      */
     public void close() {
         player.close();
-        if (mLogger.isActivated()) {
+        if (mLogger.isDebugActivated()) {
             mLogger.debug("Media capture stream closed");
         }
     }
@@ -69,7 +69,7 @@ public class MediaRendererStream implements ProcessorOutputStream {
      */
     public void open() throws MediaException {
         renderer.open();
-        if (mLogger.isActivated()) {
+        if (mLogger.isDebugActivated()) {
             mLogger.debug("Media renderer stream opened");
         }
 
@@ -80,7 +80,7 @@ public class MediaRendererStream implements ProcessorOutputStream {
      */
     public void close() {
         renderer.close();
-        if (mLogger.isActivated()) {
+        if (mLogger.isDebugActivated()) {
             mLogger.debug("Media renderer stream closed");
         }
     }
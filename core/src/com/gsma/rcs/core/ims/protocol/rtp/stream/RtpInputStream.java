@@ -29,6 +29,7 @@ import java.util.concurrent.TimeoutException;
 
 import com.gsma.rcs.core.ims.protocol.rtp.RtpException;
 import com.gsma.rcs.core.ims.protocol.rtp.RtpUtils;
+import com.gsma.rcs.core.ims.protocol.rtp.core.RtcpFeedbackPacket;
 import com.gsma.rcs.core.ims.protocol.rtp.core.RtcpPacketReceiver;
 import com.gsma.rcs.core.ims.protocol.rtp.core.RtcpPacketTransmitter;
 import com.gsma.rcs.core.ims.protocol.rtp.core.RtcpSession;
@@ -36,6 +37,7 @@ import com.gsma.rcs.core.ims.protocol.rtp.core.RtpPacket;
 import com.gsma.rcs.core.ims.protocol.rtp.core.RtpPacketReceiver;
 import com.gsma.rcs.core.ims.protocol.rtp.core.RtpExtensionHeader.ExtensionElement;
 import com.gsma.rcs.core.ims.protocol.rtp.format.Format;
+import com.gsma.rcs.core.ims.protocol.rtp.format.video.VideoFormat;
 import com.gsma.rcs.core.ims.protocol.rtp.format.video.VideoOrientation;
 import com.gsma.rcs.core.ims.protocol.rtp.media.MediaException;
 import com.gsma.rcs.core.ims.protocol.rtp.util.Buffer;
@@ -52,6 +54,12 @@ public class RtpInputStream implements ProcessorInputStream {
      */
     private static final int RTP_SOCKET_TIMEOUT = 20000;
 
+    /**
+     * Minimum time in milliseconds between two picture loss indications, not to have the remote
+     * encoder produce a key frame for every lost packet on a lossy link
+     */
+    private static final long PLI_MIN_INTERVAL = 1000;
+
     /**
      * Remote address
      */
@@ -112,6 +120,21 @@ public class RtpInputStream implements ProcessorInputStream {
      */
     private boolean isClosed = false;
 
+    /**
+     * Whether the remote sender is asked for a key frame on packet loss
+     */
+    private boolean keyFrameRequestEnabled;
+
+    /**
+     * Sequence number of the last packet read, -1 before the first one
+     */
+    private long lastSeqnum = -1;
+
+    /**
+     * Time of the last picture loss indication
+     */
+    private long lastPliTime;
+
     /**
      * Sequence RTP packets buffer
      */
@@ -133,6 +156,7 @@ public class RtpInputStream implements ProcessorInputStream {
         this.remotePort = remotePort;
         this.localPort = localPort;
         this.inputFormat = inputFormat;
+        keyFrameRequestEnabled = inputFormat instanceof VideoFormat;
 
         rtcpSession = new RtcpSession(false, 16000);
 
@@ -194,7 +218,7 @@ public class RtpInputStream implements ProcessorInputStream {
             }
             rtpStreamListener = null;
         } catch (IOException e) {
-            if (logger.isActivated()) {
+            if (logger.isDebugActivated()) {
                 logger.debug(e.getMessage());
             }
         }
@@ -245,6 +269,7 @@ public class RtpInputStream implements ProcessorInputStream {
         } while (rtpPacketsBuffer.size() <= 5);
 
         RtpPacket packet = rtpPacketsBuffer.poll();
+        checkPacketLoss(packet);
 
         buffer.setData(packet.data);
         buffer.setLength(packet.payloadlength);
@@ -265,6 +290,29 @@ public class RtpInputStream implements ProcessorInputStream {
         return buffer;
     }
 
+    /**
+     * Sends a picture loss indication when packets are missing before the packet read, as the
+     * frames depending on them cannot be decoded until the next key frame
+     * 
+     * @param packet Packet read
+     */
+    private void checkPacketLoss(RtpPacket packet) {
+        boolean lost = lastSeqnum >= 0 && packet.seqnum > lastSeqnum + 1;
+        if (packet.seqnum > lastSeqnum) {
+            lastSeqnum = packet.seqnum;
+        }
+        if (!lost || !keyFrameRequestEnabled || rtcpTransmitter == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastPliTime < PLI_MIN_INTERVAL) {
+            return;
+        }
+        lastPliTime = now;
+        rtcpTransmitter.sendFeedbackPacket(RtcpFeedbackPacket.createPli(rtcpSession.SSRC,
+                packet.ssrc));
+    }
+
     /**
      * Adds the RTP stream listener
      * 
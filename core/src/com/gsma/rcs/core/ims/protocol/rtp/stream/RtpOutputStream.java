@@ -22,14 +22,23 @@
 
 package com.gsma.rcs.core.ims.protocol.rtp.stream;
 
+import com.gsma.rcs.core.ims.protocol.rtp.core.RtcpFeedbackPacket;
 import com.gsma.rcs.core.ims.protocol.rtp.core.RtcpPacketReceiver;
 import com.gsma.rcs.core.ims.protocol.rtp.core.RtcpPacketTransmitter;
+import com.gsma.rcs.core.ims.protocol.rtp.core.RtcpReceiverReportPacket;
+import com.gsma.rcs.core.ims.protocol.rtp.core.RtcpReport;
+import com.gsma.rcs.core.ims.protocol.rtp.core.RtcpSenderReportPacket;
 import com.gsma.rcs.core.ims.protocol.rtp.core.RtcpSession;
 import com.gsma.rcs.core.ims.protocol.rtp.core.RtpPacketReceiver;
 import com.gsma.rcs.core.ims.protocol.rtp.core.RtpPacketTransmitter;
+import com.gsma.rcs.core.ims.protocol.rtp.core.RtpRateController;
 import com.gsma.rcs.core.ims.protocol.rtp.event.RtcpEvent;
 import com.gsma.rcs.core.ims.protocol.rtp.event.RtcpEventListener;
+import com.gsma.rcs.core.ims.protocol.rtp.event.RtcpFeedbackEvent;
+import com.gsma.rcs.core.ims.protocol.rtp.event.RtcpReceiverReportEvent;
+import com.gsma.rcs.core.ims.protocol.rtp.event.RtcpSenderReportEvent;
 import com.gsma.rcs.core.ims.protocol.rtp.media.MediaException;
+import com.gsma.rcs.core.ims.protocol.rtp.media.VideoEncoderControl;
 import com.gsma.rcs.core.ims.protocol.rtp.util.Buffer;
 import com.gsma.rcs.utils.logger.Logger;
 
@@ -101,6 +110,16 @@ public class RtpOutputStream implements ProcessorOutputStream, RtcpEventListener
      */
     private RtpInputStream rtpInputStream;
 
+    /**
+     * Video encoder control, null if the encoding is not adapted to the feedback
+     */
+    private VideoEncoderControl encoderControl;
+
+    /**
+     * Encoder bit rate controller
+     */
+    private RtpRateController rateController;
+
     /**
      * The logger
      */
@@ -182,6 +201,9 @@ public class RtpOutputStream implements ProcessorOutputStream, RtcpEventListener
             // Create the RTCP transmitter
             rtcpTransmitter = new RtcpPacketTransmitter(remoteAddress, remotePort + 1, rtcpSession,
                     rtpInputStream.getRtcpReceiver().getConnection());
+
+            // Listen to the feedback on the shared RTCP receiver
+            rtpInputStream.getRtcpReceiver().addRtcpListener(this);
         } else {
             // Create the RTP transmitter
             rtpTransmitter = new RtpPacketTransmitter(remoteAddress, remotePort, rtcpSession);
@@ -211,11 +233,14 @@ public class RtpOutputStream implements ProcessorOutputStream, RtcpEventListener
             // Close the RTCP receiver
             if (rtcpReceiver != null)
                 rtcpReceiver.close();
+            if (rtpInputStream != null && rtpInputStream.getRtcpReceiver() != null) {
+                rtpInputStream.getRtcpReceiver().removeRtcpListener(this);
+            }
 
             // Remove rtpStreamListener
             rtpStreamListener = null;
         } catch (IOException e) {
-            if (logger.isActivated()) {
+            if (logger.isDebugActivated()) {
                 logger.debug(e.getMessage());
             }
         }
@@ -236,9 +261,51 @@ public class RtpOutputStream implements ProcessorOutputStream, RtcpEventListener
         }
     }
 
+    /**
+     * Sets the video encoder to adapt to the RTCP feedback of the remote receiver
+     * 
+     * @param encoderControl Video encoder control
+     */
+    public void setVideoEncoderControl(VideoEncoderControl encoderControl) {
+        this.encoderControl = encoderControl;
+        rateController = new RtpRateController(encoderControl);
+    }
+
     @Override
     public void receiveRtcpEvent(RtcpEvent event) {
-        // Nothing to do
+        if (event instanceof RtcpFeedbackEvent) {
+            RtcpFeedbackPacket packet = (RtcpFeedbackPacket) event.getPacket();
+            if (rtpTransmitter != null) {
+                for (int seqnum : packet.getLostSequenceNumbers()) {
+                    rtpTransmitter.retransmitRtpPacket(seqnum);
+                }
+            }
+            if (encoderControl == null) {
+                return;
+            }
+            if (packet.isKeyFrameRequest()) {
+                encoderControl.requestKeyFrame();
+            }
+            long maxBitrate = packet.getMaxBitrate();
+            if (maxBitrate >= 0) {
+                rateController.onMaxBitrate(maxBitrate);
+            }
+        } else if (rateController != null) {
+            RtcpReport[] reports = null;
+            if (event instanceof RtcpReceiverReportEvent) {
+                reports = ((RtcpReceiverReportPacket) event.getPacket()).reports;
+            } else if (event instanceof RtcpSenderReportEvent) {
+                reports = ((RtcpSenderReportPacket) event.getPacket()).reports;
+            }
+            if (reports == null) {
+                return;
+            }
+            for (RtcpReport report : reports) {
+                if (report.ssrc == rtcpSession.SSRC) {
+                    rateController.onReceptionReport(report);
+                }
+            }
+        }
     }
 
     @Override
@@ -34,6 +34,12 @@ import java.io.IOException;
  * @author BJ
  */
 public class KeepAliveManager extends PeriodicRefresher {
+    /**
+     * Tolerance of the keep-alive timer as a fraction of its period. Sending a keep-alive early is
+     * harmless, so a wide tolerance lets it ride on the wake-ups of the other refreshers.
+     */
+    private static final double TOLERANCE_RATIO = 0.25;
+
     /**
      * Keep-alive period (in milliseconds)
      */
@@ -56,6 +62,7 @@ public class KeepAliveManager extends PeriodicRefresher {
      * @param rcsSettings
      */
     public KeepAliveManager(SipInterface sip, RcsSettings rcsSettings) {
+        super(TOLERANCE_RATIO);
         mSip = sip;
         mPeriod = rcsSettings.getSipKeepAlivePeriod();
     }
@@ -64,7 +71,7 @@ public class KeepAliveManager extends PeriodicRefresher {
      * Start
      */
     public void start() {
-        if (sLogger.isActivated()) {
+        if (sLogger.isDebugActivated()) {
             sLogger.debug("Start keep-alive");
         }
         startTimer(System.currentTimeMillis(), mPeriod);
@@ -74,7 +81,7 @@ public class KeepAliveManager extends PeriodicRefresher {
      * Start
      */
     public void stop() {
-        if (sLogger.isActivated()) {
+        if (sLogger.isDebugActivated()) {
             sLogger.debug("Stop keep-alive");
         }
         stopTimer();
@@ -85,7 +92,7 @@ public class KeepAliveManager extends PeriodicRefresher {
      */
     public void periodicProcessing() {
         try {
-            if (sLogger.isActivated()) {
+            if (sLogger.isDebugActivated()) {
                 sLogger.debug("Send keep-alive");
             }
 
@@ -96,7 +103,7 @@ public class KeepAliveManager extends PeriodicRefresher {
             // Start timer
             startTimer(System.currentTimeMillis(), mPeriod);
         } catch (IOException e) {
-            if (sLogger.isActivated()) {
+            if (sLogger.isDebugActivated()) {
                 sLogger.debug(e.getMessage());
             }
         }
@@ -107,7 +114,7 @@ public class KeepAliveManager extends PeriodicRefresher {
      */
     public void setPeriod(long period) {
         mPeriod = period;
-        if (sLogger.isActivated()) {
+        if (sLogger.isDebugActivated()) {
             sLogger.debug("Set keep-alive period \"" + period + "\"");
         }
     }
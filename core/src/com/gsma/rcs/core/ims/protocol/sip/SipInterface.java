@@ -22,8 +22,10 @@
 
 package com.gsma.rcs.core.ims.protocol.sip;
 
+import com.gsma.rcs.core.ims.network.sip.SipHeaderTemplates;
 import com.gsma.rcs.core.ims.network.sip.SipMessageFactory;
 import com.gsma.rcs.core.ims.network.sip.SipUtils;
+import com.gsma.rcs.core.ims.protocol.capture.MessageCapture;
 import com.gsma.rcs.core.ims.protocol.sip.SipTransactionContext.INotifySipProvisionalResponse;
 import com.gsma.rcs.core.ims.security.cert.KeyStoreManager;
 import com.gsma.rcs.core.ims.service.SessionAuthenticationAgent;
@@ -31,7 +33,11 @@ import com.gsma.rcs.provider.settings.RcsSettings;
 import com.gsma.rcs.utils.IdGenerator;
 import com.gsma.rcs.utils.IpAddressUtils;
 import com.gsma.rcs.utils.NetworkRessourceManager;
+import com.gsma.rcs.utils.WakeUpScheduler;
 import com.gsma.rcs.utils.logger.Logger;
+import com.gsma.rcs.utils.metrics.Counter;
+import com.gsma.rcs.utils.metrics.Histogram;
+import com.gsma.rcs.utils.metrics.MetricsRegistry;
 
 import android.net.ConnectivityManager;
 
@@ -74,6 +80,7 @@ import javax2.sip.header.ExtensionHeader;
 import javax2.sip.header.Header;
 import javax2.sip.header.RouteHeader;
 import javax2.sip.header.ViaHeader;
+import javax2.sip.message.Message;
 import javax2.sip.message.Request;
 import javax2.sip.message.Response;
 
@@ -84,11 +91,6 @@ import javax2.sip.message.Response;
  * @author JM. Auffret
  */
 public class SipInterface implements SipListener {
-    /**
-     * Trace separator
-     */
-    private final static String TRACE_SEPARATOR = "-----------------------------------------------------------------------------";
-
     /**
      * Default SIP port
      */
@@ -104,6 +106,11 @@ public class SipInterface implements SipListener {
      */
     private String mSipTraceFile;
 
+    /**
+     * Connection id of the SIP messages in the message capture
+     */
+    private final int mCaptureId;
+
     /**
      * Local IP address
      */
@@ -129,6 +136,17 @@ public class SipInterface implements SipListener {
      */
     private Vector<String> mServiceRoutePath;
 
+    /**
+     * Parsed Contact header cloned into the outgoing messages, reset when the GRUU or the
+     * instance ID changes
+     */
+    private ContactHeader mContactTemplate;
+
+    /**
+     * Incremented when the terminal registers or its Contact header changes
+     */
+    private volatile int mRegistrationEpoch;
+
     /**
      * SIP listening port
      */
@@ -209,6 +227,24 @@ public class SipInterface implements SipListener {
      */
     private static final Logger sLogger = Logger.getLogger(SipInterface.class.getSimpleName());
 
+    private static final Counter sSentRequests = MetricsRegistry.getInstance().getCounter(
+            "sip.requests.sent");
+
+    private static final Counter sSentResponses = MetricsRegistry.getInstance().getCounter(
+            "sip.responses.sent");
+
+    private static final Counter sReceivedMessages = MetricsRegistry.getInstance().getCounter(
+            "sip.messages.received");
+
+    private static final Counter sTransactionTimeouts = MetricsRegistry.getInstance().getCounter(
+            "sip.transactions.timeout");
+
+    /**
+     * Time in microseconds between sending a request and receiving its final response
+     */
+    private static final Histogram sTransactionLatency = MetricsRegistry.getInstance()
+            .getHistogram("sip.transaction.latency_us");
+
     /**
      * Constructor
      * 
@@ -230,6 +266,10 @@ public class SipInterface implements SipListener {
         mListeningPort = NetworkRessourceManager.generateLocalSipPort(rcsSettings);
         mOutboundProxyAddr = proxyAddr;
         mOutboundProxyPort = proxyPort;
+        mCaptureId = MessageCapture.getInstance().openConnection(MessageCapture.PROTOCOL_SIP,
+                ListeningPoint.UDP.equals(defaultProtocol) ? MessageCapture.TRANSPORT_UDP
+                        : MessageCapture.TRANSPORT_TCP, localIpAddress, mListeningPort, proxyAddr,
+                proxyPort);
 
         mKeepAliveManager = new KeepAliveManager(this, rcsSettings);
         mSipTraceEnabled = rcsSettings.isSipTraceActivated();
@@ -384,7 +424,7 @@ public class SipInterface implements SipListener {
                     .append(" with defaultProtocol : ").append(defaultProtocol).toString(), e);
         }
 
-        if (sLogger.isActivated()) {
+        if (sLogger.isDebugActivated()) {
             sLogger.debug(new StringBuilder("SIP stack started at ").append(localIpAddress)
                     .append(":").append(mListeningPort).toString());
         }
@@ -414,7 +454,7 @@ public class SipInterface implements SipListener {
             if (mSipStack != null) {
                 mSipStack.stop();
             } else {
-                if (sLogger.isActivated()) {
+                if (sLogger.isDebugActivated()) {
                     sLogger.debug("SIP stack is null");
                 }
             }
@@ -452,7 +492,7 @@ public class SipInterface implements SipListener {
         // changed.
         if (ListeningPoint.UDP.equals(mDefaultProtocol) && this.mTcpFallback
                 && (request.getStackMessage().toString().length() > (mSipStack.getMtuSize() - 200))) {
-            if (sLogger.isActivated()) {
+            if (sLogger.isDebugActivated()) {
                 sLogger.debug("Transaction falls back to TCP as request size is "
                         + request.getStackMessage().toString().length() + " and MTU size is "
                         + mSipStack.getMtuSize());
@@ -565,8 +605,10 @@ public class SipInterface implements SipListener {
      * 
      * @param gruu GRUU
      */
-    public void setPublicGruu(String gruu) {
+    public synchronized void setPublicGruu(String gruu) {
         this.mPublicGruu = gruu;
+        mContactTemplate = null;
+        mRegistrationEpoch++;
     }
 
     /**
@@ -601,8 +643,10 @@ public class SipInterface implements SipListener {
      * 
      * @param id Instance ID
      */
-    public void setInstanceId(String id) {
+    public synchronized void setInstanceId(String id) {
         this.mInstanceId = id;
+        mContactTemplate = null;
+        mRegistrationEpoch++;
     }
 
     /**
@@ -669,6 +713,16 @@ public class SipInterface implements SipListener {
         }
     }
 
+    /**
+     * Returns a counter incremented when the terminal registers or its Contact header changes, so
+     * that headers derived from the registration can be cached until then
+     * 
+     * @return Registration epoch
+     */
+    public int getRegistrationEpoch() {
+        return mRegistrationEpoch;
+    }
+
     /**
      * Get contact based on local contact info and multidevice infos (GRUU, sip.instance)
      * 
@@ -676,7 +730,15 @@ public class SipInterface implements SipListener {
      * @throws ParseException
      * @throws InvalidArgumentException
      */
-    public ContactHeader getContact() throws SipPayloadException {
+    public synchronized ContactHeader getContact() throws SipPayloadException {
+        if (mContactTemplate == null) {
+            mContactTemplate = buildContact();
+        }
+        /* Feature tags are set on the returned header so each message gets its own copy */
+        return (ContactHeader) mContactTemplate.clone();
+    }
+
+    private ContactHeader buildContact() throws SipPayloadException {
         try {
             ContactHeader contactHeader;
             if (mPublicGruu != null) {
@@ -742,6 +804,9 @@ public class SipInterface implements SipListener {
      * @param routes List of routes
      */
     public void setServiceRoutePath(ListIterator<Header> routes) {
+        /* A new registration: drop the header templates of the previous one */
+        SipHeaderTemplates.clear();
+        mRegistrationEpoch++;
         mServiceRoutePath.clear();
 
         // Always add the outbound proxy
@@ -765,7 +830,7 @@ public class SipInterface implements SipListener {
      * @param listener Listener
      */
     public void addSipEventListener(SipEventListener listener) {
-        if (sLogger.isActivated()) {
+        if (sLogger.isDebugActivated()) {
             sLogger.debug("Add a SIP listener");
         }
         mListeners.addElement(listener);
@@ -777,7 +842,7 @@ public class SipInterface implements SipListener {
      * @param listener Listener
      */
     public void removeSipEventListener(SipEventListener listener) {
-        if (sLogger.isActivated()) {
+        if (sLogger.isDebugActivated()) {
             sLogger.debug("Remove a SIP listener");
         }
         mListeners.removeElement(listener);
@@ -792,6 +857,30 @@ public class SipInterface implements SipListener {
         mTransactions.remove(id);
     }
 
+    /**
+     * Counts a SIP message and captures it as encoded by the SIP stack. A sent message is captured
+     * once it has been sent so that its encoding is reused and not computed again.
+     * 
+     * @param message SIP message
+     * @param outgoing True if the message is sent
+     */
+    private void recordMessage(Message message, boolean outgoing) {
+        if (!outgoing) {
+            sReceivedMessages.increment();
+        } else if (message instanceof Request) {
+            sSentRequests.increment();
+        } else {
+            sSentResponses.increment();
+        }
+        SIPMessage sipMessage = (SIPMessage) message;
+        ViaHeader via = sipMessage.getTopmostViaHeader();
+        if (via == null) {
+            return;
+        }
+        byte[] data = sipMessage.encodeAsBytes(via.getTransport());
+        MessageCapture.getInstance().capture(mCaptureId, outgoing, data, 0, data.length);
+    }
+
     /**
      * Notify the transaction context that a message has been received (response or ACK)
      * 
@@ -801,10 +890,15 @@ public class SipInterface implements SipListener {
     private void notifyTransactionContext(String transactionId, SipMessage msg) {
         SipTransactionContext ctx = (SipTransactionContext) mTransactions.get(transactionId);
         if (ctx != null) {
-            if (sLogger.isActivated()) {
+            if (sLogger.isDebugActivated()) {
                 sLogger.debug("Callback object found for transaction " + transactionId);
             }
             removeTransactionContext(transactionId);
+            if (msg == null) {
+                sTransactionTimeouts.increment();
+            } else if (msg instanceof SipResponse) {
+                sTransactionLatency.record((System.nanoTime() - ctx.getCreationTime()) / 1000);
+            }
             ctx.responseReceived(msg);
         }
     }
@@ -835,18 +929,17 @@ public class SipInterface implements SipListener {
                         callbackSipProvisionalResponse);
                 String id = SipTransactionContext.getTransactionContextId(req);
                 mTransactions.put(id, ctx);
-                if (sLogger.isActivated()) {
+                if (sLogger.isDebugActivated()) {
                     sLogger.debug("Create a transaction context ".concat(id));
                 }
 
-                if (sLogger.isActivated()) {
+                if (sLogger.isDebugActivated()) {
                     sLogger.debug(">>> Send SIP ".concat(req.getMethod()));
                 }
-                if (mSipTraceEnabled) {
-                    System.out.println(">>> " + req.getStackMessage().toString());
-                    System.out.println(TRACE_SEPARATOR);
-                }
                 transaction.sendRequest();
+                recordMessage(req.getStackMessage(), true);
+                /* The radio is up for this request, let the due refreshers ride on it */
+                WakeUpScheduler.getInstance().runDueTasks();
                 return ctx;
 
             } else {
@@ -860,18 +953,15 @@ public class SipInterface implements SipListener {
                 SipTransactionContext ctx = new SipTransactionContext(transaction);
                 String id = SipTransactionContext.getTransactionContextId(resp);
                 mTransactions.put(id, ctx);
-                if (sLogger.isActivated()) {
+                if (sLogger.isDebugActivated()) {
                     sLogger.debug("Create a transaction context ".concat(id));
                 }
-                if (sLogger.isActivated()) {
+                if (sLogger.isDebugActivated()) {
                     sLogger.debug(new StringBuilder(">>> Send SIP ").append(resp.getStatusCode())
                             .append(" response").toString());
                 }
-                if (mSipTraceEnabled) {
-                    System.out.println(">>> " + resp.getStackMessage().toString());
-                    System.out.println(TRACE_SEPARATOR);
-                }
                 transaction.sendResponse(resp.getStackMessage());
+                recordMessage(resp.getStackMessage(), true);
                 return ctx;
             }
         } catch (ParseException e) {
@@ -907,15 +997,12 @@ public class SipInterface implements SipListener {
             if (transaction == null) {
                 throw new SipNetworkException("No transaction available for sending response!");
             }
-            if (sLogger.isActivated()) {
+            if (sLogger.isDebugActivated()) {
                 sLogger.debug(new StringBuilder(">>> Send SIP ").append(response.getStatusCode())
                         .append(" response").toString());
             }
-            if (mSipTraceEnabled) {
-                System.out.println(">>> " + response.getStackMessage().toString());
-                System.out.println(TRACE_SEPARATOR);
-            }
             transaction.sendResponse(response.getStackMessage());
+            recordMessage(response.getStackMessage(), true);
         } catch (InvalidArgumentException e) {
             throw new SipNetworkException("Can't send SIP message!", e);
 
@@ -935,16 +1022,13 @@ public class SipInterface implements SipListener {
         try {
             SipRequest ack = SipMessageFactory.createAck(dialog);
 
-            if (sLogger.isActivated()) {
+            if (sLogger.isDebugActivated()) {
                 sLogger.debug(">>> Send SIP ACK");
             }
-            if (mSipTraceEnabled) {
-                System.out.println(">>> " + ack.getStackMessage().toString());
-                System.out.println(TRACE_SEPARATOR);
-            }
 
             /* Re-use INVITE transaction */
             dialog.getStackDialog().sendAck(ack.getStackMessage());
+            recordMessage(ack.getStackMessage(), true);
         } catch (javax2.sip.SipException e) {
             throw new SipNetworkException("Can't send SIP message!", e);
         }
@@ -973,14 +1057,11 @@ public class SipInterface implements SipListener {
             // Changed by Deutsche Telekom
             ClientTransaction transaction = createNewTransaction(cancel);
 
-            if (sLogger.isActivated()) {
+            if (sLogger.isDebugActivated()) {
                 sLogger.debug(">>> Send SIP CANCEL");
             }
-            if (mSipTraceEnabled) {
-                System.out.println(">>> " + cancel.getStackMessage().toString());
-                System.out.println(TRACE_SEPARATOR);
-            }
             transaction.sendRequest();
+            recordMessage(cancel.getStackMessage(), true);
         } catch (ParseException e) {
             throw new SipPayloadException("Unable to instantiate SIP transaction!", e);
 
@@ -997,7 +1078,7 @@ public class SipInterface implements SipListener {
      * @throws SipNetworkException
      */
     public void sendSipBye(SipDialogPath dialog) throws SipPayloadException, SipNetworkException {
-        boolean loggerActivated = sLogger.isActivated();
+        boolean loggerActivated = sLogger.isDebugActivated();
         try {
             SipRequest bye = SipMessageFactory.createBye(dialog);
 
@@ -1011,11 +1092,8 @@ public class SipInterface implements SipListener {
             if (loggerActivated) {
                 sLogger.debug(">>> Send SIP BYE");
             }
-            if (mSipTraceEnabled) {
-                System.out.println(">>> " + bye.getStackMessage().toString());
-                System.out.println(TRACE_SEPARATOR);
-            }
             dialog.getStackDialog().sendRequest(transaction);
+            recordMessage(bye.getStackMessage(), true);
         } catch (ParseException e) {
             throw new SipPayloadException("Unable to instantiate SIP transaction!", e);
 
@@ -1034,7 +1112,7 @@ public class SipInterface implements SipListener {
      */
     public SipTransactionContext sendSipUpdate(SipDialogPath dialog) throws SipPayloadException,
             SipNetworkException {
-        boolean loggerActivated = sLogger.isActivated();
+        boolean loggerActivated = sLogger.isDebugActivated();
         try {
             SipRequest update = SipMessageFactory.createUpdate(dialog);
             SessionAuthenticationAgent agent = dialog.getAuthenticationAgent();
@@ -1055,11 +1133,8 @@ public class SipInterface implements SipListener {
             if (loggerActivated) {
                 sLogger.debug(">>> Send SIP UPDATE");
             }
-            if (mSipTraceEnabled) {
-                System.out.println(">>> " + update.getStackMessage().toString());
-                System.out.println(TRACE_SEPARATOR);
-            }
             transaction.sendRequest();
+            recordMessage(update.getStackMessage(), true);
             return ctx;
 
         } catch (ParseException e) {
@@ -1081,7 +1156,7 @@ public class SipInterface implements SipListener {
      */
     public SipTransactionContext sendSubsequentRequest(SipDialogPath dialog, SipRequest request)
             throws SipPayloadException, SipNetworkException {
-        boolean loggerActivated = sLogger.isActivated();
+        boolean loggerActivated = sLogger.isDebugActivated();
         try {
             SessionAuthenticationAgent agent = dialog.getAuthenticationAgent();
             if (agent != null) {
@@ -1093,11 +1168,8 @@ public class SipInterface implements SipListener {
             if (loggerActivated) {
                 sLogger.debug(">>> Send SIP ".concat(request.getMethod().toUpperCase()));
             }
-            if (mSipTraceEnabled) {
-                System.out.println(">>> " + request.getStackMessage().toString());
-                System.out.println(TRACE_SEPARATOR);
-            }
             dialog.getStackDialog().sendRequest(transaction);
+            recordMessage(request.getStackMessage(), true);
 
             SipTransactionContext ctx = new SipTransactionContext(transaction);
             String id = SipTransactionContext.getTransactionContextId(request);
@@ -1118,7 +1190,7 @@ public class SipInterface implements SipListener {
      * @param dialogTerminatedEvent Event
      */
     public void processDialogTerminated(DialogTerminatedEvent dialogTerminatedEvent) {
-        if (sLogger.isActivated()) {
+        if (sLogger.isDebugActivated()) {
             sLogger.debug("Dialog terminated");
         }
     }
@@ -1129,7 +1201,7 @@ public class SipInterface implements SipListener {
      * @param exceptionEvent Event
      */
     public void processIOException(IOExceptionEvent exceptionEvent) {
-        if (sLogger.isActivated()) {
+        if (sLogger.isDebugActivated()) {
             sLogger.debug("IO Exception on " + exceptionEvent.getTransport() + " transport");
         }
     }
@@ -1141,14 +1213,11 @@ public class SipInterface implements SipListener {
      */
     public void processRequest(RequestEvent requestEvent) {
         Request request = requestEvent.getRequest();
-        boolean loggerActivated = sLogger.isActivated();
+        boolean loggerActivated = sLogger.isDebugActivated();
         if (loggerActivated) {
             sLogger.debug("<<< Receive SIP " + request.getMethod());
         }
-        if (mSipTraceEnabled) {
-            System.out.println("<<< " + request.toString());
-            System.out.println(TRACE_SEPARATOR);
-        }
+        recordMessage(request, false);
         try {
             // Get transaction
             ServerTransaction transaction = requestEvent.getServerTransaction();
@@ -1181,7 +1250,7 @@ public class SipInterface implements SipListener {
              * Intentionally consuming this exception as no need to create a new transaction in case
              * it already exists.
              */
-            if (sLogger.isActivated()) {
+            if (sLogger.isDebugActivated()) {
                 sLogger.debug(e.getMessage());
             }
 
@@ -1190,7 +1259,7 @@ public class SipInterface implements SipListener {
              * Intentionally consuming this exception as the transcation can be created at a later
              * instance if not created here.
              */
-            if (sLogger.isActivated()) {
+            if (sLogger.isDebugActivated()) {
                 sLogger.debug(e.getMessage());
             }
         }
@@ -1204,14 +1273,11 @@ public class SipInterface implements SipListener {
     public void processResponse(ResponseEvent responseEvent) {
         Response response = responseEvent.getResponse();
         int responseStatusCode = response.getStatusCode();
-        boolean loggerActivated = sLogger.isActivated();
+        boolean loggerActivated = sLogger.isDebugActivated();
         if (loggerActivated) {
             sLogger.debug("<<< Receive SIP " + responseStatusCode + " response");
         }
-        if (mSipTraceEnabled) {
-            System.out.println("<<< " + response.toString());
-            System.out.println(TRACE_SEPARATOR);
-        }
+        recordMessage(response, false);
 
         // Search transaction
         ClientTransaction transaction = responseEvent.getClientTransaction();
@@ -1294,7 +1360,7 @@ public class SipInterface implements SipListener {
         if (ctx == null) {
             return;
         }
-        boolean loggerActivated = sLogger.isActivated();
+        boolean loggerActivated = sLogger.isDebugActivated();
         if (loggerActivated) {
             sLogger.debug("Callback object found for transaction " + transactionId);
         }
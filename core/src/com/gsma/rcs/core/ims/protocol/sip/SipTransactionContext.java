@@ -55,6 +55,11 @@ public class SipTransactionContext {
      */
     private INotifySipProvisionalResponse mCallbackSipProvisionalResponse;
 
+    /**
+     * Time in nanoseconds at which the context was created
+     */
+    private final long mCreationTime;
+
     /**
      * Constructor
      * 
@@ -73,6 +78,16 @@ public class SipTransactionContext {
     public SipTransactionContext(Transaction transaction, INotifySipProvisionalResponse callback) {
         mTransaction = transaction;
         mCallbackSipProvisionalResponse = callback;
+        mCreationTime = System.nanoTime();
+    }
+
+    /**
+     * Get the time at which the context was created, that is when the request was sent
+     * 
+     * @return Time in nanoseconds as returned by {@link System#nanoTime()}
+     */
+    public long getCreationTime() {
+        return mCreationTime;
     }
 
     /**
@@ -39,6 +39,9 @@ import com.gsma.rcs.provider.settings.RcsSettings;
 import com.gsma.rcs.utils.FifoBuffer;
 import com.gsma.rcs.utils.IdGenerator;
 import com.gsma.rcs.utils.logger.Logger;
+import com.gsma.rcs.utils.metrics.Gauge;
+import com.gsma.rcs.utils.metrics.Histogram;
+import com.gsma.rcs.utils.metrics.MetricsRegistry;
 
 import android.content.Intent;
 
@@ -79,6 +82,21 @@ public class ImsServiceDispatcher extends Thread {
 
     private final RcsSettings mRcsSettings;
 
+    private static final String METRIC_QUEUE_DEPTH = "ims.dispatcher.queue_depth";
+
+    /**
+     * Time in microseconds spent dispatching a request
+     */
+    private static final Histogram sDispatchTime = MetricsRegistry.getInstance().getHistogram(
+            "ims.dispatcher.dispatch_us");
+
+    private final Gauge mQueueDepth = new Gauge() {
+        @Override
+        public long getValue() {
+            return mBuffer.size();
+        }
+    };
+
     /**
      * Constructor
      * 
@@ -90,6 +108,7 @@ public class ImsServiceDispatcher extends Thread {
 
         mImsModule = imsModule;
         mRcsSettings = rcsSettings;
+        MetricsRegistry.getInstance().registerGauge(METRIC_QUEUE_DEPTH, mQueueDepth);
     }
 
     /**
@@ -100,6 +119,7 @@ public class ImsServiceDispatcher extends Thread {
             logger.info("Terminate the multi-session manager");
         }
         mBuffer.close();
+        MetricsRegistry.getInstance().unregisterGauge(METRIC_QUEUE_DEPTH, mQueueDepth);
         if (logger.isActivated()) {
             logger.info("Multi-session manager has been terminated");
         }
@@ -125,7 +145,9 @@ public class ImsServiceDispatcher extends Thread {
         while ((request = (SipRequest) mBuffer.getObject()) != null) {
             try {
                 // Dispatch the received SIP request
+                long start = System.nanoTime();
                 dispatch(request, System.currentTimeMillis());
+                sDispatchTime.record((System.nanoTime() - start) / 1000);
             } catch (SipException e) {
                 logger.error("Failed to dispatch received SIP request! CallId=".concat(request
                         .getCallId()), e);
@@ -46,11 +46,14 @@ import javax2.sip.header.ContactHeader;
 import javax2.sip.message.Response;
 
 /**
- * IMS service session
+ * IMS service session. The processing of the session, implemented in {@link #run()}, is executed
+ * on the shared {@link SessionExecutor} once the session is started, and the {@link #start()},
+ * {@link #interrupt()} and {@link #isInterrupted()} methods keep the semantics they had when the
+ * session was a thread.
  * 
  * @author jexa7410
  */
-public abstract class ImsServiceSession extends Thread {
+public abstract class ImsServiceSession implements Runnable {
     /**
      * Session invitation status
      */
@@ -99,7 +102,7 @@ public abstract class ImsServiceSession extends Thread {
     private SipDialogPath mDialogPath;
 
     /**
-     * Authentication agent
+     * Authentication agent, created on first use and guarded by mProcessing
      */
     private SessionAuthenticationAgent mAuthenticationAgent;
 
@@ -157,6 +160,44 @@ public abstract class ImsServiceSession extends Thread {
      */
     private long mTimestamp;
 
+    /**
+     * Thread running the session processing, null when it is not running
+     */
+    private Thread mRunner;
+
+    /**
+     * Interrupt requested flag, guarded by mProcessing
+     */
+    private boolean mInterruptRequested = false;
+
+    private final Runnable mProcessing = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (this) {
+                mRunner = Thread.currentThread();
+                if (mInterruptRequested) {
+                    mRunner.interrupt();
+                }
+            }
+            try {
+                ImsServiceSession.this.run();
+
+            } catch (RuntimeException e) {
+                /*
+                 * Intentionally catch runtime exceptions as else it will abruptly end the thread
+                 * of the pool, the sessions are expected to handle their own failures.
+                 */
+                sLogger.error("Session processing failed!", e);
+            } finally {
+                synchronized (this) {
+                    mRunner = null;
+                }
+                /* Do not leave the interrupt of this session to the next one run by the thread */
+                Thread.interrupted();
+            }
+        }
+    };
+
     private static final Logger sLogger = Logger.getLogger(ImsServiceSession.class.getSimpleName());
 
     /**
@@ -174,7 +215,6 @@ public abstract class ImsServiceSession extends Thread {
         mImsService = imsService;
         mContact = contact;
         mRemoteUri = remoteUri;
-        mAuthenticationAgent = new SessionAuthenticationAgent(imsService.getImsModule());
         mUpdateMgr = new UpdateSessionManager(this, rcsSettings);
         mContactManager = contactManager;
         mRcsSettings = rcsSettings;
@@ -318,6 +358,34 @@ public abstract class ImsServiceSession extends Thread {
      */
     public abstract void startSession();
 
+    /**
+     * Executes the session processing on the shared session executor
+     */
+    public void start() {
+        SessionExecutor.getInstance().execute(mProcessing);
+    }
+
+    /**
+     * Interrupts the session processing, now if it is running or else as soon as it starts
+     */
+    public void interrupt() {
+        synchronized (mProcessing) {
+            mInterruptRequested = true;
+            if (mRunner != null) {
+                mRunner.interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return True if the session processing has been interrupted
+     */
+    public boolean isInterrupted() {
+        synchronized (mProcessing) {
+            return mInterruptRequested;
+        }
+    }
+
     /**
      * Removes the session
      */
@@ -422,7 +490,13 @@ public abstract class ImsServiceSession extends Thread {
      * @return Authentication agent
      */
     public SessionAuthenticationAgent getAuthenticationAgent() {
-        return mAuthenticationAgent;
+        synchronized (mProcessing) {
+            if (mAuthenticationAgent == null) {
+                /* Created on first use, once the session is about to send its first request */
+                mAuthenticationAgent = new SessionAuthenticationAgent(mImsService.getImsModule());
+            }
+            return mAuthenticationAgent;
+        }
     }
 
     /**
@@ -478,7 +552,14 @@ public abstract class ImsServiceSession extends Thread {
                     waitTime = mRingingPeriod;
                 }
                 long startTime = System.currentTimeMillis();
-                mWaitUserAnswer.wait(waitTime);
+                /* The user may take the whole ringing period, let another session run meanwhile */
+                SessionExecutor executor = SessionExecutor.getInstance();
+                executor.beginBlocking();
+                try {
+                    mWaitUserAnswer.wait(waitTime);
+                } finally {
+                    executor.endBlocking();
+                }
                 if (System.currentTimeMillis() - startTime <= waitTime) {
                     return mInvitationStatus;
                 } else {
@@ -993,17 +1074,15 @@ public abstract class ImsServiceSession extends Thread {
      * @throws SipException
      */
     public void sendInvite(SipRequest invite) throws SipException {
-        // Send INVITE request
-        SipTransactionContext ctx = getImsService()
-                .getImsModule()
-                .getSipManager()
-                .sendSipMessageAndWait(invite, getResponseTimeout(),
-                        new SipTransactionContext.INotifySipProvisionalResponse() {
-                            public void handle180Ringing(SipResponse response) {
-                                ImsServiceSession.this.handle180Ringing(response);
-                            }
-
-                        });
+        /* The remote may take the whole ringing period, let another session run meanwhile */
+        SessionExecutor executor = SessionExecutor.getInstance();
+        SipTransactionContext ctx;
+        executor.beginBlocking();
+        try {
+            ctx = sendInviteAndWait(invite);
+        } finally {
+            executor.endBlocking();
+        }
 
         // Analyze the received response
         if (ctx.isSipResponse()) {
@@ -1057,6 +1136,24 @@ public abstract class ImsServiceSession extends Thread {
         }
     }
 
+    /**
+     * Sends the INVITE request and waits for its final response
+     * 
+     * @param invite SIP INVITE
+     * @return Transaction context
+     * @throws SipException
+     */
+    protected SipTransactionContext sendInviteAndWait(SipRequest invite) throws SipException {
+        return getImsService().getImsModule().getSipManager()
+                .sendSipMessageAndWait(invite, getResponseTimeout(),
+                        new SipTransactionContext.INotifySipProvisionalResponse() {
+                            public void handle180Ringing(SipResponse response) {
+                                ImsServiceSession.this.handle180Ringing(response);
+                            }
+
+                        });
+    }
+
     /**
      * Handle 200 0K response
      * 
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.gsma.rcs.core.ims.service;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes the IMS service sessions on a shared pool of threads instead of one thread per
+ * session. The number of threads running sessions is bounded, the sessions started beyond that
+ * bound wait in the queue. A session about to wait for a long time, e.g. for the answer of the user
+ * to an invitation or for the end of an HTTP or MSRP file transfer, declares it with
+ * {@link #beginBlocking()} so that another thread may run a queued session meanwhile. Idle threads
+ * are released after a while.
+ */
+public class SessionExecutor {
+
+    /**
+     * Maximum number of threads running sessions which are not in a long wait
+     */
+    private static final int MAX_RUNNING_SESSIONS = 8;
+
+    /**
+     * Time in milliseconds an idle thread is kept
+     */
+    private static final long THREAD_KEEP_ALIVE = 30000;
+
+    private static final String THREAD_NAME_PREFIX = "ImsSession-";
+
+    private static volatile SessionExecutor sInstance;
+
+    /**
+     * Thread of the pool, tells the waits of the sessions apart from the ones of other threads
+     */
+    private static final class SessionThread extends Thread {
+
+        /**
+         * Number of nested long waits, only the outermost one is accounted
+         */
+        private int mBlockingDepth;
+
+        private SessionThread(Runnable runnable, String name) {
+            super(runnable, name);
+        }
+    }
+
+    private final ThreadPoolExecutor mExecutor;
+
+    /**
+     * Number of sessions in a long wait, guarded by the executor
+     */
+    private int mBlockedCount;
+
+    private SessionExecutor() {
+        final AtomicInteger threadCount = new AtomicInteger();
+        mExecutor = new ThreadPoolExecutor(MAX_RUNNING_SESSIONS, MAX_RUNNING_SESSIONS,
+                THREAD_KEEP_ALIVE, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        return new SessionThread(runnable, THREAD_NAME_PREFIX.concat(String
+                                .valueOf(threadCount.incrementAndGet())));
+                    }
+                });
+        mExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns the executor, created on first use
+     *
+     * @return Session executor
+     */
+    public static SessionExecutor getInstance() {
+        if (sInstance == null) {
+            synchronized (SessionExecutor.class) {
+                if (sInstance == null) {
+                    sInstance = new SessionExecutor();
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * Executes a session
+     *
+     * @param session Session processing
+     */
+    public void execute(Runnable session) {
+        mExecutor.execute(session);
+    }
+
+    /**
+     * Declares that the calling session starts a long wait, letting another thread run a queued
+     * session meanwhile. Does nothing if the caller is not a thread of the pool. Must be followed
+     * by {@link #endBlocking()}. Calls may be nested, e.g. a transfer retried from within itself.
+     */
+    public void beginBlocking() {
+        Thread thread = Thread.currentThread();
+        if (!(thread instanceof SessionThread) || ((SessionThread) thread).mBlockingDepth++ > 0) {
+            return;
+        }
+        synchronized (mExecutor) {
+            mBlockedCount++;
+            /* The maximum is raised first as it can't be lower than the core size */
+            mExecutor.setMaximumPoolSize(MAX_RUNNING_SESSIONS + mBlockedCount);
+            mExecutor.setCorePoolSize(MAX_RUNNING_SESSIONS + mBlockedCount);
+        }
+    }
+
+    /**
+     * Declares that the calling session ends the long wait started with {@link #beginBlocking()}.
+     * The thread in excess, if any, is released once idle.
+     */
+    public void endBlocking() {
+        Thread thread = Thread.currentThread();
+        if (!(thread instanceof SessionThread) || --((SessionThread) thread).mBlockingDepth > 0) {
+            return;
+        }
+        synchronized (mExecutor) {
+            mBlockedCount--;
+            mExecutor.setCorePoolSize(MAX_RUNNING_SESSIONS + mBlockedCount);
+            mExecutor.setMaximumPoolSize(MAX_RUNNING_SESSIONS + mBlockedCount);
+        }
+    }
+
+    /**
+     * @return the number of threads of the pool
+     */
+    public int getThreadCount() {
+        return mExecutor.getPoolSize();
+    }
+
+    /**
+     * @return the number of sessions waiting for a thread
+     */
+    public int getQueuedCount() {
+        return mExecutor.getQueue().size();
+    }
+}
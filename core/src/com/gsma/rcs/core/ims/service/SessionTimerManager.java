@@ -121,7 +121,7 @@ public class SessionTimerManager extends PeriodicRefresher {
     public void start(String refresher, long expirePeriod) {
         if (mLogger.isActivated()) {
             mLogger.debug(new StringBuilder("Start session timer for session ")
-                    .append(mSession.getId()).append(" (role=").append(refresher)
+                    .append(mSession.getSessionID()).append(" (role=").append(refresher)
                     .append(", expire=").append(expirePeriod).append("ms)").toString());
         }
 
@@ -153,7 +153,7 @@ public class SessionTimerManager extends PeriodicRefresher {
         if (UAC_ROLE.equals(mRefresher)) {
             startTimer(currentTime, mExpirePeriod, 0.5);
         } else {
-            startTimer(currentTime, mExpirePeriod);
+            startExpiryTimer(currentTime, mExpirePeriod);
         }
     }
 
@@ -162,7 +162,7 @@ public class SessionTimerManager extends PeriodicRefresher {
      */
     public void stop() {
         if (mLogger.isActivated()) {
-            mLogger.debug("Stop session timer for session " + mSession.getId());
+            mLogger.debug("Stop session timer for session " + mSession.getSessionID());
         }
         stopTimer();
     }
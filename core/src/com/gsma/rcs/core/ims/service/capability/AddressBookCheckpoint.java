@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.gsma.rcs.core.ims.service.capability;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Versions of the raw contacts of the native address book as of the last synchronization, so that
+ * the next synchronization only processes the raw contacts added or modified since then.
+ */
+public class AddressBookCheckpoint {
+
+    private Map<Long, Long> mVersions;
+
+    /**
+     * @return True if no synchronization was done since the checkpoint was created or reset
+     */
+    public synchronized boolean isEmpty() {
+        return mVersions == null;
+    }
+
+    /**
+     * Resets the checkpoint so that the next synchronization processes the whole address book
+     */
+    public synchronized void reset() {
+        mVersions = null;
+    }
+
+    /**
+     * Returns the raw contacts added or modified since the checkpoint
+     * 
+     * @param versions Current versions keyed by raw contact ID
+     * @return Raw contact IDs
+     */
+    public synchronized Set<Long> getChangedRawContacts(Map<Long, Long> versions) {
+        Set<Long> result = new HashSet<Long>();
+        for (Map.Entry<Long, Long> version : versions.entrySet()) {
+            Long rawContactId = version.getKey();
+            if (mVersions == null || !version.getValue().equals(mVersions.get(rawContactId))) {
+                result.add(rawContactId);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Moves the checkpoint to the versions of a completed synchronization
+     * 
+     * @param versions Versions keyed by raw contact ID
+     */
+    public synchronized void update(Map<Long, Long> versions) {
+        mVersions = new HashMap<Long, Long>(versions);
+    }
+
+    /**
+     * Moves the checkpoint to the versions of a synchronization except for the raw contacts which
+     * were not synchronized, so that the next synchronization processes them again
+     * 
+     * @param versions Versions keyed by raw contact ID
+     * @param unsynchronizedRawContacts Raw contact IDs left out of the checkpoint
+     */
+    public synchronized void update(Map<Long, Long> versions, Set<Long> unsynchronizedRawContacts) {
+        mVersions = new HashMap<Long, Long>(versions);
+        mVersions.keySet().removeAll(unsynchronizedRawContacts);
+    }
+}
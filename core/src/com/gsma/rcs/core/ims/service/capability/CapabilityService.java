@@ -35,6 +35,8 @@ import com.gsma.rcs.provider.contact.ContactManager;
 import com.gsma.rcs.provider.contact.ContactManagerException;
 import com.gsma.rcs.provider.settings.RcsSettings;
 import com.gsma.rcs.utils.logger.Logger;
+import com.gsma.rcs.utils.metrics.Counter;
+import com.gsma.rcs.utils.metrics.MetricsRegistry;
 import com.gsma.services.rcs.contact.ContactId;
 
 import java.io.IOException;
@@ -66,8 +68,19 @@ public class CapabilityService extends ImsService implements AddressBookEventLis
 
     private final static Logger sLogger = Logger.getLogger(CapabilityService.class.getSimpleName());
 
+    /**
+     * Contacts whose capabilities are requested, whether they are then refreshed or not
+     */
+    private static final Counter sRequestedContacts = MetricsRegistry.getInstance().getCounter(
+            "capability.contacts.requested");
+
+    private static final Counter sReceivedRequests = MetricsRegistry.getInstance().getCounter(
+            "capability.requests.received");
+
     private final ISyncContactTaskListener mISyncContactTaskListener;
 
+    private final AddressBookCheckpoint mAddressBookCheckpoint = new AddressBookCheckpoint();
+
     private static final int MAX_CONTACTS_TO_DISPLAY = 10;
 
     /**
@@ -114,8 +127,9 @@ public class CapabilityService extends ImsService implements AddressBookEventLis
         setServiceStarted(true);
         mOptionsManager.start();
 
-        /* Force a first capability check */
+        /* Force a first capability check of the whole address book */
         mSyncExecutor = Executors.newSingleThreadExecutor();
+        mAddressBookCheckpoint.reset();
         synchronizeContacts();
 
         if (sLogger.isActivated()) {
@@ -177,6 +191,7 @@ public class CapabilityService extends ImsService implements AddressBookEventLis
         if (sLogger.isActivated()) {
             sLogger.debug("Request capabilities for ".concat(contact.toString()));
         }
+        sRequestedContacts.increment();
         mOptionsManager.requestCapabilities(contact);
     }
 
@@ -194,6 +209,7 @@ public class CapabilityService extends ImsService implements AddressBookEventLis
                 sLogger.debug("Request capabilities for ".concat(Arrays.toString(contacts.toArray())));
             }
         }
+        sRequestedContacts.add(contacts.size());
         mOptionsManager.requestCapabilities(contacts);
     }
 
@@ -204,6 +220,7 @@ public class CapabilityService extends ImsService implements AddressBookEventLis
      * @throws SipException thrown if sending the capability response fails
      */
     public void receiveCapabilityRequest(SipRequest options) throws SipException {
+        sReceivedRequests.increment();
         mOptionsManager.receiveCapabilityRequest(options);
     }
 
@@ -219,7 +236,7 @@ public class CapabilityService extends ImsService implements AddressBookEventLis
 
     private void synchronizeContacts() {
         mSyncExecutor.execute(new SyncContactTask(mISyncContactTaskListener, this, mContactManager,
-                mAddressBookManager, mPollingManager, mOptionsManager));
+                mAddressBookManager, mPollingManager, mOptionsManager, mAddressBookCheckpoint));
     }
 
     /**
@@ -57,9 +57,11 @@ public class CapabilityUtils {
      * 
      * @param richcall Rich call supported
      * @param rcsSettings the accessor to RCS settings
+     * @param extensions Supported extensions
      * @return List of tags
      */
-    public static String[] getSupportedFeatureTags(boolean richcall, RcsSettings rcsSettings) {
+    public static String[] getSupportedFeatureTags(boolean richcall, RcsSettings rcsSettings,
+            Set<String> extensions) {
         List<String> tags = new ArrayList<String>();
         List<String> icsiTags = new ArrayList<String>();
         List<String> iariTags = new ArrayList<String>();
@@ -139,7 +141,7 @@ public class CapabilityUtils {
 
         // Extensions
         if (rcsSettings.isExtensionsAllowed()) {
-            for (String extension : rcsSettings.getSupportedRcsExtensions()) {
+            for (String extension : extensions) {
                 StringBuilder sb = new StringBuilder(FeatureTags.FEATURE_RCSE_EXTENSION)
                         .append(".").append(extension);
                 iariTags.add(sb.toString());
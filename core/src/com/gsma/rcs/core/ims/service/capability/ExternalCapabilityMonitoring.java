@@ -19,18 +19,13 @@
 package com.gsma.rcs.core.ims.service.capability;
 
 import com.gsma.rcs.core.ims.service.extension.ServiceExtensionManager;
-import com.gsma.rcs.platform.AndroidFactory;
 import com.gsma.rcs.provider.LocalContentResolver;
 import com.gsma.rcs.provider.settings.RcsSettings;
 import com.gsma.rcs.utils.logger.Logger;
-import com.gsma.services.rcs.capability.CapabilityService;
 
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
-import android.content.pm.ApplicationInfo;
-import android.content.pm.PackageManager;
-import android.os.Bundle;
 
 /**
  * External capability monitoring
@@ -58,44 +53,28 @@ public class ExternalCapabilityMonitoring extends BroadcastReceiver {
                 return;
             }
 
+            String packageName = intent.getData().getSchemeSpecificPart();
             if (Intent.ACTION_PACKAGE_ADDED.equals(action)) {
-                // Get extensions associated to the new application
-                PackageManager pm = context.getPackageManager();
-                String packageName = intent.getData().getSchemeSpecificPart();
-                ApplicationInfo appInfo = pm.getApplicationInfo(packageName,
-                        PackageManager.GET_META_DATA);
-                if (appInfo == null) {
-                    // No app info
-                    return;
-                }
-                Bundle appMeta = appInfo.metaData;
-                if (appMeta == null) {
-                    // No app meta
-                    return;
-                }
-
-                String exts = appMeta.getString(CapabilityService.INTENT_EXTENSIONS);
-                if (exts == null) {
-                    // No RCS extension
-                    return;
-                }
-
                 if (logger.isActivated()) {
-                    logger.debug("Add extensions " + exts + " for application " + uid);
+                    logger.debug("Add extensions for application " + uid);
                 }
 
-                // Add the new extension in the supported RCS extensions
+                // Add the extensions of the new or updated application
                 ServiceExtensionManager.getInstance(rcsSettings).addNewSupportedExtensions(
-                        AndroidFactory.getApplicationContext());
+                        context.getApplicationContext(), packageName);
             } else {
                 if (Intent.ACTION_PACKAGE_REMOVED.equals(action)) {
+                    if (intent.getBooleanExtra(Intent.EXTRA_REPLACING, false)) {
+                        /* The application is updated, it is added back right after */
+                        return;
+                    }
                     if (logger.isActivated()) {
                         logger.debug("Remove extensions for application " + uid);
                     }
 
                     // Remove the extensions in the supported RCS extensions
                     ServiceExtensionManager.getInstance(rcsSettings).removeSupportedExtensions(
-                            AndroidFactory.getApplicationContext());
+                            context.getApplicationContext(), packageName);
                 }
             }
         } catch (Exception e) {
@@ -23,7 +23,6 @@
 package com.gsma.rcs.core.ims.service.capability;
 
 import com.gsma.rcs.core.ims.ImsModule;
-import com.gsma.rcs.core.ims.network.sip.SipMessageFactory;
 import com.gsma.rcs.core.ims.network.sip.SipUtils;
 import com.gsma.rcs.core.ims.protocol.sip.SipException;
 import com.gsma.rcs.core.ims.protocol.sip.SipRequest;
@@ -31,6 +30,7 @@ import com.gsma.rcs.core.ims.protocol.sip.SipResponse;
 import com.gsma.rcs.core.ims.service.ContactInfo.RcsStatus;
 import com.gsma.rcs.core.ims.service.ContactInfo.RegistrationState;
 import com.gsma.rcs.core.ims.service.capability.OptionsRequestTask.IOptionsRequestTaskListener;
+import com.gsma.rcs.core.ims.service.extension.ServiceExtensionManager;
 import com.gsma.rcs.provider.contact.ContactManager;
 import com.gsma.rcs.provider.settings.RcsSettings;
 import com.gsma.rcs.utils.ContactUtil;
@@ -39,9 +39,12 @@ import com.gsma.rcs.utils.logger.Logger;
 import com.gsma.services.rcs.contact.ContactId;
 
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Capability discovery manager using options procedure
@@ -65,6 +68,31 @@ public class OptionsManager implements DiscoveryManager {
 
     private final ContactManager mContactManager;
 
+    private final ServiceExtensionManager mExtensionManager;
+
+    private final OptionsResponseCache mResponseCache;
+
+    /**
+     * Executor writing the capabilities received in OPTIONS requests
+     */
+    private ExecutorService mCapabilityWriter;
+
+    /**
+     * Capabilities received in OPTIONS requests and not written yet, keyed by contact so that only
+     * the latest capabilities of a contact are written
+     */
+    private final Map<ContactId, Capabilities> mPendingCapabilities =
+            new LinkedHashMap<ContactId, Capabilities>();
+
+    private boolean mWriteScheduled;
+
+    private final Runnable mCapabilityWriteTask = new Runnable() {
+        @Override
+        public void run() {
+            writePendingCapabilities();
+        }
+    };
+
     private final static Logger sLogger = Logger.getLogger(OptionsManager.class.getSimpleName());
 
     /**
@@ -78,6 +106,8 @@ public class OptionsManager implements DiscoveryManager {
         mImsModule = parent;
         mRcsSettings = rcsSettings;
         mContactManager = contactManager;
+        mExtensionManager = ServiceExtensionManager.getInstance(rcsSettings);
+        mResponseCache = new OptionsResponseCache(parent, rcsSettings, mExtensionManager);
     }
 
     /**
@@ -85,6 +115,7 @@ public class OptionsManager implements DiscoveryManager {
      */
     public void start() {
         mThreadPool = Executors.newFixedThreadPool(MAX_PROCESSING_THREADS);
+        mCapabilityWriter = Executors.newSingleThreadExecutor();
     }
 
     /**
@@ -92,6 +123,9 @@ public class OptionsManager implements DiscoveryManager {
      */
     public void stop() {
         mThreadPool.shutdownNow();
+        /* Let the received capabilities be written */
+        mCapabilityWriter.shutdown();
+        mResponseCache.clear();
     }
 
     /**
@@ -107,7 +141,8 @@ public class OptionsManager implements DiscoveryManager {
         }
         boolean richcall = mImsModule.getRichcallService().isCallConnectedWith(contact);
         OptionsRequestTask task = new OptionsRequestTask(mImsModule, contact,
-                CapabilityUtils.getSupportedFeatureTags(richcall, mRcsSettings), mRcsSettings,
+                CapabilityUtils.getSupportedFeatureTags(richcall, mRcsSettings,
+                        mExtensionManager.getSupportedExtensions()), mRcsSettings,
                 mContactManager, listener);
         if (mThreadPool.isShutdown()) {
             if (sLogger.isActivated()) {
@@ -200,32 +235,80 @@ public class OptionsManager implements DiscoveryManager {
         }
 
         // Create 200 OK response
-        String ipAddress = mImsModule.getCurrentNetworkInterface().getNetworkAccess()
-                .getIpAddress();
         boolean richcall = mImsModule.getRichcallService().isCallConnectedWith(contact);
-        SipResponse resp = SipMessageFactory.create200OkOptionsResponse(options, mImsModule
-                .getSipManager().getSipStack().getContact(),
-                CapabilityUtils.getSupportedFeatureTags(richcall, mRcsSettings),
-                CapabilityUtils.buildSdp(ipAddress, richcall, mRcsSettings));
+        SipResponse resp = mResponseCache.create200OkResponse(options, richcall);
 
         // Send 200 OK response
         mImsModule.getSipManager().sendSipResponse(resp);
         // Read features tag in the request
         Capabilities capabilities = CapabilityUtils.extractCapabilities(options);
 
-        // Update capabilities in database
-        if (capabilities.isImSessionSupported()) {
-            // RCS-e contact
-            mContactManager.setContactCapabilities(contact, capabilities, RcsStatus.RCS_CAPABLE,
-                    RegistrationState.ONLINE);
-        } else {
-            // Not a RCS-e contact
-            mContactManager.setContactCapabilities(contact, capabilities, RcsStatus.NOT_RCS,
-                    RegistrationState.UNKNOWN);
+        // Update capabilities in database and notify listener in background
+        queueCapabilities(contact, capabilities);
+    }
+
+    /**
+     * Queues the capabilities received from a contact to be written in background. Capabilities
+     * received while a write is pending replace the queued ones of the same contact.
+     * 
+     * @param contact Remote contact identifier
+     * @param capabilities Received capabilities
+     */
+    private void queueCapabilities(ContactId contact, Capabilities capabilities) {
+        synchronized (mPendingCapabilities) {
+            mPendingCapabilities.put(contact, capabilities);
+            if (mWriteScheduled) {
+                return;
+            }
+            mWriteScheduled = true;
+        }
+        ExecutorService writer = mCapabilityWriter;
+        if (writer != null) {
+            try {
+                writer.execute(mCapabilityWriteTask);
+                return;
+
+            } catch (RejectedExecutionException e) {
+                /* The manager is stopped */
+            }
         }
+        writePendingCapabilities();
+    }
 
-        // Notify listener
-        mImsModule.getCore().getListener().handleCapabilitiesNotification(contact, capabilities);
+    private void writePendingCapabilities() {
+        Map<ContactId, Capabilities> batch;
+        synchronized (mPendingCapabilities) {
+            batch = new LinkedHashMap<ContactId, Capabilities>(mPendingCapabilities);
+            mPendingCapabilities.clear();
+            mWriteScheduled = false;
+        }
+        if (sLogger.isActivated() && batch.size() > 1) {
+            sLogger.debug(new StringBuilder("Write capabilities of ").append(batch.size())
+                    .append(" contacts").toString());
+        }
+        for (Map.Entry<ContactId, Capabilities> entry : batch.entrySet()) {
+            ContactId contact = entry.getKey();
+            Capabilities capabilities = entry.getValue();
+            try {
+                if (capabilities.isImSessionSupported()) {
+                    // RCS-e contact
+                    mContactManager.setContactCapabilities(contact, capabilities,
+                            RcsStatus.RCS_CAPABLE, RegistrationState.ONLINE);
+                } else {
+                    // Not a RCS-e contact
+                    mContactManager.setContactCapabilities(contact, capabilities,
+                            RcsStatus.NOT_RCS, RegistrationState.UNKNOWN);
+                }
+                mImsModule.getCore().getListener()
+                        .handleCapabilitiesNotification(contact, capabilities);
+            } catch (RuntimeException e) {
+                /*
+                 * Intentionally catch runtime exceptions as else it will abruptly end the writer
+                 * thread and leave the capabilities of the other contacts unwritten.
+                 */
+                sLogger.error("Failed to write capabilities of ".concat(contact.toString()), e);
+            }
+        }
     }
 
     /**
@@ -238,15 +321,19 @@ public class OptionsManager implements DiscoveryManager {
     public void requestCapabilities(Set<ContactId> contacts, final IOptionsManagerListener callback) {
         IOptionsRequestTaskListener listener = null;
         final Set<ContactId> contactsToQuery = new HashSet<ContactId>(contacts);
+        final Set<ContactId> unansweredContacts = new HashSet<ContactId>();
         if (callback != null) {
             listener = new IOptionsRequestTaskListener() {
 
                 @Override
-                public void endOfOptionsRequestTask(ContactId contact) {
+                public void endOfOptionsRequestTask(ContactId contact, boolean answered) {
                     synchronized (contactsToQuery) {
                         contactsToQuery.remove(contact);
+                        if (!answered) {
+                            unansweredContacts.add(contact);
+                        }
                         if (contactsToQuery.isEmpty()) {
-                            callback.endOfCapabilitiesRequest();
+                            callback.endOfCapabilitiesRequest(unansweredContacts);
                         }
                     }
                 }
@@ -263,7 +350,9 @@ public class OptionsManager implements DiscoveryManager {
     public interface IOptionsManagerListener {
         /**
          * Callback to notify end of capabilities request
+         * 
+         * @param unansweredContacts Contacts whose request failed or timed out
          */
-        public void endOfCapabilitiesRequest();
+        public void endOfCapabilitiesRequest(Set<ContactId> unansweredContacts);
     }
 }
@@ -68,6 +68,11 @@ public class OptionsRequestTask implements Runnable {
 
     private final IOptionsRequestTaskListener mCallback;
 
+    /**
+     * Set once the response of the contact is handled
+     */
+    private boolean mAnswered;
+
     /**
      * Constructor
      * 
@@ -104,7 +109,7 @@ public class OptionsRequestTask implements Runnable {
         } finally {
             if (mCallback != null) {
                 try {
-                    mCallback.endOfOptionsRequestTask(mContact);
+                    mCallback.endOfOptionsRequestTask(mContact, mAnswered);
                 } catch (RuntimeException e) {
                     sLogger.error("Failed to notify end of options request for contact " + mContact
                             + " !", e);
@@ -168,15 +173,18 @@ public class OptionsRequestTask implements Runnable {
             if (ctx.getStatusCode() == 200) {
                 // 200 OK
                 handle200OK(ctx);
+                mAnswered = true;
             } else if (ctx.getStatusCode() == 407) {
                 // 407 Proxy Authentication Required
                 handle407Authentication(ctx);
             } else if ((ctx.getStatusCode() == 480) || (ctx.getStatusCode() == 408)) {
-                // User not registered
+                // User not registered, a timeout is not an answer of the contact
                 handleUserNotRegistered(ctx);
+                mAnswered = ctx.getStatusCode() == 480;
             } else if (ctx.getStatusCode() == 404) {
                 // User not found
                 handleUserNotFound(ctx);
+                mAnswered = true;
             } else {
                 // Other error response
                 handleError(new CapabilityError(CapabilityError.OPTIONS_FAILED, ctx.getStatusCode()
@@ -349,7 +357,8 @@ public class OptionsRequestTask implements Runnable {
          * Callback to notify end of options request task
          * 
          * @param contact ID
+         * @param answered True if the capabilities of the contact are known from the response
          */
-        public void endOfOptionsRequestTask(ContactId contact);
+        public void endOfOptionsRequestTask(ContactId contact, boolean answered);
     }
 }
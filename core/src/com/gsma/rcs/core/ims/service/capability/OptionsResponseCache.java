@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.gsma.rcs.core.ims.service.capability;
+
+import static com.gsma.rcs.utils.StringUtils.UTF8;
+
+import com.gsma.rcs.core.ims.ImsModule;
+import com.gsma.rcs.core.ims.network.sip.SipMessageFactory;
+import com.gsma.rcs.core.ims.network.sip.SipUtils;
+import com.gsma.rcs.core.ims.protocol.sip.SipInterface;
+import com.gsma.rcs.core.ims.protocol.sip.SipPayloadException;
+import com.gsma.rcs.core.ims.protocol.sip.SipRequest;
+import com.gsma.rcs.core.ims.protocol.sip.SipResponse;
+import com.gsma.rcs.core.ims.service.extension.ServiceExtensionManager;
+import com.gsma.rcs.provider.settings.RcsSettings;
+import com.gsma.rcs.utils.NetworkUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Set;
+
+import javax2.sip.header.AllowHeader;
+import javax2.sip.header.ContactHeader;
+import javax2.sip.header.ContentTypeHeader;
+import javax2.sip.header.Header;
+import javax2.sip.header.ServerHeader;
+
+/**
+ * Cache of the 200 OK responses to OPTIONS requests. The feature tags, the Contact, Allow and
+ * Server headers and the SDP of the response only depend on the state of the terminal, so they
+ * are built once and copied into the responses while the registration, the settings, the
+ * supported extensions, the local IP address and, during a call, the network type are unchanged.
+ * Only the headers taken from the request are filled in for each response.
+ */
+public class OptionsResponseCache {
+
+    /**
+     * Headers copied from a built response, in the order they were added
+     */
+    private static final String[] CACHED_HEADERS = new String[] {
+            ContactHeader.NAME, SipUtils.HEADER_ACCEPT_CONTACT, AllowHeader.NAME, ServerHeader.NAME
+    };
+
+    private static final class Entry {
+
+        private final int mRegistrationEpoch;
+
+        private final int mSettingsGeneration;
+
+        private final Set<String> mExtensions;
+
+        private final String mIpAddress;
+
+        private final boolean mVideoNetwork;
+
+        private final Header[] mHeaders;
+
+        private final ContentTypeHeader mContentType;
+
+        private final byte[] mSdp;
+
+        private Entry(int registrationEpoch, int settingsGeneration, Set<String> extensions,
+                String ipAddress, boolean videoNetwork, Header[] headers,
+                ContentTypeHeader contentType, byte[] sdp) {
+            mRegistrationEpoch = registrationEpoch;
+            mSettingsGeneration = settingsGeneration;
+            mExtensions = extensions;
+            mIpAddress = ipAddress;
+            mVideoNetwork = videoNetwork;
+            mHeaders = headers;
+            mContentType = contentType;
+            mSdp = sdp;
+        }
+
+        private boolean isValid(int registrationEpoch, int settingsGeneration,
+                Set<String> extensions, String ipAddress, boolean videoNetwork) {
+            /* The extensions are an immutable snapshot replaced on each change */
+            return mRegistrationEpoch == registrationEpoch
+                    && mSettingsGeneration == settingsGeneration && mExtensions == extensions
+                    && mVideoNetwork == videoNetwork
+                    && (mIpAddress == null ? ipAddress == null : mIpAddress.equals(ipAddress));
+        }
+    }
+
+    private final ImsModule mImsModule;
+
+    private final RcsSettings mRcsSettings;
+
+    private final ServiceExtensionManager mExtensionManager;
+
+    /**
+     * Entries outside and during a call with the remote contact
+     */
+    private final Entry[] mEntries = new Entry[2];
+
+    /**
+     * Constructor
+     * 
+     * @param imsModule IMS module
+     * @param rcsSettings RCS settings accessor
+     * @param extensionManager Service extension manager
+     */
+    public OptionsResponseCache(ImsModule imsModule, RcsSettings rcsSettings,
+            ServiceExtensionManager extensionManager) {
+        mImsModule = imsModule;
+        mRcsSettings = rcsSettings;
+        mExtensionManager = extensionManager;
+    }
+
+    /**
+     * Creates the 200 OK response to an OPTIONS request
+     * 
+     * @param options Received OPTIONS request
+     * @param richcall True if a call is connected with the remote contact
+     * @return SIP response
+     * @throws SipPayloadException
+     */
+    public SipResponse create200OkResponse(SipRequest options, boolean richcall)
+            throws SipPayloadException {
+        SipInterface sipStack = mImsModule.getSipManager().getSipStack();
+        int registrationEpoch = sipStack.getRegistrationEpoch();
+        int settingsGeneration = mRcsSettings.getGeneration();
+        Set<String> extensions = mExtensionManager.getSupportedExtensions();
+        String ipAddress = mImsModule.getCurrentNetworkInterface().getNetworkAccess()
+                .getIpAddress();
+        /* The network type only changes the response during a call, for video share */
+        boolean videoNetwork = richcall
+                && NetworkUtils.getNetworkAccessType() >= NetworkUtils.NETWORK_ACCESS_3G;
+        int index = richcall ? 1 : 0;
+        Entry entry;
+        synchronized (mEntries) {
+            entry = mEntries[index];
+        }
+        if (entry != null
+                && entry.isValid(registrationEpoch, settingsGeneration, extensions, ipAddress,
+                        videoNetwork)) {
+            return SipMessageFactory.create200OkOptionsResponse(options, entry.mHeaders,
+                    entry.mContentType, entry.mSdp);
+        }
+        String sdp = CapabilityUtils.buildSdp(ipAddress, richcall, mRcsSettings);
+        SipResponse response = SipMessageFactory.create200OkOptionsResponse(options,
+                sipStack.getContact(),
+                CapabilityUtils.getSupportedFeatureTags(richcall, mRcsSettings, extensions), sdp);
+        List<Header> headers = new ArrayList<Header>();
+        for (String name : CACHED_HEADERS) {
+            ListIterator<Header> it = response.getHeaders(name);
+            while (it.hasNext()) {
+                headers.add((Header) it.next().clone());
+            }
+        }
+        ContentTypeHeader contentType = (ContentTypeHeader) response
+                .getHeader(ContentTypeHeader.NAME);
+        entry = new Entry(registrationEpoch, settingsGeneration, extensions, ipAddress,
+                videoNetwork, headers.toArray(new Header[headers.size()]),
+                contentType == null ? null : (ContentTypeHeader) contentType.clone(),
+                sdp == null ? null : sdp.getBytes(UTF8));
+        synchronized (mEntries) {
+            mEntries[index] = entry;
+        }
+        return response;
+    }
+
+    /**
+     * Drops the cached responses
+     */
+    public void clear() {
+        synchronized (mEntries) {
+            mEntries[0] = null;
+            mEntries[1] = null;
+        }
+    }
+}
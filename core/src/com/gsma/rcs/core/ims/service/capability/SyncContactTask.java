@@ -31,13 +31,17 @@ import com.gsma.rcs.utils.logger.Logger;
 import com.gsma.services.rcs.contact.ContactId;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 
 /**
- * A task to request options to new contacts.
+ * A task to request options to new contacts. Only the raw contacts of the native address book
+ * added or modified since the previous synchronization are processed, the whole address book is
+ * read at the first synchronization or when most raw contacts have changed.
  */
 public class SyncContactTask implements Runnable {
 
@@ -53,8 +57,22 @@ public class SyncContactTask implements Runnable {
 
     private final ISyncContactTaskListener mSyncContactTaskListener;
 
+    private final AddressBookCheckpoint mCheckpoint;
+
+    /**
+     * Versions and raw contacts of the native address book read by the last aggregation
+     */
+    private Map<Long, Long> mVersions;
+
+    private Map<ContactId, Set<Long>> mNativeContacts;
+
     private static final int MAX_CONTACTS_TO_DISPLAY = 10;
 
+    /**
+     * The whole address book is read when more than this fraction of the raw contacts has changed
+     */
+    private static final int FULL_SYNC_RATIO = 4;
+
     private final static Logger sLogger = Logger.getLogger(SyncContactTask.class.getSimpleName());
 
     /**
@@ -66,12 +84,14 @@ public class SyncContactTask implements Runnable {
      * @param addressBookManager Address book manager instance
      * @param pollingManager Polling manager instance
      * @param optionsManager Options manager instance
+     * @param checkpoint Versions of the raw contacts as of the previous synchronization
      */
     public SyncContactTask(ISyncContactTaskListener syncContactTaskListener,
             AddressBookEventListener addressBookEventListener, ContactManager contactManager,
             AddressBookManager addressBookManager, PollingManager pollingManager,
-            OptionsManager optionsManager) {
+            OptionsManager optionsManager, AddressBookCheckpoint checkpoint) {
         super();
+        mCheckpoint = checkpoint;
         mSyncContactTaskListener = syncContactTaskListener;
         mAddressBookEventListener = addressBookEventListener;
         mContactManager = contactManager;
@@ -89,13 +109,16 @@ public class SyncContactTask implements Runnable {
             mPollingManager.stop();
 
             final Set<ContactId> treatedContacts = new HashSet<ContactId>();
+            final Set<ContactId> unansweredContacts = new HashSet<ContactId>();
             do {
                 final Set<ContactId> unqueriedContacts = aggregateNewContactsAndGetUnqueriedOnes();
                 unqueriedContacts.removeAll(treatedContacts);
                 if (unqueriedContacts.isEmpty()) {
                     /*
-                     * All contacts are synchronized.
+                     * All contacts are synchronized, except the unanswered ones which are left out
+                     * of the checkpoint so that they are queried again by the next synchronization.
                      */
+                    mCheckpoint.update(mVersions, getRawContactIds(unansweredContacts));
                     mSyncContactTaskListener.endOfSyncContactTask();
                     return;
                 }
@@ -110,24 +133,24 @@ public class SyncContactTask implements Runnable {
                                 .toString(unqueriedContacts.toArray())));
                     }
                 }
+                final CountDownLatch queried = new CountDownLatch(1);
                 mOptionsManager.requestCapabilities(unqueriedContacts,
                         new IOptionsManagerListener() {
 
                             @Override
-                            public void endOfCapabilitiesRequest() {
-                                synchronized (unqueriedContacts) {
-                                    unqueriedContacts.notify();
+                            public void endOfCapabilitiesRequest(Set<ContactId> unanswered) {
+                                synchronized (unansweredContacts) {
+                                    unansweredContacts.addAll(unanswered);
                                 }
+                                queried.countDown();
                             }
                         });
-                synchronized (unqueriedContacts) {
-                    try {
-                        unqueriedContacts.wait();
-                        treatedContacts.addAll(unqueriedContacts);
-                    } catch (InterruptedException e) {
-                        return;
-                    }
+                try {
+                    queried.await();
+                } catch (InterruptedException e) {
+                    return;
                 }
+                treatedContacts.addAll(unqueriedContacts);
             } while (true);
         } catch (ContactManagerException e) {
             sLogger.error("Failed to synchronize contacts!", e);
@@ -184,16 +207,59 @@ public class SyncContactTask implements Runnable {
         return result;
     }
 
+    private Set<Long> getRawContactIds(Set<ContactId> contacts) {
+        Set<Long> result = new HashSet<Long>();
+        synchronized (contacts) {
+            for (ContactId contact : contacts) {
+                Set<Long> rawContactIds = mNativeContacts.get(contact);
+                if (rawContactIds != null) {
+                    result.addAll(rawContactIds);
+                }
+            }
+        }
+        return result;
+    }
+
     private Set<ContactId> aggregateNewContactsAndGetUnqueriedOnes() throws ContactManagerException {
-        Map<ContactId, Set<Long>> nativeContacts = mContactManager.getAllRawIdsInPhoneAddressBook();
+        /*
+         * Read the versions before the contacts so that a change made meanwhile is seen by the
+         * next synchronization.
+         */
+        Map<Long, Long> versions = mContactManager.getRawContactVersionsInPhoneAddressBook();
+        Set<Long> changedRawContacts = mCheckpoint.getChangedRawContacts(versions);
+        Map<ContactId, Set<Long>> nativeContacts;
+        Set<ContactId> rcsContacts;
+        boolean fullSync = mCheckpoint.isEmpty()
+                || changedRawContacts.size() > versions.size() / FULL_SYNC_RATIO;
+        if (fullSync) {
+            if (sLogger.isDebugActivated()) {
+                sLogger.debug("Synchronize the whole address book");
+            }
+            nativeContacts = mContactManager.getAllRawIdsInPhoneAddressBook();
+            rcsContacts = mContactManager.getAllContactsFromRcsContactProvider();
+        } else {
+            if (sLogger.isDebugActivated()) {
+                sLogger.debug("Synchronize {} changed raw contacts", changedRawContacts.size());
+            }
+            if (changedRawContacts.isEmpty()) {
+                nativeContacts = new HashMap<ContactId, Set<Long>>();
+            } else {
+                nativeContacts = mContactManager.getRawIdsInPhoneAddressBook(changedRawContacts);
+            }
+            rcsContacts = new HashSet<ContactId>();
+            for (ContactId contact : nativeContacts.keySet()) {
+                if (mContactManager.isContactIdAssociatedWithRcsContactProvider(contact)) {
+                    rcsContacts.add(contact);
+                }
+            }
+        }
+
         /*
          * Remove my contact since already created in native address book and no need to query for
          * capabilities.
          */
         nativeContacts.remove(ImsModule.IMS_USER_PROFILE.getUsername());
 
-        Set<ContactId> rcsContacts = mContactManager.getAllContactsFromRcsContactProvider();
-
         /*
          * Get contacts for which RCS contact aggregation is not done.
          */
@@ -219,7 +285,10 @@ public class SyncContactTask implements Runnable {
             mContactManager.aggregateContactWithRcsRawContact(contactInfo);
         }
 
-        Set<ContactId> unqueriedContacts = nativeContacts.keySet();
+        mVersions = versions;
+        mNativeContacts = nativeContacts;
+
+        Set<ContactId> unqueriedContacts = new HashSet<ContactId>(nativeContacts.keySet());
         /* Remove all contacts known from RCS contact provider to keep only un-queried contacts */
         unqueriedContacts.removeAll(rcsContacts);
         return unqueriedContacts;
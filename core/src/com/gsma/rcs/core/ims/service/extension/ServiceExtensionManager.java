@@ -20,22 +20,39 @@ package com.gsma.rcs.core.ims.service.extension;
 
 import com.gsma.rcs.core.Core;
 import com.gsma.rcs.provider.settings.RcsSettings;
+import com.gsma.rcs.utils.CloseableUtils;
+import com.gsma.rcs.utils.ExtensionUtils;
 import com.gsma.rcs.utils.logger.Logger;
 import com.gsma.services.rcs.capability.CapabilityService;
 
 import android.content.Context;
 import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
+import android.content.pm.PackageManager.NameNotFoundException;
 import android.os.Bundle;
 import android.text.TextUtils;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * Service extension manager which adds supported extension after having verified some authorization
- * rules.
+ * rules. The extensions declared by each installed package are kept in a registry saved across
+ * process restarts and updated package by package, so that only the packages installed or updated
+ * since the last check have their meta data read. The supported extensions are published as an
+ * immutable set replaced as a whole when they change.
  * 
  * @author Jean-Marc AUFFRET
  * @author YPLO6403
@@ -47,12 +64,40 @@ public class ServiceExtensionManager {
      */
     private static volatile ServiceExtensionManager sInstance;
 
-    private static final String EXTENSION_SEPARATOR = ";";
+    private static final String REGISTRY_FILENAME = "extensions.registry";
+
+    private static final int FILE_FORMAT_VERSION = 1;
 
     private final static Logger sLogger = Logger.getLogger(ServiceExtensionManager.class
             .getSimpleName());
 
-    private RcsSettings mRcsSettings;
+    /**
+     * Extensions declared by a package
+     */
+    private static final class PackageEntry {
+
+        private final long mLastUpdateTime;
+
+        private final Set<String> mExtensions;
+
+        private PackageEntry(long lastUpdateTime, Set<String> extensions) {
+            mLastUpdateTime = lastUpdateTime;
+            mExtensions = extensions;
+        }
+    }
+
+    private final RcsSettings mRcsSettings;
+
+    /**
+     * Registry of the installed packages keyed by package name
+     */
+    private final Map<String, PackageEntry> mPackages = new HashMap<String, PackageEntry>();
+
+    private boolean mLoaded;
+
+    private boolean mDirty;
+
+    private volatile Set<String> mSupportedExtensions;
 
     /**
      * Empty constructor : prevent caller from creating multiple instances
@@ -61,6 +106,8 @@ public class ServiceExtensionManager {
      */
     private ServiceExtensionManager(RcsSettings rcsSettings) {
         mRcsSettings = rcsSettings;
+        mSupportedExtensions = Collections.unmodifiableSet(rcsSettings
+                .getSupportedRcsExtensions());
     }
 
     /**
@@ -70,93 +117,60 @@ public class ServiceExtensionManager {
      * @return the singleton instance.
      */
     public static ServiceExtensionManager getInstance(RcsSettings rcsSettings) {
-        synchronized (ServiceExtensionManager.class) {
-            if (sInstance == null) {
-                sInstance = new ServiceExtensionManager(rcsSettings);
+        if (sInstance == null) {
+            synchronized (ServiceExtensionManager.class) {
+                if (sInstance == null) {
+                    sInstance = new ServiceExtensionManager(rcsSettings);
+                }
             }
-            return sInstance;
         }
+        return sInstance;
     }
 
     /**
-     * Save supported extensions in database
-     * 
-     * @param supportedExts List of supported extensions
-     */
-    private void saveSupportedExtensions(Set<String> supportedExts) {
-        // Update supported extensions in database
-        mRcsSettings.setSupportedRcsExtensions(supportedExts);
-    }
-
-    /**
-     * Check if the extensions are valid. Each valid extension is saved in the cache.
+     * Returns the supported extensions. The set is immutable and replaced as a whole when the
+     * extensions change, so that it can be used as is without copy or lock.
      * 
-     * @param context Context
-     * @param supportedExts Set of supported extensions
-     * @param newExts Set of new extensions to be checked
+     * @return Set of supported extensions
      */
-    private void checkExtensions(Context context, Set<String> supportedExts, Set<String> newExts) {
-        // Check each new extension
-        for (String extension : newExts) {
-            if (isExtensionAuthorized(context, extension)) {
-                if (supportedExts.contains(extension)) {
-                    if (sLogger.isActivated()) {
-                        sLogger.debug("Extension " + extension + " is already in the list");
-                    }
-                } else {
-                    // Add the extension in the supported list if authorized and not yet in the list
-                    supportedExts.add(extension);
-                    if (sLogger.isActivated()) {
-                        sLogger.debug("Extension " + extension + " is added to the list");
-                    }
-                }
-            }
-        }
+    public Set<String> getSupportedExtensions() {
+        return mSupportedExtensions;
     }
 
     /**
-     * Update supported extensions at boot or upon install/remove of client application
+     * Update supported extensions at boot. The registry is checked against the installed packages
+     * and the meta data is only read for the packages installed or updated since the last check.
      * 
      * @param context Context
      */
     public void updateSupportedExtensions(Context context) {
-        boolean logActivated = sLogger.isActivated();
         if (context == null) {
             return;
         }
-        if (logActivated) {
+        if (sLogger.isActivated()) {
             sLogger.debug("Update supported extensions");
         }
         try {
-            Set<String> newSupportedExts = new HashSet<String>();
-            Set<String> oldSupportedExts = mRcsSettings.getSupportedRcsExtensions();
-            // Intent query on current installed activities
             PackageManager pm = context.getPackageManager();
-            List<ApplicationInfo> apps = pm.getInstalledApplications(PackageManager.GET_META_DATA);
-            for (ApplicationInfo appInfo : apps) {
-                Bundle appMeta = appInfo.metaData;
-                if (appMeta != null) {
-                    String exts = appMeta.getString(CapabilityService.INTENT_EXTENSIONS);
-                    if (!TextUtils.isEmpty(exts)) {
-                        if (logActivated) {
-                            sLogger.debug("Update supported extensions ".concat(exts));
-                        }
-                        checkExtensions(context, newSupportedExts, getExtensions(exts));
+            boolean changed;
+            synchronized (this) {
+                load(context);
+                Set<String> installedPackages = new HashSet<String>();
+                for (PackageInfo info : pm.getInstalledPackages(0)) {
+                    installedPackages.add(info.packageName);
+                    PackageEntry entry = mPackages.get(info.packageName);
+                    if (entry == null || entry.mLastUpdateTime != info.lastUpdateTime) {
+                        registerPackage(pm, info.packageName, info.lastUpdateTime);
                     }
                 }
+                if (mPackages.keySet().retainAll(installedPackages)) {
+                    mDirty = true;
+                }
+                changed = publish(context);
             }
-            if (oldSupportedExts.equals(newSupportedExts)) {
-                return;
-            }
-            // Update supported extensions in database
-            saveSupportedExtensions(newSupportedExts);
-            Core core = Core.getInstance();
-            if (core == null || !core.isStarted()) {
-                /* Stack is not started, don't process this event */
-                return;
+            if (changed) {
+                restartRegistration();
             }
-            core.getImsModule().getSipManager().getNetworkInterface().getRegistrationManager()
-                    .restart();
         } catch (RuntimeException e) {
             /*
              * Intentionally catch runtime exceptions as else it will abruptly end the thread and
@@ -187,70 +201,247 @@ public class ServiceExtensionManager {
     }
 
     /**
-     * Remove supported extensions
+     * Remove supported extensions of a removed package
      * 
      * @param context Context
+     * @param packageName Package name
      */
-    public void removeSupportedExtensions(Context context) {
-        updateSupportedExtensions(context);
+    public void removeSupportedExtensions(Context context, String packageName) {
+        try {
+            boolean changed;
+            synchronized (this) {
+                load(context);
+                if (mPackages.remove(packageName) != null) {
+                    mDirty = true;
+                }
+                changed = publish(context);
+            }
+            if (changed) {
+                restartRegistration();
+            }
+        } catch (RuntimeException e) {
+            /*
+             * Intentionally catch runtime exceptions as else it will abruptly end the thread and
+             * eventually bring the whole system down, which is not intended.
+             */
+            sLogger.error("Failed to remove supported extensions!", e);
+        }
     }
 
     /**
-     * Add supported extensions
+     * Add supported extensions of an installed or updated package
      * 
      * @param context Context
+     * @param packageName Package name
      */
-    public void addNewSupportedExtensions(Context context) {
-        updateSupportedExtensions(context);
+    public void addNewSupportedExtensions(Context context, String packageName) {
+        try {
+            PackageManager pm = context.getPackageManager();
+            boolean changed;
+            synchronized (this) {
+                load(context);
+                try {
+                    registerPackage(pm, packageName,
+                            pm.getPackageInfo(packageName, 0).lastUpdateTime);
+                } catch (NameNotFoundException e) {
+                    /* The package has been removed in the meantime */
+                    if (mPackages.remove(packageName) != null) {
+                        mDirty = true;
+                    }
+                }
+                changed = publish(context);
+            }
+            if (changed) {
+                restartRegistration();
+            }
+        } catch (RuntimeException e) {
+            /*
+             * Intentionally catch runtime exceptions as else it will abruptly end the thread and
+             * eventually bring the whole system down, which is not intended.
+             */
+            sLogger.error("Failed to add supported extensions!", e);
+        }
     }
 
     /**
-     * Extract set of extensions from String
+     * Reads the extensions declared in the meta data of a package and records them in the
+     * registry
      * 
-     * @param extensions String where extensions are concatenated with a ";" separator
-     * @return the set of extensions
+     * @param pm Package manager
+     * @param packageName Package name
+     * @param lastUpdateTime Last update time of the package
      */
-    public static Set<String> getExtensions(String extensions) {
-        Set<String> result = new HashSet<String>();
-        if (TextUtils.isEmpty(extensions)) {
-            return result;
+    private void registerPackage(PackageManager pm, String packageName, long lastUpdateTime) {
+        Set<String> extensions = Collections.emptySet();
+        try {
+            ApplicationInfo appInfo = pm.getApplicationInfo(packageName,
+                    PackageManager.GET_META_DATA);
+            Bundle appMeta = appInfo.metaData;
+            if (appMeta != null) {
+                String exts = appMeta.getString(CapabilityService.INTENT_EXTENSIONS);
+                if (!TextUtils.isEmpty(exts)) {
+                    if (sLogger.isActivated()) {
+                        sLogger.debug(new StringBuilder("Extensions ").append(exts)
+                                .append(" declared by ").append(packageName).toString());
+                    }
+                    extensions = getExtensions(exts);
+                }
+            }
+        } catch (NameNotFoundException e) {
+            if (mPackages.remove(packageName) != null) {
+                mDirty = true;
+            }
+            return;
+        }
+        mPackages.put(packageName, new PackageEntry(lastUpdateTime, extensions));
+        mDirty = true;
+    }
 
+    /**
+     * Saves the registry and publishes the authorized extensions if they have changed
+     * 
+     * @param context Context
+     * @return True if the supported extensions have changed
+     */
+    private boolean publish(Context context) {
+        save(context);
+        Set<String> declaredExts = new HashSet<String>();
+        for (PackageEntry entry : mPackages.values()) {
+            declaredExts.addAll(entry.mExtensions);
         }
-        String[] extensionList = extensions.split(ServiceExtensionManager.EXTENSION_SEPARATOR);
-        for (String extension : extensionList) {
-            if (!TextUtils.isEmpty(extension) && extension.trim().length() > 0) {
-                result.add(extension);
+        Set<String> supportedExts = new HashSet<String>();
+        for (String extension : declaredExts) {
+            if (isExtensionAuthorized(context, extension)) {
+                supportedExts.add(extension);
             }
         }
-        return result;
+        if (supportedExts.equals(mSupportedExtensions)) {
+            return false;
+        }
+        if (sLogger.isActivated()) {
+            sLogger.debug("Supported extensions ".concat(getExtensions(supportedExts)));
+        }
+        mSupportedExtensions = Collections.unmodifiableSet(supportedExts);
+        /* Update supported extensions in database */
+        mRcsSettings.setSupportedRcsExtensions(supportedExts);
+        return true;
+    }
+
+    private void restartRegistration() {
+        Core core = Core.getInstance();
+        if (core == null || !core.isStarted()) {
+            /* Stack is not started, don't process this event */
+            return;
+        }
+        core.getImsModule().getSipManager().getNetworkInterface().getRegistrationManager()
+                .restart();
     }
 
     /**
-     * Concatenate set of extensions into a string
+     * Loads the registry saved by a previous process, once
      * 
-     * @param extensions set of extensions
-     * @return String where extensions are concatenated with a ";" separator
+     * @param context Context
      */
-    public static String getExtensions(Set<String> extensions) {
-        if (extensions == null || extensions.isEmpty()) {
-            return "";
-
+    private void load(Context context) {
+        if (mLoaded) {
+            return;
+        }
+        mLoaded = true;
+        File file = new File(context.getFilesDir(), REGISTRY_FILENAME);
+        if (!file.exists()) {
+            return;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != FILE_FORMAT_VERSION) {
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String packageName = in.readUTF();
+                long lastUpdateTime = in.readLong();
+                int extensionCount = in.readInt();
+                Set<String> extensions = Collections.emptySet();
+                if (extensionCount > 0) {
+                    extensions = new HashSet<String>();
+                    for (int j = 0; j < extensionCount; j++) {
+                        extensions.add(in.readUTF());
+                    }
+                }
+                mPackages.put(packageName, new PackageEntry(lastUpdateTime, extensions));
+            }
+        } catch (IOException e) {
+            /* A corrupted file only costs reading the meta data of every package again */
+            mPackages.clear();
+            if (sLogger.isActivated()) {
+                sLogger.debug("Failed to load extension registry: ".concat(e.getMessage()));
+            }
+        } finally {
+            CloseableUtils.close(in);
         }
-        StringBuilder result = new StringBuilder();
-        int size = extensions.size();
-        for (String extension : extensions) {
-            if (extension.trim().length() == 0) {
-                --size;
-                continue;
+    }
 
+    /**
+     * Saves the registry if it has changed since the last save
+     * 
+     * @param context Context
+     */
+    private void save(Context context) {
+        if (!mDirty) {
+            return;
+        }
+        mDirty = false;
+        File file = new File(context.getFilesDir(), REGISTRY_FILENAME);
+        File tmpFile = new File(file.getPath().concat(".tmp"));
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+            out.writeInt(FILE_FORMAT_VERSION);
+            out.writeInt(mPackages.size());
+            for (Map.Entry<String, PackageEntry> entry : mPackages.entrySet()) {
+                PackageEntry value = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeLong(value.mLastUpdateTime);
+                out.writeInt(value.mExtensions.size());
+                for (String extension : value.mExtensions) {
+                    out.writeUTF(extension);
+                }
             }
-            result.append(extension);
-            if (--size != 0) {
-                // Not last item : add separator
-                result.append(EXTENSION_SEPARATOR);
+            out.close();
+            out = null;
+            if (!tmpFile.renameTo(file)) {
+                throw new IOException("Failed to rename ".concat(tmpFile.getPath()));
             }
+        } catch (IOException e) {
+            if (sLogger.isActivated()) {
+                sLogger.debug("Failed to save extension registry: ".concat(e.getMessage()));
+            }
+        } finally {
+            CloseableUtils.close(out);
         }
-        return result.toString();
+    }
+
+    /**
+     * Extract set of extensions from String
+     * 
+     * @param extensions String where extensions are concatenated with a ";" separator
+     * @return the set of extensions
+     * @see ExtensionUtils#getExtensions(String)
+     */
+    public static Set<String> getExtensions(String extensions) {
+        return ExtensionUtils.getExtensions(extensions);
+    }
+
+    /**
+     * Concatenate set of extensions into a string
+     * 
+     * @param extensions set of extensions
+     * @return String where extensions are concatenated with a ";" separator
+     * @see ExtensionUtils#getExtensions(Set)
+     */
+    public static String getExtensions(Set<String> extensions) {
+        return ExtensionUtils.getExtensions(extensions);
     }
 
 }
@@ -84,7 +84,7 @@ public class ChatActivityManager extends PeriodicRefresher {
         updateActivity();
 
         // Start a timer to check if the inactivity period has been reach or not each 10seconds
-        startTimer(System.currentTimeMillis(), timeout);
+        startExpiryTimer(System.currentTimeMillis(), timeout);
     }
 
     /**
@@ -120,7 +120,7 @@ public class ChatActivityManager extends PeriodicRefresher {
             mSession.handleChatInactivityEvent();
         } else {
             // Restart timer
-            startTimer(System.currentTimeMillis(), remainingPeriod);
+            startExpiryTimer(System.currentTimeMillis(), remainingPeriod);
         }
     }
 }
@@ -241,7 +241,9 @@ public abstract class GroupChatSession extends ChatSession {
     }
 
     /**
-     * Apply updates or additions to participants of the group chat.
+     * Apply updates or additions to participants of the group chat. Only the participants whose
+     * status changes are passed to the listeners, which persist them, so that the provider stays
+     * in sync with mParticipants without rewriting the participants left untouched.
      * 
      * @param participants Participants
      */
@@ -56,7 +56,9 @@ import java.io.ByteArrayInputStream;
 import java.text.ParseException;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.Vector;
 
 import javax2.sip.InvalidArgumentException;
@@ -196,6 +198,7 @@ public class ConferenceEventSubscribeManager extends PeriodicRefresher {
                     }
 
                     Map<ContactId, ParticipantStatus> participants = new HashMap<ContactId, ParticipantStatus>();
+                    Set<ContactId> roster = new HashSet<ContactId>();
                     Vector<User> users = conference.getUsers();
                     for (User user : users) {
                         String phonenumber = user.getEntity();
@@ -218,6 +221,7 @@ public class ConferenceEventSubscribeManager extends PeriodicRefresher {
                             // By-pass me
                             continue;
                         }
+                        roster.add(contact);
 
                         // Get state
                         String state = user.getState();
@@ -238,6 +242,17 @@ public class ConferenceEventSubscribeManager extends PeriodicRefresher {
                                 }
                             }
                         }
+                        if (state == null) {
+                            if (!user.isDeleted()) {
+                                /*
+                                 * Partial user element that does not change the status of the
+                                 * participant, e.g. only its display name
+                                 */
+                                continue;
+                            }
+                            /* User removed from the roster by a partial notification */
+                            state = User.STATE_DEPARTED;
+                        }
 
                         // Manage "pending-out" and "pending-in" status like "pending" status. See
                         // RFC 4575 dialing-in: Endpoint is
@@ -259,6 +274,20 @@ public class ConferenceEventSubscribeManager extends PeriodicRefresher {
 
                     }
 
+                    if (ConferenceInfoDocument.STATE_FULL.equals(conference.getState())) {
+                        /*
+                         * A full notification carries the whole roster: the connected participants
+                         * missing from it have left the conference. A partial notification only
+                         * carries the changed users, the other participants are left untouched.
+                         */
+                        for (ContactId contact : mSession.getParticipants(
+                                ParticipantStatus.CONNECTED).keySet()) {
+                            if (!roster.contains(contact)) {
+                                participants.put(contact, ParticipantStatus.DEPARTED);
+                            }
+                        }
+                    }
+
                     if (!participants.isEmpty()) {
                         updateParticipantStatus(participants, timestamp);
                     }
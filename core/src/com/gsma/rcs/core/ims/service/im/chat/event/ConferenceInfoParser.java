@@ -71,6 +71,8 @@ public class ConferenceInfoParser extends DefaultHandler {
 
     private boolean mMe;
 
+    private boolean mDeleted;
+
     private String mStatus;
 
     private String mDisplayName;
@@ -121,6 +123,7 @@ public class ConferenceInfoParser extends DefaultHandler {
         } else if (localName.equals("user")) {
             mEntity = attr.getValue("entity").trim();
             String yourown = attr.getValue("yourown");
+            mDeleted = ConferenceInfoDocument.STATE_DELETED.equals(attr.getValue("state"));
             mMe = false;
             mStatus = null;
             mDisplayName = null;
@@ -139,8 +142,8 @@ public class ConferenceInfoParser extends DefaultHandler {
     public void endElement(String namespaceURL, String localName, String qname) {
         if (localName.equals("user")) {
             if (mConference != null) {
-                User user = new User(mEntity, mMe, mStatus, mDisplayName, mDisconnectionMethod,
-                        mFailureReason);
+                User user = new User(mEntity, mMe, mDeleted, mStatus, mDisplayName,
+                        mDisconnectionMethod, mFailureReason);
                 mConference.addUser(user);
             }
         } else if (localName.equals("display-text")) {
@@ -47,6 +47,8 @@ public class User {
 
     private final boolean mMe;
 
+    private final boolean mDeleted;
+
     private final String mState;
 
     private final String mDisplayName;
@@ -55,10 +57,11 @@ public class User {
 
     private final String mFailureReason;
 
-    public User(String entity, boolean me, String state, String displayName,
+    public User(String entity, boolean me, boolean deleted, String state, String displayName,
             String disconnectionMethod, String failureReason) {
         mEntity = entity;
         mMe = me;
+        mDeleted = deleted;
         mState = state;
         mDisplayName = displayName;
         mDisconnectionMethod = disconnectionMethod;
@@ -73,6 +76,13 @@ public class User {
         return mMe;
     }
 
+    /**
+     * @return True if the user element is deleted from the roster by a partial notification
+     */
+    public boolean isDeleted() {
+        return mDeleted;
+    }
+
     public String getState() {
         return mState;
     }
@@ -92,6 +102,9 @@ public class User {
     public String toString() {
         StringBuilder result = new StringBuilder("user=").append(mEntity).append(", state=")
                 .append(mState);
+        if (mDeleted) {
+            result.append(", deleted");
+        }
         if (mDisconnectionMethod != null) {
             result.append(", method=").append(mDisconnectionMethod);
         }
@@ -24,6 +24,7 @@ package com.gsma.rcs.core.ims.service.im.filetransfer.http;
 
 import com.gsma.rcs.core.content.MmContent;
 import com.gsma.rcs.core.ims.network.sip.SipUtils;
+import com.gsma.rcs.core.ims.service.SessionExecutor;
 import com.gsma.rcs.platform.file.FileFactory;
 import com.gsma.rcs.provider.settings.RcsSettings;
 import com.gsma.rcs.utils.logger.Logger;
@@ -137,6 +138,21 @@ public class HttpDownloadManager extends HttpTransferManager {
      */
     public void downloadFile() throws FileNotFoundException, IOException,
             FileNotDownloadedException {
+        /* The transfer may take long, let another session run meanwhile */
+        SessionExecutor executor = SessionExecutor.getInstance();
+        executor.beginBlocking();
+        try {
+            doDownloadFile();
+        } finally {
+            executor.endBlocking();
+        }
+    }
+
+    /**
+     * Downloads the file, the wait being declared by downloadFile()
+     */
+    private void doDownloadFile() throws FileNotFoundException, IOException,
+            FileNotDownloadedException {
         if (sLogger.isActivated()) {
             sLogger.debug("Download file " + getHttpServerAddr());
         }
@@ -333,6 +349,21 @@ public class HttpDownloadManager extends HttpTransferManager {
      */
     public void resumeDownload() throws FileNotFoundException, IOException,
             FileNotDownloadedException {
+        /* The transfer may take long, let another session run meanwhile */
+        SessionExecutor executor = SessionExecutor.getInstance();
+        executor.beginBlocking();
+        try {
+            doResumeDownload();
+        } finally {
+            executor.endBlocking();
+        }
+    }
+
+    /**
+     * Resumes the download, the wait being declared by resumeDownload()
+     */
+    private void doResumeDownload() throws FileNotFoundException, IOException,
+            FileNotDownloadedException {
         if (mFileDownloadStream == null) {
             mFileDownloadStream = openStreamForFile(mFile);
         }
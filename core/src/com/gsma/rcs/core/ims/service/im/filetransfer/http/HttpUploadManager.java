@@ -30,6 +30,7 @@ import com.gsma.rcs.core.content.MmContent;
 import com.gsma.rcs.core.ims.network.sip.SipUtils;
 import com.gsma.rcs.core.ims.protocol.http.HttpAuthenticationAgent;
 import com.gsma.rcs.core.ims.protocol.sip.SipPayloadException;
+import com.gsma.rcs.core.ims.service.SessionExecutor;
 import com.gsma.rcs.core.ims.service.im.chat.ChatUtils;
 import com.gsma.rcs.platform.AndroidFactory;
 import com.gsma.rcs.provider.settings.RcsSettings;
@@ -182,6 +183,20 @@ public class HttpUploadManager extends HttpTransferManager {
      * @throws IOException
      */
     public byte[] uploadFile() throws IOException, URISyntaxException {
+        /* The transfer may take long, let another session run meanwhile */
+        SessionExecutor executor = SessionExecutor.getInstance();
+        executor.beginBlocking();
+        try {
+            return doUploadFile();
+        } finally {
+            executor.endBlocking();
+        }
+    }
+
+    /**
+     * Uploads the file, the wait being declared by uploadFile()
+     */
+    private byte[] doUploadFile() throws IOException, URISyntaxException {
         if (mLogger.isActivated()) {
             mLogger.debug("Upload file ".concat(mContent.getUri().toString()));
         }
@@ -657,6 +672,21 @@ public class HttpUploadManager extends HttpTransferManager {
      * @throws SipPayloadException
      */
     public byte[] resumeUpload() throws IOException, URISyntaxException, SipPayloadException {
+        /* The transfer may take long, let another session run meanwhile */
+        SessionExecutor executor = SessionExecutor.getInstance();
+        executor.beginBlocking();
+        try {
+            return doResumeUpload();
+        } finally {
+            executor.endBlocking();
+        }
+    }
+
+    /**
+     * Resumes the upload, the wait being declared by resumeUpload()
+     */
+    private byte[] doResumeUpload() throws IOException, URISyntaxException,
+            SipPayloadException {
         // Try to get upload info
         HttpResponse resp = null;
         resp = sendGetUploadInfo();
@@ -52,7 +52,7 @@ import javax2.sip.header.ExtensionHeader;
  * 
  * @author jexa7410
  */
-public abstract class GenericSipSession extends ImsServiceSession {
+public abstract class GenericSipSession extends ImsServiceSession implements SendQueue.Listener {
 
     private final String mFeatureTag;
 
@@ -159,6 +159,27 @@ public abstract class GenericSipSession extends ImsServiceSession {
      */
     public abstract void closeMediaSession();
 
+    /**
+     * Returns the queue of the data to be sent
+     * 
+     * @return Send queue
+     */
+    public abstract SendQueue getSendQueue();
+
+    @Override
+    public void onFlowControlChanged(boolean congested) {
+        if (sLogger.isActivated()) {
+            sLogger.debug(new StringBuilder("Send queue ")
+                    .append(congested ? "congested" : "drained").append(" for session ")
+                    .append(getSessionID()).toString());
+        }
+        ContactId contact = getRemoteContact();
+        for (int j = 0; j < getListeners().size(); j++) {
+            ((SipSessionListener) getListeners().get(j)).handleFlowControlChanged(contact,
+                    congested);
+        }
+    }
+
     /**
      * Handle error
      * 
@@ -0,0 +1,306 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.gsma.rcs.core.ims.service.sip;
+
+/**
+ * Bounded queue of the payloads sent by a multimedia session. The queue is a ring buffer allocated
+ * once, so that a session whose network stalls cannot exhaust the memory. When the queue is full a
+ * payload is either dropped or the caller waits for room, depending on the policy. The listener is
+ * told when the queue fills up past a high watermark and when it drains below a low watermark, so
+ * that the application can pause and resume sending. The time the payloads spend waiting to be sent
+ * is averaged for statistics.
+ */
+public class SendQueue {
+
+    /**
+     * Policy applied when a payload is queued while the queue is full
+     */
+    public enum Policy {
+
+        /**
+         * The oldest queued payload is dropped, suited to real time data where a stale payload has
+         * no value
+         */
+        DROP_OLDEST,
+
+        /**
+         * The new payload is dropped
+         */
+        DROP_NEWEST,
+
+        /**
+         * The caller waits for room, up to a timeout after which the payload is rejected
+         */
+        BLOCK
+    }
+
+    /**
+     * Flow control listener
+     */
+    public interface Listener {
+
+        /**
+         * Called when the queue fills up past the high watermark or drains below the low watermark.
+         * Called outside the lock of the queue, in the order the state changes.
+         *
+         * @param congested True if the sender should pause
+         */
+        public void onFlowControlChanged(boolean congested);
+    }
+
+    /**
+     * Maximum time in milliseconds a caller waits for room with the {@link Policy#BLOCK} policy
+     */
+    private static final long BLOCK_TIMEOUT = 5000;
+
+    /**
+     * Weight of the previous average when averaging the send latency
+     */
+    private static final int LATENCY_SMOOTHING = 8;
+
+    private final int mCapacity;
+
+    private final byte[][] mPayloads;
+
+    private final long[] mTimestamps;
+
+    private final int mHighWatermark;
+
+    private final int mLowWatermark;
+
+    private final Listener mListener;
+
+    /**
+     * Serializes the notifications of the listener
+     */
+    private final Object mListenerLock = new Object();
+
+    private Policy mPolicy;
+
+    /**
+     * Sequence of the next payload to take
+     */
+    private long mHead;
+
+    /**
+     * Sequence of the next payload to queue
+     */
+    private long mTail;
+
+    private boolean mClosed;
+
+    private boolean mCongested;
+
+    private boolean mNotifiedCongested;
+
+    private long mDroppedCount;
+
+    private long mAverageLatency;
+
+    private boolean mLatencySampled;
+
+    /**
+     * Constructor
+     *
+     * @param capacity Maximum number of queued payloads
+     * @param policy Policy applied when the queue is full
+     * @param listener Flow control listener
+     */
+    public SendQueue(int capacity, Policy policy, Listener listener) {
+        mCapacity = capacity;
+        mPayloads = new byte[capacity][];
+        mTimestamps = new long[capacity];
+        mHighWatermark = Math.max(1, capacity * 3 / 4);
+        mLowWatermark = capacity / 4;
+        mPolicy = policy;
+        mListener = listener;
+    }
+
+    /**
+     * Sets the policy applied when the queue is full
+     *
+     * @param policy Policy
+     */
+    public synchronized void setPolicy(Policy policy) {
+        mPolicy = policy;
+        /* Callers waiting for room must apply the new policy */
+        notifyAll();
+    }
+
+    /**
+     * Queues a payload
+     *
+     * @param payload Payload
+     * @return False if the payload was rejected because the queue is full or closed
+     */
+    public boolean offer(byte[] payload) {
+        synchronized (this) {
+            long deadline = 0;
+            while (!mClosed && mTail - mHead == mCapacity) {
+                switch (mPolicy) {
+                    case DROP_OLDEST:
+                        mPayloads[(int) (mHead++ % mCapacity)] = null;
+                        mDroppedCount++;
+                        break;
+                    case DROP_NEWEST:
+                        mDroppedCount++;
+                        return false;
+                    default:
+                        long now = System.currentTimeMillis();
+                        if (deadline == 0) {
+                            deadline = now + BLOCK_TIMEOUT;
+                        } else if (now >= deadline) {
+                            mDroppedCount++;
+                            return false;
+                        }
+                        try {
+                            wait(deadline - now);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            mDroppedCount++;
+                            return false;
+                        }
+                }
+            }
+            if (mClosed) {
+                return false;
+            }
+            int index = (int) (mTail % mCapacity);
+            mPayloads[index] = payload;
+            mTimestamps[index] = System.currentTimeMillis();
+            if (mTail++ == mHead) {
+                /* The sender waits only when the queue is empty */
+                notifyAll();
+            }
+            if (!mCongested && mTail - mHead >= mHighWatermark) {
+                mCongested = true;
+            }
+        }
+        notifyFlowControl();
+        return true;
+    }
+
+    /**
+     * Waits for payloads and removes them from the queue. The first payload is always removed, the
+     * next ones only while their total size with the first one does not exceed the given size.
+     *
+     * @param payloads Array filled with the payloads, its length is the maximum number of payloads
+     *            removed
+     * @param timestamps Array filled with the times the payloads were queued
+     * @param maxSize Maximum total size in bytes of the removed payloads
+     * @return Number of payloads removed, 0 if the queue is closed
+     */
+    public int take(byte[][] payloads, long[] timestamps, int maxSize) {
+        int count = 0;
+        synchronized (this) {
+            while (mHead == mTail) {
+                if (mClosed) {
+                    return 0;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return 0;
+                }
+            }
+            int size = 0;
+            do {
+                int index = (int) (mHead % mCapacity);
+                byte[] payload = mPayloads[index];
+                if (count > 0 && size + payload.length > maxSize) {
+                    break;
+                }
+                payloads[count] = payload;
+                timestamps[count] = mTimestamps[index];
+                mPayloads[index] = null;
+                mHead++;
+                size += payload.length;
+                count++;
+            } while (count < payloads.length && mHead != mTail);
+            if (mCongested && mTail - mHead <= mLowWatermark) {
+                mCongested = false;
+            }
+            /* Wake up the callers waiting for room */
+            notifyAll();
+        }
+        notifyFlowControl();
+        return count;
+    }
+
+    /**
+     * Records the send latency of a payload once sent
+     *
+     * @param timestamp Time the payload was queued
+     */
+    public synchronized void sent(long timestamp) {
+        long latency = System.currentTimeMillis() - timestamp;
+        if (mLatencySampled) {
+            mAverageLatency += (latency - mAverageLatency) / LATENCY_SMOOTHING;
+        } else {
+            mAverageLatency = latency;
+            mLatencySampled = true;
+        }
+    }
+
+    /**
+     * Closes the queue, dropping the queued payloads and waking up the waiting threads
+     */
+    public synchronized void close() {
+        mClosed = true;
+        while (mHead != mTail) {
+            mPayloads[(int) (mHead++ % mCapacity)] = null;
+        }
+        notifyAll();
+    }
+
+    /**
+     * @return Number of queued payloads
+     */
+    public synchronized int getSize() {
+        return (int) (mTail - mHead);
+    }
+
+    /**
+     * @return Average time in milliseconds the payloads took to be sent
+     */
+    public synchronized long getAverageLatency() {
+        return mAverageLatency;
+    }
+
+    /**
+     * @return Number of payloads dropped or rejected because the queue was full
+     */
+    public synchronized long getDroppedCount() {
+        return mDroppedCount;
+    }
+
+    private void notifyFlowControl() {
+        synchronized (mListenerLock) {
+            boolean congested;
+            synchronized (this) {
+                if (mCongested == mNotifiedCongested) {
+                    return;
+                }
+                congested = mCongested;
+                mNotifiedCongested = congested;
+            }
+            mListener.onFlowControlChanged(congested);
+        }
+    }
+}
@@ -59,4 +59,12 @@ public interface SipSessionListener extends ImsSessionListener {
      * @param sessionInvite
      */
     public void handleSessionInvited(ContactId contact, Intent sessionInvite);
+
+    /**
+     * The send queue of the session has filled up or drained
+     * 
+     * @param contact Remote contact
+     * @param congested True if the application should pause sending
+     */
+    public void handleFlowControlChanged(ContactId contact, boolean congested);
 }
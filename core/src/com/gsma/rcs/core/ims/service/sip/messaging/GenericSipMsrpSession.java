@@ -25,6 +25,7 @@ package com.gsma.rcs.core.ims.service.sip.messaging;
 import static com.gsma.rcs.utils.StringUtils.UTF8;
 
 import com.gsma.rcs.core.ims.network.sip.SipUtils;
+import com.gsma.rcs.core.ims.protocol.msrp.MsrpConstants;
 import com.gsma.rcs.core.ims.protocol.msrp.MsrpEventListener;
 import com.gsma.rcs.core.ims.protocol.msrp.MsrpException;
 import com.gsma.rcs.core.ims.protocol.msrp.MsrpManager;
@@ -36,6 +37,7 @@ import com.gsma.rcs.core.ims.protocol.sdp.SdpParser;
 import com.gsma.rcs.core.ims.protocol.sdp.SdpUtils;
 import com.gsma.rcs.core.ims.service.ImsService;
 import com.gsma.rcs.core.ims.service.sip.GenericSipSession;
+import com.gsma.rcs.core.ims.service.sip.SendQueue;
 import com.gsma.rcs.core.ims.service.sip.SipService;
 import com.gsma.rcs.core.ims.service.sip.SipSessionError;
 import com.gsma.rcs.core.ims.service.sip.SipSessionListener;
@@ -48,10 +50,12 @@ import com.gsma.services.rcs.contact.ContactId;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Vector;
 
 /**
- * Generic SIP MSRP session
+ * Generic SIP MSRP session. Messages are queued in a bounded {@link SendQueue} and sent by a sender
+ * thread, which sends the small queued messages back to back and waits once for their responses.
  * 
  * @author jexa7410
  */
@@ -61,6 +65,16 @@ public abstract class GenericSipMsrpSession extends GenericSipSession implements
      */
     public final static String MIME_TYPE = "text/plain";
 
+    /**
+     * Maximum number of queued messages
+     */
+    private static final int QUEUE_CAPACITY = 64;
+
+    /**
+     * Maximum number of messages sent back to back
+     */
+    private static final int MAX_BATCH_COUNT = 16;
+
     /**
      * MSRP manager
      */
@@ -71,6 +85,13 @@ public abstract class GenericSipMsrpSession extends GenericSipSession implements
      */
     private int mMaxMsgSize;
 
+    /**
+     * Queued messages
+     */
+    private final SendQueue mSendQueue;
+
+    private Thread mSenderThread;
+
     /**
      * The logger
      */
@@ -98,6 +119,7 @@ public abstract class GenericSipMsrpSession extends GenericSipSession implements
         String localIpAddress = getImsService().getImsModule().getCurrentNetworkInterface()
                 .getNetworkAccess().getIpAddress();
         mMsrpMgr = new MsrpManager(localIpAddress, localMsrpPort, rcsSettings);
+        mSendQueue = new SendQueue(QUEUE_CAPACITY, SendQueue.Policy.BLOCK, this);
     }
 
     /**
@@ -189,6 +211,7 @@ public abstract class GenericSipMsrpSession extends GenericSipSession implements
      * Close media session
      */
     public void closeMediaSession() {
+        mSendQueue.close();
         if (mMsrpMgr != null) {
             mMsrpMgr.closeSession();
             if (logger.isActivated()) {
@@ -197,6 +220,11 @@ public abstract class GenericSipMsrpSession extends GenericSipSession implements
         }
     }
 
+    @Override
+    public SendQueue getSendQueue() {
+        return mSendQueue;
+    }
+
     /**
      * Sends a message in real time
      * 
@@ -204,10 +232,57 @@ public abstract class GenericSipMsrpSession extends GenericSipSession implements
      * @throws MsrpException
      */
     public void sendMessage(byte[] content) throws MsrpException {
-        ByteArrayInputStream stream = new ByteArrayInputStream(content);
-        String msgId = IdGenerator.getIdentifier().replace('_', '-');
-        mMsrpMgr.sendChunks(stream, msgId, SipService.MIME_TYPE, content.length,
-                TypeMsrpChunk.Unknown);
+        if (!mSendQueue.offer(content)) {
+            throw new MsrpException("Send queue is full!");
+        }
+        synchronized (mSendQueue) {
+            if (mSenderThread == null) {
+                mSenderThread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        sendQueuedMessages();
+                    }
+                }, "MsrpSender");
+                mSenderThread.start();
+            }
+        }
+    }
+
+    private void sendQueuedMessages() {
+        byte[][] contents = new byte[MAX_BATCH_COUNT][];
+        long[] timestamps = new long[MAX_BATCH_COUNT];
+        String[] msgIds = new String[MAX_BATCH_COUNT];
+        int count;
+        while ((count = mSendQueue.take(contents, timestamps, MsrpConstants.CHUNK_MAX_SIZE)) > 0) {
+            for (int i = 0; i < count; i++) {
+                msgIds[i] = IdGenerator.getIdentifier().replace('_', '-');
+            }
+            try {
+                if (contents[0].length > MsrpConstants.CHUNK_MAX_SIZE) {
+                    /* A message larger than a chunk is always taken alone */
+                    mMsrpMgr.sendChunks(new ByteArrayInputStream(contents[0]), msgIds[0],
+                            SipService.MIME_TYPE, contents[0].length, TypeMsrpChunk.Unknown);
+                } else {
+                    mMsrpMgr.sendMessages(contents, msgIds, count, SipService.MIME_TYPE,
+                            TypeMsrpChunk.Unknown);
+                }
+                for (int i = 0; i < count; i++) {
+                    mSendQueue.sent(timestamps[i]);
+                }
+            } catch (MsrpException e) {
+                mSendQueue.close();
+                msrpTransferError(msgIds[0], e.getMessage(), TypeMsrpChunk.Unknown);
+            } catch (RuntimeException e) {
+                /*
+                 * Intentionally catch runtime exceptions as else it will abruptly end the sender
+                 * thread and leave the queued messages unsent without notice.
+                 */
+                logger.error("Failed to send messages!", e);
+                mSendQueue.close();
+                msrpTransferError(msgIds[0], e.getMessage(), TypeMsrpChunk.Unknown);
+            }
+            Arrays.fill(contents, null);
+        }
     }
 
     /**
@@ -25,65 +25,89 @@ package com.gsma.rcs.core.ims.service.sip.streaming;
 import com.gsma.rcs.core.ims.protocol.rtp.media.MediaException;
 import com.gsma.rcs.core.ims.protocol.rtp.media.MediaInput;
 import com.gsma.rcs.core.ims.protocol.rtp.media.MediaSample;
-import com.gsma.rcs.utils.FifoBuffer;
+import com.gsma.rcs.core.ims.service.sip.SendQueue;
 
 /**
- * Data player in charge of sending data payload to the network via the RTP protocol
+ * Data player in charge of sending data payload to the network via the RTP protocol. Payloads are
+ * queued in a bounded {@link SendQueue} which drops the oldest payload by default when the network
+ * does not keep up.
  * 
  * @author Jean-Marc AUFFRET
  */
 public class DataSender implements MediaInput {
     /**
-     * Received frames
+     * Maximum number of queued payloads
      */
-    private FifoBuffer mFifo;
+    private static final int QUEUE_CAPACITY = 64;
+
+    /**
+     * Queued payloads
+     */
+    private final SendQueue mQueue;
+
+    /**
+     * Buffers of the payload being read, only accessed by the RTP sender thread
+     */
+    private final byte[][] mPayload = new byte[1][];
+
+    private final long[] mTimestamp = new long[1];
 
     /**
      * Constructor
+     * 
+     * @param listener Flow control listener
      */
-    public DataSender() {
+    public DataSender(SendQueue.Listener listener) {
+        mQueue = new SendQueue(QUEUE_CAPACITY, SendQueue.Policy.DROP_OLDEST, listener);
     }
 
     /**
-     * Add a new video frame
+     * Returns the queue of the payloads to be sent
+     * 
+     * @return Send queue
+     */
+    public SendQueue getQueue() {
+        return mQueue;
+    }
+
+    /**
+     * Add a new data frame
      * 
      * @param data Data
-     * @param timestamp Timestamp
+     * @return False if the frame was dropped because the queue is full or closed
      */
-    public void addFrame(byte[] data, long timestamp) {
-        if (mFifo != null) {
-            MediaSample sample = new MediaSample(data, timestamp);
-            mFifo.addObject(sample);
-        }
+    public boolean addFrame(byte[] data) {
+        return mQueue.offer(data);
     }
 
     /**
      * Open the player
      */
     public void open() {
-        mFifo = new FifoBuffer();
+        /* The queue is allocated with the player */
     }
 
     /**
      * Close the player
      */
     public void close() {
-        if (mFifo != null) {
-            mFifo.close();
-            mFifo = null;
-        }
+        mQueue.close();
     }
 
     /**
      * Read a media sample (blocking method)
      * 
-     * @return Media sample
+     * @return Media sample or null if the player is closed
      * @throws MediaException
      */
     public MediaSample readSample() throws MediaException {
-        if (mFifo != null) {
-            return (MediaSample) mFifo.getObject();
+        if (mQueue.take(mPayload, mTimestamp, Integer.MAX_VALUE) == 0) {
+            return null;
         }
-        throw new MediaException("Media input not opened");
+        MediaSample sample = new MediaSample(mPayload[0], mTimestamp[0]);
+        mPayload[0] = null;
+        /* The sample is sent as soon as it is read, the latency is the time it was queued */
+        mQueue.sent(mTimestamp[0]);
+        return sample;
     }
 }
@@ -37,6 +37,7 @@ import com.gsma.rcs.core.ims.protocol.sdp.SdpParser;
 import com.gsma.rcs.core.ims.protocol.sdp.SdpUtils;
 import com.gsma.rcs.core.ims.service.ImsService;
 import com.gsma.rcs.core.ims.service.sip.GenericSipSession;
+import com.gsma.rcs.core.ims.service.sip.SendQueue;
 import com.gsma.rcs.core.ims.service.sip.SipSessionError;
 import com.gsma.rcs.core.ims.service.sip.SipSessionListener;
 import com.gsma.rcs.provider.contact.ContactManager;
@@ -66,7 +67,7 @@ public abstract class GenericSipRtpSession extends GenericSipSession implements
     /**
      * Data sender
      */
-    private DataSender mDataSender = new DataSender();
+    private final DataSender mDataSender = new DataSender(this);
 
     /**
      * Data receiver
@@ -218,6 +219,11 @@ public abstract class GenericSipRtpSession extends GenericSipSession implements
         }
     }
 
+    @Override
+    public SendQueue getSendQueue() {
+        return mDataSender.getQueue();
+    }
+
     /**
      * Sends a payload in real time
      * 
@@ -228,7 +234,10 @@ public abstract class GenericSipRtpSession extends GenericSipSession implements
         if (!mMediaSessionStarted) {
             throw new RtpException("unable to send payload!");
         }
-        mDataSender.addFrame(content, System.currentTimeMillis());
+        if (!mDataSender.addFrame(content) && sLogger.isActivated()) {
+            /* Real time payloads are not worth an error, the drop is counted by the queue */
+            sLogger.debug("Payload dropped: send queue is full");
+        }
     }
 
     /**
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gsma.rcs.platform.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * Android non-blocking datagram connection
+ */
+public class AndroidDatagramChannelConnection implements DatagramChannelConnection {
+
+    private DatagramChannel mChannel;
+
+    /**
+     * Remote address of the previous send and its resolved socket address
+     */
+    private String mSendAddr;
+
+    private InetSocketAddress mSendAddress;
+
+    private final ByteBuffer mReceiveBuffer = ByteBuffer
+            .allocate(DatagramConnection.DEFAULT_DATAGRAM_SIZE);
+
+    @Override
+    public void open() throws IOException {
+        open(0);
+    }
+
+    @Override
+    public void open(int port) throws IOException {
+        DatagramChannel channel = DatagramChannel.open();
+        try {
+            channel.configureBlocking(false);
+            channel.socket().bind(new InetSocketAddress(port));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        mChannel = channel;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (mChannel != null) {
+            mChannel.close();
+            mChannel = null;
+        }
+    }
+
+    @Override
+    public void send(String remoteAddr, int remotePort, byte[] data) throws IOException {
+        if (data == null) {
+            return;
+        }
+        send(remoteAddr, remotePort, data, 0, data.length);
+    }
+
+    @Override
+    public void send(String remoteAddr, int remotePort, byte[] data, int offset, int length)
+            throws IOException {
+        DatagramChannel channel = mChannel;
+        if (channel == null) {
+            throw new IOException("Connection not opened");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data, offset, length);
+        /* A full socket buffer drops the datagram, as real-time media is not worth queuing */
+        if (channel.isConnected()) {
+            channel.write(buffer);
+            return;
+        }
+        channel.send(buffer, getSocketAddress(remoteAddr, remotePort));
+    }
+
+    private synchronized InetSocketAddress getSocketAddress(String remoteAddr, int remotePort) {
+        InetSocketAddress address = mSendAddress;
+        if (address == null || address.getPort() != remotePort
+                || !remoteAddr.equals(mSendAddr)) {
+            address = new InetSocketAddress(remoteAddr, remotePort);
+            mSendAddress = address;
+            mSendAddr = remoteAddr;
+        }
+        return address;
+    }
+
+    @Override
+    public void connect(String remoteAddr, int remotePort) throws IOException {
+        DatagramChannel channel = mChannel;
+        if (channel == null) {
+            throw new IOException("Connection not opened");
+        }
+        channel.connect(getSocketAddress(remoteAddr, remotePort));
+    }
+
+    @Override
+    public byte[] receive() throws IOException {
+        DatagramChannel channel = mChannel;
+        if (channel == null) {
+            throw new IOException("Connection not opened");
+        }
+        synchronized (mReceiveBuffer) {
+            mReceiveBuffer.clear();
+            if (channel.receive(mReceiveBuffer) == null) {
+                return null;
+            }
+            mReceiveBuffer.flip();
+            byte[] data = new byte[mReceiveBuffer.remaining()];
+            mReceiveBuffer.get(data);
+            return data;
+        }
+    }
+
+    @Override
+    public String getLocalAddress() throws IOException {
+        DatagramChannel channel = mChannel;
+        if (channel == null || channel.socket().getLocalAddress() == null) {
+            throw new IOException("Connection not opened");
+        }
+        return channel.socket().getLocalAddress().getHostAddress();
+    }
+
+    @Override
+    public int getLocalPort() throws IOException {
+        DatagramChannel channel = mChannel;
+        if (channel == null) {
+            throw new IOException("Connection not opened");
+        }
+        return channel.socket().getLocalPort();
+    }
+
+    @Override
+    public DatagramChannel getChannel() {
+        return mChannel;
+    }
+}
@@ -39,6 +39,16 @@ public class AndroidDatagramConnection implements DatagramConnection {
      */
     private DatagramPacket packet = null;
 
+    /**
+     * Datagram Packet reused for the sends
+     */
+    private final DatagramPacket sendPacket = new DatagramPacket(new byte[0], 0);
+
+    /**
+     * Remote address of the previous send, for which the send packet holds the resolved address
+     */
+    private String sendAddr;
+
     /**
      * Connection timeout
      */
@@ -127,14 +137,47 @@ public class AndroidDatagramConnection implements DatagramConnection {
         if (data == null) {
             return;
         }
+        send(remoteAddr, remotePort, data, 0, data.length);
+    }
 
-        if (connection != null) {
-            InetAddress address = InetAddress.getByName(remoteAddr);
-            DatagramPacket packet = new DatagramPacket(data, data.length, address, remotePort);
-            connection.send(packet);
-        } else {
+    /**
+     * Send part of a byte array
+     * 
+     * @param remoteAddr Remote address
+     * @param remotePort Remote port
+     * @param data Data as byte array
+     * @param offset Offset of the data to send
+     * @param length Length of the data to send
+     * @throws IOException
+     */
+    public void send(String remoteAddr, int remotePort, byte[] data, int offset, int length)
+            throws IOException {
+        if (connection == null) {
+            throw new IOException("Connection not opened");
+        }
+        synchronized (sendPacket) {
+            if (!remoteAddr.equals(sendAddr)) {
+                sendPacket.setAddress(InetAddress.getByName(remoteAddr));
+                sendAddr = remoteAddr;
+            }
+            sendPacket.setPort(remotePort);
+            sendPacket.setData(data, offset, length);
+            connection.send(sendPacket);
+        }
+    }
+
+    /**
+     * Connect the datagram connection to a remote address
+     * 
+     * @param remoteAddr Remote address
+     * @param remotePort Remote port
+     * @throws IOException
+     */
+    public void connect(String remoteAddr, int remotePort) throws IOException {
+        if (connection == null) {
             throw new IOException("Connection not opened");
         }
+        connection.connect(InetAddress.getByName(remoteAddr), remotePort);
     }
 
     /**
@@ -115,6 +115,15 @@ public class AndroidNetworkFactory extends NetworkFactory {
         return new AndroidDatagramConnection(timeout);
     }
 
+    /**
+     * Create a non-blocking datagram connection to be registered to a selector
+     * 
+     * @return Datagram channel connection
+     */
+    public DatagramChannelConnection createDatagramChannelConnection() {
+        return new AndroidDatagramChannelConnection();
+    }
+
     /**
      * Create a socket client connection
      * 
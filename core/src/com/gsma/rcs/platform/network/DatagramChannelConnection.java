@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gsma.rcs.platform.network;
+
+import java.nio.channels.DatagramChannel;
+
+/**
+ * Datagram connection backed by a non-blocking channel, to be multiplexed with other connections
+ * by a selector. The receive method does not block and returns null when no datagram is pending.
+ */
+public interface DatagramChannelConnection extends DatagramConnection {
+
+    /**
+     * Returns the underlying channel
+     * 
+     * @return Channel or null if the connection is not opened
+     */
+    public DatagramChannel getChannel();
+}
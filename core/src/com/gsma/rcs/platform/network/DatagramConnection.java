@@ -63,6 +63,31 @@ public interface DatagramConnection {
      */
     public void send(String remoteAddr, int remotePort, byte[] data) throws IOException;
 
+    /**
+     * Send part of a byte array, the address being resolved only when it differs from the one of
+     * the previous send
+     * 
+     * @param remoteAddr Remote address
+     * @param remotePort Remote port
+     * @param data Data as byte array
+     * @param offset Offset of the data to send
+     * @param length Length of the data to send
+     * @throws IOException
+     */
+    public void send(String remoteAddr, int remotePort, byte[] data, int offset, int length)
+            throws IOException;
+
+    /**
+     * Connect the datagram connection to a remote address so that the address is resolved and
+     * checked once for all the subsequent sends. Only datagrams from that address are then
+     * received.
+     * 
+     * @param remoteAddr Remote address
+     * @param remotePort Remote port
+     * @throws IOException
+     */
+    public void connect(String remoteAddr, int remotePort) throws IOException;
+
     /**
      * Receive data
      * 
@@ -121,6 +121,13 @@ public abstract class NetworkFactory {
      */
     public abstract DatagramConnection createDatagramConnection(int timeout);
 
+    /**
+     * Create a non-blocking datagram connection to be registered to a selector
+     * 
+     * @return Datagram channel connection
+     */
+    public abstract DatagramChannelConnection createDatagramChannelConnection();
+
     /**
      * Create a socket client connection
      * 
@@ -17,6 +17,7 @@
 package com.gsma.rcs.provider;
 
 import com.gsma.rcs.utils.ContactUtil;
+import com.gsma.rcs.utils.DatabaseUtils;
 import com.gsma.rcs.utils.logger.Logger;
 import com.gsma.services.rcs.contact.ContactId;
 
@@ -30,12 +31,18 @@ import java.util.Set;
 
 /**
  * A common delete task for service objects stored in the database. By having information about the
- * scope of the deletion, it will retrieve all ids and delete the associated items, one by one or
- * all at once and finally callback on onCompleted. Will retry execution if the last one has
- * results, and if the scope doesnt expect exactly one.
+ * scope of the deletion, it will retrieve all ids and delete the associated items in batches, the
+ * lock being released between batches, and callback on onCompleted for each batch. Will retry
+ * execution if the last one has results, and if the scope doesnt expect exactly one.
  */
 public abstract class DeleteTask<T> implements Runnable {
 
+    /**
+     * Maximum number of ids deleted by one provider operation, kept below the SQLite limit of 999
+     * host parameters per statement.
+     */
+    private static final int MAX_IDS_PER_BATCH = 500;
+
     private final Uri mContentUri;
 
     private final String mSelection;
@@ -54,8 +61,6 @@ public abstract class DeleteTask<T> implements Runnable {
 
     private final Object mLock;
 
-    private boolean mDeleteAllAtOnce;
-
     protected final LocalContentResolver mLocalContentResolver;
 
     public abstract static class GroupedByContactId extends DeleteTask<ContactId> {
@@ -130,6 +135,11 @@ public abstract class DeleteTask<T> implements Runnable {
             onRowDelete(itemId);
         }
 
+        @Override
+        protected void onRowsDelete(String groupId, Set<String> itemIds) {
+            onRowsDelete(itemIds);
+        }
+
         @Override
         protected void onCompleted(String groupId, Set<String> deletedIds) {
             onCompleted(deletedIds);
@@ -137,6 +147,12 @@ public abstract class DeleteTask<T> implements Runnable {
 
         protected abstract void onRowDelete(String itemId);
 
+        protected void onRowsDelete(Set<String> itemIds) {
+            for (String itemId : itemIds) {
+                onRowDelete(itemId);
+            }
+        }
+
         protected abstract void onCompleted(Set<String> deletedIds);
 
         @Override
@@ -233,30 +249,60 @@ public abstract class DeleteTask<T> implements Runnable {
         }
     }
 
+    /**
+     * Deletes one batch of ids belonging to the same group. The items of the batch are first
+     * released without the lock, then the row callbacks and the provider delete are executed under
+     * the lock, and the completion callback is executed once the lock is released so that other
+     * writers can interleave between batches.
+     * 
+     * @param groupId key of the group
+     * @param batch ids to delete
+     */
+    private void deleteBatch(T groupId, Set<String> batch) {
+        onRowsDeleting(groupId, batch);
+        synchronized (mLock) {
+            onRowsDelete(groupId, batch);
+            if (mPathAppended) {
+                mLocalContentResolver.delete(mContentUri, null, null);
+            } else {
+                mLocalContentResolver.delete(mContentUri, DatabaseUtils.getSelectionIn(
+                        mColumnPrimaryKey, batch.size()),
+                        batch.toArray(new String[batch.size()]));
+            }
+        }
+        onCompleted(groupId, batch);
+    }
+
     /**
      * Execution can be run several times as incoming items can be deleted.
      * 
-     * @return the result of the execution as map (deleted ids mapped by group column)
+     * @return true if at least one item was deleted
      */
-    private Map<T, Set<String>> tryDelete() {
+    private boolean tryDelete() {
         Map<T, Set<String>> items = getGroupedItemIds();
         if (items == null || items.isEmpty()) {
-            return null;
+            return false;
         }
-        synchronized (mLock) {
-            for (T groupId : items.keySet()) {
-                for (String itemKey : items.get(groupId)) {
-                    onRowDelete(groupId, itemKey);
-                    if (!mDeleteAllAtOnce) {
-                        mLocalContentResolver.delete(getAppendedPathUri(itemKey), null, null);
-                    }
-                }
-                if (mDeleteAllAtOnce) {
-                    mLocalContentResolver.delete(mContentUri, mSelection, mSelectionArgs);
+        for (Map.Entry<T, Set<String>> group : items.entrySet()) {
+            T groupId = group.getKey();
+            Set<String> ids = group.getValue();
+            if (ids.size() <= MAX_IDS_PER_BATCH) {
+                deleteBatch(groupId, ids);
+                continue;
+            }
+            Set<String> batch = new HashSet<String>();
+            for (String id : ids) {
+                batch.add(id);
+                if (batch.size() == MAX_IDS_PER_BATCH) {
+                    deleteBatch(groupId, batch);
+                    batch = new HashSet<String>();
                 }
             }
+            if (!batch.isEmpty()) {
+                deleteBatch(groupId, batch);
+            }
         }
-        return items;
+        return true;
     }
 
     protected boolean isSingleRowDelete() {
@@ -280,52 +326,49 @@ public abstract class DeleteTask<T> implements Runnable {
     protected abstract void onRowDelete(T groupId, String itemId);
 
     /**
-     * Called after the delete is completed to report the ids deleted per group chatId or contact.
+     * Called without the lock before a batch of ids of the same group is deleted, so that the
+     * ongoing operations on its items are aborted before their rows disappear. Default
+     * implementation does nothing.
      * 
-     * @param chatOrContactId the key by which the ids are grouped by.
-     * @param deletedIds as a {@link Set} as required by the listeners.
+     * @param groupId key of the group
+     * @param itemIds ids of the batch
      */
-    protected abstract void onCompleted(T groupId, Set<String> deletedIds);
+    protected void onRowsDeleting(T groupId, Set<String> itemIds) {
+    }
 
     /**
-     * Set to true if delete on all the scope range at once. False is default. If not set, the task
-     * will delete each row one by one.
+     * Called under the lock before a batch of ids of the same group is deleted. Default
+     * implementation calls onRowDelete for each id, subclasses can override it to handle the whole
+     * batch at once.
      * 
-     * @param deleteAllAtOnce true if delete all at once
+     * @param groupId key of the group
+     * @param itemIds ids of the batch
      */
-    public void setAllAtOnce(boolean deleteAllAtOnce) {
-        mDeleteAllAtOnce = deleteAllAtOnce;
+    protected void onRowsDelete(T groupId, Set<String> itemIds) {
+        for (String itemId : itemIds) {
+            onRowDelete(groupId, itemId);
+        }
     }
 
+    /**
+     * Called after each deleted batch to report the ids deleted per group chatId or contact.
+     * 
+     * @param chatOrContactId the key by which the ids are grouped by.
+     * @param deletedIds as a {@link Set} as required by the listeners.
+     */
+    protected abstract void onCompleted(T groupId, Set<String> deletedIds);
+
     @Override
     public void run() {
-        Map<T, Set<String>> deletedIds = null;
         try {
-            deletedIds = tryDelete();
-            if (deletedIds != null && deletedIds.size() > 0 && !mPathAppended) {
-                Map<T, Set<String>> deletedIds2 = tryDelete();
-                if (deletedIds2 != null) {
-                    for (T groupId : deletedIds.keySet()) {
-                        if (deletedIds.containsKey(groupId)) {
-                            deletedIds.get(groupId).addAll(deletedIds2.get(groupId));
-                        } else {
-                            deletedIds.put(groupId, deletedIds2.get(groupId));
-                        }
-                    }
-                }
+            if (tryDelete() && !mPathAppended) {
+                tryDelete();
             }
         } catch (Exception e) {
             // TODO CR037 handle exception
             if (mLogger.isActivated()) {
                 mLogger.error("Exception occurred while deleting!", e);
             }
-        } finally {
-            if (deletedIds == null) {
-                return;
-            }
-            for (T groupId : deletedIds.keySet()) {
-                onCompleted(groupId, deletedIds.get(groupId));
-            }
         }
     }
 
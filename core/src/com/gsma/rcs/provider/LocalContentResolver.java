@@ -17,9 +17,12 @@
 package com.gsma.rcs.provider;
 
 import android.content.ContentProviderClient;
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
 import android.content.ContentResolver;
 import android.content.ContentValues;
 import android.content.Context;
+import android.content.OperationApplicationException;
 import android.database.Cursor;
 import android.net.Uri;
 
@@ -27,6 +30,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 
 /**
  * The purpose of this class is to allow query-/insert-/update-/delete- and stream operations
@@ -102,6 +106,48 @@ public class LocalContentResolver {
         }
     }
 
+    /**
+     * Handles requests to insert a set of new rows.
+     * 
+     * @param uri
+     * @param values
+     * @return The number of newly created rows
+     */
+    public final int bulkInsert(Uri uri, ContentValues[] values) {
+        ContentProviderClient contentProviderClient = null;
+        try {
+            contentProviderClient = mContentResolver.acquireContentProviderClient(uri);
+            return contentProviderClient.getLocalContentProvider().bulkInsert(uri, values);
+
+        } finally {
+            if (contentProviderClient != null) {
+                contentProviderClient.release();
+            }
+        }
+    }
+
+    /**
+     * Applies each of the operations to the provider of the authority.
+     * 
+     * @param authority
+     * @param operations
+     * @return The results of the applications
+     * @throws OperationApplicationException
+     */
+    public final ContentProviderResult[] applyBatch(String authority,
+            ArrayList<ContentProviderOperation> operations) throws OperationApplicationException {
+        ContentProviderClient contentProviderClient = null;
+        try {
+            contentProviderClient = mContentResolver.acquireContentProviderClient(authority);
+            return contentProviderClient.getLocalContentProvider().applyBatch(operations);
+
+        } finally {
+            if (contentProviderClient != null) {
+                contentProviderClient.release();
+            }
+        }
+    }
+
     /**
      * Handle requests to update one or more rows.
      * 
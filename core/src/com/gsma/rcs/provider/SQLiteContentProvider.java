@@ -0,0 +1,294 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.gsma.rcs.provider;
+
+import com.gsma.rcs.utils.metrics.Histogram;
+import com.gsma.rcs.utils.metrics.MetricsRegistry;
+
+import android.content.ContentProvider;
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.OperationApplicationException;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.net.Uri;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Mother class of the providers backed by a SQLite database. The database is opened in write-ahead
+ * logging mode so that queries from client applications are not blocked by the writes of the
+ * stack, bulk operations are executed in a single transaction, updates of one row by its id are
+ * executed through cached compiled statements and the time spent in queries and writes is
+ * recorded per provider in the metrics registry, as "db.<provider>.query_us" and
+ * "db.<provider>.write_us".
+ */
+public abstract class SQLiteContentProvider extends ContentProvider {
+
+    /**
+     * Synchronous level for workloads where the last commits may be lost on power failure (but
+     * never corrupted), e.g. message and transfer progress updates.
+     */
+    protected static final int SYNCHRONOUS_NORMAL = 1;
+
+    /**
+     * Synchronous level for workloads where every commit must be durable, e.g. settings.
+     */
+    protected static final int SYNCHRONOUS_FULL = 2;
+
+    /**
+     * Default page cache size in number of pages
+     */
+    protected static final int DEFAULT_CACHE_SIZE = 2000;
+
+    protected SQLiteOpenHelper mOpenHelper;
+
+    /**
+     * Compiled statements for the row updates by id, keyed by table and updated columns. The set
+     * of distinct updates is bounded by the code of the provider so no eviction is needed.
+     */
+    private final Map<String, SQLiteStatement> mCompiledUpdates = new HashMap<String, SQLiteStatement>();
+
+    /**
+     * Database the compiled statements belong to, they are dropped when the helper reopens it
+     */
+    private SQLiteDatabase mCompiledUpdatesDb;
+
+    private final Histogram mQueryTime = getHistogram("query_us");
+
+    private final Histogram mWriteTime = getHistogram("write_us");
+
+    /**
+     * Open helper that switches the database to write-ahead logging and applies the synchronous
+     * level and page cache size suited to the workload of the provider.
+     */
+    protected abstract static class TunedOpenHelper extends SQLiteOpenHelper {
+
+        private final int mSynchronous;
+
+        private final int mCacheSize;
+
+        /**
+         * Constructor
+         * 
+         * @param ctx the context
+         * @param name the database name
+         * @param version the database version
+         * @param synchronous the synchronous level
+         * @param cacheSize the page cache size in number of pages
+         */
+        protected TunedOpenHelper(Context ctx, String name, int version, int synchronous,
+                int cacheSize) {
+            super(ctx, name, null, version);
+            mSynchronous = synchronous;
+            mCacheSize = cacheSize;
+        }
+
+        @Override
+        public void onOpen(SQLiteDatabase db) {
+            super.onOpen(db);
+            if (db.isReadOnly()) {
+                return;
+            }
+            db.enableWriteAheadLogging();
+            db.execSQL(new StringBuilder("PRAGMA synchronous=").append(mSynchronous).toString());
+            db.execSQL(new StringBuilder("PRAGMA cache_size=").append(mCacheSize).toString());
+        }
+    }
+
+    protected abstract Cursor doQuery(Uri uri, String[] projection, String selection,
+            String[] selectionArgs, String sort);
+
+    protected abstract Uri doInsert(Uri uri, ContentValues initialValues);
+
+    protected abstract int doUpdate(Uri uri, ContentValues values, String selection,
+            String[] selectionArgs);
+
+    protected abstract int doDelete(Uri uri, String selection, String[] selectionArgs);
+
+    @Override
+    public final Cursor query(Uri uri, String[] projection, String selection,
+            String[] selectionArgs, String sort) {
+        long start = System.nanoTime();
+        try {
+            return doQuery(uri, projection, selection, selectionArgs, sort);
+
+        } finally {
+            mQueryTime.record((System.nanoTime() - start) / 1000);
+        }
+    }
+
+    @Override
+    public final Uri insert(Uri uri, ContentValues initialValues) {
+        long start = System.nanoTime();
+        try {
+            return doInsert(uri, initialValues);
+
+        } finally {
+            accountWrite(start);
+        }
+    }
+
+    @Override
+    public final int update(Uri uri, ContentValues values, String selection,
+            String[] selectionArgs) {
+        long start = System.nanoTime();
+        try {
+            return doUpdate(uri, values, selection, selectionArgs);
+
+        } finally {
+            accountWrite(start);
+        }
+    }
+
+    @Override
+    public final int delete(Uri uri, String selection, String[] selectionArgs) {
+        long start = System.nanoTime();
+        try {
+            return doDelete(uri, selection, selectionArgs);
+
+        } finally {
+            accountWrite(start);
+        }
+    }
+
+    @Override
+    public int bulkInsert(Uri uri, ContentValues[] values) {
+        long start = System.nanoTime();
+        SQLiteDatabase db = mOpenHelper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (ContentValues value : values) {
+                doInsert(uri, value);
+            }
+            db.setTransactionSuccessful();
+            return values.length;
+
+        } finally {
+            db.endTransaction();
+            accountWrite(start);
+        }
+    }
+
+    @Override
+    public ContentProviderResult[] applyBatch(ArrayList<ContentProviderOperation> operations)
+            throws OperationApplicationException {
+        SQLiteDatabase db = mOpenHelper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            ContentProviderResult[] results = super.applyBatch(operations);
+            db.setTransactionSuccessful();
+            return results;
+
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private Histogram getHistogram(String quantity) {
+        String provider = getClass().getSimpleName().replace("Provider", "")
+                .toLowerCase(Locale.US);
+        return MetricsRegistry.getInstance().getHistogram(
+                new StringBuilder("db.").append(provider).append('.').append(quantity)
+                        .toString());
+    }
+
+    private void accountWrite(long start) {
+        mWriteTime.record((System.nanoTime() - start) / 1000);
+    }
+
+    private SQLiteStatement getCompiledUpdate(String table, String idColumn, String[] columns) {
+        String key = new StringBuilder(table).append(':').append(Arrays.toString(columns))
+                .toString();
+        SQLiteDatabase db = mOpenHelper.getWritableDatabase();
+        synchronized (mCompiledUpdates) {
+            if (db != mCompiledUpdatesDb) {
+                for (SQLiteStatement statement : mCompiledUpdates.values()) {
+                    statement.close();
+                }
+                mCompiledUpdates.clear();
+                mCompiledUpdatesDb = db;
+            }
+            SQLiteStatement statement = mCompiledUpdates.get(key);
+            if (statement != null) {
+                return statement;
+            }
+            StringBuilder sql = new StringBuilder("UPDATE ").append(table).append(" SET ");
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    sql.append(',');
+                }
+                sql.append(columns[i]).append("=?");
+            }
+            sql.append(" WHERE ").append(idColumn).append("=?");
+            statement = db.compileStatement(sql.toString());
+            mCompiledUpdates.put(key, statement);
+            return statement;
+        }
+    }
+
+    private static void bindValue(SQLiteStatement statement, int index, Object value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else if (value instanceof String) {
+            statement.bindString(index, (String) value);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short
+                || value instanceof Byte) {
+            statement.bindLong(index, ((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            statement.bindLong(index, (Boolean) value ? 1 : 0);
+        } else if (value instanceof Double || value instanceof Float) {
+            statement.bindDouble(index, ((Number) value).doubleValue());
+        } else if (value instanceof byte[]) {
+            statement.bindBlob(index, (byte[]) value);
+        } else {
+            statement.bindString(index, value.toString());
+        }
+    }
+
+    /**
+     * Updates the row identified by its id through a cached compiled statement, which avoids
+     * compiling the same UPDATE for every status or progress change.
+     * 
+     * @param table the table name
+     * @param idColumn the id column
+     * @param id the id of the row
+     * @param values the updated values
+     * @return the number of updated rows
+     */
+    protected int updateById(String table, String idColumn, String id, ContentValues values) {
+        String[] columns = values.keySet().toArray(new String[values.size()]);
+        Arrays.sort(columns);
+        SQLiteStatement statement = getCompiledUpdate(table, idColumn, columns);
+        synchronized (statement) {
+            statement.clearBindings();
+            for (int i = 0; i < columns.length; i++) {
+                bindValue(statement, i + 1, values.get(columns[i]));
+            }
+            statement.bindString(columns.length + 1, id);
+            return statement.executeUpdateDelete();
+        }
+    }
+}
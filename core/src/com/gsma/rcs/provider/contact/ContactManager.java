@@ -310,6 +310,14 @@ public final class ContactManager {
             .append(KEY_RCS_STATUS).append("<>'").append(RcsStatus.NOT_RCS.toInt()).append("'")
             .toString();
 
+    private static final String WHERE_RCS_STATUS_RCS_AND_ONLINE = new StringBuilder(
+            WHERE_RCS_STATUS_RCS).append(" AND ").append(KEY_REGISTRATION_STATE).append("=")
+            .append(RegistrationState.ONLINE.toInt()).toString();
+
+    private static final String WHERE_RCS_STATUS_RCS_AND_SUPPORTING_EXTENSION = new StringBuilder(
+            WHERE_RCS_STATUS_RCS).append(" AND ")
+            .append(ContactProvider.WHERE_SUPPORTING_EXTENSION).toString();
+
     private static final String WHERE_RCS_STATUS_WITH_SOCIAL_PRESENCE = new StringBuilder(
             KEY_RCS_STATUS).append("<>'").append(RcsStatus.NO_INFO.toInt()).append("' AND ")
             .append(KEY_RCS_STATUS).append("<>'").append(RcsStatus.NOT_RCS.toInt())
@@ -342,6 +350,20 @@ public final class ContactManager {
     private static final String SEL_RAW_CONTACT = new StringBuilder(RawContacts._ID).append("=?")
             .toString();
 
+    private static final String[] PROJ_RAW_CONTACT_VERSION = {
+            RawContacts._ID, RawContacts.VERSION
+    };
+
+    private static final String SEL_RAW_CONTACT_NOT_DELETED_AND_NOT_RCS = new StringBuilder(
+            RawContacts.DELETED).append("=0 AND (").append(RawContacts.ACCOUNT_TYPE)
+            .append(" IS NULL OR ").append(RawContacts.ACCOUNT_TYPE).append("<>'")
+            .append(RcsAccountManager.ACCOUNT_MANAGER_TYPE).append("')").toString();
+
+    /**
+     * Maximum number of arguments of a selection, below the default limit of SQL variables
+     */
+    private static final int MAX_SELECTION_ARGS = 500;
+
     private static final String SEL_RAW_CONTACT_WITH_WEBLINK = new StringBuilder(
             Data.RAW_CONTACT_ID).append("=? AND ").append(Website.TYPE).append("=?").toString();
 
@@ -787,126 +809,184 @@ public final class ContactManager {
     }
 
     /**
-     * Get the contact info from the RCS contact provider
+     * Create a contact info with the default values of a contact unknown to the RCS contact
+     * provider
      * 
      * @param contact Contact
      * @return Contact info
      */
-    private ContactInfo getContactInfoFromProvider(ContactId contact) {
+    private static ContactInfo createDefaultContactInfo(ContactId contact) {
         ContactInfo infos = new ContactInfo();
         infos.setRcsStatus(RcsStatus.NO_INFO);
         infos.setRcsStatusTimestamp(System.currentTimeMillis());
         infos.setContact(contact);
-
-        CapabilitiesBuilder capaBuilder = new CapabilitiesBuilder();
-
-        PresenceInfo presenceInfo = new PresenceInfo();
-
         infos.setRegistrationState(RegistrationState.UNKNOWN);
-
         infos.setBlockingState(BlockingState.NOT_BLOCKED);
         infos.setBlockingTimestamp(INVALID_TIME);
+        return infos;
+    }
+
+    /**
+     * Fill a contact info from the current row of a cursor on the RCS contact provider
+     * 
+     * @param infos Contact info
+     * @param cursor Cursor positioned on the row of the contact
+     * @param withPhotoIcon True if the photo icon is to be read from its file
+     */
+    private void readContactInfo(ContactInfo infos, Cursor cursor, boolean withPhotoIcon) {
+        ContactId contact = infos.getContact();
+        CapabilitiesBuilder capaBuilder = new CapabilitiesBuilder();
+        PresenceInfo presenceInfo = new PresenceInfo();
+            // Get RCS display name
+            infos.setDisplayName(cursor.getString(cursor
+                    .getColumnIndexOrThrow(KEY_DISPLAY_NAME)));
+
+            // Get RCS Status
+            int rcsStatus = cursor.getInt(cursor.getColumnIndexOrThrow(KEY_RCS_STATUS));
+            infos.setRcsStatus(RcsStatus.valueOf(rcsStatus));
+
+            infos.setRcsStatusTimestamp(cursor.getLong(cursor
+                    .getColumnIndexOrThrow(KEY_RCS_STATUS_TIMESTAMP)));
+
+            int registrationState = cursor.getInt(cursor
+                    .getColumnIndexOrThrow(KEY_REGISTRATION_STATE));
+            infos.setRegistrationState(RegistrationState.valueOf(registrationState));
+
+            int blockingState = cursor.getInt(cursor.getColumnIndexOrThrow(KEY_BLOCKED));
+            infos.setBlockingState(BlockingState.valueOf(blockingState));
+
+            long blockingTimestamp = cursor.getLong(cursor
+                    .getColumnIndexOrThrow(KEY_BLOCKING_TIMESTAMP));
+            infos.setBlockingTimestamp(blockingTimestamp);
+
+            // Get Presence info
+            presenceInfo.setPresenceStatus(cursor.getString(cursor
+                    .getColumnIndexOrThrow(KEY_PRESENCE_SHARING_STATUS)));
+
+            FavoriteLink favLink = new FavoriteLink(cursor.getString(cursor
+                    .getColumnIndexOrThrow(KEY_PRESENCE_WEBLINK_NAME)), cursor.getString(cursor
+                    .getColumnIndexOrThrow(KEY_PRESENCE_WEBLINK_URL)));
+            presenceInfo.setFavoriteLink(favLink);
+            presenceInfo.setFavoriteLinkUrl(favLink.getLink());
+
+            presenceInfo.setFreetext(cursor.getString(cursor
+                    .getColumnIndexOrThrow(KEY_PRESENCE_FREE_TEXT)));
+
+            Geoloc geoloc = null;
+            if (Boolean.parseBoolean(cursor.getString(cursor
+                    .getColumnIndexOrThrow(KEY_PRESENCE_GEOLOC_EXIST_FLAG)))) {
+                geoloc = new Geoloc(cursor.getDouble(cursor
+                        .getColumnIndexOrThrow(KEY_PRESENCE_GEOLOC_LATITUDE)),
+                        cursor.getDouble(cursor
+                                .getColumnIndexOrThrow(KEY_PRESENCE_GEOLOC_LONGITUDE)),
+                        cursor.getDouble(cursor
+                                .getColumnIndexOrThrow(KEY_PRESENCE_GEOLOC_ALTITUDE)));
+            }
+            presenceInfo.setGeoloc(geoloc);
+
+            presenceInfo.setTimestamp(cursor.getLong(cursor
+                    .getColumnIndexOrThrow(KEY_PRESENCE_TIMESTAMP)));
+
+            if (withPhotoIcon
+                    && Boolean.parseBoolean(cursor.getString(cursor
+                            .getColumnIndexOrThrow(KEY_PRESENCE_PHOTO_EXIST_FLAG)))) {
+                presenceInfo.setPhotoIcon(getPhotoIcon(cursor, contact));
+            }
+
+            // Get the capabilities infos
+            capaBuilder.setCsVideo(isCapabilitySupported(cursor, KEY_CAPABILITY_CS_VIDEO));
+            capaBuilder.setFileTransfer(isCapabilitySupported(cursor,
+                    KEY_CAPABILITY_FILE_TRANSFER));
+            capaBuilder.setImageSharing(isCapabilitySupported(cursor,
+                    KEY_CAPABILITY_IMAGE_SHARE));
+            capaBuilder.setImSession(isCapabilitySupported(cursor, KEY_CAPABILITY_IM_SESSION));
+            capaBuilder.setPresenceDiscovery(isCapabilitySupported(cursor,
+                    KEY_CAPABILITY_PRESENCE_DISCOVERY));
+            capaBuilder.setSocialPresence(isCapabilitySupported(cursor,
+                    KEY_CAPABILITY_SOCIAL_PRESENCE));
+            capaBuilder.setGeolocationPush(isCapabilitySupported(cursor,
+                    KEY_CAPABILITY_GEOLOC_PUSH));
+            capaBuilder.setVideoSharing(isCapabilitySupported(cursor,
+                    KEY_CAPABILITY_VIDEO_SHARE));
+            capaBuilder.setFileTransferThumbnail(isCapabilitySupported(cursor,
+                    KEY_CAPABILITY_FILE_TRANSFER_THUMBNAIL));
+            capaBuilder.setFileTransferHttp(isCapabilitySupported(cursor,
+                    KEY_CAPABILITY_FILE_TRANSFER_HTTP));
+            capaBuilder.setIpVoiceCall(isCapabilitySupported(cursor,
+                    KEY_CAPABILITY_IP_VOICE_CALL));
+            capaBuilder.setIpVideoCall(isCapabilitySupported(cursor,
+                    KEY_CAPABILITY_IP_VIDEO_CALL));
+            capaBuilder.setFileTransferStoreForward(isCapabilitySupported(cursor,
+                    KEY_CAPABILITY_FILE_TRANSFER_SF));
+            capaBuilder.setGroupChatStoreForward(isCapabilitySupported(cursor,
+                    KEY_CAPABILITY_GROUP_CHAT_SF));
+            capaBuilder.setSipAutomata(isCapabilitySupported(cursor, KEY_AUTOMATA));
+            capaBuilder.setExtensions(ServiceExtensionManager.getExtensions(cursor
+                    .getString(cursor.getColumnIndexOrThrow(KEY_CAPABILITY_EXTENSIONS))));
+            capaBuilder.setTimestampOfLastRequest(cursor.getLong(cursor
+                    .getColumnIndexOrThrow(KEY_CAPABILITY_TIMESTAMP_LAST_REQUEST)));
+            capaBuilder.setTimestampOfLastResponse(cursor.getLong(cursor
+                    .getColumnIndexOrThrow(KEY_CAPABILITY_TIMESTAMP_LAST_RESPONSE)));
+        infos.setPresenceInfo(presenceInfo);
+        infos.setCapabilities(capaBuilder.build());
+    }
 
+    /**
+     * Get the contact info from the RCS contact provider
+     * 
+     * @param contact Contact
+     * @return Contact info
+     */
+    private ContactInfo getContactInfoFromProvider(ContactId contact) {
+        ContactInfo infos = createDefaultContactInfo(contact);
         Cursor cursor = null;
-        String contactNumber = contact.toString();
-        Uri uri = Uri.withAppendedPath(CONTENT_URI, contactNumber);
+        Uri uri = Uri.withAppendedPath(CONTENT_URI, contact.toString());
         try {
             cursor = mLocalContentResolver.query(uri, null, null, null, null);
             CursorUtil.assertCursorIsNotNull(cursor, uri);
             if (cursor.moveToFirst()) {
-                // Get RCS display name
-                infos.setDisplayName(cursor.getString(cursor
-                        .getColumnIndexOrThrow(KEY_DISPLAY_NAME)));
-
-                // Get RCS Status
-                int rcsStatus = cursor.getInt(cursor.getColumnIndexOrThrow(KEY_RCS_STATUS));
-                infos.setRcsStatus(RcsStatus.valueOf(rcsStatus));
-
-                infos.setRcsStatusTimestamp(cursor.getLong(cursor
-                        .getColumnIndexOrThrow(KEY_RCS_STATUS_TIMESTAMP)));
-
-                int registrationState = cursor.getInt(cursor
-                        .getColumnIndexOrThrow(KEY_REGISTRATION_STATE));
-                infos.setRegistrationState(RegistrationState.valueOf(registrationState));
-
-                int blockingState = cursor.getInt(cursor.getColumnIndexOrThrow(KEY_BLOCKED));
-                infos.setBlockingState(BlockingState.valueOf(blockingState));
-
-                long blockingTimestamp = cursor.getLong(cursor
-                        .getColumnIndexOrThrow(KEY_BLOCKING_TIMESTAMP));
-                infos.setBlockingTimestamp(blockingTimestamp);
-
-                // Get Presence info
-                presenceInfo.setPresenceStatus(cursor.getString(cursor
-                        .getColumnIndexOrThrow(KEY_PRESENCE_SHARING_STATUS)));
-
-                FavoriteLink favLink = new FavoriteLink(cursor.getString(cursor
-                        .getColumnIndexOrThrow(KEY_PRESENCE_WEBLINK_NAME)), cursor.getString(cursor
-                        .getColumnIndexOrThrow(KEY_PRESENCE_WEBLINK_URL)));
-                presenceInfo.setFavoriteLink(favLink);
-                presenceInfo.setFavoriteLinkUrl(favLink.getLink());
-
-                presenceInfo.setFreetext(cursor.getString(cursor
-                        .getColumnIndexOrThrow(KEY_PRESENCE_FREE_TEXT)));
-
-                Geoloc geoloc = null;
-                if (Boolean.parseBoolean(cursor.getString(cursor
-                        .getColumnIndexOrThrow(KEY_PRESENCE_GEOLOC_EXIST_FLAG)))) {
-                    geoloc = new Geoloc(cursor.getDouble(cursor
-                            .getColumnIndexOrThrow(KEY_PRESENCE_GEOLOC_LATITUDE)),
-                            cursor.getDouble(cursor
-                                    .getColumnIndexOrThrow(KEY_PRESENCE_GEOLOC_LONGITUDE)),
-                            cursor.getDouble(cursor
-                                    .getColumnIndexOrThrow(KEY_PRESENCE_GEOLOC_ALTITUDE)));
-                }
-                presenceInfo.setGeoloc(geoloc);
-
-                presenceInfo.setTimestamp(cursor.getLong(cursor
-                        .getColumnIndexOrThrow(KEY_PRESENCE_TIMESTAMP)));
+                readContactInfo(infos, cursor, true);
+            } else {
+                infos.setPresenceInfo(new PresenceInfo());
+                infos.setCapabilities(new CapabilitiesBuilder().build());
+            }
+            return infos;
 
-                if (Boolean.parseBoolean(cursor.getString(cursor
-                        .getColumnIndexOrThrow(KEY_PRESENCE_PHOTO_EXIST_FLAG)))) {
-                    presenceInfo.setPhotoIcon(getPhotoIcon(cursor, contact));
-                }
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+    }
 
-                // Get the capabilities infos
-                capaBuilder.setCsVideo(isCapabilitySupported(cursor, KEY_CAPABILITY_CS_VIDEO));
-                capaBuilder.setFileTransfer(isCapabilitySupported(cursor,
-                        KEY_CAPABILITY_FILE_TRANSFER));
-                capaBuilder.setImageSharing(isCapabilitySupported(cursor,
-                        KEY_CAPABILITY_IMAGE_SHARE));
-                capaBuilder.setImSession(isCapabilitySupported(cursor, KEY_CAPABILITY_IM_SESSION));
-                capaBuilder.setPresenceDiscovery(isCapabilitySupported(cursor,
-                        KEY_CAPABILITY_PRESENCE_DISCOVERY));
-                capaBuilder.setSocialPresence(isCapabilitySupported(cursor,
-                        KEY_CAPABILITY_SOCIAL_PRESENCE));
-                capaBuilder.setGeolocationPush(isCapabilitySupported(cursor,
-                        KEY_CAPABILITY_GEOLOC_PUSH));
-                capaBuilder.setVideoSharing(isCapabilitySupported(cursor,
-                        KEY_CAPABILITY_VIDEO_SHARE));
-                capaBuilder.setFileTransferThumbnail(isCapabilitySupported(cursor,
-                        KEY_CAPABILITY_FILE_TRANSFER_THUMBNAIL));
-                capaBuilder.setFileTransferHttp(isCapabilitySupported(cursor,
-                        KEY_CAPABILITY_FILE_TRANSFER_HTTP));
-                capaBuilder.setIpVoiceCall(isCapabilitySupported(cursor,
-                        KEY_CAPABILITY_IP_VOICE_CALL));
-                capaBuilder.setIpVideoCall(isCapabilitySupported(cursor,
-                        KEY_CAPABILITY_IP_VIDEO_CALL));
-                capaBuilder.setFileTransferStoreForward(isCapabilitySupported(cursor,
-                        KEY_CAPABILITY_FILE_TRANSFER_SF));
-                capaBuilder.setGroupChatStoreForward(isCapabilitySupported(cursor,
-                        KEY_CAPABILITY_GROUP_CHAT_SF));
-                capaBuilder.setSipAutomata(isCapabilitySupported(cursor, KEY_AUTOMATA));
-                capaBuilder.setExtensions(ServiceExtensionManager.getExtensions(cursor
-                        .getString(cursor.getColumnIndexOrThrow(KEY_CAPABILITY_EXTENSIONS))));
-                capaBuilder.setTimestampOfLastRequest(cursor.getLong(cursor
-                        .getColumnIndexOrThrow(KEY_CAPABILITY_TIMESTAMP_LAST_REQUEST)));
-                capaBuilder.setTimestampOfLastResponse(cursor.getLong(cursor
-                        .getColumnIndexOrThrow(KEY_CAPABILITY_TIMESTAMP_LAST_RESPONSE)));
-            }
-            infos.setPresenceInfo(presenceInfo);
-            infos.setCapabilities(capaBuilder.build());
-            return infos;
+    /**
+     * Get the infos of the contacts matching a selection in a single query on the RCS contact
+     * provider. The photo icons are not read from their files.
+     * 
+     * @param selection Selection
+     * @param selectionArgs Selection arguments
+     * @return List of contact infos
+     */
+    private List<ContactInfo> getContactInfosFromProvider(String selection,
+            String[] selectionArgs) {
+        List<ContactInfo> contactInfos = new ArrayList<ContactInfo>();
+        Cursor cursor = null;
+        try {
+            cursor = mLocalContentResolver.query(CONTENT_URI, null, selection, selectionArgs,
+                    null);
+            CursorUtil.assertCursorIsNotNull(cursor, CONTENT_URI);
+            if (!cursor.moveToFirst()) {
+                return contactInfos;
+            }
+            int contactColumnIdx = cursor.getColumnIndexOrThrow(KEY_CONTACT);
+            do {
+                /* Do no check validity of trusted data */
+                ContactInfo infos = createDefaultContactInfo(ContactUtil
+                        .createContactIdFromTrustedData(cursor.getString(contactColumnIdx)));
+                readContactInfo(infos, cursor, false);
+                contactInfos.add(infos);
+            } while (cursor.moveToNext());
+            return contactInfos;
 
         } finally {
             if (cursor != null) {
@@ -915,6 +995,37 @@ public final class ContactManager {
         }
     }
 
+    /**
+     * Get the infos of all the RCS contacts in a single query
+     * 
+     * @return List of contact infos
+     */
+    public List<ContactInfo> getRcsContactInfos() {
+        return getContactInfosFromProvider(WHERE_RCS_STATUS_RCS, null);
+    }
+
+    /**
+     * Get the infos of the RCS contacts which are registered in a single query
+     * 
+     * @return List of contact infos
+     */
+    public List<ContactInfo> getRcsContactInfosOnline() {
+        return getContactInfosFromProvider(WHERE_RCS_STATUS_RCS_AND_ONLINE, null);
+    }
+
+    /**
+     * Get the infos of the RCS contacts supporting an extension in a single indexed query
+     * 
+     * @param extension Service extension
+     * @return List of contact infos
+     */
+    public List<ContactInfo> getRcsContactInfosSupporting(String extension) {
+        return getContactInfosFromProvider(WHERE_RCS_STATUS_RCS_AND_SUPPORTING_EXTENSION,
+                new String[] {
+                    extension
+                });
+    }
+
     /**
      * Get the infos of a contact in the RCS contact provider
      * 
@@ -2932,38 +3043,106 @@ public final class ContactManager {
             cursor = mContentResolver.query(Phone.CONTENT_URI, PHONE_PROJ_NUMBER_RAW_CONTACT_ID,
                     null, null, null);
             CursorUtil.assertCursorIsNotNull(cursor, Phone.CONTENT_URI);
-            if (!cursor.moveToFirst()) {
-                return result;
+            readRawIdsByContact(cursor, result);
+            return result;
+
+        } finally {
+            if (cursor != null) {
+                cursor.close();
             }
-            int columnIndexPhoneNumber = cursor.getColumnIndexOrThrow(Phone.NUMBER);
-            int columnIndexRawContactId = cursor.getColumnIndexOrThrow(Phone.RAW_CONTACT_ID);
-            do {
-                String phoneNumber = cursor.getString(columnIndexPhoneNumber);
-                PhoneNumber validatedNumber = ContactUtil
-                        .getValidPhoneNumberFromAndroid(phoneNumber);
-                if (validatedNumber == null) {
-                    if (sLogger.isActivated()) {
-                        sLogger.warn("Cannot parse phone number '" + phoneNumber + "'");
-                    }
-                    continue;
+        }
+    }
+
+    /**
+     * Gets the raw IDs of the contacts of the native address book having a phone number in a set
+     * of raw contacts
+     * 
+     * @param rawContactIds the raw contact IDs
+     * @return map of contact IDs associated with their raw contact IDs among the given ones
+     */
+    public Map<ContactId, Set<Long>> getRawIdsInPhoneAddressBook(Set<Long> rawContactIds) {
+        Map<ContactId, Set<Long>> result = new HashMap<ContactId, Set<Long>>();
+        Long[] ids = rawContactIds.toArray(new Long[rawContactIds.size()]);
+        /* Query by chunks to stay below the limit of SQL variables */
+        for (int start = 0; start < ids.length; start += MAX_SELECTION_ARGS) {
+            int count = Math.min(MAX_SELECTION_ARGS, ids.length - start);
+            StringBuilder selection = new StringBuilder(Phone.RAW_CONTACT_ID).append(" IN (");
+            String[] selectionArgs = new String[count];
+            for (int i = 0; i < count; i++) {
+                selection.append(i == 0 ? "?" : ",?");
+                selectionArgs[i] = String.valueOf(ids[start + i]);
+            }
+            selection.append(')');
+            Cursor cursor = null;
+            try {
+                cursor = mContentResolver.query(Phone.CONTENT_URI,
+                        PHONE_PROJ_NUMBER_RAW_CONTACT_ID, selection.toString(), selectionArgs,
+                        null);
+                CursorUtil.assertCursorIsNotNull(cursor, Phone.CONTENT_URI);
+                readRawIdsByContact(cursor, result);
+
+            } finally {
+                if (cursor != null) {
+                    cursor.close();
                 }
-                Long rawContactId = cursor.getLong(columnIndexRawContactId);
-                if (ContactManager.INVALID_ID == rawContactId) {
-                    if (sLogger.isActivated()) {
-                        sLogger.warn("Phone number '" + phoneNumber + "' has no raw contact ID");
-                    }
-                    continue;
+            }
+        }
+        return result;
+    }
+
+    private void readRawIdsByContact(Cursor cursor, Map<ContactId, Set<Long>> result) {
+        if (!cursor.moveToFirst()) {
+            return;
+        }
+        int columnIndexPhoneNumber = cursor.getColumnIndexOrThrow(Phone.NUMBER);
+        int columnIndexRawContactId = cursor.getColumnIndexOrThrow(Phone.RAW_CONTACT_ID);
+        do {
+            String phoneNumber = cursor.getString(columnIndexPhoneNumber);
+            PhoneNumber validatedNumber = ContactUtil.getValidPhoneNumberFromAndroid(phoneNumber);
+            if (validatedNumber == null) {
+                if (sLogger.isActivated()) {
+                    sLogger.warn("Cannot parse phone number '" + phoneNumber + "'");
                 }
-                ContactId contact = ContactUtil.createContactIdFromValidatedData(validatedNumber);
-                if (result.containsKey(contact)) {
-                    Set<Long> rawIds = result.get(contact);
-                    rawIds.add(rawContactId);
-                    result.put(contact, rawIds);
-                } else {
-                    Set<Long> rawIds = new HashSet<Long>();
-                    rawIds.add(rawContactId);
-                    result.put(contact, rawIds);
+                continue;
+            }
+            Long rawContactId = cursor.getLong(columnIndexRawContactId);
+            if (ContactManager.INVALID_ID == rawContactId) {
+                if (sLogger.isActivated()) {
+                    sLogger.warn("Phone number '" + phoneNumber + "' has no raw contact ID");
                 }
+                continue;
+            }
+            ContactId contact = ContactUtil.createContactIdFromValidatedData(validatedNumber);
+            Set<Long> rawIds = result.get(contact);
+            if (rawIds == null) {
+                rawIds = new HashSet<Long>();
+                result.put(contact, rawIds);
+            }
+            rawIds.add(rawContactId);
+        } while (cursor.moveToNext());
+    }
+
+    /**
+     * Gets the version of the raw contacts of the native address book, excluding the RCS raw
+     * contacts and the ones marked as deleted. The version of a raw contact is increased by the
+     * contacts provider on every change of the raw contact or of its data.
+     * 
+     * @return map of raw contact IDs associated with their version
+     */
+    public Map<Long, Long> getRawContactVersionsInPhoneAddressBook() {
+        Map<Long, Long> result = new HashMap<Long, Long>();
+        Cursor cursor = null;
+        try {
+            cursor = mContentResolver.query(RawContacts.CONTENT_URI, PROJ_RAW_CONTACT_VERSION,
+                    SEL_RAW_CONTACT_NOT_DELETED_AND_NOT_RCS, null, null);
+            CursorUtil.assertCursorIsNotNull(cursor, RawContacts.CONTENT_URI);
+            if (!cursor.moveToFirst()) {
+                return result;
+            }
+            int columnIndexId = cursor.getColumnIndexOrThrow(RawContacts._ID);
+            int columnIndexVersion = cursor.getColumnIndexOrThrow(RawContacts.VERSION);
+            do {
+                result.put(cursor.getLong(columnIndexId), cursor.getLong(columnIndexVersion));
             } while (cursor.moveToNext());
             return result;
 
@@ -26,6 +26,7 @@ import com.gsma.rcs.provider.ContentProviderBaseIdCreator;
 import com.gsma.rcs.provider.contact.ContactData.AggregationData;
 import com.gsma.rcs.service.api.ServerApiPersistentStorageException;
 import com.gsma.rcs.utils.DatabaseUtils;
+import com.gsma.rcs.utils.ExtensionUtils;
 import com.gsma.rcs.utils.logger.Logger;
 import com.gsma.services.rcs.capability.CapabilitiesLog;
 
@@ -62,6 +63,24 @@ public class ContactProvider extends ContentProvider {
 
     private static final String AGGREGATION_TABLE = "aggregation";
 
+    /**
+     * Table of the supported extensions, one row per contact and extension, kept in line with
+     * the extensions column of the capability table so that the contacts supporting an extension
+     * are found through an index
+     */
+    private static final String EXTENSION_TABLE = "extension";
+
+    private static final String KEY_EXTENSION = "extension";
+
+    /**
+     * Selection of the capability table restricted to the contacts supporting the extension given
+     * as argument
+     */
+    /* package private */static final String WHERE_SUPPORTING_EXTENSION = new StringBuilder(
+            ContactData.KEY_CONTACT).append(" IN (SELECT ").append(ContactData.KEY_CONTACT)
+            .append(" FROM ").append(EXTENSION_TABLE).append(" WHERE ").append(KEY_EXTENSION)
+            .append("=?)").toString();
+
     /**
      * Database filename
      */
@@ -157,7 +176,7 @@ public class ContactProvider extends ContentProvider {
 
     private static class DatabaseHelper extends SQLiteOpenHelper {
 
-        private static final int DATABASE_VERSION = 28;
+        private static final int DATABASE_VERSION = 29;
 
         private void createDb(SQLiteDatabase db) {
             db.execSQL(new StringBuilder("CREATE TABLE IF NOT EXISTS ").append(CAPABILITY_TABLE)
@@ -216,6 +235,19 @@ public class ContactProvider extends ContentProvider {
                     .append(AggregationData.KEY_RAW_CONTACT_ID).append(" INTEGER NOT NULL,")
                     .append(AggregationData.KEY_RCS_RAW_CONTACT_ID).append(" INTEGER NOT NULL)")
                     .toString());
+            db.execSQL(new StringBuilder("CREATE TABLE IF NOT EXISTS ").append(EXTENSION_TABLE)
+                    .append('(').append(ContactData.KEY_CONTACT).append(" TEXT NOT NULL,")
+                    .append(KEY_EXTENSION).append(" TEXT NOT NULL,PRIMARY KEY(")
+                    .append(ContactData.KEY_CONTACT).append(',').append(KEY_EXTENSION)
+                    .append("))").toString());
+            db.execSQL(new StringBuilder("CREATE INDEX ").append(KEY_EXTENSION).append("_idx")
+                    .append(" ON ").append(EXTENSION_TABLE).append('(').append(KEY_EXTENSION)
+                    .append(')').toString());
+            db.execSQL(new StringBuilder("CREATE TRIGGER ").append(EXTENSION_TABLE)
+                    .append("_delete AFTER DELETE ON ").append(CAPABILITY_TABLE)
+                    .append(" BEGIN DELETE FROM ").append(EXTENSION_TABLE).append(" WHERE ")
+                    .append(ContactData.KEY_CONTACT).append("=OLD.")
+                    .append(ContactData.KEY_CONTACT).append("; END").toString());
         }
 
         public DatabaseHelper(Context context) {
@@ -231,6 +263,7 @@ public class ContactProvider extends ContentProvider {
         public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
             db.execSQL("DROP TABLE IF EXISTS ".concat(CAPABILITY_TABLE));
             db.execSQL("DROP TABLE IF EXISTS ".concat(AGGREGATION_TABLE));
+            db.execSQL("DROP TABLE IF EXISTS ".concat(EXTENSION_TABLE));
             onCreate(db);
         }
     }
@@ -274,6 +307,47 @@ public class ContactProvider extends ContentProvider {
         return DatabaseUtils.appendSelectionArgs(idSelectionArg, selectionArgs);
     }
 
+    /**
+     * Replaces the extensions of a contact in the extension table
+     * 
+     * @param db the database
+     * @param contact the contact
+     * @param extensions the extensions separated by ";"
+     */
+    private void setExtensions(SQLiteDatabase db, String contact, String extensions) {
+        db.delete(EXTENSION_TABLE, RCS_CONTACT_SELECTION_WITH_CONTACT_ONLY, new String[] {
+            contact
+        });
+        ContentValues values = new ContentValues();
+        values.put(ContactData.KEY_CONTACT, contact);
+        for (String extension : ExtensionUtils.getExtensions(extensions)) {
+            values.put(KEY_EXTENSION, extension);
+            db.insert(EXTENSION_TABLE, null, values);
+        }
+    }
+
+    /**
+     * Replaces the extensions of the contacts matching a selection in the extension table
+     * 
+     * @param db the database
+     * @param selection the selection of the capability table
+     * @param selectionArgs the selection arguments
+     * @param extensions the extensions separated by ";"
+     */
+    private void setExtensions(SQLiteDatabase db, String selection, String[] selectionArgs,
+            String extensions) {
+        Cursor cursor = db.query(CAPABILITY_TABLE, new String[] {
+            ContactData.KEY_CONTACT
+        }, selection, selectionArgs, null, null, null);
+        try {
+            while (cursor.moveToNext()) {
+                setExtensions(db, cursor.getString(0), extensions);
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
     private String[] restrictProjectionToExternallyDefinedColumns(String[] projection)
             throws UnsupportedOperationException {
         if (projection == null || projection.length == 0) {
@@ -356,10 +430,18 @@ public class ContactProvider extends ContentProvider {
                 String contact = initialValues.getAsString(ContactData.KEY_CONTACT);
                 initialValues.put(ContactData.KEY_BASECOLUMN_ID, ContentProviderBaseIdCreator
                         .createUniqueId(getContext(), ContactData.CONTENT_URI));
-                if (db.insert(CAPABILITY_TABLE, null, initialValues) == INVALID_ROW_ID) {
-                    throw new ServerApiPersistentStorageException(new StringBuilder(
-                            "Unable to insert row for URI ").append(uri.toString()).append('!')
-                            .toString());
+                db.beginTransaction();
+                try {
+                    if (db.insert(CAPABILITY_TABLE, null, initialValues) == INVALID_ROW_ID) {
+                        throw new ServerApiPersistentStorageException(new StringBuilder(
+                                "Unable to insert row for URI ").append(uri.toString())
+                                .append('!').toString());
+                    }
+                    setExtensions(db, contact,
+                            initialValues.getAsString(ContactData.KEY_CAPABILITY_EXTENSIONS));
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction();
                 }
                 if (!initialValues.containsKey(ContactData.KEY_PRESENCE_PHOTO_DATA)) {
                     try {
@@ -479,6 +561,25 @@ public class ContactProvider extends ContentProvider {
         }
     }
 
+    private int update(SQLiteDatabase db, ContentValues values, String selection,
+            String[] selectionArgs) {
+        if (!values.containsKey(ContactData.KEY_CAPABILITY_EXTENSIONS)) {
+            return db.update(CAPABILITY_TABLE, values, selection, selectionArgs);
+        }
+        db.beginTransaction();
+        try {
+            /* Selected before the update in case the selection is on the updated columns */
+            setExtensions(db, selection, selectionArgs,
+                    values.getAsString(ContactData.KEY_CAPABILITY_EXTENSIONS));
+            int count = db.update(CAPABILITY_TABLE, values, selection, selectionArgs);
+            db.setTransactionSuccessful();
+            return count;
+
+        } finally {
+            db.endTransaction();
+        }
+    }
+
     @Override
     public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
         switch (sUriMatcher.match(uri)) {
@@ -487,7 +588,7 @@ public class ContactProvider extends ContentProvider {
                 selection = getSelectionWithContact(selection);
                 selectionArgs = getSelectionArgsWithContact(selectionArgs, contact);
                 SQLiteDatabase db = mOpenHelper.getWritableDatabase();
-                int count = db.update(CAPABILITY_TABLE, values, selection, selectionArgs);
+                int count = update(db, values, selection, selectionArgs);
                 if (count > 0) {
                     getContext().getContentResolver().notifyChange(
                             Uri.withAppendedPath(CapabilitiesLog.CONTENT_URI, contact), null);
@@ -496,7 +597,7 @@ public class ContactProvider extends ContentProvider {
 
             case UriType.InternalContacts.INTERNAL_CONTACTS:
                 db = mOpenHelper.getWritableDatabase();
-                count = db.update(CAPABILITY_TABLE, values, selection, selectionArgs);
+                count = update(db, values, selection, selectionArgs);
                 if (count > 0) {
                     getContext().getContentResolver().notifyChange(CapabilitiesLog.CONTENT_URI,
                             null);
@@ -17,22 +17,15 @@
 package com.gsma.rcs.provider.history;
 
 import com.gsma.rcs.core.Core;
-import com.gsma.rcs.core.content.MmContent;
-import com.gsma.rcs.core.ims.protocol.msrp.MsrpException;
-import com.gsma.rcs.core.ims.service.im.chat.ChatMessage;
-import com.gsma.rcs.core.ims.service.im.chat.ChatUtils;
-import com.gsma.rcs.core.ims.service.im.chat.imdn.ImdnManager;
-import com.gsma.rcs.core.ims.service.im.filetransfer.FileTransferUtils;
 import com.gsma.rcs.provider.contact.ContactManager;
 import com.gsma.rcs.provider.messaging.FileTransferData;
 import com.gsma.rcs.provider.messaging.MessageData;
 import com.gsma.rcs.provider.messaging.MessagingLog;
 import com.gsma.rcs.provider.settings.RcsSettings;
+import com.gsma.rcs.service.DequeueScheduler;
 import com.gsma.rcs.service.DequeueTask;
 import com.gsma.rcs.service.api.ChatServiceImpl;
 import com.gsma.rcs.service.api.FileTransferServiceImpl;
-import com.gsma.rcs.service.api.GroupChatImpl;
-import com.gsma.rcs.service.api.GroupFileTransferImpl;
 import com.gsma.services.rcs.filetransfer.FileTransfer.State;
 
 import android.content.Context;
@@ -49,21 +42,15 @@ public class GroupChatDequeueTask extends DequeueTask {
 
     private final HistoryLog mHistoryLog;
 
-    private final boolean mDisplayedReportEnabled;
-
-    private final boolean mDeliveryReportEnabled;
-
     public GroupChatDequeueTask(Object lock, Context ctx, Core core, String chatId,
             MessagingLog messagingLog, ChatServiceImpl chatService,
             FileTransferServiceImpl fileTransferService, RcsSettings rcsSettings,
-            HistoryLog historyLog, ContactManager contactManager) {
+            HistoryLog historyLog, ContactManager contactManager,
+            DequeueScheduler dequeueScheduler) {
         super(lock, ctx, core, contactManager, messagingLog, rcsSettings, chatService,
-                fileTransferService);
+                fileTransferService, dequeueScheduler);
         mChatId = chatId;
         mHistoryLog = historyLog;
-        final ImdnManager imdnManager = mImService.getImdnManager();
-        mDisplayedReportEnabled = imdnManager.isRequestGroupDeliveryDisplayedReportsEnabled();
-        mDeliveryReportEnabled = imdnManager.isDeliveryDeliveredReportsEnabled();
     }
 
     public void run() {
@@ -72,8 +59,6 @@ public class GroupChatDequeueTask extends DequeueTask {
             mLogger.debug("Execute task to dequeue group chat messages and group file transfers for chatId "
                     .concat(mChatId));
         }
-        int providerId = -1;
-        String id = null;
         Cursor cursor = null;
         try {
             synchronized (mLock) {
@@ -100,111 +85,18 @@ public class GroupChatDequeueTask extends DequeueTask {
                 int fileIconIdx = cursor.getColumnIndexOrThrow(HistoryLogData.KEY_FILEICON);
                 int statusIdx = cursor.getColumnIndexOrThrow(HistoryLogData.KEY_STATUS);
                 int fileSizeIdx = cursor.getColumnIndexOrThrow(HistoryLogData.KEY_FILESIZE);
-                GroupChatImpl groupChat = mChatService.getOrCreateGroupChat(mChatId);
                 while (cursor.moveToNext()) {
-                    if (!isImsConnected()) {
-                        if (logActivated) {
-                            mLogger.debug("IMS not connected, exiting dequeue task to dequeue group chat messages and group file transfers for chatId "
-                                    .concat(mChatId));
-                        }
-                        return;
-                    }
-                    if (mCore.isStopping()) {
-                        if (logActivated) {
-                            mLogger.debug("Core service is stopped, exiting dequeue task to dequeue group chat messages and group file transfers for chatId "
-                                    .concat(mChatId));
-                        }
-                        return;
-                    }
-                    providerId = cursor.getInt(providerIdIdx);
-                    id = cursor.getString(idIdx);
-                    switch (providerId) {
+                    String id = cursor.getString(idIdx);
+                    switch (cursor.getInt(providerIdIdx)) {
                         case MessageData.HISTORYLOG_MEMBER_ID:
-                            if (!isPossibleToDequeueGroupChatMessage(mChatId)) {
-                                setGroupChatMessageAsFailed(mChatId, id);
-                                continue;
-                            }
-                            try {
-                                String content = cursor.getString(contentIdx);
-                                String mimeType = cursor.getString(mimeTypeIdx);
-                                long timestamp = System.currentTimeMillis();
-                                /* For outgoing message, timestampSent = timestamp */
-                                ChatMessage message = ChatUtils.createChatMessage(id, mimeType,
-                                        content, null, null, timestamp, timestamp);
-                                groupChat.dequeueGroupChatMessage(message);
-
-                            } catch (MsrpException e) {
-                                if (logActivated) {
-                                    mLogger.debug(new StringBuilder(
-                                            "Failed to dequeue group chat message '").append(id)
-                                            .append("' message on group chat '").append(mChatId)
-                                            .append("' due to: ").append(e.getMessage()).toString());
-                                }
-                            }
+                            mDequeueScheduler.schedule(new GroupChatMessageItem(mChatId, id,
+                                    cursor.getString(mimeTypeIdx), cursor.getString(contentIdx)));
                             break;
                         case FileTransferData.HISTORYLOG_MEMBER_ID:
-                            Uri file = Uri.parse(cursor.getString(contentIdx));
-                            if (!isPossibleToDequeueGroupFileTransfer(mChatId, file,
-                                    cursor.getLong(fileSizeIdx))) {
-                                setGroupFileTransferAsFailed(mChatId, id);
-                                continue;
-                            }
-                            State state = State.valueOf(cursor.getInt(statusIdx));
-                            switch (state) {
-                                case QUEUED:
-                                    if (!isAllowedToDequeueGroupFileTransfer()) {
-                                        continue;
-                                    }
-                                    try {
-                                        MmContent fileContent = FileTransferUtils
-                                                .createMmContent(file);
-                                        MmContent fileIconContent = null;
-                                        String fileIcon = cursor.getString(fileIconIdx);
-                                        if (fileIcon != null) {
-                                            Uri fileIconUri = Uri.parse(fileIcon);
-                                            fileIconContent = FileTransferUtils
-                                                    .createMmContent(fileIconUri);
-                                        }
-                                        mFileTransferService.dequeueGroupFileTransfer(mChatId, id,
-                                                fileContent, fileIconContent);
-                                    } catch (MsrpException e) {
-                                        if (logActivated) {
-                                            mLogger.debug(new StringBuilder(
-                                                    "Failed to dequeue group file transfer with fileTransferId '")
-                                                    .append(id).append("' on group chat '")
-                                                    .append(mChatId).append("' due to: ")
-                                                    .append(e.getMessage()).toString());
-                                        }
-                                    }
-                                    break;
-                                case STARTED:
-                                    if (!isPossibleToDequeueGroupChatMessage(mChatId)) {
-                                        setGroupFileTransferAsFailed(mChatId, id);
-                                        continue;
-                                    }
-                                    try {
-                                        GroupFileTransferImpl groupFileTransfer = mFileTransferService
-                                                .getOrCreateGroupFileTransfer(mChatId, id);
-                                        String fileInfo = FileTransferUtils
-                                                .createHttpFileTransferXml(mMessagingLog
-                                                        .getGroupFileDownloadInfo(id));
-                                        groupChat.dequeueGroupFileInfo(id, fileInfo,
-                                                mDisplayedReportEnabled, mDeliveryReportEnabled,
-                                                groupFileTransfer);
-
-                                    } catch (MsrpException e) {
-                                        if (logActivated) {
-                                            mLogger.debug(new StringBuilder(
-                                                    "Failed to dequeue group file info '")
-                                                    .append(id).append("' message on group chat '")
-                                                    .append(mChatId).append("' due to: ")
-                                                    .append(e.getMessage()).toString());
-                                        }
-                                    }
-                                    break;
-                                default:
-                                    break;
-                            }
+                            mDequeueScheduler.schedule(new GroupFileTransferItem(mChatId, id,
+                                    State.valueOf(cursor.getInt(statusIdx)), Uri.parse(cursor
+                                            .getString(contentIdx)), cursor
+                                            .getString(fileIconIdx), cursor.getLong(fileSizeIdx)));
                             break;
                         default:
                             break;
@@ -215,27 +107,11 @@ public class GroupChatDequeueTask extends DequeueTask {
             /*
              * Normally all the terminal and non-terminal cases should be handled above so if we
              * come here that means that there is a bug and so we output a stack trace so the bug
-             * can then be properly tracked down and fixed. We also mark the respective entry that
-             * failed to dequeue as FAILED.
+             * can then be properly tracked down and fixed.
              */
             mLogger.error(
-                    new StringBuilder(
-                            "Exception occured while dequeueing group chat message and group file transfer with id '")
-                            .append(id).append("' and chatId '").append(mChatId).append("'")
-                            .toString(), e);
-            if (id == null) {
-                return;
-            }
-            switch (providerId) {
-                case MessageData.HISTORYLOG_MEMBER_ID:
-                    setGroupChatMessageAsFailed(mChatId, id);
-                    break;
-                case FileTransferData.HISTORYLOG_MEMBER_ID:
-                    setGroupFileTransferAsFailed(mChatId, id);
-                    break;
-                default:
-                    break;
-            }
+                    "Exception occured while reading queued group chat messages and group file transfers for chatId "
+                            .concat(mChatId), e);
         } finally {
             if (cursor != null) {
                 cursor.close();
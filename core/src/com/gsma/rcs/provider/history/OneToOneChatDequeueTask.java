@@ -17,22 +17,15 @@
 package com.gsma.rcs.provider.history;
 
 import com.gsma.rcs.core.Core;
-import com.gsma.rcs.core.content.MmContent;
-import com.gsma.rcs.core.ims.protocol.msrp.MsrpException;
-import com.gsma.rcs.core.ims.service.im.chat.ChatMessage;
-import com.gsma.rcs.core.ims.service.im.chat.ChatUtils;
-import com.gsma.rcs.core.ims.service.im.chat.imdn.ImdnManager;
-import com.gsma.rcs.core.ims.service.im.filetransfer.FileTransferUtils;
 import com.gsma.rcs.provider.contact.ContactManager;
 import com.gsma.rcs.provider.messaging.FileTransferData;
 import com.gsma.rcs.provider.messaging.MessageData;
 import com.gsma.rcs.provider.messaging.MessagingLog;
 import com.gsma.rcs.provider.settings.RcsSettings;
+import com.gsma.rcs.service.DequeueScheduler;
 import com.gsma.rcs.service.DequeueTask;
 import com.gsma.rcs.service.api.ChatServiceImpl;
 import com.gsma.rcs.service.api.FileTransferServiceImpl;
-import com.gsma.rcs.service.api.OneToOneChatImpl;
-import com.gsma.rcs.service.api.OneToOneFileTransferImpl;
 import com.gsma.rcs.utils.ContactUtil;
 import com.gsma.services.rcs.contact.ContactId;
 import com.gsma.services.rcs.filetransfer.FileTransfer.State;
@@ -49,20 +42,13 @@ public class OneToOneChatDequeueTask extends DequeueTask {
 
     private final HistoryLog mHistoryLog;
 
-    private final boolean mDisplayedReportEnabled;
-
-    private final boolean mDeliveryReportEnabled;
-
     public OneToOneChatDequeueTask(Object lock, Context ctx, Core core,
             ChatServiceImpl chatService, FileTransferServiceImpl fileTransferService,
             HistoryLog historyLog, MessagingLog messagingLog, ContactManager contactManager,
-            RcsSettings rcsSettings) {
+            RcsSettings rcsSettings, DequeueScheduler dequeueScheduler) {
         super(lock, ctx, core, contactManager, messagingLog, rcsSettings, chatService,
-                fileTransferService);
+                fileTransferService, dequeueScheduler);
         mHistoryLog = historyLog;
-        final ImdnManager imdnManager = mImService.getImdnManager();
-        mDisplayedReportEnabled = imdnManager.isRequestGroupDeliveryDisplayedReportsEnabled();
-        mDeliveryReportEnabled = imdnManager.isDeliveryDeliveredReportsEnabled();
     }
 
     public void run() {
@@ -70,10 +56,6 @@ public class OneToOneChatDequeueTask extends DequeueTask {
         if (logActivated) {
             mLogger.debug("Execute task to dequeue all one-to-one chat messages and one-to-one file transfers.");
         }
-        int providerId = -1;
-        String id = null;
-        ContactId contact = null;
-        String mimeType = null;
         Cursor cursor = null;
         try {
             synchronized (mLock) {
@@ -100,104 +82,19 @@ public class OneToOneChatDequeueTask extends DequeueTask {
                 int statusIdx = cursor.getColumnIndexOrThrow(HistoryLogData.KEY_STATUS);
                 int fileSizeIdx = cursor.getColumnIndexOrThrow(HistoryLogData.KEY_FILESIZE);
                 while (cursor.moveToNext()) {
-                    if (!isImsConnected()) {
-                        if (logActivated) {
-                            mLogger.debug("IMS not connected, exiting dequeue task to dequeue all one-to-one chat messages and one-to-one file transfers.");
-                        }
-                        return;
-                    }
-                    if (mCore.isStopping()) {
-                        if (logActivated) {
-                            mLogger.debug("Core service is stopped, exiting dequeue task to dequeue all one-to-one chat messages and one-to-one file transfers.");
-                        }
-                        return;
-                    }
-                    providerId = cursor.getInt(providerIdIdx);
-                    id = cursor.getString(idIdx);
-                    String phoneNumber = cursor.getString(contactIdx);
-                    contact = ContactUtil.createContactIdFromTrustedData(phoneNumber);
-                    OneToOneChatImpl oneToOneChat = mChatService.getOrCreateOneToOneChat(contact);
-                    mimeType = cursor.getString(mimeTypeIdx);
-                    switch (providerId) {
+                    String id = cursor.getString(idIdx);
+                    ContactId contact = ContactUtil.createContactIdFromTrustedData(cursor
+                            .getString(contactIdx));
+                    switch (cursor.getInt(providerIdIdx)) {
                         case MessageData.HISTORYLOG_MEMBER_ID:
-                            if (!isPossibleToDequeueOneToOneChatMessage(contact)) {
-                                setOneToOneChatMessageAsFailed(contact, id, mimeType);
-                                continue;
-                            }
-                            if (!isAllowedToDequeueOneToOneChatMessage(contact)) {
-                                continue;
-                            }
-                            String content = cursor.getString(contentIdx);
-                            long timestamp = System.currentTimeMillis();
-                            /* For outgoing message, timestampSent = timestamp */
-                            ChatMessage message = ChatUtils.createChatMessage(id, mimeType,
-                                    content, contact, null, timestamp, timestamp);
-                            try {
-                                oneToOneChat.dequeueOneToOneChatMessage(message);
-                            } catch (MsrpException e) {
-                                if (logActivated) {
-                                    mLogger.debug(new StringBuilder(
-                                            "Failed to dequeue one-one chat message '").append(id)
-                                            .append("' message for contact '").append(contact)
-                                            .append("' due to: ").append(e.getMessage()).toString());
-                                }
-                            }
+                            mDequeueScheduler.schedule(new OneToOneChatMessageItem(contact, id,
+                                    cursor.getString(mimeTypeIdx), cursor.getString(contentIdx)));
                             break;
                         case FileTransferData.HISTORYLOG_MEMBER_ID:
-                            Uri file = Uri.parse(cursor.getString(contentIdx));
-                            if (!isPossibleToDequeueOneToOneFileTransfer(contact, file,
-                                    cursor.getLong(fileSizeIdx))) {
-                                setOneToOneFileTransferAsFailed(contact, id);
-                                continue;
-                            }
-                            State state = State.valueOf(cursor.getInt(statusIdx));
-                            switch (state) {
-                                case QUEUED:
-                                    if (!isAllowedToDequeueOneToOneFileTransfer(contact,
-                                            mFileTransferService)) {
-                                        continue;
-                                    }
-                                    MmContent fileContent = FileTransferUtils.createMmContent(file);
-                                    MmContent fileIconContent = null;
-                                    String fileIcon = cursor.getString(fileIconIdx);
-                                    if (fileIcon != null) {
-                                        Uri fileIconUri = Uri.parse(fileIcon);
-                                        fileIconContent = FileTransferUtils
-                                                .createMmContent(fileIconUri);
-                                    }
-                                    mFileTransferService.dequeueOneToOneFileTransfer(id, contact,
-                                            fileContent, fileIconContent);
-                                    break;
-                                case STARTED:
-                                    if (!isPossibleToDequeueOneToOneChatMessage(contact)) {
-                                        setOneToOneFileTransferAsFailed(contact, id);
-                                        continue;
-                                    }
-                                    if (!isAllowedToDequeueOneToOneChatMessage(contact)) {
-                                        continue;
-                                    }
-                                    try {
-                                        OneToOneFileTransferImpl oneToOneFileTransfer = mFileTransferService
-                                                .getOrCreateOneToOneFileTransfer(contact, id);
-                                        String fileInfo = FileTransferUtils
-                                                .createHttpFileTransferXml(mMessagingLog
-                                                        .getGroupFileDownloadInfo(id));
-                                        oneToOneChat.dequeueOneToOneFileInfo(id, fileInfo,
-                                                mDisplayedReportEnabled, mDeliveryReportEnabled,
-                                                oneToOneFileTransfer);
-                                    } catch (MsrpException e) {
-                                        if (logActivated) {
-                                            mLogger.debug(new StringBuilder(
-                                                    "Failed to dequeue one-one file info '")
-                                                    .append(id).append("' message for contact '")
-                                                    .append(contact).append("' due to: ")
-                                                    .append(e.getMessage()).toString());
-                                        }
-                                    }
-                                    break;
-                                default:
-                                    break;
-                            }
+                            mDequeueScheduler.schedule(new OneToOneFileTransferItem(contact, id,
+                                    State.valueOf(cursor.getInt(statusIdx)), Uri.parse(cursor
+                                            .getString(contentIdx)), cursor
+                                            .getString(fileIconIdx), cursor.getLong(fileSizeIdx)));
                             break;
                         default:
                             break;
@@ -208,32 +105,15 @@ public class OneToOneChatDequeueTask extends DequeueTask {
             /*
              * Normally all the terminal and non-terminal cases should be handled above so if we
              * come here that means that there is a bug and so we output a stack trace so the bug
-             * can then be properly tracked down and fixed. We also mark the respective entry that
-             * failed to dequeue as FAILED.
+             * can then be properly tracked down and fixed.
              */
             mLogger.error(
-                    new StringBuilder(
-                            "Exception occured while dequeueing one-to-one chat message and one-to-one file transfer with id '")
-                            .append(id).append("' for contact '").append(contact).append("'!")
-                            .toString(), e);
-            if (id == null) {
-                return;
-            }
-            switch (providerId) {
-                case MessageData.HISTORYLOG_MEMBER_ID:
-                    setOneToOneChatMessageAsFailed(contact, id, mimeType);
-                    break;
-                case FileTransferData.HISTORYLOG_MEMBER_ID:
-                    setOneToOneFileTransferAsFailed(contact, id);
-                    break;
-                default:
-                    break;
-            }
+                    "Exception occured while reading queued one-to-one chat messages and one-to-one file transfers!",
+                    e);
         } finally {
             if (cursor != null) {
                 cursor.close();
             }
         }
-
     }
 }
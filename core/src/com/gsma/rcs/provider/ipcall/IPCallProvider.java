@@ -23,17 +23,16 @@
 package com.gsma.rcs.provider.ipcall;
 
 import com.gsma.rcs.provider.ContentProviderBaseIdCreator;
+import com.gsma.rcs.provider.SQLiteContentProvider;
 import com.gsma.rcs.service.api.ServerApiPersistentStorageException;
 import com.gsma.rcs.service.ipcalldraft.IPCallLog;
 import com.gsma.rcs.utils.DatabaseUtils;
 
-import android.content.ContentProvider;
 import android.content.ContentValues;
 import android.content.Context;
 import android.content.UriMatcher;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
-import android.database.sqlite.SQLiteOpenHelper;
 import android.net.Uri;
 import android.text.TextUtils;
 
@@ -42,7 +41,7 @@ import android.text.TextUtils;
  * 
  * @author owom5460
  */
-public class IPCallProvider extends ContentProvider {
+public class IPCallProvider extends SQLiteContentProvider {
 
     private static final int INVALID_ROW_ID = -1;
 
@@ -87,11 +86,11 @@ public class IPCallProvider extends ContentProvider {
         private static final String TYPE_ITEM = "vnd.android.cursor.item/ipcall";
     }
 
-    private static class DatabaseHelper extends SQLiteOpenHelper {
+    private static class DatabaseHelper extends TunedOpenHelper {
         private static final int DATABASE_VERSION = 7;
 
         public DatabaseHelper(Context ctx) {
-            super(ctx, DATABASE_NAME, null, DATABASE_VERSION);
+            super(ctx, DATABASE_NAME, DATABASE_VERSION, SYNCHRONOUS_NORMAL, DEFAULT_CACHE_SIZE);
         }
 
         @Override
@@ -127,8 +126,6 @@ public class IPCallProvider extends ContentProvider {
         }
     }
 
-    private SQLiteOpenHelper mOpenHelper;
-
     private String getSelectionWithCallId(String selection) {
         if (TextUtils.isEmpty(selection)) {
             return SELECTION_WITH_CALLID_ONLY;
@@ -173,8 +170,8 @@ public class IPCallProvider extends ContentProvider {
     }
 
     @Override
-    public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
-            String sort) {
+    protected Cursor doQuery(Uri uri, String[] projection, String selection,
+            String[] selectionArgs, String sort) {
         Cursor cursor = null;
         try {
             switch (sUriMatcher.match(uri)) {
@@ -230,7 +227,8 @@ public class IPCallProvider extends ContentProvider {
     }
 
     @Override
-    public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+    protected int doUpdate(Uri uri, ContentValues values, String selection,
+            String[] selectionArgs) {
         Uri notificationUri = IPCallLog.CONTENT_URI;
         switch (sUriMatcher.match(uri)) {
             case UriType.InternalIPCall.IPCALL_WITH_CALLID:
@@ -260,7 +258,7 @@ public class IPCallProvider extends ContentProvider {
     }
 
     @Override
-    public Uri insert(Uri uri, ContentValues initialValues) {
+    protected Uri doInsert(Uri uri, ContentValues initialValues) {
         switch (sUriMatcher.match(uri)) {
             case UriType.InternalIPCall.IPCALL:
                 /* Intentional fall through */
@@ -291,7 +289,7 @@ public class IPCallProvider extends ContentProvider {
     }
 
     @Override
-    public int delete(Uri uri, String selection, String[] selectionArgs) {
+    protected int doDelete(Uri uri, String selection, String[] selectionArgs) {
         Uri notificationUri = IPCallLog.CONTENT_URI;
         switch (sUriMatcher.match(uri)) {
             case UriType.InternalIPCall.IPCALL_WITH_CALLID:
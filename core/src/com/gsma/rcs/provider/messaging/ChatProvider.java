@@ -22,21 +22,24 @@
 
 package com.gsma.rcs.provider.messaging;
 
+import com.gsma.rcs.provider.SQLiteContentProvider;
 import com.gsma.rcs.provider.history.HistoryMemberBaseIdCreator;
 import com.gsma.rcs.service.api.ServerApiPersistentStorageException;
 import com.gsma.rcs.utils.DatabaseUtils;
 import com.gsma.services.rcs.chat.ChatLog;
 
-import android.content.ContentProvider;
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
 import android.content.ContentValues;
 import android.content.Context;
+import android.content.OperationApplicationException;
 import android.content.UriMatcher;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
-import android.database.sqlite.SQLiteOpenHelper;
 import android.net.Uri;
 import android.text.TextUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
@@ -46,7 +49,7 @@ import java.util.Set;
  * 
  * @author Jean-Marc AUFFRET
  */
-public class ChatProvider extends ContentProvider {
+public class ChatProvider extends SQLiteContentProvider {
 
     private static final int INVALID_ROW_ID = -1;
 
@@ -75,6 +78,9 @@ public class ChatProvider extends ContentProvider {
                 .getPath().substring(1), UriType.Message.MESSAGE);
         sUriMatcher.addURI(ChatLog.Message.CONTENT_URI.getAuthority(), ChatLog.Message.CONTENT_URI
                 .getPath().substring(1).concat("/*"), UriType.Message.MESSAGE_WITH_ID);
+        sUriMatcher.addURI(GroupChatData.PARTICIPANT_CONTENT_URI.getAuthority(),
+                GroupChatData.PARTICIPANT_CONTENT_URI.getPath().substring(1).concat("/*"),
+                UriType.InternalParticipant.PARTICIPANT_WITH_CHAT_ID);
 
     }
 
@@ -88,6 +94,23 @@ public class ChatProvider extends ContentProvider {
      */
     public static final String TABLE_GROUP_CHAT = "groupchat";
 
+    /**
+     * Group chat participants table name
+     */
+    public static final String TABLE_GROUP_CHAT_PARTICIPANT = "groupchatparticipant";
+
+    /**
+     * Rebuilds the participants column of a group chat, as exposed to client applications, from
+     * its rows in the participant table
+     */
+    private static final String UPDATE_PARTICIPANTS_COLUMN = new StringBuilder("UPDATE ")
+            .append(TABLE_GROUP_CHAT).append(" SET ").append(GroupChatData.KEY_PARTICIPANTS)
+            .append("=(SELECT COALESCE(group_concat(").append(GroupChatData.KEY_PARTICIPANT)
+            .append("||'='||").append(GroupChatData.KEY_PARTICIPANT_STATUS)
+            .append(",','),'') FROM ").append(TABLE_GROUP_CHAT_PARTICIPANT).append(" WHERE ")
+            .append(GroupChatData.KEY_CHAT_ID).append("=?) WHERE ")
+            .append(GroupChatData.KEY_CHAT_ID).append("=?").toString();
+
     /**
      * Database name
      */
@@ -151,6 +174,11 @@ public class ChatProvider extends ContentProvider {
             private static final int MESSAGE_WITH_ID = 8;
         }
 
+        private static final class InternalParticipant {
+
+            private static final int PARTICIPANT_WITH_CHAT_ID = 9;
+        }
+
     }
 
     private static final class CursorType {
@@ -168,13 +196,39 @@ public class ChatProvider extends ContentProvider {
 
             private static final String TYPE_ITEM = "vnd.android.cursor.item/chatmessage";
         }
+
+        private static final class Participant {
+
+            private static final String TYPE_DIRECTORY = "vnd.android.cursor.dir/groupchatparticipant";
+        }
     }
 
-    private static class DatabaseHelper extends SQLiteOpenHelper {
-        private static final int DATABASE_VERSION = 17;
+    /**
+     * Chat IDs whose participants were changed by the batch applied by the current thread, their
+     * participants column is rebuilt once before the batch is committed
+     */
+    private final ThreadLocal<Set<String>> mBatchChangedChatIds = new ThreadLocal<Set<String>>();
+
+    private static class DatabaseHelper extends TunedOpenHelper {
+        /**
+         * First version from which the tables are migrated instead of being recreated
+         */
+        private static final int FIRST_MIGRATED_VERSION = 17;
+
+        /**
+         * Version adding the indexes of the dequeue and recovery queries
+         */
+        private static final int VERSION_DEQUEUE_INDEXES = 18;
+
+        /**
+         * Version moving the group chat participants to their own table
+         */
+        private static final int VERSION_PARTICIPANT_TABLE = 19;
+
+        private static final int DATABASE_VERSION = VERSION_PARTICIPANT_TABLE;
 
         public DatabaseHelper(Context ctx) {
-            super(ctx, DATABASE_NAME, null, DATABASE_VERSION);
+            super(ctx, DATABASE_NAME, DATABASE_VERSION, SYNCHRONOUS_NORMAL, DEFAULT_CACHE_SIZE);
         }
 
         @Override
@@ -231,18 +285,101 @@ public class ChatProvider extends ContentProvider {
             db.execSQL(new StringBuilder("CREATE INDEX ").append(MessageData.KEY_TIMESTAMP_SENT)
                     .append("_idx").append(" ON ").append(TABLE_MESSAGE).append('(')
                     .append(MessageData.KEY_TIMESTAMP_SENT).append(')').toString());
+            createDequeueIndexes(db);
+            createParticipantTable(db);
+        }
+
+        /**
+         * Creates the indexes used by the dequeue and recovery queries run at service start-up
+         * (added in version 18).
+         * 
+         * @param db Database
+         */
+        private void createDequeueIndexes(SQLiteDatabase db) {
+            /* Queued messages of one contact and of all contacts, in timestamp order */
+            db.execSQL(new StringBuilder("CREATE INDEX IF NOT EXISTS ").append(TABLE_MESSAGE)
+                    .append("_status_chat_id_idx ON ").append(TABLE_MESSAGE).append('(')
+                    .append(MessageData.KEY_STATUS).append(',').append(MessageData.KEY_CHAT_ID)
+                    .append(',').append(MessageData.KEY_TIMESTAMP).append(')').toString());
+            /* Undelivered messages with a pending delivery expiration */
+            db.execSQL(new StringBuilder("CREATE INDEX IF NOT EXISTS ").append(TABLE_MESSAGE)
+                    .append("_delivery_expiration_idx ON ").append(TABLE_MESSAGE).append('(')
+                    .append(MessageData.KEY_EXPIRED_DELIVERY).append(',')
+                    .append(MessageData.KEY_DELIVERY_EXPIRATION).append(')').toString());
+        }
+
+        /**
+         * Creates the table of the group chat participants, which replaces the encoded
+         * participants column as the storage of the stack (added in version 19).
+         * 
+         * @param db Database
+         */
+        private void createParticipantTable(SQLiteDatabase db) {
+            db.execSQL(new StringBuilder("CREATE TABLE IF NOT EXISTS ")
+                    .append(TABLE_GROUP_CHAT_PARTICIPANT).append('(')
+                    .append(GroupChatData.KEY_CHAT_ID).append(" TEXT NOT NULL,")
+                    .append(GroupChatData.KEY_PARTICIPANT).append(" TEXT NOT NULL,")
+                    .append(GroupChatData.KEY_PARTICIPANT_STATUS).append(" INTEGER NOT NULL,")
+                    .append("PRIMARY KEY(").append(GroupChatData.KEY_CHAT_ID).append(',')
+                    .append(GroupChatData.KEY_PARTICIPANT).append("))").toString());
+            db.execSQL(new StringBuilder("CREATE TRIGGER IF NOT EXISTS ")
+                    .append(TABLE_GROUP_CHAT_PARTICIPANT).append("_delete AFTER DELETE ON ")
+                    .append(TABLE_GROUP_CHAT).append(" BEGIN DELETE FROM ")
+                    .append(TABLE_GROUP_CHAT_PARTICIPANT).append(" WHERE ")
+                    .append(GroupChatData.KEY_CHAT_ID).append("=old.")
+                    .append(GroupChatData.KEY_CHAT_ID).append("; END").toString());
+        }
+
+        /**
+         * Copies the participants encoded in the participants column of the existing group chats
+         * to the participant table
+         * 
+         * @param db Database
+         */
+        private void migrateParticipants(SQLiteDatabase db) {
+            Cursor cursor = db.query(TABLE_GROUP_CHAT, new String[] {
+                    GroupChatData.KEY_CHAT_ID, GroupChatData.KEY_PARTICIPANTS
+            }, null, null, null, null, null);
+            try {
+                ContentValues values = new ContentValues();
+                while (cursor.moveToNext()) {
+                    String participants = cursor.getString(1);
+                    if (TextUtils.isEmpty(participants)) {
+                        continue;
+                    }
+                    values.put(GroupChatData.KEY_CHAT_ID, cursor.getString(0));
+                    for (String participantInfo : participants.split(",")) {
+                        String[] contactAndStatus = participantInfo.split("=");
+                        values.put(GroupChatData.KEY_PARTICIPANT, contactAndStatus[0]);
+                        values.put(GroupChatData.KEY_PARTICIPANT_STATUS,
+                                Integer.parseInt(contactAndStatus[1]));
+                        db.insertWithOnConflict(TABLE_GROUP_CHAT_PARTICIPANT, null, values,
+                                SQLiteDatabase.CONFLICT_REPLACE);
+                    }
+                }
+            } finally {
+                cursor.close();
+            }
         }
 
         @Override
         public void onUpgrade(SQLiteDatabase db, int oldVersion, int currentVersion) {
-            db.execSQL("DROP TABLE IF EXISTS ".concat(TABLE_GROUP_CHAT));
-            db.execSQL("DROP TABLE IF EXISTS ".concat(TABLE_MESSAGE));
-            onCreate(db);
+            if (oldVersion < FIRST_MIGRATED_VERSION) {
+                db.execSQL("DROP TABLE IF EXISTS ".concat(TABLE_GROUP_CHAT));
+                db.execSQL("DROP TABLE IF EXISTS ".concat(TABLE_MESSAGE));
+                onCreate(db);
+                return;
+            }
+            if (oldVersion < VERSION_DEQUEUE_INDEXES) {
+                createDequeueIndexes(db);
+            }
+            if (oldVersion < VERSION_PARTICIPANT_TABLE) {
+                createParticipantTable(db);
+                migrateParticipants(db);
+            }
         }
     }
 
-    private SQLiteOpenHelper mOpenHelper;
-
     private String getSelectionWithChatId(String selection) {
         if (TextUtils.isEmpty(selection)) {
             return SELECTION_WITH_CHAT_ID_ONLY;
@@ -309,6 +446,58 @@ public class ChatProvider extends ContentProvider {
         return projection;
     }
 
+    /**
+     * Rebuilds the participants column of a group chat after a change of its participants and
+     * notifies the change, or defers both to the end of the batch applied by the current thread
+     * 
+     * @param chatId Chat ID
+     */
+    private void participantsChanged(String chatId) {
+        Set<String> batchChangedChatIds = mBatchChangedChatIds.get();
+        if (batchChangedChatIds != null) {
+            batchChangedChatIds.add(chatId);
+            return;
+        }
+        mOpenHelper.getWritableDatabase().execSQL(UPDATE_PARTICIPANTS_COLUMN, new String[] {
+                chatId, chatId
+        });
+        getContext().getContentResolver().notifyChange(
+                Uri.withAppendedPath(ChatLog.GroupChat.CONTENT_URI, chatId), null);
+    }
+
+    /**
+     * Applies the operations in a single transaction. The participants column of the group chats
+     * whose participants were changed is rebuilt once per chat before the transaction is
+     * committed, instead of once per participant.
+     */
+    @Override
+    public ContentProviderResult[] applyBatch(ArrayList<ContentProviderOperation> operations)
+            throws OperationApplicationException {
+        Set<String> batchChangedChatIds = new HashSet<String>();
+        mBatchChangedChatIds.set(batchChangedChatIds);
+        SQLiteDatabase db = mOpenHelper.getWritableDatabase();
+        ContentProviderResult[] results;
+        db.beginTransaction();
+        try {
+            results = super.applyBatch(operations);
+            for (String chatId : batchChangedChatIds) {
+                db.execSQL(UPDATE_PARTICIPANTS_COLUMN, new String[] {
+                        chatId, chatId
+                });
+            }
+            db.setTransactionSuccessful();
+
+        } finally {
+            mBatchChangedChatIds.remove();
+            db.endTransaction();
+        }
+        for (String chatId : batchChangedChatIds) {
+            getContext().getContentResolver().notifyChange(
+                    Uri.withAppendedPath(ChatLog.GroupChat.CONTENT_URI, chatId), null);
+        }
+        return results;
+    }
+
     @Override
     public boolean onCreate() {
         mOpenHelper = new DatabaseHelper(getContext());
@@ -338,6 +527,9 @@ public class ChatProvider extends ContentProvider {
             case UriType.Message.MESSAGE_WITH_ID:
                 return CursorType.Message.TYPE_ITEM;
 
+            case UriType.InternalParticipant.PARTICIPANT_WITH_CHAT_ID:
+                return CursorType.Participant.TYPE_DIRECTORY;
+
             default:
                 throw new IllegalArgumentException(new StringBuilder("Unsupported URI ")
                         .append(uri).append("!").toString());
@@ -345,8 +537,8 @@ public class ChatProvider extends ContentProvider {
     }
 
     @Override
-    public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
-            String sort) {
+    protected Cursor doQuery(Uri uri, String[] projection, String selection,
+            String[] selectionArgs, String sort) {
         Cursor cursor = null;
         try {
             switch (sUriMatcher.match(uri)) {
@@ -421,6 +613,18 @@ public class ChatProvider extends ContentProvider {
                     cursor.setNotificationUri(getContext().getContentResolver(), uri);
                     return cursor;
 
+                case UriType.InternalParticipant.PARTICIPANT_WITH_CHAT_ID:
+                    chatId = uri.getLastPathSegment();
+                    selection = getSelectionWithChatId(selection);
+                    selectionArgs = getSelectionArgsWithChatId(selectionArgs, chatId);
+                    db = mOpenHelper.getReadableDatabase();
+                    cursor = db.query(TABLE_GROUP_CHAT_PARTICIPANT, projection, selection,
+                            selectionArgs, null, null, sort);
+                    /* TODO: Handle cursor when null. */
+                    cursor.setNotificationUri(getContext().getContentResolver(),
+                            Uri.withAppendedPath(ChatLog.GroupChat.CONTENT_URI, chatId));
+                    return cursor;
+
                 default:
                     throw new IllegalArgumentException(new StringBuilder("Unsupported URI ")
                             .append(uri).append("!").toString());
@@ -439,14 +643,20 @@ public class ChatProvider extends ContentProvider {
     }
 
     @Override
-    public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+    protected int doUpdate(Uri uri, ContentValues values, String selection,
+            String[] selectionArgs) {
         switch (sUriMatcher.match(uri)) {
             case UriType.InternalChat.CHAT_WITH_ID:
                 String chatId = uri.getLastPathSegment();
-                selection = getSelectionWithChatId(selection);
-                selectionArgs = getSelectionArgsWithChatId(selectionArgs, chatId);
-                SQLiteDatabase db = mOpenHelper.getWritableDatabase();
-                int count = db.update(TABLE_GROUP_CHAT, values, selection, selectionArgs);
+                int count;
+                if (TextUtils.isEmpty(selection)) {
+                    count = updateById(TABLE_GROUP_CHAT, GroupChatData.KEY_CHAT_ID, chatId, values);
+                } else {
+                    selection = getSelectionWithChatId(selection);
+                    selectionArgs = getSelectionArgsWithChatId(selectionArgs, chatId);
+                    SQLiteDatabase db = mOpenHelper.getWritableDatabase();
+                    count = db.update(TABLE_GROUP_CHAT, values, selection, selectionArgs);
+                }
                 if (count > 0) {
                     getContext().getContentResolver().notifyChange(
                             Uri.withAppendedPath(ChatLog.GroupChat.CONTENT_URI, chatId), null);
@@ -454,7 +664,7 @@ public class ChatProvider extends ContentProvider {
                 return count;
 
             case UriType.InternalChat.CHAT:
-                db = mOpenHelper.getWritableDatabase();
+                SQLiteDatabase db = mOpenHelper.getWritableDatabase();
                 count = db.update(TABLE_GROUP_CHAT, values, selection, selectionArgs);
                 if (count > 0) {
                     getContext().getContentResolver().notifyChange(ChatLog.GroupChat.CONTENT_URI,
@@ -464,10 +674,14 @@ public class ChatProvider extends ContentProvider {
 
             case UriType.InternalMessage.MESSAGE_WITH_ID:
                 String msgId = uri.getLastPathSegment();
-                selection = getSelectionWithMessageId(selection);
-                selectionArgs = getSelectionArgsWithMessageId(selectionArgs, msgId);
-                db = mOpenHelper.getWritableDatabase();
-                count = db.update(TABLE_MESSAGE, values, selection, selectionArgs);
+                if (TextUtils.isEmpty(selection)) {
+                    count = updateById(TABLE_MESSAGE, MessageData.KEY_MESSAGE_ID, msgId, values);
+                } else {
+                    selection = getSelectionWithMessageId(selection);
+                    selectionArgs = getSelectionArgsWithMessageId(selectionArgs, msgId);
+                    db = mOpenHelper.getWritableDatabase();
+                    count = db.update(TABLE_MESSAGE, values, selection, selectionArgs);
+                }
                 if (count > 0) {
                     getContext().getContentResolver().notifyChange(
                             Uri.withAppendedPath(ChatLog.Message.CONTENT_URI, msgId), null);
@@ -483,6 +697,17 @@ public class ChatProvider extends ContentProvider {
                 }
                 return count;
 
+            case UriType.InternalParticipant.PARTICIPANT_WITH_CHAT_ID:
+                chatId = uri.getLastPathSegment();
+                selection = getSelectionWithChatId(selection);
+                selectionArgs = getSelectionArgsWithChatId(selectionArgs, chatId);
+                db = mOpenHelper.getWritableDatabase();
+                count = db.update(TABLE_GROUP_CHAT_PARTICIPANT, values, selection, selectionArgs);
+                if (count > 0) {
+                    participantsChanged(chatId);
+                }
+                return count;
+
             case UriType.Chat.CHAT_WITH_ID:
                 /* Intentional fall through */
             case UriType.Chat.CHAT:
@@ -500,7 +725,7 @@ public class ChatProvider extends ContentProvider {
     }
 
     @Override
-    public Uri insert(Uri uri, ContentValues initialValues) {
+    protected Uri doInsert(Uri uri, ContentValues initialValues) {
         switch (sUriMatcher.match(uri)) {
             case UriType.InternalChat.CHAT:
                 /* Intentional fall through */
@@ -534,6 +759,20 @@ public class ChatProvider extends ContentProvider {
                 getContext().getContentResolver().notifyChange(notificationUri, null);
                 return notificationUri;
 
+            case UriType.InternalParticipant.PARTICIPANT_WITH_CHAT_ID:
+                /* Inserts the participant or replaces its status if already present */
+                db = mOpenHelper.getWritableDatabase();
+                chatId = uri.getLastPathSegment();
+                initialValues.put(GroupChatData.KEY_CHAT_ID, chatId);
+                if (db.insertWithOnConflict(TABLE_GROUP_CHAT_PARTICIPANT, null, initialValues,
+                        SQLiteDatabase.CONFLICT_REPLACE) == INVALID_ROW_ID) {
+                    throw new ServerApiPersistentStorageException(new StringBuilder(
+                            "Unable to insert row for URI ").append(uri).append('!').toString());
+                }
+                participantsChanged(chatId);
+                return Uri.withAppendedPath(uri,
+                        initialValues.getAsString(GroupChatData.KEY_PARTICIPANT));
+
             case UriType.Chat.CHAT:
                 /* Intentional fall through */
             case UriType.Chat.CHAT_WITH_ID:
@@ -551,7 +790,7 @@ public class ChatProvider extends ContentProvider {
     }
 
     @Override
-    public int delete(Uri uri, String selection, String[] selectionArgs) {
+    protected int doDelete(Uri uri, String selection, String[] selectionArgs) {
         switch (sUriMatcher.match(uri)) {
             case UriType.InternalChat.CHAT_WITH_ID:
                 String chatId = uri.getLastPathSegment();
@@ -595,6 +834,17 @@ public class ChatProvider extends ContentProvider {
                 }
                 return count;
 
+            case UriType.InternalParticipant.PARTICIPANT_WITH_CHAT_ID:
+                chatId = uri.getLastPathSegment();
+                selection = getSelectionWithChatId(selection);
+                selectionArgs = getSelectionArgsWithChatId(selectionArgs, chatId);
+                db = mOpenHelper.getWritableDatabase();
+                count = db.delete(TABLE_GROUP_CHAT_PARTICIPANT, selection, selectionArgs);
+                if (count > 0) {
+                    participantsChanged(chatId);
+                }
+                return count;
+
             case UriType.Chat.CHAT_WITH_ID:
                 /* Intentional fall through */
             case UriType.Chat.CHAT:
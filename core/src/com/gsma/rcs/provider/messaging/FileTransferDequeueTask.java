@@ -17,19 +17,12 @@
 package com.gsma.rcs.provider.messaging;
 
 import com.gsma.rcs.core.Core;
-import com.gsma.rcs.core.content.MmContent;
-import com.gsma.rcs.core.ims.protocol.msrp.MsrpException;
-import com.gsma.rcs.core.ims.service.im.chat.imdn.ImdnManager;
-import com.gsma.rcs.core.ims.service.im.filetransfer.FileTransferUtils;
 import com.gsma.rcs.provider.contact.ContactManager;
 import com.gsma.rcs.provider.settings.RcsSettings;
+import com.gsma.rcs.service.DequeueScheduler;
 import com.gsma.rcs.service.DequeueTask;
 import com.gsma.rcs.service.api.ChatServiceImpl;
 import com.gsma.rcs.service.api.FileTransferServiceImpl;
-import com.gsma.rcs.service.api.GroupChatImpl;
-import com.gsma.rcs.service.api.GroupFileTransferImpl;
-import com.gsma.rcs.service.api.OneToOneChatImpl;
-import com.gsma.rcs.service.api.OneToOneFileTransferImpl;
 import com.gsma.rcs.utils.ContactUtil;
 import com.gsma.services.rcs.contact.ContactId;
 import com.gsma.services.rcs.filetransfer.FileTransfer.State;
@@ -44,18 +37,12 @@ import android.net.Uri;
  */
 public class FileTransferDequeueTask extends DequeueTask {
 
-    private final boolean mDisplayedReportEnabled;
-
-    private final boolean mDeliveryReportEnabled;
-
     public FileTransferDequeueTask(Object lock, Context ctx, Core core, MessagingLog messagingLog,
             ChatServiceImpl chatService, FileTransferServiceImpl fileTransferService,
-            ContactManager contactManager, RcsSettings rcsSettings) {
+            ContactManager contactManager, RcsSettings rcsSettings,
+            DequeueScheduler dequeueScheduler) {
         super(lock, ctx, core, contactManager, messagingLog, rcsSettings, chatService,
-                fileTransferService);
-        final ImdnManager imdnManager = mImService.getImdnManager();
-        mDisplayedReportEnabled = imdnManager.isRequestGroupDeliveryDisplayedReportsEnabled();
-        mDeliveryReportEnabled = imdnManager.isDeliveryDeliveredReportsEnabled();
+                fileTransferService, dequeueScheduler);
     }
 
     public void run() {
@@ -63,10 +50,6 @@ public class FileTransferDequeueTask extends DequeueTask {
         if (logActivated) {
             mLogger.debug("Execute task to dequeue one-to-one and group file transfers");
         }
-        String id = null;
-        ContactId contact = null;
-        String chatId = null;
-        boolean isGroupFileTransfer = false;
         Cursor cursor = null;
         try {
             synchronized (mLock) {
@@ -92,122 +75,21 @@ public class FileTransferDequeueTask extends DequeueTask {
                 int stateIdx = cursor.getColumnIndexOrThrow(FileTransferData.KEY_STATE);
                 int fileSizeIdx = cursor.getColumnIndexOrThrow(FileTransferData.KEY_FILESIZE);
                 while (cursor.moveToNext()) {
-                    if (!isImsConnected()) {
-                        if (logActivated) {
-                            mLogger.debug("IMS not connected, exiting dequeue task to dequeue one-to-one and group file transfers");
-                        }
-                        return;
-                    }
-                    if (mCore.isStopping()) {
-                        if (logActivated) {
-                            mLogger.debug("Core service is stopped, exiting dequeue task to dequeue one-to-one and group file transfers");
-                        }
-                        return;
-                    }
-                    id = cursor.getString(fileTransferIdIdx);
+                    String id = cursor.getString(fileTransferIdIdx);
                     String contactNumber = cursor.getString(contactIdx);
-                    contact = contactNumber != null ? ContactUtil
-                            .createContactIdFromTrustedData(contactNumber) : null;
-                    chatId = cursor.getString(chatIdIdx);
-                    isGroupFileTransfer = !chatId.equals(contactNumber);
+                    String chatId = cursor.getString(chatIdIdx);
                     State state = State.valueOf(cursor.getInt(stateIdx));
                     Uri file = Uri.parse(cursor.getString(fileIdx));
+                    String fileIcon = cursor.getString(fileIconIdx);
                     long size = cursor.getLong(fileSizeIdx);
-                    if (isGroupFileTransfer) {
-                        if (!isPossibleToDequeueGroupFileTransfer(chatId, file, size)) {
-                            setGroupFileTransferAsFailed(chatId, id);
-                            continue;
-                        }
+                    if (!chatId.equals(contactNumber)) {
+                        mDequeueScheduler.schedule(new GroupFileTransferItem(chatId, id, state,
+                                file, fileIcon, size));
                     } else {
-                        if (!isPossibleToDequeueOneToOneFileTransfer(contact, file, size)) {
-                            setOneToOneFileTransferAsFailed(contact, id);
-                            continue;
-                        }
-                    }
-                    switch (state) {
-                        case QUEUED:
-                            try {
-                                if (isGroupFileTransfer) {
-                                    if (!isAllowedToDequeueGroupFileTransfer()) {
-                                        continue;
-                                    }
-                                } else {
-                                    if (!isAllowedToDequeueOneToOneFileTransfer(contact,
-                                            mFileTransferService)) {
-                                        continue;
-                                    }
-                                }
-                                MmContent content = FileTransferUtils.createMmContent(file);
-                                MmContent fileIconContent = null;
-                                String fileIcon = cursor.getString(fileIconIdx);
-                                if (fileIcon != null) {
-                                    Uri fileIconUri = Uri.parse(fileIcon);
-                                    fileIconContent = FileTransferUtils
-                                            .createMmContent(fileIconUri);
-                                }
-                                if (isGroupFileTransfer) {
-                                    mFileTransferService.dequeueGroupFileTransfer(chatId, id,
-                                            content, fileIconContent);
-                                } else {
-                                    mFileTransferService.dequeueOneToOneFileTransfer(id, contact,
-                                            content, fileIconContent);
-                                }
-                            } catch (MsrpException e) {
-                                if (logActivated) {
-                                    mLogger.debug(new StringBuilder(
-                                            "Failed to dequeue file transfer with fileTransferId '")
-                                            .append(id).append("' on chat '").append(chatId)
-                                            .append("' due to: ").append(e.getMessage()).toString());
-                                }
-                            }
-                            break;
-                        case STARTED:
-                            if (isGroupFileTransfer) {
-                                if (!isPossibleToDequeueGroupChatMessage(chatId)) {
-                                    setGroupFileTransferAsFailed(chatId, id);
-                                    continue;
-                                }
-                            } else {
-                                if (!isPossibleToDequeueOneToOneChatMessage(contact)) {
-                                    setOneToOneFileTransferAsFailed(contact, id);
-                                    continue;
-                                }
-                                if (!isAllowedToDequeueOneToOneChatMessage(contact)) {
-                                    continue;
-                                }
-                            }
-                            try {
-                                String fileInfo = FileTransferUtils
-                                        .createHttpFileTransferXml(mMessagingLog
-                                                .getGroupFileDownloadInfo(id));
-                                if (isGroupFileTransfer) {
-                                    GroupChatImpl groupChat = mChatService
-                                            .getOrCreateGroupChat(chatId);
-                                    GroupFileTransferImpl groupFileTransfer = mFileTransferService
-                                            .getOrCreateGroupFileTransfer(chatId, id);
-                                    groupChat.dequeueGroupFileInfo(id, fileInfo,
-                                            mDisplayedReportEnabled, mDeliveryReportEnabled,
-                                            groupFileTransfer);
-                                } else {
-                                    OneToOneChatImpl oneToOneChat = mChatService
-                                            .getOrCreateOneToOneChat(contact);
-                                    OneToOneFileTransferImpl oneToOneFileTransfer = mFileTransferService
-                                            .getOrCreateOneToOneFileTransfer(contact, id);
-                                    oneToOneChat.dequeueOneToOneFileInfo(id, fileInfo,
-                                            mDisplayedReportEnabled, mDeliveryReportEnabled,
-                                            oneToOneFileTransfer);
-                                }
-                            } catch (MsrpException e) {
-                                if (logActivated) {
-                                    mLogger.debug(new StringBuilder(
-                                            "Failed to dequeue file transfer with fileTransferId '")
-                                            .append(id).append("' on chat '").append(chatId)
-                                            .append("' due to: ").append(e.getMessage()).toString());
-                                }
-                            }
-                            break;
-                        default:
-                            break;
+                        ContactId contact = ContactUtil
+                                .createContactIdFromTrustedData(contactNumber);
+                        mDequeueScheduler.schedule(new OneToOneFileTransferItem(contact, id,
+                                state, file, fileIcon, size));
                     }
                 }
             }
@@ -215,20 +97,9 @@ public class FileTransferDequeueTask extends DequeueTask {
             /*
              * Normally all the terminal and non-terminal cases should be handled above so if we
              * come here that means that there is a bug and so we output a stack trace so the bug
-             * can then be properly tracked down and fixed. We also mark the respective entry that
-             * failed to dequeue as FAILED.
+             * can then be properly tracked down and fixed.
              */
-            mLogger.error(new StringBuilder(
-                    "Exception occured while dequeueing file transfer with transferId '")
-                    .append(id).append("' and chatId '").append(chatId).append("'!").toString(), e);
-            if (id == null) {
-                return;
-            }
-            if (isGroupFileTransfer) {
-                setGroupFileTransferAsFailed(chatId, id);
-            } else {
-                setOneToOneFileTransferAsFailed(contact, id);
-            }
+            mLogger.error("Exception occured while reading queued file transfers!", e);
         } finally {
             if (cursor != null) {
                 cursor.close();
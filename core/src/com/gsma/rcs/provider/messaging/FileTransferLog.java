@@ -33,6 +33,7 @@ import com.gsma.rcs.provider.fthttp.FtHttpResumeDownload;
 import com.gsma.rcs.provider.fthttp.FtHttpResumeUpload;
 import com.gsma.rcs.provider.settings.RcsSettings;
 import com.gsma.rcs.utils.ContactUtil;
+import com.gsma.rcs.utils.DatabaseUtils;
 import com.gsma.rcs.utils.logger.Logger;
 import com.gsma.services.rcs.RcsService.Direction;
 import com.gsma.services.rcs.RcsService.ReadStatus;
@@ -83,14 +84,14 @@ public class FileTransferLog implements IFileTransferLog {
     private static final String SELECTION_BY_MULTIPLE_FT_IDS = new StringBuilder(
             FileTransferData.KEY_FT_ID).append(" IN(").append("=?)").toString();
 
-    private static final int FILE_TRANSFER_DELIVERY_EXPIRED = 1;
+    private static final int FILE_TRANSFER_DELIVERY_NOT_EXPIRED = 0;
 
     private static final int FILE_TRANSFER_DELIVERY_EXPIRATION_NOT_APPLICABLE = 0;
 
     private static final String SELECTION_BY_UNDELIVERED_ONETOONE_FILE_TRANSFERS = new StringBuilder(
-            FileTransferData.KEY_EXPIRED_DELIVERY).append("<>")
-            .append(FILE_TRANSFER_DELIVERY_EXPIRED).append(" AND ")
-            .append(FileTransferData.KEY_DELIVERY_EXPIRATION).append("<>")
+            FileTransferData.KEY_EXPIRED_DELIVERY).append("=")
+            .append(FILE_TRANSFER_DELIVERY_NOT_EXPIRED).append(" AND ")
+            .append(FileTransferData.KEY_DELIVERY_EXPIRATION).append(">")
             .append(FILE_TRANSFER_DELIVERY_EXPIRATION_NOT_APPLICABLE).append(" AND ")
             .append(FileTransferData.KEY_STATE).append(" NOT IN(").append(State.DELIVERED.toInt())
             .append(",").append(State.DISPLAYED.toInt()).append(")").toString();
@@ -102,6 +103,10 @@ public class FileTransferLog implements IFileTransferLog {
         FileTransferData.KEY_FT_ID
     };
 
+    private final static String[] PROJECTION_FILE_ICON = new String[] {
+        FileTransferData.KEY_FILEICON
+    };
+
     private static final int FIRST_COLUMN_IDX = 0;
 
     private final LocalContentResolver mLocalContentResolver;
@@ -217,12 +222,10 @@ public class FileTransferLog implements IFileTransferLog {
         mLocalContentResolver.insert(FileTransferData.CONTENT_URI, values);
 
         try {
-            for (ContactId contact : recipients) {
-                /* Add entry with delivered and displayed timestamps set to 0. */
-                mGroupChatDeliveryInfoLog.addGroupChatDeliveryInfoEntry(chatId, contact,
-                        fileTransferId, GroupDeliveryInfo.Status.NOT_DELIVERED,
-                        GroupDeliveryInfo.ReasonCode.UNSPECIFIED, 0, 0);
-            }
+            /* Add entries with delivered and displayed timestamps set to 0. */
+            mGroupChatDeliveryInfoLog.addGroupChatDeliveryInfoEntries(chatId, recipients,
+                    fileTransferId, GroupDeliveryInfo.Status.NOT_DELIVERED,
+                    GroupDeliveryInfo.ReasonCode.UNSPECIFIED, 0, 0);
         } catch (Exception e) {
             if (logger.isActivated()) {
                 logger.error("Group file transfer with fileTransferId '" + fileTransferId
@@ -618,6 +621,28 @@ public class FileTransferLog implements IFileTransferLog {
         return getDataAsString(cursor);
     }
 
+    @Override
+    public List<String> getFileTransferIcons(Set<String> fileTransferIds) {
+        List<String> icons = new ArrayList<String>();
+        Cursor cursor = null;
+        try {
+            cursor = mLocalContentResolver.query(FileTransferData.CONTENT_URI,
+                    PROJECTION_FILE_ICON, DatabaseUtils.getSelectionIn(FileTransferData.KEY_FT_ID,
+                            fileTransferIds.size()),
+                    fileTransferIds.toArray(new String[fileTransferIds.size()]), null);
+            CursorUtil.assertCursorIsNotNull(cursor, FileTransferData.CONTENT_URI);
+            while (cursor.moveToNext()) {
+                if (!cursor.isNull(FIRST_COLUMN_IDX)) {
+                    icons.add(cursor.getString(FIRST_COLUMN_IDX));
+                }
+            }
+            return icons;
+
+        } finally {
+            CursorUtil.close(cursor);
+        }
+    }
+
     @Override
     public State getFileTransferState(String fileTransferId) {
         if (logger.isActivated()) {
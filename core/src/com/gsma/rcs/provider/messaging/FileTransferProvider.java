@@ -22,18 +22,17 @@
 
 package com.gsma.rcs.provider.messaging;
 
+import com.gsma.rcs.provider.SQLiteContentProvider;
 import com.gsma.rcs.provider.history.HistoryMemberBaseIdCreator;
 import com.gsma.rcs.service.api.ServerApiPersistentStorageException;
 import com.gsma.rcs.utils.DatabaseUtils;
 import com.gsma.services.rcs.filetransfer.FileTransferLog;
 
-import android.content.ContentProvider;
 import android.content.ContentValues;
 import android.content.Context;
 import android.content.UriMatcher;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
-import android.database.sqlite.SQLiteOpenHelper;
 import android.net.Uri;
 import android.text.TextUtils;
 
@@ -46,7 +45,7 @@ import java.util.Set;
  * 
  * @author Jean-Marc AUFFRET
  */
-public class FileTransferProvider extends ContentProvider {
+public class FileTransferProvider extends SQLiteContentProvider {
 
     private static final int INVALID_ROW_ID = -1;
 
@@ -120,11 +119,21 @@ public class FileTransferProvider extends ContentProvider {
      */
     public static final String DATABASE_NAME = "filetransfer.db";
 
-    private static class DatabaseHelper extends SQLiteOpenHelper {
-        private static final int DATABASE_VERSION = 16;
+    private static class DatabaseHelper extends TunedOpenHelper {
+        /**
+         * First version from which the table is migrated instead of being recreated
+         */
+        private static final int FIRST_MIGRATED_VERSION = 16;
+
+        /**
+         * Version adding the indexes of the dequeue and recovery queries
+         */
+        private static final int VERSION_DEQUEUE_INDEXES = 17;
+
+        private static final int DATABASE_VERSION = VERSION_DEQUEUE_INDEXES;
 
         public DatabaseHelper(Context ctx) {
-            super(ctx, DATABASE_NAME, null, DATABASE_VERSION);
+            super(ctx, DATABASE_NAME, DATABASE_VERSION, SYNCHRONOUS_NORMAL, DEFAULT_CACHE_SIZE);
         }
 
         @Override
@@ -172,17 +181,41 @@ public class FileTransferProvider extends ContentProvider {
                     .append(FileTransferData.KEY_TIMESTAMP_SENT).append("_idx").append(" ON ")
                     .append(TABLE).append('(').append(FileTransferData.KEY_TIMESTAMP_SENT)
                     .append(')').toString());
+            createDequeueIndexes(db);
+        }
+
+        /**
+         * Creates the indexes used by the dequeue and recovery queries run at service start-up
+         * (added in version 17).
+         * 
+         * @param db Database
+         */
+        private void createDequeueIndexes(SQLiteDatabase db) {
+            /* Queued, interrupted and paused transfers, in timestamp order */
+            db.execSQL(new StringBuilder("CREATE INDEX IF NOT EXISTS ").append(TABLE)
+                    .append("_state_timestamp_idx ON ").append(TABLE).append('(')
+                    .append(FileTransferData.KEY_STATE).append(',')
+                    .append(FileTransferData.KEY_TIMESTAMP).append(')').toString());
+            /* Undelivered transfers with a pending delivery expiration */
+            db.execSQL(new StringBuilder("CREATE INDEX IF NOT EXISTS ").append(TABLE)
+                    .append("_delivery_expiration_idx ON ").append(TABLE).append('(')
+                    .append(FileTransferData.KEY_EXPIRED_DELIVERY).append(',')
+                    .append(FileTransferData.KEY_DELIVERY_EXPIRATION).append(')').toString());
         }
 
         @Override
         public void onUpgrade(SQLiteDatabase db, int oldVersion, int currentVersion) {
-            db.execSQL("DROP TABLE IF EXISTS ".concat(TABLE));
-            onCreate(db);
+            if (oldVersion < FIRST_MIGRATED_VERSION) {
+                db.execSQL("DROP TABLE IF EXISTS ".concat(TABLE));
+                onCreate(db);
+                return;
+            }
+            if (oldVersion < VERSION_DEQUEUE_INDEXES) {
+                createDequeueIndexes(db);
+            }
         }
     }
 
-    private SQLiteOpenHelper mOpenHelper;
-
     private String getSelectionWithFtId(String selection) {
         if (TextUtils.isEmpty(selection)) {
             return SELECTION_WITH_FT_ID_ONLY;
@@ -242,8 +275,8 @@ public class FileTransferProvider extends ContentProvider {
     }
 
     @Override
-    public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
-            String sort) {
+    protected Cursor doQuery(Uri uri, String[] projection, String selection,
+            String[] selectionArgs, String sort) {
         Cursor cursor = null;
         try {
             switch (sUriMatcher.match(uri)) {
@@ -301,14 +334,22 @@ public class FileTransferProvider extends ContentProvider {
     }
 
     @Override
-    public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+    protected int doUpdate(Uri uri, ContentValues values, String selection,
+            String[] selectionArgs) {
         Uri notificationUri = FileTransferLog.CONTENT_URI;
         switch (sUriMatcher.match(uri)) {
             case UriType.InternalFileTransfer.FILE_TRANSFER_WITH_ID:
                 String ftId = uri.getLastPathSegment();
+                notificationUri = Uri.withAppendedPath(notificationUri, ftId);
+                if (TextUtils.isEmpty(selection)) {
+                    int count = updateById(TABLE, FileTransferData.KEY_FT_ID, ftId, values);
+                    if (count > 0) {
+                        getContext().getContentResolver().notifyChange(notificationUri, null);
+                    }
+                    return count;
+                }
                 selection = getSelectionWithFtId(selection);
                 selectionArgs = getSelectionArgsWithFtId(selectionArgs, ftId);
-                notificationUri = Uri.withAppendedPath(notificationUri, ftId);
                 /* Intentional fall through */
             case UriType.InternalFileTransfer.FILE_TRANSFER:
                 SQLiteDatabase db = mOpenHelper.getWritableDatabase();
@@ -331,7 +372,7 @@ public class FileTransferProvider extends ContentProvider {
     }
 
     @Override
-    public Uri insert(Uri uri, ContentValues initialValues) {
+    protected Uri doInsert(Uri uri, ContentValues initialValues) {
         switch (sUriMatcher.match(uri)) {
             case UriType.InternalFileTransfer.FILE_TRANSFER:
                 /* Intentional fall through */
@@ -362,7 +403,7 @@ public class FileTransferProvider extends ContentProvider {
     }
 
     @Override
-    public int delete(Uri uri, String selection, String[] selectionArgs) {
+    protected int doDelete(Uri uri, String selection, String[] selectionArgs) {
         Uri notificationUri = FileTransferLog.CONTENT_URI;
         switch (sUriMatcher.match(uri)) {
             case UriType.InternalFileTransfer.FILE_TRANSFER_WITH_ID:
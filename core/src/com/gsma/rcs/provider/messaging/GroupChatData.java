@@ -37,6 +37,12 @@ public class GroupChatData {
      */
     public static final Uri CONTENT_URI = Uri.parse("content://com.gsma.rcs.chat/groupchat");
 
+    /**
+     * Participants of a group chat, the chat ID is appended to this URI
+     */
+    public static final Uri PARTICIPANT_CONTENT_URI = Uri
+            .parse("content://com.gsma.rcs.chat/groupchatparticipant");
+
     /**
      * History log member id
      */
@@ -73,7 +79,8 @@ public class GroupChatData {
 
     /**
      * List of participants and associated status stored as a String parseable with the
-     * ChatLog.GroupChat.getParticipantInfos() method.
+     * ChatLog.GroupChat.getParticipantInfos() method. This column is derived by the provider from
+     * the participant table for client applications and is never written by the stack.
      */
     /* package private */static final String KEY_PARTICIPANTS = ChatLog.GroupChat.PARTICIPANTS;
 
@@ -104,4 +111,16 @@ public class GroupChatData {
      * Column name : Departed by user
      */
     /* package private */static final String KEY_USER_ABORTION = "user_abortion";
+
+    /**
+     * Column name of the participant table : ContactId formatted number of the participant
+     */
+    /* package private */static final String KEY_PARTICIPANT = "participant";
+
+    /**
+     * Column name of the participant table : Status of the participant
+     * 
+     * @see ParticipantStatus
+     */
+    /* package private */static final String KEY_PARTICIPANT_STATUS = "status";
 }
@@ -21,6 +21,7 @@ import com.gsma.rcs.core.ims.service.im.chat.GroupChatSession;
 import com.gsma.rcs.provider.DeleteTask;
 import com.gsma.rcs.provider.LocalContentResolver;
 import com.gsma.rcs.service.api.ChatServiceImpl;
+import com.gsma.rcs.utils.DatabaseUtils;
 
 import java.util.Set;
 
@@ -71,21 +72,28 @@ public class GroupChatDeleteTask extends DeleteTask.NotGrouped {
     @Override
     protected void onRowDelete(String chatId) {
         GroupChatSession session = mImService.getGroupChatSession(chatId);
-        if (session == null) {
-            mLocalContentResolver.delete(GroupDeliveryInfoData.CONTENT_URI,
-                    SELECTION_GROUPDELIVERY_BY_CHATID, new String[] {
-                        chatId
-                    });
-            return;
-
+        if (session != null) {
+            session.deleteSession();
         }
-        session.deleteSession();
         mLocalContentResolver.delete(GroupDeliveryInfoData.CONTENT_URI,
                 SELECTION_GROUPDELIVERY_BY_CHATID, new String[] {
                     chatId
                 });
     }
 
+    @Override
+    protected void onRowsDelete(Set<String> chatIds) {
+        for (String chatId : chatIds) {
+            GroupChatSession session = mImService.getGroupChatSession(chatId);
+            if (session != null) {
+                session.deleteSession();
+            }
+        }
+        mLocalContentResolver.delete(GroupDeliveryInfoData.CONTENT_URI,
+                DatabaseUtils.getSelectionIn(GroupDeliveryInfoData.KEY_CHAT_ID, chatIds.size()),
+                chatIds.toArray(new String[chatIds.size()]));
+    }
+
     @Override
     protected void onCompleted(Set<String> deletedIds) {
         mChatService.broadcastGroupChatsDeleted(deletedIds);
@@ -25,6 +25,7 @@ package com.gsma.rcs.provider.messaging;
 import com.gsma.rcs.core.ims.service.im.chat.GroupChatInfo;
 import com.gsma.rcs.provider.CursorUtil;
 import com.gsma.rcs.provider.LocalContentResolver;
+import com.gsma.rcs.service.api.ServerApiPersistentStorageException;
 import com.gsma.rcs.utils.ContactUtil;
 import com.gsma.rcs.utils.logger.Logger;
 import com.gsma.services.rcs.RcsService.Direction;
@@ -33,11 +34,15 @@ import com.gsma.services.rcs.chat.GroupChat.ReasonCode;
 import com.gsma.services.rcs.chat.GroupChat.State;
 import com.gsma.services.rcs.contact.ContactId;
 
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
 import android.content.ContentValues;
+import android.content.OperationApplicationException;
 import android.database.Cursor;
 import android.net.Uri;
 import android.util.SparseArray;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -48,10 +53,6 @@ import java.util.Set;
  */
 public class GroupChatLog implements IGroupChatLog {
 
-    private static final String PARTICIPANT_INFO_PARTICIPANT_SEPARATOR = ",";
-
-    private static final String PARTICIPANT_INFO_STATUS_SEPARATOR = "=";
-
     private final LocalContentResolver mLocalContentResolver;
 
     private final static String SELECT_CHAT_ID_STATUS_REJECTED = new StringBuilder(
@@ -68,7 +69,6 @@ public class GroupChatLog implements IGroupChatLog {
     private static final String[] PROJECTION_GC_INFO = new String[] {
         GroupChatData.KEY_CHAT_ID,
         GroupChatData.KEY_REJOIN_ID,
-        GroupChatData.KEY_PARTICIPANTS,
         GroupChatData.KEY_SUBJECT,
         GroupChatData.KEY_TIMESTAMP
     };
@@ -78,6 +78,10 @@ public class GroupChatLog implements IGroupChatLog {
         GroupChatData.KEY_CHAT_ID
     };
 
+    private static final String[] PROJECTION_PARTICIPANT = new String[] {
+            GroupChatData.KEY_PARTICIPANT, GroupChatData.KEY_PARTICIPANT_STATUS
+    };
+
     private static final Logger sLogger = Logger.getLogger(GroupChatLog.class.getSimpleName());
 
     private static final int FIRST_COLUMN_IDX = 0;
@@ -113,58 +117,87 @@ public class GroupChatLog implements IGroupChatLog {
         mLocalContentResolver = localContentResolver;
     }
 
+    private static Uri getParticipantUri(String chatId) {
+        return Uri.withAppendedPath(GroupChatData.PARTICIPANT_CONTENT_URI, chatId);
+    }
+
     /**
-     * Convert participants to string representation
+     * Adds to the operations the insertion of the participants, each replacing the stored status
+     * of the same participant if any
      * 
-     * @param participants the participants
-     * @return the string with comma separated values of key pairs formatted as follows: "key=value"
+     * @param ops Operations
+     * @param chatId Chat ID
+     * @param participants Participants and associated status
      */
-    private String generateEncodedParticipantInfos(Map<ContactId, ParticipantStatus> participants) {
-        StringBuilder builder = new StringBuilder();
-        int size = participants.size();
+    private static void addParticipantOperations(ArrayList<ContentProviderOperation> ops,
+            String chatId, Map<ContactId, ParticipantStatus> participants) {
+        Uri participantUri = getParticipantUri(chatId);
         for (Map.Entry<ContactId, ParticipantStatus> participant : participants.entrySet()) {
-            builder.append(participant.getKey());
-            builder.append(PARTICIPANT_INFO_STATUS_SEPARATOR);
-            builder.append(participant.getValue().toInt());
-            if (--size != 0) {
-                builder.append(PARTICIPANT_INFO_PARTICIPANT_SEPARATOR);
-            }
+            ops.add(ContentProviderOperation.newInsert(participantUri)
+                    .withValue(GroupChatData.KEY_PARTICIPANT, participant.getKey().toString())
+                    .withValue(GroupChatData.KEY_PARTICIPANT_STATUS,
+                            participant.getValue().toInt()).build());
+        }
+    }
+
+    /**
+     * Applies the operations to the chat provider in a single transaction
+     * 
+     * @param chatId Chat ID
+     * @param ops Operations
+     * @return the results of the operations
+     */
+    private ContentProviderResult[] applyBatch(String chatId,
+            ArrayList<ContentProviderOperation> ops) {
+        try {
+            return mLocalContentResolver.applyBatch(GroupChatData.CONTENT_URI.getAuthority(), ops);
+
+        } catch (OperationApplicationException e) {
+            throw new ServerApiPersistentStorageException(new StringBuilder(
+                    "Unable to write participants of group chat ").append(chatId).append('!')
+                    .toString(), e);
         }
-        return builder.toString();
     }
 
     /**
-     * Convert string representation of participants into participants
+     * Reads the participants of a group chat from the participant table
      * 
-     * @param participants the participants
+     * @param chatId Chat ID
+     * @param selection Selection on the participants or null for all
+     * @param selectionArgs Selection arguments
      * @return the participants and their individual status
      */
-    private Map<ContactId, ParticipantStatus> parseEncodedParticipantInfos(String participants) {
-        String[] encodedParticipantInfos = participants
-                .split(PARTICIPANT_INFO_PARTICIPANT_SEPARATOR);
-        Map<ContactId, ParticipantStatus> participantInfos = new HashMap<ContactId, ParticipantStatus>();
-        for (String encodedParticipantInfo : encodedParticipantInfos) {
-            String[] participantInfo = encodedParticipantInfo
-                    .split(PARTICIPANT_INFO_STATUS_SEPARATOR);
-            ContactId participant = ContactUtil.createContactIdFromTrustedData(participantInfo[0]);
-            ParticipantStatus status = ParticipantStatus.valueOf(Integer
-                    .parseInt(participantInfo[1]));
-            participantInfos.put(participant, status);
+    private Map<ContactId, ParticipantStatus> queryParticipants(String chatId, String selection,
+            String[] selectionArgs) {
+        Cursor cursor = null;
+        try {
+            Uri contentUri = getParticipantUri(chatId);
+            cursor = mLocalContentResolver.query(contentUri, PROJECTION_PARTICIPANT, selection,
+                    selectionArgs, null);
+            CursorUtil.assertCursorIsNotNull(cursor, contentUri);
+            Map<ContactId, ParticipantStatus> participants = new HashMap<ContactId, ParticipantStatus>(
+                    cursor.getCount());
+            while (cursor.moveToNext()) {
+                participants.put(ContactUtil.createContactIdFromTrustedData(cursor.getString(0)),
+                        ParticipantStatus.valueOf(cursor.getInt(1)));
+            }
+            return participants;
+
+        } finally {
+            CursorUtil.close(cursor);
         }
-        return participantInfos;
     }
 
     @Override
     public void addGroupChat(String chatId, ContactId contact, String subject,
             Map<ContactId, ParticipantStatus> participants, State state, ReasonCode reasonCode,
             Direction direction, long timestamp) {
-        String encodedParticipants = generateEncodedParticipantInfos(participants);
         if (sLogger.isActivated()) {
             sLogger.debug(new StringBuilder("addGroupChat; chatID=").append(chatId)
                     .append(", subject=").append(subject).append(", state=").append(state)
                     .append(" reasonCode=").append(reasonCode).append(", direction=")
                     .append(direction).append(", timestamp=").append(timestamp)
-                    .append(", participants=").append(encodedParticipants).toString());
+                    .append(", participants=").append(participants).toString());
         }
         ContentValues values = new ContentValues();
         values.put(GroupChatData.KEY_CHAT_ID, chatId);
@@ -174,12 +207,17 @@ public class GroupChatLog implements IGroupChatLog {
         values.put(GroupChatData.KEY_STATE, state.toInt());
         values.put(GroupChatData.KEY_REASON_CODE, reasonCode.toInt());
         values.put(GroupChatData.KEY_SUBJECT, subject);
-
-        values.put(GroupChatData.KEY_PARTICIPANTS, encodedParticipants);
+        /* Rebuilt by the provider from the participant table */
+        values.put(GroupChatData.KEY_PARTICIPANTS, "");
         values.put(GroupChatData.KEY_DIRECTION, direction.toInt());
         values.put(GroupChatData.KEY_TIMESTAMP, timestamp);
         values.put(GroupChatData.KEY_USER_ABORTION, UserAbortion.SERVER_NOTIFIED.toInt());
-        mLocalContentResolver.insert(GroupChatData.CONTENT_URI, values);
+        ArrayList<ContentProviderOperation> ops = new ArrayList<ContentProviderOperation>(
+                participants.size() + 1);
+        ops.add(ContentProviderOperation.newInsert(GroupChatData.CONTENT_URI)
+                .withValues(values).build());
+        addParticipantOperations(ops, chatId, participants);
+        applyBatch(chatId, ops);
     }
 
     @Override
@@ -196,18 +234,21 @@ public class GroupChatLog implements IGroupChatLog {
     @Override
     public boolean setGroupChatParticipantsStateAndReasonCode(String chatId,
             Map<ContactId, ParticipantStatus> participants, State state, ReasonCode reasonCode) {
-        String encodedParticipants = generateEncodedParticipantInfos(participants);
         if (sLogger.isActivated()) {
             sLogger.debug("setGCParticipantsStateAndReasonCode (chatId=" + chatId
-                    + ") (participants=" + encodedParticipants + ") (state=" + state
+                    + ") (participants=" + participants + ") (state=" + state
                     + ") (reasonCode=" + reasonCode + ")");
         }
-        ContentValues values = new ContentValues();
-        values.put(GroupChatData.KEY_PARTICIPANTS, encodedParticipants);
-        values.put(GroupChatData.KEY_STATE, state.toInt());
-        values.put(GroupChatData.KEY_REASON_CODE, reasonCode.toInt());
-        return mLocalContentResolver.update(
-                Uri.withAppendedPath(GroupChatData.CONTENT_URI, chatId), values, null, null) > 0;
+        ArrayList<ContentProviderOperation> ops = new ArrayList<ContentProviderOperation>(
+                participants.size() + 2);
+        ops.add(ContentProviderOperation
+                .newUpdate(Uri.withAppendedPath(GroupChatData.CONTENT_URI, chatId))
+                .withValue(GroupChatData.KEY_STATE, state.toInt())
+                .withValue(GroupChatData.KEY_REASON_CODE, reasonCode.toInt()).build());
+        ops.add(ContentProviderOperation.newDelete(getParticipantUri(chatId)).build());
+        addParticipantOperations(ops, chatId, participants);
+        ContentProviderResult[] results = applyBatch(chatId, ops);
+        return results[0].count > 0;
     }
 
     @Override
@@ -226,15 +267,36 @@ public class GroupChatLog implements IGroupChatLog {
     @Override
     public boolean setGroupChatParticipants(String chatId,
             Map<ContactId, ParticipantStatus> participants) {
-        String encodedParticipants = generateEncodedParticipantInfos(participants);
         if (sLogger.isActivated()) {
-            sLogger.debug("updateGroupChatParticipant (chatId=" + chatId + ") (participants="
-                    + encodedParticipants + ")");
+            sLogger.debug("setGroupChatParticipants (chatId=" + chatId + ") (participants="
+                    + participants + ")");
         }
-        ContentValues values = new ContentValues();
-        values.put(GroupChatData.KEY_PARTICIPANTS, encodedParticipants);
-        return mLocalContentResolver.update(
-                Uri.withAppendedPath(GroupChatData.CONTENT_URI, chatId), values, null, null) > 0;
+        if (!isGroupChatPersisted(chatId)) {
+            return false;
+        }
+        ArrayList<ContentProviderOperation> ops = new ArrayList<ContentProviderOperation>(
+                participants.size() + 1);
+        ops.add(ContentProviderOperation.newDelete(getParticipantUri(chatId)).build());
+        addParticipantOperations(ops, chatId, participants);
+        applyBatch(chatId, ops);
+        return true;
+    }
+
+    @Override
+    public boolean updateGroupChatParticipants(String chatId,
+            Map<ContactId, ParticipantStatus> participants) {
+        if (sLogger.isActivated()) {
+            sLogger.debug("updateGroupChatParticipants (chatId=" + chatId + ") (participants="
+                    + participants + ")");
+        }
+        if (!isGroupChatPersisted(chatId)) {
+            return false;
+        }
+        ArrayList<ContentProviderOperation> ops = new ArrayList<ContentProviderOperation>(
+                participants.size());
+        addParticipantOperations(ops, chatId, participants);
+        applyBatch(chatId, ops);
+        return true;
     }
 
     @Override
@@ -266,9 +328,8 @@ public class GroupChatLog implements IGroupChatLog {
                     .getColumnIndexOrThrow(GroupChatData.KEY_SUBJECT));
             String rejoinId = cursor.getString(cursor
                     .getColumnIndexOrThrow(GroupChatData.KEY_REJOIN_ID));
-            Map<ContactId, ParticipantStatus> participants = parseEncodedParticipantInfos(cursor
-                    .getString(cursor.getColumnIndexOrThrow(GroupChatData.KEY_PARTICIPANTS)));
-            return new GroupChatInfo(rejoinId, chatId, participants, subject, timestamp);
+            return new GroupChatInfo(rejoinId, chatId, queryParticipants(chatId, null, null),
+                    subject, timestamp);
 
         } finally {
             CursorUtil.close(cursor);
@@ -277,28 +338,30 @@ public class GroupChatLog implements IGroupChatLog {
 
     @Override
     public Map<ContactId, ParticipantStatus> getParticipants(String chatId) {
-        Cursor cursor = getGroupChatData(GroupChatData.KEY_PARTICIPANTS, chatId);
-        if (cursor == null) {
+        if (!isGroupChatPersisted(chatId)) {
             return null;
         }
-        return parseEncodedParticipantInfos(getDataAsString(cursor));
+        return queryParticipants(chatId, null, null);
     }
 
     @Override
     public Map<ContactId, ParticipantStatus> getParticipants(String chatId,
             Set<ParticipantStatus> statuses) {
-        Map<ContactId, ParticipantStatus> participants = getParticipants(chatId);
-        if (participants == null) {
+        if (!isGroupChatPersisted(chatId)) {
             return null;
         }
-        Map<ContactId, ParticipantStatus> matchingParticipants = new HashMap<ContactId, ParticipantStatus>();
-        for (Map.Entry<ContactId, ParticipantStatus> participant : participants.entrySet()) {
-            ParticipantStatus status = participant.getValue();
-            if (statuses.contains(status)) {
-                matchingParticipants.put(participant.getKey(), status);
+        StringBuilder selection = new StringBuilder(GroupChatData.KEY_PARTICIPANT_STATUS)
+                .append(" IN (");
+        String[] selectionArgs = new String[statuses.size()];
+        int i = 0;
+        for (ParticipantStatus status : statuses) {
+            if (i > 0) {
+                selection.append(',');
             }
+            selection.append('?');
+            selectionArgs[i++] = String.valueOf(status.toInt());
         }
-        return matchingParticipants;
+        return queryParticipants(chatId, selection.append(')').toString(), selectionArgs);
     }
 
     @Override
@@ -328,14 +391,6 @@ public class GroupChatLog implements IGroupChatLog {
         return cursor;
     }
 
-    private String getDataAsString(Cursor cursor) {
-        try {
-            return cursor.getString(FIRST_COLUMN_IDX);
-        } finally {
-            CursorUtil.close(cursor);
-        }
-    }
-
     private Integer getDataAsInteger(Cursor cursor) {
         try {
             if (cursor.isNull(FIRST_COLUMN_IDX)) {
@@ -90,6 +90,12 @@ public class GroupChatMessageDeleteTask extends DeleteTask.GroupedByChatId {
         mImService = imService;
     }
 
+    @Override
+    protected void onRowsDelete(String chatId, Set<String> msgIds) {
+        /* The group chat session is terminated once per batch, not once per message */
+        onRowDelete(chatId, null);
+    }
+
     @Override
     protected void onRowDelete(String chatId, String msgId) {
         if (isSingleRowDelete()) {
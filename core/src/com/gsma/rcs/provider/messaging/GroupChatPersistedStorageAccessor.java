@@ -232,6 +232,12 @@ public class GroupChatPersistedStorageAccessor {
         mMessagingLog.addIncomingGroupChatMessage(mChatId, msg, imdnDisplayedRequested);
     }
 
+    public void queueIncomingGroupChatMessage(ChatMessage msg, boolean imdnDisplayedRequested,
+            Runnable onPersisted) {
+        mMessagingLog.queueIncomingGroupChatMessage(mChatId, msg, imdnDisplayedRequested,
+                onPersisted);
+    }
+
     public void addOutgoingGroupChatMessage(ChatMessage msg, Set<ContactId> recipients,
             Status status, Content.ReasonCode reasonCode) {
         mMessagingLog.addOutgoingGroupChatMessage(mChatId, msg, recipients, status, reasonCode);
@@ -33,6 +33,8 @@ import android.content.ContentValues;
 import android.database.Cursor;
 import android.net.Uri;
 
+import java.util.Set;
+
 /**
  * Class to interface the deliveryinfo table
  */
@@ -65,9 +67,9 @@ public class GroupDeliveryInfoLog implements IGroupDeliveryInfoLog {
         mLocalContentResolver = localContentResolver;
     }
 
-    @Override
-    public Uri addGroupChatDeliveryInfoEntry(String chatId, ContactId contact, String msgId,
-            Status status, ReasonCode reasonCode, long timestampDelivered, long timestampDisplayed) {
+    private ContentValues getDeliveryInfoEntryValues(String chatId, ContactId contact,
+            String msgId, Status status, ReasonCode reasonCode, long timestampDelivered,
+            long timestampDisplayed) {
         ContentValues values = new ContentValues();
         values.put(GroupDeliveryInfoData.KEY_CHAT_ID, chatId);
         values.put(GroupDeliveryInfoData.KEY_ID, msgId);
@@ -76,7 +78,28 @@ public class GroupDeliveryInfoLog implements IGroupDeliveryInfoLog {
         values.put(GroupDeliveryInfoData.KEY_REASON_CODE, reasonCode.toInt());
         values.put(GroupDeliveryInfoData.KEY_TIMESTAMP_DELIVERED, timestampDelivered);
         values.put(GroupDeliveryInfoData.KEY_TIMESTAMP_DISPLAYED, timestampDisplayed);
-        return mLocalContentResolver.insert(GroupDeliveryInfoData.CONTENT_URI, values);
+        return values;
+    }
+
+    @Override
+    public Uri addGroupChatDeliveryInfoEntry(String chatId, ContactId contact, String msgId,
+            Status status, ReasonCode reasonCode, long timestampDelivered, long timestampDisplayed) {
+        return mLocalContentResolver.insert(GroupDeliveryInfoData.CONTENT_URI,
+                getDeliveryInfoEntryValues(chatId, contact, msgId, status, reasonCode,
+                        timestampDelivered, timestampDisplayed));
+    }
+
+    @Override
+    public void addGroupChatDeliveryInfoEntries(String chatId, Set<ContactId> recipients,
+            String msgId, Status status, ReasonCode reasonCode, long timestampDelivered,
+            long timestampDisplayed) {
+        ContentValues[] values = new ContentValues[recipients.size()];
+        int idx = 0;
+        for (ContactId recipient : recipients) {
+            values[idx++] = getDeliveryInfoEntryValues(chatId, recipient, msgId, status,
+                    reasonCode, timestampDelivered, timestampDisplayed);
+        }
+        mLocalContentResolver.bulkInsert(GroupDeliveryInfoData.CONTENT_URI, values);
     }
 
     /**
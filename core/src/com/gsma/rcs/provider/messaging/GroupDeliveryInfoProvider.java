@@ -6,24 +6,24 @@
 package com.gsma.rcs.provider.messaging;
 
 import com.gsma.rcs.provider.ContentProviderBaseIdCreator;
+import com.gsma.rcs.provider.SQLiteContentProvider;
 import com.gsma.rcs.service.api.ServerApiPersistentStorageException;
 import com.gsma.rcs.utils.DatabaseUtils;
 import com.gsma.services.rcs.groupdelivery.GroupDeliveryInfoLog;
 
-import android.content.ContentProvider;
 import android.content.ContentValues;
 import android.content.Context;
 import android.content.UriMatcher;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
-import android.database.sqlite.SQLiteOpenHelper;
 import android.net.Uri;
 import android.text.TextUtils;
 
+
 /**
  * Group Delivery info provider of chat and file messages
  */
-public class GroupDeliveryInfoProvider extends ContentProvider {
+public class GroupDeliveryInfoProvider extends SQLiteContentProvider {
 
     private static final int INVALID_ROW_ID = -1;
 
@@ -71,12 +71,12 @@ public class GroupDeliveryInfoProvider extends ContentProvider {
         private static final String TYPE_ITEM = "vnd.android.cursor.item/com.gsma.services.rcs.provider.groupdeliveryinfo";
     }
 
-    private static class DatabaseHelper extends SQLiteOpenHelper {
+    private static class DatabaseHelper extends TunedOpenHelper {
 
         private static final int DATABASE_VERSION = 4;
 
         public DatabaseHelper(Context ctx) {
-            super(ctx, DATABASE_NAME, null, DATABASE_VERSION);
+            super(ctx, DATABASE_NAME, DATABASE_VERSION, SYNCHRONOUS_NORMAL, DEFAULT_CACHE_SIZE);
         }
 
         @Override
@@ -107,8 +107,6 @@ public class GroupDeliveryInfoProvider extends ContentProvider {
         }
     }
 
-    private SQLiteOpenHelper mOpenHelper;
-
     private String getSelectionWithAppendedId(String selection) {
         if (TextUtils.isEmpty(selection)) {
             return SELECTION_WITH_ID_ONLY;
@@ -153,8 +151,8 @@ public class GroupDeliveryInfoProvider extends ContentProvider {
     }
 
     @Override
-    public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
-            String sort) {
+    protected Cursor doQuery(Uri uri, String[] projection, String selection,
+            String[] selectionArgs, String sort) {
         Cursor cursor = null;
         try {
             switch (sUriMatcher.match(uri)) {
@@ -210,7 +208,7 @@ public class GroupDeliveryInfoProvider extends ContentProvider {
     }
 
     @Override
-    public Uri insert(Uri uri, ContentValues initialValues) {
+    protected Uri doInsert(Uri uri, ContentValues initialValues) {
         switch (sUriMatcher.match(uri)) {
             case UriType.InternalGroupDeliveryInfo.DELIVERY:
                 /* Intentional fall through */
@@ -243,7 +241,8 @@ public class GroupDeliveryInfoProvider extends ContentProvider {
     }
 
     @Override
-    public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+    protected int doUpdate(Uri uri, ContentValues values, String selection,
+            String[] selectionArgs) {
         Uri notificationUri = GroupDeliveryInfoLog.CONTENT_URI;
         switch (sUriMatcher.match(uri)) {
             case UriType.InternalGroupDeliveryInfo.DELIVERY_WITH_ID:
@@ -273,7 +272,7 @@ public class GroupDeliveryInfoProvider extends ContentProvider {
     }
 
     @Override
-    public int delete(Uri uri, String selection, String[] selectionArgs) {
+    protected int doDelete(Uri uri, String selection, String[] selectionArgs) {
         Uri notificationUri = GroupDeliveryInfoLog.CONTENT_URI;
         switch (sUriMatcher.match(uri)) {
             case UriType.InternalGroupDeliveryInfo.DELIVERY_WITH_ID:
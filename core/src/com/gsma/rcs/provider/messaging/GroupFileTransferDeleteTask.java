@@ -22,6 +22,9 @@ import com.gsma.rcs.provider.DeleteTask;
 import com.gsma.rcs.provider.LocalContentResolver;
 import com.gsma.rcs.service.api.FileTransferServiceImpl;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 public class GroupFileTransferDeleteTask extends DeleteTask.GroupedByChatId {
@@ -37,6 +40,8 @@ public class GroupFileTransferDeleteTask extends DeleteTask.GroupedByChatId {
 
     private final InstantMessagingService mImService;
 
+    private final List<String> mThumbnailsToDelete = new ArrayList<String>();
+
     /**
      * Deletion of all group file transfers.
      * 
@@ -92,20 +97,45 @@ public class GroupFileTransferDeleteTask extends DeleteTask.GroupedByChatId {
 
     @Override
     protected void onRowDelete(String chatId, String transferId) {
-        FileSharingSession session = mImService.getFileSharingSession(transferId);
-        if (session == null) {
-            mFileTransferService.ensureThumbnailIsDeleted(transferId);
-            mFileTransferService.removeGroupFileTransfer(transferId);
-            return;
+        onRowsDelete(chatId, Collections.singleton(transferId));
+    }
 
+    /**
+     * Terminates the live sessions of the batch before the lock is taken and their rows are
+     * deleted, so that a transfer never runs on a deleted row while SIP teardown does not hold up
+     * other writers.
+     */
+    @Override
+    protected void onRowsDeleting(String chatId, Set<String> transferIds) {
+        for (String transferId : transferIds) {
+            FileSharingSession session = mImService.getFileSharingSession(transferId);
+            if (session != null) {
+                session.deleteSession();
+            }
+        }
+    }
+
+    /**
+     * Only collects the thumbnails of the batch while the lock is held, they are deleted in
+     * onCompleted once the lock is released.
+     */
+    @Override
+    protected void onRowsDelete(String chatId, Set<String> transferIds) {
+        for (String transferId : transferIds) {
+            FileSharingSession session = mImService.getFileSharingSession(transferId);
+            if (session != null) {
+                /* Started since onRowsDeleting, it must not outlive its row */
+                session.deleteSession();
+            }
+            mFileTransferService.removeGroupFileTransfer(transferId);
         }
-        session.deleteSession();
-        mFileTransferService.ensureThumbnailIsDeleted(transferId);
-        mFileTransferService.removeGroupFileTransfer(transferId);
+        mThumbnailsToDelete.addAll(mFileTransferService.getThumbnails(transferIds));
     }
 
     @Override
     protected void onCompleted(String chatId, Set<String> transferIds) {
+        mFileTransferService.deleteThumbnails(mThumbnailsToDelete);
+        mThumbnailsToDelete.clear();
         mFileTransferService.broadcastGroupFileTransfersDeleted(chatId, transferIds);
     }
 
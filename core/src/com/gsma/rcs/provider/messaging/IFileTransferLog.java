@@ -178,6 +178,14 @@ public interface IFileTransferLog {
      */
     public String getFileTransferIcon(String fileTransferId);
 
+    /**
+     * Returns the icons for a set of file transfers
+     * 
+     * @param fileTransferIds
+     * @return the icons of the file transfers that have one
+     */
+    public List<String> getFileTransferIcons(Set<String> fileTransferIds);
+
     /**
      * Set file upload TID
      * 
@@ -96,6 +96,17 @@ public interface IGroupChatLog {
     public boolean setGroupChatParticipants(String chatId,
             Map<ContactId, ParticipantStatus> participants);
 
+    /**
+     * Update the status of some group chat participants, adding the ones not yet stored and
+     * leaving the other participants untouched
+     * 
+     * @param chatId Chat ID
+     * @param participants map of updated participants and associated status
+     * @return True if the group chat exists, otherwise false
+     */
+    public boolean updateGroupChatParticipants(String chatId,
+            Map<ContactId, ParticipantStatus> participants);
+
     /**
      * Set group chat rejoin ID
      * 
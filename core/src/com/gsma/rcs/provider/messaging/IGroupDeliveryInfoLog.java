@@ -28,6 +28,8 @@ import com.gsma.services.rcs.groupdelivery.GroupDeliveryInfo.Status;
 
 import android.net.Uri;
 
+import java.util.Set;
+
 /**
  * Interface for the deliveryinfo table
  * 
@@ -49,6 +51,21 @@ public interface IGroupDeliveryInfoLog {
     public Uri addGroupChatDeliveryInfoEntry(String chatId, ContactId contact, String msgId,
             Status status, ReasonCode reasonCode, long timestampDisplayed, long timestampDelivered);
 
+    /**
+     * Add a new entry (chat message or file transfer) for each recipient in a single transaction
+     * 
+     * @param chatId Chat ID of a chat session
+     * @param recipients Contact phone identifiers
+     * @param msgId Message ID of a chat message
+     * @param status Delivery info status
+     * @param reasonCode Delivery info status reason code
+     * @param timestampDelivered Timestamp for delivery
+     * @param timestampDisplayed Timestamp for display
+     */
+    public void addGroupChatDeliveryInfoEntries(String chatId, Set<ContactId> recipients,
+            String msgId, Status status, ReasonCode reasonCode, long timestampDelivered,
+            long timestampDisplayed);
+
     /**
      * Set delivery status for outgoing group chat messages and files
      * 
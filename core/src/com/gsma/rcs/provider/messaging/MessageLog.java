@@ -62,6 +62,8 @@ public class MessageLog implements IMessageLog {
 
     private final RcsSettings mRcsSettings;
 
+    private final MessagingBatchWriter mBatchWriter;
+
     private static final Logger sLogger = Logger.getLogger(MessageLog.class.getSimpleName());
 
     private static final String[] PROJECTION_MESSAGE_ID = new String[] {
@@ -90,13 +92,13 @@ public class MessageLog implements IMessageLog {
     private static final String SELECTION_BY_MULTIPLE_MSG_IDS = new StringBuilder(
             MessageData.KEY_MESSAGE_ID).append(" IN(").append("=?)").toString();
 
-    private static final int CHAT_MESSAGE_DELIVERY_EXPIRED = 1;
+    private static final int CHAT_MESSAGE_DELIVERY_NOT_EXPIRED = 0;
 
     private static final int CHAT_MESSAGE_DELIVERY_EXPIRATION_NOT_APPLICABLE = 0;
 
     private static final String SELECTION_BY_UNDELIVERED_ONETOONE_CHAT_MESSAGES = new StringBuilder(
-            MessageData.KEY_EXPIRED_DELIVERY).append("<>").append(CHAT_MESSAGE_DELIVERY_EXPIRED)
-            .append(" AND ").append(MessageData.KEY_DELIVERY_EXPIRATION).append("<>")
+            MessageData.KEY_EXPIRED_DELIVERY).append("=").append(CHAT_MESSAGE_DELIVERY_NOT_EXPIRED)
+            .append(" AND ").append(MessageData.KEY_DELIVERY_EXPIRATION).append(">")
             .append(CHAT_MESSAGE_DELIVERY_EXPIRATION_NOT_APPLICABLE).append(" AND ")
             .append(MessageData.KEY_STATUS).append(" NOT IN(").append(Status.DELIVERED.toInt())
             .append(",").append(Status.DISPLAYED.toInt()).append(")").toString();
@@ -118,9 +120,20 @@ public class MessageLog implements IMessageLog {
         mGroupChatLog = groupChatLog;
         mGroupChatDeliveryInfoLog = groupChatDeliveryInfoLog;
         mRcsSettings = rcsSettings;
+        mBatchWriter = new MessagingBatchWriter(localContentResolver,
+                MessageData.CONTENT_URI.getAuthority());
     }
 
-    private void addIncomingOneToOneMessage(ChatMessage msg, Status status, ReasonCode reasonCode) {
+    /**
+     * Inserts a message through the batch writer so that it is committed after the messages
+     * already queued, and returns once it is persisted.
+     */
+    private void insert(String msgId, ContentValues values) {
+        mBatchWriter.insert(MessageData.CONTENT_URI, msgId, values);
+    }
+
+    private ContentValues getIncomingOneToOneMessageValues(ChatMessage msg, Status status,
+            ReasonCode reasonCode) {
         ContactId contact = msg.getRemoteContact();
         String msgId = msg.getMessageId();
         if (sLogger.isActivated()) {
@@ -148,7 +161,11 @@ public class MessageLog implements IMessageLog {
 
         values.put(MessageData.KEY_STATUS, status.toInt());
         values.put(MessageData.KEY_REASON_CODE, reasonCode.toInt());
-        mLocalContentResolver.insert(MessageData.CONTENT_URI, values);
+        return values;
+    }
+
+    private void addIncomingOneToOneMessage(ChatMessage msg, Status status, ReasonCode reasonCode) {
+        insert(msg.getMessageId(), getIncomingOneToOneMessageValues(msg, status, reasonCode));
     }
 
     /**
@@ -187,7 +204,7 @@ public class MessageLog implements IMessageLog {
         values.put(MessageData.KEY_EXPIRED_DELIVERY, 0);
         values.put(MessageData.KEY_STATUS, status.toInt());
         values.put(MessageData.KEY_REASON_CODE, reasonCode.toInt());
-        mLocalContentResolver.insert(MessageData.CONTENT_URI, values);
+        insert(msgId, values);
     }
 
     @Override
@@ -211,6 +228,50 @@ public class MessageLog implements IMessageLog {
         }
     }
 
+    /**
+     * Queue an incoming one-to-one chat message for a batched insert
+     * 
+     * @param msg Chat message
+     * @param imdnDisplayedRequested Indicates whether IMDN display was requested
+     * @param onPersisted Callback run once the message is persisted
+     */
+    public void queueIncomingOneToOneChatMessage(ChatMessage msg,
+            boolean imdnDisplayedRequested, Runnable onPersisted) {
+        Status status = imdnDisplayedRequested ? Status.DISPLAY_REPORT_REQUESTED : Status.RECEIVED;
+        mBatchWriter.queueInsert(MessageData.CONTENT_URI, msg.getMessageId(),
+                getIncomingOneToOneMessageValues(msg, status, ReasonCode.UNSPECIFIED), onPersisted);
+    }
+
+    /**
+     * Queue an incoming group chat message for a batched insert
+     * 
+     * @param chatId Chat ID
+     * @param msg Chat message
+     * @param imdnDisplayedRequested Indicates whether IMDN display was requested
+     * @param onPersisted Callback run once the message is persisted
+     */
+    public void queueIncomingGroupChatMessage(String chatId, ChatMessage msg,
+            boolean imdnDisplayedRequested, Runnable onPersisted) {
+        Status status = imdnDisplayedRequested ? Status.DISPLAY_REPORT_REQUESTED : Status.RECEIVED;
+        mBatchWriter.queueInsert(MessageData.CONTENT_URI, msg.getMessageId(),
+                getGroupChatMessageValues(chatId, msg, Direction.INCOMING, status,
+                        ReasonCode.UNSPECIFIED), onPersisted);
+    }
+
+    /**
+     * Commits the queued incoming chat messages
+     */
+    public void flushQueuedMessages() {
+        mBatchWriter.flush();
+    }
+
+    /**
+     * Commits the queued incoming chat messages and stops the batching thread
+     */
+    public void stopQueuedMessages() {
+        mBatchWriter.close();
+    }
+
     /**
      * Add incoming group chat message
      * 
@@ -241,17 +302,8 @@ public class MessageLog implements IMessageLog {
         addGroupChatMessage(chatId, msg, Direction.OUTGOING, recipients, status, reasonCode);
     }
 
-    /**
-     * Add group chat message
-     * 
-     * @param chatId Chat ID
-     * @param msg Chat message
-     * @param direction Direction
-     * @param status Status
-     * @param reasonCode Reason code
-     */
-    private void addGroupChatMessage(String chatId, ChatMessage msg, Direction direction,
-            Set<ContactId> recipients, Status status, ReasonCode reasonCode) {
+    private ContentValues getGroupChatMessageValues(String chatId, ChatMessage msg,
+            Direction direction, Status status, ReasonCode reasonCode) {
         String msgId = msg.getMessageId();
         ContactId contact = msg.getRemoteContact();
         if (sLogger.isActivated()) {
@@ -279,7 +331,24 @@ public class MessageLog implements IMessageLog {
         values.put(MessageData.KEY_TIMESTAMP_DISPLAYED, 0);
         values.put(MessageData.KEY_DELIVERY_EXPIRATION, 0);
         values.put(MessageData.KEY_EXPIRED_DELIVERY, 0);
-        mLocalContentResolver.insert(MessageData.CONTENT_URI, values);
+        return values;
+    }
+
+    /**
+     * Add group chat message
+     * 
+     * @param chatId Chat ID
+     * @param msg Chat message
+     * @param direction Direction
+     * @param status Status
+     * @param reasonCode Reason code
+     */
+    private void addGroupChatMessage(String chatId, ChatMessage msg, Direction direction,
+            Set<ContactId> recipients, Status status, ReasonCode reasonCode) {
+        String msgId = msg.getMessageId();
+        ContentValues values = getGroupChatMessageValues(chatId, msg, direction, status,
+                reasonCode);
+        insert(msgId, values);
 
         if (direction == Direction.OUTGOING) {
             try {
@@ -287,11 +356,9 @@ public class MessageLog implements IMessageLog {
                 if (mRcsSettings.isAlbatrosRelease()) {
                     deliveryStatus = GroupDeliveryInfo.Status.UNSUPPORTED;
                 }
-                for (ContactId recipient : recipients) {
-                    /* Add entry with delivered and displayed timestamps set to 0. */
-                    mGroupChatDeliveryInfoLog.addGroupChatDeliveryInfoEntry(chatId, recipient,
-                            msgId, deliveryStatus, GroupDeliveryInfo.ReasonCode.UNSPECIFIED, 0, 0);
-                }
+                /* Add entries with delivered and displayed timestamps set to 0. */
+                mGroupChatDeliveryInfoLog.addGroupChatDeliveryInfoEntries(chatId, recipients,
+                        msgId, deliveryStatus, GroupDeliveryInfo.ReasonCode.UNSPECIFIED, 0, 0);
             } catch (Exception e) {
                 // TODO CR037 we should not do such rollback nor catch exception at all?
                 mLocalContentResolver.delete(Uri.withAppendedPath(MessageData.CONTENT_URI, msgId),
@@ -332,12 +399,13 @@ public class MessageLog implements IMessageLog {
         values.put(MessageData.KEY_TIMESTAMP_DISPLAYED, 0);
         values.put(MessageData.KEY_DELIVERY_EXPIRATION, 0);
         values.put(MessageData.KEY_EXPIRED_DELIVERY, 0);
-        mLocalContentResolver.insert(MessageData.CONTENT_URI, values);
+        insert(msgId, values);
         return msgId;
     }
 
     @Override
     public void markMessageAsRead(String msgId) {
+        mBatchWriter.flushIfPending(msgId);
         if (sLogger.isActivated()) {
             sLogger.debug(new StringBuilder("Marking chat message as read: msgId=").append(msgId)
                     .toString());
@@ -367,6 +435,7 @@ public class MessageLog implements IMessageLog {
     @Override
     public boolean setChatMessageStatusAndReasonCode(String msgId, Status status,
             ReasonCode reasonCode) {
+        mBatchWriter.flushIfPending(msgId);
         if (sLogger.isActivated()) {
             sLogger.debug(new StringBuilder("Update chat message: msgId=").append(msgId)
                     .append(", status=").append(status).append(", reasonCode=").append(reasonCode)
@@ -399,6 +468,9 @@ public class MessageLog implements IMessageLog {
 
     @Override
     public boolean isMessagePersisted(String msgId) {
+        if (mBatchWriter.isPending(msgId)) {
+            return true;
+        }
         Cursor cursor = null;
         Uri contentUri = Uri.withAppendedPath(MessageData.CONTENT_URI, msgId);
         try {
@@ -412,6 +484,7 @@ public class MessageLog implements IMessageLog {
     }
 
     private Cursor getMessageData(String columnName, String msgId) {
+        mBatchWriter.flushIfPending(msgId);
         String[] projection = new String[] {
             columnName
         };
@@ -552,6 +625,7 @@ public class MessageLog implements IMessageLog {
 
     @Override
     public Cursor getChatMessageData(String msgId) {
+        mBatchWriter.flushIfPending(msgId);
         Uri contentUri = Uri.withAppendedPath(MessageData.CONTENT_URI, msgId);
         Cursor cursor = mLocalContentResolver.query(contentUri, null, null, null, null);
         CursorUtil.assertCursorIsNotNull(cursor, contentUri);
@@ -592,6 +666,7 @@ public class MessageLog implements IMessageLog {
 
     @Override
     public boolean setChatMessageTimestamp(String msgId, long timestamp, long timestampSent) {
+        mBatchWriter.flushIfPending(msgId);
         if (sLogger.isActivated()) {
             sLogger.debug(new StringBuilder("Set chat message timestamp msgId=").append(msgId)
                     .append(", timestamp=").append(timestamp).append(", timestampSent=")
@@ -637,6 +712,7 @@ public class MessageLog implements IMessageLog {
 
     @Override
     public boolean isOneToOneChatMessage(String msgId) {
+        mBatchWriter.flushIfPending(msgId);
         Cursor cursor = null;
         try {
             Uri contentUri = Uri.withAppendedPath(MessageData.CONTENT_URI, msgId);
@@ -659,6 +735,7 @@ public class MessageLog implements IMessageLog {
 
     @Override
     public boolean setChatMessageStatusDelivered(String msgId, long timestampDelivered) {
+        mBatchWriter.flushIfPending(msgId);
         if (sLogger.isActivated()) {
             sLogger.debug(new StringBuilder("setChatMessageStatusDelivered msgId=").append(msgId)
                     .append(", timestampDelivered=").append(timestampDelivered).toString());
@@ -674,6 +751,7 @@ public class MessageLog implements IMessageLog {
 
     @Override
     public boolean setChatMessageStatusDisplayed(String msgId, long timestampDisplayed) {
+        mBatchWriter.flushIfPending(msgId);
         if (sLogger.isActivated()) {
             sLogger.debug(new StringBuilder("setChatMessageStatusDisplayed msgId=").append(msgId)
                     .append(", timestampDisplayed=").append(timestampDisplayed).toString());
@@ -700,6 +778,7 @@ public class MessageLog implements IMessageLog {
 
     @Override
     public boolean setChatMessageDeliveryExpired(String msgId) {
+        mBatchWriter.flushIfPending(msgId);
         ContentValues values = new ContentValues();
         values.put(MessageData.KEY_EXPIRED_DELIVERY, 1);
         return mLocalContentResolver.update(Uri.withAppendedPath(MessageData.CONTENT_URI, msgId),
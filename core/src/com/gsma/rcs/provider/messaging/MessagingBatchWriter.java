@@ -0,0 +1,329 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.gsma.rcs.provider.messaging;
+
+import com.gsma.rcs.provider.LocalContentResolver;
+import com.gsma.rcs.service.api.ServerApiPersistentStorageException;
+import com.gsma.rcs.utils.logger.Logger;
+
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
+import android.content.ContentValues;
+import android.content.OperationApplicationException;
+import android.net.Uri;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Collects row inserts for one provider authority and commits them through a single provider batch
+ * transaction on a writer thread. A commit is started as soon as a row is queued, and the rows
+ * queued while a commit is in progress are committed together by the next one, so that a row is
+ * not delayed when the writer is idle and the rows are batched under load. The callback attached
+ * to each insert is run on the writer thread once the batch is committed, in the order in which
+ * the inserts were queued, so that notifications sent from the callbacks keep the order of the
+ * incoming messages and never run on a thread which flushed the batch. If the batch transaction
+ * fails, its inserts are committed one by one so that a single faulty row does not cost the whole
+ * batch.
+ */
+public class MessagingBatchWriter {
+
+    /**
+     * Maximum number of queued inserts before the batch is committed by the queuing thread
+     */
+    private static final int MAX_BATCH_SIZE = 50;
+
+    private static final Logger sLogger = Logger.getLogger(MessagingBatchWriter.class
+            .getSimpleName());
+
+    private static final class PendingInsert {
+
+        private final ContentProviderOperation mOperation;
+
+        private final String mId;
+
+        private final Runnable mOnPersisted;
+
+        /**
+         * Set under the commit lock once the row is committed
+         */
+        private boolean mPersisted;
+
+        private PendingInsert(ContentProviderOperation operation, String id, Runnable onPersisted) {
+            mOperation = operation;
+            mId = id;
+            mOnPersisted = onPersisted;
+        }
+    }
+
+    private final LocalContentResolver mLocalContentResolver;
+
+    private final String mAuthority;
+
+    /**
+     * Serializes the commits so that callbacks of consecutive batches are not interleaved
+     */
+    private final Object mCommitLock = new Object();
+
+    private final Runnable mScheduledCommit = new Runnable() {
+        @Override
+        public void run() {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                /*
+                 * Intentionally catch runtime exceptions as else it will abruptly end the writer
+                 * thread and the later batches would never be committed.
+                 */
+                sLogger.error("Failed to commit batched inserts!", e);
+            }
+        }
+    };
+
+    private List<PendingInsert> mPendingInserts = new ArrayList<PendingInsert>();
+
+    private final Set<String> mPendingIds = new HashSet<String>();
+
+    private boolean mCommitScheduled;
+
+    /**
+     * Created on the first queued insert and shut down by close()
+     */
+    private ExecutorService mWriter;
+
+    /**
+     * Constructor
+     * 
+     * @param localContentResolver Local content resolver
+     * @param authority Authority of the provider the inserts are committed to
+     */
+    protected MessagingBatchWriter(LocalContentResolver localContentResolver,
+            String authority) {
+        mLocalContentResolver = localContentResolver;
+        mAuthority = authority;
+    }
+
+    private synchronized ExecutorService getWriter() {
+        if (mWriter == null) {
+            mWriter = Executors.newSingleThreadExecutor();
+        }
+        return mWriter;
+    }
+
+    private PendingInsert queue(Uri uri, String id, ContentValues values, Runnable onPersisted) {
+        PendingInsert insert = new PendingInsert(ContentProviderOperation.newInsert(uri)
+                .withValues(values).build(), id, onPersisted);
+        boolean batchFull;
+        synchronized (this) {
+            mPendingInserts.add(insert);
+            mPendingIds.add(id);
+            batchFull = mPendingInserts.size() >= MAX_BATCH_SIZE;
+            if (!batchFull && !mCommitScheduled) {
+                mCommitScheduled = true;
+                getWriter().execute(mScheduledCommit);
+            }
+        }
+        if (batchFull) {
+            flush();
+        }
+        return insert;
+    }
+
+    /**
+     * Queues a row insert.
+     * 
+     * @param uri Content URI of the insert
+     * @param id Unique id of the inserted row
+     * @param values Values of the row
+     * @param onPersisted Callback run on the writer thread once the row is committed, or null
+     */
+    public void queueInsert(Uri uri, String id, ContentValues values, Runnable onPersisted) {
+        queue(uri, id, values, onPersisted);
+    }
+
+    /**
+     * Inserts a row after the queued inserts and returns once it is committed, so that rows which
+     * need to be persisted synchronously do not overtake the queued ones.
+     * 
+     * @param uri Content URI of the insert
+     * @param id Unique id of the inserted row
+     * @param values Values of the row
+     */
+    public void insert(Uri uri, String id, ContentValues values) {
+        PendingInsert insert = queue(uri, id, values, null);
+        flush();
+        /* The row was committed, if at all, under the commit lock that flush acquired */
+        synchronized (mCommitLock) {
+            if (!insert.mPersisted) {
+                throw new ServerApiPersistentStorageException(new StringBuilder(
+                        "Unable to insert ").append(id).append(" for authority ")
+                        .append(mAuthority).append('!').toString());
+            }
+        }
+    }
+
+    /**
+     * Checks if a row is queued but not yet committed.
+     * 
+     * @param id Unique id of the row
+     * @return true if the row is not yet committed
+     */
+    public synchronized boolean isPending(String id) {
+        return mPendingIds.contains(id);
+    }
+
+    /**
+     * Barrier for read-after-write: commits the queued inserts if the row is not yet committed.
+     * 
+     * @param id Unique id of the row
+     */
+    public void flushIfPending(String id) {
+        if (isPending(id)) {
+            flush();
+        }
+    }
+
+    /**
+     * Applies a batch to the provider
+     * 
+     * @param operations Operations of the batch
+     * @return Results of the operations
+     * @throws OperationApplicationException
+     */
+    protected ContentProviderResult[] applyBatch(
+            ArrayList<ContentProviderOperation> operations) throws OperationApplicationException {
+        return mLocalContentResolver.applyBatch(mAuthority, operations);
+    }
+
+    /**
+     * Commits all queued inserts in one transaction and hands their callbacks to the writer
+     * thread. Returns once the inserts queued before the call are persisted.
+     */
+    public void flush() {
+        synchronized (mCommitLock) {
+            final List<PendingInsert> inserts;
+            synchronized (this) {
+                mCommitScheduled = false;
+                if (mPendingInserts.isEmpty()) {
+                    return;
+                }
+                inserts = mPendingInserts;
+                mPendingInserts = new ArrayList<PendingInsert>();
+            }
+            ArrayList<ContentProviderOperation> operations = new ArrayList<ContentProviderOperation>();
+            for (PendingInsert insert : inserts) {
+                operations.add(insert.mOperation);
+            }
+            try {
+                applyBatch(operations);
+                for (PendingInsert insert : inserts) {
+                    insert.mPersisted = true;
+                }
+                if (sLogger.isActivated()) {
+                    sLogger.debug(new StringBuilder("Committed ").append(operations.size())
+                            .append(" batched inserts").toString());
+                }
+            } catch (OperationApplicationException e) {
+                sLogger.warn("Batch commit failed, committing the inserts one by one", e);
+                commitOneByOne(inserts);
+
+            } catch (RuntimeException e) {
+                /*
+                 * Intentionally catch runtime exceptions as the batch is otherwise lost with all
+                 * its callbacks.
+                 */
+                sLogger.warn("Batch commit failed, committing the inserts one by one", e);
+                commitOneByOne(inserts);
+
+            } finally {
+                synchronized (this) {
+                    for (PendingInsert insert : inserts) {
+                        mPendingIds.remove(insert.mId);
+                    }
+                }
+            }
+            /* Handed over under the commit lock so that the batches are notified in order */
+            getWriter().execute(new Runnable() {
+                @Override
+                public void run() {
+                    notifyPersisted(inserts);
+                }
+            });
+        }
+    }
+
+    private void notifyPersisted(List<PendingInsert> inserts) {
+        for (PendingInsert insert : inserts) {
+            if (!insert.mPersisted || insert.mOnPersisted == null) {
+                continue;
+            }
+            try {
+                insert.mOnPersisted.run();
+            } catch (RuntimeException e) {
+                /*
+                 * Intentionally catch runtime exceptions as else it will abruptly end the writer
+                 * thread and the remaining callbacks of the batch would never run.
+                 */
+                sLogger.error("Callback of insert ".concat(insert.mId).concat(" failed!"), e);
+            }
+        }
+    }
+
+    /**
+     * Commits the inserts of a failed batch one by one.
+     */
+    private void commitOneByOne(List<PendingInsert> inserts) {
+        for (PendingInsert insert : inserts) {
+            ArrayList<ContentProviderOperation> single = new ArrayList<ContentProviderOperation>();
+            single.add(insert.mOperation);
+            try {
+                applyBatch(single);
+                insert.mPersisted = true;
+
+            } catch (OperationApplicationException e) {
+                sLogger.error("Unable to insert ".concat(insert.mId), e);
+
+            } catch (RuntimeException e) {
+                /*
+                 * Intentionally catch runtime exceptions as else the remaining inserts of the batch
+                 * are lost.
+                 */
+                sLogger.error("Unable to insert ".concat(insert.mId), e);
+            }
+        }
+    }
+
+    /**
+     * Commits the queued inserts and stops the writer thread once their callbacks have run. A later
+     * insert starts it again.
+     */
+    public void close() {
+        flush();
+        ExecutorService writer;
+        synchronized (this) {
+            writer = mWriter;
+            mWriter = null;
+        }
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+}
@@ -130,6 +130,12 @@ public class MessagingLog implements IGroupChatLog, IMessageLog, IFileTransferLo
         return mGroupChatLog.setGroupChatParticipants(chatId, participants);
     }
 
+    @Override
+    public boolean updateGroupChatParticipants(String chatId,
+            Map<ContactId, ParticipantStatus> participants) {
+        return mGroupChatLog.updateGroupChatParticipants(chatId, participants);
+    }
+
     @Override
     public boolean setGroupChatRejoinId(String chatId, String rejoinId) {
         return mGroupChatLog.setGroupChatRejoinId(chatId, rejoinId);
@@ -162,6 +168,48 @@ public class MessagingLog implements IGroupChatLog, IMessageLog, IFileTransferLo
         mMessageLog.addIncomingGroupChatMessage(chatId, msg, imdnDisplayedRequested);
     }
 
+    /**
+     * Queue an incoming one-to-one chat message for a batched insert
+     * 
+     * @param msg Chat message
+     * @param imdnDisplayedRequested IMDN display report requested
+     * @param onPersisted Callback run once the message is persisted
+     */
+    public void queueIncomingOneToOneChatMessage(ChatMessage msg,
+            boolean imdnDisplayedRequested, Runnable onPersisted) {
+        mMessageLog.queueIncomingOneToOneChatMessage(msg, imdnDisplayedRequested, onPersisted);
+    }
+
+    /**
+     * Queue an incoming group chat message for a batched insert
+     * 
+     * @param chatId Chat ID
+     * @param msg Chat message
+     * @param imdnDisplayedRequested IMDN display report requested
+     * @param onPersisted Callback run once the message is persisted
+     */
+    public void queueIncomingGroupChatMessage(String chatId, ChatMessage msg,
+            boolean imdnDisplayedRequested, Runnable onPersisted) {
+        mMessageLog.queueIncomingGroupChatMessage(chatId, msg, imdnDisplayedRequested,
+                onPersisted);
+    }
+
+    /**
+     * Commits the queued incoming chat messages, to be called before reading back or deleting
+     * messages in bulk
+     */
+    public void flushQueuedMessages() {
+        mMessageLog.flushQueuedMessages();
+    }
+
+    /**
+     * Commits the queued incoming chat messages and stops the batching thread, to be called when
+     * the core is stopped
+     */
+    public void stopQueuedMessages() {
+        mMessageLog.stopQueuedMessages();
+    }
+
     @Override
     public void addOutgoingGroupChatMessage(String chatId, ChatMessage msg,
             Set<ContactId> recipients, Status status, Content.ReasonCode reasonCode) {
@@ -291,6 +339,11 @@ public class MessagingLog implements IGroupChatLog, IMessageLog, IFileTransferLo
         return mFileTransferLog.getFileTransferIcon(fileTransferId);
     }
 
+    @Override
+    public List<String> getFileTransferIcons(Set<String> fileTransferIds) {
+        return mFileTransferLog.getFileTransferIcons(fileTransferIds);
+    }
+
     @Override
     public boolean isFileTransfer(String fileTransferId) {
         return mFileTransferLog.isFileTransfer(fileTransferId);
@@ -305,6 +358,7 @@ public class MessagingLog implements IGroupChatLog, IMessageLog, IFileTransferLo
      * Delete all entries in Chat, Message and FileTransfer Logs
      */
     public void deleteAllEntries() {
+        mMessageLog.flushQueuedMessages();
         mLocalContentResolver.delete(GroupChatData.CONTENT_URI, null, null);
         mLocalContentResolver.delete(MessageData.CONTENT_URI, null, null);
         mLocalContentResolver.delete(FileTransferData.CONTENT_URI, null, null);
@@ -319,6 +373,14 @@ public class MessagingLog implements IGroupChatLog, IMessageLog, IFileTransferLo
                 status, reasonCode, timestampDelivered, timestampDisplayed);
     }
 
+    @Override
+    public void addGroupChatDeliveryInfoEntries(String chatId, Set<ContactId> recipients,
+            String msgId, GroupDeliveryInfo.Status status, GroupDeliveryInfo.ReasonCode reasonCode,
+            long timestampDelivered, long timestampDisplayed) {
+        mGroupChatDeliveryInfoLog.addGroupChatDeliveryInfoEntries(chatId, recipients, msgId,
+                status, reasonCode, timestampDelivered, timestampDisplayed);
+    }
+
     @Override
     public boolean setGroupChatDeliveryInfoStatusAndReasonCode(String chatId, ContactId contact,
             String msgId, GroupDeliveryInfo.Status status, GroupDeliveryInfo.ReasonCode reasonCode) {
@@ -48,7 +48,6 @@ public class OneToOneChatMessageDeleteTask extends DeleteTask.GroupedByContactId
                 MessageData.KEY_CONTACT, SELECTION_ONETOONE_CHATMESSAGES);
         mChatService = chatService;
         mImService = imService;
-        setAllAtOnce(true);
     }
 
     /**
@@ -85,7 +84,12 @@ public class OneToOneChatMessageDeleteTask extends DeleteTask.GroupedByContactId
                 MessageData.KEY_CONTACT, contact);
         mChatService = chatService;
         mImService = imService;
-        setAllAtOnce(true);
+    }
+
+    @Override
+    protected void onRowsDelete(ContactId contact, Set<String> msgIds) {
+        /* The conversation is terminated once per batch, not once per message */
+        onRowDelete(contact, null);
     }
 
     @Override
@@ -17,15 +17,12 @@
 package com.gsma.rcs.provider.messaging;
 
 import com.gsma.rcs.core.Core;
-import com.gsma.rcs.core.ims.protocol.msrp.MsrpException;
-import com.gsma.rcs.core.ims.service.im.chat.ChatMessage;
-import com.gsma.rcs.core.ims.service.im.chat.ChatUtils;
 import com.gsma.rcs.provider.contact.ContactManager;
 import com.gsma.rcs.provider.settings.RcsSettings;
+import com.gsma.rcs.service.DequeueScheduler;
 import com.gsma.rcs.service.DequeueTask;
 import com.gsma.rcs.service.api.ChatServiceImpl;
 import com.gsma.rcs.service.api.FileTransferServiceImpl;
-import com.gsma.rcs.service.api.OneToOneChatImpl;
 import com.gsma.services.rcs.contact.ContactId;
 
 import android.content.Context;
@@ -41,9 +38,10 @@ public class OneToOneChatMessageDequeueTask extends DequeueTask {
 
     public OneToOneChatMessageDequeueTask(Object lock, Context ctx, Core core, ContactId contact,
             MessagingLog messagingLog, ChatServiceImpl chatService, RcsSettings rcsSettings,
-            ContactManager contactManager, FileTransferServiceImpl fileTransferService) {
+            ContactManager contactManager, FileTransferServiceImpl fileTransferService,
+            DequeueScheduler dequeueScheduler) {
         super(lock, ctx, core, contactManager, messagingLog, rcsSettings, chatService,
-                fileTransferService);
+                fileTransferService, dequeueScheduler);
         mContact = contact;
     }
 
@@ -53,8 +51,6 @@ public class OneToOneChatMessageDequeueTask extends DequeueTask {
             mLogger.debug("Execute task to dequeue one-to-one chat messages for contact "
                     .concat(mContact.toString()));
         }
-        String id = null;
-        String mimeType = null;
         Cursor cursor = null;
         try {
             synchronized (mLock) {
@@ -77,63 +73,21 @@ public class OneToOneChatMessageDequeueTask extends DequeueTask {
                 int msgIdIdx = cursor.getColumnIndexOrThrow(MessageData.KEY_MESSAGE_ID);
                 int contentIdx = cursor.getColumnIndexOrThrow(MessageData.KEY_CONTENT);
                 int mimeTypeIdx = cursor.getColumnIndexOrThrow(MessageData.KEY_MIME_TYPE);
-                OneToOneChatImpl oneToOneChat = mChatService.getOrCreateOneToOneChat(mContact);
                 while (cursor.moveToNext()) {
-                    if (!isImsConnected()) {
-                        if (logActivated) {
-                            mLogger.debug("IMS not connected, exiting dequeue task to dequeue one-to-one chat messages for contact "
-                                    .concat(mContact.toString()));
-                        }
-                        return;
-                    }
-                    if (mCore.isStopping()) {
-                        if (logActivated) {
-                            mLogger.debug("Core service is stopped, exiting dequeue task to dequeue one-to-one chat messages for contact "
-                                    .concat(mContact.toString()));
-                        }
-                        return;
-                    }
-                    id = cursor.getString(msgIdIdx);
-                    mimeType = cursor.getString(mimeTypeIdx);
-                    if (!isPossibleToDequeueOneToOneChatMessage(mContact)) {
-                        setOneToOneChatMessageAsFailed(mContact, id, mimeType);
-                        continue;
-                    }
-                    if (!isAllowedToDequeueOneToOneChatMessage(mContact)) {
-                        continue;
-                    }
-                    String content = cursor.getString(contentIdx);
-                    long timestamp = System.currentTimeMillis();
-                    /* For outgoing message, timestampSent = timestamp */
-                    ChatMessage message = ChatUtils.createChatMessage(id, mimeType, content,
-                            mContact, null, timestamp, timestamp);
-                    try {
-                        oneToOneChat.dequeueOneToOneChatMessage(message);
-                    } catch (MsrpException e) {
-                        if (logActivated) {
-                            mLogger.debug(new StringBuilder(
-                                    "Failed to dequeue one-one chat message '").append(id)
-                                    .append("' message for contact '").append(mContact)
-                                    .append("' due to: ").append(e.getMessage()).toString());
-                        }
-                    }
+                    mDequeueScheduler.schedule(new OneToOneChatMessageItem(mContact, cursor
+                            .getString(msgIdIdx), cursor.getString(mimeTypeIdx), cursor
+                            .getString(contentIdx)));
                 }
             }
         } catch (RuntimeException e) {
             /*
              * Normally all the terminal and non-terminal cases should be handled above so if we
              * come here that means that there is a bug and so we output a stack trace so the bug
-             * can then be properly tracked down and fixed. We also mark the respective entry that
-             * failed to dequeue as FAILED.
+             * can then be properly tracked down and fixed.
              */
             mLogger.error(new StringBuilder(
-                    "Exception occured while dequeueing one-to-one chat message with msgId '")
-                    .append(id).append("'for contact '").append(mContact).append("' ").toString(),
-                    e);
-            if (id == null) {
-                return;
-            }
-            setOneToOneChatMessageAsFailed(mContact, id, mimeType);
+                    "Exception occured while reading queued one-to-one chat messages for contact '")
+                    .append(mContact).append("' ").toString(), e);
         } finally {
             if (cursor != null) {
                 cursor.close();
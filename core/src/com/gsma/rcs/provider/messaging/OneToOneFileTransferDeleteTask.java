@@ -23,6 +23,9 @@ import com.gsma.rcs.provider.LocalContentResolver;
 import com.gsma.rcs.service.api.FileTransferServiceImpl;
 import com.gsma.services.rcs.contact.ContactId;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 public class OneToOneFileTransferDeleteTask extends DeleteTask.GroupedByContactId {
@@ -35,6 +38,8 @@ public class OneToOneFileTransferDeleteTask extends DeleteTask.GroupedByContactI
 
     private final InstantMessagingService mImService;
 
+    private final List<String> mThumbnailsToDelete = new ArrayList<String>();
+
     /**
      * Deletion of all one to one file transfers.
      * 
@@ -89,19 +94,45 @@ public class OneToOneFileTransferDeleteTask extends DeleteTask.GroupedByContactI
 
     @Override
     protected void onRowDelete(ContactId contact, String transferId) {
-        FileSharingSession session = mImService.getFileSharingSession(transferId);
-        if (session == null) {
-            mFileTransferService.ensureThumbnailIsDeleted(transferId);
-            mFileTransferService.removeOneToOneFileTransfer(transferId);
-            return;
+        onRowsDelete(contact, Collections.singleton(transferId));
+    }
 
+    /**
+     * Terminates the live sessions of the batch before the lock is taken and their rows are
+     * deleted, so that a transfer never runs on a deleted row while SIP teardown does not hold up
+     * other writers.
+     */
+    @Override
+    protected void onRowsDeleting(ContactId contact, Set<String> transferIds) {
+        for (String transferId : transferIds) {
+            FileSharingSession session = mImService.getFileSharingSession(transferId);
+            if (session != null) {
+                session.deleteSession();
+            }
+        }
+    }
+
+    /**
+     * Only collects the thumbnails of the batch while the lock is held, they are deleted in
+     * onCompleted once the lock is released.
+     */
+    @Override
+    protected void onRowsDelete(ContactId contact, Set<String> transferIds) {
+        for (String transferId : transferIds) {
+            FileSharingSession session = mImService.getFileSharingSession(transferId);
+            if (session != null) {
+                /* Started since onRowsDeleting, it must not outlive its row */
+                session.deleteSession();
+            }
+            mFileTransferService.removeOneToOneFileTransfer(transferId);
         }
-        session.deleteSession();
-        mFileTransferService.removeOneToOneFileTransfer(transferId);
+        mThumbnailsToDelete.addAll(mFileTransferService.getThumbnails(transferIds));
     }
 
     @Override
     protected void onCompleted(ContactId contact, Set<String> transferIds) {
+        mFileTransferService.deleteThumbnails(mThumbnailsToDelete);
+        mThumbnailsToDelete.clear();
         mFileTransferService.broadcastOneToOneFileTransferDeleted(contact, transferIds);
     }
 }
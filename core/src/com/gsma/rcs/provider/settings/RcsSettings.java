@@ -35,6 +35,7 @@ import com.gsma.rcs.provider.settings.RcsSettingsData.GsmaRelease;
 import com.gsma.rcs.provider.settings.RcsSettingsData.ImMsgTech;
 import com.gsma.rcs.provider.settings.RcsSettingsData.ImSessionStartMode;
 import com.gsma.rcs.provider.settings.RcsSettingsData.NetworkAccessType;
+import com.gsma.rcs.service.api.ServerApiPersistentStorageException;
 import com.gsma.rcs.utils.ContactUtil;
 import com.gsma.services.rcs.CommonServiceConfiguration.MessagingMethod;
 import com.gsma.services.rcs.CommonServiceConfiguration.MessagingMode;
@@ -42,10 +43,14 @@ import com.gsma.services.rcs.CommonServiceConfiguration.MinimumBatteryLevel;
 import com.gsma.services.rcs.contact.ContactId;
 import com.gsma.services.rcs.filetransfer.FileTransferServiceConfiguration.ImageResizeOption;
 
+import android.content.ContentProviderOperation;
 import android.content.ContentValues;
+import android.content.OperationApplicationException;
 import android.database.Cursor;
+import android.net.Uri;
 import android.text.TextUtils;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -86,6 +91,21 @@ public class RcsSettings {
      */
     final private Map<String, String> mCache;
 
+    /**
+     * Parameters written by the staging thread and not yet applied to the provider
+     */
+    final private Map<String, String> mStagedParameters;
+
+    /**
+     * Thread whose writes are staged, null if writes are applied at once
+     */
+    private volatile Thread mStagingThread;
+
+    /**
+     * Incremented each time parameters are written
+     */
+    private volatile int mGeneration;
+
     /**
      * Create singleton instance
      * 
@@ -110,6 +130,7 @@ public class RcsSettings {
         super();
         mLocalContentResolver = localContentResolver;
         mCache = new HashMap<String, String>();
+        mStagedParameters = new HashMap<String, String>();
     }
 
     /**
@@ -199,6 +220,12 @@ public class RcsSettings {
             throw new IllegalStateException("RcsInstance not created");
         }
         String value = null;
+        if (mStagingThread == Thread.currentThread()) {
+            value = mStagedParameters.get(key);
+            if (value != null) {
+                return value;
+            }
+        }
         // First read value from cache
         value = mCache.get(key);
         if (value != null) {
@@ -228,7 +255,7 @@ public class RcsSettings {
     }
 
     /**
-     * Write a string setting parameter
+     * Write a string setting parameter, staged if the calling thread has started staging
      * 
      * @param key
      * @param value
@@ -238,6 +265,9 @@ public class RcsSettings {
         if (sInstance == null || value == null) {
             return 0;
         }
+        if (mStagingThread == Thread.currentThread()) {
+            return stageParameter(key, value);
+        }
         ContentValues values = new ContentValues();
         values.put(RcsSettingsData.KEY_VALUE, value);
         String[] whereArgs = new String[] {
@@ -248,10 +278,112 @@ public class RcsSettings {
         if (count != 0) {
             // Put in cache
             mCache.put(key, value);
+            mGeneration++;
         }
         return count;
     }
 
+    private int stageParameter(String key, String value) {
+        if (value.equals(mCache.get(key))) {
+            mStagedParameters.remove(key);
+        } else {
+            mStagedParameters.put(key, value);
+        }
+        return 1;
+    }
+
+    /**
+     * Returns a counter incremented each time parameters are written, so that values derived from
+     * the settings can be cached until the settings change
+     * 
+     * @return Generation of the settings
+     */
+    public int getGeneration() {
+        return mGeneration;
+    }
+
+    /**
+     * Starts staging the parameters written by the calling thread. The current parameters are
+     * read in a single query, the written parameters are compared to them and only the changed
+     * ones are kept until {@link #applyStagedParameters()} writes them in a single transaction.
+     * The staged values are returned when read from the staging thread only.
+     */
+    public void startStaging() {
+        if (mStagingThread != null) {
+            throw new IllegalStateException("Parameters are already staged!");
+        }
+        Cursor c = null;
+        try {
+            c = mLocalContentResolver.query(RcsSettingsData.CONTENT_URI, new String[] {
+                    RcsSettingsData.KEY_KEY, RcsSettingsData.KEY_VALUE
+            }, null, null, null);
+            CursorUtil.assertCursorIsNotNull(c, RcsSettingsData.CONTENT_URI);
+            int keyIdx = c.getColumnIndexOrThrow(RcsSettingsData.KEY_KEY);
+            int valueIdx = c.getColumnIndexOrThrow(RcsSettingsData.KEY_VALUE);
+            while (c.moveToNext()) {
+                String value = c.getString(valueIdx);
+                if (value != null) {
+                    mCache.put(c.getString(keyIdx), value);
+                }
+            }
+        } finally {
+            if (c != null) {
+                c.close();
+            }
+        }
+        mStagedParameters.clear();
+        mStagingThread = Thread.currentThread();
+    }
+
+    /**
+     * Writes the changed parameters staged since {@link #startStaging()} in a single transaction
+     * with a single change notification, then stops staging.
+     * 
+     * @return the number of changed parameters
+     */
+    public int applyStagedParameters() {
+        if (mStagingThread != Thread.currentThread()) {
+            throw new IllegalStateException("Parameters are not staged by this thread!");
+        }
+        try {
+            if (mStagedParameters.isEmpty()) {
+                return 0;
+            }
+            ArrayList<ContentProviderOperation> ops = new ArrayList<ContentProviderOperation>(
+                    mStagedParameters.size());
+            for (Map.Entry<String, String> parameter : mStagedParameters.entrySet()) {
+                Uri uri = Uri.withAppendedPath(RcsSettingsData.CONTENT_URI, parameter.getKey());
+                ops.add(ContentProviderOperation.newUpdate(uri)
+                        .withValue(RcsSettingsData.KEY_VALUE, parameter.getValue()).build());
+            }
+            try {
+                mLocalContentResolver.applyBatch(RcsSettingsData.CONTENT_URI.getAuthority(), ops);
+            } catch (OperationApplicationException e) {
+                throw new ServerApiPersistentStorageException(new StringBuilder(
+                        "Unable to write ").append(ops.size())
+                        .append(" staged settings!").toString(), e);
+            }
+            mCache.putAll(mStagedParameters);
+            mGeneration++;
+            return ops.size();
+
+        } finally {
+            discardStagedParameters();
+        }
+    }
+
+    /**
+     * Drops the parameters staged since {@link #startStaging()} and stops staging, does nothing
+     * if the parameters are not staged by the calling thread
+     */
+    public void discardStagedParameters() {
+        if (mStagingThread != Thread.currentThread()) {
+            return;
+        }
+        mStagingThread = null;
+        mStagedParameters.clear();
+    }
+
     /**
      * Is RCS service activated
      * 
@@ -22,15 +22,17 @@
 
 package com.gsma.rcs.provider.settings;
 
+import com.gsma.rcs.provider.SQLiteContentProvider;
 import com.gsma.rcs.utils.DatabaseUtils;
 
-import android.content.ContentProvider;
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
 import android.content.ContentValues;
 import android.content.Context;
+import android.content.OperationApplicationException;
 import android.content.UriMatcher;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
-import android.database.sqlite.SQLiteOpenHelper;
 import android.net.Uri;
 import android.text.TextUtils;
 
@@ -42,10 +44,15 @@ import java.util.ArrayList;
  * @author jexa7410
  * @author yplo6403
  */
-public class RcsSettingsProvider extends ContentProvider {
+public class RcsSettingsProvider extends SQLiteContentProvider {
 
     private static final String TABLE = "setting";
 
+    /**
+     * Page cache size of the settings database which holds a single small table
+     */
+    private static final int SETTINGS_CACHE_SIZE = 100;
+
     private static final String SELECTION_WITH_KEY_ONLY = RcsSettingsData.KEY_KEY.concat("=?");
 
     /**
@@ -61,6 +68,12 @@ public class RcsSettingsProvider extends ContentProvider {
                 .getPath().substring(1).concat("/*"), UriType.SETTINGS_WITH_KEY);
     }
 
+    /**
+     * Whether a setting was changed by the batch applied by the current thread, null if the
+     * current thread is not applying a batch
+     */
+    private final ThreadLocal<Boolean> mBatchChanged = new ThreadLocal<Boolean>();
+
     private static final class UriType {
 
         private static final int SETTINGS = 1;
@@ -75,7 +88,7 @@ public class RcsSettingsProvider extends ContentProvider {
         private static final String TYPE_ITEM = "vnd.android.cursor.item/com.gsma.rcs.setting";
     }
 
-    private static class DatabaseHelper extends SQLiteOpenHelper {
+    private static class DatabaseHelper extends TunedOpenHelper {
         private static final int DATABASE_VERSION = 112;
 
         /**
@@ -105,7 +118,7 @@ public class RcsSettingsProvider extends ContentProvider {
         }
 
         public DatabaseHelper(Context ctx) {
-            super(ctx, DATABASE_NAME, null, DATABASE_VERSION);
+            super(ctx, DATABASE_NAME, DATABASE_VERSION, SYNCHRONOUS_FULL, SETTINGS_CACHE_SIZE);
         }
 
         @Override
@@ -434,8 +447,6 @@ public class RcsSettingsProvider extends ContentProvider {
         }
     }
 
-    private SQLiteOpenHelper mOpenHelper;
-
     private String getSelectionWithKey(String selection) {
         if (TextUtils.isEmpty(selection)) {
             return SELECTION_WITH_KEY_ONLY;
@@ -476,8 +487,8 @@ public class RcsSettingsProvider extends ContentProvider {
     }
 
     @Override
-    public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
-            String sort) {
+    protected Cursor doQuery(Uri uri, String[] projection, String selection,
+            String[] selectionArgs, String sort) {
         Cursor cursor = null;
         try {
             switch (sUriMatcher.match(uri)) {
@@ -511,11 +522,51 @@ public class RcsSettingsProvider extends ContentProvider {
         }
     }
 
+    private void notifyChange(Uri uri) {
+        if (mBatchChanged.get() != null) {
+            /* Notified once when the batch is committed */
+            mBatchChanged.set(Boolean.TRUE);
+            return;
+        }
+        getContext().getContentResolver().notifyChange(uri, null);
+    }
+
+    /**
+     * Applies the operations in a single transaction and notifies the changes once when the
+     * transaction is committed, instead of once per updated setting
+     */
+    @Override
+    public ContentProviderResult[] applyBatch(ArrayList<ContentProviderOperation> operations)
+            throws OperationApplicationException {
+        mBatchChanged.set(Boolean.FALSE);
+        boolean changed;
+        ContentProviderResult[] results;
+        try {
+            results = super.applyBatch(operations);
+
+        } finally {
+            changed = mBatchChanged.get();
+            mBatchChanged.remove();
+        }
+        if (changed) {
+            getContext().getContentResolver().notifyChange(RcsSettingsData.CONTENT_URI, null);
+        }
+        return results;
+    }
+
     @Override
-    public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+    protected int doUpdate(Uri uri, ContentValues values, String selection,
+            String[] selectionArgs) {
         switch (sUriMatcher.match(uri)) {
             case UriType.SETTINGS_WITH_KEY:
                 String key = uri.getLastPathSegment();
+                if (TextUtils.isEmpty(selection)) {
+                    int count = updateById(TABLE, RcsSettingsData.KEY_KEY, key, values);
+                    if (count > 0) {
+                        notifyChange(uri);
+                    }
+                    return count;
+                }
                 selection = getSelectionWithKey(selection);
                 selectionArgs = getSelectionArgsWithKey(selectionArgs, key);
                 /* Intentional fall through */
@@ -523,7 +574,7 @@ public class RcsSettingsProvider extends ContentProvider {
                 SQLiteDatabase database = mOpenHelper.getWritableDatabase();
                 int count = database.update(TABLE, values, selection, selectionArgs);
                 if (count > 0) {
-                    getContext().getContentResolver().notifyChange(uri, null);
+                    notifyChange(uri);
                 }
                 return count;
 
@@ -534,13 +585,13 @@ public class RcsSettingsProvider extends ContentProvider {
     }
 
     @Override
-    public Uri insert(Uri uri, ContentValues initialValues) {
+    protected Uri doInsert(Uri uri, ContentValues initialValues) {
         throw new UnsupportedOperationException(new StringBuilder("Cannot insert URI ").append(uri)
                 .append("!").toString());
     }
 
     @Override
-    public int delete(Uri uri, String where, String[] whereArgs) {
+    protected int doDelete(Uri uri, String where, String[] whereArgs) {
         throw new UnsupportedOperationException(new StringBuilder("Cannot delete URI ").append(uri)
                 .append("!").toString());
     }
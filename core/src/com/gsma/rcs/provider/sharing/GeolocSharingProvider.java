@@ -16,22 +16,21 @@
 
 package com.gsma.rcs.provider.sharing;
 
+import com.gsma.rcs.provider.SQLiteContentProvider;
 import com.gsma.rcs.provider.history.HistoryMemberBaseIdCreator;
 import com.gsma.rcs.service.api.ServerApiPersistentStorageException;
 import com.gsma.rcs.utils.DatabaseUtils;
 import com.gsma.services.rcs.sharing.geoloc.GeolocSharingLog;
 
-import android.content.ContentProvider;
 import android.content.ContentValues;
 import android.content.Context;
 import android.content.UriMatcher;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
-import android.database.sqlite.SQLiteOpenHelper;
 import android.net.Uri;
 import android.text.TextUtils;
 
-public class GeolocSharingProvider extends ContentProvider {
+public class GeolocSharingProvider extends SQLiteContentProvider {
 
     private static final int INVALID_ROW_ID = -1;
 
@@ -86,11 +85,11 @@ public class GeolocSharingProvider extends ContentProvider {
      */
     public static final String DATABASE_NAME = "geolocshare.db";
 
-    private static class DatabaseHelper extends SQLiteOpenHelper {
+    private static class DatabaseHelper extends TunedOpenHelper {
         private static final int DATABASE_VERSION = 3;
 
         public DatabaseHelper(Context ctx) {
-            super(ctx, DATABASE_NAME, null, DATABASE_VERSION);
+            super(ctx, DATABASE_NAME, DATABASE_VERSION, SYNCHRONOUS_NORMAL, DEFAULT_CACHE_SIZE);
         }
 
         @Override
@@ -124,8 +123,6 @@ public class GeolocSharingProvider extends ContentProvider {
         }
     }
 
-    private SQLiteOpenHelper mOpenHelper;
-
     private String getSelectionWithSharingId(String selection) {
         if (TextUtils.isEmpty(selection)) {
             return SELECTION_WITH_SHARING_ID_ONLY;
@@ -170,8 +167,8 @@ public class GeolocSharingProvider extends ContentProvider {
     }
 
     @Override
-    public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
-            String sort) {
+    protected Cursor doQuery(Uri uri, String[] projection, String selection,
+            String[] selectionArgs, String sort) {
         Cursor cursor = null;
         try {
             switch (sUriMatcher.match(uri)) {
@@ -227,7 +224,8 @@ public class GeolocSharingProvider extends ContentProvider {
     }
 
     @Override
-    public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+    protected int doUpdate(Uri uri, ContentValues values, String selection,
+            String[] selectionArgs) {
         Uri notificationUri = GeolocSharingLog.CONTENT_URI;
         switch (sUriMatcher.match(uri)) {
             case UriType.InternalGeolocSharing.WITH_SHARING_ID:
@@ -257,7 +255,7 @@ public class GeolocSharingProvider extends ContentProvider {
     }
 
     @Override
-    public Uri insert(Uri uri, ContentValues initialValues) {
+    protected Uri doInsert(Uri uri, ContentValues initialValues) {
         switch (sUriMatcher.match(uri)) {
             case UriType.InternalGeolocSharing.WITH_SHARING_ID:
                 /* Intentional fall through */
@@ -289,7 +287,7 @@ public class GeolocSharingProvider extends ContentProvider {
     }
 
     @Override
-    public int delete(Uri uri, String selection, String[] selectionArgs) {
+    protected int doDelete(Uri uri, String selection, String[] selectionArgs) {
         Uri notificationUri = GeolocSharingLog.CONTENT_URI;
         switch (sUriMatcher.match(uri)) {
             case UriType.InternalGeolocSharing.WITH_SHARING_ID:
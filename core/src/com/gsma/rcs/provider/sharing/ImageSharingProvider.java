@@ -22,18 +22,17 @@
 
 package com.gsma.rcs.provider.sharing;
 
+import com.gsma.rcs.provider.SQLiteContentProvider;
 import com.gsma.rcs.provider.history.HistoryMemberBaseIdCreator;
 import com.gsma.rcs.service.api.ServerApiPersistentStorageException;
 import com.gsma.rcs.utils.DatabaseUtils;
 import com.gsma.services.rcs.sharing.image.ImageSharingLog;
 
-import android.content.ContentProvider;
 import android.content.ContentValues;
 import android.content.Context;
 import android.content.UriMatcher;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
-import android.database.sqlite.SQLiteOpenHelper;
 import android.net.Uri;
 import android.text.TextUtils;
 
@@ -42,7 +41,7 @@ import android.text.TextUtils;
  * 
  * @author Jean-Marc AUFFRET
  */
-public class ImageSharingProvider extends ContentProvider {
+public class ImageSharingProvider extends SQLiteContentProvider {
 
     private static final int INVALID_ROW_ID = -1;
 
@@ -96,11 +95,11 @@ public class ImageSharingProvider extends ContentProvider {
         private static final String TYPE_ITEM = "vnd.android.cursor.item/imageshare";
     }
 
-    private static class DatabaseHelper extends SQLiteOpenHelper {
+    private static class DatabaseHelper extends TunedOpenHelper {
         private static final int DATABASE_VERSION = 6;
 
         public DatabaseHelper(Context ctx) {
-            super(ctx, DATABASE_NAME, null, DATABASE_VERSION);
+            super(ctx, DATABASE_NAME, DATABASE_VERSION, SYNCHRONOUS_NORMAL, DEFAULT_CACHE_SIZE);
         }
 
         @Override
@@ -137,8 +136,6 @@ public class ImageSharingProvider extends ContentProvider {
         }
     }
 
-    private SQLiteOpenHelper mOpenHelper;
-
     private String getSelectionWithSharingId(String selection) {
         if (TextUtils.isEmpty(selection)) {
             return SELECTION_WITH_SHARING_ID_ONLY;
@@ -183,8 +180,8 @@ public class ImageSharingProvider extends ContentProvider {
     }
 
     @Override
-    public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
-            String sort) {
+    protected Cursor doQuery(Uri uri, String[] projection, String selection,
+            String[] selectionArgs, String sort) {
         Cursor cursor = null;
         try {
             switch (sUriMatcher.match(uri)) {
@@ -240,7 +237,8 @@ public class ImageSharingProvider extends ContentProvider {
     }
 
     @Override
-    public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+    protected int doUpdate(Uri uri, ContentValues values, String selection,
+            String[] selectionArgs) {
         Uri notificationUri = ImageSharingLog.CONTENT_URI;
         switch (sUriMatcher.match(uri)) {
             case UriType.InternalImageSharing.IMAGE_SHARING_WITH_ID:
@@ -270,7 +268,7 @@ public class ImageSharingProvider extends ContentProvider {
     }
 
     @Override
-    public Uri insert(Uri uri, ContentValues initialValues) {
+    protected Uri doInsert(Uri uri, ContentValues initialValues) {
         switch (sUriMatcher.match(uri)) {
             case UriType.InternalImageSharing.IMAGE_SHARING:
                 /* Intentional fall through */
@@ -301,7 +299,7 @@ public class ImageSharingProvider extends ContentProvider {
     }
 
     @Override
-    public int delete(Uri uri, String selection, String[] selectionArgs) {
+    protected int doDelete(Uri uri, String selection, String[] selectionArgs) {
         Uri notificationUri = ImageSharingLog.CONTENT_URI;
         switch (sUriMatcher.match(uri)) {
             case UriType.InternalImageSharing.IMAGE_SHARING_WITH_ID:
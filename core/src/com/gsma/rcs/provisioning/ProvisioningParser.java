@@ -139,8 +139,31 @@ public class ProvisioningParser {
      *         GSMA release is set to blackbird if SERVICES node is present, otherwise release is
      *         unchanged
      *         </p>
+     *         <p>
+     *         The parameters are written in a single transaction once the whole document is
+     *         parsed, only the ones which have changed are written and none is written if the
+     *         parsing fails.
+     *         </p>
      */
     public boolean parse(GsmaRelease release, MessagingMode messagingMode, boolean first) {
+        mRcsSettings.startStaging();
+        try {
+            if (!parseContent(release, messagingMode, first)) {
+                return false;
+            }
+            int count = mRcsSettings.applyStagedParameters();
+            if (logger.isActivated()) {
+                logger.debug(new StringBuilder("Provisioning changed ").append(count)
+                        .append(" parameters").toString());
+            }
+            return true;
+
+        } finally {
+            mRcsSettings.discardStagedParameters();
+        }
+    }
+
+    private boolean parseContent(GsmaRelease release, MessagingMode messagingMode, boolean first) {
         boolean logActivated = logger.isActivated();
         try {
             if (logActivated) {
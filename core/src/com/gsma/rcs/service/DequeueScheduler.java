@@ -0,0 +1,285 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.gsma.rcs.service;
+
+import com.gsma.rcs.utils.logger.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executes the dequeued chat messages and file transfers. Items of different conversations are
+ * executed in parallel while the items of one conversation are executed one at a time in the order
+ * in which they were scheduled. When several conversations are ready, the one whose next item has
+ * the lowest priority value (text messages before big files) is executed first. An item that fails
+ * is retried with an exponential backoff, which only holds back the items of its own conversation.
+ * Scheduling and completing items only locks the state of their own conversation.
+ */
+public class DequeueScheduler {
+
+    /**
+     * Priority of chat messages and file info messages
+     */
+    public static final long PRIORITY_MESSAGE = 0;
+
+    private static final int POOL_SIZE = 4;
+
+    private static final int MAX_ATTEMPTS = 4;
+
+    /**
+     * Delay in milliseconds before the first retry, doubled at each further attempt
+     */
+    private static final long RETRY_BASE_DELAY = 1000;
+
+    private static final Logger sLogger = Logger.getLogger(DequeueScheduler.class.getSimpleName());
+
+    /**
+     * Item to dequeue
+     */
+    public abstract static class Item {
+
+        private final String mId;
+
+        private final String mConversationId;
+
+        private final long mPriority;
+
+        private int mAttempts;
+
+        /**
+         * Constructor
+         * 
+         * @param id Message or file transfer ID
+         * @param conversationId Contact or chat ID the item belongs to
+         * @param priority Priority, lower values are executed first
+         */
+        protected Item(String id, String conversationId, long priority) {
+            mId = id;
+            mConversationId = conversationId;
+            mPriority = priority;
+        }
+
+        /**
+         * Dequeues the item.
+         * 
+         * @return False if the item failed and should be retried later, true otherwise
+         */
+        protected abstract boolean dequeue();
+
+        public String getId() {
+            return mId;
+        }
+    }
+
+    /**
+     * Items waiting behind the running item of a conversation
+     */
+    private static final class Conversation {
+
+        private final ArrayDeque<Item> mWaitingItems = new ArrayDeque<Item>();
+
+        /**
+         * Set once the last item completed, the conversation is then removed and a new one must be
+         * created for the next scheduled item
+         */
+        private boolean mCompleted;
+    }
+
+    private final class ItemRunner implements Runnable, Comparable<ItemRunner> {
+
+        private final Item mItem;
+
+        private final long mSequence;
+
+        private ItemRunner(Item item) {
+            mItem = item;
+            mSequence = mSequenceGenerator.incrementAndGet();
+        }
+
+        @Override
+        public int compareTo(ItemRunner other) {
+            if (mItem.mPriority != other.mItem.mPriority) {
+                return mItem.mPriority < other.mItem.mPriority ? -1 : 1;
+            }
+            if (mSequence != other.mSequence) {
+                return mSequence < other.mSequence ? -1 : 1;
+            }
+            return 0;
+        }
+
+        @Override
+        public void run() {
+            boolean done = true;
+            try {
+                done = mItem.dequeue();
+            } catch (RuntimeException e) {
+                /* Items handle their own failures, this is a bug */
+                sLogger.error("Failed to dequeue item ".concat(mItem.mId), e);
+            }
+            if (!done && ++mItem.mAttempts < MAX_ATTEMPTS) {
+                long delay = RETRY_BASE_DELAY << (mItem.mAttempts - 1);
+                if (sLogger.isActivated()) {
+                    sLogger.debug(new StringBuilder("Retry dequeue of ").append(mItem.mId)
+                            .append(" in ").append(delay).append("ms").toString());
+                }
+                try {
+                    mRetryTimer.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            execute(mItem);
+                        }
+                    }, delay, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    if (sLogger.isActivated()) {
+                        sLogger.debug("Scheduler shut down, no retry of ".concat(mItem.mId));
+                    }
+                }
+                return;
+            }
+            onItemCompleted(mItem);
+        }
+    }
+
+    private final ThreadPoolExecutor mExecutor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 0,
+            TimeUnit.MILLISECONDS, new PriorityBlockingQueue<Runnable>());
+
+    private final ScheduledExecutorService mRetryTimer = Executors
+            .newSingleThreadScheduledExecutor();
+
+    private final AtomicLong mSequenceGenerator = new AtomicLong();
+
+    private final ConcurrentMap<String, Conversation> mConversations = new ConcurrentHashMap<String, Conversation>();
+
+    private final Set<String> mScheduledIds = Collections
+            .newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private final AtomicInteger mQueueDepth = new AtomicInteger();
+
+    private volatile long mDrainStart;
+
+    private volatile long mLastDrainTime;
+
+    /**
+     * Constructor
+     */
+    public DequeueScheduler() {
+        /*
+         * With all the threads started, every item goes through the priority queue. Otherwise the
+         * first items would be handed to new threads without being ordered.
+         */
+        mExecutor.prestartAllCoreThreads();
+    }
+
+    /**
+     * Schedules an item. An item already scheduled and not yet completed is ignored.
+     * 
+     * @param item Item to dequeue
+     */
+    public void schedule(Item item) {
+        if (!mScheduledIds.add(item.mId)) {
+            return;
+        }
+        if (mQueueDepth.getAndIncrement() == 0) {
+            mDrainStart = System.currentTimeMillis();
+        }
+        Conversation conversation = new Conversation();
+        while (true) {
+            Conversation current = mConversations.putIfAbsent(item.mConversationId,
+                    conversation);
+            if (current == null) {
+                break;
+            }
+            synchronized (current) {
+                if (!current.mCompleted) {
+                    current.mWaitingItems.add(item);
+                    return;
+                }
+            }
+            /* The conversation is being removed, retry with a new one */
+        }
+        execute(item);
+    }
+
+    private void execute(Item item) {
+        try {
+            mExecutor.execute(new ItemRunner(item));
+        } catch (RejectedExecutionException e) {
+            if (sLogger.isActivated()) {
+                sLogger.debug("Scheduler shut down, dequeue of ".concat(item.mId).concat(
+                        " dropped"));
+            }
+        }
+    }
+
+    private void onItemCompleted(Item item) {
+        Item next;
+        Conversation conversation = mConversations.get(item.mConversationId);
+        synchronized (conversation) {
+            next = conversation.mWaitingItems.poll();
+            if (next == null) {
+                conversation.mCompleted = true;
+                mConversations.remove(item.mConversationId, conversation);
+            }
+        }
+        mScheduledIds.remove(item.mId);
+        if (mQueueDepth.decrementAndGet() == 0) {
+            mLastDrainTime = System.currentTimeMillis() - mDrainStart;
+            if (sLogger.isActivated()) {
+                sLogger.debug(new StringBuilder("Dequeue queue drained in ")
+                        .append(mLastDrainTime).append("ms").toString());
+            }
+        }
+        if (next != null) {
+            execute(next);
+        }
+    }
+
+    /**
+     * Stops executing the scheduled items. The items still queued are dropped, they are scheduled
+     * again when the core is restarted.
+     */
+    public void shutdown() {
+        mRetryTimer.shutdownNow();
+        mExecutor.shutdownNow();
+    }
+
+    /**
+     * @return Number of scheduled items not yet completed
+     */
+    public int getQueueDepth() {
+        return mQueueDepth.get();
+    }
+
+    /**
+     * @return Time in milliseconds it took to complete all the items scheduled since the queue was
+     *         last empty
+     */
+    public long getLastDrainTime() {
+        return mLastDrainTime;
+    }
+}
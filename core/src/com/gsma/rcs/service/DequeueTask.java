@@ -17,15 +17,25 @@
 package com.gsma.rcs.service;
 
 import com.gsma.rcs.core.Core;
+import com.gsma.rcs.core.content.MmContent;
+import com.gsma.rcs.core.ims.protocol.msrp.MsrpException;
 import com.gsma.rcs.core.ims.service.capability.Capabilities;
 import com.gsma.rcs.core.ims.service.im.InstantMessagingService;
+import com.gsma.rcs.core.ims.service.im.chat.ChatMessage;
+import com.gsma.rcs.core.ims.service.im.chat.ChatUtils;
 import com.gsma.rcs.core.ims.service.im.chat.GroupChatInfo;
 import com.gsma.rcs.core.ims.service.im.chat.GroupChatSession;
+import com.gsma.rcs.core.ims.service.im.chat.imdn.ImdnManager;
+import com.gsma.rcs.core.ims.service.im.filetransfer.FileTransferUtils;
 import com.gsma.rcs.provider.contact.ContactManager;
 import com.gsma.rcs.provider.messaging.MessagingLog;
 import com.gsma.rcs.provider.settings.RcsSettings;
 import com.gsma.rcs.service.api.ChatServiceImpl;
 import com.gsma.rcs.service.api.FileTransferServiceImpl;
+import com.gsma.rcs.service.api.GroupChatImpl;
+import com.gsma.rcs.service.api.GroupFileTransferImpl;
+import com.gsma.rcs.service.api.OneToOneChatImpl;
+import com.gsma.rcs.service.api.OneToOneFileTransferImpl;
 import com.gsma.rcs.service.api.ServerApiUtils;
 import com.gsma.rcs.utils.logger.Logger;
 import com.gsma.services.rcs.chat.ChatLog.Message.Content;
@@ -62,11 +72,13 @@ public abstract class DequeueTask implements Runnable {
 
     protected final FileTransferServiceImpl mFileTransferService;
 
+    protected final DequeueScheduler mDequeueScheduler;
+
     protected final Logger mLogger = Logger.getLogger(getClass().getName());
 
     public DequeueTask(Object lock, Context ctx, Core core, ContactManager contactManager,
             MessagingLog messagingLog, RcsSettings rcsSettings, ChatServiceImpl chatService,
-            FileTransferServiceImpl fileTransferService) {
+            FileTransferServiceImpl fileTransferService, DequeueScheduler dequeueScheduler) {
         mLock = lock;
         mCtx = ctx;
         mCore = core;
@@ -76,6 +88,7 @@ public abstract class DequeueTask implements Runnable {
         mRcsSettings = rcsSettings;
         mChatService = chatService;
         mFileTransferService = fileTransferService;
+        mDequeueScheduler = dequeueScheduler;
     }
 
     /**
@@ -370,4 +383,377 @@ public abstract class DequeueTask implements Runnable {
     protected boolean isImsConnected() {
         return ServerApiUtils.isImsConnected();
     }
+
+    /**
+     * Checks that the IMS is still connected and the core is not stopping when a scheduled item is
+     * executed.
+     * 
+     * @param id Message or file transfer ID
+     * @return boolean
+     */
+    private boolean isDequeueStillPossible(String id) {
+        if (!isImsConnected()) {
+            if (mLogger.isActivated()) {
+                mLogger.debug("IMS not connected, cannot dequeue ".concat(id));
+            }
+            return false;
+        }
+        if (mCore.isStopping()) {
+            if (mLogger.isActivated()) {
+                mLogger.debug("Core service is stopped, cannot dequeue ".concat(id));
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Queued one-to-one chat message
+     */
+    protected class OneToOneChatMessageItem extends DequeueScheduler.Item {
+
+        private final ContactId mContact;
+
+        private final String mMimeType;
+
+        private final String mContent;
+
+        public OneToOneChatMessageItem(ContactId contact, String msgId, String mimeType,
+                String content) {
+            super(msgId, contact.toString(), DequeueScheduler.PRIORITY_MESSAGE);
+            mContact = contact;
+            mMimeType = mimeType;
+            mContent = content;
+        }
+
+        @Override
+        protected boolean dequeue() {
+            String msgId = getId();
+            try {
+                if (!isPossibleToDequeueOneToOneChatMessage(mContact)) {
+                    setOneToOneChatMessageAsFailed(mContact, msgId, mMimeType);
+                    return true;
+                }
+                if (!isAllowedToDequeueOneToOneChatMessage(mContact)) {
+                    return true;
+                }
+                OneToOneChatImpl oneToOneChat;
+                synchronized (mLock) {
+                    if (!isDequeueStillPossible(msgId)
+                            || Status.QUEUED != mMessagingLog.getMessageStatus(msgId)) {
+                        return true;
+                    }
+                    oneToOneChat = mChatService.getOrCreateOneToOneChat(mContact);
+                }
+                long timestamp = System.currentTimeMillis();
+                /* For outgoing message, timestampSent = timestamp */
+                ChatMessage message = ChatUtils.createChatMessage(msgId, mMimeType, mContent,
+                        mContact, null, timestamp, timestamp);
+                /*
+                 * Sent outside of the operation lock as it waits for the network, the scheduler
+                 * already runs one item at a time per conversation
+                 */
+                oneToOneChat.dequeueOneToOneChatMessage(message);
+                return true;
+
+            } catch (MsrpException e) {
+                if (mLogger.isActivated()) {
+                    mLogger.debug(new StringBuilder("Failed to dequeue one-one chat message '")
+                            .append(msgId).append("' message for contact '").append(mContact)
+                            .append("' due to: ").append(e.getMessage()).toString());
+                }
+                return false;
+
+            } catch (RuntimeException e) {
+                /*
+                 * Normally all the terminal and non-terminal cases should be handled above so if we
+                 * come here that means that there is a bug and so we output a stack trace so the
+                 * bug can then be properly tracked down and fixed. We also mark the entry that
+                 * failed to dequeue as FAILED.
+                 */
+                mLogger.error(new StringBuilder(
+                        "Exception occured while dequeueing one-to-one chat message with msgId '")
+                        .append(msgId).append("' for contact '").append(mContact).append("'!")
+                        .toString(), e);
+                setOneToOneChatMessageAsFailed(mContact, msgId, mMimeType);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Queued group chat message
+     */
+    protected class GroupChatMessageItem extends DequeueScheduler.Item {
+
+        private final String mChatId;
+
+        private final String mMimeType;
+
+        private final String mContent;
+
+        public GroupChatMessageItem(String chatId, String msgId, String mimeType, String content) {
+            super(msgId, chatId, DequeueScheduler.PRIORITY_MESSAGE);
+            mChatId = chatId;
+            mMimeType = mimeType;
+            mContent = content;
+        }
+
+        @Override
+        protected boolean dequeue() {
+            String msgId = getId();
+            try {
+                if (!isPossibleToDequeueGroupChatMessage(mChatId)) {
+                    setGroupChatMessageAsFailed(mChatId, msgId);
+                    return true;
+                }
+                GroupChatImpl groupChat;
+                synchronized (mLock) {
+                    if (!isDequeueStillPossible(msgId)
+                            || Status.QUEUED != mMessagingLog.getMessageStatus(msgId)) {
+                        return true;
+                    }
+                    groupChat = mChatService.getOrCreateGroupChat(mChatId);
+                }
+                long timestamp = System.currentTimeMillis();
+                /* For outgoing message, timestampSent = timestamp */
+                ChatMessage message = ChatUtils.createChatMessage(msgId, mMimeType, mContent,
+                        null, null, timestamp, timestamp);
+                /* Sent outside of the operation lock, see OneToOneChatMessageItem */
+                groupChat.dequeueGroupChatMessage(message);
+                return true;
+
+            } catch (MsrpException e) {
+                if (mLogger.isActivated()) {
+                    mLogger.debug(new StringBuilder("Failed to dequeue group chat message '")
+                            .append(msgId).append("' message on group chat '").append(mChatId)
+                            .append("' due to: ").append(e.getMessage()).toString());
+                }
+                return false;
+
+            } catch (RuntimeException e) {
+                /* Bug, see OneToOneChatMessageItem */
+                mLogger.error(new StringBuilder(
+                        "Exception occured while dequeueing group chat message with msgId '")
+                        .append(msgId).append("' and chatId '").append(mChatId).append("'!")
+                        .toString(), e);
+                setGroupChatMessageAsFailed(mChatId, msgId);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Queued, or uploaded but not transferred, file transfer. Transfers to send are executed after
+     * the chat messages of other conversations and the smallest files first.
+     */
+    protected abstract class FileTransferItem extends DequeueScheduler.Item {
+
+        protected final State mState;
+
+        protected final Uri mFile;
+
+        protected final String mFileIcon;
+
+        protected final long mSize;
+
+        protected final boolean mDisplayedReportEnabled;
+
+        protected final boolean mDeliveryReportEnabled;
+
+        protected FileTransferItem(String fileTransferId, String chatId, State state, Uri file,
+                String fileIcon, long size) {
+            super(fileTransferId, chatId, State.QUEUED == state ? Math.max(size,
+                    DequeueScheduler.PRIORITY_MESSAGE + 1) : DequeueScheduler.PRIORITY_MESSAGE);
+            mState = state;
+            mFile = file;
+            mFileIcon = fileIcon;
+            mSize = size;
+            ImdnManager imdnManager = mImService.getImdnManager();
+            mDisplayedReportEnabled = imdnManager.isRequestGroupDeliveryDisplayedReportsEnabled();
+            mDeliveryReportEnabled = imdnManager.isDeliveryDeliveredReportsEnabled();
+        }
+
+        protected MmContent getFileIconContent() {
+            if (mFileIcon == null) {
+                return null;
+            }
+            return FileTransferUtils.createMmContent(Uri.parse(mFileIcon));
+        }
+
+        /**
+         * Checks under the operation lock that the transfer is still in the state it was read in
+         * and can be sent now.
+         * 
+         * @return boolean
+         */
+        protected boolean isStillDequeueable() {
+            return isDequeueStillPossible(getId())
+                    && mState == mMessagingLog.getFileTransferState(getId());
+        }
+    }
+
+    /**
+     * Queued, or uploaded but not transferred, one-to-one file transfer
+     */
+    protected class OneToOneFileTransferItem extends FileTransferItem {
+
+        private final ContactId mContact;
+
+        public OneToOneFileTransferItem(ContactId contact, String fileTransferId, State state,
+                Uri file, String fileIcon, long size) {
+            super(fileTransferId, contact.toString(), state, file, fileIcon, size);
+            mContact = contact;
+        }
+
+        @Override
+        protected boolean dequeue() {
+            String id = getId();
+            try {
+                if (!isPossibleToDequeueOneToOneFileTransfer(mContact, mFile, mSize)) {
+                    setOneToOneFileTransferAsFailed(mContact, id);
+                    return true;
+                }
+                switch (mState) {
+                    case QUEUED:
+                        if (!isAllowedToDequeueOneToOneFileTransfer(mContact,
+                                mFileTransferService)) {
+                            return true;
+                        }
+                        synchronized (mLock) {
+                            if (!isStillDequeueable()) {
+                                return true;
+                            }
+                            mFileTransferService.dequeueOneToOneFileTransfer(id, mContact,
+                                    FileTransferUtils.createMmContent(mFile), getFileIconContent());
+                        }
+                        return true;
+
+                    case STARTED:
+                        if (!isPossibleToDequeueOneToOneChatMessage(mContact)) {
+                            setOneToOneFileTransferAsFailed(mContact, id);
+                            return true;
+                        }
+                        if (!isAllowedToDequeueOneToOneChatMessage(mContact)) {
+                            return true;
+                        }
+                        OneToOneChatImpl oneToOneChat;
+                        OneToOneFileTransferImpl oneToOneFileTransfer;
+                        synchronized (mLock) {
+                            if (!isStillDequeueable()) {
+                                return true;
+                            }
+                            oneToOneChat = mChatService.getOrCreateOneToOneChat(mContact);
+                            oneToOneFileTransfer = mFileTransferService
+                                    .getOrCreateOneToOneFileTransfer(mContact, id);
+                        }
+                        String fileInfo = FileTransferUtils.createHttpFileTransferXml(mMessagingLog
+                                .getGroupFileDownloadInfo(id));
+                        /* Sent outside of the operation lock, see OneToOneChatMessageItem */
+                        oneToOneChat.dequeueOneToOneFileInfo(id, fileInfo, mDisplayedReportEnabled,
+                                mDeliveryReportEnabled, oneToOneFileTransfer);
+                        return true;
+
+                    default:
+                        return true;
+                }
+            } catch (MsrpException e) {
+                if (mLogger.isActivated()) {
+                    mLogger.debug(new StringBuilder("Failed to dequeue one-one file transfer '")
+                            .append(id).append("' for contact '").append(mContact)
+                            .append("' due to: ").append(e.getMessage()).toString());
+                }
+                return false;
+
+            } catch (RuntimeException e) {
+                /* Bug, see OneToOneChatMessageItem */
+                mLogger.error(new StringBuilder(
+                        "Exception occured while dequeueing one-to-one file transfer with id '")
+                        .append(id).append("' for contact '").append(mContact).append("'!")
+                        .toString(), e);
+                setOneToOneFileTransferAsFailed(mContact, id);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Queued, or uploaded but not transferred, group file transfer
+     */
+    protected class GroupFileTransferItem extends FileTransferItem {
+
+        private final String mChatId;
+
+        public GroupFileTransferItem(String chatId, String fileTransferId, State state, Uri file,
+                String fileIcon, long size) {
+            super(fileTransferId, chatId, state, file, fileIcon, size);
+            mChatId = chatId;
+        }
+
+        @Override
+        protected boolean dequeue() {
+            String id = getId();
+            try {
+                if (!isPossibleToDequeueGroupFileTransfer(mChatId, mFile, mSize)) {
+                    setGroupFileTransferAsFailed(mChatId, id);
+                    return true;
+                }
+                switch (mState) {
+                    case QUEUED:
+                        if (!isAllowedToDequeueGroupFileTransfer()) {
+                            return true;
+                        }
+                        synchronized (mLock) {
+                            if (!isStillDequeueable()) {
+                                return true;
+                            }
+                            mFileTransferService.dequeueGroupFileTransfer(mChatId, id,
+                                    FileTransferUtils.createMmContent(mFile), getFileIconContent());
+                        }
+                        return true;
+
+                    case STARTED:
+                        if (!isPossibleToDequeueGroupChatMessage(mChatId)) {
+                            setGroupFileTransferAsFailed(mChatId, id);
+                            return true;
+                        }
+                        GroupChatImpl groupChat;
+                        GroupFileTransferImpl groupFileTransfer;
+                        synchronized (mLock) {
+                            if (!isStillDequeueable()) {
+                                return true;
+                            }
+                            groupChat = mChatService.getOrCreateGroupChat(mChatId);
+                            groupFileTransfer = mFileTransferService.getOrCreateGroupFileTransfer(
+                                    mChatId, id);
+                        }
+                        String fileInfo = FileTransferUtils.createHttpFileTransferXml(mMessagingLog
+                                .getGroupFileDownloadInfo(id));
+                        /* Sent outside of the operation lock, see OneToOneChatMessageItem */
+                        groupChat.dequeueGroupFileInfo(id, fileInfo, mDisplayedReportEnabled,
+                                mDeliveryReportEnabled, groupFileTransfer);
+                        return true;
+
+                    default:
+                        return true;
+                }
+            } catch (MsrpException e) {
+                if (mLogger.isActivated()) {
+                    mLogger.debug(new StringBuilder("Failed to dequeue group file transfer '")
+                            .append(id).append("' on group chat '").append(mChatId)
+                            .append("' due to: ").append(e.getMessage()).toString());
+                }
+                return false;
+
+            } catch (RuntimeException e) {
+                /* Bug, see OneToOneChatMessageItem */
+                mLogger.error(new StringBuilder(
+                        "Exception occured while dequeueing group file transfer with id '")
+                        .append(id).append("' and chatId '").append(mChatId).append("'!")
+                        .toString(), e);
+                setGroupFileTransferAsFailed(mChatId, id);
+                return true;
+            }
+        }
+    }
 }
@@ -31,6 +31,7 @@ import com.gsma.rcs.core.content.GeolocContent;
 import com.gsma.rcs.core.content.MmContent;
 import com.gsma.rcs.core.content.VideoContent;
 import com.gsma.rcs.core.ims.ImsError;
+import com.gsma.rcs.core.ims.protocol.capture.MessageCapture;
 import com.gsma.rcs.core.ims.protocol.sip.SipNetworkException;
 import com.gsma.rcs.core.ims.protocol.sip.SipPayloadException;
 import com.gsma.rcs.core.ims.service.capability.Capabilities;
@@ -90,6 +91,8 @@ import com.gsma.rcs.service.ipcalldraft.IIPCallService;
 import com.gsma.rcs.service.ipcalldraft.IPCall;
 import com.gsma.rcs.utils.IntentUtils;
 import com.gsma.rcs.utils.logger.Logger;
+import com.gsma.rcs.utils.metrics.Gauge;
+import com.gsma.rcs.utils.metrics.MetricsRegistry;
 import com.gsma.services.rcs.RcsService;
 import com.gsma.services.rcs.RcsServiceRegistration;
 import com.gsma.services.rcs.capability.ICapabilityService;
@@ -118,6 +121,10 @@ import android.content.IntentFilter;
 import android.os.Handler;
 import android.os.IBinder;
 
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.io.PrintWriter;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -130,10 +137,42 @@ import java.util.concurrent.Executors;
  */
 public class RcsCoreService extends Service implements CoreListener {
 
+    /**
+     * Argument of the dump writing the message capture to a file
+     */
+    private static final String DUMP_ARG_CAPTURE = "capture";
+
+    private static final String CAPTURE_FILENAME = "capture.pcap";
+
+    private static final String METRIC_DEQUEUE_DEPTH = "dequeue.queue_depth";
+
+    private static final String METRIC_DEQUEUE_DRAIN_TIME = "dequeue.drain_ms";
+
+    /**
+     * Period in milliseconds of the metrics written to the log
+     */
+    private static final long METRICS_SNAPSHOT_PERIOD = 900000;
+
     private final Object mOperationLock = new Object();
 
     private final ExecutorService mImOperationExecutor = Executors.newSingleThreadExecutor();
 
+    private final DequeueScheduler mDequeueScheduler = new DequeueScheduler();
+
+    private final Gauge mDequeueDepth = new Gauge() {
+        @Override
+        public long getValue() {
+            return mDequeueScheduler.getQueueDepth();
+        }
+    };
+
+    private final Gauge mDequeueDrainTime = new Gauge() {
+        @Override
+        public long getValue() {
+            return mDequeueScheduler.getLastDrainTime();
+        }
+    };
+
     private final ExecutorService mRcOperationExecutor = Executors.newSingleThreadExecutor();
 
     private OneToOneUndeliveredImManager mOneToOneUndeliveredImManager;
@@ -289,6 +328,11 @@ public class RcsCoreService extends Service implements CoreListener {
                      * thread and eventually bring the whole system down, which is not intended.
                      */
                     sLogger.error("Unable to stop IMS core!", e);
+
+                } finally {
+                    /* The core no longer submits operations once it is stopped */
+                    mImOperationExecutor.shutdown();
+                    mDequeueScheduler.shutdown();
                 }
             }
         }.start();
@@ -369,6 +413,11 @@ public class RcsCoreService extends Service implements CoreListener {
                 sLogger.info("RCS stack release is ".concat(TerminalInfo.getProductVersion(mCtx)));
             }
 
+            MetricsRegistry metrics = MetricsRegistry.getInstance();
+            metrics.registerGauge(METRIC_DEQUEUE_DEPTH, mDequeueDepth);
+            metrics.registerGauge(METRIC_DEQUEUE_DRAIN_TIME, mDequeueDrainTime);
+            metrics.startSnapshots(METRICS_SNAPSHOT_PERIOD);
+
             startCore();
 
             // Create multimedia directory on sdcard
@@ -474,15 +523,50 @@ public class RcsCoreService extends Service implements CoreListener {
         // Terminate the core in background
         Core.terminateCore();
 
+        // Commit the chat messages still queued by the terminated sessions
+        mMessagingLog.stopQueuedMessages();
+
         // Close CPU manager
         if (mCpuManager != null) {
             mCpuManager.close();
             mCpuManager = null;
         }
 
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.stopSnapshots();
+        metrics.unregisterGauge(METRIC_DEQUEUE_DEPTH, mDequeueDepth);
+        metrics.unregisterGauge(METRIC_DEQUEUE_DRAIN_TIME, mDequeueDrainTime);
+
         if (sLogger.isActivated()) {
             sLogger.info("RCS core service stopped with success");
         }
+        Logger.flush();
+    }
+
+    /**
+     * Dumps the service state through "adb shell dumpsys activity service RcsCoreService". Without
+     * argument, the metrics of the stack are printed. With the "capture" argument, the SIP and MSRP
+     * messages of the message capture are written to a pcap file in the files directory of the
+     * application.
+     */
+    @Override
+    protected void dump(FileDescriptor fd, PrintWriter writer, String[] args) {
+        if (args == null || args.length == 0) {
+            MetricsRegistry.getInstance().dump(writer);
+            return;
+        }
+        if (!DUMP_ARG_CAPTURE.equals(args[0])) {
+            writer.println("Usage: dumpsys activity service RcsCoreService [capture]");
+            return;
+        }
+        File file = new File(getFilesDir(), CAPTURE_FILENAME);
+        try {
+            int count = MessageCapture.getInstance().dump(file);
+            writer.println(new StringBuilder("Wrote ").append(count).append(" messages to ")
+                    .append(file.getPath()).toString());
+        } catch (IOException e) {
+            writer.println("Failed to write the message capture: ".concat(e.getMessage()));
+        }
     }
 
     @Override
@@ -1025,7 +1109,8 @@ public class RcsCoreService extends Service implements CoreListener {
                 mMessagingLog, mContactManager));
         /* Try to dequeue one-to-one chat messages and one-to-one file transfers. */
         mImOperationExecutor.execute(new OneToOneChatDequeueTask(mOperationLock, mCtx, core,
-                mChatApi, mFtApi, mHistoryLog, mMessagingLog, mContactManager, mRcsSettings));
+                mChatApi, mFtApi, mHistoryLog, mMessagingLog, mContactManager, mRcsSettings,
+                mDequeueScheduler));
 
         ImdnManager imdnManager = imService.getImdnManager();
         if (imdnManager.isSendOneToOneDeliveryDisplayedReportsEnabled()
@@ -1056,25 +1141,29 @@ public class RcsCoreService extends Service implements CoreListener {
     @Override
     public void tryToDequeueGroupChatMessagesAndGroupFileTransfers(String chatId, Core core) {
         mImOperationExecutor.execute(new GroupChatDequeueTask(mOperationLock, mCtx, core, chatId,
-                mMessagingLog, mChatApi, mFtApi, mRcsSettings, mHistoryLog, mContactManager));
+                mMessagingLog, mChatApi, mFtApi, mRcsSettings, mHistoryLog, mContactManager,
+                mDequeueScheduler));
     }
 
     @Override
     public void tryToDequeueOneToOneChatMessages(ContactId contact, Core core) {
         mImOperationExecutor.execute(new OneToOneChatMessageDequeueTask(mOperationLock, mCtx, core,
-                contact, mMessagingLog, mChatApi, mRcsSettings, mContactManager, mFtApi));
+                contact, mMessagingLog, mChatApi, mRcsSettings, mContactManager, mFtApi,
+                mDequeueScheduler));
     }
 
     @Override
     public void tryToDequeueAllOneToOneChatMessagesAndOneToOneFileTransfers(Core core) {
         mImOperationExecutor.execute(new OneToOneChatDequeueTask(mOperationLock, mCtx, core,
-                mChatApi, mFtApi, mHistoryLog, mMessagingLog, mContactManager, mRcsSettings));
+                mChatApi, mFtApi, mHistoryLog, mMessagingLog, mContactManager, mRcsSettings,
+                mDequeueScheduler));
     }
 
     @Override
     public void tryToDequeueFileTransfers(Core core) {
         mImOperationExecutor.execute(new FileTransferDequeueTask(mOperationLock, mCtx, core,
-                mMessagingLog, mChatApi, mFtApi, mContactManager, mRcsSettings));
+                mMessagingLog, mChatApi, mFtApi, mContactManager, mRcsSettings,
+                mDequeueScheduler));
     }
 
     @Override
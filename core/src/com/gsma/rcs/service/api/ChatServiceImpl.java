@@ -721,6 +721,7 @@ public class ChatServiceImpl extends IChatService.Stub {
      * such exists.
      */
     public void deleteOneToOneChats() {
+        mMessagingLog.flushQueuedMessages();
         mImOperationExecutor.execute(new OneToOneFileTransferDeleteTask(mFileTransferService,
                 mImService, mLocalContentResolver, mImsLock));
         mImOperationExecutor.execute(new OneToOneChatMessageDeleteTask(this, mImService,
@@ -732,6 +733,7 @@ public class ChatServiceImpl extends IChatService.Stub {
      * exists.
      */
     public void deleteGroupChats() {
+        mMessagingLog.flushQueuedMessages();
         mImOperationExecutor.execute(new GroupFileTransferDeleteTask(mFileTransferService,
                 mImService, mLocalContentResolver, mImsLock));
         mImOperationExecutor.execute(new GroupChatMessageDeleteTask(this, mImService,
@@ -747,6 +749,7 @@ public class ChatServiceImpl extends IChatService.Stub {
      * @param contact
      */
     public void deleteOneToOneChat(ContactId contact) {
+        mMessagingLog.flushQueuedMessages();
         mImOperationExecutor.execute(new OneToOneFileTransferDeleteTask(mFileTransferService,
                 mImService, mLocalContentResolver, mImsLock, contact));
         mImOperationExecutor.execute(new OneToOneChatMessageDeleteTask(this, mImService,
@@ -760,6 +763,7 @@ public class ChatServiceImpl extends IChatService.Stub {
      * @param chatId
      */
     public void deleteGroupChat(String chatId) {
+        mMessagingLog.flushQueuedMessages();
         mImOperationExecutor.execute(new GroupChatMessageDeleteTask(this, mImService,
                 mLocalContentResolver, mImsLock, chatId));
         mImOperationExecutor.execute(new GroupFileTransferDeleteTask(mFileTransferService,
@@ -809,6 +813,24 @@ public class ChatServiceImpl extends IChatService.Stub {
      * @throws RemoteException
      */
     public void addEventListener2(IOneToOneChatListener listener) throws RemoteException {
+        addOneToOneChatEventListener(listener, false);
+    }
+
+    /**
+     * Adds a listener on one-to-one chat events receiving consecutive events of the same kind in
+     * one batch call
+     * 
+     * @param listener One-to-One chat event listener
+     * @return True, the services predating batched listeners return false instead
+     * @throws RemoteException
+     */
+    public boolean addBatchedEventListener2(IOneToOneChatListener listener) throws RemoteException {
+        addOneToOneChatEventListener(listener, true);
+        return true;
+    }
+
+    private void addOneToOneChatEventListener(IOneToOneChatListener listener, boolean batched)
+            throws RemoteException {
         if (listener == null) {
             throw new ServerApiIllegalArgumentException("listener must not be null!");
         }
@@ -817,7 +839,11 @@ public class ChatServiceImpl extends IChatService.Stub {
         }
         try {
             synchronized (mLock) {
-                mOneToOneChatEventBroadcaster.addOneToOneChatEventListener(listener);
+                if (batched) {
+                    mOneToOneChatEventBroadcaster.addBatchedOneToOneChatEventListener(listener);
+                } else {
+                    mOneToOneChatEventBroadcaster.addOneToOneChatEventListener(listener);
+                }
             }
         } catch (ServerApiBaseException e) {
             if (!e.shouldNotBeLogged()) {
@@ -867,6 +893,24 @@ public class ChatServiceImpl extends IChatService.Stub {
      * @throws RemoteException
      */
     public void addEventListener3(IGroupChatListener listener) throws RemoteException {
+        addGroupChatEventListener(listener, false);
+    }
+
+    /**
+     * Adds a listener on group chat events receiving consecutive events of the same kind in
+     * one batch call
+     * 
+     * @param listener Group chat event listener
+     * @return True, the services predating batched listeners return false instead
+     * @throws RemoteException
+     */
+    public boolean addBatchedEventListener3(IGroupChatListener listener) throws RemoteException {
+        addGroupChatEventListener(listener, true);
+        return true;
+    }
+
+    private void addGroupChatEventListener(IGroupChatListener listener, boolean batched)
+            throws RemoteException {
         if (listener == null) {
             throw new ServerApiIllegalArgumentException("listener must not be null!");
         }
@@ -875,7 +919,11 @@ public class ChatServiceImpl extends IChatService.Stub {
         }
         try {
             synchronized (mLock) {
-                mGroupChatEventBroadcaster.addGroupChatEventListener(listener);
+                if (batched) {
+                    mGroupChatEventBroadcaster.addBatchedGroupChatEventListener(listener);
+                } else {
+                    mGroupChatEventBroadcaster.addGroupChatEventListener(listener);
+                }
             }
         } catch (ServerApiBaseException e) {
             if (!e.shouldNotBeLogged()) {
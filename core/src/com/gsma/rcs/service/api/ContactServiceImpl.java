@@ -44,7 +44,6 @@ import android.text.TextUtils;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Contact service API implementation
@@ -224,40 +223,15 @@ public class ContactServiceImpl extends IContactService.Stub {
     }
 
     /**
-     * Interface to filter ContactInfo
+     * Convert a list of ContactInfo instances into a list of RcsContact instances
      * 
-     * @author YPLO6403
+     * @param contactInfos the ContactInfo instances read in a single query
+     * @return the list of RcsContact
      */
-    private interface FilterContactInfo {
-        /**
-         * The filtering method
-         * 
-         * @param contactInfo
-         * @return true if contactInfo is in the scope
-         */
-        boolean inScope(ContactInfo contactInfo);
-    }
-
-    /**
-     * Get a filtered list of RcsContact
-     * 
-     * @param filterContactInfo the filter (or null if not applicable)
-     * @return the filtered list of RcsContact
-     */
-    private List<RcsContact> getRcsContacts(FilterContactInfo filterContactInfo) {
-        List<RcsContact> rcsContacts = new ArrayList<RcsContact>();
-        // Read capabilities in the local database
-        Set<ContactId> contacts = mContactManager.getRcsContactsFromRcsContactProvider();
-        for (ContactId contact : contacts) {
-            ContactInfo contactInfo = mContactManager.getContactInfo(contact);
-            if (contactInfo != null) {
-                if (filterContactInfo == null || filterContactInfo.inScope(contactInfo)) {
-                    RcsContact contact2add = getRcsContact(contactInfo);
-                    if (contact2add != null) {
-                        rcsContacts.add(getRcsContact(contactInfo));
-                    }
-                }
-            }
+    private List<RcsContact> getRcsContacts(List<ContactInfo> contactInfos) {
+        List<RcsContact> rcsContacts = new ArrayList<RcsContact>(contactInfos.size());
+        for (ContactInfo contactInfo : contactInfos) {
+            rcsContacts.add(getRcsContact(contactInfo));
         }
         return rcsContacts;
     }
@@ -273,7 +247,7 @@ public class ContactServiceImpl extends IContactService.Stub {
             logger.info("Get rcs contacts");
         }
         try {
-            return getRcsContacts(null);
+            return getRcsContacts(mContactManager.getRcsContactInfos());
 
         } catch (ServerApiBaseException e) {
             if (!e.shouldNotBeLogged()) {
@@ -298,13 +272,7 @@ public class ContactServiceImpl extends IContactService.Stub {
             logger.info("Get registered rcs contacts");
         }
         try {
-            return getRcsContacts(new FilterContactInfo() {
-
-                @Override
-                public boolean inScope(ContactInfo contactInfo) {
-                    return RegistrationState.ONLINE.equals(contactInfo.getRegistrationState());
-                }
-            });
+            return getRcsContacts(mContactManager.getRcsContactInfosOnline());
 
         } catch (ServerApiBaseException e) {
             if (!e.shouldNotBeLogged()) {
@@ -325,7 +293,7 @@ public class ContactServiceImpl extends IContactService.Stub {
      * @return List of contacts
      * @throws RemoteException
      */
-    public List<RcsContact> getRcsContactsSupporting(final String serviceId) throws RemoteException {
+    public List<RcsContact> getRcsContactsSupporting(String serviceId) throws RemoteException {
         if (TextUtils.isEmpty(serviceId)) {
             throw new ServerApiIllegalArgumentException("serviceId must not be null or empty!");
         }
@@ -333,25 +301,7 @@ public class ContactServiceImpl extends IContactService.Stub {
             logger.info("Get rcs contacts supporting " + serviceId);
         }
         try {
-            return getRcsContacts(new FilterContactInfo() {
-
-                @Override
-                public boolean inScope(ContactInfo contactInfo) {
-                    com.gsma.rcs.core.ims.service.capability.Capabilities capabilities = contactInfo
-                            .getCapabilities();
-                    if (capabilities != null) {
-                        Set<String> supportedExtensions = capabilities.getSupportedExtensions();
-                        if (supportedExtensions != null) {
-                            for (String supportedExtension : supportedExtensions) {
-                                if (supportedExtension.equals(serviceId)) {
-                                    return true;
-                                }
-                            }
-                        }
-                    }
-                    return false;
-                }
-            });
+            return getRcsContacts(mContactManager.getRcsContactInfosSupporting(serviceId));
 
         } catch (ServerApiBaseException e) {
             if (!e.shouldNotBeLogged()) {
@@ -174,9 +174,24 @@ public class FileTransferServiceImpl extends IFileTransferService.Stub {
                 .toString());
     }
 
-    public void ensureThumbnailIsDeleted(String transferId) {
-        String icon = mMessagingLog.getFileTransferIcon(transferId);
-        if (icon != null) {
+    /**
+     * Returns the thumbnails of a set of file transfers
+     * 
+     * @param transferIds the file transfer IDs
+     * @return the paths of the thumbnails, to be deleted with deleteThumbnails once the file
+     *         transfers are deleted
+     */
+    public List<String> getThumbnails(Set<String> transferIds) {
+        return mMessagingLog.getFileTransferIcons(transferIds);
+    }
+
+    /**
+     * Deletes thumbnails returned by getThumbnails
+     * 
+     * @param icons the paths of the thumbnails
+     */
+    public void deleteThumbnails(List<String> icons) {
+        for (String icon : icons) {
             new File(icon).delete();
         }
     }
@@ -1141,6 +1156,25 @@ public class FileTransferServiceImpl extends IFileTransferService.Stub {
      * @throws RemoteException
      */
     public void addEventListener2(IOneToOneFileTransferListener listener) throws RemoteException {
+        addOneToOneFileTransferListener(listener, false);
+    }
+
+    /**
+     * Adds a listener on file transfer events receiving consecutive events of the same kind in
+     * one batch call
+     * 
+     * @param listener OneToOne file transfer listener
+     * @return True, the services predating batched listeners return false instead
+     * @throws RemoteException
+     */
+    public boolean addBatchedEventListener2(IOneToOneFileTransferListener listener)
+            throws RemoteException {
+        addOneToOneFileTransferListener(listener, true);
+        return true;
+    }
+
+    private void addOneToOneFileTransferListener(IOneToOneFileTransferListener listener,
+            boolean batched) throws RemoteException {
         if (listener == null) {
             throw new ServerApiIllegalArgumentException("listener must not be null!");
         }
@@ -1149,7 +1183,12 @@ public class FileTransferServiceImpl extends IFileTransferService.Stub {
         }
         try {
             synchronized (mLock) {
-                mOneToOneFileTransferBroadcaster.addOneToOneFileTransferListener(listener);
+                if (batched) {
+                    mOneToOneFileTransferBroadcaster
+                            .addBatchedOneToOneFileTransferListener(listener);
+                } else {
+                    mOneToOneFileTransferBroadcaster.addOneToOneFileTransferListener(listener);
+                }
             }
         } catch (ServerApiBaseException e) {
             if (!e.shouldNotBeLogged()) {
@@ -1199,6 +1238,25 @@ public class FileTransferServiceImpl extends IFileTransferService.Stub {
      * @throws RemoteException
      */
     public void addEventListener3(IGroupFileTransferListener listener) throws RemoteException {
+        addGroupFileTransferListener(listener, false);
+    }
+
+    /**
+     * Adds a listener on group file transfer events receiving consecutive events of the same kind
+     * in one batch call
+     * 
+     * @param listener Group file transfer listener
+     * @return True, the services predating batched listeners return false instead
+     * @throws RemoteException
+     */
+    public boolean addBatchedEventListener3(IGroupFileTransferListener listener)
+            throws RemoteException {
+        addGroupFileTransferListener(listener, true);
+        return true;
+    }
+
+    private void addGroupFileTransferListener(IGroupFileTransferListener listener, boolean batched)
+            throws RemoteException {
         if (listener == null) {
             throw new ServerApiIllegalArgumentException("listener must not be null!");
         }
@@ -1207,7 +1265,11 @@ public class FileTransferServiceImpl extends IFileTransferService.Stub {
         }
         try {
             synchronized (mLock) {
-                mGroupFileTransferBroadcaster.addGroupFileTransferListener(listener);
+                if (batched) {
+                    mGroupFileTransferBroadcaster.addBatchedGroupFileTransferListener(listener);
+                } else {
+                    mGroupFileTransferBroadcaster.addGroupFileTransferListener(listener);
+                }
             }
         } catch (ServerApiBaseException e) {
             if (!e.shouldNotBeLogged()) {
@@ -862,8 +862,7 @@ public class GroupChatImpl extends IGroupChat.Stub implements GroupChatSessionLi
             }
 
             if (session == null || !mediaEstablished) {
-                Map<ContactId, ParticipantStatus> participantsToStore = mMessagingLog
-                        .getParticipants(mChatId);
+                Map<ContactId, ParticipantStatus> participantsToStore = new HashMap<ContactId, ParticipantStatus>();
 
                 for (ContactId contact : participants) {
                     participantsToStore.put(contact, ParticipantStatus.INVITE_QUEUED);
@@ -872,7 +871,7 @@ public class GroupChatImpl extends IGroupChat.Stub implements GroupChatSessionLi
                 if (session != null) {
                     session.updateParticipants(participantsToStore);
                 } else {
-                    mMessagingLog.setGroupChatParticipants(mChatId, participantsToStore);
+                    mMessagingLog.updateGroupChatParticipants(mChatId, participantsToStore);
                 }
             }
 
@@ -1466,18 +1465,23 @@ public class GroupChatImpl extends IGroupChat.Stub implements GroupChatSessionLi
 
     @Override
     public void handleReceiveMessage(ChatMessage msg, boolean imdnDisplayedRequested) {
-        String msgId = msg.getMessageId();
+        final String msgId = msg.getMessageId();
         ContactId remote = msg.getRemoteContact();
         if (sLogger.isActivated()) {
             sLogger.info("New IM with Id '" + msgId + "' received from " + remote);
         }
+        final String apiMimeType = ChatUtils.networkMimeTypeToApiMimeType(msg.getMimeType());
         synchronized (lock) {
-            mPersistentStorage.addIncomingGroupChatMessage(msg, imdnDisplayedRequested);
+            mPersistentStorage.queueIncomingGroupChatMessage(msg, imdnDisplayedRequested,
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            mBroadcaster.broadcastMessageReceived(apiMimeType, msgId);
+                        }
+                    });
             if (remote != null) {
                 mContactManager.setContactDisplayName(remote, msg.getDisplayName());
             }
-            String apiMimeType = ChatUtils.networkMimeTypeToApiMimeType(msg.getMimeType());
-            mBroadcaster.broadcastMessageReceived(apiMimeType, msgId);
         }
     }
 
@@ -1748,7 +1752,8 @@ public class GroupChatImpl extends IGroupChat.Stub implements GroupChatSessionLi
     public void handleParticipantUpdates(Map<ContactId, ParticipantStatus> updatedParticipants,
             Map<ContactId, ParticipantStatus> allParticipants) {
         synchronized (lock) {
-            if (!mMessagingLog.setGroupChatParticipants(mChatId, allParticipants)) {
+            /* Only the changed participants are written, the others are already stored */
+            if (!mMessagingLog.updateGroupChatParticipants(mChatId, updatedParticipants)) {
                 return;
             }
         }
@@ -35,6 +35,7 @@ import com.gsma.services.rcs.RcsService.Direction;
 import com.gsma.services.rcs.contact.ContactId;
 import com.gsma.services.rcs.extension.IMultimediaMessagingSession;
 import com.gsma.services.rcs.extension.MultimediaSession.ReasonCode;
+import com.gsma.services.rcs.extension.MultimediaSession.SendPolicy;
 import com.gsma.services.rcs.extension.MultimediaSession.State;
 
 import android.content.Intent;
@@ -390,6 +391,86 @@ public class MultimediaMessagingSessionImpl extends IMultimediaMessagingSession.
         }
     }
 
+    /**
+     * Returns the number of data waiting in the send queue
+     * 
+     * @return Number of queued data
+     * @throws RemoteException
+     */
+    public int getSendQueueSize() throws RemoteException {
+        try {
+            GenericSipMsrpSession session = mSipService.getGenericSipMsrpSession(mSessionId);
+            if (session == null) {
+                return 0;
+            }
+            return session.getSendQueue().getSize();
+
+        } catch (ServerApiBaseException e) {
+            if (!e.shouldNotBeLogged()) {
+                mLogger.error(ExceptionUtil.getFullStackTrace(e));
+            }
+            throw e;
+
+        } catch (Exception e) {
+            mLogger.error(ExceptionUtil.getFullStackTrace(e));
+            throw new ServerApiGenericException(e);
+        }
+    }
+
+    /**
+     * Returns the average time in milliseconds the data took to be sent
+     * 
+     * @return Latency
+     * @throws RemoteException
+     */
+    public long getSendLatency() throws RemoteException {
+        try {
+            GenericSipMsrpSession session = mSipService.getGenericSipMsrpSession(mSessionId);
+            if (session == null) {
+                return 0;
+            }
+            return session.getSendQueue().getAverageLatency();
+
+        } catch (ServerApiBaseException e) {
+            if (!e.shouldNotBeLogged()) {
+                mLogger.error(ExceptionUtil.getFullStackTrace(e));
+            }
+            throw e;
+
+        } catch (Exception e) {
+            mLogger.error(ExceptionUtil.getFullStackTrace(e));
+            throw new ServerApiGenericException(e);
+        }
+    }
+
+    /**
+     * Sets the policy applied when data is sent while the send queue is full
+     * 
+     * @param policy Send policy
+     * @throws RemoteException
+     */
+    public void setSendPolicy(int policy) throws RemoteException {
+        try {
+            GenericSipMsrpSession session = mSipService.getGenericSipMsrpSession(mSessionId);
+            if (session == null) {
+                throw new ServerApiGenericException(new StringBuilder("Session with session ID '")
+                        .append(mSessionId).append("' not available!").toString());
+            }
+            ServerApiUtils.testApiExtensionPermission(session.getServiceId());
+            session.getSendQueue().setPolicy(
+                    MultimediaSessionServiceImpl.getSendQueuePolicy(SendPolicy.valueOf(policy)));
+        } catch (ServerApiBaseException e) {
+            if (!e.shouldNotBeLogged()) {
+                mLogger.error(ExceptionUtil.getFullStackTrace(e));
+            }
+            throw e;
+
+        } catch (Exception e) {
+            mLogger.error(ExceptionUtil.getFullStackTrace(e));
+            throw new ServerApiGenericException(e);
+        }
+    }
+
     /*------------------------------- SESSION EVENTS ----------------------------------*/
 
     /**
@@ -478,6 +559,13 @@ public class MultimediaMessagingSessionImpl extends IMultimediaMessagingSession.
         }
     }
 
+    @Override
+    public void handleFlowControlChanged(ContactId contact, boolean congested) {
+        synchronized (mLock) {
+            mBroadcaster.broadcastFlowControlChanged(contact, mSessionId, congested);
+        }
+    }
+
     @Override
     public void handleSessionAccepted(ContactId contact) {
         if (mLogger.isActivated()) {
@@ -23,6 +23,7 @@
 package com.gsma.rcs.service.api;
 
 import com.gsma.rcs.core.ims.network.sip.FeatureTags;
+import com.gsma.rcs.core.ims.service.sip.SendQueue;
 import com.gsma.rcs.core.ims.service.sip.SipService;
 import com.gsma.rcs.core.ims.service.sip.messaging.GenericSipMsrpSession;
 import com.gsma.rcs.core.ims.service.sip.streaming.GenericSipRtpSession;
@@ -47,6 +48,7 @@ import com.gsma.services.rcs.extension.IMultimediaSessionService;
 import com.gsma.services.rcs.extension.IMultimediaSessionServiceConfiguration;
 import com.gsma.services.rcs.extension.IMultimediaStreamingSession;
 import com.gsma.services.rcs.extension.IMultimediaStreamingSessionListener;
+import com.gsma.services.rcs.extension.MultimediaSession.SendPolicy;
 import com.gsma.services.rcs.extension.MultimediaSession.State;
 import com.gsma.services.rcs.extension.MultimediaStreamingSessionIntent;
 
@@ -108,6 +110,26 @@ public class MultimediaSessionServiceImpl extends IMultimediaSessionService.Stub
         mContactManager = contactManager;
     }
 
+    /**
+     * Returns the policy of the send queue of a session
+     * 
+     * @param policy Send policy of the API
+     * @return Policy of the send queue
+     */
+    /* package private */static SendQueue.Policy getSendQueuePolicy(SendPolicy policy) {
+        switch (policy) {
+            case DROP_OLDEST:
+                return SendQueue.Policy.DROP_OLDEST;
+            case DROP_NEWEST:
+                return SendQueue.Policy.DROP_NEWEST;
+            case BLOCK:
+                return SendQueue.Policy.BLOCK;
+            default:
+                throw new IllegalArgumentException("Unknown SendPolicy=".concat(String
+                        .valueOf(policy)));
+        }
+    }
+
     /**
      * Close API
      */
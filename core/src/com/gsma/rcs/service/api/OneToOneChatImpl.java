@@ -862,12 +862,12 @@ public class OneToOneChatImpl extends IOneToOneChat.Stub implements OneToOneChat
 
     @Override
     public void handleReceiveMessage(ChatMessage msg, boolean imdnDisplayedRequested) {
-        String msgId = msg.getMessageId();
+        final String msgId = msg.getMessageId();
         if (sLogger.isActivated()) {
             sLogger.info(new StringBuilder("New IM with messageId '").append(msgId)
                     .append("' received from ").append(mContact).append(".").toString());
         }
-        String apiMimeType = ChatUtils.networkMimeTypeToApiMimeType(msg.getMimeType());
+        final String apiMimeType = ChatUtils.networkMimeTypeToApiMimeType(msg.getMimeType());
         synchronized (lock) {
             if (mContactManager.isBlockedForContact(mContact)) {
                 if (sLogger.isActivated()) {
@@ -883,8 +883,13 @@ public class OneToOneChatImpl extends IOneToOneChat.Stub implements OneToOneChat
                 mBroadcaster.broadcastMessageReceived(apiMimeType, msgId);
                 return;
             }
-            mMessagingLog.addIncomingOneToOneChatMessage(msg, imdnDisplayedRequested);
-            mBroadcaster.broadcastMessageReceived(apiMimeType, msgId);
+            mMessagingLog.queueIncomingOneToOneChatMessage(msg, imdnDisplayedRequested,
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            mBroadcaster.broadcastMessageReceived(apiMimeType, msgId);
+                        }
+                    });
         }
     }
 
@@ -16,12 +16,12 @@
 
 package com.gsma.rcs.service.broadcaster;
 
-import com.gsma.rcs.utils.logger.Logger;
+import com.gsma.rcs.service.broadcaster.EventDispatcher.Event;
 import com.gsma.services.rcs.capability.Capabilities;
 import com.gsma.services.rcs.capability.ICapabilitiesListener;
 import com.gsma.services.rcs.contact.ContactId;
 
-import android.os.RemoteCallbackList;
+import android.os.RemoteException;
 
 import java.util.HashMap;
 
@@ -31,52 +31,13 @@ import java.util.HashMap;
  */
 public class CapabilitiesBroadcaster implements ICapabilitiesBroadcaster {
 
-    private RemoteCallbackList<ICapabilitiesListener> mCapabilitiesListeners = new RemoteCallbackList<ICapabilitiesListener>();
+    private final EventDispatcher<ICapabilitiesListener> mCapabilitiesListeners = new EventDispatcher<ICapabilitiesListener>();
 
-    private HashMap<ContactId, RemoteCallbackList<ICapabilitiesListener>> mCapalitiesListenersPerContact = new HashMap<ContactId, RemoteCallbackList<ICapabilitiesListener>>();
-
-    private final Logger logger = Logger.getLogger(getClass().getName());
+    private final HashMap<ContactId, EventDispatcher<ICapabilitiesListener>> mCapalitiesListenersPerContact = new HashMap<ContactId, EventDispatcher<ICapabilitiesListener>>();
 
     public CapabilitiesBroadcaster() {
     }
 
-    private void broadcastCapabilitiesReceivedForAllContacts(ContactId contact,
-            Capabilities contactCapabilities) {
-        final int N = mCapabilitiesListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mCapabilitiesListeners.getBroadcastItem(i).onCapabilitiesReceived(contact,
-                        contactCapabilities);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
-            }
-        }
-        mCapabilitiesListeners.finishBroadcast();
-    }
-
-    private void broadcastCapabilitiesReceivedOnPerContact(ContactId contact,
-            Capabilities contactCapabilities) {
-        RemoteCallbackList<ICapabilitiesListener> capabilitiesListeners = mCapalitiesListenersPerContact
-                .get(contact);
-        if (capabilitiesListeners == null) {
-            return;
-        }
-        final int N = capabilitiesListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                capabilitiesListeners.getBroadcastItem(i).onCapabilitiesReceived(contact,
-                        contactCapabilities);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
-            }
-        }
-        capabilitiesListeners.finishBroadcast();
-    }
-
     public void addCapabilitiesListener(ICapabilitiesListener listener) {
         mCapabilitiesListeners.register(listener);
     }
@@ -86,27 +47,47 @@ public class CapabilitiesBroadcaster implements ICapabilitiesBroadcaster {
     }
 
     public void addContactCapabilitiesListener(ContactId contact, ICapabilitiesListener listener) {
-        RemoteCallbackList<ICapabilitiesListener> capabilitiesListeners = mCapalitiesListenersPerContact
-                .get(contact);
-        if (capabilitiesListeners == null) {
-            capabilitiesListeners = new RemoteCallbackList<ICapabilitiesListener>();
-            mCapalitiesListenersPerContact.put(contact, capabilitiesListeners);
+        synchronized (mCapalitiesListenersPerContact) {
+            EventDispatcher<ICapabilitiesListener> capabilitiesListeners = mCapalitiesListenersPerContact
+                    .get(contact);
+            if (capabilitiesListeners == null) {
+                capabilitiesListeners = new EventDispatcher<ICapabilitiesListener>();
+                mCapalitiesListenersPerContact.put(contact, capabilitiesListeners);
+            }
+            capabilitiesListeners.register(listener);
         }
-        capabilitiesListeners.register(listener);
     }
 
     public void removeContactCapabilitiesListener(ContactId contact, ICapabilitiesListener listener) {
-        RemoteCallbackList<ICapabilitiesListener> listeners = mCapalitiesListenersPerContact
-                .get(contact);
-        if (listeners != null) {
-            listeners.unregister(listener);
+        synchronized (mCapalitiesListenersPerContact) {
+            EventDispatcher<ICapabilitiesListener> listeners = mCapalitiesListenersPerContact
+                    .get(contact);
+            if (listeners != null) {
+                listeners.unregister(listener);
+                if (listeners.getListenerCount() == 0) {
+                    mCapalitiesListenersPerContact.remove(contact);
+                }
+            }
         }
     }
 
-    public void broadcastCapabilitiesReceived(ContactId contact, Capabilities contactCapabilities) {
+    public void broadcastCapabilitiesReceived(final ContactId contact,
+            final Capabilities contactCapabilities) {
+        Event<ICapabilitiesListener> event = new Event<ICapabilitiesListener>(contact.toString()) {
+            @Override
+            protected void deliver(ICapabilitiesListener listener) throws RemoteException {
+                listener.onCapabilitiesReceived(contact, contactCapabilities);
+            }
+        };
         // Notify capabilities listeners
-        broadcastCapabilitiesReceivedForAllContacts(contact, contactCapabilities);
+        mCapabilitiesListeners.dispatch(event);
         // Notify capabilities listeners for a given contact
-        broadcastCapabilitiesReceivedOnPerContact(contact, contactCapabilities);
+        EventDispatcher<ICapabilitiesListener> capabilitiesListeners;
+        synchronized (mCapalitiesListenersPerContact) {
+            capabilitiesListeners = mCapalitiesListenersPerContact.get(contact);
+        }
+        if (capabilitiesListeners != null) {
+            capabilitiesListeners.dispatch(event);
+        }
     }
 }
@@ -0,0 +1,405 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.gsma.rcs.service.broadcaster;
+
+import com.gsma.rcs.utils.logger.Logger;
+
+import android.os.DeadObjectException;
+import android.os.IBinder;
+import android.os.IInterface;
+import android.os.RemoteException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers the events of a broadcaster to its remote listeners on a background thread, so that the
+ * protocol threads raising the events never wait for a client application. Each listener has a
+ * queue of pending events in which an event superseding a queued one, such as a newer status or
+ * progress of the same message or transfer, replaces it at its position. The events are delivered
+ * one by one through the listener methods; listeners registered as batched receive consecutive
+ * events of the same kind in one call when the listener interface has one. The listener interfaces
+ * are oneway so that a call only queues the transaction in the client process. A failed delivery
+ * is retried with a backoff. The threads raising the events never wait: a listener whose queue
+ * overflows or whose deliveries keep failing is considered stuck and is dropped.
+ * 
+ * @param <L> Listener interface
+ */
+public class EventDispatcher<L extends IInterface> {
+
+    /**
+     * Maximum number of events queued for a listener
+     */
+    private static final int MAX_QUEUED_EVENTS = 256;
+
+    /**
+     * Maximum number of events delivered in one run, and in one batch call
+     */
+    private static final int MAX_BATCH_SIZE = 64;
+
+    /**
+     * Delay in milliseconds before retrying a failed delivery, doubled at each further failure
+     */
+    private static final long RETRY_BASE_DELAY = 100;
+
+    /**
+     * Number of consecutive failed deliveries after which a listener is dropped
+     */
+    private static final int MAX_DELIVERY_FAILURES = 5;
+
+    private static final Logger sLogger = Logger.getLogger(EventDispatcher.class.getSimpleName());
+
+    /**
+     * Executor shared by all the dispatchers, the deliveries do not block as the listener calls are
+     * oneway
+     */
+    private static final ScheduledExecutorService sExecutor = Executors
+            .newSingleThreadScheduledExecutor();
+
+    /**
+     * Event to deliver to the listeners
+     * 
+     * @param <L> Listener interface
+     */
+    public static abstract class Event<L> {
+
+        private final Object mKey;
+
+        /**
+         * Constructor of an event which is never superseded
+         */
+        protected Event() {
+            mKey = this;
+        }
+
+        /**
+         * Constructor of an event superseding the queued event of the same class and id
+         * 
+         * @param id Identifier of the object whose state the event reports
+         */
+        protected Event(String id) {
+            mKey = new Key(getClass(), id);
+        }
+
+        /**
+         * Returns the batch delivering consecutive events of this kind in one call to the
+         * listeners registered as batched
+         * 
+         * @return Batch or null if the event is always delivered alone
+         */
+        protected Batch<L> getBatch() {
+            return null;
+        }
+
+        /**
+         * Delivers the event to a listener
+         * 
+         * @param listener Listener
+         * @throws RemoteException
+         */
+        protected abstract void deliver(L listener) throws RemoteException;
+    }
+
+    /**
+     * Delivery of several events of the same kind in one call
+     * 
+     * @param <L> Listener interface
+     */
+    public interface Batch<L> {
+
+        /**
+         * Delivers events to a listener
+         * 
+         * @param listener Listener
+         * @param events Events, all of them returning this batch
+         * @throws RemoteException
+         */
+        public void deliver(L listener, List<Event<L>> events) throws RemoteException;
+    }
+
+    private static final class Key {
+
+        private final Class<?> mType;
+
+        private final String mId;
+
+        private Key(Class<?> type, String id) {
+            mType = type;
+            mId = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return mType == key.mType && (mId == null ? key.mId == null : mId.equals(key.mId));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * mType.hashCode() + (mId == null ? 0 : mId.hashCode());
+        }
+    }
+
+    private final class Client implements Runnable, IBinder.DeathRecipient {
+
+        private final L mListener;
+
+        private final boolean mBatched;
+
+        /**
+         * Pending events in delivery order, keyed so that a superseding event replaces the queued
+         * one at its position
+         */
+        private final Map<Object, Event<L>> mQueue = new LinkedHashMap<Object, Event<L>>();
+
+        private boolean mScheduled;
+
+        private boolean mClosed;
+
+        private int mFailureCount;
+
+        private Client(L listener, boolean batched) {
+            mListener = listener;
+            mBatched = batched;
+        }
+
+        private void enqueue(Event<L> event) {
+            synchronized (this) {
+                if (mClosed) {
+                    return;
+                }
+                if (mQueue.containsKey(event.mKey) || mQueue.size() < MAX_QUEUED_EVENTS) {
+                    mQueue.put(event.mKey, event);
+                    if (!mScheduled) {
+                        mScheduled = true;
+                        sExecutor.execute(this);
+                    }
+                    return;
+                }
+            }
+            drop("too many pending events");
+        }
+
+        private synchronized void close() {
+            mClosed = true;
+            mQueue.clear();
+        }
+
+        @Override
+        public void binderDied() {
+            remove(this);
+        }
+
+        @Override
+        public void run() {
+            List<Event<L>> events = new ArrayList<Event<L>>();
+            synchronized (this) {
+                Iterator<Event<L>> iterator = mQueue.values().iterator();
+                while (iterator.hasNext() && events.size() < MAX_BATCH_SIZE) {
+                    events.add(iterator.next());
+                }
+            }
+            int delivered = deliver(events);
+            long retryDelay = 0;
+            synchronized (this) {
+                /* Events superseded during the delivery stay queued at their position */
+                for (int i = 0; i < delivered; i++) {
+                    Event<L> event = events.get(i);
+                    if (mQueue.get(event.mKey) == event) {
+                        mQueue.remove(event.mKey);
+                    }
+                }
+                if (mClosed || mQueue.isEmpty()) {
+                    mScheduled = false;
+                    return;
+                }
+                if (delivered < events.size()) {
+                    retryDelay = RETRY_BASE_DELAY << (mFailureCount - 1);
+                }
+            }
+            if (retryDelay > 0) {
+                sExecutor.schedule(this, retryDelay, TimeUnit.MILLISECONDS);
+                return;
+            }
+            /* Let the other listeners be served before the next events of this one */
+            sExecutor.execute(this);
+        }
+
+        /**
+         * Delivers events in order, stopping at the first failure
+         * 
+         * @param events Events
+         * @return Number of events delivered
+         */
+        private int deliver(List<Event<L>> events) {
+            int size = events.size();
+            int start = 0;
+            while (start < size) {
+                Event<L> event = events.get(start);
+                Batch<L> batch = mBatched ? event.getBatch() : null;
+                int end = start + 1;
+                if (batch != null) {
+                    while (end < size && events.get(end).getBatch() == batch) {
+                        end++;
+                    }
+                }
+                try {
+                    if (end - start == 1) {
+                        event.deliver(mListener);
+                    } else {
+                        batch.deliver(mListener, events.subList(start, end));
+                    }
+                    mFailureCount = 0;
+
+                } catch (DeadObjectException e) {
+                    remove(this);
+                    return start;
+
+                } catch (RemoteException e) {
+                    /* The transactions fail when the client does not read them fast enough */
+                    if (++mFailureCount == MAX_DELIVERY_FAILURES) {
+                        drop("delivery failed");
+                        return start;
+                    }
+                    if (sLogger.isActivated()) {
+                        sLogger.warn("Can't notify listener, will retry: ".concat(String
+                                .valueOf(e.getMessage())));
+                    }
+                    return start;
+
+                } catch (RuntimeException e) {
+                    /*
+                     * Intentionally catch runtime exceptions as else it will abruptly end the
+                     * dispatcher thread and stop the delivery of the events to every listener.
+                     */
+                    sLogger.error("Can't notify listener", e);
+                }
+                start = end;
+            }
+            return size;
+        }
+
+        private void drop(String reason) {
+            if (sLogger.isActivated()) {
+                sLogger.warn(new StringBuilder("Drop listener ").append(mListener.asBinder())
+                        .append(": ").append(reason).toString());
+            }
+            remove(this);
+        }
+    }
+
+    private final Map<IBinder, Client> mClients = new HashMap<IBinder, Client>();
+
+    /**
+     * Registers a listener receiving each event through its own call
+     * 
+     * @param listener Listener
+     */
+    public void register(L listener) {
+        register(listener, false);
+    }
+
+    /**
+     * Registers a listener
+     * 
+     * @param listener Listener
+     * @param batched True if the listener receives consecutive events of the same kind in one
+     *            batch call, which only clients built with the batch methods of the listener
+     *            interface can handle
+     */
+    public void register(L listener, boolean batched) {
+        IBinder binder = listener.asBinder();
+        Client client = new Client(listener, batched);
+        synchronized (mClients) {
+            if (mClients.containsKey(binder)) {
+                return;
+            }
+            try {
+                binder.linkToDeath(client, 0);
+            } catch (RemoteException e) {
+                /* The client is already dead */
+                return;
+            }
+            mClients.put(binder, client);
+        }
+    }
+
+    /**
+     * Unregisters a listener, its pending events are discarded
+     * 
+     * @param listener Listener
+     */
+    public void unregister(L listener) {
+        Client client;
+        synchronized (mClients) {
+            client = mClients.get(listener.asBinder());
+        }
+        if (client != null) {
+            remove(client);
+        }
+    }
+
+    /**
+     * Returns the number of registered listeners
+     * 
+     * @return Number of listeners
+     */
+    public int getListenerCount() {
+        synchronized (mClients) {
+            return mClients.size();
+        }
+    }
+
+    /**
+     * Queues an event for all the registered listeners and returns at once
+     * 
+     * @param event Event
+     */
+    public void dispatch(Event<L> event) {
+        List<Client> clients;
+        synchronized (mClients) {
+            if (mClients.isEmpty()) {
+                return;
+            }
+            clients = new ArrayList<Client>(mClients.values());
+        }
+        for (Client client : clients) {
+            client.enqueue(event);
+        }
+    }
+
+    private void remove(Client client) {
+        IBinder binder = client.mListener.asBinder();
+        synchronized (mClients) {
+            if (mClients.get(binder) == client) {
+                mClients.remove(binder);
+                binder.unlinkToDeath(client, 0);
+            }
+        }
+        client.close();
+    }
+}
@@ -22,12 +22,12 @@
 
 package com.gsma.rcs.service.broadcaster;
 
-import com.gsma.rcs.utils.logger.Logger;
+import com.gsma.rcs.service.broadcaster.EventDispatcher.Event;
 import com.gsma.services.rcs.upload.FileUpload.State;
 import com.gsma.services.rcs.upload.FileUploadInfo;
 import com.gsma.services.rcs.upload.IFileUploadListener;
 
-import android.os.RemoteCallbackList;
+import android.os.RemoteException;
 
 /**
  * FileUploadEventBroadcaster maintains the registering and unregistering of IFileUploadListener and
@@ -35,9 +35,7 @@ import android.os.RemoteCallbackList;
  */
 public class FileUploadEventBroadcaster implements IFileUploadEventBroadcaster {
 
-    private final RemoteCallbackList<IFileUploadListener> mFileUploadListeners = new RemoteCallbackList<IFileUploadListener>();
-
-    private final Logger logger = Logger.getLogger(getClass().getName());
+    private final EventDispatcher<IFileUploadListener> mFileUploadListeners = new EventDispatcher<IFileUploadListener>();
 
     public FileUploadEventBroadcaster() {
     }
@@ -50,47 +48,32 @@ public class FileUploadEventBroadcaster implements IFileUploadEventBroadcaster {
         mFileUploadListeners.unregister(listener);
     }
 
-    public void broadcastStateChanged(String uploadId, State state) {
-        int rcsState = state.toInt();
-        final int N = mFileUploadListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mFileUploadListeners.getBroadcastItem(i).onStateChanged(uploadId, rcsState);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
+    public void broadcastStateChanged(final String uploadId, State state) {
+        final int rcsState = state.toInt();
+        mFileUploadListeners.dispatch(new Event<IFileUploadListener>(state) {
+            @Override
+            protected void deliver(IFileUploadListener listener) throws RemoteException {
+                listener.onStateChanged(uploadId, rcsState);
             }
-        }
-        mFileUploadListeners.finishBroadcast();
+        });
     }
 
-    public void broadcastProgressUpdate(String uploadId, long currentSize, long totalSize) {
-        final int N = mFileUploadListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mFileUploadListeners.getBroadcastItem(i).onProgressUpdate(uploadId, currentSize,
-                        totalSize);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
+    public void broadcastProgressUpdate(final String uploadId, final long currentSize,
+            final long totalSize) {
+        mFileUploadListeners.dispatch(new Event<IFileUploadListener>(currentSize) {
+            @Override
+            protected void deliver(IFileUploadListener listener) throws RemoteException {
+                listener.onProgressUpdate(uploadId, currentSize, totalSize);
             }
-        }
-        mFileUploadListeners.finishBroadcast();
+        });
     }
 
-    public void broadcastUploaded(String uploadId, FileUploadInfo info) {
-        final int N = mFileUploadListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mFileUploadListeners.getBroadcastItem(i).onUploaded(uploadId, info);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
+    public void broadcastUploaded(final String uploadId, final FileUploadInfo info) {
+        mFileUploadListeners.dispatch(new Event<IFileUploadListener>() {
+            @Override
+            protected void deliver(IFileUploadListener listener) throws RemoteException {
+                listener.onUploaded(uploadId, info);
             }
-        }
-        mFileUploadListeners.finishBroadcast();
+        });
     }
 }
@@ -17,8 +17,8 @@
 package com.gsma.rcs.service.broadcaster;
 
 import com.gsma.rcs.platform.AndroidFactory;
+import com.gsma.rcs.service.broadcaster.EventDispatcher.Event;
 import com.gsma.rcs.utils.IntentUtils;
-import com.gsma.rcs.utils.logger.Logger;
 import com.gsma.services.rcs.contact.ContactId;
 import com.gsma.services.rcs.sharing.geoloc.GeolocSharing.ReasonCode;
 import com.gsma.services.rcs.sharing.geoloc.GeolocSharing.State;
@@ -26,7 +26,7 @@ import com.gsma.services.rcs.sharing.geoloc.GeolocSharingIntent;
 import com.gsma.services.rcs.sharing.geoloc.IGeolocSharingListener;
 
 import android.content.Intent;
-import android.os.RemoteCallbackList;
+import android.os.RemoteException;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -39,9 +39,7 @@ import java.util.Set;
  */
 public class GeolocSharingEventBroadcaster implements IGeolocSharingEventBroadcaster {
 
-    private final RemoteCallbackList<IGeolocSharingListener> mGeolocSharingListeners = new RemoteCallbackList<IGeolocSharingListener>();
-
-    private final Logger logger = Logger.getLogger(getClass().getName());
+    private final EventDispatcher<IGeolocSharingListener> mGeolocSharingListeners = new EventDispatcher<IGeolocSharingListener>();
 
     public GeolocSharingEventBroadcaster() {
     }
@@ -54,35 +52,26 @@ public class GeolocSharingEventBroadcaster implements IGeolocSharingEventBroadca
         mGeolocSharingListeners.unregister(listener);
     }
 
-    public void broadcastStateChanged(ContactId contact, String sharingId, State state,
+    public void broadcastStateChanged(final ContactId contact, final String sharingId, State state,
             ReasonCode reasonCode) {
-        final int N = mGeolocSharingListeners.beginBroadcast();
-        int rcsState = state.toInt();
-        int rcsReasonCode = reasonCode.toInt();
-        for (int i = 0; i < N; i++) {
-            try {
-                mGeolocSharingListeners.getBroadcastItem(i).onStateChanged(contact, sharingId,
-                        rcsState, rcsReasonCode);
-            } catch (Exception e) {
+        final int rcsState = state.toInt();
+        final int rcsReasonCode = reasonCode.toInt();
+        mGeolocSharingListeners.dispatch(new Event<IGeolocSharingListener>(sharingId) {
+            @Override
+            protected void deliver(IGeolocSharingListener listener) throws RemoteException {
+                listener.onStateChanged(contact, sharingId, rcsState, rcsReasonCode);
             }
-        }
-        mGeolocSharingListeners.finishBroadcast();
+        });
     }
 
-    public void broadcastProgressUpdate(ContactId contact, String sharingId, long currentSize,
-            long totalSize) {
-        final int N = mGeolocSharingListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mGeolocSharingListeners.getBroadcastItem(i).onProgressUpdate(contact, sharingId,
-                        currentSize, totalSize);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
+    public void broadcastProgressUpdate(final ContactId contact, final String sharingId,
+            final long currentSize, final long totalSize) {
+        mGeolocSharingListeners.dispatch(new Event<IGeolocSharingListener>(sharingId) {
+            @Override
+            protected void deliver(IGeolocSharingListener listener) throws RemoteException {
+                listener.onProgressUpdate(contact, sharingId, currentSize, totalSize);
             }
-        }
-        mGeolocSharingListeners.finishBroadcast();
+        });
     }
 
     public void broadcastInvitation(String sharingId) {
@@ -93,15 +82,13 @@ public class GeolocSharingEventBroadcaster implements IGeolocSharingEventBroadca
         AndroidFactory.getApplicationContext().sendBroadcast(invitation);
     }
 
-    public void broadcastDeleted(ContactId contact, Set<String> sharingIds) {
-        List<String> ids = new ArrayList<String>(sharingIds);
-        final int N = mGeolocSharingListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mGeolocSharingListeners.getBroadcastItem(i).onDeleted(contact, ids);
-            } catch (Exception e) {
+    public void broadcastDeleted(final ContactId contact, Set<String> sharingIds) {
+        final List<String> ids = new ArrayList<String>(sharingIds);
+        mGeolocSharingListeners.dispatch(new Event<IGeolocSharingListener>() {
+            @Override
+            protected void deliver(IGeolocSharingListener listener) throws RemoteException {
+                listener.onDeleted(contact, ids);
             }
-        }
-        mGeolocSharingListeners.finishBroadcast();
+        });
     }
 }
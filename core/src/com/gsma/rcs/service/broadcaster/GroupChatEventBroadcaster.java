@@ -17,8 +17,9 @@
 package com.gsma.rcs.service.broadcaster;
 
 import com.gsma.rcs.platform.AndroidFactory;
+import com.gsma.rcs.service.broadcaster.EventDispatcher.Batch;
+import com.gsma.rcs.service.broadcaster.EventDispatcher.Event;
 import com.gsma.rcs.utils.IntentUtils;
-import com.gsma.rcs.utils.logger.Logger;
 import com.gsma.services.rcs.chat.ChatLog.Message.Content;
 import com.gsma.services.rcs.chat.ChatLog.Message.Content.Status;
 import com.gsma.services.rcs.chat.GroupChat.ParticipantStatus;
@@ -30,7 +31,7 @@ import com.gsma.services.rcs.contact.ContactId;
 import com.gsma.services.rcs.groupdelivery.GroupDeliveryInfo;
 
 import android.content.Intent;
-import android.os.RemoteCallbackList;
+import android.os.RemoteException;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -42,9 +43,125 @@ import java.util.Set;
  */
 public class GroupChatEventBroadcaster implements IGroupChatEventBroadcaster {
 
-    private final RemoteCallbackList<IGroupChatListener> mGroupChatListeners = new RemoteCallbackList<IGroupChatListener>();
+    private final EventDispatcher<IGroupChatListener> mGroupChatListeners = new EventDispatcher<IGroupChatListener>();
 
-    private final Logger logger = Logger.getLogger(getClass().getName());
+    private static final class MessageStatusEvent extends Event<IGroupChatListener> {
+
+        private static final Batch<IGroupChatListener> BATCH = new Batch<IGroupChatListener>() {
+            @Override
+            public void deliver(IGroupChatListener listener, List<Event<IGroupChatListener>> events)
+                    throws RemoteException {
+                int size = events.size();
+                List<String> chatIds = new ArrayList<String>(size);
+                List<String> mimeTypes = new ArrayList<String>(size);
+                List<String> msgIds = new ArrayList<String>(size);
+                int[] statuses = new int[size];
+                int[] reasonCodes = new int[size];
+                for (int i = 0; i < size; i++) {
+                    MessageStatusEvent event = (MessageStatusEvent) events.get(i);
+                    chatIds.add(event.mChatId);
+                    mimeTypes.add(event.mMimeType);
+                    msgIds.add(event.mMsgId);
+                    statuses[i] = event.mStatus;
+                    reasonCodes[i] = event.mReasonCode;
+                }
+                listener.onMessageStatusesChanged(chatIds, mimeTypes, msgIds, statuses,
+                        reasonCodes);
+            }
+        };
+
+        private final String mChatId;
+
+        private final String mMimeType;
+
+        private final String mMsgId;
+
+        private final int mStatus;
+
+        private final int mReasonCode;
+
+        private MessageStatusEvent(String chatId, String mimeType, String msgId, int status,
+                int reasonCode) {
+            super(msgId);
+            mChatId = chatId;
+            mMimeType = mimeType;
+            mMsgId = msgId;
+            mStatus = status;
+            mReasonCode = reasonCode;
+        }
+
+        @Override
+        protected Batch<IGroupChatListener> getBatch() {
+            return BATCH;
+        }
+
+        @Override
+        protected void deliver(IGroupChatListener listener) throws RemoteException {
+            listener.onMessageStatusChanged(mChatId, mMimeType, mMsgId, mStatus, mReasonCode);
+        }
+    }
+
+    private static final class DeliveryInfoEvent extends Event<IGroupChatListener> {
+
+        private static final Batch<IGroupChatListener> BATCH = new Batch<IGroupChatListener>() {
+            @Override
+            public void deliver(IGroupChatListener listener, List<Event<IGroupChatListener>> events)
+                    throws RemoteException {
+                int size = events.size();
+                List<String> chatIds = new ArrayList<String>(size);
+                List<ContactId> contacts = new ArrayList<ContactId>(size);
+                List<String> mimeTypes = new ArrayList<String>(size);
+                List<String> msgIds = new ArrayList<String>(size);
+                int[] statuses = new int[size];
+                int[] reasonCodes = new int[size];
+                for (int i = 0; i < size; i++) {
+                    DeliveryInfoEvent event = (DeliveryInfoEvent) events.get(i);
+                    chatIds.add(event.mChatId);
+                    contacts.add(event.mContact);
+                    mimeTypes.add(event.mMimeType);
+                    msgIds.add(event.mMsgId);
+                    statuses[i] = event.mStatus;
+                    reasonCodes[i] = event.mReasonCode;
+                }
+                listener.onMessageGroupDeliveryInfosChanged(chatIds, contacts, mimeTypes, msgIds,
+                        statuses, reasonCodes);
+            }
+        };
+
+        private final String mChatId;
+
+        private final ContactId mContact;
+
+        private final String mMimeType;
+
+        private final String mMsgId;
+
+        private final int mStatus;
+
+        private final int mReasonCode;
+
+        private DeliveryInfoEvent(String chatId, ContactId contact, String mimeType, String msgId,
+                int status, int reasonCode) {
+            super(new StringBuilder(msgId).append('/').append(contact).toString());
+            mChatId = chatId;
+            mContact = contact;
+            mMimeType = mimeType;
+            mMsgId = msgId;
+            mStatus = status;
+            mReasonCode = reasonCode;
+        }
+
+        @Override
+        protected Batch<IGroupChatListener> getBatch() {
+            return BATCH;
+        }
+
+        @Override
+        protected void deliver(IGroupChatListener listener) throws RemoteException {
+            listener.onMessageGroupDeliveryInfoChanged(mChatId, mContact, mMimeType, mMsgId,
+                    mStatus, mReasonCode);
+        }
+    }
 
     public GroupChatEventBroadcaster() {
     }
@@ -53,90 +170,59 @@ public class GroupChatEventBroadcaster implements IGroupChatEventBroadcaster {
         mGroupChatListeners.register(listener);
     }
 
+    public void addBatchedGroupChatEventListener(IGroupChatListener listener) {
+        mGroupChatListeners.register(listener, true);
+    }
+
     public void removeGroupChatEventListener(IGroupChatListener listener) {
         mGroupChatListeners.unregister(listener);
     }
 
     public void broadcastMessageStatusChanged(String chatId, String mimeType, String msgId,
             Status status, Content.ReasonCode reasonCode) {
-        int rcsStatus = status.toInt();
-        int rcsReasonCode = reasonCode.toInt();
-        final int N = mGroupChatListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mGroupChatListeners.getBroadcastItem(i).onMessageStatusChanged(chatId, mimeType,
-                        msgId, rcsStatus, rcsReasonCode);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener.", e);
-                }
-            }
-        }
-        mGroupChatListeners.finishBroadcast();
+        mGroupChatListeners.dispatch(new MessageStatusEvent(chatId, mimeType, msgId, status
+                .toInt(), reasonCode.toInt()));
     }
 
     public void broadcastMessageGroupDeliveryInfoChanged(String chatId, ContactId contact,
             String apiMimeType, String msgId, GroupDeliveryInfo.Status status,
             GroupDeliveryInfo.ReasonCode reasonCode) {
-        final int N = mGroupChatListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mGroupChatListeners.getBroadcastItem(i).onMessageGroupDeliveryInfoChanged(chatId,
-                        contact, apiMimeType, msgId, status.toInt(), reasonCode.toInt());
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener.", e);
-                }
-            }
-        }
-        mGroupChatListeners.finishBroadcast();
+        mGroupChatListeners.dispatch(new DeliveryInfoEvent(chatId, contact, apiMimeType, msgId,
+                status.toInt(), reasonCode.toInt()));
     }
 
-    public void broadcastParticipantStatusChanged(String chatId, ContactId contact,
+    public void broadcastParticipantStatusChanged(final String chatId, final ContactId contact,
             ParticipantStatus status) {
-        final int N = mGroupChatListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mGroupChatListeners.getBroadcastItem(i).onParticipantStatusChanged(chatId, contact,
-                        status.toInt());
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
+        final int rcsStatus = status.toInt();
+        mGroupChatListeners.dispatch(new Event<IGroupChatListener>(
+                new StringBuilder(chatId).append('/').append(contact).toString()) {
+            @Override
+            protected void deliver(IGroupChatListener listener) throws RemoteException {
+                listener.onParticipantStatusChanged(chatId, contact, rcsStatus);
             }
-        }
-        mGroupChatListeners.finishBroadcast();
+        });
     }
 
-    public void broadcastStateChanged(String chatId, State state, ReasonCode reasonCode) {
-        final int N = mGroupChatListeners.beginBroadcast();
-        int rcsState = state.toInt();
-        int rcsReasonCode = reasonCode.toInt();
-        for (int i = 0; i < N; i++) {
-            try {
-                mGroupChatListeners.getBroadcastItem(i).onStateChanged(chatId, rcsState,
-                        rcsReasonCode);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
+    public void broadcastStateChanged(final String chatId, State state, ReasonCode reasonCode) {
+        final int rcsState = state.toInt();
+        final int rcsReasonCode = reasonCode.toInt();
+        mGroupChatListeners.dispatch(new Event<IGroupChatListener>(chatId) {
+            @Override
+            protected void deliver(IGroupChatListener listener) throws RemoteException {
+                listener.onStateChanged(chatId, rcsState, rcsReasonCode);
             }
-        }
-        mGroupChatListeners.finishBroadcast();
+        });
     }
 
-    public void broadcastComposingEvent(String chatId, ContactId contact, boolean status) {
-        final int N = mGroupChatListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mGroupChatListeners.getBroadcastItem(i).onComposingEvent(chatId, contact, status);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
+    public void broadcastComposingEvent(final String chatId, final ContactId contact,
+            final boolean status) {
+        mGroupChatListeners.dispatch(new Event<IGroupChatListener>(
+                new StringBuilder(chatId).append('/').append(contact).toString()) {
+            @Override
+            protected void deliver(IGroupChatListener listener) throws RemoteException {
+                listener.onComposingEvent(chatId, contact, status);
             }
-        }
-        mGroupChatListeners.finishBroadcast();
+        });
     }
 
     public void broadcastInvitation(String chatId) {
@@ -156,33 +242,23 @@ public class GroupChatEventBroadcaster implements IGroupChatEventBroadcaster {
         AndroidFactory.getApplicationContext().sendBroadcast(newGroupChatMessage);
     }
 
-    public void broadcastMessagesDeleted(String chatId, Set<String> msgIds) {
-        List<String> msgIds2 = new ArrayList<String>(msgIds);
-        final int N = mGroupChatListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mGroupChatListeners.getBroadcastItem(i).onMessagesDeleted(chatId, msgIds2);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener.", e);
-                }
+    public void broadcastMessagesDeleted(final String chatId, Set<String> msgIds) {
+        final List<String> ids = new ArrayList<String>(msgIds);
+        mGroupChatListeners.dispatch(new Event<IGroupChatListener>() {
+            @Override
+            protected void deliver(IGroupChatListener listener) throws RemoteException {
+                listener.onMessagesDeleted(chatId, ids);
             }
-        }
-        mGroupChatListeners.finishBroadcast();
+        });
     }
 
     public void broadcastGroupChatsDeleted(Set<String> chatIds) {
-        List<String> ids = new ArrayList<String>(chatIds);
-        final int N = mGroupChatListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mGroupChatListeners.getBroadcastItem(i).onDeleted(ids);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener.", e);
-                }
+        final List<String> ids = new ArrayList<String>(chatIds);
+        mGroupChatListeners.dispatch(new Event<IGroupChatListener>() {
+            @Override
+            protected void deliver(IGroupChatListener listener) throws RemoteException {
+                listener.onDeleted(ids);
             }
-        }
-        mGroupChatListeners.finishBroadcast();
+        });
     }
 }
@@ -17,8 +17,9 @@
 package com.gsma.rcs.service.broadcaster;
 
 import com.gsma.rcs.platform.AndroidFactory;
+import com.gsma.rcs.service.broadcaster.EventDispatcher.Batch;
+import com.gsma.rcs.service.broadcaster.EventDispatcher.Event;
 import com.gsma.rcs.utils.IntentUtils;
-import com.gsma.rcs.utils.logger.Logger;
 import com.gsma.services.rcs.contact.ContactId;
 import com.gsma.services.rcs.filetransfer.FileTransfer.ReasonCode;
 import com.gsma.services.rcs.filetransfer.FileTransfer.State;
@@ -27,7 +28,7 @@ import com.gsma.services.rcs.filetransfer.IGroupFileTransferListener;
 import com.gsma.services.rcs.groupdelivery.GroupDeliveryInfo;
 
 import android.content.Intent;
-import android.os.RemoteCallbackList;
+import android.os.RemoteException;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -40,9 +41,162 @@ import java.util.Set;
  */
 public class GroupFileTransferBroadcaster implements IGroupFileTransferBroadcaster {
 
-    private final RemoteCallbackList<IGroupFileTransferListener> mGroupFileTransferListeners = new RemoteCallbackList<IGroupFileTransferListener>();
+    private final EventDispatcher<IGroupFileTransferListener> mGroupFileTransferListeners = new EventDispatcher<IGroupFileTransferListener>();
 
-    private final Logger logger = Logger.getLogger(getClass().getName());
+    private static final class StateEvent extends Event<IGroupFileTransferListener> {
+
+        private static final Batch<IGroupFileTransferListener> BATCH = new Batch<IGroupFileTransferListener>() {
+            @Override
+            public void deliver(IGroupFileTransferListener listener,
+                    List<Event<IGroupFileTransferListener>> events) throws RemoteException {
+                int size = events.size();
+                List<String> chatIds = new ArrayList<String>(size);
+                List<String> transferIds = new ArrayList<String>(size);
+                int[] states = new int[size];
+                int[] reasonCodes = new int[size];
+                for (int i = 0; i < size; i++) {
+                    StateEvent event = (StateEvent) events.get(i);
+                    chatIds.add(event.mChatId);
+                    transferIds.add(event.mTransferId);
+                    states[i] = event.mState;
+                    reasonCodes[i] = event.mReasonCode;
+                }
+                listener.onStatesChanged(chatIds, transferIds, states, reasonCodes);
+            }
+        };
+
+        private final String mChatId;
+
+        private final String mTransferId;
+
+        private final int mState;
+
+        private final int mReasonCode;
+
+        private StateEvent(String chatId, String transferId, int state, int reasonCode) {
+            super(transferId);
+            mChatId = chatId;
+            mTransferId = transferId;
+            mState = state;
+            mReasonCode = reasonCode;
+        }
+
+        @Override
+        protected Batch<IGroupFileTransferListener> getBatch() {
+            return BATCH;
+        }
+
+        @Override
+        protected void deliver(IGroupFileTransferListener listener) throws RemoteException {
+            listener.onStateChanged(mChatId, mTransferId, mState, mReasonCode);
+        }
+    }
+
+    private static final class ProgressEvent extends Event<IGroupFileTransferListener> {
+
+        private static final Batch<IGroupFileTransferListener> BATCH = new Batch<IGroupFileTransferListener>() {
+            @Override
+            public void deliver(IGroupFileTransferListener listener,
+                    List<Event<IGroupFileTransferListener>> events) throws RemoteException {
+                int size = events.size();
+                List<String> chatIds = new ArrayList<String>(size);
+                List<String> transferIds = new ArrayList<String>(size);
+                long[] currentSizes = new long[size];
+                long[] totalSizes = new long[size];
+                for (int i = 0; i < size; i++) {
+                    ProgressEvent event = (ProgressEvent) events.get(i);
+                    chatIds.add(event.mChatId);
+                    transferIds.add(event.mTransferId);
+                    currentSizes[i] = event.mCurrentSize;
+                    totalSizes[i] = event.mTotalSize;
+                }
+                listener.onProgressUpdates(chatIds, transferIds, currentSizes, totalSizes);
+            }
+        };
+
+        private final String mChatId;
+
+        private final String mTransferId;
+
+        private final long mCurrentSize;
+
+        private final long mTotalSize;
+
+        private ProgressEvent(String chatId, String transferId, long currentSize,
+                long totalSize) {
+            super(transferId);
+            mChatId = chatId;
+            mTransferId = transferId;
+            mCurrentSize = currentSize;
+            mTotalSize = totalSize;
+        }
+
+        @Override
+        protected Batch<IGroupFileTransferListener> getBatch() {
+            return BATCH;
+        }
+
+        @Override
+        protected void deliver(IGroupFileTransferListener listener) throws RemoteException {
+            listener.onProgressUpdate(mChatId, mTransferId, mCurrentSize, mTotalSize);
+        }
+    }
+
+    private static final class DeliveryInfoEvent extends Event<IGroupFileTransferListener> {
+
+        private static final Batch<IGroupFileTransferListener> BATCH = new Batch<IGroupFileTransferListener>() {
+            @Override
+            public void deliver(IGroupFileTransferListener listener,
+                    List<Event<IGroupFileTransferListener>> events) throws RemoteException {
+                int size = events.size();
+                List<String> chatIds = new ArrayList<String>(size);
+                List<ContactId> contacts = new ArrayList<ContactId>(size);
+                List<String> transferIds = new ArrayList<String>(size);
+                int[] statuses = new int[size];
+                int[] reasonCodes = new int[size];
+                for (int i = 0; i < size; i++) {
+                    DeliveryInfoEvent event = (DeliveryInfoEvent) events.get(i);
+                    chatIds.add(event.mChatId);
+                    contacts.add(event.mContact);
+                    transferIds.add(event.mTransferId);
+                    statuses[i] = event.mStatus;
+                    reasonCodes[i] = event.mReasonCode;
+                }
+                listener.onDeliveryInfosChanged(chatIds, contacts, transferIds, statuses,
+                        reasonCodes);
+            }
+        };
+
+        private final String mChatId;
+
+        private final ContactId mContact;
+
+        private final String mTransferId;
+
+        private final int mStatus;
+
+        private final int mReasonCode;
+
+        private DeliveryInfoEvent(String chatId, ContactId contact, String transferId,
+                int status, int reasonCode) {
+            super(new StringBuilder(transferId).append('/').append(contact).toString());
+            mChatId = chatId;
+            mContact = contact;
+            mTransferId = transferId;
+            mStatus = status;
+            mReasonCode = reasonCode;
+        }
+
+        @Override
+        protected Batch<IGroupFileTransferListener> getBatch() {
+            return BATCH;
+        }
+
+        @Override
+        protected void deliver(IGroupFileTransferListener listener) throws RemoteException {
+            listener.onDeliveryInfoChanged(mChatId, mContact, mTransferId, mStatus, mReasonCode);
+        }
+    }
 
     public GroupFileTransferBroadcaster() {
     }
@@ -51,60 +205,30 @@ public class GroupFileTransferBroadcaster implements IGroupFileTransferBroadcast
         mGroupFileTransferListeners.register(listener);
     }
 
+    public void addBatchedGroupFileTransferListener(IGroupFileTransferListener listener) {
+        mGroupFileTransferListeners.register(listener, true);
+    }
+
     public void removeGroupFileTransferListener(IGroupFileTransferListener listener) {
         mGroupFileTransferListeners.unregister(listener);
     }
 
     public void broadcastStateChanged(String chatId, String transferId, State state,
             ReasonCode reasonCode) {
-        final int N = mGroupFileTransferListeners.beginBroadcast();
-        int rcsState = state.toInt();
-        int rcsReasonCode = reasonCode.toInt();
-        for (int i = 0; i < N; i++) {
-            try {
-                mGroupFileTransferListeners.getBroadcastItem(i).onStateChanged(chatId, transferId,
-                        rcsState, rcsReasonCode);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
-            }
-        }
-        mGroupFileTransferListeners.finishBroadcast();
+        mGroupFileTransferListeners.dispatch(new StateEvent(chatId, transferId, state.toInt(),
+                reasonCode.toInt()));
     }
 
     public void broadcastProgressUpdate(String chatId, String transferId, long currentSize,
             long totalSize) {
-        final int N = mGroupFileTransferListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mGroupFileTransferListeners.getBroadcastItem(i).onProgressUpdate(chatId,
-                        transferId, currentSize, totalSize);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
-            }
-        }
-        mGroupFileTransferListeners.finishBroadcast();
+        mGroupFileTransferListeners.dispatch(new ProgressEvent(chatId, transferId, currentSize,
+                totalSize));
     }
 
     public void broadcastDeliveryInfoChanged(String chatId, ContactId contact, String transferId,
             GroupDeliveryInfo.Status status, GroupDeliveryInfo.ReasonCode reasonCode) {
-        int rcsStatus = status.toInt();
-        int rcsReasonCode = reasonCode.toInt();
-        final int N = mGroupFileTransferListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mGroupFileTransferListeners.getBroadcastItem(i).onDeliveryInfoChanged(chatId,
-                        contact, transferId, rcsStatus, rcsReasonCode);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener per contact", e);
-                }
-            }
-        }
-        mGroupFileTransferListeners.finishBroadcast();
+        mGroupFileTransferListeners.dispatch(new DeliveryInfoEvent(chatId, contact, transferId,
+                status.toInt(), reasonCode.toInt()));
     }
 
     public void broadcastInvitation(String fileTransferId) {
@@ -123,18 +247,13 @@ public class GroupFileTransferBroadcaster implements IGroupFileTransferBroadcast
         AndroidFactory.getApplicationContext().sendBroadcast(resumeFileTransfer);
     }
 
-    public void broadcastFileTransfersDeleted(String chatId, Set<String> transferIds) {
-        List<String> ids = new ArrayList<String>(transferIds);
-        final int N = mGroupFileTransferListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mGroupFileTransferListeners.getBroadcastItem(i).onDeleted(chatId, ids);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener per contact", e);
-                }
+    public void broadcastFileTransfersDeleted(final String chatId, Set<String> transferIds) {
+        final List<String> ids = new ArrayList<String>(transferIds);
+        mGroupFileTransferListeners.dispatch(new Event<IGroupFileTransferListener>() {
+            @Override
+            protected void deliver(IGroupFileTransferListener listener) throws RemoteException {
+                listener.onDeleted(chatId, ids);
             }
-        }
-        mGroupFileTransferListeners.finishBroadcast();
+        });
     }
 }
@@ -33,4 +33,7 @@ public interface IMultimediaMessagingSessionEventBroadcaster {
             ReasonCode reasonCode);
 
     public void broadcastInvitation(String sessionId, Intent msrpSessionInvite);
+
+    public void broadcastFlowControlChanged(ContactId contact, String sessionId,
+            boolean congested);
 }
@@ -33,4 +33,7 @@ public interface IMultimediaStreamingSessionEventBroadcaster {
             ReasonCode reasonCode);
 
     public void broadcastInvitation(String sessionId, Intent rtpSessionInvite);
+
+    public void broadcastFlowControlChanged(ContactId contact, String sessionId,
+            boolean congested);
 }
@@ -17,16 +17,16 @@
 package com.gsma.rcs.service.broadcaster;
 
 import com.gsma.rcs.platform.AndroidFactory;
-import com.gsma.rcs.service.ipcalldraft.IPCallIntent;
+import com.gsma.rcs.service.broadcaster.EventDispatcher.Event;
+import com.gsma.rcs.service.ipcalldraft.IIPCallListener;
 import com.gsma.rcs.service.ipcalldraft.IPCall.ReasonCode;
 import com.gsma.rcs.service.ipcalldraft.IPCall.State;
+import com.gsma.rcs.service.ipcalldraft.IPCallIntent;
 import com.gsma.rcs.utils.IntentUtils;
-import com.gsma.rcs.utils.logger.Logger;
 import com.gsma.services.rcs.contact.ContactId;
-import com.gsma.rcs.service.ipcalldraft.IIPCallListener;
 
 import android.content.Intent;
-import android.os.RemoteCallbackList;
+import android.os.RemoteException;
 
 /**
  * IPCallEventBroadcaster maintains the registering and unregistering of IIPCallListener and also
@@ -34,9 +34,7 @@ import android.os.RemoteCallbackList;
  */
 public class IPCallEventBroadcaster implements IIPCallEventBroadcaster {
 
-    private final RemoteCallbackList<IIPCallListener> mIpCallListeners = new RemoteCallbackList<IIPCallListener>();
-
-    private final Logger logger = Logger.getLogger(getClass().getName());
+    private final EventDispatcher<IIPCallListener> mIpCallListeners = new EventDispatcher<IIPCallListener>();
 
     public IPCallEventBroadcaster() {
     }
@@ -49,22 +47,16 @@ public class IPCallEventBroadcaster implements IIPCallEventBroadcaster {
         mIpCallListeners.unregister(listener);
     }
 
-    public void broadcastIPCallStateChanged(ContactId contact, String callId, State state,
-            ReasonCode reasonCode) {
-        final int N = mIpCallListeners.beginBroadcast();
-        int rcsState = state.toInt();
-        int rcsReasonCode = reasonCode.toInt();
-        for (int i = 0; i < N; i++) {
-            try {
-                mIpCallListeners.getBroadcastItem(i).onIPCallStateChanged(contact, callId,
-                        rcsState, rcsReasonCode);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
+    public void broadcastIPCallStateChanged(final ContactId contact, final String callId,
+            State state, ReasonCode reasonCode) {
+        final int rcsState = state.toInt();
+        final int rcsReasonCode = reasonCode.toInt();
+        mIpCallListeners.dispatch(new Event<IIPCallListener>(callId) {
+            @Override
+            protected void deliver(IIPCallListener listener) throws RemoteException {
+                listener.onIPCallStateChanged(contact, callId, rcsState, rcsReasonCode);
             }
-        }
-        mIpCallListeners.finishBroadcast();
+        });
     }
 
     public void broadcastIPCallInvitation(String callId) {
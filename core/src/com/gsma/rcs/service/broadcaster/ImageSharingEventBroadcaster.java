@@ -17,8 +17,8 @@
 package com.gsma.rcs.service.broadcaster;
 
 import com.gsma.rcs.platform.AndroidFactory;
+import com.gsma.rcs.service.broadcaster.EventDispatcher.Event;
 import com.gsma.rcs.utils.IntentUtils;
-import com.gsma.rcs.utils.logger.Logger;
 import com.gsma.services.rcs.contact.ContactId;
 import com.gsma.services.rcs.sharing.image.IImageSharingListener;
 import com.gsma.services.rcs.sharing.image.ImageSharing.ReasonCode;
@@ -26,7 +26,7 @@ import com.gsma.services.rcs.sharing.image.ImageSharing.State;
 import com.gsma.services.rcs.sharing.image.ImageSharingIntent;
 
 import android.content.Intent;
-import android.os.RemoteCallbackList;
+import android.os.RemoteException;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -39,9 +39,7 @@ import java.util.Set;
  */
 public class ImageSharingEventBroadcaster implements IImageSharingEventBroadcaster {
 
-    private final RemoteCallbackList<IImageSharingListener> mImageSharingListeners = new RemoteCallbackList<IImageSharingListener>();
-
-    private final Logger logger = Logger.getLogger(getClass().getName());
+    private final EventDispatcher<IImageSharingListener> mImageSharingListeners = new EventDispatcher<IImageSharingListener>();
 
     public ImageSharingEventBroadcaster() {
     }
@@ -54,38 +52,26 @@ public class ImageSharingEventBroadcaster implements IImageSharingEventBroadcast
         mImageSharingListeners.unregister(listener);
     }
 
-    public void broadcastStateChanged(ContactId contact, String sharingId, State state,
+    public void broadcastStateChanged(final ContactId contact, final String sharingId, State state,
             ReasonCode reasonCode) {
-        int rcsState = state.toInt();
-        int rcsReasonCode = reasonCode.toInt();
-        final int N = mImageSharingListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mImageSharingListeners.getBroadcastItem(i).onStateChanged(contact, sharingId,
-                        rcsState, rcsReasonCode);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
+        final int rcsState = state.toInt();
+        final int rcsReasonCode = reasonCode.toInt();
+        mImageSharingListeners.dispatch(new Event<IImageSharingListener>(sharingId) {
+            @Override
+            protected void deliver(IImageSharingListener listener) throws RemoteException {
+                listener.onStateChanged(contact, sharingId, rcsState, rcsReasonCode);
             }
-        }
-        mImageSharingListeners.finishBroadcast();
+        });
     }
 
-    public void broadcastProgressUpdate(ContactId contact, String sharingId, long currentSize,
-            long totalSize) {
-        final int N = mImageSharingListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mImageSharingListeners.getBroadcastItem(i).onProgressUpdate(contact, sharingId,
-                        currentSize, totalSize);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
+    public void broadcastProgressUpdate(final ContactId contact, final String sharingId,
+            final long currentSize, final long totalSize) {
+        mImageSharingListeners.dispatch(new Event<IImageSharingListener>(sharingId) {
+            @Override
+            protected void deliver(IImageSharingListener listener) throws RemoteException {
+                listener.onProgressUpdate(contact, sharingId, currentSize, totalSize);
             }
-        }
-        mImageSharingListeners.finishBroadcast();
+        });
     }
 
     public void broadcastInvitation(String sharingId) {
@@ -96,15 +82,13 @@ public class ImageSharingEventBroadcaster implements IImageSharingEventBroadcast
         AndroidFactory.getApplicationContext().sendBroadcast(invitation);
     }
 
-    public void broadcastDeleted(ContactId contact, Set<String> sharingIds) {
-        List<String> ids = new ArrayList<String>(sharingIds);
-        final int N = mImageSharingListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mImageSharingListeners.getBroadcastItem(i).onDeleted(contact, ids);
-            } catch (Exception e) {
+    public void broadcastDeleted(final ContactId contact, Set<String> sharingIds) {
+        final List<String> ids = new ArrayList<String>(sharingIds);
+        mImageSharingListeners.dispatch(new Event<IImageSharingListener>() {
+            @Override
+            protected void deliver(IImageSharingListener listener) throws RemoteException {
+                listener.onDeleted(contact, ids);
             }
-        }
-        mImageSharingListeners.finishBroadcast();
+        });
     }
 }
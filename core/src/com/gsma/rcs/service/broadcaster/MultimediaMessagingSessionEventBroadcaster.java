@@ -17,8 +17,8 @@
 package com.gsma.rcs.service.broadcaster;
 
 import com.gsma.rcs.platform.AndroidFactory;
+import com.gsma.rcs.service.broadcaster.EventDispatcher.Event;
 import com.gsma.rcs.utils.IntentUtils;
-import com.gsma.rcs.utils.logger.Logger;
 import com.gsma.services.rcs.contact.ContactId;
 import com.gsma.services.rcs.extension.IMultimediaMessagingSessionListener;
 import com.gsma.services.rcs.extension.MultimediaMessagingSessionIntent;
@@ -26,7 +26,7 @@ import com.gsma.services.rcs.extension.MultimediaSession.ReasonCode;
 import com.gsma.services.rcs.extension.MultimediaSession.State;
 
 import android.content.Intent;
-import android.os.RemoteCallbackList;
+import android.os.RemoteException;
 
 /**
  * MultimediaMessagingSessionEventBroadcaster maintains the registering and unregistering of
@@ -36,9 +36,7 @@ import android.os.RemoteCallbackList;
 public class MultimediaMessagingSessionEventBroadcaster implements
         IMultimediaMessagingSessionEventBroadcaster {
 
-    private final RemoteCallbackList<IMultimediaMessagingSessionListener> mMultimediaMessagingListeners = new RemoteCallbackList<IMultimediaMessagingSessionListener>();
-
-    private final Logger logger = Logger.getLogger(getClass().getName());
+    private final EventDispatcher<IMultimediaMessagingSessionListener> mMultimediaMessagingListeners = new EventDispatcher<IMultimediaMessagingSessionListener>();
 
     public MultimediaMessagingSessionEventBroadcaster() {
     }
@@ -51,37 +49,41 @@ public class MultimediaMessagingSessionEventBroadcaster implements
         mMultimediaMessagingListeners.unregister(listener);
     }
 
-    public void broadcastMessageReceived(ContactId contact, String sessionId, byte[] message) {
-        final int N = mMultimediaMessagingListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mMultimediaMessagingListeners.getBroadcastItem(i).onMessageReceived(contact,
-                        sessionId, message);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
+    public void broadcastMessageReceived(final ContactId contact, final String sessionId,
+            final byte[] message) {
+        mMultimediaMessagingListeners.dispatch(new Event<IMultimediaMessagingSessionListener>() {
+            @Override
+            protected void deliver(IMultimediaMessagingSessionListener listener)
+                    throws RemoteException {
+                listener.onMessageReceived(contact, sessionId, message);
             }
-        }
-        mMultimediaMessagingListeners.finishBroadcast();
+        });
     }
 
-    public void broadcastStateChanged(ContactId contact, String sessionId, State state,
+    public void broadcastStateChanged(final ContactId contact, final String sessionId, State state,
             ReasonCode reasonCode) {
-        int rcsState = state.toInt();
-        int rcsReasonCode = reasonCode.toInt();
-        final int N = mMultimediaMessagingListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mMultimediaMessagingListeners.getBroadcastItem(i).onStateChanged(contact,
-                        sessionId, rcsState, rcsReasonCode);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
+        final int rcsState = state.toInt();
+        final int rcsReasonCode = reasonCode.toInt();
+        mMultimediaMessagingListeners
+                .dispatch(new Event<IMultimediaMessagingSessionListener>(sessionId) {
+            @Override
+            protected void deliver(IMultimediaMessagingSessionListener listener)
+                    throws RemoteException {
+                listener.onStateChanged(contact, sessionId, rcsState, rcsReasonCode);
+            }
+        });
+    }
+
+    public void broadcastFlowControlChanged(final ContactId contact, final String sessionId,
+            final boolean congested) {
+        mMultimediaMessagingListeners
+                .dispatch(new Event<IMultimediaMessagingSessionListener>(sessionId) {
+            @Override
+            protected void deliver(IMultimediaMessagingSessionListener listener)
+                    throws RemoteException {
+                listener.onFlowControlChanged(contact, sessionId, congested);
             }
-        }
-        mMultimediaMessagingListeners.finishBroadcast();
+        });
     }
 
     public void broadcastInvitation(String sessionId, Intent msrpSessionInvite) {
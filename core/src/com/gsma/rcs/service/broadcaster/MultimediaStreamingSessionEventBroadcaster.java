@@ -17,8 +17,8 @@
 package com.gsma.rcs.service.broadcaster;
 
 import com.gsma.rcs.platform.AndroidFactory;
+import com.gsma.rcs.service.broadcaster.EventDispatcher.Event;
 import com.gsma.rcs.utils.IntentUtils;
-import com.gsma.rcs.utils.logger.Logger;
 import com.gsma.services.rcs.contact.ContactId;
 import com.gsma.services.rcs.extension.IMultimediaStreamingSessionListener;
 import com.gsma.services.rcs.extension.MultimediaMessagingSessionIntent;
@@ -26,7 +26,7 @@ import com.gsma.services.rcs.extension.MultimediaSession.ReasonCode;
 import com.gsma.services.rcs.extension.MultimediaSession.State;
 
 import android.content.Intent;
-import android.os.RemoteCallbackList;
+import android.os.RemoteException;
 
 /**
  * MultimediaStreamingSessionEventBroadcaster maintains the registering and unregistering of
@@ -36,9 +36,7 @@ import android.os.RemoteCallbackList;
 public class MultimediaStreamingSessionEventBroadcaster implements
         IMultimediaStreamingSessionEventBroadcaster {
 
-    private final RemoteCallbackList<IMultimediaStreamingSessionListener> mMultimediaStreamingListeners = new RemoteCallbackList<IMultimediaStreamingSessionListener>();
-
-    private final Logger logger = Logger.getLogger(getClass().getName());
+    private final EventDispatcher<IMultimediaStreamingSessionListener> mMultimediaStreamingListeners = new EventDispatcher<IMultimediaStreamingSessionListener>();
 
     public MultimediaStreamingSessionEventBroadcaster() {
     }
@@ -51,37 +49,41 @@ public class MultimediaStreamingSessionEventBroadcaster implements
         mMultimediaStreamingListeners.unregister(listener);
     }
 
-    public void broadcastPayloadReceived(ContactId contact, String sessionId, byte[] content) {
-        final int N = mMultimediaStreamingListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mMultimediaStreamingListeners.getBroadcastItem(i).onPayloadReceived(contact,
-                        sessionId, content);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
+    public void broadcastPayloadReceived(final ContactId contact, final String sessionId,
+            final byte[] content) {
+        mMultimediaStreamingListeners.dispatch(new Event<IMultimediaStreamingSessionListener>() {
+            @Override
+            protected void deliver(IMultimediaStreamingSessionListener listener)
+                    throws RemoteException {
+                listener.onPayloadReceived(contact, sessionId, content);
             }
-        }
-        mMultimediaStreamingListeners.finishBroadcast();
+        });
     }
 
-    public void broadcastStateChanged(ContactId contact, String sessionId, State state,
+    public void broadcastStateChanged(final ContactId contact, final String sessionId, State state,
             ReasonCode reasonCode) {
-        int rcsState = state.toInt();
-        int rcsReasonCode = reasonCode.toInt();
-        final int N = mMultimediaStreamingListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mMultimediaStreamingListeners.getBroadcastItem(i).onStateChanged(contact,
-                        sessionId, rcsState, rcsReasonCode);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
+        final int rcsState = state.toInt();
+        final int rcsReasonCode = reasonCode.toInt();
+        mMultimediaStreamingListeners
+                .dispatch(new Event<IMultimediaStreamingSessionListener>(sessionId) {
+            @Override
+            protected void deliver(IMultimediaStreamingSessionListener listener)
+                    throws RemoteException {
+                listener.onStateChanged(contact, sessionId, rcsState, rcsReasonCode);
+            }
+        });
+    }
+
+    public void broadcastFlowControlChanged(final ContactId contact, final String sessionId,
+            final boolean congested) {
+        mMultimediaStreamingListeners
+                .dispatch(new Event<IMultimediaStreamingSessionListener>(sessionId) {
+            @Override
+            protected void deliver(IMultimediaStreamingSessionListener listener)
+                    throws RemoteException {
+                listener.onFlowControlChanged(contact, sessionId, congested);
             }
-        }
-        mMultimediaStreamingListeners.finishBroadcast();
+        });
     }
 
     public void broadcastInvitation(String sessionId, Intent rtpSessionInvite) {
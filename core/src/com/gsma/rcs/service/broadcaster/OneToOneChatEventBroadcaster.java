@@ -17,8 +17,9 @@
 package com.gsma.rcs.service.broadcaster;
 
 import com.gsma.rcs.platform.AndroidFactory;
+import com.gsma.rcs.service.broadcaster.EventDispatcher.Batch;
+import com.gsma.rcs.service.broadcaster.EventDispatcher.Event;
 import com.gsma.rcs.utils.IntentUtils;
-import com.gsma.rcs.utils.logger.Logger;
 import com.gsma.services.rcs.chat.ChatLog.Message.Content.ReasonCode;
 import com.gsma.services.rcs.chat.ChatLog.Message.Content.Status;
 import com.gsma.services.rcs.chat.IOneToOneChatListener;
@@ -26,7 +27,7 @@ import com.gsma.services.rcs.chat.OneToOneChatIntent;
 import com.gsma.services.rcs.contact.ContactId;
 
 import android.content.Intent;
-import android.os.RemoteCallbackList;
+import android.os.RemoteException;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -39,9 +40,63 @@ import java.util.Set;
  */
 public class OneToOneChatEventBroadcaster implements IOneToOneChatEventBroadcaster {
 
-    private final RemoteCallbackList<IOneToOneChatListener> mOneToOneChatListeners = new RemoteCallbackList<IOneToOneChatListener>();
+    private final EventDispatcher<IOneToOneChatListener> mOneToOneChatListeners = new EventDispatcher<IOneToOneChatListener>();
 
-    private final Logger logger = Logger.getLogger(getClass().getName());
+    private static final class MessageStatusEvent extends Event<IOneToOneChatListener> {
+
+        private static final Batch<IOneToOneChatListener> BATCH = new Batch<IOneToOneChatListener>() {
+            @Override
+            public void deliver(IOneToOneChatListener listener,
+                    List<Event<IOneToOneChatListener>> events) throws RemoteException {
+                int size = events.size();
+                List<ContactId> contacts = new ArrayList<ContactId>(size);
+                List<String> mimeTypes = new ArrayList<String>(size);
+                List<String> msgIds = new ArrayList<String>(size);
+                int[] statuses = new int[size];
+                int[] reasonCodes = new int[size];
+                for (int i = 0; i < size; i++) {
+                    MessageStatusEvent event = (MessageStatusEvent) events.get(i);
+                    contacts.add(event.mContact);
+                    mimeTypes.add(event.mMimeType);
+                    msgIds.add(event.mMsgId);
+                    statuses[i] = event.mStatus;
+                    reasonCodes[i] = event.mReasonCode;
+                }
+                listener.onMessageStatusesChanged(contacts, mimeTypes, msgIds, statuses,
+                        reasonCodes);
+            }
+        };
+
+        private final ContactId mContact;
+
+        private final String mMimeType;
+
+        private final String mMsgId;
+
+        private final int mStatus;
+
+        private final int mReasonCode;
+
+        private MessageStatusEvent(ContactId contact, String mimeType, String msgId, int status,
+                int reasonCode) {
+            super(msgId);
+            mContact = contact;
+            mMimeType = mimeType;
+            mMsgId = msgId;
+            mStatus = status;
+            mReasonCode = reasonCode;
+        }
+
+        @Override
+        protected Batch<IOneToOneChatListener> getBatch() {
+            return BATCH;
+        }
+
+        @Override
+        protected void deliver(IOneToOneChatListener listener) throws RemoteException {
+            listener.onMessageStatusChanged(mContact, mMimeType, mMsgId, mStatus, mReasonCode);
+        }
+    }
 
     public OneToOneChatEventBroadcaster() {
     }
@@ -50,40 +105,28 @@ public class OneToOneChatEventBroadcaster implements IOneToOneChatEventBroadcast
         mOneToOneChatListeners.register(listener);
     }
 
+    public void addBatchedOneToOneChatEventListener(IOneToOneChatListener listener) {
+        mOneToOneChatListeners.register(listener, true);
+    }
+
     public void removeOneToOneChatEventListener(IOneToOneChatListener listener) {
         mOneToOneChatListeners.unregister(listener);
     }
 
     public void broadcastMessageStatusChanged(ContactId contact, String mimeType, String msgId,
             Status status, ReasonCode reasonCode) {
-        final int N = mOneToOneChatListeners.beginBroadcast();
-        int rcsStatus = status.toInt();
-        int rcsReasonCode = reasonCode.toInt();
-        for (int i = 0; i < N; i++) {
-            try {
-                mOneToOneChatListeners.getBroadcastItem(i).onMessageStatusChanged(contact,
-                        mimeType, msgId, rcsStatus, rcsReasonCode);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener.", e);
-                }
-            }
-        }
-        mOneToOneChatListeners.finishBroadcast();
+        mOneToOneChatListeners.dispatch(new MessageStatusEvent(contact, mimeType, msgId, status
+                .toInt(), reasonCode.toInt()));
     }
 
-    public void broadcastComposingEvent(ContactId contact, boolean status) {
-        final int N = mOneToOneChatListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mOneToOneChatListeners.getBroadcastItem(i).onComposingEvent(contact, status);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
+    public void broadcastComposingEvent(final ContactId contact, final boolean status) {
+        mOneToOneChatListeners.dispatch(new Event<IOneToOneChatListener>(contact
+                .toString()) {
+            @Override
+            protected void deliver(IOneToOneChatListener listener) throws RemoteException {
+                listener.onComposingEvent(contact, status);
             }
-        }
-        mOneToOneChatListeners.finishBroadcast();
+        });
     }
 
     public void broadcastMessageReceived(String mimeType, String msgId) {
@@ -96,18 +139,13 @@ public class OneToOneChatEventBroadcaster implements IOneToOneChatEventBroadcast
         AndroidFactory.getApplicationContext().sendBroadcast(newOneToOneMessage);
     }
 
-    public void broadcastMessagesDeleted(ContactId contact, Set<String> msgIds) {
-        List<String> ids = new ArrayList<String>(msgIds);
-        final int N = mOneToOneChatListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mOneToOneChatListeners.getBroadcastItem(i).onMessagesDeleted(contact, ids);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener.", e);
-                }
+    public void broadcastMessagesDeleted(final ContactId contact, Set<String> msgIds) {
+        final List<String> ids = new ArrayList<String>(msgIds);
+        mOneToOneChatListeners.dispatch(new Event<IOneToOneChatListener>() {
+            @Override
+            protected void deliver(IOneToOneChatListener listener) throws RemoteException {
+                listener.onMessagesDeleted(contact, ids);
             }
-        }
-        mOneToOneChatListeners.finishBroadcast();
+        });
     }
 }
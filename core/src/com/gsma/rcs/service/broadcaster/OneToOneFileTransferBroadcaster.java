@@ -17,8 +17,9 @@
 package com.gsma.rcs.service.broadcaster;
 
 import com.gsma.rcs.platform.AndroidFactory;
+import com.gsma.rcs.service.broadcaster.EventDispatcher.Batch;
+import com.gsma.rcs.service.broadcaster.EventDispatcher.Event;
 import com.gsma.rcs.utils.IntentUtils;
-import com.gsma.rcs.utils.logger.Logger;
 import com.gsma.services.rcs.contact.ContactId;
 import com.gsma.services.rcs.filetransfer.FileTransfer.ReasonCode;
 import com.gsma.services.rcs.filetransfer.FileTransfer.State;
@@ -26,7 +27,7 @@ import com.gsma.services.rcs.filetransfer.FileTransferIntent;
 import com.gsma.services.rcs.filetransfer.IOneToOneFileTransferListener;
 
 import android.content.Intent;
-import android.os.RemoteCallbackList;
+import android.os.RemoteException;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -39,9 +40,106 @@ import java.util.Set;
  */
 public class OneToOneFileTransferBroadcaster implements IOneToOneFileTransferBroadcaster {
 
-    private final RemoteCallbackList<IOneToOneFileTransferListener> mOneToOneFileTransferListeners = new RemoteCallbackList<IOneToOneFileTransferListener>();
+    private final EventDispatcher<IOneToOneFileTransferListener> mOneToOneFileTransferListeners = new EventDispatcher<IOneToOneFileTransferListener>();
 
-    private final Logger logger = Logger.getLogger(getClass().getName());
+    private static final class StateEvent extends Event<IOneToOneFileTransferListener> {
+
+        private static final Batch<IOneToOneFileTransferListener> BATCH = new Batch<IOneToOneFileTransferListener>() {
+            @Override
+            public void deliver(IOneToOneFileTransferListener listener,
+                    List<Event<IOneToOneFileTransferListener>> events) throws RemoteException {
+                int size = events.size();
+                List<ContactId> contacts = new ArrayList<ContactId>(size);
+                List<String> transferIds = new ArrayList<String>(size);
+                int[] states = new int[size];
+                int[] reasonCodes = new int[size];
+                for (int i = 0; i < size; i++) {
+                    StateEvent event = (StateEvent) events.get(i);
+                    contacts.add(event.mContact);
+                    transferIds.add(event.mTransferId);
+                    states[i] = event.mState;
+                    reasonCodes[i] = event.mReasonCode;
+                }
+                listener.onStatesChanged(contacts, transferIds, states, reasonCodes);
+            }
+        };
+
+        private final ContactId mContact;
+
+        private final String mTransferId;
+
+        private final int mState;
+
+        private final int mReasonCode;
+
+        private StateEvent(ContactId contact, String transferId, int state, int reasonCode) {
+            super(transferId);
+            mContact = contact;
+            mTransferId = transferId;
+            mState = state;
+            mReasonCode = reasonCode;
+        }
+
+        @Override
+        protected Batch<IOneToOneFileTransferListener> getBatch() {
+            return BATCH;
+        }
+
+        @Override
+        protected void deliver(IOneToOneFileTransferListener listener) throws RemoteException {
+            listener.onStateChanged(mContact, mTransferId, mState, mReasonCode);
+        }
+    }
+
+    private static final class ProgressEvent extends Event<IOneToOneFileTransferListener> {
+
+        private static final Batch<IOneToOneFileTransferListener> BATCH = new Batch<IOneToOneFileTransferListener>() {
+            @Override
+            public void deliver(IOneToOneFileTransferListener listener,
+                    List<Event<IOneToOneFileTransferListener>> events) throws RemoteException {
+                int size = events.size();
+                List<ContactId> contacts = new ArrayList<ContactId>(size);
+                List<String> transferIds = new ArrayList<String>(size);
+                long[] currentSizes = new long[size];
+                long[] totalSizes = new long[size];
+                for (int i = 0; i < size; i++) {
+                    ProgressEvent event = (ProgressEvent) events.get(i);
+                    contacts.add(event.mContact);
+                    transferIds.add(event.mTransferId);
+                    currentSizes[i] = event.mCurrentSize;
+                    totalSizes[i] = event.mTotalSize;
+                }
+                listener.onProgressUpdates(contacts, transferIds, currentSizes, totalSizes);
+            }
+        };
+
+        private final ContactId mContact;
+
+        private final String mTransferId;
+
+        private final long mCurrentSize;
+
+        private final long mTotalSize;
+
+        private ProgressEvent(ContactId contact, String transferId, long currentSize,
+                long totalSize) {
+            super(transferId);
+            mContact = contact;
+            mTransferId = transferId;
+            mCurrentSize = currentSize;
+            mTotalSize = totalSize;
+        }
+
+        @Override
+        protected Batch<IOneToOneFileTransferListener> getBatch() {
+            return BATCH;
+        }
+
+        @Override
+        protected void deliver(IOneToOneFileTransferListener listener) throws RemoteException {
+            listener.onProgressUpdate(mContact, mTransferId, mCurrentSize, mTotalSize);
+        }
+    }
 
     public OneToOneFileTransferBroadcaster() {
     }
@@ -50,42 +148,24 @@ public class OneToOneFileTransferBroadcaster implements IOneToOneFileTransferBro
         mOneToOneFileTransferListeners.register(listener);
     }
 
+    public void addBatchedOneToOneFileTransferListener(IOneToOneFileTransferListener listener) {
+        mOneToOneFileTransferListeners.register(listener, true);
+    }
+
     public void removeOneToOneFileTransferListener(IOneToOneFileTransferListener listener) {
         mOneToOneFileTransferListeners.unregister(listener);
     }
 
     public void broadcastStateChanged(ContactId contact, String transferId, State state,
             ReasonCode reasonCode) {
-        final int N = mOneToOneFileTransferListeners.beginBroadcast();
-        int rcsState = state.toInt();
-        int rcsReasonCode = reasonCode.toInt();
-        for (int i = 0; i < N; i++) {
-            try {
-                mOneToOneFileTransferListeners.getBroadcastItem(i).onStateChanged(contact,
-                        transferId, rcsState, rcsReasonCode);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
-            }
-        }
-        mOneToOneFileTransferListeners.finishBroadcast();
+        mOneToOneFileTransferListeners.dispatch(new StateEvent(contact, transferId, state.toInt(),
+                reasonCode.toInt()));
     }
 
     public void broadcastProgressUpdate(ContactId contact, String transferId, long currentSize,
             long totalSize) {
-        final int N = mOneToOneFileTransferListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mOneToOneFileTransferListeners.getBroadcastItem(i).onProgressUpdate(contact,
-                        transferId, currentSize, totalSize);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
-            }
-        }
-        mOneToOneFileTransferListeners.finishBroadcast();
+        mOneToOneFileTransferListeners.dispatch(new ProgressEvent(contact, transferId, currentSize,
+                totalSize));
     }
 
     public void broadcastInvitation(String fileTransferId) {
@@ -104,18 +184,13 @@ public class OneToOneFileTransferBroadcaster implements IOneToOneFileTransferBro
         AndroidFactory.getApplicationContext().sendBroadcast(resumeFileTransfer);
     }
 
-    public void broadcastFileTransferDeleted(ContactId contact, Set<String> filetransferIds) {
-        List<String> ids = new ArrayList<String>(filetransferIds);
-        final int N = mOneToOneFileTransferListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mOneToOneFileTransferListeners.getBroadcastItem(i).onDeleted(contact, ids);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
+    public void broadcastFileTransferDeleted(final ContactId contact, Set<String> filetransferIds) {
+        final List<String> ids = new ArrayList<String>(filetransferIds);
+        mOneToOneFileTransferListeners.dispatch(new Event<IOneToOneFileTransferListener>() {
+            @Override
+            protected void deliver(IOneToOneFileTransferListener listener) throws RemoteException {
+                listener.onDeleted(contact, ids);
             }
-        }
-        mOneToOneFileTransferListeners.finishBroadcast();
+        });
     }
 }
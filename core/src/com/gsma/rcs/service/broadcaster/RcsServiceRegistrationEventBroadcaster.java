@@ -17,9 +17,9 @@
 
 package com.gsma.rcs.service.broadcaster;
 
-import android.os.RemoteCallbackList;
+import android.os.RemoteException;
 
-import com.gsma.rcs.utils.logger.Logger;
+import com.gsma.rcs.service.broadcaster.EventDispatcher.Event;
 import com.gsma.services.rcs.IRcsServiceRegistrationListener;
 import com.gsma.services.rcs.RcsServiceRegistration;
 
@@ -31,9 +31,7 @@ import com.gsma.services.rcs.RcsServiceRegistration;
 public class RcsServiceRegistrationEventBroadcaster implements
         IRcsServiceRegistrationEventBroadcaster {
 
-    private final RemoteCallbackList<IRcsServiceRegistrationListener> mServiceRegistrationListeners = new RemoteCallbackList<IRcsServiceRegistrationListener>();
-
-    private final Logger logger = Logger.getLogger(getClass().getName());
+    private final EventDispatcher<IRcsServiceRegistrationListener> mServiceRegistrationListeners = new EventDispatcher<IRcsServiceRegistrationListener>();
 
     public RcsServiceRegistrationEventBroadcaster() {
     }
@@ -47,31 +45,22 @@ public class RcsServiceRegistrationEventBroadcaster implements
     }
 
     public void broadcastServiceRegistered() {
-        final int N = mServiceRegistrationListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mServiceRegistrationListeners.getBroadcastItem(i).onServiceRegistered();
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
+        mServiceRegistrationListeners.dispatch(new Event<IRcsServiceRegistrationListener>() {
+            @Override
+            protected void deliver(IRcsServiceRegistrationListener listener)
+                    throws RemoteException {
+                listener.onServiceRegistered();
             }
-        }
-        mServiceRegistrationListeners.finishBroadcast();
+        });
     }
 
-    public void broadcastServiceUnRegistered(RcsServiceRegistration.ReasonCode reason) {
-        final int N = mServiceRegistrationListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mServiceRegistrationListeners.getBroadcastItem(i).onServiceUnregistered(
-                        reason.toInt());
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
+    public void broadcastServiceUnRegistered(final RcsServiceRegistration.ReasonCode reason) {
+        mServiceRegistrationListeners.dispatch(new Event<IRcsServiceRegistrationListener>() {
+            @Override
+            protected void deliver(IRcsServiceRegistrationListener listener)
+                    throws RemoteException {
+                listener.onServiceUnregistered(reason.toInt());
             }
-        }
-        mServiceRegistrationListeners.finishBroadcast();
+        });
     }
 }
@@ -17,8 +17,8 @@
 package com.gsma.rcs.service.broadcaster;
 
 import com.gsma.rcs.platform.AndroidFactory;
+import com.gsma.rcs.service.broadcaster.EventDispatcher.Event;
 import com.gsma.rcs.utils.IntentUtils;
-import com.gsma.rcs.utils.logger.Logger;
 import com.gsma.services.rcs.contact.ContactId;
 import com.gsma.services.rcs.sharing.video.IVideoSharingListener;
 import com.gsma.services.rcs.sharing.video.VideoSharing.ReasonCode;
@@ -26,7 +26,7 @@ import com.gsma.services.rcs.sharing.video.VideoSharing.State;
 import com.gsma.services.rcs.sharing.video.VideoSharingIntent;
 
 import android.content.Intent;
-import android.os.RemoteCallbackList;
+import android.os.RemoteException;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -39,9 +39,7 @@ import java.util.Set;
  */
 public class VideoSharingEventBroadcaster implements IVideoSharingEventBroadcaster {
 
-    private final RemoteCallbackList<IVideoSharingListener> mVideoSharingListeners = new RemoteCallbackList<IVideoSharingListener>();
-
-    private final Logger logger = Logger.getLogger(getClass().getName());
+    private final EventDispatcher<IVideoSharingListener> mVideoSharingListeners = new EventDispatcher<IVideoSharingListener>();
 
     public VideoSharingEventBroadcaster() {
     }
@@ -54,22 +52,16 @@ public class VideoSharingEventBroadcaster implements IVideoSharingEventBroadcast
         mVideoSharingListeners.unregister(listener);
     }
 
-    public void broadcastStateChanged(ContactId contact, String sharingId, State state,
+    public void broadcastStateChanged(final ContactId contact, final String sharingId, State state,
             ReasonCode reasonCode) {
-        int rcsState = state.toInt();
-        int rcsReasonCode = reasonCode.toInt();
-        final int N = mVideoSharingListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mVideoSharingListeners.getBroadcastItem(i).onStateChanged(contact, sharingId,
-                        rcsState, rcsReasonCode);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
+        final int rcsState = state.toInt();
+        final int rcsReasonCode = reasonCode.toInt();
+        mVideoSharingListeners.dispatch(new Event<IVideoSharingListener>(sharingId) {
+            @Override
+            protected void deliver(IVideoSharingListener listener) throws RemoteException {
+                listener.onStateChanged(contact, sharingId, rcsState, rcsReasonCode);
             }
-        }
-        mVideoSharingListeners.finishBroadcast();
+        });
     }
 
     public void broadcastInvitation(String sharingId) {
@@ -80,18 +72,13 @@ public class VideoSharingEventBroadcaster implements IVideoSharingEventBroadcast
         AndroidFactory.getApplicationContext().sendBroadcast(newInvitation);
     }
 
-    public void broadcastDeleted(ContactId contact, Set<String> sharingIds) {
-        List<String> ids = new ArrayList<String>(sharingIds);
-        final int N = mVideoSharingListeners.beginBroadcast();
-        for (int i = 0; i < N; i++) {
-            try {
-                mVideoSharingListeners.getBroadcastItem(i).onDeleted(contact, ids);
-            } catch (Exception e) {
-                if (logger.isActivated()) {
-                    logger.error("Can't notify listener", e);
-                }
+    public void broadcastDeleted(final ContactId contact, Set<String> sharingIds) {
+        final List<String> ids = new ArrayList<String>(sharingIds);
+        mVideoSharingListeners.dispatch(new Event<IVideoSharingListener>() {
+            @Override
+            protected void deliver(IVideoSharingListener listener) throws RemoteException {
+                listener.onDeleted(contact, ids);
             }
-        }
-        mVideoSharingListeners.finishBroadcast();
+        });
     }
 }
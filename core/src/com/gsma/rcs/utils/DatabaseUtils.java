@@ -48,6 +48,24 @@ public class DatabaseUtils {
         return resultingSelectionArgs;
     }
 
+    /**
+     * Builds the selection "column IN (?,?,...)" with as many arguments as requested.
+     * 
+     * @param column the column name
+     * @param argCount the number of selection arguments
+     * @return the selection
+     */
+    public static String getSelectionIn(String column, int argCount) {
+        StringBuilder selection = new StringBuilder(column).append(" IN (");
+        for (int i = 0; i < argCount; i++) {
+            if (i > 0) {
+                selection.append(',');
+            }
+            selection.append('?');
+        }
+        return selection.append(')').toString();
+    }
+
     public static int parseMode(String mode) {
         Integer modeBits = sModeBits.get(mode);
         if (modeBits == null) {
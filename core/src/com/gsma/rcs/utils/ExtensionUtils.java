@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.gsma.rcs.utils;
+
+import android.text.TextUtils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Conversions of the service extensions between a set and the string stored in the providers
+ */
+public class ExtensionUtils {
+
+    private static final String EXTENSION_SEPARATOR = ";";
+
+    /**
+     * Extract set of extensions from String
+     * 
+     * @param extensions String where extensions are concatenated with a ";" separator
+     * @return the set of extensions
+     */
+    public static Set<String> getExtensions(String extensions) {
+        Set<String> result = new HashSet<String>();
+        if (TextUtils.isEmpty(extensions)) {
+            return result;
+
+        }
+        String[] extensionList = extensions.split(EXTENSION_SEPARATOR);
+        for (String extension : extensionList) {
+            if (!TextUtils.isEmpty(extension) && extension.trim().length() > 0) {
+                result.add(extension);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Concatenate set of extensions into a string
+     * 
+     * @param extensions set of extensions
+     * @return String where extensions are concatenated with a ";" separator
+     */
+    public static String getExtensions(Set<String> extensions) {
+        if (extensions == null || extensions.isEmpty()) {
+            return "";
+
+        }
+        StringBuilder result = new StringBuilder();
+        int size = extensions.size();
+        for (String extension : extensions) {
+            if (extension.trim().length() == 0) {
+                --size;
+                continue;
+
+            }
+            result.append(extension);
+            if (--size != 0) {
+                // Not last item : add separator
+                result.append(EXTENSION_SEPARATOR);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -117,7 +117,7 @@ public class FifoBuffer {
      * 
      * @return size of the FIFO
      */
-    public void clean(int size) {
+    public synchronized void clean(int size) {
         if (fifo.size() > size) {
             while (size > 0) {
                 fifo.removeElementAt(0);
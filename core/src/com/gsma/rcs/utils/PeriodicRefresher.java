@@ -24,49 +24,63 @@ package com.gsma.rcs.utils;
 
 import com.gsma.rcs.core.ims.protocol.sip.SipNetworkException;
 import com.gsma.rcs.core.ims.protocol.sip.SipPayloadException;
-import com.gsma.rcs.platform.AndroidFactory;
 import com.gsma.rcs.utils.logger.Logger;
 
-import android.app.AlarmManager;
-import android.app.PendingIntent;
-import android.content.BroadcastReceiver;
-import android.content.Context;
-import android.content.Intent;
-import android.content.IntentFilter;
-import android.os.Build;
-
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-
 /**
- * Periodic refresher
+ * Periodic refresher. The processing is scheduled on the {@link WakeUpScheduler} with a tolerance,
+ * so that the refreshers due at close times share one device wake-up.
  * 
  * @author JM. Auffret
  */
 public abstract class PeriodicRefresher {
 
-    private static final int KITKAT_VERSION_CODE = 19;
-
-    private static final String SET_EXACT_METHOD_NAME = "setExact";
-
-    private static final Class[] SET_EXACT_METHOD_PARAM = new Class[] {
-            int.class, long.class, PendingIntent.class
-    };
+    /**
+     * Default tolerance of the timer as a fraction of its period
+     */
+    private static final double DEFAULT_TOLERANCE_RATIO = 0.1;
 
     /**
-     * Keep alive manager
+     * Maximum tolerance of the timer in milliseconds
      */
-    private KeepAlive mAlarmReceiver = new KeepAlive();
+    private static final long MAX_TOLERANCE = 300000;
 
     /**
-     * Alarm intent
+     * Tolerance of the timer as a fraction of its period
      */
-    private PendingIntent mAlarmIntent;
+    private final double mToleranceRatio;
 
     /**
-     * Action
+     * Processing task
      */
-    private String mAction;
+    private final Runnable mProcessing = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (PeriodicRefresher.this) {
+                if (!mTimerStarted) {
+                    /* Stopped after the wake-up */
+                    return;
+                }
+                mTimerStarted = false;
+            }
+            try {
+                periodicProcessing();
+            } catch (SipPayloadException e) {
+                sLogger.error("IMS re-registration unsuccessful!", e);
+            } catch (SipNetworkException e) {
+                /* Nothing to be handled here */
+                if (sLogger.isActivated()) {
+                    sLogger.debug(e.getMessage());
+                }
+            } catch (RuntimeException e) {
+                /*
+                 * Intentionally catch runtime exceptions as else it will abruptly end the thread
+                 * and eventually bring the whole system down, which is not intended.
+                 */
+                sLogger.error("IMS re-registration unsuccessful!", e);
+                stopTimer();
+            }
+        }
+    };
 
     /**
      * Timer state
@@ -82,10 +96,16 @@ public abstract class PeriodicRefresher {
      * Constructor
      */
     public PeriodicRefresher() {
-        // Create a unique pending intent
-        this.mAction = this.toString(); // Unique action ID
-        this.mAlarmIntent = PendingIntent.getBroadcast(AndroidFactory.getApplicationContext(), 0,
-                new Intent(mAction), 0);
+        this(DEFAULT_TOLERANCE_RATIO);
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param toleranceRatio Tolerance of the timer as a fraction of its period
+     */
+    protected PeriodicRefresher(double toleranceRatio) {
+        mToleranceRatio = toleranceRatio;
     }
 
     /**
@@ -107,7 +127,8 @@ public abstract class PeriodicRefresher {
     }
 
     /**
-     * Start the timer
+     * Start the timer. The processing may run earlier than the period by the tolerance of the
+     * timer but never later, as needed to refresh something before it expires.
      * 
      * @param currentTime Time from when the timer has to be started
      * @param expirePeriod Expiration period in milliseconds
@@ -129,31 +150,38 @@ public abstract class PeriodicRefresher {
             sLogger.debug(new StringBuilder("Start timer at period=").append(pollingPeriod)
                     .append("ms (expiration=").append(expirePeriod).append("ms)").toString());
         }
+        long deadline = currentTime + pollingPeriod;
+        WakeUpScheduler.getInstance().schedule(mProcessing,
+                deadline - getTolerance(pollingPeriod), deadline);
+        mTimerStarted = true;
+    }
 
-        final Context ctx = AndroidFactory.getApplicationContext();
-        ctx.registerReceiver(mAlarmReceiver, new IntentFilter(mAction));
-        AlarmManager alarmManager = (AlarmManager) ctx.getSystemService(Context.ALARM_SERVICE);
-        if (Build.VERSION.SDK_INT < KITKAT_VERSION_CODE) {
-            alarmManager.set(AlarmManager.RTC_WAKEUP, currentTime + pollingPeriod, mAlarmIntent);
-            mTimerStarted = true;
-        } else {
-            try {
-                Method setExactMethod = alarmManager.getClass().getDeclaredMethod(
-                        SET_EXACT_METHOD_NAME, SET_EXACT_METHOD_PARAM);
-                setExactMethod.invoke(alarmManager, AlarmManager.RTC_WAKEUP, currentTime
-                        + pollingPeriod, mAlarmIntent);
-                mTimerStarted = true;
-            } catch (NoSuchMethodException e) {
-                throw new UnsupportedOperationException("Failed to get setExact method!", e);
-
-            } catch (IllegalAccessException e) {
-                throw new UnsupportedOperationException(
-                        "No access to the definition of setExact method!", e);
-
-            } catch (InvocationTargetException e) {
-                throw new UnsupportedOperationException("Can't invoke setExact method!", e);
+    /**
+     * Start the timer for an expiration check. The processing may run later than the period by
+     * the tolerance of the timer but never earlier, as needed to detect that something expired.
+     * 
+     * @param currentTime Time from when the timer has to be started
+     * @param expirePeriod Expiration period in milliseconds
+     */
+    public synchronized void startExpiryTimer(long currentTime, long expirePeriod) {
+        if (expirePeriod <= 0) {
+            if (sLogger.isActivated()) {
+                sLogger.debug("Timer is deactivated");
             }
+            return;
+        }
+        if (sLogger.isActivated()) {
+            sLogger.debug(new StringBuilder("Start expiry timer at period=").append(expirePeriod)
+                    .append("ms").toString());
         }
+        long deadline = currentTime + expirePeriod;
+        WakeUpScheduler.getInstance().schedule(mProcessing, deadline,
+                deadline + getTolerance(expirePeriod));
+        mTimerStarted = true;
+    }
+
+    private long getTolerance(long period) {
+        return Math.min((long) (period * mToleranceRatio), MAX_TOLERANCE);
     }
 
     /**
@@ -172,46 +200,6 @@ public abstract class PeriodicRefresher {
         // The timer is stopped
         mTimerStarted = false;
 
-        // Cancel alarm
-        AlarmManager am = (AlarmManager) AndroidFactory.getApplicationContext().getSystemService(
-                Context.ALARM_SERVICE);
-        am.cancel(mAlarmIntent);
-
-        // Unregister the alarm receiver
-        try {
-            AndroidFactory.getApplicationContext().unregisterReceiver(mAlarmReceiver);
-        } catch (IllegalArgumentException e) {
-            // Nothing to do
-        }
-    }
-
-    /**
-     * Keep alive manager
-     */
-    private class KeepAlive extends BroadcastReceiver {
-        public void onReceive(Context context, Intent intent) {
-            Thread t = new Thread() {
-                public void run() {
-                    try {
-                        periodicProcessing();
-                    } catch (SipPayloadException e) {
-                        sLogger.error("IMS re-registration unsuccessful!", e);
-                    } catch (SipNetworkException e) {
-                        /* Nothing to be handled here */
-                        if (sLogger.isActivated()) {
-                            sLogger.debug(e.getMessage());
-                        }
-                    } catch (RuntimeException e) {
-                        /*
-                         * Intentionally catch runtime exceptions as else it will abruptly end the
-                         * thread and eventually bring the whole system down, which is not intended.
-                         */
-                        sLogger.error("IMS re-registration unsuccessful!", e);
-                        stopTimer();
-                    }
-                }
-            };
-            t.start();
-        }
+        WakeUpScheduler.getInstance().cancel(mProcessing);
     }
 }
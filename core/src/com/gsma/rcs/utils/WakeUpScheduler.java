@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.gsma.rcs.utils;
+
+import com.gsma.rcs.platform.AndroidFactory;
+import com.gsma.rcs.utils.logger.Logger;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Build;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Central scheduler of the device wake-ups. Each task states the window in which it has to run,
+ * and the scheduler keeps a single alarm whose window is the intersection of the windows of the
+ * tasks due first, so that tasks with overlapping windows share one wake-up. When a wake-up
+ * happens, every task whose window is open runs on a shared executor, and a component already
+ * awake to use the network can let the open tasks ride on its own wake-up through
+ * {@link #runDueTasks()}.
+ */
+public class WakeUpScheduler {
+
+    private static final String ACTION_WAKE_UP = "com.gsma.rcs.WAKE_UP";
+
+    private static final int KITKAT_VERSION_CODE = 19;
+
+    private static final int POOL_SIZE = 4;
+
+    /**
+     * Time in milliseconds an idle thread of the executor is kept
+     */
+    private static final long THREAD_KEEP_ALIVE = 60000;
+
+    private static final Logger sLogger = Logger.getLogger(WakeUpScheduler.class.getSimpleName());
+
+    private static volatile WakeUpScheduler sInstance;
+
+    /**
+     * Window of a scheduled task
+     */
+    private static final class Window {
+
+        private final long mEarliest;
+
+        private final long mLatest;
+
+        private Window(long earliest, long latest) {
+            mEarliest = earliest;
+            mLatest = latest;
+        }
+    }
+
+    private final AlarmManager mAlarmManager;
+
+    private final PendingIntent mAlarmIntent;
+
+    private final ThreadPoolExecutor mExecutor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE,
+            THREAD_KEEP_ALIVE, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+
+    private final Map<Runnable, Window> mTasks = new HashMap<Runnable, Window>();
+
+    /**
+     * Window of the alarm currently set, mAlarmLatest is 0 when no alarm is set
+     */
+    private long mAlarmEarliest;
+
+    private long mAlarmLatest;
+
+    private WakeUpScheduler(Context ctx) {
+        mAlarmManager = (AlarmManager) ctx.getSystemService(Context.ALARM_SERVICE);
+        mAlarmIntent = PendingIntent.getBroadcast(ctx, 0, new Intent(ACTION_WAKE_UP), 0);
+        mExecutor.allowCoreThreadTimeOut(true);
+        ctx.registerReceiver(new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                synchronized (WakeUpScheduler.this) {
+                    /* The alarm is consumed */
+                    mAlarmLatest = 0;
+                }
+                runDueTasks();
+            }
+        }, new IntentFilter(ACTION_WAKE_UP));
+    }
+
+    /**
+     * Returns the scheduler, created on first use
+     *
+     * @return Wake-up scheduler
+     */
+    public static WakeUpScheduler getInstance() {
+        if (sInstance == null) {
+            synchronized (WakeUpScheduler.class) {
+                if (sInstance == null) {
+                    sInstance = new WakeUpScheduler(AndroidFactory.getApplicationContext());
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * Schedules a task, replacing its previous schedule if any
+     *
+     * @param task Task, run once on the shared executor
+     * @param earliest Time in milliseconds from which the task may run
+     * @param latest Time in milliseconds at which the task has to run
+     */
+    public void schedule(Runnable task, long earliest, long latest) {
+        synchronized (this) {
+            mTasks.put(task, new Window(Math.min(earliest, latest), latest));
+            setAlarm();
+        }
+    }
+
+    /**
+     * Cancels a task, does nothing if the task is not scheduled
+     *
+     * @param task Task
+     */
+    public void cancel(Runnable task) {
+        synchronized (this) {
+            if (mTasks.remove(task) != null) {
+                setAlarm();
+            }
+        }
+    }
+
+    /**
+     * Runs the tasks whose window is open, to be called when the device is awake anyway, e.g.
+     * when sending a request, so that their work rides on the same radio wake-up
+     */
+    public void runDueTasks() {
+        List<Runnable> dueTasks = null;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            for (Map.Entry<Runnable, Window> task : mTasks.entrySet()) {
+                if (task.getValue().mEarliest <= now) {
+                    if (dueTasks == null) {
+                        dueTasks = new ArrayList<Runnable>();
+                    }
+                    dueTasks.add(task.getKey());
+                }
+            }
+            if (dueTasks == null) {
+                /* Re-arms the alarm if this wake-up consumed it */
+                setAlarm();
+                return;
+            }
+            for (Runnable task : dueTasks) {
+                mTasks.remove(task);
+            }
+            setAlarm();
+        }
+        if (sLogger.isActivated()) {
+            sLogger.debug(new StringBuilder("Wake-up runs ").append(dueTasks.size())
+                    .append(" tasks").toString());
+        }
+        for (Runnable task : dueTasks) {
+            mExecutor.execute(task);
+        }
+    }
+
+    /**
+     * Sets the alarm to the window of the tasks due first: it ends with the earliest latest time
+     * and starts with the latest earliest time of the tasks that may run before that end, so that
+     * a wake-up anywhere in it runs all of them
+     */
+    private void setAlarm() {
+        long latest = Long.MAX_VALUE;
+        for (Window window : mTasks.values()) {
+            latest = Math.min(latest, window.mLatest);
+        }
+        if (latest == Long.MAX_VALUE) {
+            if (mAlarmLatest != 0) {
+                mAlarmManager.cancel(mAlarmIntent);
+                mAlarmLatest = 0;
+            }
+            return;
+        }
+        long earliest = Long.MIN_VALUE;
+        for (Window window : mTasks.values()) {
+            if (window.mEarliest <= latest) {
+                earliest = Math.max(earliest, window.mEarliest);
+            }
+        }
+        if (earliest == mAlarmEarliest && latest == mAlarmLatest) {
+            return;
+        }
+        mAlarmEarliest = earliest;
+        mAlarmLatest = latest;
+        if (Build.VERSION.SDK_INT < KITKAT_VERSION_CODE) {
+            mAlarmManager.set(AlarmManager.RTC_WAKEUP, latest, mAlarmIntent);
+        } else if (earliest == latest) {
+            mAlarmManager.setExact(AlarmManager.RTC_WAKEUP, latest, mAlarmIntent);
+        } else {
+            /* The window also lets the system align this wake-up with the ones of other apps */
+            mAlarmManager.setWindow(AlarmManager.RTC_WAKEUP, earliest, latest - earliest,
+                    mAlarmIntent);
+        }
+    }
+}
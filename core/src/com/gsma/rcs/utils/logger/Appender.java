@@ -38,4 +38,10 @@ public abstract class Appender {
      * @param trace Trace
      */
     public abstract void printTrace(String classname, int level, String trace);
+
+    /**
+     * Writes the buffered traces, if any
+     */
+    public void flush() {
+    }
 }
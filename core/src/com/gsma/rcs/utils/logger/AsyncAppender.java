@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.gsma.rcs.utils.logger;
+
+/**
+ * Appender that hands the traces to other appenders on a background thread. Traces are queued in
+ * a ring buffer allocated once, so queuing a trace only stores three references. When the buffer
+ * is full, debug, info and warning traces are dropped and counted, while error and fatal traces
+ * wait for room. The number of dropped traces is reported once the writer catches up.
+ */
+public class AsyncAppender extends Appender {
+
+    /**
+     * Number of traces the ring buffer holds, must be a power of two
+     */
+    private static final int CAPACITY = 1024;
+
+    /**
+     * Maximum number of traces taken from the ring buffer at once by the writer thread
+     */
+    private static final int BATCH_SIZE = 64;
+
+    /**
+     * Maximum time in milliseconds {@link #flush()} waits for the queued traces to be written
+     */
+    private static final long FLUSH_TIMEOUT = 1000;
+
+    private static final String CLASSNAME = AsyncAppender.class.getSimpleName();
+
+    private final Appender[] mAppenders;
+
+    private final String[] mClassnames = new String[CAPACITY];
+
+    private final int[] mLevels = new int[CAPACITY];
+
+    private final String[] mTraces = new String[CAPACITY];
+
+    /**
+     * Sequence of the next trace to write
+     */
+    private long mHead;
+
+    /**
+     * Sequence of the next trace to queue
+     */
+    private long mTail;
+
+    /**
+     * Number of traces written to the appenders
+     */
+    private long mWritten;
+
+    private int mDroppedCount;
+
+    private Thread mWriterThread;
+
+    /**
+     * Constructor
+     *
+     * @param appenders Appenders the traces are written to
+     */
+    public AsyncAppender(Appender[] appenders) {
+        super();
+        mAppenders = appenders;
+    }
+
+    @Override
+    public synchronized void printTrace(String classname, int level, String trace) {
+        if (mWriterThread == null) {
+            mWriterThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    write();
+                }
+            }, CLASSNAME);
+            mWriterThread.setDaemon(true);
+            mWriterThread.start();
+        }
+        while (mTail - mHead == CAPACITY) {
+            if (level < Logger.ERROR_LEVEL) {
+                mDroppedCount++;
+                return;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                mDroppedCount++;
+                return;
+            }
+        }
+        int index = (int) (mTail & (CAPACITY - 1));
+        mClassnames[index] = classname;
+        mLevels[index] = level;
+        mTraces[index] = trace;
+        if (mTail++ == mHead) {
+            /* The writer waits only when the buffer is empty */
+            notifyAll();
+        }
+    }
+
+    /**
+     * Waits for the queued traces to be written, then flushes the appenders
+     */
+    @Override
+    public void flush() {
+        synchronized (this) {
+            long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT;
+            long delay = FLUSH_TIMEOUT;
+            while (mWritten != mTail && delay > 0) {
+                try {
+                    wait(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                delay = deadline - System.currentTimeMillis();
+            }
+        }
+        for (Appender appender : mAppenders) {
+            appender.flush();
+        }
+    }
+
+    private void write() {
+        String[] classnames = new String[BATCH_SIZE];
+        int[] levels = new int[BATCH_SIZE];
+        String[] traces = new String[BATCH_SIZE];
+        while (true) {
+            int count;
+            int droppedCount;
+            synchronized (this) {
+                while (mHead == mTail) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                count = (int) Math.min(mTail - mHead, BATCH_SIZE);
+                for (int i = 0; i < count; i++) {
+                    int index = (int) (mHead++ & (CAPACITY - 1));
+                    classnames[i] = mClassnames[index];
+                    levels[i] = mLevels[index];
+                    traces[i] = mTraces[index];
+                    mClassnames[index] = null;
+                    mTraces[index] = null;
+                }
+                droppedCount = mDroppedCount;
+                mDroppedCount = 0;
+                /* Wake up the producers waiting for room */
+                notifyAll();
+            }
+            if (droppedCount > 0) {
+                writeTrace(CLASSNAME, Logger.WARN_LEVEL, new StringBuilder("Dropped ")
+                        .append(droppedCount).append(" traces").toString());
+            }
+            for (int i = 0; i < count; i++) {
+                writeTrace(classnames[i], levels[i], traces[i]);
+                classnames[i] = null;
+                traces[i] = null;
+            }
+            boolean idle;
+            synchronized (this) {
+                mWritten += count;
+                idle = mHead == mTail;
+                /* Wake up the flush waiting for the written traces */
+                notifyAll();
+            }
+            if (idle) {
+                for (Appender appender : mAppenders) {
+                    appender.flush();
+                }
+            }
+        }
+    }
+
+    private void writeTrace(String classname, int level, String trace) {
+        for (Appender appender : mAppenders) {
+            try {
+                appender.printTrace(classname, level, trace);
+            } catch (RuntimeException e) {
+                /*
+                 * Intentionally catch runtime exceptions as else it will abruptly end the writer
+                 * thread and stop all the traces.
+                 */
+            }
+        }
+    }
+}
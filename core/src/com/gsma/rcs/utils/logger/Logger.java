@@ -73,12 +73,20 @@ public class Logger {
     public static int traceLevel = DEBUG_LEVEL;
 
     /**
-     * List of appenders
+     * List of appenders. Traces are written to logcat from a background thread so that logging
+     * does not block the calling thread.
      */
     private static Appender[] appenders = new Appender[] {
-        new AndroidAppender()
+        new AsyncAppender(new Appender[] {
+            new AndroidAppender()
+        })
     };
 
+    /**
+     * Placeholder of the arguments in a parameterized trace
+     */
+    private static final String ARG_PLACEHOLDER = "{}";
+
     /**
      * Classname
      */
@@ -107,6 +115,35 @@ public class Logger {
         return (activationFlag == TRACE_ON);
     }
 
+    /**
+     * Is logger activated for a trace level
+     * 
+     * @param level Trace level
+     * @return boolean
+     */
+    public boolean isActivated(int level) {
+        return (activationFlag == TRACE_ON) && (level >= traceLevel);
+    }
+
+    /**
+     * Is logger activated for debug traces. To be used rather than {@link #isActivated()} to guard
+     * the building of debug traces, which are filtered out by the trace level in production.
+     * 
+     * @return boolean
+     */
+    public boolean isDebugActivated() {
+        return isActivated(DEBUG_LEVEL);
+    }
+
+    /**
+     * Is logger activated for info traces
+     * 
+     * @return boolean
+     */
+    public boolean isInfoActivated() {
+        return isActivated(INFO_LEVEL);
+    }
+
     /**
      * Debug trace
      * 
@@ -116,6 +153,45 @@ public class Logger {
         printTrace(trace, DEBUG_LEVEL);
     }
 
+    /**
+     * Debug trace, formatted only if debug traces are activated
+     * 
+     * @param pattern Trace where {} is replaced by the argument
+     * @param arg Argument
+     */
+    public void debug(String pattern, Object arg) {
+        if (isActivated(DEBUG_LEVEL)) {
+            printTrace(format(pattern, arg, null, null, 1), DEBUG_LEVEL);
+        }
+    }
+
+    /**
+     * Debug trace, formatted only if debug traces are activated
+     * 
+     * @param pattern Trace where each {} is replaced by the next argument
+     * @param arg1 First argument
+     * @param arg2 Second argument
+     */
+    public void debug(String pattern, Object arg1, Object arg2) {
+        if (isActivated(DEBUG_LEVEL)) {
+            printTrace(format(pattern, arg1, arg2, null, 2), DEBUG_LEVEL);
+        }
+    }
+
+    /**
+     * Debug trace, formatted only if debug traces are activated
+     * 
+     * @param pattern Trace where each {} is replaced by the next argument
+     * @param arg1 First argument
+     * @param arg2 Second argument
+     * @param arg3 Third argument
+     */
+    public void debug(String pattern, Object arg1, Object arg2, Object arg3) {
+        if (isActivated(DEBUG_LEVEL)) {
+            printTrace(format(pattern, arg1, arg2, arg3, 3), DEBUG_LEVEL);
+        }
+    }
+
     /**
      * Info trace
      * 
@@ -125,6 +201,45 @@ public class Logger {
         printTrace(trace, INFO_LEVEL);
     }
 
+    /**
+     * Info trace, formatted only if info traces are activated
+     * 
+     * @param pattern Trace where {} is replaced by the argument
+     * @param arg Argument
+     */
+    public void info(String pattern, Object arg) {
+        if (isActivated(INFO_LEVEL)) {
+            printTrace(format(pattern, arg, null, null, 1), INFO_LEVEL);
+        }
+    }
+
+    /**
+     * Info trace, formatted only if info traces are activated
+     * 
+     * @param pattern Trace where each {} is replaced by the next argument
+     * @param arg1 First argument
+     * @param arg2 Second argument
+     */
+    public void info(String pattern, Object arg1, Object arg2) {
+        if (isActivated(INFO_LEVEL)) {
+            printTrace(format(pattern, arg1, arg2, null, 2), INFO_LEVEL);
+        }
+    }
+
+    /**
+     * Info trace, formatted only if info traces are activated
+     * 
+     * @param pattern Trace where each {} is replaced by the next argument
+     * @param arg1 First argument
+     * @param arg2 Second argument
+     * @param arg3 Third argument
+     */
+    public void info(String pattern, Object arg1, Object arg2, Object arg3) {
+        if (isActivated(INFO_LEVEL)) {
+            printTrace(format(pattern, arg1, arg2, arg3, 3), INFO_LEVEL);
+        }
+    }
+
     /**
      * Warning trace
      * 
@@ -175,6 +290,32 @@ public class Logger {
 
     }
 
+    /**
+     * Replaces the placeholders of a parameterized trace by the arguments
+     * 
+     * @param pattern Trace with placeholders
+     * @param arg1 First argument
+     * @param arg2 Second argument
+     * @param arg3 Third argument
+     * @param argCount Number of arguments
+     * @return Trace
+     */
+    private static String format(String pattern, Object arg1, Object arg2, Object arg3,
+            int argCount) {
+        StringBuilder trace = new StringBuilder(pattern.length() + 32 * argCount);
+        int start = 0;
+        for (int i = 0; i < argCount; i++) {
+            int index = pattern.indexOf(ARG_PLACEHOLDER, start);
+            if (index < 0) {
+                break;
+            }
+            trace.append(pattern, start, index);
+            trace.append(i == 0 ? arg1 : (i == 1 ? arg2 : arg3));
+            start = index + ARG_PLACEHOLDER.length();
+        }
+        return trace.append(pattern, start, pattern.length()).toString();
+    }
+
     /**
      * Print a trace
      * 
@@ -198,6 +339,18 @@ public class Logger {
         Logger.appenders = appenders;
     }
 
+    /**
+     * Write the traces buffered by the appenders, to be called before the process may be killed
+     */
+    public static void flush() {
+        Appender[] current = appenders;
+        if (current != null) {
+            for (Appender appender : current) {
+                appender.flush();
+            }
+        }
+    }
+
     /**
      * Create a static instance
      * 
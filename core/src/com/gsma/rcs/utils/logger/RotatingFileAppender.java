@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.gsma.rcs.utils.logger;
+
+import com.gsma.rcs.utils.CloseableUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Calendar;
+
+/**
+ * Appender writing the traces to a file, which is rotated when it reaches a maximum size. Traces
+ * are formatted into a reused line, encoded into a direct buffer and written to the file channel
+ * only when the buffer is full or flushed, so that writing a trace does not allocate nor hit the
+ * file system. To be used behind an {@link AsyncAppender} so that the writes are done on its
+ * thread.
+ */
+public class RotatingFileAppender extends Appender {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int CHUNK_SIZE = 1024;
+
+    private static final char[] LEVELS = {
+            'D', 'I', 'W', 'E', 'F'
+    };
+
+    private final File mFile;
+
+    private final long mMaxFileSize;
+
+    private final int mMaxBackups;
+
+    private final StringBuilder mLine = new StringBuilder(CHUNK_SIZE);
+
+    private final CharBuffer mChars = CharBuffer.allocate(CHUNK_SIZE);
+
+    private final ByteBuffer mBytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    private final CharsetEncoder mEncoder;
+
+    private final Calendar mCalendar = Calendar.getInstance();
+
+    private FileChannel mChannel;
+
+    /**
+     * Size of the file including the buffered bytes
+     */
+    private long mSize;
+
+    /**
+     * Constructor
+     *
+     * @param file File the traces are appended to
+     * @param maxFileSize Size in bytes above which the file is rotated
+     * @param maxBackups Number of rotated files kept, named after the file with the suffixes .1
+     *            (the most recent) to .maxBackups
+     */
+    public RotatingFileAppender(File file, long maxFileSize, int maxBackups) {
+        super();
+        mFile = file;
+        mMaxFileSize = maxFileSize;
+        mMaxBackups = maxBackups;
+        mEncoder = Charset.forName("UTF-8").newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    @Override
+    public synchronized void printTrace(String classname, int level, String trace) {
+        try {
+            if (mChannel == null) {
+                open();
+            } else if (mSize >= mMaxFileSize) {
+                writeBuffer();
+                CloseableUtils.close(mChannel);
+                mChannel = null;
+                rotate();
+                open();
+            }
+            mLine.setLength(0);
+            appendTimestamp(System.currentTimeMillis());
+            mLine.append(' ').append(LEVELS[Math.max(0, Math.min(level, LEVELS.length - 1))])
+                    .append('/').append(classname).append(": ").append(trace).append('\n');
+            encode(mLine);
+        } catch (IOException e) {
+            /*
+             * Traces cannot be reported by the appender itself, the traces buffered so far are lost
+             * and the file is opened again on the next trace.
+             */
+            mBytes.clear();
+            CloseableUtils.close(mChannel);
+            mChannel = null;
+        }
+    }
+
+    /**
+     * Writes the buffered traces to the file
+     */
+    @Override
+    public synchronized void flush() {
+        if (mChannel == null) {
+            return;
+        }
+        try {
+            writeBuffer();
+        } catch (IOException e) {
+            mBytes.clear();
+            CloseableUtils.close(mChannel);
+            mChannel = null;
+        }
+    }
+
+    private void open() throws IOException {
+        mChannel = new FileOutputStream(mFile, true).getChannel();
+        mSize = mChannel.size();
+    }
+
+    private void rotate() {
+        if (mMaxBackups == 0) {
+            mFile.delete();
+            return;
+        }
+        String path = mFile.getPath();
+        for (int i = mMaxBackups - 1; i > 0; i--) {
+            File backup = new File(new StringBuilder(path).append('.').append(i).toString());
+            if (backup.exists()) {
+                backup.renameTo(new File(new StringBuilder(path).append('.').append(i + 1)
+                        .toString()));
+            }
+        }
+        mFile.renameTo(new File(path.concat(".1")));
+    }
+
+    private void appendTimestamp(long timestamp) {
+        mCalendar.setTimeInMillis(timestamp);
+        appendNumber(mCalendar.get(Calendar.MONTH) + 1, 2);
+        mLine.append('-');
+        appendNumber(mCalendar.get(Calendar.DAY_OF_MONTH), 2);
+        mLine.append(' ');
+        appendNumber(mCalendar.get(Calendar.HOUR_OF_DAY), 2);
+        mLine.append(':');
+        appendNumber(mCalendar.get(Calendar.MINUTE), 2);
+        mLine.append(':');
+        appendNumber(mCalendar.get(Calendar.SECOND), 2);
+        mLine.append('.');
+        appendNumber(mCalendar.get(Calendar.MILLISECOND), 3);
+    }
+
+    private void appendNumber(int value, int digits) {
+        for (int limit = 10; digits > 1; digits--, limit *= 10) {
+            if (value < limit) {
+                mLine.append('0');
+            }
+        }
+        mLine.append(value);
+    }
+
+    /**
+     * Encodes a line into the byte buffer by chunks, writing the buffer to the file when it is full
+     *
+     * @param line Line
+     * @throws IOException
+     */
+    private void encode(StringBuilder line) throws IOException {
+        mEncoder.reset();
+        int length = line.length();
+        int start = 0;
+        boolean endOfInput;
+        do {
+            int count = Math.min(length - start, mChars.remaining());
+            line.getChars(start, start + count, mChars.array(), mChars.position());
+            mChars.position(mChars.position() + count);
+            start += count;
+            endOfInput = start == length;
+            mChars.flip();
+            int position = mBytes.position();
+            while (mEncoder.encode(mChars, mBytes, endOfInput).isOverflow()) {
+                mSize += mBytes.position() - position;
+                writeBuffer();
+                position = 0;
+            }
+            mSize += mBytes.position() - position;
+            /* Keeps a high surrogate split from its low surrogate for the next chunk */
+            mChars.compact();
+        } while (!endOfInput);
+        mEncoder.flush(mBytes);
+    }
+
+    private void writeBuffer() throws IOException {
+        mBytes.flip();
+        while (mBytes.hasRemaining()) {
+            mChannel.write(mBytes);
+        }
+        mBytes.clear();
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.gsma.rcs.utils.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter updated by many threads. The count is spread over cells picked by thread id and each
+ * cell sits on its own cache line, so that concurrent increments seldom contend on the same
+ * memory. Reading the counter sums the cells.
+ */
+public final class Counter {
+
+    /**
+     * Number of cells, must be a power of two
+     */
+    private static final int CELLS = 8;
+
+    /**
+     * Distance in longs between two cells, so that each one fills a 64 bytes cache line
+     */
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray mCells = new AtomicLongArray(CELLS * PADDING);
+
+    /**
+     * Constructor
+     */
+    Counter() {
+    }
+
+    private static int getCell() {
+        return ((int) Thread.currentThread().getId() & (CELLS - 1)) * PADDING;
+    }
+
+    /**
+     * Adds a value to the counter
+     *
+     * @param delta Value to add
+     */
+    public void add(long delta) {
+        mCells.getAndAdd(getCell(), delta);
+    }
+
+    /**
+     * Increments the counter
+     */
+    public void increment() {
+        mCells.getAndIncrement(getCell());
+    }
+
+    /**
+     * @return the sum of the values added to the counter
+     */
+    public long get() {
+        long sum = 0;
+        for (int i = 0; i < CELLS; i++) {
+            sum += mCells.get(i * PADDING);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.gsma.rcs.utils.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of positive values, typically latencies, with a bounded relative error. Values are
+ * counted in buckets of exponentially growing width: each power of two is split into
+ * {@value #SUB_BUCKET_COUNT} buckets, so that a percentile is reported within about 3% of the
+ * recorded value whatever its magnitude. Recording a value costs two atomic increments and no
+ * allocation.
+ */
+public final class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Number of significant bits of the highest trackable value, larger values are counted as the
+     * highest one
+     */
+    private static final int VALUE_BITS = 40;
+
+    private static final long MAX_VALUE = (1L << VALUE_BITS) - 1;
+
+    private static final int BUCKET_COUNT = (VALUE_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKET_COUNT);
+
+    private final Counter mSum = new Counter();
+
+    private final AtomicLong mMax = new AtomicLong();
+
+    /**
+     * Constructor
+     */
+    Histogram() {
+    }
+
+    /**
+     * Returns the index of the bucket counting a value
+     *
+     * @param value Value between 0 and {@link #MAX_VALUE}
+     * @return Bucket index
+     */
+    static int getBucket(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS)
+                + (int) ((value >>> shift) & (SUB_BUCKET_COUNT - 1));
+    }
+
+    /**
+     * Returns the highest value counted by a bucket
+     *
+     * @param bucket Bucket index
+     * @return Highest value
+     */
+    static long getHighestValue(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = (bucket >> SUB_BUCKET_BITS) - 1;
+        long lowest = (long) (SUB_BUCKET_COUNT + (bucket & (SUB_BUCKET_COUNT - 1))) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * Records a value
+     *
+     * @param value Value, negative values are recorded as 0
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        } else if (value > MAX_VALUE) {
+            value = MAX_VALUE;
+        }
+        mBuckets.getAndIncrement(getBucket(value));
+        mSum.add(value);
+        long max = mMax.get();
+        while (value > max && !mMax.compareAndSet(max, value)) {
+            max = mMax.get();
+        }
+    }
+
+    /**
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += mBuckets.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * @return the sum of the recorded values
+     */
+    public long getSum() {
+        return mSum.get();
+    }
+
+    /**
+     * @return the highest recorded value
+     */
+    public long getMax() {
+        return mMax.get();
+    }
+
+    /**
+     * Returns the value below which a percentage of the recorded values fall
+     *
+     * @param percentile Percentage between 0 and 100
+     * @return Value, or 0 if no value was recorded
+     */
+    public long getPercentile(double percentile) {
+        long[] counts = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = mBuckets.get(i);
+            count += counts[i];
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long cumulated = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulated += counts[i];
+            if (cumulated >= rank) {
+                return Math.min(getHighestValue(i), mMax.get());
+            }
+        }
+        return 0;
+    }
+}
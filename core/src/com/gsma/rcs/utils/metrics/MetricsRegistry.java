@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.gsma.rcs.utils.metrics;
+
+import com.gsma.rcs.utils.logger.Logger;
+
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of the metrics of the stack, named after the component and the measured quantity (for
+ * example "sip.transaction.latency_us"). Components look up their metrics once and keep them, so
+ * that recording a value never goes through the registry. The metrics are dumped on demand and
+ * may be written to the log periodically.
+ */
+public class MetricsRegistry {
+
+    private static final MetricsRegistry sInstance = new MetricsRegistry();
+
+    private static final Logger sLogger = Logger.getLogger(MetricsRegistry.class.getSimpleName());
+
+    private final ConcurrentMap<String, Counter> mCounters;
+
+    private final ConcurrentMap<String, Histogram> mHistograms;
+
+    private final ConcurrentMap<String, Gauge> mGauges;
+
+    private ScheduledExecutorService mSnapshotTimer;
+
+    private ScheduledFuture<?> mSnapshot;
+
+    private MetricsRegistry() {
+        mCounters = new ConcurrentHashMap<String, Counter>();
+        mHistograms = new ConcurrentHashMap<String, Histogram>();
+        mGauges = new ConcurrentHashMap<String, Gauge>();
+    }
+
+    /**
+     * Returns the registry of the process
+     *
+     * @return Metrics registry
+     */
+    public static MetricsRegistry getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * Returns a counter, created on first use
+     *
+     * @param name Name of the counter
+     * @return Counter
+     */
+    public Counter getCounter(String name) {
+        Counter counter = mCounters.get(name);
+        if (counter == null) {
+            counter = new Counter();
+            Counter previous = mCounters.putIfAbsent(name, counter);
+            if (previous != null) {
+                counter = previous;
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Returns a histogram, created on first use
+     *
+     * @param name Name of the histogram
+     * @return Histogram
+     */
+    public Histogram getHistogram(String name) {
+        Histogram histogram = mHistograms.get(name);
+        if (histogram == null) {
+            histogram = new Histogram();
+            Histogram previous = mHistograms.putIfAbsent(name, histogram);
+            if (previous != null) {
+                histogram = previous;
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Registers a gauge, replacing the gauge previously registered with the same name
+     *
+     * @param name Name of the gauge
+     * @param gauge Gauge
+     */
+    public void registerGauge(String name, Gauge gauge) {
+        mGauges.put(name, gauge);
+    }
+
+    /**
+     * Unregisters a gauge
+     *
+     * @param name Name of the gauge
+     * @param gauge Gauge, only unregistered if it is still the registered one
+     */
+    public void unregisterGauge(String name, Gauge gauge) {
+        mGauges.remove(name, gauge);
+    }
+
+    /**
+     * Writes the metrics sorted by name, one per line
+     *
+     * @param writer Writer
+     */
+    public void dump(PrintWriter writer) {
+        for (Map.Entry<String, String> metric : getSnapshot().entrySet()) {
+            writer.println(new StringBuilder(metric.getKey()).append(": ")
+                    .append(metric.getValue()).toString());
+        }
+    }
+
+    private Map<String, String> getSnapshot() {
+        Map<String, String> snapshot = new TreeMap<String, String>();
+        for (Map.Entry<String, Counter> counter : mCounters.entrySet()) {
+            snapshot.put(counter.getKey(), String.valueOf(counter.getValue().get()));
+        }
+        for (Map.Entry<String, Gauge> gauge : mGauges.entrySet()) {
+            snapshot.put(gauge.getKey(), String.valueOf(gauge.getValue().getValue()));
+        }
+        for (Map.Entry<String, Histogram> entry : mHistograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            long count = histogram.getCount();
+            StringBuilder value = new StringBuilder("count=").append(count);
+            if (count > 0) {
+                value.append(" mean=").append(histogram.getSum() / count).append(" p50=")
+                        .append(histogram.getPercentile(50)).append(" p90=")
+                        .append(histogram.getPercentile(90)).append(" p99=")
+                        .append(histogram.getPercentile(99)).append(" max=")
+                        .append(histogram.getMax());
+            }
+            snapshot.put(entry.getKey(), value.toString());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Starts writing the metrics to the log periodically, at info level
+     *
+     * @param period Period in milliseconds
+     */
+    public synchronized void startSnapshots(long period) {
+        if (mSnapshot != null) {
+            return;
+        }
+        if (mSnapshotTimer == null) {
+            mSnapshotTimer = Executors.newSingleThreadScheduledExecutor();
+        }
+        mSnapshot = mSnapshotTimer.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                if (!sLogger.isInfoActivated()) {
+                    return;
+                }
+                try {
+                    StringBuilder trace = new StringBuilder("Metrics");
+                    String separator = ": ";
+                    for (Map.Entry<String, String> metric : getSnapshot().entrySet()) {
+                        trace.append(separator).append(metric.getKey()).append(": ")
+                                .append(metric.getValue());
+                        separator = "; ";
+                    }
+                    sLogger.info(trace.toString());
+                } catch (RuntimeException e) {
+                    /*
+                     * Intentionally catch runtime exceptions as else it will abruptly end the
+                     * timer and stop the next snapshots.
+                     */
+                    sLogger.error("Failed to log the metrics!", e);
+                }
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops writing the metrics to the log
+     */
+    public synchronized void stopSnapshots() {
+        if (mSnapshot != null) {
+            mSnapshot.cancel(false);
+            mSnapshot = null;
+        }
+    }
+}
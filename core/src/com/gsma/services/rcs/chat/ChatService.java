@@ -459,7 +459,10 @@ public final class ChatService extends RcsService {
         try {
             IGroupChatListener rcsListener = new GroupChatListenerImpl(listener);
             mGroupChatListeners.put(listener, new WeakReference<IGroupChatListener>(rcsListener));
-            mApi.addEventListener3(rcsListener);
+            if (!mApi.addBatchedEventListener3(rcsListener)) {
+                /* The service predates batched listeners */
+                mApi.addEventListener3(rcsListener);
+            }
         } catch (Exception e) {
             RcsIllegalArgumentException.assertException(e);
             throw new RcsGenericException(e);
@@ -512,7 +515,10 @@ public final class ChatService extends RcsService {
             IOneToOneChatListener rcsListener = new OneToOneChatListenerImpl(listener);
             mOneToOneChatListeners.put(listener, new WeakReference<IOneToOneChatListener>(
                     rcsListener));
-            mApi.addEventListener2(rcsListener);
+            if (!mApi.addBatchedEventListener2(rcsListener)) {
+                /* The service predates batched listeners */
+                mApi.addEventListener2(rcsListener);
+            }
         } catch (Exception e) {
             RcsIllegalArgumentException.assertException(e);
             throw new RcsGenericException(e);
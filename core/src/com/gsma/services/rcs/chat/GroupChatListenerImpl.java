@@ -139,4 +139,22 @@ public class GroupChatListenerImpl extends IGroupChatListener.Stub {
     public void onMessagesDeleted(String chatId, List<String> msgIds) throws RemoteException {
         mListener.onMessagesDeleted(chatId, new HashSet<String>(msgIds));
     }
+
+    @Override
+    public void onMessageStatusesChanged(List<String> chatIds, List<String> mimeTypes,
+            List<String> msgIds, int[] statuses, int[] reasonCodes) {
+        for (int i = 0; i < statuses.length; i++) {
+            onMessageStatusChanged(chatIds.get(i), mimeTypes.get(i), msgIds.get(i), statuses[i],
+                    reasonCodes[i]);
+        }
+    }
+
+    @Override
+    public void onMessageGroupDeliveryInfosChanged(List<String> chatIds, List<ContactId> contacts,
+            List<String> mimeTypes, List<String> msgIds, int[] statuses, int[] reasonCodes) {
+        for (int i = 0; i < statuses.length; i++) {
+            onMessageGroupDeliveryInfoChanged(chatIds.get(i), contacts.get(i), mimeTypes.get(i),
+                    msgIds.get(i), statuses[i], reasonCodes[i]);
+        }
+    }
 }
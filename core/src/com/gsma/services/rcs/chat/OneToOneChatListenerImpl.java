@@ -73,4 +73,13 @@ public class OneToOneChatListenerImpl extends IOneToOneChatListener.Stub {
     public void onMessagesDeleted(ContactId contact, List<String> msgIds) throws RemoteException {
         mListener.onMessagesDeleted(contact, new HashSet<String>(msgIds));
     }
+
+    @Override
+    public void onMessageStatusesChanged(List<ContactId> contacts, List<String> mimeTypes,
+            List<String> msgIds, int[] statuses, int[] reasonCodes) {
+        for (int i = 0; i < statuses.length; i++) {
+            onMessageStatusChanged(contacts.get(i), mimeTypes.get(i), msgIds.get(i), statuses[i],
+                    reasonCodes[i]);
+        }
+    }
 }
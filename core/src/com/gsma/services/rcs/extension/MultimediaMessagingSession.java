@@ -206,4 +206,52 @@ public class MultimediaMessagingSession extends MultimediaSession {
             throw new RcsGenericException(e);
         }
     }
+
+    /**
+     * Returns the number of data waiting in the send queue of the session
+     * 
+     * @return Number of queued data
+     * @throws RcsGenericException
+     */
+    public int getSendQueueSize() throws RcsGenericException {
+        try {
+            return sessionIntf.getSendQueueSize();
+
+        } catch (Exception e) {
+            throw new RcsGenericException(e);
+        }
+    }
+
+    /**
+     * Returns the average time the data took to be sent, from the time it was queued
+     * 
+     * @return Latency in milliseconds
+     * @throws RcsGenericException
+     */
+    public long getSendLatency() throws RcsGenericException {
+        try {
+            return sessionIntf.getSendLatency();
+
+        } catch (Exception e) {
+            throw new RcsGenericException(e);
+        }
+    }
+
+    /**
+     * Sets the policy applied when data is sent while the send queue of the session is full
+     * 
+     * @param policy Send policy
+     * @see MultimediaSession.SendPolicy
+     * @throws RcsPermissionDeniedException
+     * @throws RcsGenericException
+     */
+    public void setSendPolicy(SendPolicy policy) throws RcsPermissionDeniedException,
+            RcsGenericException {
+        try {
+            sessionIntf.setSendPolicy(policy.toInt());
+        } catch (Exception e) {
+            RcsPermissionDeniedException.assertException(e);
+            throw new RcsGenericException(e);
+        }
+    }
 }
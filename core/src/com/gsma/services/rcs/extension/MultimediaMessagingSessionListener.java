@@ -51,4 +51,15 @@ public abstract class MultimediaMessagingSessionListener {
      * @param content Message content
      */
     public abstract void onMessageReceived(ContactId contact, String sessionId, byte[] content);
+
+    /**
+     * Callback called when the send queue of the session fills up or drains. The application
+     * should pause sending messages while the session is congested. Does nothing by default.
+     * 
+     * @param contact Contact ID
+     * @param sessionId Session Id
+     * @param congested True if the session is congested, false once it has drained
+     */
+    public void onFlowControlChanged(ContactId contact, String sessionId, boolean congested) {
+    }
 }
@@ -59,4 +59,8 @@ public class MultimediaMessagingSessionListenerImpl extends
     public void onMessageReceived(ContactId contact, String sessionId, byte[] content) {
         mListener.onMessageReceived(contact, sessionId, content);
     }
+
+    public void onFlowControlChanged(ContactId contact, String sessionId, boolean congested) {
+        mListener.onFlowControlChanged(contact, sessionId, congested);
+    }
 }
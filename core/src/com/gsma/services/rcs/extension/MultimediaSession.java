@@ -200,6 +200,53 @@ public abstract class MultimediaSession {
         }
     }
 
+    /**
+     * Policy applied when data is sent while the send queue of the session is full
+     */
+    public enum SendPolicy {
+
+        /**
+         * The oldest queued data is dropped
+         */
+        DROP_OLDEST(0),
+
+        /**
+         * The new data is dropped
+         */
+        DROP_NEWEST(1),
+
+        /**
+         * The sending method waits for room and fails if the queue does not drain in time
+         */
+        BLOCK(2);
+
+        private final int mValue;
+
+        private static SparseArray<SendPolicy> mValueToEnum = new SparseArray<SendPolicy>();
+        static {
+            for (SendPolicy entry : SendPolicy.values()) {
+                mValueToEnum.put(entry.toInt(), entry);
+            }
+        }
+
+        private SendPolicy(int value) {
+            mValue = value;
+        }
+
+        public final int toInt() {
+            return mValue;
+        }
+
+        public static final SendPolicy valueOf(int value) {
+            SendPolicy entry = mValueToEnum.get(value);
+            if (entry != null) {
+                return entry;
+            }
+            throw new IllegalArgumentException("No enum const class " + SendPolicy.class.getName()
+                    + "." + value);
+        }
+    }
+
     /**
      * Constructor
      */
@@ -282,4 +329,32 @@ public abstract class MultimediaSession {
      * @throws RcsGenericException
      */
     public abstract void abortSession() throws RcsPermissionDeniedException, RcsGenericException;
+
+    /**
+     * Returns the number of data waiting in the send queue of the session
+     * 
+     * @return Number of queued data
+     * @throws RcsGenericException
+     */
+    public abstract int getSendQueueSize() throws RcsGenericException;
+
+    /**
+     * Returns the average time the data took to be sent, from the time it was queued
+     * 
+     * @return Latency in milliseconds
+     * @throws RcsGenericException
+     */
+    public abstract long getSendLatency() throws RcsGenericException;
+
+    /**
+     * Sets the policy applied when data is sent while the send queue of the session is full. By
+     * default, streaming sessions drop the oldest payload and messaging sessions block.
+     * 
+     * @param policy Send policy
+     * @see MultimediaSession.SendPolicy
+     * @throws RcsPermissionDeniedException
+     * @throws RcsGenericException
+     */
+    public abstract void setSendPolicy(SendPolicy policy) throws RcsPermissionDeniedException,
+            RcsGenericException;
 }
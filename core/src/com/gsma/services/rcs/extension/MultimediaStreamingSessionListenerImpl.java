@@ -59,4 +59,8 @@ public class MultimediaStreamingSessionListenerImpl extends
     public void onPayloadReceived(ContactId contact, String sessionId, byte[] content) {
         mListener.onPayloadReceived(contact, sessionId, content);
     }
+
+    public void onFlowControlChanged(ContactId contact, String sessionId, boolean congested) {
+        mListener.onFlowControlChanged(contact, sessionId, congested);
+    }
 }
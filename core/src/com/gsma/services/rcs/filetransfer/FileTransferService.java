@@ -392,7 +392,10 @@ public final class FileTransferService extends RcsService {
                     listener);
             mOneToOneFileTransferListeners.put(listener,
                     new WeakReference<IOneToOneFileTransferListener>(rcsListener));
-            mApi.addEventListener2(rcsListener);
+            if (!mApi.addBatchedEventListener2(rcsListener)) {
+                /* The service predates batched listeners */
+                mApi.addEventListener2(rcsListener);
+            }
         } catch (Exception e) {
             RcsIllegalArgumentException.assertException(e);
             throw new RcsGenericException(e);
@@ -446,7 +449,10 @@ public final class FileTransferService extends RcsService {
             IGroupFileTransferListener rcsListener = new GroupFileTransferListenerImpl(listener);
             mGroupFileTransferListeners.put(listener,
                     new WeakReference<IGroupFileTransferListener>(rcsListener));
-            mApi.addEventListener3(rcsListener);
+            if (!mApi.addBatchedEventListener3(rcsListener)) {
+                /* The service predates batched listeners */
+                mApi.addEventListener3(rcsListener);
+            }
         } catch (Exception e) {
             RcsIllegalArgumentException.assertException(e);
             throw new RcsGenericException(e);
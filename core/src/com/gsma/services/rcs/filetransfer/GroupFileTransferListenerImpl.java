@@ -90,4 +90,30 @@ public class GroupFileTransferListenerImpl extends IGroupFileTransferListener.St
     public void onDeleted(String chatId, List<String> transferIds) throws RemoteException {
         mListener.onDeleted(chatId, new HashSet<String>(transferIds));
     }
+
+    @Override
+    public void onStatesChanged(List<String> chatIds, List<String> transferIds, int[] states,
+            int[] reasonCodes) {
+        for (int i = 0; i < states.length; i++) {
+            onStateChanged(chatIds.get(i), transferIds.get(i), states[i], reasonCodes[i]);
+        }
+    }
+
+    @Override
+    public void onDeliveryInfosChanged(List<String> chatIds, List<ContactId> contacts,
+            List<String> transferIds, int[] states, int[] reasonCodes) {
+        for (int i = 0; i < states.length; i++) {
+            onDeliveryInfoChanged(chatIds.get(i), contacts.get(i), transferIds.get(i), states[i],
+                    reasonCodes[i]);
+        }
+    }
+
+    @Override
+    public void onProgressUpdates(List<String> chatIds, List<String> transferIds,
+            long[] currentSizes, long[] totalSizes) {
+        for (int i = 0; i < currentSizes.length; i++) {
+            mListener.onProgressUpdate(chatIds.get(i), transferIds.get(i), currentSizes[i],
+                    totalSizes[i]);
+        }
+    }
 }
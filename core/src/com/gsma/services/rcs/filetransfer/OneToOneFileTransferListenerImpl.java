@@ -71,4 +71,21 @@ public class OneToOneFileTransferListenerImpl extends IOneToOneFileTransferListe
     public void onDeleted(ContactId contact, List<String> transferIds) throws RemoteException {
         mListener.onDeleted(contact, new HashSet<String>(transferIds));
     }
+
+    @Override
+    public void onStatesChanged(List<ContactId> contacts, List<String> transferIds, int[] states,
+            int[] reasonCodes) {
+        for (int i = 0; i < states.length; i++) {
+            onStateChanged(contacts.get(i), transferIds.get(i), states[i], reasonCodes[i]);
+        }
+    }
+
+    @Override
+    public void onProgressUpdates(List<ContactId> contacts, List<String> transferIds,
+            long[] currentSizes, long[] totalSizes) {
+        for (int i = 0; i < currentSizes.length; i++) {
+            mListener.onProgressUpdate(contacts.get(i), transferIds.get(i), currentSizes[i],
+                    totalSizes[i]);
+        }
+    }
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.gsma.rcs.capture;
+
+import com.gsma.rcs.core.ims.protocol.capture.CapturingInputStream;
+import com.gsma.rcs.core.ims.protocol.capture.MessageCapture;
+
+import android.test.AndroidTestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MessageCaptureTest extends AndroidTestCase {
+
+    private static final int CAPACITY = 16384;
+
+    private static final int PCAP_MAGIC = 0xa1b2c3d4;
+
+    private static final int PCAP_LINKTYPE_UPPER_PDU = 252;
+
+    private File mFile;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        mFile = new File(getContext().getCacheDir(), "capture_test.pcap");
+        mFile.delete();
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        mFile.delete();
+    }
+
+    /**
+     * Reads the messages of a pcap file, without their exported PDU tags
+     */
+    private List<String> readMessages() throws Exception {
+        List<String> messages = new ArrayList<String>();
+        DataInputStream in = new DataInputStream(new FileInputStream(mFile));
+        try {
+            assertEquals(PCAP_MAGIC, in.readInt());
+            in.skipBytes(16);
+            assertEquals(PCAP_LINKTYPE_UPPER_PDU, in.readInt());
+            while (in.available() > 0) {
+                in.skipBytes(8);
+                int length = in.readInt();
+                in.skipBytes(4);
+                int tagsLength = 0;
+                int tag;
+                do {
+                    tag = in.readUnsignedShort();
+                    int tagLength = in.readUnsignedShort();
+                    in.skipBytes(tagLength);
+                    tagsLength += 4 + tagLength;
+                } while (tag != 0);
+                byte[] message = new byte[length - tagsLength];
+                in.readFully(message);
+                messages.add(new String(message, "UTF-8"));
+            }
+        } finally {
+            in.close();
+        }
+        return messages;
+    }
+
+    public void testOldestMessagesAreOverwritten() throws Exception {
+        MessageCapture capture = new MessageCapture(CAPACITY);
+        int id = capture.openConnection(MessageCapture.PROTOCOL_SIP,
+                MessageCapture.TRANSPORT_UDP, "10.0.0.1", 5062, "10.0.0.2", 5060);
+        for (int i = 0; i < 1000; i++) {
+            byte[] message = ("OPTIONS sip:bob@ims.test SIP/2.0\r\nCSeq: " + i + " OPTIONS\r\n\r\n")
+                    .getBytes("UTF-8");
+            capture.capture(id, i % 2 == 0, message, 0, message.length);
+        }
+        int count = capture.dump(mFile);
+        List<String> messages = readMessages();
+        assertEquals(count, messages.size());
+        assertTrue(count > 100);
+        assertTrue(count < 1000);
+        for (int i = 0; i < count; i++) {
+            assertTrue(messages.get(i).contains("CSeq: " + (1000 - count + i) + " OPTIONS"));
+        }
+    }
+
+    public void testMessagesAreTruncatedToSnapLength() throws Exception {
+        MessageCapture capture = new MessageCapture(CAPACITY);
+        int id = capture.openConnection(MessageCapture.PROTOCOL_MSRP,
+                MessageCapture.TRANSPORT_TCP, "10.0.0.1", 20000, "10.0.0.2", 20001);
+        byte[] message = new byte[3 * MessageCapture.SNAP_LENGTH];
+        capture.capture(id, true, message, 0, message.length);
+        assertEquals(1, capture.dump(mFile));
+        assertEquals(MessageCapture.SNAP_LENGTH, readMessages().get(0).length());
+    }
+
+    public void testCapturingInputStream() throws Exception {
+        MessageCapture capture = new MessageCapture(CAPACITY);
+        int id = capture.openConnection(MessageCapture.PROTOCOL_MSRP,
+                MessageCapture.TRANSPORT_TCP, "10.0.0.1", 20000, "10.0.0.2", 20001);
+        String first = "MSRP a1 SEND\r\nTo-Path: msrp://10.0.0.1:20000/s;tcp\r\n-------a1$\r\n";
+        String second = "MSRP a2 200 OK\r\n-------a2$\r\n";
+        CapturingInputStream in = new CapturingInputStream(new ByteArrayInputStream(
+                (first + second).getBytes("UTF-8")), capture, id);
+        byte[] buffer = new byte[16];
+        in.read();
+        in.read(buffer, 0, buffer.length);
+        in.skip(first.length() - 1 - buffer.length);
+        in.commit();
+        while (in.read() != -1) {
+        }
+        in.commit();
+        in.commit();
+        assertEquals(2, capture.dump(mFile));
+        List<String> messages = readMessages();
+        assertEquals(first, messages.get(0));
+        assertEquals(second, messages.get(1));
+    }
+}
@@ -26,6 +26,7 @@ import android.test.AndroidTestCase;
 
 import com.gsma.rcs.core.ims.service.im.chat.event.ConferenceInfoDocument;
 import com.gsma.rcs.core.ims.service.im.chat.event.ConferenceInfoParser;
+import com.gsma.rcs.core.ims.service.im.chat.event.User;
 import com.gsma.rcs.utils.logger.Logger;
 
 public class ConferenceInfoParserTest extends AndroidTestCase {
@@ -124,4 +125,30 @@ public class ConferenceInfoParserTest extends AndroidTestCase {
             e.printStackTrace();
         }
     }
+
+    public void testGetPartialConferenceInfo() throws Exception {
+        StringBuffer sb = new StringBuffer("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+        sb.append(CRLF);
+        sb.append("<conference-info xmlns=\"urn:ietf:params:xml:ns:conference-info\" entity=\"sips:conf233@example.com\" state=\"partial\" version=\"2\">");
+        sb.append(CRLF);
+        sb.append("<users>");
+        sb.append("<user entity=\"sip:bob@example.com\" state=\"deleted\"/> ");
+        sb.append(CRLF);
+        sb.append("<user entity=\"sip:alice@example.com\" state=\"partial\"> ");
+        sb.append("<display-text>Alice Smith</display-text> </user> ");
+        sb.append("</users> </conference-info> ");
+        InputSource inputso = new InputSource(new ByteArrayInputStream(sb.toString().getBytes()));
+        ConferenceInfoDocument confInfoDoc = new ConferenceInfoParser(inputso)
+                .getConferenceInfo();
+        assertEquals(ConferenceInfoDocument.STATE_PARTIAL, confInfoDoc.getState());
+        assertEquals(2, confInfoDoc.getUsers().size());
+        User bob = confInfoDoc.getUsers().get(0);
+        assertEquals("sip:bob@example.com", bob.getEntity());
+        assertTrue(bob.isDeleted());
+        assertNull(bob.getState());
+        User alice = confInfoDoc.getUsers().get(1);
+        assertFalse(alice.isDeleted());
+        assertNull(alice.getState());
+        assertEquals("Alice Smith", alice.getDisplayName());
+    }
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.gsma.rcs.contact;
+
+import com.gsma.rcs.core.ims.service.capability.AddressBookCheckpoint;
+import com.gsma.rcs.provider.LocalContentResolver;
+import com.gsma.rcs.provider.contact.ContactManager;
+import com.gsma.rcs.provider.settings.RcsSettings;
+import com.gsma.services.rcs.contact.ContactId;
+
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
+import android.content.ContentResolver;
+import android.content.ContentUris;
+import android.content.ContentValues;
+import android.net.Uri;
+import android.provider.ContactsContract;
+import android.provider.ContactsContract.CommonDataKinds.Phone;
+import android.provider.ContactsContract.Data;
+import android.provider.ContactsContract.RawContacts;
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.LargeTest;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compares the synchronization of the whole address book with the synchronization of the raw
+ * contacts changed since the last checkpoint, after one contact of a big address book is edited.
+ */
+@LargeTest
+public class AddressBookSyncBenchmarkTest extends AndroidTestCase {
+
+    private static final String TAG = "AddressBookSyncBenchmark";
+
+    private static final int CONTACT_COUNT = 5000;
+
+    private static final int INSERT_BATCH_SIZE = 100;
+
+    private ContentResolver mContentResolver;
+
+    private ContactManager mContactManager;
+
+    private final List<Long> mRawContactIds = new ArrayList<Long>();
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        mContentResolver = getContext().getContentResolver();
+        LocalContentResolver localContentResolver = new LocalContentResolver(mContentResolver);
+        RcsSettings rcsSettings = RcsSettings.createInstance(localContentResolver);
+        mContactManager = ContactManager.createInstance(getContext(), mContentResolver,
+                localContentResolver, rcsSettings);
+        ArrayList<ContentProviderOperation> ops = new ArrayList<ContentProviderOperation>();
+        for (int i = 0; i < CONTACT_COUNT; i++) {
+            int rawContactIndex = ops.size();
+            ops.add(ContentProviderOperation.newInsert(RawContacts.CONTENT_URI)
+                    .withValue(RawContacts.ACCOUNT_TYPE, null)
+                    .withValue(RawContacts.ACCOUNT_NAME, null).build());
+            ops.add(ContentProviderOperation.newInsert(Data.CONTENT_URI)
+                    .withValueBackReference(Data.RAW_CONTACT_ID, rawContactIndex)
+                    .withValue(Data.MIMETYPE, Phone.CONTENT_ITEM_TYPE)
+                    .withValue(Phone.NUMBER, getPhoneNumber(i)).build());
+            if (ops.size() == INSERT_BATCH_SIZE * 2 || i == CONTACT_COUNT - 1) {
+                ContentProviderResult[] results = mContentResolver.applyBatch(
+                        ContactsContract.AUTHORITY, ops);
+                for (int j = 0; j < results.length; j += 2) {
+                    mRawContactIds.add(ContentUris.parseId(results[j].uri));
+                }
+                ops.clear();
+            }
+        }
+    }
+
+    protected void tearDown() throws Exception {
+        Uri uri = RawContacts.CONTENT_URI.buildUpon()
+                .appendQueryParameter(ContactsContract.CALLER_IS_SYNCADAPTER, "true").build();
+        for (Long rawContactId : mRawContactIds) {
+            mContentResolver.delete(ContentUris.withAppendedId(uri, rawContactId), null, null);
+        }
+        super.tearDown();
+    }
+
+    private static String getPhoneNumber(int index) {
+        return "+336" + (10000000 + index);
+    }
+
+    public void testFullAndDeltaSynchronization() {
+        AddressBookCheckpoint checkpoint = new AddressBookCheckpoint();
+
+        long start = System.nanoTime();
+        Map<Long, Long> versions = mContactManager.getRawContactVersionsInPhoneAddressBook();
+        Map<ContactId, Set<Long>> nativeContacts = mContactManager
+                .getAllRawIdsInPhoneAddressBook();
+        mContactManager.getAllContactsFromRcsContactProvider();
+        long fullTime = System.nanoTime() - start;
+        assertTrue(nativeContacts.size() >= CONTACT_COUNT);
+        checkpoint.update(versions);
+
+        long editedRawContactId = mRawContactIds.get(CONTACT_COUNT / 2);
+        ContentValues values = new ContentValues();
+        values.put(Phone.NUMBER, getPhoneNumber(CONTACT_COUNT));
+        mContentResolver.update(Data.CONTENT_URI, values, Data.RAW_CONTACT_ID + "=?",
+                new String[] {
+                    String.valueOf(editedRawContactId)
+                });
+
+        start = System.nanoTime();
+        versions = mContactManager.getRawContactVersionsInPhoneAddressBook();
+        Set<Long> changedRawContacts = checkpoint.getChangedRawContacts(versions);
+        nativeContacts = mContactManager.getRawIdsInPhoneAddressBook(changedRawContacts);
+        for (ContactId contact : nativeContacts.keySet()) {
+            mContactManager.isContactIdAssociatedWithRcsContactProvider(contact);
+        }
+        long deltaTime = System.nanoTime() - start;
+        assertTrue(changedRawContacts.contains(editedRawContactId));
+        assertTrue(changedRawContacts.size() < CONTACT_COUNT / 100);
+
+        Log.i(TAG, new StringBuilder("Full synchronization of ").append(CONTACT_COUNT)
+                .append(" contacts: ").append(fullTime / 1000000).append("ms, delta of ")
+                .append(changedRawContacts.size()).append(" raw contacts: ")
+                .append(deltaTime / 1000000).append("ms").toString());
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.gsma.rcs.contact;
+
+import com.gsma.rcs.core.ims.service.ContactInfo;
+import com.gsma.rcs.core.ims.service.ContactInfo.RcsStatus;
+import com.gsma.rcs.core.ims.service.ContactInfo.RegistrationState;
+import com.gsma.rcs.core.ims.service.capability.Capabilities.CapabilitiesBuilder;
+import com.gsma.rcs.provider.LocalContentResolver;
+import com.gsma.rcs.provider.contact.ContactManager;
+import com.gsma.rcs.provider.settings.RcsSettings;
+import com.gsma.rcs.utils.ContactUtil;
+import com.gsma.services.rcs.contact.ContactId;
+
+import android.content.ContentResolver;
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.LargeTest;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the listing of the RCS contacts with one provider read per contact and the listing
+ * with a single query, on a big RCS contact provider. One contact out of ten supports the
+ * extension looked for. The contact info cache is filled by the insertions, which favours the
+ * listing per contact.
+ */
+@LargeTest
+public class RcsContactListingBenchmarkTest extends AndroidTestCase {
+
+    private static final String TAG = "RcsContactListingBenchmark";
+
+    private static final int CONTACT_COUNT = 10000;
+
+    private static final int EXTENSION_RATIO = 10;
+
+    private static final String EXTENSION = "gsma.benchmark";
+
+    private ContactManager mContactManager;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        ContentResolver contentResolver = getContext().getContentResolver();
+        LocalContentResolver localContentResolver = new LocalContentResolver(contentResolver);
+        RcsSettings rcsSettings = RcsSettings.createInstance(localContentResolver);
+        mContactManager = ContactManager.createInstance(getContext(), contentResolver,
+                localContentResolver, rcsSettings);
+        mContactManager.deleteRCSEntries();
+        for (int i = 0; i < CONTACT_COUNT; i++) {
+            CapabilitiesBuilder capaBuilder = new CapabilitiesBuilder();
+            capaBuilder.setImSession(true);
+            capaBuilder.setTimestampOfLastResponse(System.currentTimeMillis());
+            if (i % EXTENSION_RATIO == 0) {
+                capaBuilder.addExtension(EXTENSION);
+            }
+            ContactId contact = ContactUtil.createContactIdFromTrustedData("+336"
+                    + (10000000 + i));
+            mContactManager.setContactCapabilities(contact, capaBuilder.build(),
+                    RcsStatus.RCS_CAPABLE, RegistrationState.ONLINE);
+        }
+    }
+
+    protected void tearDown() throws Exception {
+        mContactManager.deleteRCSEntries();
+        super.tearDown();
+    }
+
+    private List<ContactInfo> getRcsContactInfosPerContact(String extension) {
+        List<ContactInfo> contactInfos = new ArrayList<ContactInfo>();
+        for (ContactId contact : mContactManager.getRcsContactsFromRcsContactProvider()) {
+            ContactInfo contactInfo = mContactManager.getContactInfo(contact);
+            if (extension == null
+                    || contactInfo.getCapabilities().getSupportedExtensions().contains(extension)) {
+                contactInfos.add(contactInfo);
+            }
+        }
+        return contactInfos;
+    }
+
+    public void testListing() {
+        long start = System.nanoTime();
+        List<ContactInfo> perContact = getRcsContactInfosPerContact(null);
+        long perContactTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<ContactInfo> bulk = mContactManager.getRcsContactInfos();
+        long bulkTime = System.nanoTime() - start;
+        assertEquals(perContact.size(), bulk.size());
+        assertTrue(bulk.size() >= CONTACT_COUNT);
+
+        Log.i(TAG, new StringBuilder("Listing of ").append(bulk.size())
+                .append(" contacts, per contact: ").append(perContactTime / 1000000)
+                .append("ms, single query: ").append(bulkTime / 1000000).append("ms")
+                .toString());
+    }
+
+    public void testListingSupporting() {
+        long start = System.nanoTime();
+        List<ContactInfo> perContact = getRcsContactInfosPerContact(EXTENSION);
+        long perContactTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<ContactInfo> bulk = mContactManager.getRcsContactInfosSupporting(EXTENSION);
+        long bulkTime = System.nanoTime() - start;
+        assertEquals(perContact.size(), bulk.size());
+        assertEquals(CONTACT_COUNT / EXTENSION_RATIO, bulk.size());
+        for (ContactInfo contactInfo : bulk) {
+            assertTrue(contactInfo.getCapabilities().getSupportedExtensions().contains(EXTENSION));
+        }
+
+        Log.i(TAG, new StringBuilder("Listing of ").append(bulk.size())
+                .append(" contacts supporting an extension, per contact: ")
+                .append(perContactTime / 1000000).append("ms, indexed query: ")
+                .append(bulkTime / 1000000).append("ms").toString());
+    }
+}
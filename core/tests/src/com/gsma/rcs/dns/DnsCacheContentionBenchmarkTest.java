@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.gsma.rcs.dns;
+
+import org.xbill.DNS.ARecord;
+import org.xbill.DNS.Cache;
+import org.xbill.DNS.Credibility;
+import org.xbill.DNS.DClass;
+import org.xbill.DNS.Name;
+import org.xbill.DNS.RRset;
+import org.xbill.DNS.Type;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.LargeTest;
+import android.util.Log;
+
+import java.net.InetAddress;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Measures the throughput of the DNS cache shared by concurrent lookups, with one write for every
+ * twenty reads of a working set of names, and checks that the names read most often are not
+ * evicted when the cache is full.
+ */
+@LargeTest
+public class DnsCacheContentionBenchmarkTest extends AndroidTestCase {
+
+    private static final String TAG = "DnsCacheContentionBenchmark";
+
+    private static final int NAME_COUNT = 1000;
+
+    private static final int OPERATIONS_PER_THREAD = 200000;
+
+    private static final int WRITE_INTERVAL = 20;
+
+    private static final int[] THREAD_COUNTS = new int[] {
+            1, 2, 4, 8
+    };
+
+    private Name[] mNames;
+
+    private RRset[] mRRsets;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        InetAddress address = InetAddress.getByAddress(new byte[] {
+                10, 0, 0, 1
+        });
+        mNames = new Name[NAME_COUNT];
+        mRRsets = new RRset[NAME_COUNT];
+        for (int i = 0; i < NAME_COUNT; i++) {
+            mNames[i] = Name.fromString("pcscf" + i + ".ims.test.");
+            mRRsets[i] = new RRset(new ARecord(mNames[i], DClass.IN, 3600, address));
+        }
+    }
+
+    private long run(final Cache cache, int threadCount) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            final Random random = new Random(t);
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                        int index = random.nextInt(NAME_COUNT);
+                        if (i % WRITE_INTERVAL == 0) {
+                            cache.addRRset(mRRsets[index], Credibility.AUTH_ANSWER);
+                        } else {
+                            cache.lookupRecords(mNames[index], Type.A, Credibility.NORMAL);
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        long startTime = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return System.nanoTime() - startTime;
+    }
+
+    public void testContention() throws InterruptedException {
+        for (int threadCount : THREAD_COUNTS) {
+            Cache cache = new Cache();
+            for (RRset rrset : mRRsets) {
+                cache.addRRset(rrset, Credibility.AUTH_ANSWER);
+            }
+            /* Warm up */
+            run(cache, threadCount);
+            long nanos = run(cache, threadCount);
+            long operations = (long) threadCount * OPERATIONS_PER_THREAD;
+            Log.i(TAG, threadCount + " threads: " + operations * 1000000L / nanos
+                    + " operations/ms, hits=" + cache.getHitCount() + ", misses="
+                    + cache.getMissCount());
+            assertEquals(0, cache.getMissCount());
+        }
+    }
+
+    public void testEvictionKeepsHotNames() {
+        Cache cache = new Cache();
+        cache.setMaxEntries(NAME_COUNT / 2);
+        for (int i = 0; i < NAME_COUNT / 2; i++) {
+            cache.addRRset(mRRsets[i], Credibility.AUTH_ANSWER);
+        }
+        int hotCount = NAME_COUNT / 20;
+        for (int i = NAME_COUNT / 2; i < NAME_COUNT; i++) {
+            /* The hot names keep being read while new names are added */
+            if (i % hotCount == 0) {
+                for (int j = 0; j < hotCount; j++) {
+                    assertNotNull(cache.findRecords(mNames[j], Type.A));
+                }
+            }
+            cache.addRRset(mRRsets[i], Credibility.AUTH_ANSWER);
+        }
+        assertEquals(NAME_COUNT / 2, cache.getSize());
+        assertEquals(NAME_COUNT / 2, cache.getEvictionCount());
+        for (int i = 0; i < hotCount; i++) {
+            assertNotNull(cache.findRecords(mNames[i], Type.A));
+        }
+        Log.i(TAG, "Evictions: " + cache.getEvictionCount());
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.gsma.rcs.dns;
+
+import com.gsma.rcs.core.ims.network.dns.DnsCache;
+
+import org.xbill.DNS.DClass;
+import org.xbill.DNS.Name;
+import org.xbill.DNS.Record;
+import org.xbill.DNS.SRVRecord;
+import org.xbill.DNS.Type;
+
+import android.test.AndroidTestCase;
+
+import java.io.File;
+
+public class DnsCacheTest extends AndroidTestCase {
+
+    private File mFile;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        mFile = new File(getContext().getCacheDir(), "dns_cache_test");
+        mFile.delete();
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        mFile.delete();
+    }
+
+    public void testSaveAndLoad() throws Exception {
+        Name name = Name.fromString("_sip._tcp.ims.test.");
+        Record srv = new SRVRecord(name, DClass.IN, 300, 10, 5, 5060,
+                Name.fromString("pcscf.ims.test."));
+        DnsCache cache = new DnsCache(mFile);
+        cache.put(name, Type.SRV, new Record[] {
+            srv
+        }, 300000);
+        cache.put(Name.fromString("none.ims.test."), Type.A, new Record[0], 300000);
+        cache.save();
+
+        DnsCache loaded = new DnsCache(mFile);
+        loaded.load();
+        DnsCache.Entry entry = loaded.get(Name.fromString("_SIP._TCP.IMS.TEST."), Type.SRV);
+        assertNotNull(entry);
+        assertEquals(1, entry.getRecords().length);
+        assertEquals(srv, entry.getRecords()[0]);
+        assertFalse(entry.isPrefetchDue(System.currentTimeMillis()));
+        assertEquals(0, loaded.get(Name.fromString("none.ims.test."), Type.A).getRecords().length);
+        assertNull(loaded.get(name, Type.A));
+    }
+
+    public void testExpiration() throws Exception {
+        Name name = Name.fromString("pcscf.ims.test.");
+        DnsCache cache = new DnsCache(mFile);
+        cache.put(name, Type.A, new Record[0], 1000);
+        assertTrue(cache.get(name, Type.A).isPrefetchDue(System.currentTimeMillis() + 950));
+        cache.put(name, Type.A, new Record[0], 0);
+        assertNull(cache.get(name, Type.A));
+        cache.save();
+
+        DnsCache loaded = new DnsCache(mFile);
+        loaded.load();
+        assertNull(loaded.get(name, Type.A));
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.gsma.rcs.dns;
+
+import com.gsma.rcs.core.ims.network.dns.DnsClient;
+
+import org.xbill.DNS.ARecord;
+import org.xbill.DNS.DClass;
+import org.xbill.DNS.Flags;
+import org.xbill.DNS.Message;
+import org.xbill.DNS.Name;
+import org.xbill.DNS.Record;
+import org.xbill.DNS.Section;
+import org.xbill.DNS.Type;
+
+import android.test.AndroidTestCase;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class DnsClientTest extends AndroidTestCase {
+
+    /* package private */static final long TIMEOUT = 10000;
+
+    /* package private */static final String NAME = "ims.example.com.";
+
+    private static final String ADDRESS = "10.0.0.1";
+
+    private static final String SPOOFED_ADDRESS = "10.6.6.6";
+
+    /**
+     * Name server on the loopback interface answering every A query with {@link #ADDRESS}
+     */
+    /* package private */static final class NameServer implements Runnable {
+
+        private final DatagramSocket mSocket;
+
+        private final List<Integer> mSourcePorts = new ArrayList<Integer>();
+
+        /**
+         * Number of queries left unanswered before the next ones are answered
+         */
+        private volatile int mIgnoredQueries;
+
+        /**
+         * Whether an answer with another id and an answer to another question are sent before the
+         * real answer
+         */
+        private volatile boolean mSpoofing;
+
+        /* package private */NameServer() throws IOException {
+            mSocket = new DatagramSocket(0, InetAddress.getByName("127.0.0.1"));
+            Thread thread = new Thread(this, "NameServer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        /* package private */InetSocketAddress getAddress() {
+            return (InetSocketAddress) mSocket.getLocalSocketAddress();
+        }
+
+        /* package private */int getQueryCount() {
+            synchronized (mSourcePorts) {
+                return mSourcePorts.size();
+            }
+        }
+
+        /* package private */List<Integer> getSourcePorts() {
+            synchronized (mSourcePorts) {
+                return new ArrayList<Integer>(mSourcePorts);
+            }
+        }
+
+        /* package private */void close() {
+            mSocket.close();
+        }
+
+        private void send(Message answer, DatagramPacket query) throws IOException {
+            byte[] data = answer.toWire();
+            mSocket.send(new DatagramPacket(data, data.length, query.getSocketAddress()));
+        }
+
+        private static Message answer(int id, Record question, String address)
+                throws IOException {
+            Message answer = new Message(id);
+            answer.getHeader().setFlag(Flags.QR);
+            answer.addRecord(question, Section.QUESTION);
+            answer.addRecord(new ARecord(question.getName(), DClass.IN, 60, InetAddress
+                    .getByName(address)), Section.ANSWER);
+            return answer;
+        }
+
+        @Override
+        public void run() {
+            byte[] buffer = new byte[4096];
+            while (!mSocket.isClosed()) {
+                try {
+                    DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                    mSocket.receive(packet);
+                    byte[] data = new byte[packet.getLength()];
+                    System.arraycopy(buffer, 0, data, 0, data.length);
+                    Message query = new Message(data);
+                    synchronized (mSourcePorts) {
+                        mSourcePorts.add(packet.getPort());
+                    }
+                    if (mIgnoredQueries > 0) {
+                        mIgnoredQueries--;
+                        continue;
+                    }
+                    int id = query.getHeader().getID();
+                    Record question = query.getQuestion();
+                    if (mSpoofing) {
+                        send(answer((id + 1) & 0xFFFF, question, SPOOFED_ADDRESS), packet);
+                        send(answer(id, Record.newRecord(Name.fromString("spoofed.example.com."),
+                                Type.A, DClass.IN), SPOOFED_ADDRESS), packet);
+                    }
+                    send(answer(id, question, ADDRESS), packet);
+                } catch (IOException e) {
+                    /* Closed by the test */
+                }
+            }
+        }
+    }
+
+    private static final class Answer implements DnsClient.Callback {
+
+        private final CountDownLatch mDone = new CountDownLatch(1);
+
+        private volatile Message mResponse;
+
+        private volatile IOException mError;
+
+        @Override
+        public void onResponse(Message response) {
+            mResponse = response;
+            mDone.countDown();
+        }
+
+        @Override
+        public void onFailure(IOException e) {
+            mError = e;
+            mDone.countDown();
+        }
+
+        private void await() throws InterruptedException {
+            assertTrue(mDone.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private NameServer mServer;
+
+    private DnsClient mClient;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mServer = new NameServer();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (mClient != null) {
+            mClient.shutdown();
+        }
+        mServer.close();
+        super.tearDown();
+    }
+
+    private static Record question() throws IOException {
+        return Record.newRecord(Name.fromString(NAME), Type.A, DClass.IN);
+    }
+
+    private static String getAddress(Message response) {
+        Record[] records = response.getSectionArray(Section.ANSWER);
+        assertEquals(1, records.length);
+        return ((ARecord) records[0]).getAddress().getHostAddress();
+    }
+
+    public void testQueryIsAnswered() throws Exception {
+        mClient = new DnsClient(mServer.getAddress());
+        Answer answer = new Answer();
+        mClient.query(question(), answer);
+        answer.await();
+        assertNull(answer.mError);
+        assertEquals(ADDRESS, getAddress(answer.mResponse));
+    }
+
+    public void testSpoofedAnswersAreIgnored() throws Exception {
+        mServer.mSpoofing = true;
+        mClient = new DnsClient(mServer.getAddress());
+        Answer answer = new Answer();
+        mClient.query(question(), answer);
+        answer.await();
+        assertNull(answer.mError);
+        assertEquals(ADDRESS, getAddress(answer.mResponse));
+    }
+
+    public void testEachAttemptUsesNewSocket() throws Exception {
+        mServer.mIgnoredQueries = 1;
+        mClient = new DnsClient(mServer.getAddress(), mServer.getAddress());
+        Answer answer = new Answer();
+        mClient.query(question(), answer);
+        answer.await();
+        assertNull(answer.mError);
+        assertEquals(ADDRESS, getAddress(answer.mResponse));
+        List<Integer> ports = mServer.getSourcePorts();
+        assertEquals(2, ports.size());
+        assertEquals(2, new HashSet<Integer>(ports).size());
+    }
+
+    public void testConcurrentQueriesUseDistinctSockets() throws Exception {
+        mClient = new DnsClient(mServer.getAddress());
+        Answer first = new Answer();
+        Answer second = new Answer();
+        mClient.query(question(), first);
+        mClient.query(question(), second);
+        first.await();
+        second.await();
+        assertEquals(ADDRESS, getAddress(first.mResponse));
+        assertEquals(ADDRESS, getAddress(second.mResponse));
+        assertEquals(2, new HashSet<Integer>(mServer.getSourcePorts()).size());
+    }
+
+    public void testQueryFailsWithoutNameServer() throws Exception {
+        mClient = new DnsClient(new InetSocketAddress[0]);
+        Answer answer = new Answer();
+        mClient.query(question(), answer);
+        answer.await();
+        assertNull(answer.mResponse);
+        assertNotNull(answer.mError);
+    }
+}
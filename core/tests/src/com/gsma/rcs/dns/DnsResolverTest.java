@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.gsma.rcs.dns;
+
+import com.gsma.rcs.core.ims.network.dns.DnsCache;
+import com.gsma.rcs.core.ims.network.dns.DnsClient;
+import com.gsma.rcs.core.ims.network.dns.DnsResolver;
+
+import org.xbill.DNS.Record;
+import org.xbill.DNS.Type;
+
+import android.test.AndroidTestCase;
+
+import java.net.InetSocketAddress;
+
+public class DnsResolverTest extends AndroidTestCase {
+
+    private DnsClientTest.NameServer mServer;
+
+    private DnsClient mClient;
+
+    private DnsResolver mResolver;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mServer = new DnsClientTest.NameServer();
+        mClient = new DnsClient(mServer.getAddress());
+        mResolver = new DnsResolver(mClient, new DnsCache(null));
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mClient.shutdown();
+        mServer.close();
+        super.tearDown();
+    }
+
+    public void testAnswerIsCached() throws Exception {
+        Record[] records = mResolver.lookup(DnsClientTest.NAME, Type.A).get();
+        assertEquals(1, records.length);
+        assertEquals(1, mServer.getQueryCount());
+        records = mResolver.lookup(DnsClientTest.NAME, Type.A).get();
+        assertEquals(1, records.length);
+        assertEquals(1, mServer.getQueryCount());
+    }
+
+    public void testFlushDropsCachedAnswers() throws Exception {
+        assertEquals(1, mResolver.lookup(DnsClientTest.NAME, Type.A).get().length);
+        mResolver.flush();
+        assertEquals(1, mResolver.lookup(DnsClientTest.NAME, Type.A).get().length);
+        assertEquals(2, mServer.getQueryCount());
+    }
+
+    public void testLookupFailsWithoutNameServer() throws Exception {
+        DnsClient client = new DnsClient(new InetSocketAddress[0]);
+        try {
+            DnsResolver resolver = new DnsResolver(client, new DnsCache(null));
+            assertNull(resolver.lookup(DnsClientTest.NAME, Type.A).get());
+        } finally {
+            client.shutdown();
+        }
+    }
+}
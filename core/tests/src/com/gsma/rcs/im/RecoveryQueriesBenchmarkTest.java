@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.gsma.rcs.im;
+
+import com.gsma.rcs.provider.LocalContentResolver;
+import com.gsma.rcs.provider.messaging.FileTransferData;
+import com.gsma.rcs.provider.messaging.MessageData;
+import com.gsma.rcs.provider.messaging.MessagingLog;
+import com.gsma.rcs.provider.settings.RcsSettings;
+import com.gsma.services.rcs.RcsService.Direction;
+import com.gsma.services.rcs.RcsService.ReadStatus;
+import com.gsma.services.rcs.chat.ChatLog.Message.Content;
+import com.gsma.services.rcs.filetransfer.FileTransfer;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.LargeTest;
+import android.util.Log;
+
+/**
+ * Times the queries run by the dequeue and recovery tasks at service start-up on a big history.
+ * Most rows are delivered one-to-one messages and transfers, one in a hundred is queued or has a
+ * pending delivery expiration, which is the typical shape of a long-lived history.
+ */
+@LargeTest
+public class RecoveryQueriesBenchmarkTest extends AndroidTestCase {
+
+    private static final String TAG = "RecoveryQueriesBenchmark";
+
+    private static final int ROW_COUNT = 500000;
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private static final int PENDING_ROW_INTERVAL = 100;
+
+    private static final int CONTACT_COUNT = 1000;
+
+    private LocalContentResolver mLocalContentResolver;
+
+    private MessagingLog mMessagingLog;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        mLocalContentResolver = new LocalContentResolver(getContext().getContentResolver());
+        RcsSettings rcsSettings = RcsSettings.createInstance(mLocalContentResolver);
+        mMessagingLog = MessagingLog.createInstance(mLocalContentResolver, rcsSettings);
+        mMessagingLog.deleteAllEntries();
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        mMessagingLog.deleteAllEntries();
+    }
+
+    private static String getContact(int row) {
+        return "+3390" + (row % CONTACT_COUNT);
+    }
+
+    private static ContentValues getMessageValues(int row) {
+        boolean pending = row % PENDING_ROW_INTERVAL == 0;
+        String contact = getContact(row);
+        ContentValues values = new ContentValues();
+        values.put(MessageData.KEY_MESSAGE_ID, "msg" + row);
+        values.put(MessageData.KEY_CHAT_ID, contact);
+        values.put(MessageData.KEY_CONTACT, contact);
+        values.put(MessageData.KEY_CONTENT, "benchmark");
+        values.put(MessageData.KEY_MIME_TYPE, "text/plain");
+        values.put(MessageData.KEY_DIRECTION, Direction.OUTGOING.toInt());
+        values.put(MessageData.KEY_STATUS, pending ? Content.Status.QUEUED.toInt()
+                : Content.Status.DELIVERED.toInt());
+        values.put(MessageData.KEY_REASON_CODE, Content.ReasonCode.UNSPECIFIED.toInt());
+        values.put(MessageData.KEY_READ_STATUS, ReadStatus.READ.toInt());
+        values.put(MessageData.KEY_TIMESTAMP, row);
+        values.put(MessageData.KEY_TIMESTAMP_SENT, row);
+        values.put(MessageData.KEY_TIMESTAMP_DELIVERED, pending ? 0 : row);
+        values.put(MessageData.KEY_TIMESTAMP_DISPLAYED, 0);
+        values.put(MessageData.KEY_DELIVERY_EXPIRATION, pending ? row : 0);
+        values.put(MessageData.KEY_EXPIRED_DELIVERY, 0);
+        return values;
+    }
+
+    private static ContentValues getFileTransferValues(int row) {
+        boolean pending = row % PENDING_ROW_INTERVAL == 0;
+        String contact = getContact(row);
+        ContentValues values = new ContentValues();
+        values.put(FileTransferData.KEY_FT_ID, "ft" + row);
+        values.put(FileTransferData.KEY_CHAT_ID, contact);
+        values.put(FileTransferData.KEY_CONTACT, contact);
+        values.put(FileTransferData.KEY_FILE, "content://file/image.jpg");
+        values.put(FileTransferData.KEY_FILENAME, "image.jpg");
+        values.put(FileTransferData.KEY_MIME_TYPE, "image/jpeg");
+        values.put(FileTransferData.KEY_DIRECTION, Direction.OUTGOING.toInt());
+        values.put(FileTransferData.KEY_STATE, pending ? FileTransfer.State.QUEUED.toInt()
+                : FileTransfer.State.DELIVERED.toInt());
+        values.put(FileTransferData.KEY_REASON_CODE, FileTransfer.ReasonCode.UNSPECIFIED.toInt());
+        values.put(FileTransferData.KEY_READ_STATUS, ReadStatus.READ.toInt());
+        values.put(FileTransferData.KEY_TIMESTAMP, row);
+        values.put(FileTransferData.KEY_TIMESTAMP_SENT, row);
+        values.put(FileTransferData.KEY_TIMESTAMP_DELIVERED, pending ? 0 : row);
+        values.put(FileTransferData.KEY_TIMESTAMP_DISPLAYED, 0);
+        values.put(FileTransferData.KEY_DELIVERY_EXPIRATION, pending ? row : 0);
+        values.put(FileTransferData.KEY_EXPIRED_DELIVERY, 0);
+        values.put(FileTransferData.KEY_TRANSFERRED, 0);
+        values.put(FileTransferData.KEY_FILESIZE, 1024);
+        values.put(FileTransferData.KEY_FILEICON_EXPIRATION, 0);
+        values.put(FileTransferData.KEY_FILE_EXPIRATION, 0);
+        return values;
+    }
+
+    private void populate() {
+        ContentValues[] messages = new ContentValues[INSERT_BATCH_SIZE];
+        ContentValues[] fileTransfers = new ContentValues[INSERT_BATCH_SIZE];
+        for (int row = 0; row < ROW_COUNT; row += INSERT_BATCH_SIZE) {
+            for (int i = 0; i < INSERT_BATCH_SIZE; i++) {
+                messages[i] = getMessageValues(row + i);
+                fileTransfers[i] = getFileTransferValues(row + i);
+            }
+            mLocalContentResolver.bulkInsert(MessageData.CONTENT_URI, messages);
+            mLocalContentResolver.bulkInsert(FileTransferData.CONTENT_URI, fileTransfers);
+        }
+    }
+
+    private int drain(String name, Cursor cursor) {
+        long start = System.nanoTime();
+        try {
+            int count = 0;
+            while (cursor.moveToNext()) {
+                count++;
+            }
+            return count;
+
+        } finally {
+            cursor.close();
+            Log.i(TAG, name + ": " + (System.nanoTime() - start) / 1000000 + " ms");
+        }
+    }
+
+    public void testRecoveryQueries() {
+        populate();
+        int expectedPending = ROW_COUNT / PENDING_ROW_INTERVAL;
+        long start = System.nanoTime();
+        assertEquals(expectedPending,
+                drain("getAllQueuedOneToOneChatMessages",
+                        mMessagingLog.getAllQueuedOneToOneChatMessages()));
+        assertEquals(expectedPending,
+                drain("getUndeliveredOneToOneChatMessages",
+                        mMessagingLog.getUndeliveredOneToOneChatMessages()));
+        assertEquals(expectedPending,
+                drain("getQueuedAndUploadedButNotTransferredFileTransfers",
+                        mMessagingLog.getQueuedAndUploadedButNotTransferredFileTransfers()));
+        assertEquals(0,
+                drain("getInterruptedFileTransfers", mMessagingLog.getInterruptedFileTransfers()));
+        assertEquals(expectedPending,
+                drain("getUnDeliveredOneToOneFileTransfers",
+                        mMessagingLog.getUnDeliveredOneToOneFileTransfers()));
+        Log.i(TAG, "Start-up recovery queries on " + ROW_COUNT + " rows: "
+                + (System.nanoTime() - start) / 1000000 + " ms");
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.gsma.rcs.im.chat;
+
+import com.gsma.rcs.provider.LocalContentResolver;
+import com.gsma.rcs.provider.messaging.MessagingBatchWriter;
+import com.gsma.rcs.service.api.ServerApiPersistentStorageException;
+
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
+import android.content.ContentValues;
+import android.content.OperationApplicationException;
+import android.net.Uri;
+import android.test.AndroidTestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class MessagingBatchWriterTest extends AndroidTestCase {
+
+    private static final long TIMEOUT = 5000;
+
+    private static final String FAULTY_ID = "faulty";
+
+    /**
+     * Writer recording the committed rows instead of writing them to a provider. The first commit
+     * waits for the test so that the rows queued meanwhile are batched, and the faulty row fails
+     * any batch it is part of.
+     */
+    private static final class RecordingWriter extends MessagingBatchWriter {
+
+        private final CountDownLatch mFirstCommit = new CountDownLatch(1);
+
+        private final CountDownLatch mRelease = new CountDownLatch(1);
+
+        private final List<String> mCommittedIds = Collections
+                .synchronizedList(new ArrayList<String>());
+
+        private volatile int mBatchCount;
+
+        private RecordingWriter(LocalContentResolver localContentResolver) {
+            super(localContentResolver, "test");
+        }
+
+        @Override
+        protected ContentProviderResult[] applyBatch(
+                ArrayList<ContentProviderOperation> operations)
+                throws OperationApplicationException {
+            mFirstCommit.countDown();
+            try {
+                mRelease.await(TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            mBatchCount++;
+            List<String> ids = new ArrayList<String>();
+            for (ContentProviderOperation operation : operations) {
+                String id = operation.getUri().getLastPathSegment();
+                if (FAULTY_ID.equals(id)) {
+                    throw new OperationApplicationException("Faulty row");
+                }
+                ids.add(id);
+            }
+            mCommittedIds.addAll(ids);
+            return new ContentProviderResult[operations.size()];
+        }
+    }
+
+    /**
+     * Callback recording the order and the thread of the notifications
+     */
+    private static final class Notification implements Runnable {
+
+        private final String mId;
+
+        private final List<String> mNotifiedIds;
+
+        private final CountDownLatch mDone;
+
+        private volatile Thread mThread;
+
+        private Notification(String id, List<String> notifiedIds, CountDownLatch done) {
+            mId = id;
+            mNotifiedIds = notifiedIds;
+            mDone = done;
+        }
+
+        @Override
+        public void run() {
+            mThread = Thread.currentThread();
+            mNotifiedIds.add(mId);
+            mDone.countDown();
+        }
+    }
+
+    private final List<String> mNotifiedIds = Collections
+            .synchronizedList(new ArrayList<String>());
+
+    private RecordingWriter mWriter;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mWriter = new RecordingWriter(new LocalContentResolver(getContext()));
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mWriter.mRelease.countDown();
+        mWriter.close();
+        super.tearDown();
+    }
+
+    private Notification queue(String id, CountDownLatch done) {
+        Notification notification = new Notification(id, mNotifiedIds, done);
+        mWriter.queueInsert(Uri.parse("content://test/".concat(id)), id, new ContentValues(),
+                notification);
+        return notification;
+    }
+
+    public void testCallbacksRunInQueueOrderOnWriterThread() throws Exception {
+        CountDownLatch done = new CountDownLatch(10);
+        List<Notification> notifications = new ArrayList<Notification>();
+        notifications.add(queue("0", done));
+        assertTrue(mWriter.mFirstCommit.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        for (int i = 1; i < 10; i++) {
+            notifications.add(queue(Integer.toString(i), done));
+        }
+        mWriter.mRelease.countDown();
+        assertTrue(done.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 10; i++) {
+            expected.add(Integer.toString(i));
+        }
+        assertEquals(expected, mNotifiedIds);
+        assertEquals(expected, mWriter.mCommittedIds);
+        /* The rows queued during the first commit are committed together */
+        assertEquals(2, mWriter.mBatchCount);
+        for (Notification notification : notifications) {
+            assertNotSame(Thread.currentThread(), notification.mThread);
+        }
+    }
+
+    public void testFlushIfPendingCommitsRowWithoutRunningCallbacks() throws Exception {
+        CountDownLatch done = new CountDownLatch(2);
+        queue("0", done);
+        assertTrue(mWriter.mFirstCommit.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        Notification notification = queue("1", done);
+        assertTrue(mWriter.isPending("1"));
+        mWriter.mRelease.countDown();
+        mWriter.flushIfPending("1");
+        assertFalse(mWriter.isPending("1"));
+        assertTrue(mWriter.mCommittedIds.contains("1"));
+        assertTrue(done.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        assertNotSame(Thread.currentThread(), notification.mThread);
+    }
+
+    public void testFailedBatchIsCommittedOneByOne() throws Exception {
+        CountDownLatch done = new CountDownLatch(3);
+        queue("0", done);
+        assertTrue(mWriter.mFirstCommit.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        queue("1", done);
+        queue(FAULTY_ID, done);
+        queue("2", done);
+        mWriter.mRelease.countDown();
+        assertTrue(done.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        mWriter.flush();
+        assertEquals(3, mNotifiedIds.size());
+        assertFalse(mNotifiedIds.contains(FAULTY_ID));
+        assertEquals(mNotifiedIds, mWriter.mCommittedIds);
+        assertFalse(mWriter.isPending(FAULTY_ID));
+    }
+
+    public void testInsertFailsIfRowIsNotCommitted() throws Exception {
+        mWriter.mRelease.countDown();
+        try {
+            mWriter.insert(Uri.parse("content://test/".concat(FAULTY_ID)), FAULTY_ID,
+                    new ContentValues());
+            fail("Insert of a faulty row should fail");
+        } catch (ServerApiPersistentStorageException e) {
+            assertFalse(mWriter.isPending(FAULTY_ID));
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.gsma.rcs.provisioning;
+
+import com.gsma.rcs.provider.LocalContentResolver;
+import com.gsma.rcs.provider.settings.RcsSettings;
+import com.gsma.rcs.provider.settings.RcsSettingsData;
+import com.gsma.rcs.provider.settings.RcsSettingsData.GsmaRelease;
+import com.gsma.services.rcs.CommonServiceConfiguration.MessagingMode;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.LargeTest;
+import android.util.Log;
+
+/**
+ * Measures the parsing of a representative operator configuration, the first time when most
+ * parameters change and then when the same configuration is received again as at every boot,
+ * and compares it with the writing of one parameter per transaction as done before the
+ * parameters were staged.
+ */
+@LargeTest
+public class ProvisioningParserBenchmarkTest extends AndroidTestCase {
+
+    private static final String TAG = "ProvisioningParserBenchmark";
+
+    /**
+     * Number of parameters written by the parsing of a full configuration
+     */
+    private static final int WRITE_COUNT = 76;
+
+    private static final String[] WRITTEN_KEYS = new String[] {
+            RcsSettingsData.SIP_TIMER_T1, RcsSettingsData.SIP_TIMER_T2,
+            RcsSettingsData.SIP_TIMER_T4, RcsSettingsData.IMS_PROXY_ADDR_MOBILE,
+            RcsSettingsData.MAX_CHAT_SESSIONS, RcsSettingsData.IM_CONF_URI,
+            RcsSettingsData.FT_HTTP_SERVER, RcsSettingsData.CAPABILITY_POLLING_PERIOD
+    };
+
+    private RcsSettings mRcsSettings;
+
+    private GsmaRelease mRelease;
+
+    private MessagingMode mMessagingMode;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        mRcsSettings = RcsSettings.createInstance(new LocalContentResolver(getContext()));
+        mRelease = mRcsSettings.getGsmaRelease();
+        mMessagingMode = mRcsSettings.getMessagingMode();
+    }
+
+    protected void tearDown() throws Exception {
+        mRcsSettings.setGsmaRelease(mRelease);
+        mRcsSettings.setMessagingMode(mMessagingMode);
+        super.tearDown();
+    }
+
+    private static void appendParm(StringBuilder xml, String name, String value) {
+        xml.append("<parm name=\"").append(name).append("\" value=\"").append(value)
+                .append("\"/>");
+    }
+
+    private static String createConfiguration() {
+        StringBuilder xml = new StringBuilder(
+                "<?xml version=\"1.0\"?><wap-provisioningdoc version=\"1.1\">");
+        xml.append("<characteristic type=\"VERS\">");
+        appendParm(xml, "version", "42");
+        appendParm(xml, "validity", "864000");
+        xml.append("</characteristic><characteristic type=\"TOKEN\">");
+        appendParm(xml, "token", "0123456789abcdef");
+        xml.append("</characteristic><characteristic type=\"APPLICATION\">");
+        appendParm(xml, "AppID", "ap2001");
+        appendParm(xml, "Name", "IMS Settings");
+        appendParm(xml, "AppRef", "IMS-Settings");
+        xml.append("<characteristic type=\"ConRefs\">");
+        appendParm(xml, "ConRef", "rcs");
+        xml.append("</characteristic><characteristic type=\"Public_user_identity_List\">");
+        appendParm(xml, "Public_user_identity", "sip:+33612345678@ims.operator.com");
+        xml.append("</characteristic><characteristic type=\"LBO_P-CSCF_Address\">");
+        appendParm(xml, "Address", "pcscf.ims.operator.com:5060");
+        appendParm(xml, "AddressType", "FQDN");
+        xml.append("</characteristic><characteristic type=\"APPAUTH\">");
+        appendParm(xml, "AuthType", "Digest");
+        appendParm(xml, "Realm", "ims.operator.com");
+        appendParm(xml, "UserName", "+33612345678@ims.operator.com");
+        appendParm(xml, "UserPwd", "secret");
+        xml.append("</characteristic>");
+        appendParm(xml, "Timer_T1", "2000");
+        appendParm(xml, "Timer_T2", "16000");
+        appendParm(xml, "Timer_T4", "17000");
+        appendParm(xml, "Private_User_Identity", "+33612345678@ims.operator.com");
+        appendParm(xml, "Home_network_domain_name", "ims.operator.com");
+        appendParm(xml, "Keep_Alive_Enabled", "1");
+        appendParm(xml, "RegRetryBaseTime", "30");
+        appendParm(xml, "RegRetryMaxTime", "1800");
+        xml.append("</characteristic><characteristic type=\"APPLICATION\">");
+        appendParm(xml, "AppID", "urn:oma:mo:ext-3gpp-ims:1.0");
+        appendParm(xml, "AppRef", "RCSe-Settings");
+        xml.append("<characteristic type=\"IMS\">");
+        appendParm(xml, "To-AppRef", "IMS-Settings");
+        xml.append("</characteristic><characteristic type=\"SERVICES\">");
+        appendParm(xml, "ChatAuth", "1");
+        appendParm(xml, "groupChatAuth", "1");
+        appendParm(xml, "ftAuth", "1");
+        appendParm(xml, "vsAuth", "1");
+        appendParm(xml, "isAuth", "1");
+        appendParm(xml, "geolocPushAuth", "1");
+        appendParm(xml, "presencePrfl", "0");
+        appendParm(xml, "rcsIPVoiceCallAuth", "0");
+        appendParm(xml, "rcsIPVideoCallAuth", "0");
+        appendParm(xml, "allowRCSExtensions", "1");
+        xml.append("</characteristic><characteristic type=\"PRESENCE\">");
+        appendParm(xml, "usePresence", "0");
+        appendParm(xml, "IconMaxSize", "262144");
+        appendParm(xml, "NoteMaxSize", "200");
+        appendParm(xml, "PublishTimer", "1200");
+        xml.append("</characteristic><characteristic type=\"XDMS\">");
+        appendParm(xml, "RevokeTimer", "3600");
+        appendParm(xml, "XCAPRootURI", "xcap.ims.operator.com");
+        xml.append("</characteristic><characteristic type=\"IM\">");
+        appendParm(xml, "imCapAlwaysON", "1");
+        appendParm(xml, "imWarnSF", "0");
+        appendParm(xml, "ftCapAlwaysON", "1");
+        appendParm(xml, "ftHTTPCapAlwaysOn", "1");
+        appendParm(xml, "ftAutAccept", "1");
+        appendParm(xml, "ftHTTPCSURI", "https://ft.ims.operator.com/upload");
+        appendParm(xml, "ftHTTPCSUser", "user");
+        appendParm(xml, "ftHTTPCSPwd", "password");
+        appendParm(xml, "ftDefaultMech", "HTTP");
+        appendParm(xml, "imSessionStart", "1");
+        appendParm(xml, "ftWarnSize", "5120");
+        appendParm(xml, "AutAccept", "1");
+        appendParm(xml, "AutAcceptGroupChat", "1");
+        appendParm(xml, "MaxSize1to1", "8192");
+        appendParm(xml, "MaxSize1toM", "8192");
+        appendParm(xml, "TimerIdle", "300");
+        appendParm(xml, "MaxSizeFileTr", "10240");
+        appendParm(xml, "ftThumb", "1");
+        appendParm(xml, "max_adhoc_group_size", "100");
+        appendParm(xml, "conf-fcty-uri", "sip:conference@ims.operator.com");
+        appendParm(xml, "MaxConcurrentSession", "20");
+        appendParm(xml, "firstMsgInvite", "1");
+        xml.append("</characteristic><characteristic type=\"CAPDISCOVERY\">");
+        appendParm(xml, "pollingPeriod", "0");
+        appendParm(xml, "capInfoExpiry", "604800");
+        appendParm(xml, "presenceDisc", "0");
+        xml.append("</characteristic><characteristic type=\"APN\">");
+        appendParm(xml, "rcseOnlyAPN", "rcs.operator.com");
+        appendParm(xml, "enableRcseSwitch", "1");
+        xml.append("</characteristic><characteristic type=\"OTHER\">");
+        appendParm(xml, "endUserConfReqId", "+33612345678@ims.operator.com");
+        appendParm(xml, "deviceID", "0");
+        appendParm(xml, "IPCallBreakOut", "0");
+        appendParm(xml, "IPCallBreakOutCS", "0");
+        appendParm(xml, "extensionsMaxMSRPSize", "8192");
+        xml.append("<characteristic type=\"transportProto\">");
+        appendParm(xml, "psSignalling", "SIPoTCP");
+        appendParm(xml, "psMedia", "MSRP");
+        appendParm(xml, "psRTMedia", "RTP");
+        appendParm(xml, "wifiSignalling", "SIPoTLS");
+        appendParm(xml, "wifiMedia", "MSRPoTLS");
+        appendParm(xml, "wifiRTMedia", "SRTP");
+        xml.append("</characteristic></characteristic></characteristic></wap-provisioningdoc>");
+        return xml.toString();
+    }
+
+    private long parse(String configuration) {
+        mRcsSettings.setGsmaRelease(GsmaRelease.ALBATROS);
+        mRcsSettings.setMessagingMode(MessagingMode.NONE);
+        long start = System.nanoTime();
+        assertTrue(new ProvisioningParser(configuration, mRcsSettings).parse(mRelease,
+                mMessagingMode, false));
+        return System.nanoTime() - start;
+    }
+
+    public void testParsing() {
+        String configuration = createConfiguration();
+        long firstTime = parse(configuration);
+        long sameTime = parse(configuration);
+        assertEquals("2000", mRcsSettings.readParameter(RcsSettingsData.SIP_TIMER_T1));
+
+        long start = System.nanoTime();
+        for (int i = 0; i < WRITE_COUNT; i++) {
+            String key = WRITTEN_KEYS[i % WRITTEN_KEYS.length];
+            mRcsSettings.writeParameter(key, mRcsSettings.readParameter(key));
+        }
+        long perParameterTime = System.nanoTime() - start;
+
+        Log.i(TAG, new StringBuilder("Configuration of ").append(configuration.length())
+                .append(" bytes, first parsing: ").append(firstTime / 1000000)
+                .append("ms, same configuration: ").append(sameTime / 1000000).append("ms, ")
+                .append(WRITE_COUNT).append(" writes in their own transaction: ")
+                .append(perParameterTime / 1000000).append("ms").toString());
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.gsma.rcs.richcall;
+
+import com.gsma.rcs.core.ims.protocol.rtp.core.RtcpFeedbackPacket;
+import com.gsma.rcs.core.ims.protocol.rtp.core.RtcpPacket;
+
+import android.test.AndroidTestCase;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class RtcpFeedbackPacketTest extends AndroidTestCase {
+
+    private static final int SENDER_SSRC = 0x11223344;
+
+    private static final int MEDIA_SSRC = 0x55667788;
+
+    public void testNackRoundTrip() {
+        int lost[] = new int[] {
+                10, 11, 26, 27, 40, 65535
+        };
+        RtcpFeedbackPacket nack = RtcpFeedbackPacket.createNack(SENDER_SSRC, MEDIA_SSRC, lost);
+        /* 10 covers 11 and 26 in its bitmask, 27 covers 40, 65535 needs its own entry */
+        assertEquals(12, nack.data.length);
+        assertTrue(Arrays.equals(lost, nack.getLostSequenceNumbers()));
+    }
+
+    public void testNackWrapAround() {
+        int lost[] = new int[] {
+                65534, 0, 1
+        };
+        RtcpFeedbackPacket nack = RtcpFeedbackPacket.createNack(SENDER_SSRC, MEDIA_SSRC, lost);
+        assertEquals(4, nack.data.length);
+        assertTrue(Arrays.equals(lost, nack.getLostSequenceNumbers()));
+    }
+
+    public void testPli() {
+        RtcpFeedbackPacket pli = RtcpFeedbackPacket.createPli(SENDER_SSRC, MEDIA_SSRC);
+        assertTrue(pli.isKeyFrameRequest());
+        assertEquals(-1, pli.getMaxBitrate());
+        assertEquals(0, pli.getLostSequenceNumbers().length);
+        assertEquals(12, pli.calcLength());
+    }
+
+    public void testTmmbrBitrate() {
+        byte fci[] = ByteBuffer.allocate(8).putInt(MEDIA_SSRC)
+                .putInt((1 << 26) | (128000 << 9) | 40).array();
+        RtcpFeedbackPacket tmmbr = new RtcpFeedbackPacket(RtcpPacket.RTCP_RTPFB,
+                RtcpFeedbackPacket.FMT_TMMBR, SENDER_SSRC, 0, fci);
+        assertEquals(256000, tmmbr.getMaxBitrate());
+        assertFalse(tmmbr.isKeyFrameRequest());
+    }
+
+    public void testRembBitrate() {
+        byte fci[] = ByteBuffer.allocate(12).putInt(0x52454d42)
+                .putInt((1 << 24) | (1 << 18) | 250000).putInt(MEDIA_SSRC).array();
+        RtcpFeedbackPacket remb = new RtcpFeedbackPacket(RtcpPacket.RTCP_PSFB,
+                RtcpFeedbackPacket.FMT_AFB, SENDER_SSRC, 0, fci);
+        assertEquals(500000, remb.getMaxBitrate());
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.gsma.rcs.richcall;
+
+import com.gsma.rcs.core.ims.protocol.rtp.core.RtcpSession;
+import com.gsma.rcs.core.ims.protocol.rtp.core.RtpExtensionHeader;
+import com.gsma.rcs.core.ims.protocol.rtp.core.RtpPacket;
+import com.gsma.rcs.core.ims.protocol.rtp.core.RtpPacketTransmitter;
+import com.gsma.rcs.core.ims.protocol.rtp.format.video.CameraOptions;
+import com.gsma.rcs.core.ims.protocol.rtp.format.video.H264VideoFormat;
+import com.gsma.rcs.core.ims.protocol.rtp.format.video.Orientation;
+import com.gsma.rcs.core.ims.protocol.rtp.format.video.VideoOrientation;
+import com.gsma.rcs.core.ims.protocol.rtp.util.Buffer;
+import com.gsma.rcs.core.ims.protocol.rtp.util.Packet;
+import com.gsma.rcs.platform.network.NetworkFactory;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.LargeTest;
+import android.util.Log;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+
+/**
+ * Measures the number of video RTP packets per second the transmitter serializes and sends to a
+ * local receiver, compared to the former path which built the packet objects, assembled them
+ * through a stream and resolved the remote address for each packet.
+ */
+@LargeTest
+public class RtpSendBenchmarkTest extends AndroidTestCase {
+
+    private static final String TAG = "RtpSendBenchmark";
+
+    private static final String LOOPBACK = "127.0.0.1";
+
+    private static final int PACKET_COUNT = 20000;
+
+    private static final int PAYLOAD_SIZE = 1200;
+
+    private DatagramChannel mReceiver;
+
+    private int mReceiverPort;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        NetworkFactory.loadFactory("com.gsma.rcs.platform.network.AndroidNetworkFactory");
+        mReceiver = DatagramChannel.open();
+        mReceiver.socket().bind(new InetSocketAddress(LOOPBACK, 0));
+        mReceiverPort = mReceiver.socket().getLocalPort();
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        mReceiver.close();
+    }
+
+    private static Buffer createBuffer(byte[] payload, int index) {
+        Buffer buffer = new Buffer();
+        buffer.setFormat(new H264VideoFormat());
+        buffer.setData(payload);
+        buffer.setLength(payload.length);
+        buffer.setTimestamp(index * 3000L);
+        buffer.setRTPMarker(index % 10 == 9);
+        buffer.setVideoOrientation(new VideoOrientation(CameraOptions.BACK,
+                Orientation.ROTATE_90_CW));
+        return buffer;
+    }
+
+    private static byte[] assembleLegacy(Buffer buffer, int seqnum, int ssrc) throws Exception {
+        Packet packet = new Packet();
+        packet.data = (byte[]) buffer.getData();
+        packet.length = buffer.getLength();
+        RtpPacket rtpPacket = new RtpPacket(packet);
+        rtpPacket.marker = buffer.isRTPMarkerSet() ? 1 : 0;
+        rtpPacket.payloadType = buffer.getFormat().getPayload();
+        rtpPacket.seqnum = seqnum;
+        rtpPacket.timestamp = buffer.getTimestamp();
+        rtpPacket.ssrc = ssrc;
+        rtpPacket.payloadlength = buffer.getLength();
+        rtpPacket.extension = true;
+        rtpPacket.extensionHeader = new RtpExtensionHeader();
+        rtpPacket.extensionHeader.addElement(buffer.getVideoOrientation().getHeaderId(),
+                new byte[] {
+                    buffer.getVideoOrientation().getVideoOrientation()
+                });
+        rtpPacket.assemble(rtpPacket.calcLength());
+        return rtpPacket.data;
+    }
+
+    public void testSerializationIsUnchanged() throws Exception {
+        RtcpSession rtcpSession = new RtcpSession(true, 16000);
+        RtpPacketTransmitter transmitter = new RtpPacketTransmitter(LOOPBACK, mReceiverPort,
+                rtcpSession);
+        try {
+            byte[] payload = new byte[PAYLOAD_SIZE];
+            Arrays.fill(payload, (byte) 0x5a);
+            Buffer buffer = createBuffer(payload, 9);
+            transmitter.sendRtpPacket(buffer);
+            ByteBuffer received = ByteBuffer.allocate(2048);
+            mReceiver.receive(received);
+            byte[] expected = assembleLegacy(buffer, 0, rtcpSession.SSRC);
+            assertEquals(expected.length, received.position());
+            assertTrue(Arrays.equals(expected, Arrays.copyOf(received.array(), expected.length)));
+        } finally {
+            transmitter.close();
+        }
+    }
+
+    public void testPacketsPerSecond() throws Exception {
+        byte[] payload = new byte[PAYLOAD_SIZE];
+        Buffer[] buffers = new Buffer[10];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = createBuffer(payload, i);
+        }
+
+        DatagramSocket socket = new DatagramSocket();
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < PACKET_COUNT; i++) {
+                byte[] data = assembleLegacy(buffers[i % buffers.length], i, 1);
+                socket.send(new DatagramPacket(data, data.length,
+                        InetAddress.getByName(LOOPBACK), mReceiverPort));
+            }
+        } finally {
+            socket.close();
+        }
+        long legacyTime = System.nanoTime() - start;
+
+        RtpPacketTransmitter transmitter = new RtpPacketTransmitter(LOOPBACK, mReceiverPort,
+                new RtcpSession(true, 16000));
+        start = System.nanoTime();
+        try {
+            for (int i = 0; i < PACKET_COUNT; i++) {
+                transmitter.sendRtpPacket(buffers[i % buffers.length]);
+            }
+        } finally {
+            transmitter.close();
+        }
+        long time = System.nanoTime() - start;
+
+        Log.i(TAG, "Legacy send path: " + PACKET_COUNT * 1000000000L / legacyTime
+                + " packets/s");
+        Log.i(TAG, "Connected channel send path: " + PACKET_COUNT * 1000000000L / time
+                + " packets/s");
+        assertEquals(PACKET_COUNT, transmitter.getStatistics().numPackets);
+    }
+}
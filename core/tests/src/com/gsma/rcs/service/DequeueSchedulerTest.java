@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.gsma.rcs.service;
+
+import android.test.AndroidTestCase;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class DequeueSchedulerTest extends AndroidTestCase {
+
+    private static final long TIMEOUT = 5000;
+
+    /**
+     * Item checking its state under the operation lock and then waiting for the network outside of
+     * it, like the items of DequeueTask
+     */
+    private static final class SendingItem extends DequeueScheduler.Item {
+
+        private final Object mLock;
+
+        private final CountDownLatch mSending;
+
+        private final CountDownLatch mSent;
+
+        private final CountDownLatch mDone = new CountDownLatch(1);
+
+        private SendingItem(String id, String conversationId, Object lock,
+                CountDownLatch sending, CountDownLatch sent) {
+            super(id, conversationId, DequeueScheduler.PRIORITY_MESSAGE);
+            mLock = lock;
+            mSending = sending;
+            mSent = sent;
+        }
+
+        @Override
+        protected boolean dequeue() {
+            synchronized (mLock) {
+                mSending.countDown();
+            }
+            try {
+                mSent.await(TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            mDone.countDown();
+            return true;
+        }
+    }
+
+    private final Object mLock = new Object();
+
+    private DequeueScheduler mScheduler;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mScheduler = new DequeueScheduler();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mScheduler.shutdown();
+        super.tearDown();
+    }
+
+    public void testConversationsAreDequeuedInParallel() throws InterruptedException {
+        CountDownLatch sending = new CountDownLatch(2);
+        CountDownLatch sent = new CountDownLatch(1);
+        try {
+            mScheduler.schedule(new SendingItem("1", "+33612345678", mLock, sending, sent));
+            mScheduler.schedule(new SendingItem("2", "+33687654321", mLock, sending, sent));
+            /* Both sends are in progress at once */
+            assertTrue(sending.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        } finally {
+            sent.countDown();
+        }
+    }
+
+    public void testConversationIsDequeuedInOrder() throws InterruptedException {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch sent = new CountDownLatch(1);
+        final AtomicBoolean overlapped = new AtomicBoolean();
+        final SendingItem first = new SendingItem("1", "+33612345678", mLock, sending, sent);
+        DequeueScheduler.Item second = new DequeueScheduler.Item("2", "+33612345678",
+                DequeueScheduler.PRIORITY_MESSAGE) {
+            @Override
+            protected boolean dequeue() {
+                overlapped.set(first.mDone.getCount() > 0);
+                return true;
+            }
+        };
+        mScheduler.schedule(first);
+        mScheduler.schedule(second);
+        assertTrue(sending.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        sent.countDown();
+        assertTrue(first.mDone.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (mScheduler.getQueueDepth() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, mScheduler.getQueueDepth());
+        assertFalse(overlapped.get());
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.gsma.rcs.service;
+
+import com.gsma.rcs.service.broadcaster.EventDispatcher;
+import com.gsma.rcs.service.broadcaster.OneToOneChatEventBroadcaster;
+import com.gsma.rcs.utils.ContactUtil;
+import com.gsma.services.rcs.chat.ChatLog.Message.Content.ReasonCode;
+import com.gsma.services.rcs.chat.ChatLog.Message.Content.Status;
+import com.gsma.services.rcs.chat.IOneToOneChatListener;
+import com.gsma.services.rcs.contact.ContactId;
+
+import android.os.RemoteException;
+import android.test.AndroidTestCase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class EventDispatcherTest extends AndroidTestCase {
+
+    private static final long TIMEOUT = 5000;
+
+    private static class Listener extends IOneToOneChatListener.Stub {
+
+        private final CountDownLatch mComposing = new CountDownLatch(1);
+
+        private final Map<String, Integer> mStatuses = new HashMap<String, Integer>();
+
+        private final List<String> mMsgIds = new ArrayList<String>();
+
+        private int mBatchCount;
+
+        @Override
+        public synchronized void onMessageStatusChanged(ContactId contact, String mimeType,
+                String msgId, int status, int reasonCode) {
+            mStatuses.put(msgId, status);
+            mMsgIds.add(msgId);
+        }
+
+        @Override
+        public void onMessageStatusesChanged(List<ContactId> contacts, List<String> mimeTypes,
+                List<String> msgIds, int[] statuses, int[] reasonCodes) {
+            synchronized (this) {
+                mBatchCount++;
+            }
+            for (int i = 0; i < statuses.length; i++) {
+                onMessageStatusChanged(contacts.get(i), mimeTypes.get(i), msgIds.get(i),
+                        statuses[i], reasonCodes[i]);
+            }
+        }
+
+        @Override
+        public void onComposingEvent(ContactId contact, boolean status) {
+            mComposing.countDown();
+        }
+
+        @Override
+        public void onMessagesDeleted(ContactId contact, List<String> msgIds) {
+        }
+
+        private boolean awaitComposing() throws InterruptedException {
+            return mComposing.await(TIMEOUT, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private final class StatusEvent extends EventDispatcher.Event<IOneToOneChatListener> {
+
+        private final String mMsgId;
+
+        private StatusEvent(String msgId) {
+            super(msgId);
+            mMsgId = msgId;
+        }
+
+        @Override
+        protected void deliver(IOneToOneChatListener listener) throws RemoteException {
+            listener.onMessageStatusChanged(mContact, "text/plain", mMsgId, Status.SENT.toInt(),
+                    ReasonCode.UNSPECIFIED.toInt());
+        }
+    }
+
+    private ContactId mContact;
+
+    private OneToOneChatEventBroadcaster mBroadcaster;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mContact = ContactUtil.createContactIdFromTrustedData("+33612345678");
+        mBroadcaster = new OneToOneChatEventBroadcaster();
+    }
+
+    public void testLatestStatusIsDelivered() throws InterruptedException {
+        Listener listener = new Listener();
+        mBroadcaster.addOneToOneChatEventListener(listener);
+        Status[] statuses = new Status[] {
+                Status.SENDING, Status.SENT, Status.DELIVERED, Status.DISPLAYED
+        };
+        for (Status status : statuses) {
+            mBroadcaster.broadcastMessageStatusChanged(mContact, "text/plain", "1", status,
+                    ReasonCode.UNSPECIFIED);
+            mBroadcaster.broadcastMessageStatusChanged(mContact, "text/plain", "2", status,
+                    ReasonCode.UNSPECIFIED);
+        }
+        mBroadcaster.broadcastComposingEvent(mContact, true);
+        assertTrue(listener.awaitComposing());
+        synchronized (listener) {
+            assertEquals(Integer.valueOf(Status.DISPLAYED.toInt()), listener.mStatuses.get("1"));
+            assertEquals(Integer.valueOf(Status.DISPLAYED.toInt()), listener.mStatuses.get("2"));
+            /* Superseded statuses may be skipped but the last ones keep their order */
+            int size = listener.mMsgIds.size();
+            assertTrue(size >= 2 && size <= 2 * statuses.length);
+            assertEquals("1", listener.mMsgIds.get(size - 2));
+            assertEquals("2", listener.mMsgIds.get(size - 1));
+        }
+    }
+
+    public void testListenerReceivesEventsOneByOne() throws InterruptedException {
+        Listener listener = new Listener();
+        mBroadcaster.addOneToOneChatEventListener(listener);
+        for (int i = 0; i < 100; i++) {
+            mBroadcaster.broadcastMessageStatusChanged(mContact, "text/plain",
+                    String.valueOf(i), Status.SENT, ReasonCode.UNSPECIFIED);
+        }
+        mBroadcaster.broadcastComposingEvent(mContact, true);
+        assertTrue(listener.awaitComposing());
+        synchronized (listener) {
+            assertEquals(0, listener.mBatchCount);
+            assertEquals(100, listener.mMsgIds.size());
+        }
+    }
+
+    public void testBatchedListenerReceivesAllEvents() throws InterruptedException {
+        Listener listener = new Listener();
+        mBroadcaster.addBatchedOneToOneChatEventListener(listener);
+        for (int i = 0; i < 100; i++) {
+            mBroadcaster.broadcastMessageStatusChanged(mContact, "text/plain",
+                    String.valueOf(i), Status.SENT, ReasonCode.UNSPECIFIED);
+        }
+        mBroadcaster.broadcastComposingEvent(mContact, true);
+        assertTrue(listener.awaitComposing());
+        synchronized (listener) {
+            assertEquals(100, listener.mMsgIds.size());
+            for (int i = 0; i < 100; i++) {
+                assertEquals(String.valueOf(i), listener.mMsgIds.get(i));
+            }
+        }
+    }
+
+    public void testStuckListenerIsDroppedWithoutBlocking() throws InterruptedException {
+        final CountDownLatch delivering = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Listener listener = new Listener() {
+            @Override
+            public void onMessageStatusChanged(ContactId contact, String mimeType, String msgId,
+                    int status, int reasonCode) {
+                delivering.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        EventDispatcher<IOneToOneChatListener> dispatcher = new EventDispatcher<IOneToOneChatListener>();
+        dispatcher.register(listener);
+        try {
+            dispatcher.dispatch(new StatusEvent("0"));
+            assertTrue(delivering.await(TIMEOUT, TimeUnit.MILLISECONDS));
+            long start = System.nanoTime();
+            for (int i = 1; i <= 300; i++) {
+                dispatcher.dispatch(new StatusEvent(String.valueOf(i)));
+            }
+            assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(TIMEOUT));
+            assertEquals(0, dispatcher.getListenerCount());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    public void testUnregisteredListenerIsNotNotified() throws InterruptedException {
+        Listener unregistered = new Listener();
+        Listener registered = new Listener();
+        mBroadcaster.addOneToOneChatEventListener(unregistered);
+        mBroadcaster.removeOneToOneChatEventListener(unregistered);
+        mBroadcaster.addOneToOneChatEventListener(registered);
+        mBroadcaster.broadcastMessageStatusChanged(mContact, "text/plain", "1", Status.SENT,
+                ReasonCode.UNSPECIFIED);
+        mBroadcaster.broadcastComposingEvent(mContact, true);
+        assertTrue(registered.awaitComposing());
+        synchronized (unregistered) {
+            assertTrue(unregistered.mMsgIds.isEmpty());
+        }
+        synchronized (registered) {
+            assertEquals(1, registered.mMsgIds.size());
+        }
+    }
+}
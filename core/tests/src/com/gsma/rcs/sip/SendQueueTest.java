@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.gsma.rcs.sip;
+
+import com.gsma.rcs.core.ims.service.sip.SendQueue;
+
+import android.test.AndroidTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SendQueueTest extends AndroidTestCase {
+
+    private static final int CAPACITY = 8;
+
+    private final List<Boolean> mFlowControl = new ArrayList<Boolean>();
+
+    private final SendQueue.Listener mListener = new SendQueue.Listener() {
+        @Override
+        public void onFlowControlChanged(boolean congested) {
+            mFlowControl.add(congested);
+        }
+    };
+
+    private final byte[][] mPayloads = new byte[CAPACITY][];
+
+    private final long[] mTimestamps = new long[CAPACITY];
+
+    public void testDropOldest() {
+        SendQueue queue = new SendQueue(CAPACITY, SendQueue.Policy.DROP_OLDEST, mListener);
+        for (int i = 0; i < CAPACITY + 2; i++) {
+            assertTrue(queue.offer(new byte[] {
+                (byte) i
+            }));
+        }
+        assertEquals(CAPACITY, queue.getSize());
+        assertEquals(2, queue.getDroppedCount());
+        assertEquals(1, queue.take(mPayloads, mTimestamps, 1));
+        assertEquals(2, mPayloads[0][0]);
+    }
+
+    public void testDropNewest() {
+        SendQueue queue = new SendQueue(CAPACITY, SendQueue.Policy.DROP_NEWEST, mListener);
+        for (int i = 0; i < CAPACITY; i++) {
+            assertTrue(queue.offer(new byte[] {
+                (byte) i
+            }));
+        }
+        assertFalse(queue.offer(new byte[1]));
+        assertEquals(1, queue.getDroppedCount());
+        assertEquals(1, queue.take(mPayloads, mTimestamps, 1));
+        assertEquals(0, mPayloads[0][0]);
+    }
+
+    public void testTakeBatch() {
+        SendQueue queue = new SendQueue(CAPACITY, SendQueue.Policy.BLOCK, mListener);
+        queue.offer(new byte[10]);
+        queue.offer(new byte[5]);
+        queue.offer(new byte[6]);
+        /* The first payload is taken even if larger than the maximum size */
+        assertEquals(1, queue.take(mPayloads, mTimestamps, 5));
+        assertEquals(2, queue.take(mPayloads, mTimestamps, 11));
+        assertEquals(0, queue.getSize());
+    }
+
+    public void testFlowControl() {
+        SendQueue queue = new SendQueue(CAPACITY, SendQueue.Policy.BLOCK, mListener);
+        for (int i = 0; i < CAPACITY * 3 / 4; i++) {
+            queue.offer(new byte[1]);
+        }
+        assertEquals(1, mFlowControl.size());
+        assertTrue(mFlowControl.get(0));
+        queue.take(mPayloads, mTimestamps, Integer.MAX_VALUE);
+        assertEquals(2, mFlowControl.size());
+        assertFalse(mFlowControl.get(1));
+    }
+
+    public void testClose() {
+        SendQueue queue = new SendQueue(CAPACITY, SendQueue.Policy.BLOCK, mListener);
+        queue.offer(new byte[1]);
+        queue.close();
+        assertFalse(queue.offer(new byte[1]));
+        assertEquals(0, queue.take(mPayloads, mTimestamps, Integer.MAX_VALUE));
+    }
+}
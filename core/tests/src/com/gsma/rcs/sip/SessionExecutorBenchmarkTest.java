@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.gsma.rcs.sip;
+
+import com.gsma.rcs.core.ims.service.SessionExecutor;
+
+import android.os.Debug;
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.LargeTest;
+import android.util.Log;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the live thread count and the memory used by 200 concurrent sessions run with one
+ * thread per session and on the shared session executor. Each session waits for a response as
+ * during an INVITE negotiation.
+ */
+@LargeTest
+public class SessionExecutorBenchmarkTest extends AndroidTestCase {
+
+    private static final String TAG = "SessionExecutorBenchmark";
+
+    private static final int SESSION_COUNT = 200;
+
+    /**
+     * Time in milliseconds a session waits for its response
+     */
+    private static final long RESPONSE_DELAY = 200;
+
+    private static final long TIMEOUT = 60000;
+
+    private static Runnable createSession(final CountDownLatch done) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(RESPONSE_DELAY);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            }
+        };
+    }
+
+    private static long getUsedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory() + Debug.getNativeHeapAllocatedSize();
+    }
+
+    private void logResult(String mode, long start, int peakThreads, long memory) {
+        Log.i(TAG, new StringBuilder(mode).append(": ").append(SESSION_COUNT)
+                .append(" sessions in ").append((System.nanoTime() - start) / 1000000)
+                .append("ms, peak threads=").append(peakThreads).append(", memory=")
+                .append(memory / 1024).append("KB").toString());
+    }
+
+    public void testThreadPerSession() throws InterruptedException {
+        int baseThreads = Thread.activeCount();
+        long baseMemory = getUsedMemory();
+        CountDownLatch done = new CountDownLatch(SESSION_COUNT);
+        long start = System.nanoTime();
+        for (int i = 0; i < SESSION_COUNT; i++) {
+            new Thread(createSession(done)).start();
+        }
+        int peakThreads = Thread.activeCount() - baseThreads;
+        long memory = getUsedMemory() - baseMemory;
+        assertTrue(done.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        logResult("Thread per session", start, peakThreads, memory);
+    }
+
+    public void testSessionExecutor() throws InterruptedException {
+        SessionExecutor executor = SessionExecutor.getInstance();
+        int baseThreads = Thread.activeCount() - executor.getThreadCount();
+        long baseMemory = getUsedMemory();
+        CountDownLatch done = new CountDownLatch(SESSION_COUNT);
+        long start = System.nanoTime();
+        for (int i = 0; i < SESSION_COUNT; i++) {
+            executor.execute(createSession(done));
+        }
+        int peakThreads = Thread.activeCount() - baseThreads;
+        long memory = getUsedMemory() - baseMemory;
+        assertTrue(done.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        assertTrue(executor.getThreadCount() < SESSION_COUNT);
+        logResult("Session executor", start, peakThreads, memory);
+    }
+}
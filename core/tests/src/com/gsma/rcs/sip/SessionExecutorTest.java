@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.gsma.rcs.sip;
+
+import com.gsma.rcs.core.ims.protocol.sip.SipException;
+import com.gsma.rcs.core.ims.protocol.sip.SipRequest;
+import com.gsma.rcs.core.ims.protocol.sip.SipTransactionContext;
+import com.gsma.rcs.core.ims.service.ImsService;
+import com.gsma.rcs.core.ims.service.ImsServiceError;
+import com.gsma.rcs.core.ims.service.ImsServiceSession;
+import com.gsma.rcs.core.ims.service.SessionExecutor;
+import com.gsma.rcs.provider.LocalContentResolver;
+import com.gsma.rcs.provider.settings.RcsSettings;
+import com.gsma.rcs.utils.ContactUtil;
+import com.gsma.services.rcs.contact.ContactId;
+
+import android.test.AndroidTestCase;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class SessionExecutorTest extends AndroidTestCase {
+
+    private static final long TIMEOUT = 5000;
+
+    /**
+     * More originating sessions than the executor runs at once
+     */
+    private static final int INVITING_SESSION_COUNT = 16;
+
+    /**
+     * Originating session whose INVITE is never answered until the test ends
+     */
+    private static final class InvitingSession extends ImsServiceSession {
+
+        private final CountDownLatch mInviting;
+
+        private final CountDownLatch mAnswer;
+
+        private InvitingSession(ImsService imsService, ContactId contact, RcsSettings rcsSettings,
+                CountDownLatch inviting, CountDownLatch answer) {
+            super(imsService, contact, "tel:".concat(contact.toString()), rcsSettings, 0, null);
+            mInviting = inviting;
+            mAnswer = answer;
+        }
+
+        @Override
+        public void run() {
+            try {
+                sendInvite(null);
+            } catch (SipException e) {
+                /* No response, as expected */
+            }
+        }
+
+        @Override
+        protected SipTransactionContext sendInviteAndWait(SipRequest invite) throws SipException {
+            mInviting.countDown();
+            try {
+                mAnswer.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new SipException("No answer");
+        }
+
+        @Override
+        public void startSession() {
+        }
+
+        @Override
+        public void removeSession() {
+        }
+
+        @Override
+        public void prepareMediaSession() {
+        }
+
+        @Override
+        public void openMediaSession() {
+        }
+
+        @Override
+        public void startMediaTransfer() {
+        }
+
+        @Override
+        public void closeMediaSession() {
+        }
+
+        @Override
+        public SipRequest createInvite() {
+            return null;
+        }
+
+        @Override
+        public void handleError(ImsServiceError error) {
+        }
+
+        @Override
+        public boolean isInitiatedByRemote() {
+            return false;
+        }
+    }
+
+    private RcsSettings mRcsSettings;
+
+    private ImsService mImsService;
+
+    private ContactId mContact;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mRcsSettings = RcsSettings.createInstance(new LocalContentResolver(getContext()));
+        mImsService = new ImsService(null, true) {
+            @Override
+            public void start() {
+            }
+
+            @Override
+            public void stop() {
+            }
+
+            @Override
+            public void check() {
+            }
+        };
+        mContact = ContactUtil.createContactIdFromTrustedData("+33612345678");
+    }
+
+    public void testQueuedSessionRunsWhileInvitesWait() throws InterruptedException {
+        CountDownLatch inviting = new CountDownLatch(INVITING_SESSION_COUNT);
+        CountDownLatch answer = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < INVITING_SESSION_COUNT; i++) {
+                new InvitingSession(mImsService, mContact, mRcsSettings, inviting, answer)
+                        .start();
+            }
+            /* All of them wait for their answer at once instead of 8 of them */
+            assertTrue(inviting.await(TIMEOUT, TimeUnit.MILLISECONDS));
+
+            final CountDownLatch ran = new CountDownLatch(1);
+            SessionExecutor.getInstance().execute(new Runnable() {
+                @Override
+                public void run() {
+                    ran.countDown();
+                }
+            });
+            assertTrue(ran.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        } finally {
+            answer.countDown();
+        }
+    }
+}
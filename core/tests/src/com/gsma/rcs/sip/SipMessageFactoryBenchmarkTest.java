@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.gsma.rcs.sip;
+
+import com.gsma.rcs.core.ims.ImsModule;
+import com.gsma.rcs.core.ims.network.sip.FeatureTags;
+import com.gsma.rcs.core.ims.network.sip.SipMessageFactory;
+import com.gsma.rcs.core.ims.network.sip.SipUtils;
+import com.gsma.rcs.core.ims.protocol.sip.SipDialogPath;
+import com.gsma.rcs.core.ims.protocol.sip.SipInterface;
+import com.gsma.rcs.core.ims.userprofile.UserProfile;
+import com.gsma.rcs.provider.LocalContentResolver;
+import com.gsma.rcs.provider.settings.RcsSettings;
+import com.gsma.rcs.utils.ContactUtilMockContext;
+import com.gsma.services.rcs.contact.ContactId;
+import com.gsma.services.rcs.contact.ContactUtil;
+
+import android.net.ConnectivityManager;
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.LargeTest;
+import android.util.Log;
+
+import java.util.ListIterator;
+import java.util.Vector;
+
+import javax2.sip.header.RouteHeader;
+import javax2.sip.header.UserAgentHeader;
+import javax2.sip.message.Request;
+
+/**
+ * Measures the number of OPTIONS and MESSAGE requests per second the message factory builds, and
+ * the cost of parsing the headers the factory now clones from pre-parsed templates.
+ */
+@LargeTest
+public class SipMessageFactoryBenchmarkTest extends AndroidTestCase {
+
+    private static final String TAG = "SipMessageFactoryBenchmark";
+
+    private static final String LOOPBACK = "127.0.0.1";
+
+    private static final int REQUEST_COUNT = 5000;
+
+    private static final String[] OPTIONS_FEATURE_TAGS = new String[] {
+            FeatureTags.FEATURE_OMA_IM, FeatureTags.FEATURE_3GPP_IMAGE_SHARE
+    };
+
+    private RcsSettings mRcsSettings;
+
+    private SipInterface mSipInterface;
+
+    private Vector<String> mRoute;
+
+    private ContactId mRemote;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        mRcsSettings = RcsSettings.createInstance(new LocalContentResolver(
+                getContext().getContentResolver()));
+        ContactUtil contactUtils = ContactUtil.getInstance(new ContactUtilMockContext(
+                getContext()));
+        ContactId me = contactUtils.formatContact("+339000000");
+        mRemote = contactUtils.formatContact("+339000001");
+        ImsModule.IMS_USER_PROFILE = new UserProfile(me, "domain.com", "private", "password",
+                "realm", null, null, null, null, mRcsSettings);
+        mSipInterface = new SipInterface(LOOPBACK, LOOPBACK, 5060, "UDP", false,
+                ConnectivityManager.TYPE_WIFI, mRcsSettings);
+        mRoute = new Vector<String>(mSipInterface.getServiceRoutePath());
+        mRoute.add("<sip:pcscf.domain.com:5060;lr>");
+        mRoute.add("<sip:scscf.domain.com:5060;lr>");
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        mSipInterface.close();
+    }
+
+    private SipDialogPath createDialog() {
+        String uri = "sip:" + mRemote.toString() + "@domain.com";
+        return new SipDialogPath(mSipInterface, mSipInterface.generateCallId(), 1, uri,
+                ImsModule.IMS_USER_PROFILE.getPublicUri(), uri, mRoute, mRcsSettings);
+    }
+
+    private static long perSecond(long count, long nanos) {
+        return count * 1000000000L / nanos;
+    }
+
+    public void testParsedHeaders() throws Exception {
+        /* What each request used to pay for the headers that are now cloned */
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUEST_COUNT; i++) {
+            for (String route : mRoute) {
+                SipUtils.HEADER_FACTORY.createHeader(RouteHeader.NAME, route);
+            }
+            SipUtils.HEADER_FACTORY.createHeader(SipUtils.HEADER_P_PREFERRED_IDENTITY,
+                    ImsModule.IMS_USER_PROFILE.getPreferredUri());
+            SipUtils.HEADER_FACTORY.createHeader(UserAgentHeader.NAME, SipUtils.userAgentString());
+            SipUtils.HEADER_FACTORY.createHeader(SipUtils.HEADER_ACCEPT_CONTACT,
+                    "*;" + OPTIONS_FEATURE_TAGS[0] + ";" + OPTIONS_FEATURE_TAGS[1]);
+            mSipInterface.getLocalContact();
+        }
+        Log.i(TAG, "Parsed headers: " + perSecond(REQUEST_COUNT, System.nanoTime() - start)
+                + " header sets/s");
+    }
+
+    public void testCreateOptions() throws Exception {
+        SipMessageFactory.createOptions(createDialog(), OPTIONS_FEATURE_TAGS);
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUEST_COUNT; i++) {
+            SipMessageFactory.createOptions(createDialog(), OPTIONS_FEATURE_TAGS);
+        }
+        Log.i(TAG, "createOptions: " + perSecond(REQUEST_COUNT, System.nanoTime() - start)
+                + " requests/s");
+        Request options = SipMessageFactory.createOptions(createDialog(), OPTIONS_FEATURE_TAGS)
+                .getStackMessage();
+        assertEquals(mRoute.size(), countHeaders(options, RouteHeader.NAME));
+        assertEquals(1, countHeaders(options, SipUtils.HEADER_P_PREFERRED_IDENTITY));
+    }
+
+    public void testCreateMessage() throws Exception {
+        byte[] content = "benchmark".getBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUEST_COUNT; i++) {
+            SipMessageFactory.createMessage(createDialog(), FeatureTags.FEATURE_OMA_IM,
+                    "text/plain", content);
+        }
+        Log.i(TAG, "createMessage: " + perSecond(REQUEST_COUNT, System.nanoTime() - start)
+                + " requests/s");
+    }
+
+    private static int countHeaders(Request request, String name) {
+        int count = 0;
+        for (ListIterator<?> it = request.getHeaders(name); it.hasNext(); it.next()) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.gsma.rcs.sip;
+
+import gov2.nist.javax2.sip.message.SIPRequest;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.LargeTest;
+import android.util.Log;
+
+import java.util.ArrayList;
+
+import javax2.sip.SipFactory;
+import javax2.sip.address.Address;
+import javax2.sip.address.AddressFactory;
+import javax2.sip.header.HeaderFactory;
+import javax2.sip.header.ViaHeader;
+import javax2.sip.message.MessageFactory;
+import javax2.sip.message.Request;
+
+/**
+ * Measures the encoding of a 2 KB INVITE with SDP when it is retransmitted, which reuses the
+ * memoized wire encoding, compared to a full encoding of the message.
+ */
+@LargeTest
+public class SipRetransmissionBenchmarkTest extends AndroidTestCase {
+
+    private static final String TAG = "SipRetransmissionBenchmark";
+
+    private static final int ENCODE_COUNT = 20000;
+
+    private static final int SDP_SIZE = 1500;
+
+    private static final String TRANSPORT = "udp";
+
+    private SIPRequest mInvite;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        SipFactory sipFactory = SipFactory.getInstance();
+        HeaderFactory headerFactory = sipFactory.createHeaderFactory();
+        AddressFactory addressFactory = sipFactory.createAddressFactory();
+        MessageFactory messageFactory = sipFactory.createMessageFactory();
+        ArrayList<ViaHeader> vias = new ArrayList<ViaHeader>();
+        vias.add(headerFactory.createViaHeader("10.0.0.1", 5060, TRANSPORT, "z9hG4bK1"));
+        Address from = addressFactory.createAddress("sip:+339000000@domain.com");
+        Address to = addressFactory.createAddress("sip:+339000001@domain.com");
+        Request invite = messageFactory.createRequest(to.getURI(), Request.INVITE,
+                headerFactory.createCallIdHeader("benchmark@10.0.0.1"),
+                headerFactory.createCSeqHeader(1L, Request.INVITE),
+                headerFactory.createFromHeader(from, "tag"),
+                headerFactory.createToHeader(to, null), vias,
+                headerFactory.createMaxForwardsHeader(70));
+        invite.addHeader(headerFactory.createHeader("Route", "<sip:pcscf.domain.com:5060;lr>"));
+        invite.addHeader(headerFactory.createHeader("Route", "<sip:scscf.domain.com:5060;lr>"));
+        invite.addHeader(headerFactory.createHeader("Contact",
+                "<sip:10.0.0.1:5060;transport=udp>;+g.oma.sip-im"));
+        invite.addHeader(headerFactory.createHeader("Accept-Contact", "*;+g.oma.sip-im"));
+        invite.addHeader(headerFactory.createHeader("User-Agent", "IM-client/OMA1.0 benchmark"));
+        StringBuilder sdp = new StringBuilder("v=0\r\n");
+        while (sdp.length() < SDP_SIZE) {
+            sdp.append("a=rtpmap:96 H264/90000\r\n");
+        }
+        invite.setContent(sdp.toString(), headerFactory.createContentTypeHeader("application",
+                "sdp"));
+        mInvite = (SIPRequest) invite;
+    }
+
+    public void testRetransmission() throws Exception {
+        byte[] first = mInvite.encodeAsBytes(TRANSPORT);
+        assertSame(first, mInvite.encodeAsBytes(TRANSPORT));
+        assertEquals(mInvite.encode(), new String(first, "UTF-8"));
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ENCODE_COUNT; i++) {
+            mInvite.invalidateEncoding();
+            mInvite.encodeAsBytes(TRANSPORT);
+        }
+        long fullTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ENCODE_COUNT; i++) {
+            mInvite.encodeAsBytes(TRANSPORT);
+        }
+        long retransmissionTime = System.nanoTime() - start;
+
+        Log.i(TAG, first.length + " bytes INVITE, full encoding: " + fullTime / ENCODE_COUNT
+                + " ns, retransmission: " + retransmissionTime / ENCODE_COUNT + " ns");
+    }
+
+    public void testViaAndCSeqChanges() throws Exception {
+        mInvite.encodeAsBytes(TRANSPORT);
+        ((ViaHeader) mInvite.getHeader(ViaHeader.NAME)).setBranch("z9hG4bK2");
+        mInvite.getCSeq().setSeqNumber(2);
+        String encoded = new String(mInvite.encodeAsBytes(TRANSPORT), "UTF-8");
+        assertTrue(encoded.contains("branch=z9hG4bK2"));
+        assertTrue(encoded.contains("CSeq: 2 INVITE"));
+        assertEquals(mInvite.encode(), encoded);
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.gsma.rcs.utils;
+
+import com.gsma.rcs.utils.logger.Appender;
+import com.gsma.rcs.utils.logger.AsyncAppender;
+import com.gsma.rcs.utils.logger.Logger;
+import com.gsma.rcs.utils.logger.RotatingFileAppender;
+
+import android.test.AndroidTestCase;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LoggerTest extends AndroidTestCase {
+
+    private static final class RecordingAppender extends Appender {
+
+        private final List<String> mTraces = new ArrayList<String>();
+
+        private final long mDelay;
+
+        private RecordingAppender(long delay) {
+            mDelay = delay;
+        }
+
+        @Override
+        public void printTrace(String classname, int level, String trace) {
+            if (mDelay > 0) {
+                try {
+                    Thread.sleep(mDelay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            synchronized (mTraces) {
+                mTraces.add(trace);
+            }
+        }
+
+        private List<String> getTraces() {
+            synchronized (mTraces) {
+                return new ArrayList<String>(mTraces);
+            }
+        }
+    }
+
+    private Appender[] mAppenders;
+
+    private boolean mActivationFlag;
+
+    private int mTraceLevel;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        mAppenders = Logger.getAppenders();
+        mActivationFlag = Logger.activationFlag;
+        mTraceLevel = Logger.traceLevel;
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        Logger.setAppenders(mAppenders);
+        Logger.activationFlag = mActivationFlag;
+        Logger.traceLevel = mTraceLevel;
+    }
+
+    public void testParameterizedTraces() {
+        RecordingAppender appender = new RecordingAppender(0);
+        Logger.setAppenders(new Appender[] {
+            appender
+        });
+        Logger.activationFlag = Logger.TRACE_ON;
+        Logger.traceLevel = Logger.INFO_LEVEL;
+        Logger logger = Logger.getLogger(LoggerTest.class.getName());
+        assertFalse(logger.isDebugActivated());
+        assertTrue(logger.isInfoActivated());
+
+        logger.debug("filtered {}", "out");
+        logger.info("code={}, transaction={}", 200, "tx1");
+        logger.info("a={} b={} c={}", 1, null, "3");
+        logger.info("missing {} {}", "one");
+        logger.info("extra {}", "one", "two");
+        List<String> traces = appender.getTraces();
+        assertEquals(4, traces.size());
+        assertEquals("code=200, transaction=tx1", traces.get(0));
+        assertEquals("a=1 b=null c=3", traces.get(1));
+        assertEquals("missing one {}", traces.get(2));
+        assertEquals("extra one", traces.get(3));
+    }
+
+    public void testAsyncAppenderDropsOnlyBelowError() {
+        RecordingAppender appender = new RecordingAppender(1);
+        AsyncAppender asyncAppender = new AsyncAppender(new Appender[] {
+            appender
+        });
+        for (int i = 0; i < 3000; i++) {
+            asyncAppender.printTrace("Test", Logger.DEBUG_LEVEL, "debug");
+            if (i % 1000 == 999) {
+                asyncAppender.printTrace("Test", Logger.ERROR_LEVEL, "error");
+            }
+        }
+        /* Writing 3000 traces takes at least 3 seconds, wait for them in several flushes */
+        for (int i = 0; i < 5; i++) {
+            asyncAppender.flush();
+        }
+        int debugs = 0;
+        int errors = 0;
+        int dropped = 0;
+        for (String trace : appender.getTraces()) {
+            if ("debug".equals(trace)) {
+                debugs++;
+            } else if ("error".equals(trace)) {
+                errors++;
+            } else if (trace.startsWith("Dropped ")) {
+                dropped += Integer.parseInt(trace.substring(8, trace.indexOf(' ', 8)));
+            }
+        }
+        assertEquals(3, errors);
+        assertTrue(dropped > 0);
+        assertEquals(3000, debugs + dropped);
+    }
+
+    public void testRotatingFileAppender() {
+        File file = new File(getContext().getCacheDir(), "logger_test.log");
+        File backup1 = new File(file.getPath().concat(".1"));
+        File backup2 = new File(file.getPath().concat(".2"));
+        File backup3 = new File(file.getPath().concat(".3"));
+        file.delete();
+        backup1.delete();
+        backup2.delete();
+        backup3.delete();
+        try {
+            RotatingFileAppender appender = new RotatingFileAppender(file, 4096, 2);
+            for (int i = 0; i < 1000; i++) {
+                appender.printTrace("Test", Logger.INFO_LEVEL, "Trace number " + i);
+            }
+            appender.flush();
+            assertTrue(file.length() > 0);
+            assertTrue(file.length() < 4096 + 64);
+            assertTrue(backup1.length() >= 4096);
+            assertTrue(backup2.length() >= 4096);
+            assertFalse(backup3.exists());
+        } finally {
+            file.delete();
+            backup1.delete();
+            backup2.delete();
+        }
+    }
+}
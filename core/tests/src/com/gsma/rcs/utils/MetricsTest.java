@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2015 Sony Mobile Communications Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.gsma.rcs.utils;
+
+import com.gsma.rcs.utils.metrics.Counter;
+import com.gsma.rcs.utils.metrics.Gauge;
+import com.gsma.rcs.utils.metrics.Histogram;
+import com.gsma.rcs.utils.metrics.MetricsRegistry;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.LargeTest;
+import android.util.Log;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+public class MetricsTest extends AndroidTestCase {
+
+    private static final String TAG = "MetricsTest";
+
+    private static final int THREADS = 4;
+
+    private static final int ITERATIONS = 100000;
+
+    public void testCounterFromManyThreads() throws InterruptedException {
+        final Counter counter = MetricsRegistry.getInstance().getCounter("test.counter");
+        long initial = counter.get();
+        Thread[] threads = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < ITERATIONS; j++) {
+                        counter.increment();
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(initial + THREADS * ITERATIONS, counter.get());
+        assertSame(counter, MetricsRegistry.getInstance().getCounter("test.counter"));
+    }
+
+    public void testHistogramPercentiles() {
+        Histogram histogram = MetricsRegistry.getInstance().getHistogram("test.histogram");
+        for (long value = 1; value <= 10000; value++) {
+            histogram.record(value);
+        }
+        assertEquals(10000, histogram.getCount());
+        assertEquals(10000, histogram.getMax());
+        assertEquals(10000L * 10001 / 2, histogram.getSum());
+        assertWithin(5000, histogram.getPercentile(50));
+        assertWithin(9900, histogram.getPercentile(99));
+        assertEquals(10000, histogram.getPercentile(100));
+        histogram.record(-1);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(10002, histogram.getCount());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(new StringBuilder("Expected ").append(expected).append(" but was ")
+                .append(actual).toString(), Math.abs(actual - expected) <= expected / 32);
+    }
+
+    public void testDump() {
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        Gauge gauge = new Gauge() {
+            @Override
+            public long getValue() {
+                return 42;
+            }
+        };
+        registry.registerGauge("test.gauge", gauge);
+        registry.getHistogram("test.empty");
+        StringWriter out = new StringWriter();
+        registry.dump(new PrintWriter(out));
+        String dump = out.toString();
+        assertTrue(dump.contains("test.gauge: 42"));
+        assertTrue(dump.contains("test.empty: count=0"));
+        registry.unregisterGauge("test.gauge", gauge);
+        out = new StringWriter();
+        registry.dump(new PrintWriter(out));
+        assertFalse(out.toString().contains("test.gauge"));
+    }
+
+    @LargeTest
+    public void testRecordingCost() {
+        Counter counter = MetricsRegistry.getInstance().getCounter("test.cost.counter");
+        Histogram histogram = MetricsRegistry.getInstance().getHistogram("test.cost.histogram");
+        for (int i = 0; i < ITERATIONS; i++) {
+            counter.increment();
+            histogram.record(i);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            counter.increment();
+        }
+        long counterTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            histogram.record(i);
+        }
+        long histogramTime = System.nanoTime() - start;
+        Log.i(TAG, new StringBuilder("Counter increment: ").append(counterTime / ITERATIONS)
+                .append("ns, histogram record: ").append(histogramTime / ITERATIONS)
+                .append("ns").toString());
+    }
+}
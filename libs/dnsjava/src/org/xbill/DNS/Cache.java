@@ -4,6 +4,9 @@ package org.xbill.DNS;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
 
 /**
  * A cache of DNS records.  The cache obeys TTLs, so items are purged after
@@ -11,6 +14,12 @@ import java.util.*;
  * avoid repeated failed DNS queries.  The credibility of each RRset is
  * maintained, so that more credible records replace less credible records,
  * and lookups can specify the minimum credibility of data they are requesting.
+ * <p>
+ * The cache may be shared by concurrent lookups.  Reads never lock: the
+ * sets of each name are published as an immutable array, which writers
+ * replace under one of a fixed number of lock stripes selected by the name.
+ * When the cache is full, names are evicted by a CLOCK sweep, which
+ * approximates LRU without reordering entries on every read.
  * @see RRset
  * @see Credibility
  *
@@ -56,6 +65,13 @@ private static class CacheRRset extends RRset implements Element {
 		this.expire = limitExpire(rrset.getTTL(), maxttl);
 	}
 
+	/* Copies a cached set, keeping its credibility and expiration. */
+	CacheRRset(CacheRRset crrset) {
+		super(crrset);
+		this.credibility = crrset.credibility;
+		this.expire = crrset.expire;
+	}
+
 	public final boolean
 	expired() {
 		int now = (int)(System.currentTimeMillis() / 1000);
@@ -125,39 +141,47 @@ private static class NegativeElement implements Element {
 	}
 }
 
-private static class CacheMap extends LinkedHashMap {
-	private int maxsize = -1;
-
-	CacheMap(int maxsize) {
-		super(16, (float) 0.75, true);
-		this.maxsize = maxsize;
-	}
+/*
+ * The sets of one name.  The array is never modified once the entry is
+ * published, a change replaces the whole entry.
+ */
+private static class NameEntry {
+	final Element [] elements;
 
-	int
-	getMaxSize() {
-		return maxsize;
-	}
+	/* Set on each read, cleared by the eviction sweep. */
+	volatile boolean referenced;
 
-	void
-	setMaxSize(int maxsize) {
-		/*
-		 * Note that this doesn't shrink the size of the map if
-		 * the maximum size is lowered, but it should shrink as
-		 * entries expire.
-		 */
-		this.maxsize = maxsize;
+	NameEntry(Element [] elements, boolean referenced) {
+		this.elements = elements;
+		this.referenced = referenced;
 	}
 
-	protected boolean removeEldestEntry(Map.Entry eldest) {
-		return maxsize >= 0 && size() > maxsize;
+	boolean
+	expired() {
+		for (int i = 0; i < elements.length; i++)
+			if (!elements[i].expired())
+				return false;
+		return true;
 	}
 }
 
-private CacheMap data;
-private int maxncache = -1;
-private int maxcache = -1;
+private static final int lockStripes = 16;
+
+private final ConcurrentHashMap data;
+private final Object [] locks;
+private final AtomicInteger size = new AtomicInteger();
+private volatile int maxsize;
+private volatile int maxncache = -1;
+private volatile int maxcache = -1;
 private int dclass;
 
+private final ReentrantLock evictionLock = new ReentrantLock();
+private Iterator clockHand;
+
+private final AtomicLong hits = new AtomicLong();
+private final AtomicLong misses = new AtomicLong();
+private final AtomicLong evictions = new AtomicLong();
+
 private static final int defaultMaxEntries = 50000;
 
 /**
@@ -169,7 +193,11 @@ private static final int defaultMaxEntries = 50000;
 public
 Cache(int dclass) {
 	this.dclass = dclass;
-	data = new CacheMap(defaultMaxEntries);
+	data = new ConcurrentHashMap(16, (float) 0.75, lockStripes);
+	locks = new Object[lockStripes];
+	for (int i = 0; i < lockStripes; i++)
+		locks[i] = new Object();
+	maxsize = defaultMaxEntries;
 }
 
 /**
@@ -186,59 +214,93 @@ Cache() {
  */
 public
 Cache(String file) throws IOException {
-	data = new CacheMap(defaultMaxEntries);
+	this(DClass.IN);
 	Master m = new Master(file);
 	Record record;
 	while ((record = m.nextRecord()) != null)
 		addRecord(record, Credibility.HINT, m);
 }
 
-private synchronized Object
+private Object
+lockFor(Name name) {
+	int h = name.hashCode();
+	h ^= (h >>> 16);
+	return locks[h & (lockStripes - 1)];
+}
+
+private NameEntry
 exactName(Name name) {
-	return data.get(name);
+	NameEntry entry = (NameEntry) data.get(name);
+	if (entry != null && !entry.referenced)
+		entry.referenced = true;
+	return entry;
 }
 
-private synchronized void
+private void
 removeName(Name name) {
-	data.remove(name);
+	synchronized (lockFor(name)) {
+		if (data.remove(name) != null)
+			size.decrementAndGet();
+	}
+}
+
+/* Must be called with the lock of the name held. */
+private void
+putEntry(Name name, Element [] elements) {
+	if (elements.length == 0) {
+		if (data.remove(name) != null)
+			size.decrementAndGet();
+		return;
+	}
+	NameEntry previous = (NameEntry) data.get(name);
+	boolean referenced = previous != null && previous.referenced;
+	if (data.put(name, new NameEntry(elements, referenced)) == null) {
+		size.incrementAndGet();
+		evictIfNeeded();
+	}
 }
 
-private synchronized Element []
-allElements(Object types) {
-	if (types instanceof List) {
-		List typelist = (List) types;
-		int size = typelist.size();
-		return (Element []) typelist.toArray(new Element[size]);
+private static int
+indexOf(Element [] elements, int type) {
+	for (int i = 0; i < elements.length; i++)
+		if (elements[i].getType() == type)
+			return i;
+	return -1;
+}
+
+private static Element []
+withElement(Element [] elements, int index, Element element) {
+	Element [] updated;
+	if (index < 0) {
+		updated = new Element[elements.length + 1];
+		System.arraycopy(elements, 0, updated, 0, elements.length);
+		updated[elements.length] = element;
 	} else {
-		Element set = (Element) types;
-		return new Element[] {set};
+		updated = (Element []) elements.clone();
+		updated[index] = element;
 	}
+	return updated;
 }
 
-private synchronized Element
-oneElement(Name name, Object types, int type, int minCred) {
-	Element found = null;
+private static Element []
+withoutElement(Element [] elements, int index) {
+	Element [] updated = new Element[elements.length - 1];
+	System.arraycopy(elements, 0, updated, 0, index);
+	System.arraycopy(elements, index + 1, updated, index,
+			 updated.length - index);
+	return updated;
+}
 
+private Element
+oneElement(Name name, NameEntry entry, int type, int minCred) {
 	if (type == Type.ANY)
 		throw new IllegalArgumentException("oneElement(ANY)");
-	if (types instanceof List) {
-		List list = (List) types;
-		for (int i = 0; i < list.size(); i++) {
-			Element set = (Element) list.get(i);
-			if (set.getType() == type) {
-				found = set;
-				break;
-			}
-		}
-	} else {
-		Element set = (Element) types;
-		if (set.getType() == type)
-			found = set;
-	}
-	if (found == null)
+	int index = indexOf(entry.elements, type);
+	if (index < 0)
 		return null;
+	Element found = entry.elements[index];
 	if (found.expired()) {
-		removeElement(name, type);
+		removeElement(name, found);
 		return null;
 	}
 	if (found.compareCredibility(minCred) < 0)
@@ -246,74 +308,109 @@ oneElement(Name name, Object types, int type, int minCred) {
 	return found;
 }
 
-private synchronized Element
+private Element
 findElement(Name name, int type, int minCred) {
-	Object types = exactName(name);
-	if (types == null)
+	NameEntry entry = exactName(name);
+	if (entry == null)
 		return null;
-	return oneElement(name, types, type, minCred);
+	return oneElement(name, entry, type, minCred);
 }
 
-private synchronized void
-addElement(Name name, Element element) {
-	Object types = data.get(name);
-	if (types == null) {
-		data.put(name, element);
-		return;
-	}
-	int type = element.getType();
-	if (types instanceof List) {
-		List list = (List) types;
-		for (int i = 0; i < list.size(); i++) {
-			Element elt = (Element) list.get(i);
-			if (elt.getType() == type) {
-				list.set(i, element);
+/*
+ * Stores an element unless a more credible one of the same type is
+ * cached and not expired.  A null element removes the cached one under
+ * the same condition.
+ */
+private void
+replaceElement(Name name, int type, Element element, int cred) {
+	synchronized (lockFor(name)) {
+		NameEntry entry = (NameEntry) data.get(name);
+		Element [] elements = entry == null ? new Element[0]
+						    : entry.elements;
+		int index = indexOf(elements, type);
+		if (index >= 0) {
+			Element current = elements[index];
+			if (!current.expired() &&
+			    current.compareCredibility(cred) > 0)
 				return;
-			}
-		}
-		list.add(element);
-	} else {
-		Element elt = (Element) types;
-		if (elt.getType() == type)
-			data.put(name, element);
-		else {
-			LinkedList list = new LinkedList();
-			list.add(elt);
-			list.add(element);
-			data.put(name, list);
 		}
+		if (element != null)
+			putEntry(name, withElement(elements, index, element));
+		else if (index >= 0)
+			putEntry(name, withoutElement(elements, index));
 	}
 }
 
-private synchronized void
+private void
 removeElement(Name name, int type) {
-	Object types = data.get(name);
-	if (types == null) {
-		return;
+	synchronized (lockFor(name)) {
+		NameEntry entry = (NameEntry) data.get(name);
+		if (entry == null)
+			return;
+		int index = indexOf(entry.elements, type);
+		if (index >= 0)
+			putEntry(name, withoutElement(entry.elements, index));
 	}
-	if (types instanceof List) {
-		List list = (List) types;
-		for (int i = 0; i < list.size(); i++) {
-			Element elt = (Element) list.get(i);
-			if (elt.getType() == type) {
-				list.remove(i);
-				if (list.size() == 0)
-					data.remove(name);
-				return;
+}
+
+/* Removes an expired element unless it has been replaced meanwhile. */
+private void
+removeElement(Name name, Element element) {
+	synchronized (lockFor(name)) {
+		NameEntry entry = (NameEntry) data.get(name);
+		if (entry == null)
+			return;
+		int index = indexOf(entry.elements, element.getType());
+		if (index >= 0 && entry.elements[index] == element)
+			putEntry(name, withoutElement(entry.elements, index));
+	}
+}
+
+/*
+ * Removes names until the cache is back to its maximum size.  The hand
+ * sweeps the names in map order: a name read since it was added or since
+ * the last pass is spared once, a name whose sets have all expired is
+ * removed at once.
+ * Only one thread sweeps at a time, the others do not wait for it.
+ */
+private void
+evictIfNeeded() {
+	int max = maxsize;
+	if (max < 0 || size.get() <= max)
+		return;
+	if (!evictionLock.tryLock())
+		return;
+	try {
+		int budget = 2 * size.get() + 1;
+		while (size.get() > max && budget-- > 0) {
+			if (clockHand == null || !clockHand.hasNext()) {
+				clockHand = data.entrySet().iterator();
+				if (!clockHand.hasNext())
+					break;
+			}
+			Map.Entry mapEntry = (Map.Entry) clockHand.next();
+			NameEntry entry = (NameEntry) mapEntry.getValue();
+			if (entry.referenced && !entry.expired()) {
+				entry.referenced = false;
+				continue;
+			}
+			if (data.remove(mapEntry.getKey(), entry)) {
+				size.decrementAndGet();
+				evictions.incrementAndGet();
 			}
 		}
-	} else {
-		Element elt = (Element) types;
-		if (elt.getType() != type)
-			return;
-		data.remove(name);
+	}
+	finally {
+		evictionLock.unlock();
 	}
 }
 
 /** Empties the Cache. */
-public synchronized void
+public void
 clearCache() {
-	data.clear();
+	Iterator it = data.keySet().iterator();
+	while (it.hasNext())
+		removeName((Name) it.next());
 }
 
 /**
@@ -323,20 +420,27 @@ clearCache() {
  * @param o The source of the record (this could be a Message, for example)
  * @see Record
  */
-public synchronized void
+public void
 addRecord(Record r, int cred, Object o) {
 	Name name = r.getName();
 	int type = r.getRRsetType();
 	if (!Type.isRR(type))
 		return;
-	Element element = findElement(name, type, cred);
-	if (element == null) {
-		CacheRRset crrset = new CacheRRset(r, cred, maxcache);
-		addRRset(crrset, cred);
-	} else if (element.compareCredibility(cred) == 0) {
-		if (element instanceof CacheRRset) {
-			CacheRRset crrset = (CacheRRset) element;
-			crrset.addRR(r);
+	synchronized (lockFor(name)) {
+		Element element = findElement(name, type, cred);
+		if (element == null) {
+			CacheRRset crrset = new CacheRRset(r, cred, maxcache);
+			addRRset(crrset, cred);
+		} else if (element.compareCredibility(cred) == 0) {
+			if (element instanceof CacheRRset) {
+				/*
+				 * Published sets are never modified, as lookups
+				 * may be reading them without the lock.
+				 */
+				CacheRRset crrset = new CacheRRset((CacheRRset) element);
+				crrset.addRR(r);
+				replaceElement(name, type, crrset, cred);
+			}
 		}
 	}
 }
@@ -347,26 +451,20 @@ addRecord(Record r, int cred, Object o) {
  * @param cred The credibility of these records
  * @see RRset
  */
-public synchronized void
+public void
 addRRset(RRset rrset, int cred) {
 	long ttl = rrset.getTTL();
 	Name name = rrset.getName();
 	int type = rrset.getType();
-	Element element = findElement(name, type, 0);
 	if (ttl == 0) {
-		if (element != null && element.compareCredibility(cred) <= 0)
-			removeElement(name, type);
+		replaceElement(name, type, null, cred);
 	} else {
-		if (element != null && element.compareCredibility(cred) <= 0)
-			element = null;
-		if (element == null) {
-			CacheRRset crrset;
-			if (rrset instanceof CacheRRset)
-				crrset = (CacheRRset) rrset;
-			else
-				crrset = new CacheRRset(rrset, cred, maxcache);
-			addElement(name, crrset);
-		}
+		CacheRRset crrset;
+		if (rrset instanceof CacheRRset)
+			crrset = (CacheRRset) rrset;
+		else
+			crrset = new CacheRRset(rrset, cred, maxcache);
+		replaceElement(name, type, crrset, cred);
 	}
 }
 
@@ -378,35 +476,30 @@ addRRset(RRset rrset, int cred) {
  * The negative cache ttl is derived from the SOA.
  * @param cred The credibility of the negative entry
  */
-public synchronized void
+public void
 addNegative(Name name, int type, SOARecord soa, int cred) {
 	long ttl = 0;
 	if (soa != null)
 		ttl = soa.getTTL();
-	Element element = findElement(name, type, 0);
-	if (ttl == 0) {
-		if (element != null && element.compareCredibility(cred) <= 0)
-			removeElement(name, type);
-	} else {
-		if (element != null && element.compareCredibility(cred) <= 0)
-			element = null;
-		if (element == null)
-			addElement(name, new NegativeElement(name, type,
-							     soa, cred,
-							     maxncache));
-	}
+	if (ttl == 0)
+		replaceElement(name, type, null, cred);
+	else
+		replaceElement(name, type,
+			       new NegativeElement(name, type, soa, cred,
+						   maxncache),
+			       cred);
 }
 
 /**
  * Finds all matching sets or something that causes the lookup to stop.
  */
-protected synchronized SetResponse
+protected SetResponse
 lookup(Name name, int type, int minCred) {
 	int labels;
 	int tlabels;
 	Element element;
 	Name tname;
-	Object types;
+	NameEntry types;
 	SetResponse sr;
 
 	labels = name.labels();
@@ -422,7 +515,7 @@ lookup(Name name, int type, int minCred) {
 		else
 			tname = new Name(name, labels - tlabels);
 
-		types = data.get(tname);
+		types = exactName(tname);
 		if (types == null)
 			continue;
 
@@ -433,12 +526,12 @@ lookup(Name name, int type, int minCred) {
 		 */
 		if (isExact && type == Type.ANY) {
 			sr = new SetResponse(SetResponse.SUCCESSFUL);
-			Element [] elements = allElements(types);
+			Element [] elements = types.elements;
 			int added = 0;
 			for (int i = 0; i < elements.length; i++) {
 				element = elements[i];
 				if (element.expired()) {
-					removeElement(tname, element.getType());
+					removeElement(tname, element);
 					continue;
 				}
 				if (!(element instanceof CacheRRset))
@@ -510,7 +603,12 @@ lookup(Name name, int type, int minCred) {
  */
 public SetResponse
 lookupRecords(Name name, int type, int minCred) {
-	return lookup(name, type, minCred);
+	SetResponse sr = lookup(name, type, minCred);
+	if (sr.isUnknown() || sr.isDelegation())
+		misses.incrementAndGet();
+	else
+		hits.incrementAndGet();
+	return sr;
 }
 
 private RRset []
@@ -786,7 +884,7 @@ getMaxCache() {
  */
 public int
 getSize() {
-	return data.size();
+	return size.get();
 }
 
 /**
@@ -796,7 +894,7 @@ getSize() {
  */
 public int
 getMaxEntries() {
-	return data.getMaxSize();
+	return maxsize;
 }
 
 /**
@@ -805,7 +903,8 @@ getMaxEntries() {
  * infinite limit.
  *
  * Note that setting this to a value lower than the current number
- * of entries will not cause the Cache to shrink immediately.
+ * of entries will not cause the Cache to shrink until the next entry
+ * is added.
  *
  * The default maximum number of entries is 50000.
  *
@@ -813,7 +912,34 @@ getMaxEntries() {
  */
 public void
 setMaxEntries(int entries) {
-	data.setMaxSize(entries);
+	maxsize = entries;
+}
+
+/**
+ * Gets the number of lookups answered by the Cache, positively or
+ * negatively.
+ */
+public long
+getHitCount() {
+	return hits.get();
+}
+
+/**
+ * Gets the number of lookups the Cache had no answer for, including those
+ * for which it only knows a delegation.
+ */
+public long
+getMissCount() {
+	return misses.get();
+}
+
+/**
+ * Gets the number of entries removed to keep the Cache under its maximum
+ * number of entries.
+ */
+public long
+getEvictionCount() {
+	return evictions.get();
 }
 
 /**
@@ -830,14 +956,12 @@ getDClass() {
 public String
 toString() {
 	StringBuffer sb = new StringBuffer();
-	synchronized (this) {
-		Iterator it = data.values().iterator();
-		while (it.hasNext()) {
-			Element [] elements = allElements(it.next());
-			for (int i = 0; i < elements.length; i++) {
-				sb.append(elements[i]);
-				sb.append("\n");
-			}
+	Iterator it = data.values().iterator();
+	while (it.hasNext()) {
+		Element [] elements = ((NameEntry) it.next()).elements;
+		for (int i = 0; i < elements.length; i++) {
+			sb.append(elements[i]);
+			sb.append("\n");
 		}
 	}
 	return sb.toString();
@@ -76,6 +76,8 @@ import gov2.nist.javax2.sip.parser.StringMsgParser;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Hashtable;
 import java.util.Iterator;
@@ -172,6 +174,26 @@ public abstract class SIPMessage extends MessageObject implements javax2.sip.mes
     // Table of headers indexed by name.
     private Hashtable<String, SIPHeader> nameTable;
 
+    /*
+     * Wire encoding of the last encodeAsBytes, reused by the next ones (retransmissions). The
+     * headers are memoized one by one, in the order of the header list, so that only the ones
+     * that changed are encoded again. Changes made through the message methods drop the memo,
+     * the Via and CSeq headers, which the stack modifies in place (branch, transport, sequence
+     * number), are encoded each time and any other header modified in place after the message
+     * was sent requires a call to invalidateEncoding().
+     */
+    private SIPHeader[] encodedHeaders;
+
+    private byte[][] encodedHeaderBytes;
+
+    private byte[] encodedStartLine;
+
+    private byte[] encodedContentLength;
+
+    private byte[] encodedContent;
+
+    private byte[] encodedMessage;
+
     /**
      * The application data pointer. This is un-interpreted by the stack. This is provided as a
      * convenient way of keeping book-keeping data for applications.
@@ -406,6 +428,19 @@ public abstract class SIPMessage extends MessageObject implements javax2.sip.mes
      *         byte array).
      */
     public byte[] encodeAsBytes(String transport) {
+        return encodeAsBytes(transport, null);
+    }
+
+    /**
+     * Encode the message as a byte array preceded by its start line. The encoded headers are
+     * memoized so that encoding the message again, e.g. to retransmit it, only encodes the
+     * headers that changed, and returns the previous byte array itself when nothing changed.
+     * 
+     * @param transport the transport of the topmost Via header.
+     * @param startLine the encoded request or status line, or null.
+     * @return the message as a byte array.
+     */
+    protected byte[] encodeAsBytes(String transport, byte[] startLine) {
         if (this instanceof SIPRequest && ((SIPRequest) this).isNullRequest()) {
             return "\r\n\r\n".getBytes();
         }
@@ -418,45 +453,119 @@ public abstract class SIPMessage extends MessageObject implements javax2.sip.mes
             InternalErrorHandler.handleException(e);
         }
 
-        StringBuffer encoding = new StringBuffer();
-        synchronized (this.headers) {
-            Iterator<SIPHeader> it = this.headers.iterator();
+        try {
+            String charset = getCharset();
+            synchronized (this.headers) {
+                SIPHeader[] previousHeaders = encodedHeaders;
+                byte[][] previousBytes = encodedHeaderBytes;
+                boolean changed = encodedMessage == null;
+                ArrayList<SIPHeader> headerList = new ArrayList<SIPHeader>(this.headers.size());
+                ArrayList<byte[]> bytesList = new ArrayList<byte[]>(this.headers.size());
+                int length = 0;
+                Iterator<SIPHeader> it = this.headers.iterator();
+                while (it.hasNext()) {
+                    SIPHeader siphdr = (SIPHeader) it.next();
+                    if (siphdr instanceof ContentLength)
+                        continue;
+                    int index = headerList.size();
+                    byte[] previous = previousHeaders != null && index < previousHeaders.length
+                            ? previousBytes[index] : null;
+                    byte[] bytes;
+                    if (previous != null && previousHeaders[index] == siphdr
+                            && !isEncodedEachTime(siphdr)) {
+                        bytes = previous;
+                    } else {
+                        bytes = siphdr.encode().getBytes(charset);
+                        if (previous != null && Arrays.equals(bytes, previous)) {
+                            bytes = previous;
+                        } else {
+                            changed = true;
+                        }
+                    }
+                    headerList.add(siphdr);
+                    bytesList.add(bytes);
+                    length += bytes.length;
+                }
+                if (previousHeaders == null || previousHeaders.length != headerList.size()) {
+                    changed = true;
+                }
+                byte[] contentLength = contentLengthHeader.encode(new StringBuffer())
+                        .append(NEWLINE).toString().getBytes(charset);
+                byte[] content = this.getRawContent();
+                if (!Arrays.equals(contentLength, encodedContentLength)
+                        || content != encodedContent
+                        || !Arrays.equals(startLine, encodedStartLine)) {
+                    changed = true;
+                }
+                if (!changed) {
+                    return encodedMessage;
+                }
 
-            while (it.hasNext()) {
-                SIPHeader siphdr = (SIPHeader) it.next();
-                if (!(siphdr instanceof ContentLength))
-                    siphdr.encode(encoding);
+                if (startLine != null) {
+                    length += startLine.length;
+                }
+                length += contentLength.length;
+                if (content != null) {
+                    length += content.length;
+                }
+                byte[] retval = new byte[length];
+                int offset = 0;
+                if (startLine != null) {
+                    System.arraycopy(startLine, 0, retval, 0, startLine.length);
+                    offset = startLine.length;
+                }
+                for (byte[] bytes : bytesList) {
+                    System.arraycopy(bytes, 0, retval, offset, bytes.length);
+                    offset += bytes.length;
+                }
+                System.arraycopy(contentLength, 0, retval, offset, contentLength.length);
+                offset += contentLength.length;
+                if (content != null) {
+                    System.arraycopy(content, 0, retval, offset, content.length);
+                }
 
+                encodedHeaders = headerList.toArray(new SIPHeader[headerList.size()]);
+                encodedHeaderBytes = bytesList.toArray(new byte[bytesList.size()][]);
+                encodedStartLine = startLine;
+                encodedContentLength = contentLength;
+                encodedContent = content;
+                encodedMessage = retval;
+                return retval;
             }
+        } catch (UnsupportedEncodingException ex) {
+            InternalErrorHandler.handleException(ex);
+            return null;
         }
-        contentLengthHeader.encode(encoding);
-        encoding.append(NEWLINE);
-
-        byte[] retval = null;
-        byte[] content = this.getRawContent();
-        if (content != null) {
-            // Append the content
+    }
 
-            byte[] msgarray = null;
-            try {
-                msgarray = encoding.toString().getBytes( getCharset() );
-            } catch (UnsupportedEncodingException ex) {
-                InternalErrorHandler.handleException(ex);
-            }
+    /**
+     * Headers modified in place by the stack when a message is sent or retransmitted
+     */
+    private static boolean isEncodedEachTime(SIPHeader header) {
+        return header instanceof ViaList || header instanceof Via || header instanceof CSeq;
+    }
 
-            retval = new byte[msgarray.length + content.length];
-            System.arraycopy(msgarray, 0, retval, 0, msgarray.length);
-            System.arraycopy(content, 0, retval, msgarray.length, content.length);
-        } else {
-            // Message content does not exist.
+    private void clearEncoding() {
+        encodedHeaders = null;
+        encodedHeaderBytes = null;
+        encodedStartLine = null;
+        encodedContentLength = null;
+        encodedContent = null;
+        encodedMessage = null;
+    }
 
-            try {
-                retval = encoding.toString().getBytes( getCharset() );
-            } catch (UnsupportedEncodingException ex) {
-                InternalErrorHandler.handleException(ex);
-            }
+    /**
+     * Drop the memoized wire encoding. Must be called after modifying in place a header of a
+     * message that has already been sent, so that its next transmission encodes it again.
+     */
+    public void invalidateEncoding() {
+        if (this.headers == null) {
+            clearEncoding();
+            return;
+        }
+        synchronized (this.headers) {
+            clearEncoding();
         }
-        return retval;
     }
 
     /**
@@ -491,6 +600,7 @@ public abstract class SIPMessage extends MessageObject implements javax2.sip.mes
         if (this.messageContentObject != null)
             retval.messageContentObject = makeClone(messageContentObject);
         retval.unrecognizedHeaders = this.unrecognizedHeaders;
+        retval.clearEncoding();
         return retval;
     }
 
@@ -638,6 +748,7 @@ public abstract class SIPMessage extends MessageObject implements javax2.sip.mes
 
     public void attachHeader(SIPHeader header, boolean replaceFlag, boolean top)
             throws SIPDuplicateHeaderException {
+        invalidateEncoding();
         if (header == null) {
             throw new NullPointerException("null header");
         }
@@ -721,6 +832,7 @@ public abstract class SIPMessage extends MessageObject implements javax2.sip.mes
      * @param top -- flag that indicates which end of header list to process.
      */
     public void removeHeader(String headerName, boolean top) {
+        invalidateEncoding();
 
         String headerNameLowerCase = SIPHeaderNamesCache.toLowerCase(headerName);
         SIPHeader toRemove = (SIPHeader) nameTable.get(headerNameLowerCase);
@@ -777,6 +889,7 @@ public abstract class SIPMessage extends MessageObject implements javax2.sip.mes
      * @param headerName is the name of the header to remove.
      */
     public void removeHeader(String headerName) {
+        invalidateEncoding();
 
         if (headerName == null)
             throw new NullPointerException("null arg");
@@ -1115,6 +1228,7 @@ public abstract class SIPMessage extends MessageObject implements javax2.sip.mes
      * @param callId -- the call identifier to be assigned to the call id header
      */
     public void setCallId(String callId) throws java.text.ParseException {
+        invalidateEncoding();
         if (callIdHeader == null) {
             this.setHeader(new CallID());
         }
@@ -1211,6 +1325,7 @@ public abstract class SIPMessage extends MessageObject implements javax2.sip.mes
      * @param messageContent is the messge content as a string.
      */
     public void setMessageContent(String type, String subType, String messageContent) {
+        invalidateEncoding();
         if (messageContent == null)
             throw new IllegalArgumentException("messgeContent is null");
         ContentType ct = new ContentType(type, subType);
@@ -1231,6 +1346,7 @@ public abstract class SIPMessage extends MessageObject implements javax2.sip.mes
      */
     public void setContent(Object content, ContentTypeHeader contentTypeHeader)
             throws ParseException {
+        invalidateEncoding();
         if (content == null)
             throw new NullPointerException("null content");
         this.setHeader(contentTypeHeader);
@@ -1287,6 +1403,7 @@ public abstract class SIPMessage extends MessageObject implements javax2.sip.mes
      */
     public void setMessageContent(String content, boolean strict, boolean computeContentLength, int givenLength)
             throws ParseException {
+        invalidateEncoding();
         // Note that that this could be a double byte character
         // set - bug report by Masafumi Watanabe
         computeContentLength(content);
@@ -1309,6 +1426,7 @@ public abstract class SIPMessage extends MessageObject implements javax2.sip.mes
      * @param content is the content of the message as an array of bytes.
      */
     public void setMessageContent(byte[] content) {
+        invalidateEncoding();
         computeContentLength(content);
 
         messageContentBytes = content;
@@ -1324,6 +1442,7 @@ public abstract class SIPMessage extends MessageObject implements javax2.sip.mes
      */
     public void setMessageContent(byte[] content, boolean computeContentLength, int givenLength)
             throws ParseException {
+        invalidateEncoding();
         computeContentLength(content);
         if ((!computeContentLength) && this.contentLengthHeader.getContentLength() < givenLength) {
             // System.out.println("!!!!!!!!!!! MISMATCH !!!!!!!!!!!");
@@ -1367,6 +1486,7 @@ public abstract class SIPMessage extends MessageObject implements javax2.sip.mes
      * Remove the message content if it exists.
      */
     public void removeContent() {
+        invalidateEncoding();
         messageContent = null;
         messageContentBytes = null;
         messageContentObject = null;
@@ -1483,6 +1603,7 @@ public abstract class SIPMessage extends MessageObject implements javax2.sip.mes
      * @param tag -- tag to set in the from header.
      */
     public void setFromTag(String tag) {
+        invalidateEncoding();
         try {
             fromHeader.setTag(tag);
         } catch (ParseException e) {
@@ -1495,6 +1616,7 @@ public abstract class SIPMessage extends MessageObject implements javax2.sip.mes
      * @param tag -- tag to set.
      */
     public void setToTag(String tag) {
+        invalidateEncoding();
         try {
             toHeader.setTag(tag);
         } catch (ParseException e) {
@@ -1703,6 +1825,7 @@ public abstract class SIPMessage extends MessageObject implements javax2.sip.mes
      * @param contentLength -- content length header.
      */
     public void setContentLength(ContentLengthHeader contentLength) {
+        invalidateEncoding();
         try {
             this.contentLengthHeader.setContentLength(contentLength.getContentLength());
         } catch (InvalidArgumentException ex) {
@@ -632,11 +632,7 @@ public final class SIPRequest extends SIPMessage implements javax2.sip.message.R
                 InternalErrorHandler.handleException(ex);
             }
         }
-        byte[] superbytes = super.encodeAsBytes(transport);
-        byte[] retval = new byte[rlbytes.length + superbytes.length];
-        System.arraycopy(rlbytes, 0, retval, 0, rlbytes.length);
-        System.arraycopy(superbytes, 0, retval, rlbytes.length, superbytes.length);
-        return retval;
+        return super.encodeAsBytes(transport, rlbytes);
     }
 
     /**
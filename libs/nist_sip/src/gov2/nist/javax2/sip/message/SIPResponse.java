@@ -539,12 +539,7 @@ public final class SIPResponse
                 InternalErrorHandler.handleException(ex);
             }
         }
-        byte[] superbytes = super.encodeAsBytes( transport );
-        byte[] retval = new byte[slbytes.length + superbytes.length];
-        System.arraycopy(slbytes, 0, retval, 0, slbytes.length);
-        System.arraycopy(superbytes, 0, retval, slbytes.length,
-                superbytes.length);
-        return retval;
+        return super.encodeAsBytes( transport, slbytes );
     }
 
 
@@ -972,6 +972,8 @@ public class SIPDialog implements javax2.sip.Dialog, DialogExt {
                 ackRequest.getFrom().setTag(this.getLocalTag());
             if (this.getRemoteTag() != null)
                 ackRequest.getTo().setTag(this.getRemoteTag());
+            // The ACK may have been sent already
+            ackRequest.invalidateEncoding();
         } catch (ParseException ex) {
             throw new SipException(ex.getMessage());
         }
@@ -1340,6 +1340,7 @@ public class SIPServerTransaction extends SIPTransaction implements ServerReques
                         // tag on the response -- be nice and assign the tag for
                         // the user.
                         sipResponse.getTo().setTag(Utils.getInstance().generateTag());
+                        sipResponse.invalidateEncoding();
                     } else if (dialog.getLocalTag() != null && sipResponse.getToTag() == null) {
                         sipResponse.setToTag(dialog.getLocalTag());
                     } else if (dialog.getLocalTag() != null && sipResponse.getToTag() != null
@@ -1366,6 +1367,7 @@ public class SIPServerTransaction extends SIPTransaction implements ServerReques
                 throw new SipException("From tag of request does not match response from tag");
             } else if (fromTag != null) {
                 sipResponse.getFrom().setTag(fromTag);
+                sipResponse.invalidateEncoding();
             } else {
                 if (sipStack.isLoggingEnabled())
                     sipStack.getStackLogger().logDebug("WARNING -- Null From tag in request!!");